@@ -0,0 +1,61 @@
+package org.infinispan.benchmarks;
+
+import java.io.File;
+import java.util.Random;
+
+/**
+ * Generates the keys and values used by the benchmarks.
+ *
+ * @since 7.2
+ */
+final class BenchmarkData {
+
+   private static final char[] CHARACTERS = "abcdefghijklmnopqrstuvwxyzABCDEFGHIJKLMNOPQRSTUVWXYZ0123456789".toCharArray();
+
+   private BenchmarkData() {
+   }
+
+   /**
+    * Returns {@code count} distinct keys of {@code size} characters, or more if {@code size} is too small to tell
+    * them apart.
+    */
+   static String[] keys(int count, int size) {
+      Random random = new Random(count);
+      String[] keys = new String[count];
+      StringBuilder sb = new StringBuilder(size);
+      for (int i = 0; i < count; i++) {
+         sb.setLength(0);
+         sb.append(i).append('-');
+         while (sb.length() < size) {
+            sb.append(CHARACTERS[random.nextInt(CHARACTERS.length)]);
+         }
+         keys[i] = sb.toString();
+      }
+      return keys;
+   }
+
+   static byte[] value(int size) {
+      byte[] value = new byte[size];
+      new Random(size).nextBytes(value);
+      return value;
+   }
+
+   static String stringValue(int size) {
+      Random random = new Random(size);
+      char[] chars = new char[size];
+      for (int i = 0; i < size; i++) {
+         chars[i] = CHARACTERS[random.nextInt(CHARACTERS.length)];
+      }
+      return new String(chars);
+   }
+
+   static void delete(File file) {
+      File[] children = file.listFiles();
+      if (children != null) {
+         for (File child : children) {
+            delete(child);
+         }
+      }
+      file.delete();
+   }
+}
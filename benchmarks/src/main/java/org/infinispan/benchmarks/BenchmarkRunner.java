@@ -0,0 +1,67 @@
+package org.infinispan.benchmarks;
+
+import org.openjdk.jmh.Main;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Runs the selected benchmarks once per thread count, as JMH can't use the thread count as a parameter.
+ * <p />
+ * The thread counts are read from the {@code benchmark.threads} system property, a comma separated list which
+ * defaults to 1 and the number of available processors. If a thread count is given with {@code -t}, or if the
+ * command line only asks for information, it is handed to JMH as is. When results are saved to a file, each thread
+ * count gets its own file suffixed with {@code -t<threads>}.
+ *
+ * @since 7.2
+ */
+public class BenchmarkRunner {
+
+   public static final String THREADS_PROPERTY = "benchmark.threads";
+
+   public static void main(String[] args) throws Exception {
+      CommandLineOptions commandLine = new CommandLineOptions(args);
+      if (commandLine.shouldHelp() || commandLine.shouldList() || commandLine.shouldListProfilers()
+            || commandLine.shouldListResultFormats() || commandLine.getThreads().hasValue()) {
+         Main.main(args);
+         return;
+      }
+
+      for (int threads : threadCounts()) {
+         OptionsBuilder options = new OptionsBuilder();
+         options.parent(commandLine).threads(threads);
+         if (commandLine.getResult().hasValue()) {
+            options.result(resultFile(commandLine.getResult().get(), threads));
+         }
+         new Runner(options.build()).run();
+      }
+   }
+
+   static List<Integer> threadCounts() {
+      String property = System.getProperty(THREADS_PROPERTY);
+      List<Integer> threadCounts = new ArrayList<Integer>();
+      if (property == null) {
+         threadCounts.add(1);
+         int processors = Runtime.getRuntime().availableProcessors();
+         if (processors > 1) {
+            threadCounts.add(processors);
+         }
+      } else {
+         for (String threads : property.split(",")) {
+            threadCounts.add(Integer.parseInt(threads.trim()));
+         }
+      }
+      return threadCounts;
+   }
+
+   private static String resultFile(String file, int threads) {
+      int extension = file.lastIndexOf('.');
+      if (extension <= file.lastIndexOf('/')) {
+         return file + "-t" + threads;
+      }
+      return file.substring(0, extension) + "-t" + threads + file.substring(extension);
+   }
+}
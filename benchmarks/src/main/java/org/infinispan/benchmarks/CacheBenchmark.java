@@ -0,0 +1,91 @@
+package org.infinispan.benchmarks;
+
+import org.infinispan.Cache;
+import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.configuration.global.GlobalConfigurationBuilder;
+import org.infinispan.context.Flag;
+import org.infinispan.manager.DefaultCacheManager;
+import org.infinispan.manager.EmbeddedCacheManager;
+import org.infinispan.transaction.TransactionMode;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Local cache reads and writes, going through the whole interceptor chain.
+ *
+ * @since 7.2
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+public class CacheBenchmark {
+
+   @Param({"16", "128"})
+   int keySize;
+
+   @Param({"64", "1024", "16384"})
+   int valueSize;
+
+   @Param("10000")
+   int numKeys;
+
+   @Param({"false", "true"})
+   boolean transactional;
+
+   private EmbeddedCacheManager cacheManager;
+   private Cache<String, byte[]> cache;
+   private Cache<String, byte[]> ignoreReturnValuesCache;
+   private String[] keys;
+   private byte[] value;
+
+   @Setup
+   public void setUp() {
+      ConfigurationBuilder builder = new ConfigurationBuilder();
+      if (transactional) {
+         builder.transaction().transactionMode(TransactionMode.TRANSACTIONAL).autoCommit(true);
+      }
+      cacheManager = new DefaultCacheManager(new GlobalConfigurationBuilder().build(), builder.build());
+      cache = cacheManager.getCache();
+      ignoreReturnValuesCache = cache.getAdvancedCache().withFlags(Flag.IGNORE_RETURN_VALUES);
+      keys = BenchmarkData.keys(numKeys, keySize);
+      value = BenchmarkData.value(valueSize);
+      for (String key : keys) {
+         cache.put(key, value);
+      }
+   }
+
+   @TearDown
+   public void tearDown() {
+      cacheManager.stop();
+   }
+
+   @Benchmark
+   public byte[] get(KeySequence sequence) {
+      return cache.get(keys[sequence.next(numKeys)]);
+   }
+
+   @Benchmark
+   public byte[] put(KeySequence sequence) {
+      return cache.put(keys[sequence.next(numKeys)], value);
+   }
+
+   @Benchmark
+   public byte[] putIgnoreReturnValue(KeySequence sequence) {
+      return ignoreReturnValuesCache.put(keys[sequence.next(numKeys)], value);
+   }
+}
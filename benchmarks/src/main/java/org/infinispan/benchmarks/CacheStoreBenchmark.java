@@ -0,0 +1,149 @@
+package org.infinispan.benchmarks;
+
+import org.infinispan.AdvancedCache;
+import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.configuration.cache.PersistenceConfigurationBuilder;
+import org.infinispan.configuration.cache.SingleFileStoreConfigurationBuilder;
+import org.infinispan.configuration.global.GlobalConfigurationBuilder;
+import org.infinispan.manager.DefaultCacheManager;
+import org.infinispan.manager.EmbeddedCacheManager;
+import org.infinispan.marshall.core.MarshalledEntry;
+import org.infinispan.marshall.core.MarshalledEntryFactory;
+import org.infinispan.persistence.jdbc.configuration.JdbcStringBasedStoreConfigurationBuilder;
+import org.infinispan.persistence.leveldb.configuration.LevelDBStoreConfigurationBuilder;
+import org.infinispan.persistence.manager.PersistenceManager;
+import org.infinispan.persistence.sifs.configuration.SoftIndexFileStoreConfigurationBuilder;
+import org.infinispan.persistence.spi.AdvancedLoadWriteStore;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writes and loads of each bundled cache store which doesn't need an external server, called directly so that the
+ * cache doesn't hide the cost of the store. The JDBC store uses an in-memory H2 database.
+ *
+ * @since 7.2
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+public class CacheStoreBenchmark {
+
+   public enum Store {
+      SINGLE_FILE {
+         @Override
+         void configure(PersistenceConfigurationBuilder persistence, File location) {
+            persistence.addStore(SingleFileStoreConfigurationBuilder.class)
+                  .location(location.getPath());
+         }
+      },
+      LEVELDB {
+         @Override
+         void configure(PersistenceConfigurationBuilder persistence, File location) {
+            persistence.addStore(LevelDBStoreConfigurationBuilder.class)
+                  .location(new File(location, "data").getPath())
+                  .expiredLocation(new File(location, "expired").getPath());
+         }
+      },
+      SOFT_INDEX {
+         @Override
+         void configure(PersistenceConfigurationBuilder persistence, File location) {
+            persistence.addStore(SoftIndexFileStoreConfigurationBuilder.class)
+                  .dataLocation(new File(location, "data").getPath())
+                  .indexLocation(new File(location, "index").getPath());
+         }
+      },
+      JDBC_STRING {
+         @Override
+         void configure(PersistenceConfigurationBuilder persistence, File location) {
+            JdbcStringBasedStoreConfigurationBuilder store = persistence.addStore(JdbcStringBasedStoreConfigurationBuilder.class);
+            store.table()
+                  .tableNamePrefix("ISPN_STRING")
+                  .idColumnName("ID_COLUMN")
+                  .idColumnType("VARCHAR(255)")
+                  .dataColumnName("DATA_COLUMN")
+                  .dataColumnType("BLOB")
+                  .timestampColumnName("TIMESTAMP_COLUMN")
+                  .timestampColumnType("BIGINT");
+            store.connectionPool()
+                  .driverClass(org.h2.Driver.class)
+                  .connectionUrl(String.format("jdbc:h2:mem:%s;DB_CLOSE_DELAY=-1", location.getName()))
+                  .username("sa");
+         }
+      };
+
+      abstract void configure(PersistenceConfigurationBuilder persistence, File location);
+   }
+
+   @Param({"SINGLE_FILE", "LEVELDB", "SOFT_INDEX", "JDBC_STRING"})
+   Store store;
+
+   @Param("16")
+   int keySize;
+
+   @Param({"64", "1024", "16384"})
+   int valueSize;
+
+   @Param("10000")
+   int numKeys;
+
+   private File location;
+   private EmbeddedCacheManager cacheManager;
+   private AdvancedLoadWriteStore<String, byte[]> loadWriteStore;
+   private MarshalledEntryFactory<String, byte[]> entryFactory;
+   private String[] keys;
+   private byte[] value;
+
+   @Setup
+   public void setUp() throws Exception {
+      location = Files.createTempDirectory("infinispan-benchmark-" + store.name().toLowerCase()).toFile();
+      ConfigurationBuilder builder = new ConfigurationBuilder();
+      store.configure(builder.persistence(), location);
+      cacheManager = new DefaultCacheManager(new GlobalConfigurationBuilder().build(), builder.build());
+      AdvancedCache<String, byte[]> cache = cacheManager.<String, byte[]>getCache().getAdvancedCache();
+      PersistenceManager persistenceManager = cache.getComponentRegistry().getComponent(PersistenceManager.class);
+      loadWriteStore = persistenceManager.getStores(AdvancedLoadWriteStore.class).iterator().next();
+      entryFactory = cache.getComponentRegistry().getComponent(MarshalledEntryFactory.class);
+      keys = BenchmarkData.keys(numKeys, keySize);
+      value = BenchmarkData.value(valueSize);
+      for (String key : keys) {
+         loadWriteStore.write(entryFactory.newMarshalledEntry(key, value, null));
+      }
+   }
+
+   @TearDown
+   public void tearDown() {
+      try {
+         loadWriteStore.clear();
+         cacheManager.stop();
+      } finally {
+         BenchmarkData.delete(location);
+      }
+   }
+
+   @Benchmark
+   public MarshalledEntry<String, byte[]> load(KeySequence sequence) {
+      return loadWriteStore.load(keys[sequence.next(numKeys)]);
+   }
+
+   @Benchmark
+   public void write(KeySequence sequence) {
+      loadWriteStore.write(entryFactory.newMarshalledEntry(keys[sequence.next(numKeys)], value, null));
+   }
+}
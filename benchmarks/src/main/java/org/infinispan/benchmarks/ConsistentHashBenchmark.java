@@ -0,0 +1,81 @@
+package org.infinispan.benchmarks;
+
+import org.infinispan.commons.hash.MurmurHash3;
+import org.infinispan.distribution.TestAddress;
+import org.infinispan.distribution.ch.impl.DefaultConsistentHash;
+import org.infinispan.distribution.ch.impl.DefaultConsistentHashFactory;
+import org.infinispan.remoting.transport.Address;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Key owner lookups in the default consistent hash, done by every operation of a distributed cache.
+ *
+ * @since 7.2
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ConsistentHashBenchmark {
+
+   @Param({"4", "32", "128"})
+   int numNodes;
+
+   @Param({"1", "2", "3"})
+   int numOwners;
+
+   @Param({"60", "512"})
+   int numSegments;
+
+   @Param({"16", "128"})
+   int keySize;
+
+   @Param("10000")
+   int numKeys;
+
+   private DefaultConsistentHash ch;
+   private Address member;
+   private String[] keys;
+
+   @Setup
+   public void setUp() {
+      List<Address> members = new ArrayList<Address>(numNodes);
+      for (int i = 0; i < numNodes; i++) {
+         members.add(new TestAddress(i));
+      }
+      ch = new DefaultConsistentHashFactory().create(MurmurHash3.getInstance(), numOwners, numSegments, members, null);
+      member = members.get(0);
+      keys = BenchmarkData.keys(numKeys, keySize);
+   }
+
+   @Benchmark
+   public List<Address> locateOwners(KeySequence sequence) {
+      return ch.locateOwners(keys[sequence.next(numKeys)]);
+   }
+
+   @Benchmark
+   public Address locatePrimaryOwner(KeySequence sequence) {
+      return ch.locatePrimaryOwner(keys[sequence.next(numKeys)]);
+   }
+
+   @Benchmark
+   public boolean isKeyLocalToNode(KeySequence sequence) {
+      return ch.isKeyLocalToNode(member, keys[sequence.next(numKeys)]);
+   }
+}
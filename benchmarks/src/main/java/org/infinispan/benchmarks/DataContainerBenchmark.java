@@ -0,0 +1,92 @@
+package org.infinispan.benchmarks;
+
+import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.configuration.global.GlobalConfigurationBuilder;
+import org.infinispan.container.DataContainer;
+import org.infinispan.container.entries.InternalCacheEntry;
+import org.infinispan.eviction.EvictionStrategy;
+import org.infinispan.manager.DefaultCacheManager;
+import org.infinispan.manager.EmbeddedCacheManager;
+import org.infinispan.metadata.EmbeddedMetadata;
+import org.infinispan.metadata.Metadata;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reads and writes of the data container under each eviction strategy. The keys don't all fit in a bounded
+ * container, so that writes and reads of missing keys trigger evictions.
+ *
+ * @since 7.2
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+public class DataContainerBenchmark {
+
+   @Param({"NONE", "UNORDERED", "FIFO", "LRU", "LIRS", "TINY_LFU"})
+   EvictionStrategy evictionStrategy;
+
+   @Param({"16", "128"})
+   int keySize;
+
+   @Param({"64", "1024"})
+   int valueSize;
+
+   @Param("20000")
+   int numKeys;
+
+   @Param("10000")
+   int maxEntries;
+
+   private EmbeddedCacheManager cacheManager;
+   private DataContainer<String, byte[]> container;
+   private Metadata metadata;
+   private String[] keys;
+   private byte[] value;
+
+   @Setup
+   public void setUp() {
+      ConfigurationBuilder builder = new ConfigurationBuilder();
+      if (evictionStrategy.isEnabled()) {
+         builder.eviction().strategy(evictionStrategy).maxEntries(maxEntries);
+      }
+      cacheManager = new DefaultCacheManager(new GlobalConfigurationBuilder().build(), builder.build());
+      container = cacheManager.<String, byte[]>getCache().getAdvancedCache().getDataContainer();
+      metadata = new EmbeddedMetadata.Builder().build();
+      keys = BenchmarkData.keys(numKeys, keySize);
+      value = BenchmarkData.value(valueSize);
+      for (String key : keys) {
+         container.put(key, value, metadata);
+      }
+   }
+
+   @TearDown
+   public void tearDown() {
+      cacheManager.stop();
+   }
+
+   @Benchmark
+   public InternalCacheEntry<String, byte[]> get(KeySequence sequence) {
+      return container.get(keys[sequence.next(numKeys)]);
+   }
+
+   @Benchmark
+   public void put(KeySequence sequence) {
+      container.put(keys[sequence.next(numKeys)], value, metadata);
+   }
+}
@@ -0,0 +1,28 @@
+package org.infinispan.benchmarks;
+
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Per-thread pseudo random sequence of key indexes, cheap enough not to show up in the measurements.
+ *
+ * @since 7.2
+ */
+@State(Scope.Thread)
+public class KeySequence {
+
+   private int seed = (int) System.nanoTime() | 1;
+
+   /**
+    * Returns the next index, between 0 (inclusive) and {@code bound} (exclusive).
+    */
+   public int next(int bound) {
+      // xorshift
+      int x = seed;
+      x ^= x << 13;
+      x ^= x >>> 17;
+      x ^= x << 5;
+      seed = x;
+      return (x & Integer.MAX_VALUE) % bound;
+   }
+}
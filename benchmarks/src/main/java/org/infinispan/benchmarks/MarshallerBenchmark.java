@@ -0,0 +1,140 @@
+package org.infinispan.benchmarks;
+
+import org.infinispan.commands.write.PutKeyValueCommand;
+import org.infinispan.commons.equivalence.AnyEquivalence;
+import org.infinispan.commons.marshall.StreamingMarshaller;
+import org.infinispan.configuration.global.GlobalConfigurationBuilder;
+import org.infinispan.container.entries.ImmortalCacheEntry;
+import org.infinispan.context.Flag;
+import org.infinispan.factories.KnownComponentNames;
+import org.infinispan.manager.DefaultCacheManager;
+import org.infinispan.manager.EmbeddedCacheManager;
+import org.infinispan.marshall.core.ExternalizerTable;
+import org.infinispan.marshall.core.JBossMarshaller;
+import org.infinispan.metadata.EmbeddedMetadata;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Round trips through the global marshaller, for the types the marshaller handles most often, compared with
+ * JBoss Marshalling alone, the format used for all the objects before 7.2.
+ *
+ * @since 7.2
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+public class MarshallerBenchmark {
+
+   public enum Payload {
+      BYTES {
+         @Override
+         Object create(int keySize, int valueSize) {
+            return BenchmarkData.value(valueSize);
+         }
+      },
+      STRING {
+         @Override
+         Object create(int keySize, int valueSize) {
+            return BenchmarkData.stringValue(valueSize);
+         }
+      },
+      // Internal cache entries are marshalled by the state transfer and the cache stores
+      CACHE_ENTRY {
+         @Override
+         Object create(int keySize, int valueSize) {
+            return new ImmortalCacheEntry(BenchmarkData.keys(1, keySize)[0], BenchmarkData.value(valueSize));
+         }
+      },
+      // Write commands are most of the internal traffic
+      PUT_COMMAND {
+         @Override
+         Object create(int keySize, int valueSize) {
+            return new PutKeyValueCommand(BenchmarkData.keys(1, keySize)[0], BenchmarkData.value(valueSize), false,
+                  null, new EmbeddedMetadata.Builder().build(), Collections.<Flag>emptySet(),
+                  AnyEquivalence.getInstance());
+         }
+      };
+
+      abstract Object create(int keySize, int valueSize);
+   }
+
+   public enum MarshallerType {
+      GLOBAL, JBOSS_MARSHALLING
+   }
+
+   @Param({"BYTES", "STRING", "CACHE_ENTRY", "PUT_COMMAND"})
+   Payload payload;
+
+   @Param({"GLOBAL", "JBOSS_MARSHALLING"})
+   MarshallerType marshallerType;
+
+   @Param("16")
+   int keySize;
+
+   @Param({"64", "1024", "16384"})
+   int valueSize;
+
+   private EmbeddedCacheManager cacheManager;
+   private StreamingMarshaller marshaller;
+   private Object object;
+   private byte[] bytes;
+
+   @Setup
+   public void setUp() throws Exception {
+      GlobalConfigurationBuilder global = new GlobalConfigurationBuilder();
+      global.serialization().binaryFormat(true);
+      cacheManager = new DefaultCacheManager(global.build());
+      // Starting a cache starts the global components
+      cacheManager.getCache();
+      if (marshallerType == MarshallerType.GLOBAL) {
+         marshaller = cacheManager.getGlobalComponentRegistry().getComponent(StreamingMarshaller.class,
+               KnownComponentNames.GLOBAL_MARSHALLER);
+      } else {
+         // Same externalizers, but without the version header of the global marshaller
+         JBossMarshaller jbossMarshaller = new JBossMarshaller(
+               cacheManager.getGlobalComponentRegistry().getComponent(ExternalizerTable.class), null, null,
+               cacheManager.getCacheManagerConfiguration());
+         jbossMarshaller.start();
+         marshaller = jbossMarshaller;
+      }
+      object = payload.create(keySize, valueSize);
+      bytes = marshaller.objectToByteBuffer(object);
+   }
+
+   @TearDown
+   public void tearDown() {
+      cacheManager.stop();
+   }
+
+   @Benchmark
+   public byte[] marshall() throws Exception {
+      return marshaller.objectToByteBuffer(object);
+   }
+
+   @Benchmark
+   public Object unmarshall() throws Exception {
+      return marshaller.objectFromByteBuffer(bytes);
+   }
+
+   @Benchmark
+   public Object roundTrip() throws Exception {
+      return marshaller.objectFromByteBuffer(marshaller.objectToByteBuffer(object));
+   }
+}
@@ -0,0 +1,10 @@
+/**
+ * JMH benchmarks of the hot paths of the core: cache operations through the interceptor chain, the data container
+ * under each eviction strategy, the global marshaller, the consistent hash and the bundled cache stores.
+ * <p />
+ * Build the module with {@code mvn package} and run {@code java -jar target/benchmarks.jar}. The usual JMH options
+ * apply, e.g. {@code -p valueSize=1024} to select parameter values or {@code -rf json -rff results.json} to save the
+ * results. Unless a thread count is given with {@code -t}, every benchmark runs once per thread count of the
+ * {@code benchmark.threads} system property, see {@link org.infinispan.benchmarks.BenchmarkRunner}.
+ */
+package org.infinispan.benchmarks;
@@ -0,0 +1,29 @@
+package org.infinispan.client.hotrod;
+
+/**
+ * Statistics of the near cache of a {@link RemoteCache}, gathered by the client.
+ *
+ * @since 7.2
+ */
+public interface NearCacheStatistics {
+
+   /**
+    * @return the number of reads found in the near cache
+    */
+   long getHits();
+
+   /**
+    * @return the number of reads not found in the near cache, that were sent to the server
+    */
+   long getMisses();
+
+   /**
+    * @return the number of keys invalidated by the events of the server
+    */
+   long getInvalidations();
+
+   /**
+    * Resets all the statistics to 0.
+    */
+   void resetStatistics();
+}
@@ -237,6 +237,13 @@
 
    ServerStatistics stats();
 
+   /**
+    * Returns the statistics of the near cache, gathered by this client.
+    *
+    * @return the near cache statistics, or {@code null} if the near cache is disabled
+    */
+   NearCacheStatistics nearCacheStats();
+
    /**
     * Applies one or more {@link Flag}s to the scope of a single invocation.  See the {@link Flag} enumeration to for
     * information on available flags.
@@ -270,6 +277,16 @@
     */
    Map<K, V> getBulk(int size);
 
+   /**
+    * Retrieves the values of several keys at once. The keys are grouped by the server owning them, and each server
+    * is sent a single request for all its keys, the requests to different servers being sent in parallel.
+    *
+    * @param keys the keys to retrieve
+    * @return the entries of the keys which exist in the remote cache. The returned Map is unmodifiable.
+    * @since 7.2
+    */
+   Map<K, V> getAll(Set<? extends K> keys);
+
 
    /**
     * Returns the HotRod protocol version supported by this RemoteCache implementation
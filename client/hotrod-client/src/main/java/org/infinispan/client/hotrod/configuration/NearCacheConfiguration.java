@@ -4,25 +4,62 @@ public class NearCacheConfiguration {
    // TODO: Consider an option to configure key equivalence function for near cache (e.g. for byte arrays)
    private final NearCacheMode mode;
    private final int maxEntries;
+   private final long maxSizeInBytes;
+   private final boolean bloomFilter;
+   private final long bloomFilterUpdateInterval;
 
    public NearCacheConfiguration(NearCacheMode mode, int maxEntries) {
+      this(mode, maxEntries, -1, false, NearCacheConfigurationBuilder.DEFAULT_BLOOM_FILTER_UPDATE_INTERVAL);
+   }
+
+   public NearCacheConfiguration(NearCacheMode mode, int maxEntries, long maxSizeInBytes, boolean bloomFilter,
+                                 long bloomFilterUpdateInterval) {
       this.mode = mode;
       this.maxEntries = maxEntries;
+      this.maxSizeInBytes = maxSizeInBytes;
+      this.bloomFilter = bloomFilter;
+      this.bloomFilterUpdateInterval = bloomFilterUpdateInterval;
    }
 
    public int maxEntries() {
       return maxEntries;
    }
 
+   /**
+    * The maximum size of the near cache, as the marshalled size of its keys and values in bytes, or -1 if the near
+    * cache is not bounded by size.
+    */
+   public long maxSizeInBytes() {
+      return maxSizeInBytes;
+   }
+
    public NearCacheMode mode() {
       return mode;
    }
 
+   /**
+    * Whether the server only sends the invalidations of the keys that are in a bloom filter of the keys held by the
+    * near cache.
+    */
+   public boolean bloomFilter() {
+      return bloomFilter;
+   }
+
+   /**
+    * The interval, in milliseconds, between the updates of the bloom filter of the near cache keys on the server.
+    */
+   public long bloomFilterUpdateInterval() {
+      return bloomFilterUpdateInterval;
+   }
+
    @Override
    public String toString() {
       return "NearCacheConfiguration{" +
             "mode=" + mode +
             ", maxEntries=" + maxEntries +
+            ", maxSizeInBytes=" + maxSizeInBytes +
+            ", bloomFilter=" + bloomFilter +
+            ", bloomFilterUpdateInterval=" + bloomFilterUpdateInterval +
             '}';
    }
 }
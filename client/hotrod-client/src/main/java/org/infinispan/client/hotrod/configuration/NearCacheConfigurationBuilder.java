@@ -1,11 +1,21 @@
 package org.infinispan.client.hotrod.configuration;
 
+import org.infinispan.client.hotrod.logging.Log;
+import org.infinispan.client.hotrod.logging.LogFactory;
 import org.infinispan.commons.configuration.Builder;
 
+import java.util.concurrent.TimeUnit;
+
 public class NearCacheConfigurationBuilder extends AbstractConfigurationChildBuilder
       implements Builder<NearCacheConfiguration> {
+   private static final Log log = LogFactory.getLog(NearCacheConfigurationBuilder.class);
+   static final long DEFAULT_BLOOM_FILTER_UPDATE_INTERVAL = TimeUnit.SECONDS.toMillis(10);
+
    private NearCacheMode mode = NearCacheMode.DISABLED;
    private int maxEntries = -1;
+   private long maxSizeInBytes = -1;
+   private boolean bloomFilter = false;
+   private long bloomFilterUpdateInterval = DEFAULT_BLOOM_FILTER_UPDATE_INTERVAL;
 
    protected NearCacheConfigurationBuilder(ConfigurationBuilder builder) {
       super(builder);
@@ -16,25 +26,61 @@ public NearCacheConfigurationBuilder maxEntries(int maxEntries) {
       return this;
    }
 
+   /**
+    * Bounds the near cache by the marshalled size of its keys and values, in bytes. The least recently used entries
+    * are evicted when the size is exceeded. Computing the size requires marshalling the values again when they are
+    * added to the near cache. -1, the default, means the near cache is not bounded by size.
+    */
+   public NearCacheConfigurationBuilder maxSizeInBytes(long maxSizeInBytes) {
+      this.maxSizeInBytes = maxSizeInBytes;
+      return this;
+   }
+
    public NearCacheConfigurationBuilder mode(NearCacheMode mode) {
       this.mode = mode;
       return this;
    }
 
+   /**
+    * Sends a bloom filter of the keys held by the near cache to the server, so that the server only sends the
+    * invalidations of the keys the near cache may hold instead of the invalidations of every key of the cache. Only
+    * supported by the {@link NearCacheMode#LAZY} mode.
+    * <p/>
+    * The filter is updated periodically, and a key read for the first time is only added to the near cache once it is
+    * part of the filter known by the server.
+    */
+   public NearCacheConfigurationBuilder bloomFilter(boolean bloomFilter) {
+      this.bloomFilter = bloomFilter;
+      return this;
+   }
+
+   /**
+    * The interval, in milliseconds, between the updates of the bloom filter of the near cache keys on the server.
+    */
+   public NearCacheConfigurationBuilder bloomFilterUpdateInterval(long bloomFilterUpdateInterval) {
+      this.bloomFilterUpdateInterval = bloomFilterUpdateInterval;
+      return this;
+   }
+
    @Override
    public void validate() {
-      // No-op
+      if (bloomFilter && mode != NearCacheMode.LAZY) {
+         throw log.nearCacheBloomFilterRequiresLazyMode(mode);
+      }
    }
 
    @Override
    public NearCacheConfiguration create() {
-      return new NearCacheConfiguration(mode, maxEntries);
+      return new NearCacheConfiguration(mode, maxEntries, maxSizeInBytes, bloomFilter, bloomFilterUpdateInterval);
    }
 
    @Override
    public Builder<?> read(NearCacheConfiguration template) {
       mode = template.mode();
       maxEntries = template.maxEntries();
+      maxSizeInBytes = template.maxSizeInBytes();
+      bloomFilter = template.bloomFilter();
+      bloomFilterUpdateInterval = template.bloomFilterUpdateInterval();
       return this;
    }
 }
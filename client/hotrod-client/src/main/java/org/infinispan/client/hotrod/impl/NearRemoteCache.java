@@ -1,9 +1,16 @@
 package org.infinispan.client.hotrod.impl;
 
+import org.infinispan.client.hotrod.NearCacheStatistics;
 import org.infinispan.client.hotrod.RemoteCacheManager;
 import org.infinispan.client.hotrod.VersionedValue;
 import org.infinispan.client.hotrod.near.NearCacheService;
 
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
 /**
  * Near {@link org.infinispan.client.hotrod.RemoteCache} implementation
  * enabling
@@ -40,6 +47,39 @@ public VersionedValue<V> getVersioned(K key) {
       return nearValue;
    }
 
+   @Override
+   public Map<K, V> getAll(Set<? extends K> keys) {
+      Map<K, V> result = new HashMap<K, V>();
+      Set<K> missing = new HashSet<K>();
+      for (K key : keys) {
+         VersionedValue<V> nearValue = nearcache.get(key);
+         if (nearValue != null)
+            result.put(key, nearValue.getValue());
+         else
+            missing.add(key);
+      }
+      // The bulk response carries no versions, so the remote values are not added to the near cache
+      if (!missing.isEmpty())
+         result.putAll(super.getAll(missing));
+
+      return Collections.unmodifiableMap(result);
+   }
+
+   @Override
+   protected boolean isGetAsyncNonBlocking() {
+      // Reads must go through the near cache
+      return false;
+   }
+
+   public NearCacheService<K, V> getNearCacheService() {
+      return nearcache;
+   }
+
+   @Override
+   public NearCacheStatistics nearCacheStats() {
+      return nearcache;
+   }
+
    @Override
    public void start() {
       nearcache.start(this);
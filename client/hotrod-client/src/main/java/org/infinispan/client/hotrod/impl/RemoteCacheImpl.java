@@ -3,18 +3,22 @@
 import static java.util.concurrent.TimeUnit.MILLISECONDS;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 
 import org.infinispan.client.hotrod.Flag;
 import org.infinispan.client.hotrod.MetadataValue;
+import org.infinispan.client.hotrod.NearCacheStatistics;
 import org.infinispan.client.hotrod.RemoteCache;
 import org.infinispan.client.hotrod.RemoteCacheManager;
 import org.infinispan.client.hotrod.ServerStatistics;
@@ -23,11 +27,13 @@
 import org.infinispan.client.hotrod.event.ClientListenerNotifier;
 import org.infinispan.client.hotrod.exceptions.HotRodClientException;
 import org.infinispan.client.hotrod.exceptions.RemoteCacheManagerNotStartedException;
+import org.infinispan.client.hotrod.impl.async.CompletableNotifyingFuture;
 import org.infinispan.client.hotrod.impl.operations.*;
 import org.infinispan.client.hotrod.logging.Log;
 import org.infinispan.client.hotrod.logging.LogFactory;
 import org.infinispan.client.hotrod.marshall.MarshallerUtil;
 import org.infinispan.commons.marshall.Marshaller;
+import org.infinispan.commons.util.concurrent.FutureListener;
 import org.infinispan.commons.util.concurrent.NotifyingFuture;
 import org.infinispan.commons.util.concurrent.NotifyingFutureImpl;
 
@@ -83,6 +89,10 @@ public boolean removeWithVersion(K key, long version) {
    @Override
    public NotifyingFuture<Boolean> removeWithVersionAsync(final K key, final long version) {
       assertRemoteCacheManagerIsStarted();
+      if (operationsFactory.isAsyncTransport()) {
+         RemoveIfUnmodifiedOperation op = operationsFactory.newRemoveIfUnmodifiedOperation(obj2bytes(key, true), version);
+         return updatedAsync(op);
+      }
       final NotifyingFutureImpl<Boolean> result = new NotifyingFutureImpl<Boolean>();
       Future<Boolean> future = executorService.submit(new Callable<Boolean>() {
          @Override
@@ -120,6 +130,10 @@ public boolean replaceWithVersion(K key, V newValue, long version, int lifespanS
    @Override
    public NotifyingFuture<Boolean> replaceWithVersionAsync(final K key, final V newValue, final long version, final int lifespanSeconds, final int maxIdleSeconds) {
       assertRemoteCacheManagerIsStarted();
+      if (operationsFactory.isAsyncTransport()) {
+         ReplaceIfUnmodifiedOperation op = operationsFactory.newReplaceIfUnmodifiedOperation(obj2bytes(key, true), obj2bytes(newValue, false), lifespanSeconds, maxIdleSeconds, version);
+         return updatedAsync(op);
+      }
       final NotifyingFutureImpl<Boolean> result = new NotifyingFutureImpl<Boolean>();
       Future<Boolean> future = executorService.submit(new Callable<Boolean>() {
          @Override
@@ -212,6 +226,11 @@ public boolean isEmpty() {
       return size() == 0;
    }
 
+   @Override
+   public NearCacheStatistics nearCacheStats() {
+      return null;
+   }
+
    @Override
    public ServerStatistics stats() {
       assertRemoteCacheManagerIsStarted();
@@ -264,6 +283,11 @@ public V replace(K key, V value, long lifespan, TimeUnit lifespanUnit, long maxI
    @Override
    public NotifyingFuture<V> putAsync(final K key, final V value, final long lifespan, final TimeUnit lifespanUnit, final long maxIdle, final TimeUnit maxIdleUnit) {
       assertRemoteCacheManagerIsStarted();
+      if (operationsFactory.isAsyncTransport()) {
+         applyDefaultExpirationFlags(lifespan, maxIdle);
+         PutOperation op = operationsFactory.newPutKeyValueOperation(obj2bytes(key, true), obj2bytes(value, false), toSeconds(lifespan, lifespanUnit), toSeconds(maxIdle, maxIdleUnit));
+         return valueAsync(op);
+      }
       final NotifyingFutureImpl<V> result = new NotifyingFutureImpl<V>();
       Future<V> future = executorService.submit(new Callable<V>() {
          @Override
@@ -293,6 +317,9 @@ public V call() throws Exception {
    @Override
    public NotifyingFuture<Void> clearAsync() {
       assertRemoteCacheManagerIsStarted();
+      if (operationsFactory.isAsyncTransport()) {
+         return operationsFactory.newClearOperation().executeAsync(executorService);
+      }
       final NotifyingFutureImpl<Void> result = new NotifyingFutureImpl<Void>();
       Future<Void> future = executorService.submit(new Callable<Void>() {
          @Override
@@ -322,6 +349,11 @@ public Void call() throws Exception {
    @Override
    public NotifyingFuture<V> putIfAbsentAsync(final K key,final V value,final long lifespan,final TimeUnit lifespanUnit,final long maxIdle,final TimeUnit maxIdleUnit) {
       assertRemoteCacheManagerIsStarted();
+      if (operationsFactory.isAsyncTransport()) {
+         applyDefaultExpirationFlags(lifespan, maxIdle);
+         PutIfAbsentOperation op = operationsFactory.newPutIfAbsentOperation(obj2bytes(key, true), obj2bytes(value, false), toSeconds(lifespan, lifespanUnit), toSeconds(maxIdle, maxIdleUnit));
+         return valueAsync(op);
+      }
       final NotifyingFutureImpl<V> result = new NotifyingFutureImpl<V>();
       Future<V> future = executorService.submit(new Callable<V>() {
          @Override
@@ -351,6 +383,9 @@ public V call() throws Exception {
    @Override
    public NotifyingFuture<V> removeAsync(final Object key) {
       assertRemoteCacheManagerIsStarted();
+      if (operationsFactory.isAsyncTransport()) {
+         return valueAsync(operationsFactory.newRemoveOperation(obj2bytes(key, true)));
+      }
       final NotifyingFutureImpl<V> result = new NotifyingFutureImpl<V>();
       Future<V> future = executorService.submit(new Callable<V>() {
          @Override
@@ -380,6 +415,11 @@ public V call() throws Exception {
    @Override
    public NotifyingFuture<V> replaceAsync(final K key,final V value,final long lifespan,final TimeUnit lifespanUnit,final long maxIdle,final TimeUnit maxIdleUnit) {
       assertRemoteCacheManagerIsStarted();
+      if (operationsFactory.isAsyncTransport()) {
+         applyDefaultExpirationFlags(lifespan, maxIdle);
+         ReplaceOperation op = operationsFactory.newReplaceOperation(obj2bytes(key, true), obj2bytes(value, false), toSeconds(lifespan, lifespanUnit), toSeconds(maxIdle, maxIdleUnit));
+         return valueAsync(op);
+      }
       final NotifyingFutureImpl<V> result = new NotifyingFutureImpl<V>();
       Future<V> future = executorService.submit(new Callable<V>() {
          @Override
@@ -445,6 +485,67 @@ public Map<K, V> getBulk(int size) {
       return Collections.unmodifiableMap(toReturn);
    }
 
+   @Override
+   public Map<K, V> getAll(Set<? extends K> keys) {
+      assertRemoteCacheManagerIsStarted();
+      if (keys.isEmpty()) {
+         return Collections.emptyMap();
+      }
+      Map<K, V> toReturn = new HashMap<K, V>();
+      if (!operationsFactory.isGetAllSupported()) {
+         for (K key : keys) {
+            V value = get(key);
+            if (value != null) {
+               toReturn.put(key, value);
+            }
+         }
+         return Collections.unmodifiableMap(toReturn);
+      }
+      List<byte[]> keyBytes = new ArrayList<byte[]>(keys.size());
+      for (K key : keys) {
+         keyBytes.add(obj2bytes(key, true));
+      }
+      List<GetAllOperation> ops = operationsFactory.newGetAllOperations(keyBytes);
+      // The first server is queried from the calling thread, the others in parallel
+      List<Future<Map<byte[], byte[]>>> futures = new ArrayList<Future<Map<byte[], byte[]>>>(ops.size() - 1);
+      for (int i = 1; i < ops.size(); i++) {
+         final GetAllOperation op = ops.get(i);
+         if (operationsFactory.isAsyncTransport()) {
+            futures.add(op.executeAsync(executorService));
+         } else {
+            futures.add(executorService.submit(new Callable<Map<byte[], byte[]>>() {
+               @Override
+               public Map<byte[], byte[]> call() {
+                  return op.execute();
+               }
+            }));
+         }
+      }
+      addEntries(toReturn, ops.get(0).execute());
+      for (Future<Map<byte[], byte[]>> future : futures) {
+         try {
+            addEntries(toReturn, future.get());
+         } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new HotRodClientException(e);
+         } catch (ExecutionException e) {
+            if (e.getCause() instanceof HotRodClientException) {
+               throw (HotRodClientException) e.getCause();
+            }
+            throw new HotRodClientException(e.getCause());
+         }
+      }
+      return Collections.unmodifiableMap(toReturn);
+   }
+
+   private void addEntries(Map<K, V> toReturn, Map<byte[], byte[]> entries) {
+      for (Map.Entry<byte[], byte[]> entry : entries.entrySet()) {
+         K key = MarshallerUtil.bytes2obj(marshaller, entry.getKey());
+         V value = MarshallerUtil.bytes2obj(marshaller, entry.getValue());
+         toReturn.put(key, value);
+      }
+   }
+
    @Override
    public V remove(Object key) {
       assertRemoteCacheManagerIsStarted();
@@ -543,6 +644,9 @@ public RemoteCache<K, V> withFlags(Flag... flags) {
    @Override
    public NotifyingFuture<V> getAsync(final K key) {
       assertRemoteCacheManagerIsStarted();
+      if (isGetAsyncNonBlocking()) {
+         return valueAsync(operationsFactory.newGetKeyOperation(obj2bytes(key, true)));
+      }
       final NotifyingFutureImpl<V> result = new NotifyingFutureImpl<V>();
       Future<V> future = executorService.submit(new Callable<V>() {
          @Override
@@ -569,6 +673,48 @@ public V call() throws Exception {
       return result;
    }
 
+   /**
+    * Whether {@link #getAsync(Object)} can execute the get operation itself, without blocking a thread of the
+    * executor on {@link #get(Object)}.
+    */
+   protected boolean isGetAsyncNonBlocking() {
+      return operationsFactory.isAsyncTransport();
+   }
+
+   private NotifyingFuture<V> valueAsync(RetryOnFailureOperation<byte[]> op) {
+      final CompletableNotifyingFuture<V> result = new CompletableNotifyingFuture<V>();
+      op.executeAsync(executorService).attachListener(new FutureListener<byte[]>() {
+         @Override
+         public void futureDone(Future<byte[]> future) {
+            try {
+               result.complete(MarshallerUtil.<V>bytes2obj(marshaller, future.get()));
+            } catch (ExecutionException e) {
+               result.completeExceptionally(e.getCause());
+            } catch (Throwable t) {
+               result.completeExceptionally(t);
+            }
+         }
+      });
+      return result;
+   }
+
+   private NotifyingFuture<Boolean> updatedAsync(RetryOnFailureOperation<VersionedOperationResponse> op) {
+      final CompletableNotifyingFuture<Boolean> result = new CompletableNotifyingFuture<Boolean>();
+      op.executeAsync(executorService).attachListener(new FutureListener<VersionedOperationResponse>() {
+         @Override
+         public void futureDone(Future<VersionedOperationResponse> future) {
+            try {
+               result.complete(future.get().getCode().isUpdated());
+            } catch (ExecutionException e) {
+               result.completeExceptionally(e.getCause());
+            } catch (Throwable t) {
+               result.completeExceptionally(t);
+            }
+         }
+      });
+      return result;
+   }
+
    public PingOperation.PingResult ping() {
       return operationsFactory.newFaultTolerantPingOperation().execute();
    }
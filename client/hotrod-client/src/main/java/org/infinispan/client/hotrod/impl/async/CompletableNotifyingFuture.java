@@ -0,0 +1,94 @@
+package org.infinispan.client.hotrod.impl.async;
+
+import org.infinispan.commons.util.concurrent.BaseNotifyingFuture;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * A {@link org.infinispan.commons.util.concurrent.NotifyingFuture} which is completed explicitly, instead of being
+ * backed by a task running in an executor.
+ *
+ * @since 7.2
+ */
+public class CompletableNotifyingFuture<T> extends BaseNotifyingFuture<T> {
+
+   private final AtomicBoolean completed = new AtomicBoolean();
+   private final CountDownLatch latch = new CountDownLatch(1);
+   private volatile T result;
+   private volatile Throwable exception;
+   private volatile boolean cancelled;
+
+   /**
+    * @return {@code true} if the future was completed by this call
+    */
+   public boolean complete(T result) {
+      if (!completed.compareAndSet(false, true))
+         return false;
+      this.result = result;
+      done();
+      return true;
+   }
+
+   /**
+    * @return {@code true} if the future was completed by this call
+    */
+   public boolean completeExceptionally(Throwable exception) {
+      if (!completed.compareAndSet(false, true))
+         return false;
+      this.exception = exception;
+      done();
+      return true;
+   }
+
+   private void done() {
+      latch.countDown();
+      fireListeners();
+   }
+
+   @Override
+   public boolean cancel(boolean mayInterruptIfRunning) {
+      // The request may have been sent already, cancelling only discards its outcome
+      if (!completed.compareAndSet(false, true))
+         return false;
+      cancelled = true;
+      exception = new CancellationException();
+      done();
+      return true;
+   }
+
+   @Override
+   public boolean isCancelled() {
+      return cancelled;
+   }
+
+   @Override
+   public boolean isDone() {
+      return latch.getCount() == 0;
+   }
+
+   @Override
+   public T get() throws InterruptedException, ExecutionException {
+      latch.await();
+      return report();
+   }
+
+   @Override
+   public T get(long timeout, TimeUnit unit) throws InterruptedException, ExecutionException, TimeoutException {
+      if (!latch.await(timeout, unit))
+         throw new TimeoutException();
+      return report();
+   }
+
+   private T report() throws ExecutionException {
+      if (cancelled)
+         throw (CancellationException) exception;
+      if (exception != null)
+         throw new ExecutionException(exception);
+      return result;
+   }
+}
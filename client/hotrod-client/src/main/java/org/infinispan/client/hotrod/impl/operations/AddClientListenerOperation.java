@@ -78,13 +78,24 @@ public Transport getDedicatedTransport() {
 
    @Override
    protected Short executeOperation(Transport transport) {
+      // The dedicated transport keeps reading the events from the calling thread, it is never parsed asynchronously
+      HeaderParams params = writeRequest(transport);
+      transport.flush();
+      return readResponse(transport, params);
+   }
+
+   @Override
+   protected HeaderParams writeRequest(Transport transport) {
       ClientListener clientListener = extractClientListener();
 
       HeaderParams params = writeHeader(transport, ADD_CLIENT_LISTENER_REQUEST);
       transport.writeArray(listenerId);
       codec.writeClientListenerParams(transport, clientListener, filterFactoryParams, converterFactoryParams);
-      transport.flush();
+      return params;
+   }
 
+   @Override
+   protected Short readResponse(Transport transport, HeaderParams params) {
       listenerNotifier.addClientListener(this);
       Either<Short, ClientEvent> either;
       do {
@@ -37,7 +37,7 @@ protected Transport getTransport(int retryCount,
 	}
 
 	@Override
-	protected byte[] executeOperation(Transport transport) {
+	protected HeaderParams writeRequest(Transport transport) {
 		HeaderParams params = writeHeader(transport, EXEC_REQUEST);
 		transport.writeString(taskName);
 		transport.writeVInt(marshalledParams.size());
@@ -45,7 +45,11 @@ protected byte[] executeOperation(Transport transport) {
 			transport.writeString(entry.getKey());
 			transport.writeArray(entry.getValue());
 		}
-		transport.flush();
+		return params;
+	}
+
+	@Override
+	protected byte[] readResponse(Transport transport, HeaderParams params) {
 		readHeaderAndValidate(transport, params);
 		return transport.readArray();
 	}
@@ -5,9 +5,12 @@
 import org.infinispan.client.hotrod.Flag;
 import org.infinispan.client.hotrod.RemoteCacheManager;
 import org.infinispan.client.hotrod.event.ClientListenerNotifier;
+import org.infinispan.client.hotrod.impl.consistenthash.ConsistentHash;
 import org.infinispan.client.hotrod.impl.protocol.Codec;
+import org.infinispan.client.hotrod.impl.protocol.Codec21;
 import org.infinispan.client.hotrod.impl.protocol.HotRodConstants;
 import org.infinispan.client.hotrod.impl.query.RemoteQuery;
+import org.infinispan.client.hotrod.impl.transport.AsyncTransportFactory;
 import org.infinispan.client.hotrod.impl.transport.Transport;
 import org.infinispan.client.hotrod.impl.transport.TransportFactory;
 import org.infinispan.commons.util.InfinispanCollections;
@@ -15,9 +18,13 @@
 import java.net.SocketAddress;
 import java.nio.ByteBuffer;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.atomic.AtomicInteger;
 
@@ -65,6 +72,13 @@ public byte[] getCacheName() {
       return cacheNameBytes;
    }
 
+   /**
+    * Whether operations can be executed without blocking, see {@link RetryOnFailureOperation#executeAsync}.
+    */
+   public boolean isAsyncTransport() {
+      return transportFactory instanceof AsyncTransportFactory;
+   }
+
    public GetOperation newGetKeyOperation(byte[] key) {
       return new GetOperation(
             codec, transportFactory, key, cacheNameBytes, topologyId, flags());
@@ -133,6 +147,43 @@ public ClearOperation newClearOperation() {
             codec, transportFactory, cacheNameBytes, topologyId, flags());
    }
 
+   /**
+    * Creates the operations reading the given keys, one per server owning some of them, so that each server is only
+    * asked for the keys it owns.
+    */
+   public List<GetAllOperation> newGetAllOperations(Collection<byte[]> keys) {
+      Flag[] flags = flags();
+      ConsistentHash consistentHash = transportFactory.getConsistentHash(cacheNameBytes);
+      if (consistentHash == null) {
+         Set<byte[]> allKeys = new HashSet<byte[]>(keys);
+         return Collections.singletonList(new GetAllOperation(
+               codec, transportFactory, allKeys, cacheNameBytes, topologyId, flags));
+      }
+      Map<SocketAddress, Set<byte[]>> keysByServer = new HashMap<SocketAddress, Set<byte[]>>();
+      for (byte[] key : keys) {
+         SocketAddress server = consistentHash.getServer(key);
+         Set<byte[]> serverKeys = keysByServer.get(server);
+         if (serverKeys == null) {
+            serverKeys = new HashSet<byte[]>();
+            keysByServer.put(server, serverKeys);
+         }
+         serverKeys.add(key);
+      }
+      List<GetAllOperation> operations = new ArrayList<GetAllOperation>(keysByServer.size());
+      for (Set<byte[]> serverKeys : keysByServer.values()) {
+         operations.add(new GetAllOperation(
+               codec, transportFactory, serverKeys, cacheNameBytes, topologyId, flags));
+      }
+      return operations;
+   }
+
+   /**
+    * Whether the servers understand {@link GetAllOperation}, which was added in version 2.1 of the protocol.
+    */
+   public boolean isGetAllSupported() {
+      return codec instanceof Codec21;
+   }
+
    public BulkGetOperation newBulkGetOperation(int size) {
       return new BulkGetOperation(
             codec, transportFactory, cacheNameBytes, topologyId, flags(), size);
@@ -37,7 +37,7 @@ protected Transport getTransport(int retryCount, Set<SocketAddress> failedServer
    }
 
    @Override
-   protected QueryResponse executeOperation(Transport transport) {
+   protected HeaderParams writeRequest(Transport transport) {
       HeaderParams params = writeHeader(transport, QUERY_REQUEST);
       QueryRequest queryRequest = new QueryRequest();
       queryRequest.setJpqlString(remoteQuery.getJpqlString());
@@ -52,10 +52,14 @@ protected QueryResponse executeOperation(Transport transport) {
          throw new CacheException(e);  //todo [anistor] need better exception handling
       }
       transport.writeArray(requestBytes);
-      transport.flush();
+      return params;
+   }
 
+   @Override
+   protected QueryResponse readResponse(Transport transport, HeaderParams params) {
       readHeaderAndValidate(transport, params);
       byte[] responseBytes = transport.readArray();
+      SerializationContext serCtx = remoteQuery.getSerializationContext();
       try {
          QueryResponse queryResponse = ProtobufUtil.fromByteArray(serCtx, responseBytes, QueryResponse.class);
          return queryResponse;
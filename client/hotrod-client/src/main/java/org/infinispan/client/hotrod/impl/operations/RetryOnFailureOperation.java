@@ -6,7 +6,10 @@
 import org.infinispan.client.hotrod.exceptions.RemoteIllegalLifecycleStateException;
 import org.infinispan.client.hotrod.exceptions.RemoteNodeSuspectException;
 import org.infinispan.client.hotrod.exceptions.TransportException;
+import org.infinispan.client.hotrod.impl.async.CompletableNotifyingFuture;
 import org.infinispan.client.hotrod.impl.protocol.Codec;
+import org.infinispan.client.hotrod.impl.protocol.HeaderParams;
+import org.infinispan.client.hotrod.impl.transport.AsyncTransport;
 import org.infinispan.client.hotrod.impl.transport.Transport;
 import org.infinispan.client.hotrod.impl.transport.TransportFactory;
 import org.infinispan.client.hotrod.logging.Log;
@@ -15,6 +18,8 @@
 import java.net.SocketAddress;
 import java.util.HashSet;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
 import java.util.concurrent.atomic.AtomicInteger;
 
 /**
@@ -77,6 +82,85 @@ public T execute() {
       throw new IllegalStateException("We should not reach here!");
    }
 
+   /**
+    * Executes this operation over an {@link AsyncTransport}, without blocking the calling thread while waiting for
+    * the response.
+    *
+    * @param retryExecutor executor used for retrying the operation after a failure, since obtaining a new transport
+    *                      might block and the failure is noticed by an I/O thread
+    */
+   public CompletableNotifyingFuture<T> executeAsync(Executor retryExecutor) {
+      CompletableNotifyingFuture<T> future = new CompletableNotifyingFuture<T>();
+      executeAsync(0, null, future, retryExecutor);
+      return future;
+   }
+
+   private void executeAsync(final int retryCount, final Set<SocketAddress> failedServers,
+                             final CompletableNotifyingFuture<T> future, final Executor retryExecutor) {
+      AsyncTransport transport = null;
+      try {
+         transport = (AsyncTransport) getTransport(retryCount, failedServers);
+         final HeaderParams params = writeRequest(transport);
+         final AsyncTransport requestTransport = transport;
+         transport.flush(new AsyncTransport.ResponseHandler<T>() {
+            @Override
+            public T readResponse(Transport transport) {
+               return RetryOnFailureOperation.this.readResponse(transport, params);
+            }
+
+            @Override
+            public void onResponse(T response) {
+               releaseTransport(requestTransport);
+               future.complete(response);
+            }
+
+            @Override
+            public void onFailure(Throwable cause) {
+               releaseTransport(requestTransport);
+               handleAsyncFailure(cause, requestTransport, retryCount, failedServers, future, retryExecutor);
+            }
+         });
+      } catch (Throwable t) {
+         releaseTransport(transport);
+         handleAsyncFailure(t, transport, retryCount, failedServers, future, retryExecutor);
+      }
+   }
+
+   private void handleAsyncFailure(Throwable cause, Transport transport, int retryCount,
+                                   Set<SocketAddress> failedServers, final CompletableNotifyingFuture<T> future,
+                                   final Executor retryExecutor) {
+      try {
+         if (cause instanceof TransportException) {
+            TransportException te = (TransportException) cause;
+            if (failedServers == null) {
+               failedServers = new HashSet<SocketAddress>();
+            }
+            failedServers.add(te.getServerAddress());
+            if (transport != null) {
+               transportFactory.invalidateTransport(te.getServerAddress(), transport);
+            }
+            retryCount = logTransportErrorAndThrowExceptionIfNeeded(retryCount, te);
+         } else if (cause instanceof RemoteNodeSuspectException || cause instanceof RemoteIllegalLifecycleStateException) {
+            logErrorAndThrowExceptionIfNeeded(retryCount, (HotRodClientException) cause);
+         } else {
+            future.completeExceptionally(cause);
+            return;
+         }
+      } catch (Throwable t) {
+         future.completeExceptionally(t);
+         return;
+      }
+
+      final int nextRetryCount = retryCount + 1;
+      final Set<SocketAddress> nextFailedServers = failedServers;
+      retryExecutor.execute(new Runnable() {
+         @Override
+         public void run() {
+            executeAsync(nextRetryCount, nextFailedServers, future, retryExecutor);
+         }
+      });
+   }
+
    protected boolean shouldRetry(int retryCount) {
       return retryCount <= transportFactory.getMaxRetries();
    }
@@ -116,5 +200,60 @@ protected void releaseTransport(Transport transport) {
 
    protected abstract Transport getTransport(int retryCount, Set<SocketAddress> failedServers);
 
-   protected abstract T executeOperation(Transport transport);
+   protected T executeOperation(Transport transport) {
+      HeaderParams params = writeRequest(transport);
+      if (transport instanceof AsyncTransport) {
+         // The response is parsed by the I/O thread, so that a late response does not keep the connection from
+         // being used by other requests
+         return awaitResponse((AsyncTransport) transport, params);
+      }
+      transport.flush();
+      return readResponse(transport, params);
+   }
+
+   private T awaitResponse(AsyncTransport transport, final HeaderParams params) {
+      final CompletableNotifyingFuture<T> future = new CompletableNotifyingFuture<T>();
+      transport.flush(new AsyncTransport.ResponseHandler<T>() {
+         @Override
+         public T readResponse(Transport transport) {
+            return RetryOnFailureOperation.this.readResponse(transport, params);
+         }
+
+         @Override
+         public void onResponse(T response) {
+            future.complete(response);
+         }
+
+         @Override
+         public void onFailure(Throwable cause) {
+            future.completeExceptionally(cause);
+         }
+      });
+      try {
+         return future.get();
+      } catch (InterruptedException e) {
+         Thread.currentThread().interrupt();
+         throw new TransportException(e, transport.getRemoteSocketAddress());
+      } catch (ExecutionException e) {
+         Throwable cause = e.getCause();
+         if (cause instanceof RuntimeException)
+            throw (RuntimeException) cause;
+         if (cause instanceof Error)
+            throw (Error) cause;
+         throw new HotRodClientException(cause);
+      }
+   }
+
+   /**
+    * Writes the request of this operation, without flushing it.
+    */
+   protected abstract HeaderParams writeRequest(Transport transport);
+
+   /**
+    * Reads the response of the request written by {@link #writeRequest(Transport)}. When the response is parsed by an
+    * {@link AsyncTransport} this might be invoked several times for the same response, until all of it has been
+    * received, so it must not have side effects: those of the response header are applied through
+    * {@link Transport#afterResponseRead(Runnable)}.
+    */
+   protected abstract T readResponse(Transport transport, HeaderParams params);
 }
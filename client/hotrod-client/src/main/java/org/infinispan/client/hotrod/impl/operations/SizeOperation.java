@@ -23,9 +23,12 @@ protected Transport getTransport(int retryCount, Set<SocketAddress> failedServer
    }
 
    @Override
-   protected Integer executeOperation(Transport transport) {
-      HeaderParams params = writeHeader(transport, SIZE_REQUEST);
-      transport.flush();
+   protected HeaderParams writeRequest(Transport transport) {
+      return writeHeader(transport, SIZE_REQUEST);
+   }
+
+   @Override
+   protected Integer readResponse(Transport transport, HeaderParams params) {
       readHeaderAndValidate(transport, params);
       return transport.readVInt();
    }
@@ -209,31 +209,36 @@ protected void readNewTopologyIfPresent(Transport transport, HeaderParams params
          readNewTopologyAndHash(transport, params.topologyId, params.cacheName);
    }
 
-   protected void readNewTopologyAndHash(Transport transport, AtomicInteger topologyId, byte[] cacheName) {
+   protected void readNewTopologyAndHash(final Transport transport, final AtomicInteger topologyId, final byte[] cacheName) {
       final Log localLog = getLog();
-      int newTopologyId = transport.readVInt();
-      topologyId.set(newTopologyId);
-      int numKeyOwners = transport.readUnsignedShort();
-      short hashFunctionVersion = transport.readByte();
-      int hashSpace = transport.readVInt();
+      final int newTopologyId = transport.readVInt();
+      final int numKeyOwners = transport.readUnsignedShort();
+      final short hashFunctionVersion = transport.readByte();
+      final int hashSpace = transport.readVInt();
       int clusterSize = transport.readVInt();
 
-      Map<SocketAddress, Set<Integer>> servers2Hash = computeNewHashes(
+      final Map<SocketAddress, Set<Integer>> servers2Hash = computeNewHashes(
             transport, localLog, newTopologyId, numKeyOwners,
             hashFunctionVersion, hashSpace, clusterSize);
 
-      Set<SocketAddress> socketAddresses = servers2Hash.keySet();
-      if (localLog.isInfoEnabled()) {
-         localLog.newTopology(transport.getRemoteSocketAddress(), newTopologyId,
-               socketAddresses.size(), socketAddresses);
-      }
-      transport.getTransportFactory().updateServers(socketAddresses, cacheName, false);
-      if (hashFunctionVersion == 0) {
-         localLog.trace("Not using a consistent hash function (hash function version == 0).");
-      } else {
-         transport.getTransportFactory().updateHashFunction(
-               servers2Hash, numKeyOwners, hashFunctionVersion, hashSpace, cacheName);
-      }
+      transport.afterResponseRead(new Runnable() {
+         @Override
+         public void run() {
+            topologyId.set(newTopologyId);
+            Set<SocketAddress> socketAddresses = servers2Hash.keySet();
+            if (localLog.isInfoEnabled()) {
+               localLog.newTopology(transport.getRemoteSocketAddress(), newTopologyId,
+                     socketAddresses.size(), socketAddresses);
+            }
+            transport.getTransportFactory().updateServers(socketAddresses, cacheName, false);
+            if (hashFunctionVersion == 0) {
+               localLog.trace("Not using a consistent hash function (hash function version == 0).");
+            } else {
+               transport.getTransportFactory().updateHashFunction(
+                     servers2Hash, numKeyOwners, hashFunctionVersion, hashSpace, cacheName);
+            }
+         }
+      });
    }
 
    protected Map<SocketAddress, Set<Integer>> computeNewHashes(Transport transport,
@@ -357,22 +357,21 @@ protected void readNewTopologyIfPresent(Transport transport, HeaderParams params
          readNewTopologyAndHash(transport, params.topologyId, params.cacheName);
    }
 
-   protected void readNewTopologyAndHash(Transport transport, AtomicInteger topologyId, byte[] cacheName) {
+   protected void readNewTopologyAndHash(final Transport transport, final AtomicInteger topologyId, final byte[] cacheName) {
       final Log localLog = getLog();
-      int newTopologyId = transport.readVInt();
-      topologyId.set(newTopologyId);
+      final int newTopologyId = transport.readVInt();
 
       int clusterSize = transport.readVInt();
-      SocketAddress[] addresses = new SocketAddress[clusterSize];
+      final SocketAddress[] addresses = new SocketAddress[clusterSize];
       for (int i = 0; i < clusterSize; i++) {
          String host = transport.readString();
          int port = transport.readUnsignedShort();
          addresses[i] = new InetSocketAddress(host, port);
       }
 
-      short hashFunctionVersion = transport.readByte();
-      int numSegments = transport.readVInt();
-      SocketAddress[][] segmentOwners = new SocketAddress[numSegments][];
+      final short hashFunctionVersion = transport.readByte();
+      final int numSegments = transport.readVInt();
+      final SocketAddress[][] segmentOwners = new SocketAddress[numSegments][];
       for (int i = 0; i < numSegments; i++) {
          short numOwners = transport.readByte();
          segmentOwners[i] = new SocketAddress[numOwners];
@@ -382,18 +381,24 @@ protected void readNewTopologyAndHash(Transport transport, AtomicInteger topolog
          }
       }
 
-      List<SocketAddress> addressList = Arrays.asList(addresses);
-      if (localLog.isInfoEnabled()) {
-         localLog.newTopology(transport.getRemoteSocketAddress(), newTopologyId,
-               addresses.length, new HashSet<SocketAddress>(addressList));
-      }
-      transport.getTransportFactory().updateServers(addressList, cacheName, false);
-      if (hashFunctionVersion == 0) {
-         if (trace)
-            localLog.trace("Not using a consistent hash function (hash function version == 0).");
-      } else {
-         transport.getTransportFactory().updateHashFunction(segmentOwners, numSegments, hashFunctionVersion, cacheName);
-      }
+      transport.afterResponseRead(new Runnable() {
+         @Override
+         public void run() {
+            topologyId.set(newTopologyId);
+            List<SocketAddress> addressList = Arrays.asList(addresses);
+            if (localLog.isInfoEnabled()) {
+               localLog.newTopology(transport.getRemoteSocketAddress(), newTopologyId,
+                     addresses.length, new HashSet<SocketAddress>(addressList));
+            }
+            transport.getTransportFactory().updateServers(addressList, cacheName, false);
+            if (hashFunctionVersion == 0) {
+               if (trace)
+                  localLog.trace("Not using a consistent hash function (hash function version == 0).");
+            } else {
+               transport.getTransportFactory().updateHashFunction(segmentOwners, numSegments, hashFunctionVersion, cacheName);
+            }
+         }
+      });
    }
 
 }
@@ -103,6 +103,8 @@ private short toOpRespCode(short opCode) {
             return HotRodConstants.SIZE_RESPONSE;
          case HotRodConstants.EXEC_REQUEST:
             return HotRodConstants.EXEC_RESPONSE;
+         case HotRodConstants.GET_ALL_REQUEST:
+            return HotRodConstants.GET_ALL_RESPONSE;
          default:
             throw new IllegalStateException("Unknown operation code: " + opCode);
       }
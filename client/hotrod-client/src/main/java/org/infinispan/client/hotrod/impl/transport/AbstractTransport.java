@@ -98,5 +98,11 @@ public void writeArray(byte[] toAppend) {
       writeBytes(toAppend);
    }
 
+   @Override
+   public void afterResponseRead(Runnable action) {
+      // The response is read only once
+      action.run();
+   }
+
    protected abstract void writeBytes(byte[] toAppend);
 }
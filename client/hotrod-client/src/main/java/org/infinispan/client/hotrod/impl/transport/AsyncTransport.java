@@ -0,0 +1,38 @@
+package org.infinispan.client.hotrod.impl.transport;
+
+/**
+ * A {@link Transport} which is able to send a request without blocking the calling thread until the response
+ * arrives. The response is parsed by the I/O thread which received it.
+ *
+ * @since 7.2
+ */
+public interface AsyncTransport extends Transport {
+
+   /**
+    * Sends the request written so far and returns immediately. Once the response is available the handler is
+    * invoked from an I/O thread, so it must never block.
+    */
+   <T> void flush(ResponseHandler<T> handler);
+
+   /**
+    * Parses the response of a request sent with {@link AsyncTransport#flush(ResponseHandler)}.
+    */
+   interface ResponseHandler<T> {
+
+      /**
+       * Reads the response from the given transport. Reading past the bytes received so far aborts the invocation,
+       * which is then repeated from the start of the response once more bytes arrive. Implementations must therefore
+       * not complete anything before the response has been fully read.
+       */
+      T readResponse(Transport transport);
+
+      void onResponse(T response);
+
+      /**
+       * Invoked when the response could not be read, either because {@link #readResponse(Transport)} failed or
+       * because the connection was lost, in which case the cause is a
+       * {@link org.infinispan.client.hotrod.exceptions.TransportException}.
+       */
+      void onFailure(Throwable cause);
+   }
+}
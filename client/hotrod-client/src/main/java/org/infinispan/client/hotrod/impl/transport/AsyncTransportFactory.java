@@ -0,0 +1,10 @@
+package org.infinispan.client.hotrod.impl.transport;
+
+/**
+ * A {@link TransportFactory} whose transports are {@link AsyncTransport}s, allowing operations to be executed
+ * without holding a thread while waiting for the response.
+ *
+ * @since 7.2
+ */
+public interface AsyncTransportFactory extends TransportFactory {
+}
@@ -67,4 +67,11 @@ public interface Transport {
     */
    void invalidate();
 
+   /**
+    * Runs an action which changes the state of the client according to the response being read, e.g. installing a
+    * new topology. Transports which might read a response more than once, until all of it has been received, defer
+    * the action until the response has been fully read so that it is applied only once.
+    */
+   void afterResponseRead(Runnable action);
+
 }
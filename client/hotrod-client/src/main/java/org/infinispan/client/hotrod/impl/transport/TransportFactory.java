@@ -9,6 +9,7 @@
 
 import org.infinispan.client.hotrod.configuration.Configuration;
 import org.infinispan.client.hotrod.event.ClientListenerNotifier;
+import org.infinispan.client.hotrod.impl.consistenthash.ConsistentHash;
 import org.infinispan.client.hotrod.impl.consistenthash.ConsistentHashFactory;
 import org.infinispan.client.hotrod.impl.protocol.Codec;
 
@@ -42,6 +43,12 @@ public interface TransportFactory {
 
    ConsistentHashFactory getConsistentHashFactory();
 
+   /**
+    * Returns the consistent hash used to locate the owners of the keys of the given cache, or {@code null} if the
+    * servers did not send one (e.g. the cache is not distributed).
+    */
+   ConsistentHash getConsistentHash(byte[] cacheName);
+
    Transport getTransport(byte[] key, Set<SocketAddress> failedServers, byte[] cacheName);
 
    boolean isTcpNoDelay();
@@ -0,0 +1,393 @@
+package org.infinispan.client.hotrod.impl.transport.netty;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelFuture;
+import io.netty.channel.ChannelFutureListener;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import org.infinispan.client.hotrod.exceptions.InvalidResponseException;
+import org.infinispan.client.hotrod.exceptions.TransportException;
+import org.infinispan.client.hotrod.logging.Log;
+import org.infinispan.client.hotrod.logging.LogFactory;
+
+import java.net.SocketAddress;
+import java.net.SocketTimeoutException;
+import java.nio.channels.ClosedChannelException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A connection to a server shared by many {@link NettyTransport}s.
+ * <p>
+ * Requests are pipelined, and each response is handed to the transport which sent the request with the same message
+ * id. Responses to asynchronous requests are parsed by the event loop as soon as they are complete, while synchronous
+ * transports read theirs from the calling thread once it is at the head of the inbound buffer. An asynchronous
+ * request which times out is abandoned: its response is still parsed, and discarded, so the other requests sharing
+ * the connection are not affected unless the server stops answering altogether.
+ *
+ * @since 7.2
+ */
+class MultiplexedChannel extends ChannelInboundHandlerAdapter {
+
+   private static final Log log = LogFactory.getLog(MultiplexedChannel.class, Log.class);
+   private static final boolean trace = log.isTraceEnabled();
+
+   // Compact the inbound buffer once this many bytes have been consumed
+   private static final int DISCARD_THRESHOLD = 64 * 1024;
+
+   private final SocketAddress serverAddress;
+   private final boolean dedicated;
+   private final int soTimeout;
+
+   private final ReentrantLock lock = new ReentrantLock();
+   private final Condition changed = lock.newCondition();
+   // Transports waiting for a response by message id, in the order their requests were written; guarded by lock
+   private final Map<Long, NettyTransport> pending = new LinkedHashMap<Long, NettyTransport>();
+   // The transport whose response is at the head of the inbound buffer, if known; guarded by lock
+   private NettyTransport responder;
+   // Abandoned transports whose response has not been received yet; guarded by lock
+   private int abandoned;
+   // Bytes received but not read yet; guarded by lock
+   private final ByteBuf inbound = Unpooled.buffer(1024);
+   // Set once the channel is unusable; guarded by lock
+   private TransportException closedCause;
+
+   private volatile Channel channel;
+
+   private final Runnable processResponses = new Runnable() {
+      @Override
+      public void run() {
+         List<NettyTransport> completed = new ArrayList<NettyTransport>(4);
+         boolean matched;
+         lock.lock();
+         try {
+            matched = processResponses(completed);
+            changed.signalAll();
+         } finally {
+            lock.unlock();
+         }
+         notifyCompleted(completed, matched);
+      }
+   };
+
+   MultiplexedChannel(SocketAddress serverAddress, boolean dedicated, int soTimeout) {
+      this.serverAddress = serverAddress;
+      this.dedicated = dedicated;
+      this.soTimeout = soTimeout;
+   }
+
+   void setChannel(Channel channel) {
+      this.channel = channel;
+   }
+
+   SocketAddress getServerAddress() {
+      return serverAddress;
+   }
+
+   boolean isDedicated() {
+      return dedicated;
+   }
+
+   boolean isOpen() {
+      lock.lock();
+      try {
+         return closedCause == null && channel.isActive();
+      } finally {
+         lock.unlock();
+      }
+   }
+
+   int pendingCount() {
+      lock.lock();
+      try {
+         return pending.size();
+      } finally {
+         lock.unlock();
+      }
+   }
+
+   /**
+    * Queues the transport for the response and writes the request. Takes ownership of the request buffer.
+    */
+   void send(final NettyTransport transport, ByteBuf request) {
+      lock.lock();
+      try {
+         if (closedCause != null) {
+            request.release();
+            throw closedException();
+         }
+         pending.put(transport.getMessageId(), transport);
+         // Written while holding the lock, so that the order of the queue is the order on the wire
+         channel.writeAndFlush(request).addListener(new ChannelFutureListener() {
+            @Override
+            public void operationComplete(ChannelFuture future) {
+               if (!future.isSuccess())
+                  close(future.cause());
+            }
+         });
+      } finally {
+         lock.unlock();
+      }
+      if (transport.isAsync() && soTimeout > 0) {
+         transport.setTimeout(channel.eventLoop().schedule(new Runnable() {
+            @Override
+            public void run() {
+               abandon(transport);
+            }
+         }, soTimeout, TimeUnit.MILLISECONDS));
+      }
+   }
+
+   /**
+    * Fails an asynchronous transport whose response did not arrive in time. Its response is parsed and discarded
+    * when it arrives, unless an earlier abandoned response is still missing too, in which case the server is most
+    * likely unresponsive and the channel is closed.
+    */
+   private void abandon(NettyTransport transport) {
+      boolean unresponsive;
+      lock.lock();
+      try {
+         if (closedCause != null || transport.isCompleted() || pending.get(transport.getMessageId()) != transport)
+            return;
+         unresponsive = abandoned > 0;
+         if (!unresponsive) {
+            abandoned++;
+            transport.abandon();
+         }
+      } finally {
+         lock.unlock();
+      }
+      SocketTimeoutException cause = new SocketTimeoutException(
+            String.format("No response received in %d ms", soTimeout));
+      if (unresponsive) {
+         close(cause);
+      } else {
+         if (trace)
+            log.tracef("Abandoned %s", transport);
+         transport.notifyFailed(new TransportException(cause, serverAddress));
+      }
+   }
+
+   /**
+    * Called when a synchronous transport is done reading its response, or gave up on it.
+    */
+   void release(NettyTransport transport) {
+      boolean discardChannel;
+      lock.lock();
+      try {
+         if (responder == transport) {
+            responder = null;
+            pending.remove(transport.getMessageId());
+            // A response which has not been read (or was abandoned half way) cannot be skipped
+            discardChannel = !transport.hasReadResponse() || !transport.isValid();
+         } else {
+            // The response will arrive later, and there is nothing able to parse it
+            discardChannel = pending.remove(transport.getMessageId()) != null;
+         }
+         changed.signalAll();
+      } finally {
+         lock.unlock();
+      }
+      if (discardChannel) {
+         close(new IllegalStateException("Response left unread by " + transport));
+      } else if (channel.isActive()) {
+         // Asynchronous responses queued behind this one might have arrived already
+         channel.eventLoop().execute(processResponses);
+      }
+   }
+
+   /**
+    * Waits until the given synchronous transport is first in line and at least {@code bytes} bytes are available,
+    * then returns the inbound buffer; the lock must be held by the caller.
+    */
+   ByteBuf awaitReadable(NettyTransport transport, int bytes) {
+      long remainingNanos = TimeUnit.MILLISECONDS.toNanos(soTimeout);
+      while (true) {
+         if (closedCause != null)
+            throw closedException();
+         if (responder() == transport && inbound.readableBytes() >= bytes)
+            return inbound;
+         try {
+            if (soTimeout <= 0) {
+               changed.await();
+            } else {
+               if (remainingNanos <= 0) {
+                  throw timedOut();
+               }
+               remainingNanos = changed.awaitNanos(remainingNanos);
+            }
+         } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new TransportException(e, serverAddress);
+         }
+      }
+   }
+
+   /**
+    * Returns the inbound buffer if at least {@code bytes} bytes are available, for a transport whose response is
+    * parsed by the event loop; the lock is held by {@link #channelRead(ChannelHandlerContext, Object)}.
+    */
+   ByteBuf inbound() {
+      return inbound;
+   }
+
+   ReentrantLock lock() {
+      return lock;
+   }
+
+   private TransportException timedOut() {
+      SocketTimeoutException cause = new SocketTimeoutException(
+            String.format("No response received in %d ms", soTimeout));
+      // The position in the stream is unknown now, other transports cannot use it any more
+      if (!dedicated)
+         close(cause);
+      return new TransportException(cause, serverAddress);
+   }
+
+   private TransportException closedException() {
+      return new TransportException(closedCause.getMessage(), closedCause.getCause(), serverAddress);
+   }
+
+   @Override
+   public void channelRead(ChannelHandlerContext ctx, Object msg) {
+      ByteBuf buf = (ByteBuf) msg;
+      List<NettyTransport> completed = new ArrayList<NettyTransport>(4);
+      boolean matched;
+      lock.lock();
+      try {
+         if (closedCause != null)
+            return;
+         inbound.writeBytes(buf);
+         matched = processResponses(completed);
+         changed.signalAll();
+      } finally {
+         lock.unlock();
+         buf.release();
+      }
+      notifyCompleted(completed, matched);
+   }
+
+   /**
+    * Parses the asynchronous responses available, up to the first one which is incomplete or belongs to a synchronous
+    * transport; must be called with the lock held.
+    *
+    * @return {@code false} if the response at the head of the inbound buffer does not belong to any transport
+    */
+   private boolean processResponses(List<NettyTransport> completed) {
+      boolean matched = true;
+      while (closedCause == null && inbound.isReadable()) {
+         NettyTransport transport = responder();
+         if (transport == null) {
+            // Either the message id has not been received yet, or it is unknown
+            matched = NettyTransport.readMessageId(inbound, inbound.readerIndex()) < 0;
+            break;
+         }
+         if (!transport.isAsync() || !transport.tryReadResponse() || closedCause != null)
+            break;
+         responder = null;
+         pending.remove(transport.getMessageId());
+         if (transport.isAbandoned())
+            abandoned--;
+         completed.add(transport);
+         if (!transport.isValid())
+            break;
+      }
+      if (closedCause == null && inbound.readerIndex() > DISCARD_THRESHOLD)
+         inbound.discardSomeReadBytes();
+      return matched;
+   }
+
+   /**
+    * Finds the transport the response at the head of the inbound buffer belongs to; must be called with the lock held.
+    *
+    * @return the transport, or {@code null} if its message id has not been received yet or is unknown
+    */
+   private NettyTransport responder() {
+      if (responder != null || pending.isEmpty() || !inbound.isReadable())
+         return responder;
+      if (dedicated) {
+         // Client listener events are sent along with the responses
+         responder = pending.values().iterator().next();
+      } else {
+         long messageId = NettyTransport.readMessageId(inbound, inbound.readerIndex());
+         if (messageId == 0) {
+            // The server could not read the message id of the request, it was the oldest one still waiting
+            responder = pending.values().iterator().next();
+         } else if (messageId > 0) {
+            responder = pending.get(messageId);
+         }
+      }
+      return responder;
+   }
+
+   private void notifyCompleted(List<NettyTransport> completed, boolean matched) {
+      for (NettyTransport transport : completed) {
+         if (!transport.isValid()) {
+            close(new IllegalStateException("Invalid response received by " + transport));
+         }
+         transport.notifyCompleted();
+      }
+      if (!matched) {
+         close(new InvalidResponseException("Received a response which does not match any request"));
+      }
+   }
+
+   @Override
+   public void channelInactive(ChannelHandlerContext ctx) throws Exception {
+      close(new ClosedChannelException());
+      super.channelInactive(ctx);
+   }
+
+   @Override
+   public void exceptionCaught(ChannelHandlerContext ctx, Throwable cause) {
+      close(cause);
+   }
+
+   /**
+    * Closes the connection, failing all the transports still waiting for a response.
+    */
+   void close(Throwable cause) {
+      List<NettyTransport> failed;
+      lock.lock();
+      try {
+         if (closedCause != null)
+            return;
+         if (trace)
+            log.tracef(cause, "Closing channel %s to %s", channel, serverAddress);
+         closedCause = new TransportException(cause.getMessage(), cause, serverAddress);
+         failed = new ArrayList<NettyTransport>(pending.size());
+         for (NettyTransport transport : pending.values()) {
+            // Abandoned transports have been notified already
+            if (!transport.isAbandoned())
+               failed.add(transport);
+         }
+         pending.clear();
+         responder = null;
+         // The inbound buffer is left to the garbage collector, the event loop might be parsing it
+         changed.signalAll();
+      } finally {
+         lock.unlock();
+      }
+      channel.close();
+      for (NettyTransport transport : failed) {
+         if (transport.isAsync())
+            transport.notifyFailed(closedException());
+      }
+   }
+
+   @Override
+   public String toString() {
+      return "MultiplexedChannel{" +
+            "channel=" + channel +
+            ", serverAddress=" + serverAddress +
+            ", dedicated=" + dedicated +
+            '}';
+   }
+}
@@ -0,0 +1,440 @@
+package org.infinispan.client.hotrod.impl.transport.netty;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.util.concurrent.ScheduledFuture;
+import org.infinispan.client.hotrod.exceptions.InvalidResponseException;
+import org.infinispan.client.hotrod.exceptions.TransportException;
+import org.infinispan.client.hotrod.impl.protocol.HotRodConstants;
+import org.infinispan.client.hotrod.impl.transport.AbstractTransport;
+import org.infinispan.client.hotrod.impl.transport.AsyncTransport;
+import org.infinispan.client.hotrod.logging.Log;
+import org.infinispan.client.hotrod.logging.LogFactory;
+
+import java.net.SocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The transport of a single request, sent over a {@link MultiplexedChannel} shared with other transports.
+ * <p>
+ * Writes are buffered until the request is flushed, which is when a channel to the server is picked. Requests
+ * adding a client listener turn the connection into a stream of events, so they get a channel of their own which is
+ * closed by {@link #release()}.
+ *
+ * @since 7.2
+ */
+public class NettyTransport extends AbstractTransport implements AsyncTransport {
+
+   private static final Log log = LogFactory.getLog(NettyTransport.class, Log.class);
+   private static final boolean trace = log.isTraceEnabled();
+
+   /**
+    * Thrown when an asynchronous response is parsed before all of it has been received. It is preallocated and
+    * extends {@link Error}, so that it is not caught by the codec and costs nothing to throw.
+    */
+   static final Error INCOMPLETE_RESPONSE = new Error("Incomplete response", null, false, false) {
+   };
+
+   //needed for debugging
+   private static final AtomicLong ID_COUNTER = new AtomicLong(0);
+
+   private final NettyTransportFactory transportFactory;
+   private final SocketAddress serverAddress;
+   private final long id = ID_COUNTER.incrementAndGet();
+
+   private ByteBuf request;
+   private long messageId;
+   private volatile MultiplexedChannel channel;
+   private volatile boolean invalid;
+   private boolean readStarted;
+
+   // Asynchronous execution state
+   private AsyncTransport.ResponseHandler<Object> handler;
+   private volatile boolean completed;
+   private volatile boolean abandoned;
+   private Object response;
+   private Throwable failure;
+   // Reader index of the inbound buffer where the response starts, and the bytes it needs before being parsed again
+   private int responseStart;
+   private int awaitedBytes;
+   private volatile ScheduledFuture<?> timeout;
+   // Side effects of the response being parsed, applied once all of it has been read
+   private List<Runnable> afterResponseActions;
+
+   NettyTransport(SocketAddress serverAddress, NettyTransportFactory transportFactory) {
+      super(transportFactory);
+      this.serverAddress = serverAddress;
+      this.transportFactory = transportFactory;
+   }
+
+   private ByteBuf request() {
+      if (request == null) {
+         if (channel != null && !channel.isDedicated())
+            throw new IllegalStateException("Request already sent by " + this);
+         request = Unpooled.buffer(128);
+      }
+      return request;
+   }
+
+   @Override
+   public void writeByte(short toWrite) {
+      request().writeByte(toWrite);
+   }
+
+   @Override
+   public void writeVInt(int vInt) {
+      ByteBuf buf = request();
+      while ((vInt & ~0x7F) != 0) {
+         buf.writeByte((vInt & 0x7f) | 0x80);
+         vInt >>>= 7;
+      }
+      buf.writeByte(vInt);
+   }
+
+   @Override
+   public void writeVLong(long l) {
+      ByteBuf buf = request();
+      while ((l & ~0x7F) != 0) {
+         buf.writeByte((int) ((l & 0x7f) | 0x80));
+         l >>>= 7;
+      }
+      buf.writeByte((int) l);
+   }
+
+   @Override
+   protected void writeBytes(byte[] toAppend) {
+      request().writeBytes(toAppend);
+   }
+
+   @Override
+   public void flush() {
+      send(null);
+   }
+
+   @Override
+   @SuppressWarnings("unchecked")
+   public <T> void flush(ResponseHandler<T> handler) {
+      if (handler == null)
+         throw new IllegalArgumentException("A response handler is required");
+      send((ResponseHandler<Object>) handler);
+   }
+
+   private void send(ResponseHandler<Object> handler) {
+      ByteBuf toSend = request;
+      if (toSend == null)
+         throw new IllegalStateException("Nothing to send");
+      request = null;
+      this.handler = handler;
+      messageId = readMessageId(toSend, toSend.readerIndex());
+      if (channel == null) {
+         try {
+            channel = transportFactory.acquireChannel(serverAddress, isAddClientListener(toSend));
+         } catch (RuntimeException e) {
+            toSend.release();
+            throw e;
+         }
+      }
+      if (trace)
+         log.tracef("Sending %d bytes through %s", toSend.readableBytes(), this);
+      channel.send(this, toSend);
+   }
+
+   /**
+    * Reads the message id of the request or response header starting at the given index, without moving the reader
+    * index of the buffer.
+    *
+    * @return the message id, or -1 if the buffer does not contain all of it yet
+    */
+   static long readMessageId(ByteBuf buf, int index) {
+      // [magic][message id]
+      long messageId = 0;
+      int shift = 0;
+      for (int i = index + 1; i < buf.writerIndex(); i++, shift += 7) {
+         byte b = buf.getByte(i);
+         messageId |= (b & 0x7FL) << shift;
+         if ((b & 0x80) == 0)
+            return messageId;
+      }
+      return -1;
+   }
+
+   private static boolean isAddClientListener(ByteBuf request) {
+      // [magic][message id][version][op code]
+      int index = request.readerIndex() + 1;
+      while ((request.getByte(index) & 0x80) != 0)
+         index++;
+      return request.getByte(index + 2) == HotRodConstants.ADD_CLIENT_LISTENER_REQUEST;
+   }
+
+   boolean isAsync() {
+      return handler != null;
+   }
+
+   boolean isCompleted() {
+      return completed;
+   }
+
+   long getMessageId() {
+      return messageId;
+   }
+
+   /**
+    * @return {@code true} if the response timed out, so that it is read and discarded whenever it arrives
+    */
+   boolean isAbandoned() {
+      return abandoned;
+   }
+
+   /**
+    * Gives up waiting for the response, which is still parsed once received so that the channel can be used by the
+    * other transports.
+    */
+   void abandon() {
+      abandoned = true;
+      completed = true;
+   }
+
+   boolean isValid() {
+      return !invalid;
+   }
+
+   boolean hasReadResponse() {
+      return readStarted;
+   }
+
+   void setTimeout(ScheduledFuture<?> timeout) {
+      this.timeout = timeout;
+      if (completed)
+         timeout.cancel(false);
+   }
+
+   /**
+    * Parses the response from the event loop.
+    *
+    * @return {@code false} if the response has not been fully received yet
+    */
+   boolean tryReadResponse() {
+      ByteBuf inbound = channel.inbound();
+      // Parsing again before the bytes missing the last time have been received would fail at the same point
+      if (inbound.readableBytes() < awaitedBytes)
+         return false;
+      responseStart = inbound.readerIndex();
+      try {
+         response = handler.readResponse(this);
+      } catch (Error e) {
+         if (e != INCOMPLETE_RESPONSE)
+            throw e;
+         inbound.readerIndex(responseStart);
+         // The response will be parsed again from the start
+         afterResponseActions = null;
+         return false;
+      } catch (Throwable t) {
+         failure = t;
+         if (t instanceof InvalidResponseException || t instanceof TransportException)
+            invalid = true;
+      }
+      completed = true;
+      return true;
+   }
+
+   /**
+    * Invoked once the response has been parsed, without holding the channel lock.
+    */
+   void notifyCompleted() {
+      List<Runnable> actions = afterResponseActions;
+      afterResponseActions = null;
+      if (actions != null) {
+         for (Runnable action : actions) {
+            action.run();
+         }
+      }
+      if (abandoned) {
+         if (trace)
+            log.tracef("Discarded the response to %s, received after the timeout", this);
+         return;
+      }
+      cancelTimeout();
+      if (failure != null) {
+         handler.onFailure(failure);
+      } else {
+         handler.onResponse(response);
+      }
+   }
+
+   void notifyFailed(Throwable cause) {
+      completed = true;
+      cancelTimeout();
+      handler.onFailure(cause);
+   }
+
+   private void cancelTimeout() {
+      ScheduledFuture<?> timeout = this.timeout;
+      if (timeout != null)
+         timeout.cancel(false);
+   }
+
+   private ByteBuf readable(int bytes) {
+      MultiplexedChannel channel = this.channel;
+      if (channel == null)
+         throw new IllegalStateException("Request not sent by " + this);
+      if (isAsync()) {
+         ByteBuf inbound = channel.inbound();
+         if (inbound.readableBytes() < bytes) {
+            awaitedBytes = inbound.readerIndex() - responseStart + bytes;
+            throw INCOMPLETE_RESPONSE;
+         }
+         return inbound;
+      }
+      readStarted = true;
+      return channel.awaitReadable(this, bytes);
+   }
+
+   @Override
+   public short readByte() {
+      lock();
+      try {
+         return readable(1).readUnsignedByte();
+      } finally {
+         unlock();
+      }
+   }
+
+   @Override
+   public byte[] readByteArray(int size) {
+      byte[] result = new byte[size];
+      lock();
+      try {
+         readable(size).readBytes(result);
+      } finally {
+         unlock();
+      }
+      return result;
+   }
+
+   @Override
+   public long readVLong() {
+      lock();
+      try {
+         byte b = readable(1).readByte();
+         long i = b & 0x7F;
+         for (int shift = 7; (b & 0x80) != 0; shift += 7) {
+            b = readable(1).readByte();
+            i |= (b & 0x7FL) << shift;
+         }
+         return i;
+      } finally {
+         unlock();
+      }
+   }
+
+   @Override
+   public int readVInt() {
+      lock();
+      try {
+         byte b = readable(1).readByte();
+         int i = b & 0x7F;
+         for (int shift = 7; (b & 0x80) != 0; shift += 7) {
+            b = readable(1).readByte();
+            i |= (b & 0x7F) << shift;
+         }
+         return i;
+      } finally {
+         unlock();
+      }
+   }
+
+   // Asynchronous responses are parsed by the event loop, which already holds the lock
+   private void lock() {
+      if (!isAsync())
+         channel().lock().lock();
+   }
+
+   private void unlock() {
+      if (!isAsync())
+         channel().lock().unlock();
+   }
+
+   private MultiplexedChannel channel() {
+      MultiplexedChannel channel = this.channel;
+      if (channel == null)
+         throw new IllegalStateException("Request not sent by " + this);
+      return channel;
+   }
+
+   /**
+    * Releases the channel of a transport dedicated to client listener events. Other transports are released
+    * through {@link NettyTransportFactory#releaseTransport(org.infinispan.client.hotrod.impl.transport.Transport)}.
+    */
+   @Override
+   public void release() {
+      MultiplexedChannel channel = this.channel;
+      if (channel != null && channel.isDedicated())
+         channel.close(new java.nio.channels.ClosedChannelException());
+   }
+
+   void releaseChannel() {
+      if (request != null) {
+         // Never sent
+         request.release();
+         request = null;
+      }
+      MultiplexedChannel channel = this.channel;
+      if (channel != null && !isAsync())
+         channel.release(this);
+   }
+
+   MultiplexedChannel getChannel() {
+      return channel;
+   }
+
+   @Override
+   public byte[] dumpStream() {
+      invalid = true;
+      MultiplexedChannel channel = this.channel;
+      if (channel == null)
+         return new byte[0];
+      lock();
+      try {
+         ByteBuf inbound = channel.inbound();
+         byte[] dump = new byte[Math.min(inbound.readableBytes(), 32768)];
+         inbound.getBytes(inbound.readerIndex(), dump);
+         return dump;
+      } finally {
+         unlock();
+      }
+   }
+
+   @Override
+   public SocketAddress getRemoteSocketAddress() {
+      return serverAddress;
+   }
+
+   @Override
+   public void invalidate() {
+      invalid = true;
+   }
+
+   @Override
+   public void afterResponseRead(Runnable action) {
+      if (!isAsync()) {
+         action.run();
+         return;
+      }
+      // Parsed by the event loop, which might have to start over when more bytes arrive
+      if (afterResponseActions == null)
+         afterResponseActions = new ArrayList<Runnable>(2);
+      afterResponseActions.add(action);
+   }
+
+   @Override
+   public String toString() {
+      return "NettyTransport{" +
+            "serverAddress=" + serverAddress +
+            ", id=" + id +
+            ", messageId=" + messageId +
+            ", channel=" + channel +
+            "} ";
+   }
+}
@@ -0,0 +1,494 @@
+package org.infinispan.client.hotrod.impl.transport.netty;
+
+import io.netty.bootstrap.Bootstrap;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelFuture;
+import io.netty.channel.ChannelInitializer;
+import io.netty.channel.ChannelOption;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.socket.nio.NioSocketChannel;
+import io.netty.handler.ssl.SslHandler;
+import io.netty.util.concurrent.DefaultThreadFactory;
+import net.jcip.annotations.ThreadSafe;
+import org.infinispan.client.hotrod.RemoteCacheManager;
+import org.infinispan.client.hotrod.configuration.Configuration;
+import org.infinispan.client.hotrod.configuration.ServerConfiguration;
+import org.infinispan.client.hotrod.configuration.SslConfiguration;
+import org.infinispan.client.hotrod.event.ClientListenerNotifier;
+import org.infinispan.client.hotrod.exceptions.TransportException;
+import org.infinispan.client.hotrod.impl.consistenthash.ConsistentHash;
+import org.infinispan.client.hotrod.impl.consistenthash.ConsistentHashFactory;
+import org.infinispan.client.hotrod.impl.consistenthash.SegmentConsistentHash;
+import org.infinispan.client.hotrod.impl.operations.PingOperation;
+import org.infinispan.client.hotrod.impl.protocol.Codec;
+import org.infinispan.client.hotrod.impl.transport.AsyncTransportFactory;
+import org.infinispan.client.hotrod.impl.transport.Transport;
+import org.infinispan.client.hotrod.impl.transport.tcp.FailoverRequestBalancingStrategy;
+import org.infinispan.client.hotrod.impl.transport.tcp.RequestBalancingStrategy;
+import org.infinispan.client.hotrod.impl.transport.tcp.TcpTransportFactory;
+import org.infinispan.client.hotrod.logging.Log;
+import org.infinispan.client.hotrod.logging.LogFactory;
+import org.infinispan.commons.equivalence.AnyEquivalence;
+import org.infinispan.commons.equivalence.ByteArrayEquivalence;
+import org.infinispan.commons.util.CollectionFactory;
+import org.infinispan.commons.util.SslContextFactory;
+import org.infinispan.commons.util.Util;
+
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLEngine;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Transport factory based on Netty NIO channels. Instead of borrowing a connection for each operation, operations
+ * to a server are multiplexed over a few connections, {@link Configuration#connectionPool()}'s {@code maxActive}
+ * (or {@link #DEFAULT_CHANNELS_PER_SERVER} if it is not limited) per server. Responses are parsed by the event loop
+ * threads, which allows {@link org.infinispan.client.hotrod.impl.operations.RetryOnFailureOperation#executeAsync}
+ * to complete operations without blocking a thread while waiting for them.
+ * <p>
+ * Authentication is not supported yet.
+ *
+ * @since 7.2
+ */
+@ThreadSafe
+public class NettyTransportFactory implements AsyncTransportFactory {
+
+   private static final Log log = LogFactory.getLog(NettyTransportFactory.class, Log.class);
+
+   public static final int DEFAULT_CHANNELS_PER_SERVER = 2;
+
+   private final Object lock = new Object();
+   // Per cache request balancing strategy
+   private Map<byte[], FailoverRequestBalancingStrategy> balancers;
+   // Per cache consistent hash
+   private Map<byte[], ConsistentHash> consistentHashes;
+   private Configuration configuration;
+   private Collection<SocketAddress> servers;
+   private Collection<SocketAddress> initialServers;
+   private final ConsistentHashFactory hashFactory = new ConsistentHashFactory();
+
+   private final ConcurrentMap<SocketAddress, AtomicReferenceArray<MultiplexedChannel>> channels =
+         new ConcurrentHashMap<SocketAddress, AtomicReferenceArray<MultiplexedChannel>>();
+   private final AtomicInteger channelCounter = new AtomicInteger();
+   private volatile int channelsPerServer;
+   private volatile EventLoopGroup eventLoopGroup;
+   private volatile Bootstrap bootstrap;
+   // Failing over client listeners blocks, so it must not happen in the event loop parsing the new topology
+   private volatile ExecutorService failoverExecutor;
+
+   private volatile boolean tcpNoDelay;
+   private volatile boolean tcpKeepAlive;
+   private volatile int soTimeout;
+   private volatile int connectTimeout;
+   private volatile int maxRetries;
+   private volatile SSLContext sslContext;
+   private volatile ClientListenerNotifier listenerNotifier;
+   private volatile AtomicInteger topologyId;
+
+   @Override
+   public void start(Codec codec, Configuration configuration, AtomicInteger defaultCacheTopologyId, ClientListenerNotifier listenerNotifier) {
+      if (configuration.security().authentication().enabled())
+         throw log.authenticationNotSupported(getClass().getName());
+
+      synchronized (lock) {
+         this.listenerNotifier = listenerNotifier;
+         this.configuration = configuration;
+         hashFactory.init(configuration);
+         servers = new ArrayList<SocketAddress>();
+         initialServers = new ArrayList<SocketAddress>();
+         for (ServerConfiguration server : configuration.servers()) {
+            servers.add(new InetSocketAddress(server.host(), server.port()));
+         }
+         initialServers.addAll(servers);
+         servers = Collections.unmodifiableCollection(servers);
+         tcpNoDelay = configuration.tcpNoDelay();
+         tcpKeepAlive = configuration.tcpKeepAlive();
+         soTimeout = configuration.socketTimeout();
+         connectTimeout = configuration.connectionTimeout();
+         maxRetries = configuration.maxRetries();
+         topologyId = defaultCacheTopologyId;
+         int maxActive = configuration.connectionPool().maxActive();
+         channelsPerServer = maxActive > 0 ? maxActive : DEFAULT_CHANNELS_PER_SERVER;
+
+         if (configuration.security().ssl().enabled()) {
+            SslConfiguration ssl = configuration.security().ssl();
+            if (ssl.sslContext() != null) {
+               sslContext = ssl.sslContext();
+            } else {
+               sslContext = SslContextFactory.getContext(ssl.keyStoreFileName(), ssl.keyStorePassword(), ssl.trustStoreFileName(), ssl.trustStorePassword());
+            }
+         }
+
+         if (log.isDebugEnabled()) {
+            log.debugf("Statically configured servers: %s", servers);
+            log.debugf("Load balancer class: %s", configuration.balancingStrategy().getName());
+            log.debugf("Tcp no delay = %b; client socket timeout = %d ms; connect timeout = %d ms; channels per server = %d",
+                       tcpNoDelay, soTimeout, connectTimeout, channelsPerServer);
+         }
+
+         eventLoopGroup = new NioEventLoopGroup(0, new DefaultThreadFactory("HotRod-client-netty", true));
+         failoverExecutor = Executors.newSingleThreadExecutor(new DefaultThreadFactory("HotRod-client-failover", true));
+         bootstrap = new Bootstrap()
+               .group(eventLoopGroup)
+               .channel(NioSocketChannel.class)
+               .option(ChannelOption.TCP_NODELAY, tcpNoDelay)
+               .option(ChannelOption.SO_KEEPALIVE, tcpKeepAlive)
+               .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, connectTimeout);
+         balancers = CollectionFactory.makeMap(ByteArrayEquivalence.INSTANCE, AnyEquivalence.getInstance());
+         consistentHashes = CollectionFactory.makeMap(ByteArrayEquivalence.INSTANCE, AnyEquivalence.getInstance());
+         addBalancer(RemoteCacheManager.cacheNameBytes());
+      }
+
+      if (configuration.pingOnStartup())
+         pingServers(codec, defaultCacheTopologyId);
+   }
+
+   private FailoverRequestBalancingStrategy addBalancer(byte[] cacheName) {
+      RequestBalancingStrategy cfgBalancer = Util.getInstance(configuration.balancingStrategy());
+      FailoverRequestBalancingStrategy balancer =
+            (cfgBalancer instanceof FailoverRequestBalancingStrategy)
+                  ? (FailoverRequestBalancingStrategy) cfgBalancer
+                  : new TcpTransportFactory.FailoverToRequestBalancingStrategyDelegate(cfgBalancer);
+
+      balancers.put(cacheName, balancer);
+      balancer.setServers(servers);
+      return balancer;
+   }
+
+   private void pingServers(Codec codec, AtomicInteger topologyId) {
+      for (SocketAddress addr : getServers()) {
+         Transport transport = getAddressTransport(addr);
+         try {
+            // A single successful ping is enough to retrieve the topology of the cluster
+            if (new PingOperation(codec, topologyId, transport).execute() == PingOperation.PingResult.SUCCESS)
+               return;
+         } catch (Exception e) {
+            if (log.isTraceEnabled())
+               log.tracef(e, "Ignoring exception pinging configured server %s", addr);
+         } finally {
+            releaseTransport(transport);
+         }
+      }
+   }
+
+   /**
+    * Returns the channel the request of a transport should be sent through, connecting to the server if needed.
+    */
+   MultiplexedChannel acquireChannel(SocketAddress server, boolean dedicated) {
+      if (dedicated)
+         return connect(server, true);
+
+      AtomicReferenceArray<MultiplexedChannel> serverChannels = channels.get(server);
+      if (serverChannels == null) {
+         AtomicReferenceArray<MultiplexedChannel> newChannels = new AtomicReferenceArray<MultiplexedChannel>(channelsPerServer);
+         serverChannels = channels.putIfAbsent(server, newChannels);
+         if (serverChannels == null)
+            serverChannels = newChannels;
+      }
+      int index = (channelCounter.getAndIncrement() & Integer.MAX_VALUE) % serverChannels.length();
+      MultiplexedChannel channel = serverChannels.get(index);
+      if (channel == null || !channel.isOpen()) {
+         synchronized (serverChannels) {
+            channel = serverChannels.get(index);
+            if (channel == null || !channel.isOpen()) {
+               channel = connect(server, false);
+               serverChannels.set(index, channel);
+            }
+         }
+      }
+      return channel;
+   }
+
+   private MultiplexedChannel connect(SocketAddress server, boolean dedicated) {
+      final MultiplexedChannel channel = new MultiplexedChannel(server, dedicated, soTimeout);
+      ChannelFuture future = bootstrap.clone().handler(new ChannelInitializer<Channel>() {
+         @Override
+         protected void initChannel(Channel ch) {
+            channel.setChannel(ch);
+            SSLContext sslContext = NettyTransportFactory.this.sslContext;
+            if (sslContext != null) {
+               SSLEngine engine = sslContext.createSSLEngine();
+               engine.setUseClientMode(true);
+               ch.pipeline().addLast("ssl", new SslHandler(engine));
+            }
+            ch.pipeline().addLast("multiplexer", channel);
+         }
+      }).connect(server);
+      // The connect timeout is enforced by the channel
+      future.awaitUninterruptibly();
+      if (!future.isSuccess()) {
+         String message = String.format("Could not connect to server: %s", server);
+         log.tracef(future.cause(), "Could not connect to server: %s", server);
+         throw new TransportException(message, future.cause(), server);
+      }
+      if (log.isTraceEnabled())
+         log.tracef("Created channel: %s", channel);
+      return channel;
+   }
+
+   @Override
+   public void destroy() {
+      synchronized (lock) {
+         for (SocketAddress server : channels.keySet()) {
+            closeChannels(server);
+         }
+         if (failoverExecutor != null)
+            failoverExecutor.shutdownNow();
+         if (eventLoopGroup != null)
+            eventLoopGroup.shutdownGracefully().awaitUninterruptibly();
+      }
+   }
+
+   private void closeChannels(SocketAddress server) {
+      AtomicReferenceArray<MultiplexedChannel> serverChannels = channels.remove(server);
+      if (serverChannels != null) {
+         for (int i = 0; i < serverChannels.length(); i++) {
+            MultiplexedChannel channel = serverChannels.get(i);
+            if (channel != null)
+               channel.close(new TransportException("Server removed", server));
+         }
+      }
+   }
+
+   @Override
+   public void updateHashFunction(Map<SocketAddress, Set<Integer>> servers2Hash, int numKeyOwners, short hashFunctionVersion, int hashSpace, byte[] cacheName) {
+      synchronized (lock) {
+         ConsistentHash hash = hashFactory.newConsistentHash(hashFunctionVersion);
+         if (hash == null) {
+            log.noHasHFunctionConfigured(hashFunctionVersion);
+         } else {
+            hash.init(servers2Hash, numKeyOwners, hashSpace);
+         }
+         consistentHashes.put(cacheName, hash);
+      }
+   }
+
+   @Override
+   public void updateHashFunction(SocketAddress[][] segmentOwners, int numSegments, short hashFunctionVersion, byte[] cacheName) {
+      synchronized (lock) {
+         SegmentConsistentHash hash = hashFactory.newConsistentHash(hashFunctionVersion);
+         if (hash == null) {
+            log.noHasHFunctionConfigured(hashFunctionVersion);
+         } else {
+            hash.init(segmentOwners, numSegments);
+         }
+         consistentHashes.put(cacheName, hash);
+      }
+   }
+
+   @Override
+   public Transport getTransport(Set<SocketAddress> failedServers, byte[] cacheName) {
+      SocketAddress server;
+      synchronized (lock) {
+         server = getNextServer(failedServers, cacheName);
+      }
+      return new NettyTransport(server, this);
+   }
+
+   // To be called from within `lock` synchronized block
+   private SocketAddress getNextServer(Set<SocketAddress> failedServers, byte[] cacheName) {
+      FailoverRequestBalancingStrategy balancer = balancers.get(cacheName);
+      if (balancer == null)
+         balancer = addBalancer(cacheName);
+
+      SocketAddress server = balancer.nextServer(failedServers);
+      if (log.isTraceEnabled())
+         log.tracef("Using the balancer for determining the server: %s", server);
+
+      return server;
+   }
+
+   @Override
+   public Transport getAddressTransport(SocketAddress server) {
+      return new NettyTransport(server, this);
+   }
+
+   @Override
+   public Transport getTransport(byte[] key, Set<SocketAddress> failedServers, byte[] cacheName) {
+      SocketAddress server;
+      synchronized (lock) {
+         ConsistentHash consistentHash = consistentHashes.get(cacheName);
+         if (consistentHash != null) {
+            server = consistentHash.getServer(key);
+            if (log.isTraceEnabled()) {
+               log.tracef("Using consistent hash for determining the server: " + server);
+            }
+         } else {
+            server = getNextServer(failedServers, cacheName);
+         }
+      }
+      return new NettyTransport(server, this);
+   }
+
+   @Override
+   public void releaseTransport(Transport transport) {
+      ((NettyTransport) transport).releaseChannel();
+   }
+
+   @Override
+   public void invalidateTransport(SocketAddress serverAddress, Transport transport) {
+      if (transport == null) {
+         // Invalidate all the connections to the server
+         closeChannels(serverAddress);
+      } else {
+         NettyTransport nettyTransport = (NettyTransport) transport;
+         MultiplexedChannel channel = nettyTransport.getChannel();
+         // A timed out response is still read and discarded, the channel is usable by the other transports
+         if (channel != null && !nettyTransport.isAbandoned())
+            channel.close(new TransportException("Transport invalidated", serverAddress));
+      }
+   }
+
+   @Override
+   public void updateServers(Collection<SocketAddress> newServers, byte[] cacheName, boolean quiet) {
+      final Set<SocketAddress> failedServers;
+      synchronized (lock) {
+         Set<SocketAddress> addedServers = new HashSet<SocketAddress>(newServers);
+         addedServers.removeAll(servers);
+         failedServers = new HashSet<SocketAddress>(servers);
+         failedServers.removeAll(newServers);
+         if (log.isTraceEnabled()) {
+            log.tracef("Current list: %s", servers);
+            log.tracef("New list: %s", newServers);
+            log.tracef("Added servers: %s", addedServers);
+            log.tracef("Removed servers: %s", failedServers);
+         }
+
+         if (failedServers.isEmpty() && newServers.isEmpty()) {
+            log.debug("Same list of servers, not changing the channels");
+            return;
+         }
+
+         // Channels to new servers are opened when first used
+         for (SocketAddress server : addedServers) {
+            log.newServerAdded(server);
+         }
+
+         for (SocketAddress server : failedServers) {
+            log.removingServer(server);
+            closeChannels(server);
+         }
+
+         servers = Collections.unmodifiableList(new ArrayList<SocketAddress>(newServers));
+
+         FailoverRequestBalancingStrategy balancer = balancers.get(cacheName);
+         if (balancer == null)
+            balancer = addBalancer(cacheName);
+         balancer.setServers(servers);
+      }
+
+      if (!failedServers.isEmpty()) {
+         failoverExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+               listenerNotifier.failoverClientListeners(failedServers);
+            }
+         });
+      }
+   }
+
+   public Collection<SocketAddress> getServers() {
+      synchronized (lock) {
+         return servers;
+      }
+   }
+
+   /**
+    * Note that the returned <code>ConsistentHash</code> may not be thread-safe.
+    */
+   @Override
+   public ConsistentHash getConsistentHash(byte[] cacheName) {
+      synchronized (lock) {
+         return consistentHashes.get(cacheName);
+      }
+   }
+
+   /**
+    * Returns the number of responses being waited for over the channels to the given server.
+    */
+   public int getPendingResponses(SocketAddress server) {
+      AtomicReferenceArray<MultiplexedChannel> serverChannels = channels.get(server);
+      int pending = 0;
+      if (serverChannels != null) {
+         for (int i = 0; i < serverChannels.length(); i++) {
+            MultiplexedChannel channel = serverChannels.get(i);
+            if (channel != null)
+               pending += channel.pendingCount();
+         }
+      }
+      return pending;
+   }
+
+   /**
+    * Returns the number of open channels to the given server, not counting those dedicated to client listeners.
+    */
+   public int getOpenChannels(SocketAddress server) {
+      AtomicReferenceArray<MultiplexedChannel> serverChannels = channels.get(server);
+      int open = 0;
+      if (serverChannels != null) {
+         for (int i = 0; i < serverChannels.length(); i++) {
+            MultiplexedChannel channel = serverChannels.get(i);
+            if (channel != null && channel.isOpen())
+               open++;
+         }
+      }
+      return open;
+   }
+
+   @Override
+   public ConsistentHashFactory getConsistentHashFactory() {
+      return hashFactory;
+   }
+
+   @Override
+   public boolean isTcpNoDelay() {
+      return tcpNoDelay;
+   }
+
+   @Override
+   public boolean isTcpKeepAlive() {
+      return tcpKeepAlive;
+   }
+
+   @Override
+   public int getMaxRetries() {
+      if (Thread.currentThread().isInterrupted()) {
+         return -1;
+      }
+      return maxRetries;
+   }
+
+   @Override
+   public int getSoTimeout() {
+      return soTimeout;
+   }
+
+   @Override
+   public int getConnectTimeout() {
+      return connectTimeout;
+   }
+
+   @Override
+   public SSLContext getSSLContext() {
+      return sslContext;
+   }
+
+   @Override
+   public void reset(byte[] cacheName) {
+      updateServers(initialServers, cacheName, true);
+      topologyId.set(-1);
+   }
+}
@@ -369,6 +369,7 @@ private Transport borrowTransportFromPool(SocketAddress server) {
    /**
     * Note that the returned <code>ConsistentHash</code> may not be thread-safe.
     */
+   @Override
    public ConsistentHash getConsistentHash(byte[] cacheName) {
       synchronized (lock) {
          return consistentHashes.get(cacheName);
@@ -434,10 +435,10 @@ public GenericKeyedObjectPool<SocketAddress, TcpTransport> getConnectionPool() {
       }
    }
 
-   private static class FailoverToRequestBalancingStrategyDelegate implements FailoverRequestBalancingStrategy {
+   public static class FailoverToRequestBalancingStrategyDelegate implements FailoverRequestBalancingStrategy {
       final RequestBalancingStrategy delegate;
 
-      private FailoverToRequestBalancingStrategyDelegate(RequestBalancingStrategy delegate) {
+      public FailoverToRequestBalancingStrategyDelegate(RequestBalancingStrategy delegate) {
          this.delegate = delegate;
       }
 
@@ -1,5 +1,6 @@
 package org.infinispan.client.hotrod.logging;
 
+import org.infinispan.client.hotrod.configuration.NearCacheMode;
 import org.infinispan.client.hotrod.event.ClientEvent;
 import org.infinispan.client.hotrod.event.IncorrectClientListenerException;
 import org.infinispan.client.hotrod.exceptions.HotRodClientException;
@@ -183,4 +184,14 @@ public interface Log extends BasicLogger {
    @LogMessage(level = ERROR)
    @Message(value = "Unable to read %s bytes %s", id = 4044)
    void unableToUnmarshallBytesError(String element, String bytes, @Cause Exception e);
+
+   @Message(value = "Authentication is not supported by the transport factory %s", id = 4045)
+   HotRodClientException authenticationNotSupported(String transportFactory);
+
+   @Message(value = "Near cache bloom filters require the lazy near cache mode, not %s", id = 4046)
+   CacheConfigurationException nearCacheBloomFilterRequiresLazyMode(NearCacheMode mode);
+
+   @LogMessage(level = WARN)
+   @Message(value = "Unable to update the bloom filter of the near cache, new keys are not cached until the next update", id = 4047)
+   void unableToUpdateNearCacheBloomFilter(@Cause Exception e);
 }
@@ -33,6 +33,11 @@ public VersionedValue<V> get(Object key) {
       return cache.get(key);
    }
 
+   @Override
+   public boolean containsKey(K key) {
+      return cache.containsKey(key);
+   }
+
    @Override
    public void clear() {
       cache.clear();
@@ -70,6 +70,18 @@ public VersionedValue<V> get(K key) {
       }
    }
 
+   @Override
+   public boolean containsKey(K key) {
+      Lock lock = rwlock.readLock();
+      try {
+         lock.lock();
+         // Unlike get(), it does not change the access order
+         return cache.containsKey(key);
+      } finally {
+         lock.unlock();
+      }
+   }
+
    @Override
    public void clear() {
       Lock lock = rwlock.writeLock();
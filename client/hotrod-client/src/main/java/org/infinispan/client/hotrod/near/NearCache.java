@@ -7,5 +7,6 @@
    void putIfAbsent(K key, VersionedValue<V> value);
    void remove(K key);
    VersionedValue<V> get(K key);
+   boolean containsKey(K key);
    void clear();
 }
@@ -1,5 +1,6 @@
 package org.infinispan.client.hotrod.near;
 
+import org.infinispan.client.hotrod.NearCacheStatistics;
 import org.infinispan.client.hotrod.RemoteCache;
 import org.infinispan.client.hotrod.VersionedValue;
 import org.infinispan.client.hotrod.annotation.ClientCacheEntryCreated;
@@ -14,23 +15,53 @@
 import org.infinispan.client.hotrod.event.ClientCacheEntryRemovedEvent;
 import org.infinispan.client.hotrod.event.ClientCacheFailoverEvent;
 import org.infinispan.client.hotrod.event.ClientListenerNotifier;
+import org.infinispan.client.hotrod.impl.RemoteCacheImpl;
 import org.infinispan.client.hotrod.impl.VersionedValueImpl;
 import org.infinispan.client.hotrod.logging.Log;
 import org.infinispan.client.hotrod.logging.LogFactory;
 import org.infinispan.commons.io.UnsignedNumeric;
 import org.infinispan.commons.marshall.Marshaller;
+import org.infinispan.commons.util.BloomFilter;
+import org.infinispan.commons.util.CollectionFactory;
 import org.infinispan.commons.util.Util;
 
 import java.nio.ByteBuffer;
-
-public class NearCacheService<K, V> implements NearCache<K, V> {
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+public class NearCacheService<K, V> implements NearCache<K, V>, NearCacheStatistics {
    private static final Log log = LogFactory.getLog(NearCacheService.class);
 
    private final NearCacheConfiguration config;
    private final ClientListenerNotifier listenerNotifier;
-   private Object listener;
-   private byte[] listenerId;
+   private final AtomicLong hits = new AtomicLong();
+   private final AtomicLong misses = new AtomicLong();
+   private final AtomicLong invalidations = new AtomicLong();
+   private volatile Object listener;
+   private volatile byte[] listenerId;
    private NearCache<K, V> cache;
+   private Marshaller marshaller;
+
+   // Bloom filter mode: the hashes of the marshalled keys that are in the near cache, or were read since the last update
+   private final ConcurrentMap<K, Long> keyHashes = CollectionFactory.makeConcurrentMap();
+   // Keys read since the last update that are not in the server's filter, so they were not added to the near cache
+   private final Set<K> pendingKeys = Collections.newSetFromMap(CollectionFactory.<K, Boolean>makeConcurrentMap());
+   // Held for writing while the server's filter is replaced, so that no key outside the filter is added
+   private final ReadWriteLock filterLock = new ReentrantReadWriteLock();
+   private volatile BloomFilter serverFilter;
+   private ScheduledExecutorService filterUpdater;
 
    protected NearCacheService(NearCacheConfiguration config, ClientListenerNotifier listenerNotifier) {
       this.config = config;
@@ -38,8 +69,13 @@ protected NearCacheService(NearCacheConfiguration config, ClientListenerNotifier
    }
 
    public void start(RemoteCache<K, V> remote) {
+      marshaller = remote.getRemoteCacheManager().getMarshaller();
       // Create near cache
       cache = createNearCache(config);
+      if (config.bloomFilter()) {
+         startBloomFilterUpdates(remote);
+         return;
+      }
       // Add a listener that updates the near cache
       listener = createListener(remote);
       remote.addClientListener(listener);
@@ -47,6 +83,96 @@ public void start(RemoteCache<K, V> remote) {
       listenerId = listenerNotifier.findListenerId(listener);
    }
 
+   private void startBloomFilterUpdates(final RemoteCache<K, V> remote) {
+      // Nothing is cached until the first keys are part of the server's filter
+      BloomFilter emptyFilter = BloomFilter.forExpectedElements(0);
+      listener = addBloomFilterListener(remote, emptyFilter);
+      listenerId = listenerNotifier.findListenerId(listener);
+      serverFilter = emptyFilter;
+
+      filterUpdater = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+         @Override
+         public Thread newThread(Runnable r) {
+            Thread th = new Thread(r, "HotRod-client-near-cache-filter-" + remote.getName());
+            th.setDaemon(true);
+            return th;
+         }
+      });
+      long interval = config.bloomFilterUpdateInterval();
+      filterUpdater.scheduleWithFixedDelay(new Runnable() {
+         @Override
+         public void run() {
+            try {
+               updateBloomFilter(remote);
+            } catch (Exception e) {
+               log.unableToUpdateNearCacheBloomFilter(e);
+            }
+         }
+      }, interval, interval, TimeUnit.MILLISECONDS);
+   }
+
+   /**
+    * Sends a new bloom filter of the keys in the near cache, and of the keys read since the previous update, to the
+    * server. The listener with the new filter is added before the listener with the previous filter is removed, so
+    * that no invalidation is missed.
+    */
+   void updateBloomFilter(RemoteCache<K, V> remote) {
+      if (pendingKeys.isEmpty())
+         return;
+
+      BloomFilter filter;
+      Set<K> sentKeys;
+      Lock lock = filterLock.writeLock();
+      lock.lock();
+      try {
+         // Forget the keys evicted from the near cache, and the keys read once before the previous update
+         for (Iterator<Map.Entry<K, Long>> it = keyHashes.entrySet().iterator(); it.hasNext(); ) {
+            K key = it.next().getKey();
+            if (!pendingKeys.contains(key) && !cache.containsKey(key))
+               it.remove();
+         }
+         filter = BloomFilter.forExpectedElements(keyHashes.size());
+         for (Long hash : keyHashes.values())
+            filter.addHash(hash);
+         sentKeys = new HashSet<K>(pendingKeys);
+      } finally {
+         lock.unlock();
+      }
+
+      // If the listener can't be added, the pending keys are sent again with the next update
+      Object newListener = addBloomFilterListener(remote, filter);
+      Object oldListener = listener;
+      lock.lock();
+      try {
+         // Keys read while the listener was added are sent with the next update
+         pendingKeys.removeAll(sentKeys);
+         serverFilter = filter;
+         listener = newListener;
+         listenerId = listenerNotifier.findListenerId(newListener);
+         // Keys added since the filter was built may not be part of it, and the server would not invalidate them
+         for (Map.Entry<K, Long> e : keyHashes.entrySet()) {
+            if (!filter.mightContainHash(e.getValue()))
+               cache.remove(e.getKey());
+         }
+      } finally {
+         lock.unlock();
+      }
+      remote.removeClientListener(oldListener);
+
+      if (log.isTraceEnabled())
+         log.tracef("Updated the bloom filter of the near cache with %d keys (listenerId=%s)",
+               keyHashes.size(), Util.printArray(listenerId));
+   }
+
+   private Object addBloomFilterListener(RemoteCache<K, V> remote, BloomFilter filter) {
+      Object bloomFilterListener = new BloomFilterNearCacheListener<K, V>(this);
+      // The filter is sent as raw data, to be read by the server without a marshaller
+      byte[][] filterParams = new byte[][]{filter.toBytes()};
+      ((RemoteCacheImpl<K, V>) remote).getOperationsFactory()
+            .newAddClientListenerOperation(bloomFilterListener, filterParams, new byte[0][]).execute();
+      return bloomFilterListener;
+   }
+
    private Object createListener(RemoteCache<K, V> remote) {
       return config.mode().eager()
             ? new EagerNearCacheListener<K, V>(this, remote.getRemoteCacheManager().getMarshaller())
@@ -57,13 +183,18 @@ public void stop(RemoteCache<K, V> remote) {
       if (log.isTraceEnabled())
          log.tracef("Stop near cache, remove underlying listener id %s", Util.printArray(listenerId));
 
+      if (filterUpdater != null)
+         filterUpdater.shutdownNow();
       // Remove listener
       remote.removeClientListener(listener);
       // Empty cache
-      cache.clear();
+      clear();
    }
 
    protected NearCache<K, V> createNearCache(NearCacheConfiguration config) {
+      if (config.maxSizeInBytes() > 0)
+         return SizeBoundedNearCache.<K, V>create(config, marshaller);
+
       return config.maxEntries() > 0
             ? LinkedMapNearCache.<K, V>create(config)
             : ConcurrentMapNearCache.<K, V>create();
@@ -76,7 +207,11 @@ public static <K, V> NearCacheService<K, V> create(
 
    @Override
    public void put(K key, VersionedValue<V> value) {
-       cache.put(key, value);
+      if (serverFilter != null) {
+         putInFilter(key, value, false);
+         return;
+      }
+      cache.put(key, value);
 
       if (log.isTraceEnabled())
          log.tracef("Put key=%s and value=%s in near cache (listenerId=%s)",
@@ -85,6 +220,10 @@ public void put(K key, VersionedValue<V> value) {
 
    @Override
    public void putIfAbsent(K key, VersionedValue<V> value) {
+      if (serverFilter != null) {
+         putInFilter(key, value, true);
+         return;
+      }
       cache.putIfAbsent(key, value);
 
       if (log.isTraceEnabled())
@@ -92,6 +231,38 @@ public void putIfAbsent(K key, VersionedValue<V> value) {
                key, value, Util.printArray(listenerId));
    }
 
+   private void putInFilter(K key, VersionedValue<V> value, boolean ifAbsent) {
+      long hash;
+      try {
+         hash = BloomFilter.hash(marshaller.objectToByteBuffer(key));
+      } catch (Exception e) {
+         if (e instanceof InterruptedException)
+            Thread.currentThread().interrupt();
+         if (log.isTraceEnabled())
+            log.tracef(e, "Unable to marshall key=%s, it is not added to the near cache", key);
+         return;
+      }
+
+      Lock lock = filterLock.readLock();
+      lock.lock();
+      try {
+         keyHashes.put(key, hash);
+         if (!serverFilter.mightContainHash(hash)) {
+            // The server would not invalidate it, cache it once the server's filter includes it
+            pendingKeys.add(key);
+            if (log.isTraceEnabled())
+               log.tracef("Key=%s is not in the server's bloom filter yet, not added to the near cache", key);
+            return;
+         }
+         if (ifAbsent)
+            cache.putIfAbsent(key, value);
+         else
+            cache.put(key, value);
+      } finally {
+         lock.unlock();
+      }
+   }
+
    @Override
    public void remove(K key) {
       cache.remove(key);
@@ -100,11 +271,23 @@ public void remove(K key) {
          log.tracef("Removed key=%s from near cache (listenedId=%s)", key, Util.printArray(listenerId));
    }
 
+   /**
+    * Removes a key modified or removed in the server, as told by the events of the listener.
+    */
+   void invalidate(K key) {
+      remove(key);
+      invalidations.incrementAndGet();
+   }
+
    @Override
    public VersionedValue<V> get(K key) {
       boolean listenerConnected = isConnected();
       if (listenerConnected) {
          VersionedValue<V> value = cache.get(key);
+         if (value != null)
+            hits.incrementAndGet();
+         else
+            misses.incrementAndGet();
          if (log.isTraceEnabled())
             log.tracef("Get key=%s returns value=%s (listenerId=%s)", key, value, Util.printArray(listenerId));
 
@@ -115,12 +298,20 @@ public VersionedValue<V> get(K key) {
          log.tracef("Near cache disconnected from server, returning null for key=%s (listenedId=%s)",
                key, Util.printArray(listenerId));
 
+      misses.incrementAndGet();
       return null;
    }
 
+   @Override
+   public boolean containsKey(K key) {
+      return cache.containsKey(key);
+   }
+
    @Override
    public void clear() {
       cache.clear();
+      keyHashes.clear();
+      pendingKeys.clear();
       if (log.isTraceEnabled()) log.tracef("Cleared near cache (listenerId=%s)", Util.printArray(listenerId));
    }
 
@@ -128,12 +319,34 @@ private boolean isConnected() {
       return listenerNotifier.isListenerConnected(listenerId);
    }
 
+   @Override
+   public long getHits() {
+      return hits.get();
+   }
+
+   @Override
+   public long getMisses() {
+      return misses.get();
+   }
+
+   @Override
+   public long getInvalidations() {
+      return invalidations.get();
+   }
+
+   @Override
+   public void resetStatistics() {
+      hits.set(0);
+      misses.set(0);
+      invalidations.set(0);
+   }
+
    @ClientListener
    private static class LazyNearCacheListener<K, V> {
       private static final Log log = LogFactory.getLog(LazyNearCacheListener.class);
-      private final NearCache<K, V> cache;
+      private final NearCacheService<K, V> cache;
 
-      private LazyNearCacheListener(NearCache<K, V> cache) {
+      private LazyNearCacheListener(NearCacheService<K, V> cache) {
          this.cache = cache;
       }
 
@@ -164,7 +377,18 @@ public void handleFailover(ClientCacheFailoverEvent e) {
 
 
       private void invalidate(K key) {
-         cache.remove(key);
+         cache.invalidate(key);
+      }
+   }
+
+   /**
+    * A lazy near cache listener that only receives the events of the keys in a bloom filter of the keys held by the
+    * near cache, checked by the server with the marshalled keys.
+    */
+   @ClientListener(filterFactoryName = "___near-cache-key-bloom-filter", useRawData = true)
+   private static class BloomFilterNearCacheListener<K, V> extends LazyNearCacheListener<K, V> {
+      private BloomFilterNearCacheListener(NearCacheService<K, V> cache) {
+         super(cache);
       }
    }
 
@@ -178,10 +402,10 @@ private void invalidate(K key) {
    @ClientListener(converterFactoryName = "___eager-key-value-version-converter", useRawData = true)
    private static class EagerNearCacheListener<K, V> {
       private static final Log log = LogFactory.getLog(EagerNearCacheListener.class);
-      private final NearCache<K, V> cache;
+      private final NearCacheService<K, V> cache;
       private final Marshaller marshaller;
 
-      private EagerNearCacheListener(NearCache<K, V> cache, Marshaller marshaller) {
+      private EagerNearCacheListener(NearCacheService<K, V> cache, Marshaller marshaller) {
          this.cache = cache;
          this.marshaller = marshaller;
       }
@@ -219,7 +443,7 @@ public void handleRemovedEvent(ClientCacheEntryCustomEvent<byte[]> e) {
          byte[] keyBytes = extractElement(in);
          K key = unmarshallObject(keyBytes, "key");
          if (key != null) {
-            cache.remove(key);
+            cache.invalidate(key);
          }
       }
 
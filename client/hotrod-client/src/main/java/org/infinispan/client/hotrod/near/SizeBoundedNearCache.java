@@ -0,0 +1,139 @@
+package org.infinispan.client.hotrod.near;
+
+import org.infinispan.client.hotrod.VersionedValue;
+import org.infinispan.client.hotrod.configuration.NearCacheConfiguration;
+import org.infinispan.client.hotrod.logging.Log;
+import org.infinispan.client.hotrod.logging.LogFactory;
+import org.infinispan.commons.marshall.Marshaller;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+
+/**
+ * {@link java.util.LinkedHashMap} based near cache implementation bounded by the marshalled size of its keys and
+ * values, and optionally by its number of entries. The least recently used entries are evicted when a bound is
+ * exceeded. Concurrent access is serialized, since reads update the access order.
+ */
+public class SizeBoundedNearCache<K, V> implements NearCache<K, V> {
+   private static final Log log = LogFactory.getLog(SizeBoundedNearCache.class);
+
+   // Estimated size of an entry besides its marshalled key and value: map node, versioned value and references
+   static final int ENTRY_OVERHEAD = 64;
+
+   private final LinkedHashMap<K, SizedValue<V>> cache = new LinkedHashMap<K, SizedValue<V>>(1 << 4, 0.75f, true);
+   private final long maxSizeInBytes;
+   private final int maxEntries;
+   private final Marshaller marshaller;
+   private long sizeInBytes;
+
+   protected SizeBoundedNearCache(long maxSizeInBytes, int maxEntries, Marshaller marshaller) {
+      this.maxSizeInBytes = maxSizeInBytes;
+      this.maxEntries = maxEntries;
+      this.marshaller = marshaller;
+   }
+
+   @Override
+   public void put(K key, VersionedValue<V> value) {
+      long size = sizeOf(key, value);
+      if (size < 0) {
+         // Don't keep the previous value of the key
+         remove(key);
+         return;
+      }
+
+      synchronized (this) {
+         SizedValue<V> previous = cache.put(key, new SizedValue<V>(value, size));
+         if (previous != null)
+            sizeInBytes -= previous.size;
+         sizeInBytes += size;
+         evict();
+      }
+   }
+
+   @Override
+   public void putIfAbsent(K key, VersionedValue<V> value) {
+      synchronized (this) {
+         if (cache.containsKey(key))
+            return;
+      }
+      long size = sizeOf(key, value);
+      if (size < 0)
+         return;
+
+      synchronized (this) {
+         if (!cache.containsKey(key)) {
+            cache.put(key, new SizedValue<V>(value, size));
+            sizeInBytes += size;
+            evict();
+         }
+      }
+   }
+
+   @Override
+   public synchronized void remove(K key) {
+      SizedValue<V> removed = cache.remove(key);
+      if (removed != null)
+         sizeInBytes -= removed.size;
+   }
+
+   @Override
+   public synchronized VersionedValue<V> get(K key) {
+      SizedValue<V> sized = cache.get(key);
+      return sized != null ? sized.value : null;
+   }
+
+   @Override
+   public synchronized boolean containsKey(K key) {
+      return cache.containsKey(key);
+   }
+
+   @Override
+   public synchronized void clear() {
+      cache.clear();
+      sizeInBytes = 0;
+   }
+
+   /**
+    * @return the estimated size of the entries in the near cache, in bytes
+    */
+   public synchronized long sizeInBytes() {
+      return sizeInBytes;
+   }
+
+   private void evict() {
+      Iterator<SizedValue<V>> it = cache.values().iterator();
+      while (it.hasNext() && (sizeInBytes > maxSizeInBytes || (maxEntries > 0 && cache.size() > maxEntries))) {
+         sizeInBytes -= it.next().size;
+         it.remove();
+      }
+   }
+
+   private long sizeOf(K key, VersionedValue<V> value) {
+      try {
+         long size = ENTRY_OVERHEAD + marshaller.objectToByteBuffer(key).length
+               + marshaller.objectToByteBuffer(value.getValue()).length;
+         // An entry bigger than the whole near cache would only evict everything else
+         return size <= maxSizeInBytes ? size : -1;
+      } catch (Exception e) {
+         if (e instanceof InterruptedException)
+            Thread.currentThread().interrupt();
+         if (log.isTraceEnabled())
+            log.tracef(e, "Unable to compute the size of key=%s, the entry is not added to the near cache", key);
+         return -1;
+      }
+   }
+
+   public static <K, V> NearCache<K, V> create(NearCacheConfiguration config, Marshaller marshaller) {
+      return new SizeBoundedNearCache<K, V>(config.maxSizeInBytes(), config.maxEntries(), marshaller);
+   }
+
+   private static final class SizedValue<V> {
+      final VersionedValue<V> value;
+      final long size;
+
+      SizedValue(VersionedValue<V> value, long size) {
+         this.value = value;
+         this.size = size;
+      }
+   }
+}
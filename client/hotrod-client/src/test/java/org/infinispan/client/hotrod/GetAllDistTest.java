@@ -0,0 +1,59 @@
+package org.infinispan.client.hotrod;
+
+import org.infinispan.client.hotrod.test.MultiHotRodServersTest;
+import org.infinispan.configuration.cache.CacheMode;
+import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.testng.annotations.Test;
+
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import static org.infinispan.server.hotrod.test.HotRodTestingUtil.hotRodCacheConfiguration;
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertFalse;
+import static org.testng.AssertJUnit.assertTrue;
+
+/**
+ * Tests that {@link RemoteCache#getAll(Set)} retrieves keys owned by different servers.
+ *
+ * @since 7.2
+ */
+@Test(groups = "functional", testName = "client.hotrod.GetAllDistTest")
+public class GetAllDistTest extends MultiHotRodServersTest {
+
+   @Override
+   protected void createCacheManagers() throws Throwable {
+      ConfigurationBuilder builder = hotRodCacheConfiguration(
+            getDefaultClusteredCacheConfig(CacheMode.DIST_SYNC, false));
+      builder.clustering().hash().numOwners(1);
+      createHotRodServers(3, builder);
+   }
+
+   public void testGetAll() {
+      RemoteCache<Integer, String> cache = client(0).getCache();
+      for (int i = 0; i < 200; i++) {
+         cache.put(i, "v" + i);
+      }
+
+      Set<Integer> keys = new HashSet<Integer>();
+      for (int i = 0; i < 250; i++) {
+         keys.add(i);
+      }
+      Map<Integer, String> entries = cache.getAll(keys);
+      assertEquals(200, entries.size());
+      for (int i = 0; i < 200; i++) {
+         assertEquals("v" + i, entries.get(i));
+      }
+      assertFalse(entries.containsKey(200));
+   }
+
+   public void testGetAllMissingKeys() {
+      RemoteCache<String, String> cache = client(1).getCache();
+      Set<String> keys = new HashSet<String>();
+      keys.add("missing1");
+      keys.add("missing2");
+      assertTrue(cache.getAll(keys).isEmpty());
+      assertTrue(cache.getAll(new HashSet<String>()).isEmpty());
+   }
+}
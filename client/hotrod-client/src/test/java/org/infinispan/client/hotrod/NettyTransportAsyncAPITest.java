@@ -0,0 +1,21 @@
+package org.infinispan.client.hotrod;
+
+import org.infinispan.client.hotrod.impl.ConfigurationProperties;
+import org.infinispan.client.hotrod.impl.transport.netty.NettyTransportFactory;
+import org.testng.annotations.Test;
+
+import java.util.Properties;
+
+/**
+ * Runs the asynchronous API tests with operations multiplexed over Netty channels.
+ *
+ * @since 7.2
+ */
+@Test(groups = "functional", testName = "client.hotrod.NettyTransportAsyncAPITest")
+public class NettyTransportAsyncAPITest extends RemoteAsyncAPITest {
+
+   @Override
+   protected void configureClient(Properties props) {
+      props.put(ConfigurationProperties.TRANSPORT_FACTORY, NettyTransportFactory.class.getName());
+   }
+}
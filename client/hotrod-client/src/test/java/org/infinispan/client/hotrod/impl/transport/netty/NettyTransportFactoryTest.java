@@ -0,0 +1,200 @@
+package org.infinispan.client.hotrod.impl.transport.netty;
+
+import org.infinispan.client.hotrod.RemoteCache;
+import org.infinispan.client.hotrod.RemoteCacheManager;
+import org.infinispan.client.hotrod.configuration.ConfigurationBuilder;
+import org.infinispan.client.hotrod.event.EventLogListener;
+import org.infinispan.client.hotrod.test.RemoteCacheManagerCallable;
+import org.infinispan.client.hotrod.test.SingleHotRodServerTest;
+import org.infinispan.commands.write.PutKeyValueCommand;
+import org.infinispan.commons.util.concurrent.NotifyingFuture;
+import org.infinispan.context.InvocationContext;
+import org.infinispan.interceptors.base.CommandInterceptor;
+import org.infinispan.test.TestingUtil;
+import org.testng.annotations.Test;
+
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import static org.infinispan.client.hotrod.test.HotRodClientTestingUtil.killRemoteCacheManager;
+import static org.infinispan.client.hotrod.test.HotRodClientTestingUtil.withClientListener;
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertNull;
+import static org.testng.AssertJUnit.assertSame;
+import static org.testng.AssertJUnit.assertTrue;
+
+/**
+ * Tests that many concurrent operations share a single connection with the {@link NettyTransportFactory}.
+ *
+ * @since 7.2
+ */
+@Test(groups = "functional", testName = "client.hotrod.impl.transport.netty.NettyTransportFactoryTest")
+public class NettyTransportFactoryTest extends SingleHotRodServerTest {
+
+   private static final int NUM_OPERATIONS = 2000;
+
+   @Override
+   protected RemoteCacheManager getRemoteCacheManager() {
+      ConfigurationBuilder builder = new ConfigurationBuilder();
+      builder.addServer().host("127.0.0.1").port(hotrodServer.getPort());
+      builder.transportFactory(NettyTransportFactory.class);
+      builder.connectionPool().maxActive(1);
+      return new RemoteCacheManager(builder.build());
+   }
+
+   public void testAsyncOperationsShareChannel() throws Exception {
+      RemoteCache<Integer, String> cache = remoteCacheManager.getCache();
+      List<NotifyingFuture<String>> puts = new ArrayList<NotifyingFuture<String>>(NUM_OPERATIONS);
+      for (int i = 0; i < NUM_OPERATIONS; i++) {
+         puts.add(cache.putAsync(i, "v" + i));
+      }
+      for (NotifyingFuture<String> put : puts) {
+         assertNull(put.get(10, TimeUnit.SECONDS));
+      }
+
+      List<NotifyingFuture<String>> gets = new ArrayList<NotifyingFuture<String>>(NUM_OPERATIONS);
+      for (int i = 0; i < NUM_OPERATIONS; i++) {
+         gets.add(cache.getAsync(i));
+      }
+      for (int i = 0; i < NUM_OPERATIONS; i++) {
+         assertEquals("v" + i, gets.get(i).get(10, TimeUnit.SECONDS));
+      }
+
+      NettyTransportFactory transportFactory = transportFactory();
+      assertEquals(1, transportFactory.getOpenChannels(serverAddress()));
+      assertEquals(0, transportFactory.getPendingResponses(serverAddress()));
+   }
+
+   public void testSyncAndAsyncOperationsFromManyThreads() throws Exception {
+      final RemoteCache<String, String> cache = remoteCacheManager.getCache();
+      ExecutorService executor = Executors.newFixedThreadPool(8);
+      try {
+         List<Future<Void>> results = new ArrayList<Future<Void>>();
+         for (int t = 0; t < 8; t++) {
+            final String prefix = "t" + t + "-";
+            results.add(executor.submit(new Callable<Void>() {
+               @Override
+               public Void call() throws Exception {
+                  for (int i = 0; i < NUM_OPERATIONS / 8; i++) {
+                     String key = prefix + i;
+                     if (i % 2 == 0) {
+                        cache.put(key, key);
+                        assertEquals(key, cache.getAsync(key).get(10, TimeUnit.SECONDS));
+                     } else {
+                        cache.putAsync(key, key).get(10, TimeUnit.SECONDS);
+                        assertEquals(key, cache.get(key));
+                     }
+                     assertEquals(key, cache.removeAsync(key).get(10, TimeUnit.SECONDS));
+                  }
+                  return null;
+               }
+            }));
+         }
+         for (Future<Void> result : results) {
+            result.get(60, TimeUnit.SECONDS);
+         }
+      } finally {
+         executor.shutdownNow();
+      }
+      assertEquals(1, transportFactory().getOpenChannels(serverAddress()));
+   }
+
+   public void testClientListenerUsesDedicatedChannel() {
+      final EventLogListener<Integer> eventListener = new EventLogListener<>();
+      withClientListener(eventListener, new RemoteCacheManagerCallable(remoteCacheManager) {
+         @Override
+         public void call() {
+            RemoteCache<Integer, String> cache = rcm.getCache();
+            eventListener.expectNoEvents();
+            cache.put(1, "one");
+            eventListener.expectOnlyCreatedEvent(1, cache());
+            cache.put(2, "two");
+            eventListener.expectOnlyCreatedEvent(2, cache());
+            // The events are received over their own channel
+            assertEquals(1, transportFactory().getOpenChannels(serverAddress()));
+         }
+      });
+   }
+
+   public void testLateResponseIsDiscarded() throws Exception {
+      ConfigurationBuilder builder = new ConfigurationBuilder();
+      builder.addServer().host("127.0.0.1").port(hotrodServer.getPort());
+      builder.transportFactory(NettyTransportFactory.class);
+      builder.connectionPool().maxActive(1);
+      builder.socketTimeout(1000);
+      RemoteCacheManager rcm = new RemoteCacheManager(builder.build());
+      DelayingInterceptor interceptor = new DelayingInterceptor();
+      cache.getAdvancedCache().addInterceptor(interceptor, 0);
+      try {
+         RemoteCache<String, String> remoteCache = rcm.getCache();
+         remoteCache.put("k1", "v1");
+         final NettyTransportFactory transportFactory = TestingUtil.extractField(rcm, "transportFactory");
+         MultiplexedChannel channel = channel(transportFactory);
+
+         // The first attempt times out and its response is discarded when it arrives, the retry succeeds
+         interceptor.delayNext.set(true);
+         assertNull(remoteCache.putAsync("k2", "v2").get(10, TimeUnit.SECONDS));
+         eventually(new Condition() {
+            @Override
+            public boolean isSatisfied() throws Exception {
+               return transportFactory.getPendingResponses(serverAddress()) == 0;
+            }
+         });
+
+         assertEquals("v2", remoteCache.get("k2"));
+         assertSame(channel, channel(transportFactory));
+         assertTrue(channel.isOpen());
+      } finally {
+         cache.getAdvancedCache().removeInterceptor(DelayingInterceptor.class);
+         killRemoteCacheManager(rcm);
+      }
+   }
+
+   public void testLargeAsyncResponse() throws Exception {
+      RemoteCache<String, byte[]> remoteCache = remoteCacheManager.getCache();
+      // Received in many reads, the response is only parsed again once the value is complete
+      byte[] value = new byte[4 * 1024 * 1024];
+      new Random(7).nextBytes(value);
+      remoteCache.put("large", value);
+      assertTrue(Arrays.equals(value, remoteCache.getAsync("large").get(30, TimeUnit.SECONDS)));
+      assertEquals(0, transportFactory().getPendingResponses(serverAddress()));
+   }
+
+   private NettyTransportFactory transportFactory() {
+      return TestingUtil.extractField(remoteCacheManager, "transportFactory");
+   }
+
+   private MultiplexedChannel channel(NettyTransportFactory transportFactory) {
+      Map<SocketAddress, AtomicReferenceArray<MultiplexedChannel>> channels =
+            TestingUtil.extractField(transportFactory, "channels");
+      return channels.get(serverAddress()).get(0);
+   }
+
+   private SocketAddress serverAddress() {
+      return new InetSocketAddress("127.0.0.1", hotrodServer.getPort());
+   }
+
+   public static class DelayingInterceptor extends CommandInterceptor {
+      final AtomicBoolean delayNext = new AtomicBoolean();
+
+      @Override
+      public Object visitPutKeyValueCommand(InvocationContext ctx, PutKeyValueCommand command) throws Throwable {
+         if (delayNext.compareAndSet(true, false)) {
+            Thread.sleep(1500);
+         }
+         return super.visitPutKeyValueCommand(ctx, command);
+      }
+   }
+}
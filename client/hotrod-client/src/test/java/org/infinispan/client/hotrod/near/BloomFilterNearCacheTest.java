@@ -0,0 +1,101 @@
+package org.infinispan.client.hotrod.near;
+
+import static org.infinispan.client.hotrod.test.HotRodClientTestingUtil.killRemoteCacheManager;
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertFalse;
+
+import org.infinispan.client.hotrod.NearCacheStatistics;
+import org.infinispan.client.hotrod.RemoteCache;
+import org.infinispan.client.hotrod.RemoteCacheManager;
+import org.infinispan.client.hotrod.configuration.ConfigurationBuilder;
+import org.infinispan.client.hotrod.configuration.NearCacheMode;
+import org.infinispan.client.hotrod.impl.NearRemoteCache;
+import org.infinispan.client.hotrod.test.SingleHotRodServerTest;
+import org.testng.annotations.Test;
+
+@Test(groups = "functional", testName = "client.hotrod.near.BloomFilterNearCacheTest")
+public class BloomFilterNearCacheTest extends SingleHotRodServerTest {
+
+   @Override
+   protected RemoteCacheManager getRemoteCacheManager() {
+      ConfigurationBuilder builder = new ConfigurationBuilder();
+      builder.addServer().host("127.0.0.1").port(hotrodServer.getPort());
+      builder.nearCache().mode(NearCacheMode.LAZY).maxEntries(10)
+            .bloomFilter(true).bloomFilterUpdateInterval(100);
+      return new RemoteCacheManager(builder.build());
+   }
+
+   public void testKeysCachedOnceInServerFilter() {
+      final RemoteCache<Integer, String> remote = remoteCacheManager.getCache();
+      final NearCacheService<Integer, String> nearCache = ((NearRemoteCache<Integer, String>) remote).getNearCacheService();
+      remote.put(1, "v1");
+
+      // Not cached until the server's filter includes the key
+      assertEquals("v1", remote.get(1));
+      eventually(new Condition() {
+         @Override
+         public boolean isSatisfied() throws Exception {
+            assertEquals("v1", remote.get(1));
+            return nearCache.containsKey(1);
+         }
+      });
+      NearCacheStatistics stats = remote.nearCacheStats();
+      long hits = stats.getHits();
+      assertEquals("v1", remote.get(1));
+      assertEquals(hits + 1, stats.getHits());
+
+      // Writes from another client invalidate the key
+      RemoteCacheManager other = new RemoteCacheManager(new ConfigurationBuilder()
+            .addServer().host("127.0.0.1").port(hotrodServer.getPort()).build());
+      try {
+         other.<Integer, String>getCache().put(1, "v2");
+      } finally {
+         killRemoteCacheManager(other);
+      }
+      eventually(new Condition() {
+         @Override
+         public boolean isSatisfied() throws Exception {
+            return !nearCache.containsKey(1);
+         }
+      });
+      assertEquals("v2", remote.get(1));
+   }
+
+   public void testEventsOfKeysOutsideFilterSuppressed() {
+      final RemoteCache<Integer, String> remote = remoteCacheManager.getCache();
+      final NearCacheService<Integer, String> nearCache = ((NearRemoteCache<Integer, String>) remote).getNearCacheService();
+      remote.put(100, "v1");
+      eventually(new Condition() {
+         @Override
+         public boolean isSatisfied() throws Exception {
+            assertEquals("v1", remote.get(100));
+            return nearCache.containsKey(100);
+         }
+      });
+      final NearCacheStatistics stats = remote.nearCacheStats();
+      stats.resetStatistics();
+
+      // Only the write of the key held by the near cache is sent as an event
+      RemoteCacheManager other = new RemoteCacheManager(new ConfigurationBuilder()
+            .addServer().host("127.0.0.1").port(hotrodServer.getPort()).build());
+      try {
+         RemoteCache<Integer, String> otherCache = other.getCache();
+         for (int i = 101; i < 150; i++) {
+            otherCache.put(i, "v" + i);
+         }
+         otherCache.put(100, "v2");
+      } finally {
+         killRemoteCacheManager(other);
+      }
+      eventually(new Condition() {
+         @Override
+         public boolean isSatisfied() throws Exception {
+            return stats.getInvalidations() > 0;
+         }
+      });
+      // The events are received in order, so the events of the other keys would have been received already
+      assertEquals(1, stats.getInvalidations());
+      assertFalse(nearCache.containsKey(100));
+   }
+
+}
@@ -68,6 +68,11 @@ public VersionedValue<V> get(K key) {
          return value;
       }
 
+      @Override
+      public boolean containsKey(K key) {
+         return delegate.containsKey(key);
+      }
+
       @Override
       public void clear() {
          delegate.clear();
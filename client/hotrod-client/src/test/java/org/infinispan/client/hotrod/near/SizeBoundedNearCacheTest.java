@@ -0,0 +1,87 @@
+package org.infinispan.client.hotrod.near;
+
+import org.infinispan.client.hotrod.VersionedValue;
+import org.infinispan.client.hotrod.impl.VersionedValueImpl;
+import org.infinispan.commons.marshall.Marshaller;
+import org.infinispan.commons.marshall.jboss.GenericJBossMarshaller;
+import org.testng.annotations.Test;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertFalse;
+import static org.testng.AssertJUnit.assertNull;
+import static org.testng.AssertJUnit.assertTrue;
+
+/**
+ * Tests the eviction of the {@link SizeBoundedNearCache} by the marshalled size and the number of its entries.
+ *
+ * @since 7.2
+ */
+@Test(groups = "unit", testName = "client.hotrod.near.SizeBoundedNearCacheTest")
+public class SizeBoundedNearCacheTest {
+
+   private final Marshaller marshaller = new GenericJBossMarshaller();
+
+   public void testEvictByMarshalledSize() throws Exception {
+      long entrySize = entrySize(1, "v1");
+      SizeBoundedNearCache<Integer, String> cache = new SizeBoundedNearCache<>(3 * entrySize, 0, marshaller);
+      cache.put(1, value("v1"));
+      cache.put(2, value("v2"));
+      cache.put(3, value("v3"));
+      assertEquals(3 * entrySize, cache.sizeInBytes());
+
+      // The least recently used entry is evicted
+      assertEquals("v1", cache.get(1).getValue());
+      cache.put(4, value("v4"));
+      assertEquals(3 * entrySize, cache.sizeInBytes());
+      assertTrue(cache.containsKey(1));
+      assertFalse(cache.containsKey(2));
+      assertTrue(cache.containsKey(3));
+      assertTrue(cache.containsKey(4));
+
+      // Replacing a value updates the size
+      cache.put(4, value("v4'"));
+      assertEquals(2 * entrySize + entrySize(4, "v4'"), cache.sizeInBytes());
+
+      cache.remove(1);
+      assertEquals(entrySize + entrySize(4, "v4'"), cache.sizeInBytes());
+      cache.clear();
+      assertEquals(0, cache.sizeInBytes());
+   }
+
+   public void testEvictByNumberOfEntries() throws Exception {
+      SizeBoundedNearCache<Integer, String> cache = new SizeBoundedNearCache<>(Long.MAX_VALUE, 2, marshaller);
+      cache.put(1, value("v1"));
+      cache.put(2, value("v2"));
+      cache.putIfAbsent(3, value("v3"));
+      assertFalse(cache.containsKey(1));
+      assertEquals(2 * entrySize(1, "v1"), cache.sizeInBytes());
+
+      // putIfAbsent doesn't replace the value
+      cache.putIfAbsent(3, value("v3'"));
+      assertEquals("v3", cache.get(3).getValue());
+   }
+
+   public void testEntryBiggerThanCacheNotAdded() throws Exception {
+      long entrySize = entrySize(1, "v1");
+      SizeBoundedNearCache<Integer, String> cache = new SizeBoundedNearCache<>(entrySize, 0, marshaller);
+      cache.put(1, value("v1"));
+      assertEquals(entrySize, cache.sizeInBytes());
+
+      // The previous value of the key is not kept either
+      cache.put(1, value("a value much bigger than the whole near cache"));
+      assertNull(cache.get(1));
+      assertEquals(0, cache.sizeInBytes());
+
+      cache.putIfAbsent(2, value("a value much bigger than the whole near cache"));
+      assertFalse(cache.containsKey(2));
+   }
+
+   private long entrySize(Integer key, String value) throws Exception {
+      return SizeBoundedNearCache.ENTRY_OVERHEAD + marshaller.objectToByteBuffer(key).length
+            + marshaller.objectToByteBuffer(value).length;
+   }
+
+   private static VersionedValue<String> value(String value) {
+      return new VersionedValueImpl<>(1, value);
+   }
+}
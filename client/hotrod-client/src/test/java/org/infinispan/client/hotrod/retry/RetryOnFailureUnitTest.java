@@ -5,6 +5,7 @@
 import org.infinispan.client.hotrod.exceptions.TransportException;
 import org.infinispan.client.hotrod.impl.ConfigurationProperties;
 import org.infinispan.client.hotrod.impl.operations.RetryOnFailureOperation;
+import org.infinispan.client.hotrod.impl.protocol.HeaderParams;
 import org.infinispan.client.hotrod.impl.transport.Transport;
 import org.infinispan.client.hotrod.impl.transport.TransportFactory;
 import org.mockito.Mockito;
@@ -102,6 +103,17 @@ protected Void executeOperation(Transport transport) {
          //we can return null since it is not used
          return null;
       }
+
+      @Override
+      protected HeaderParams writeRequest(Transport transport) {
+         //not invoked, executeOperation is overridden
+         return null;
+      }
+
+      @Override
+      protected Void readResponse(Transport transport, HeaderParams params) {
+         return null;
+      }
    }
 
 }
@@ -0,0 +1,120 @@
+package org.infinispan.commons.util;
+
+import org.infinispan.commons.hash.MurmurHash3;
+
+import java.nio.ByteBuffer;
+
+/**
+ * A Bloom filter of byte arrays, e.g. marshalled keys. It never reports an added element as absent, but it may report
+ * an element that was not added as present, with a probability that grows with the number of elements for a given
+ * size.
+ * <p/>
+ * The elements are hashed with {@link #hash(byte[])}, so a filter can be built from the hashes of its elements, and it
+ * can be converted to a byte array with {@link #toBytes()} to be checked by another process. This class is not
+ * thread-safe.
+ *
+ * @since 7.2
+ */
+public final class BloomFilter {
+
+   private static final int BITS_PER_ELEMENT = 10;
+   // Optimal for 10 bits per element, with a false positive probability of about 1%
+   private static final int NUM_HASHES = 7;
+   // More hashes only raise the false positive probability, and the cost of each check
+   private static final int MAX_HASHES = 32;
+   private static final int SEED = 9001;
+
+   private final long[] bits;
+   private final int numBits;
+   private final int numHashes;
+
+   private BloomFilter(long[] bits, int numHashes) {
+      this.bits = bits;
+      this.numBits = bits.length * Long.SIZE;
+      this.numHashes = numHashes;
+   }
+
+   /**
+    * Creates an empty filter sized for the given number of elements, with a false positive probability of about 1%.
+    */
+   public static BloomFilter forExpectedElements(int expectedElements) {
+      long numBits = Math.max(Long.SIZE, (long) expectedElements * BITS_PER_ELEMENT);
+      int numLongs = (int) Math.min(Integer.MAX_VALUE / Long.SIZE, (numBits + Long.SIZE - 1) / Long.SIZE);
+      return new BloomFilter(new long[numLongs], NUM_HASHES);
+   }
+
+   /**
+    * Reads a filter written by {@link #toBytes()}, possibly by another process.
+    *
+    * @throws IllegalArgumentException if the bytes are not a valid filter
+    */
+   public static BloomFilter fromBytes(byte[] bytes) {
+      if (bytes.length < 4 + 8 || (bytes.length - 4) % 8 != 0)
+         throw new IllegalArgumentException("Invalid bloom filter length: " + bytes.length);
+      ByteBuffer in = ByteBuffer.wrap(bytes);
+      int numHashes = in.getInt();
+      if (numHashes <= 0 || numHashes > MAX_HASHES)
+         throw new IllegalArgumentException("Invalid number of bloom filter hashes: " + numHashes);
+      long[] bits = new long[in.remaining() / 8];
+      for (int i = 0; i < bits.length; i++) {
+         bits[i] = in.getLong();
+      }
+      return new BloomFilter(bits, numHashes);
+   }
+
+   /**
+    * @return the hash of an element, as used by {@link #addHash(long)} and {@link #mightContainHash(long)}
+    */
+   public static long hash(byte[] element) {
+      return MurmurHash3.MurmurHash3_x64_64(element, SEED);
+   }
+
+   public void add(byte[] element) {
+      addHash(hash(element));
+   }
+
+   public boolean mightContain(byte[] element) {
+      return mightContainHash(hash(element));
+   }
+
+   public void addHash(long hash) {
+      int h1 = (int) hash;
+      int h2 = (int) (hash >>> 32);
+      for (int i = 0; i < numHashes; i++) {
+         int bit = bitIndex(h1 + i * h2);
+         bits[bit >>> 6] |= 1L << bit;
+      }
+   }
+
+   public boolean mightContainHash(long hash) {
+      int h1 = (int) hash;
+      int h2 = (int) (hash >>> 32);
+      for (int i = 0; i < numHashes; i++) {
+         int bit = bitIndex(h1 + i * h2);
+         if ((bits[bit >>> 6] & (1L << bit)) == 0)
+            return false;
+      }
+      return true;
+   }
+
+   public byte[] toBytes() {
+      ByteBuffer out = ByteBuffer.allocate(4 + bits.length * 8);
+      out.putInt(numHashes);
+      for (long word : bits) {
+         out.putLong(word);
+      }
+      return out.array();
+   }
+
+   private int bitIndex(int combinedHash) {
+      return (combinedHash & Integer.MAX_VALUE) % numBits;
+   }
+
+   @Override
+   public String toString() {
+      return "BloomFilter{" +
+            "numBits=" + numBits +
+            ", numHashes=" + numHashes +
+            '}';
+   }
+}
@@ -0,0 +1,99 @@
+package org.infinispan.commons.util.concurrent;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * A {@link NotifyingFuture} that is completed explicitly by calling {@link #complete(Object)} or
+ * {@link #completeExceptionally(Throwable)}, instead of wrapping a task running in some thread.
+ * <p/>
+ * This allows an asynchronous operation, e.g. a remote call, to complete the future from the callback that receives
+ * its result, so that no thread has to wait for it. Only the first completion is taken into account, the later ones
+ * are ignored.
+ *
+ * @since 7.2
+ */
+public class CompletableNotifyingFuture<T> extends BaseNotifyingFuture<T> {
+
+   private final AtomicBoolean completing = new AtomicBoolean();
+   private final CountDownLatch latch = new CountDownLatch(1);
+   private volatile T value;
+   private volatile Throwable exception;
+
+   /**
+    * Completes the future with the given value, unless it was already completed.
+    *
+    * @return true if this call completed the future, false otherwise
+    */
+   public boolean complete(T value) {
+      if (!completing.compareAndSet(false, true)) {
+         return false;
+      }
+      this.value = value;
+      done();
+      return true;
+   }
+
+   /**
+    * Completes the future with the given exception, unless it was already completed.
+    *
+    * @return true if this call completed the future, false otherwise
+    */
+   public boolean completeExceptionally(Throwable exception) {
+      if (!completing.compareAndSet(false, true)) {
+         return false;
+      }
+      this.exception = exception;
+      done();
+      return true;
+   }
+
+   private void done() {
+      // Release the waiting threads first, so the listeners can call get()
+      latch.countDown();
+      fireListeners();
+   }
+
+   @Override
+   public boolean cancel(boolean mayInterruptIfRunning) {
+      return completeExceptionally(new CancellationException());
+   }
+
+   @Override
+   public boolean isCancelled() {
+      return exception instanceof CancellationException;
+   }
+
+   @Override
+   public boolean isDone() {
+      return latch.getCount() == 0;
+   }
+
+   @Override
+   public T get() throws InterruptedException, ExecutionException {
+      latch.await();
+      return getValue();
+   }
+
+   @Override
+   public T get(long timeout, TimeUnit unit) throws InterruptedException, ExecutionException, TimeoutException {
+      if (!latch.await(timeout, unit)) {
+         throw new TimeoutException();
+      }
+      return getValue();
+   }
+
+   private T getValue() throws ExecutionException {
+      Throwable t = exception;
+      if (t instanceof CancellationException) {
+         throw (CancellationException) t;
+      } else if (t != null) {
+         throw new ExecutionException(t);
+      }
+      return value;
+   }
+}
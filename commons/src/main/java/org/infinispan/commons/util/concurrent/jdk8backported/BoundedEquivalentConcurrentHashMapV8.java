@@ -33,10 +33,13 @@
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
 import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.locks.LockSupport;
 import java.util.concurrent.locks.ReentrantLock;
@@ -265,6 +268,24 @@ public static <K, V> EvictionListener<K, V> getNullEvictionListener() {
       void onEntryRemoved(Entry<K, V> entry);
    }
 
+   /**
+    * Computes the size of an entry, which counts against the maximum size of the map. By default all the
+    * entries have a size of 1, so that the maximum size is a number of entries.
+    */
+   public interface EntrySizeCalculator<K, V> {
+
+      long calculateSize(K key, V value);
+   }
+
+   static final class UnitEntrySizeCalculator implements EntrySizeCalculator<Object, Object> {
+      static final UnitEntrySizeCalculator INSTANCE = new UnitEntrySizeCalculator();
+
+      @Override
+      public long calculateSize(Object key, Object value) {
+         return 1;
+      }
+   }
+
    // We need the suppress warnings because Java doesn't do wildcard types well in another
    // type so we can't pass our map with types properly
    @SuppressWarnings({ "rawtypes", "unchecked" })
@@ -360,6 +381,17 @@ TreeNode<K,V> createNewEntry(K key, int hash, TreeNode<K,V> next,
        *            removed entry in Segment
        */
       void onEntryRemove(Node<K, V> e);
+
+      /**
+       * Invoked to notify EvictionPolicy implementation of the size of a value written in an entry.
+       * <p>
+       * This is never invoked holding a lock on the table, and the size must be ignored if the entry
+       * doesn't hold the value anymore
+       *
+       * @param e
+       *            written entry in Segment
+       */
+      void onEntrySizeComputed(Node<K, V> e, V value, long size);
       
       /**
        * This should be invoked after an operation that would cause an element to be added
@@ -372,6 +404,11 @@ TreeNode<K,V> createNewEntry(K key, int hash, TreeNode<K,V> next,
        * @return the nodes that were evicted
        */
       Collection<Node<K, V>> findIfEntriesNeedEvicting();
+
+      /**
+       * Returns the sum of the sizes of the entries tracked by the policy, or -1 if it doesn't track them
+       */
+      long currentSize();
    }
 
    static class NullEvictionPolicy<K, V> implements EvictionPolicy<K, V> {
@@ -409,6 +446,11 @@ public Set<Node<K, V>> findIfEntriesNeedEvicting() {
          return InfinispanCollections.emptySet();
       }
 
+      @Override
+      public long currentSize() {
+         return -1;
+      }
+
       @Override
       public void onEntryHitRead(Node<K, V> e, V value) {
          // Do nothing.
@@ -418,6 +460,11 @@ public void onEntryHitRead(Node<K, V> e, V value) {
       public void onEntryHitWrite(Node<K, V> e, V value) {
          // Do nothing.
       }
+
+      @Override
+      public void onEntrySizeComputed(Node<K, V> e, V value, long size) {
+         // Do nothing.
+      }
    }
 
    static class LRUNode<K, V> implements EvictionEntry<K, V> {
@@ -425,6 +472,7 @@ public void onEntryHitWrite(Node<K, V> e, V value) {
       private final Node<K, V> attachedNode;
       DequeNode<Node<K, V>> queueNode;
       boolean removed;
+      long size;
 
       public LRUNode(Node<K, V> item) {
          this.attachedNode = item;
@@ -476,6 +524,19 @@ public void onEntryHitRead(Node<K, V> e, V value) {
       @Override
       public void onEntryHitWrite(BoundedEquivalentConcurrentHashMapV8.Node<K,V> e, V value) {
          onEntryHitRead(e, value);
+         // The new value may not have the same size
+         map.sizeLater(e);
+      }
+
+      @Override
+      public void onEntrySizeComputed(Node<K, V> e, V value, long size) {
+         LRUNode<K, V> eviction = (LRUNode<K, V>) e.eviction;
+         synchronized (eviction) {
+            if (!eviction.removed && e.val == value && size != eviction.size) {
+               incrementSizeEviction(currentSize, size - eviction.size, 0);
+               eviction.size = size;
+            }
+         }
       }
 
       @Override
@@ -487,9 +548,11 @@ public void onEntryMiss(Node<K, V> e, V value) {
                DequeNode<Node<K, V>> queueNode = new DequeNode<>(e);
                eviction.queueNode = queueNode;
                deque.linkLast(queueNode);
-               incrementSizeEviction(currentSize, 1, 0);
+               eviction.size = map.initialSize();
+               incrementSizeEviction(currentSize, eviction.size, 0);
             }
          }
+         map.sizeLater(e);
       }
 
       @Override
@@ -506,7 +569,7 @@ public void onEntryRemove(Node<K, V> e) {
             // This is just in case if there are concurrent removes for the same key
             if (!eviction.removed) {
                eviction.removed = true;
-               incrementSizeEviction(currentSize, -1, 0);
+               incrementSizeEviction(currentSize, -eviction.size, 0);
             }
          }
       }
@@ -539,6 +602,7 @@ public TreeNode<K, V> createNewEntry(K key, int hash, TreeNode<K, V> next,
 
       @Override
       public Collection<Node<K, V>> findIfEntriesNeedEvicting() {
+         map.computePendingSizes();
 
          long extra;
          while (true) {
@@ -557,41 +621,45 @@ public Collection<Node<K, V>> findIfEntriesNeedEvicting() {
          }
          List<Node<K, V>> evictedEntries = null;
          if (extra > 0) {
-            evictedEntries = new ArrayList<>((int)extra & 0x7fffffff);
-            long decCreate = 0;
-            long decEvict = 0;
-            for (long j = 0; j < extra; ++j) {
+            evictedEntries = new ArrayList<>();
+            // Evict until the size of the evicted entries covers the extra size
+            long evictedSize = 0;
+            while (evictedSize < extra) {
                Node<K, V> node = deque.pollFirst();
+               if (node == null) {
+                  // This shouldn't really ever happen - only possible if a remove
+                  // occurs concurrently and removes all the rest of the values
+                  break;
+               }
+               LRUNode<K, V> lruNode = (LRUNode<K, V>) node.eviction;
                boolean removed = false;
-               if (node != null) {
-                  LRUNode<K, V> lruNode = (LRUNode<K, V>) node.eviction;
-                  synchronized (lruNode) {
-                     if (!lruNode.removed) {
-                        lruNode.removed = true;
-                        removed = true;
-                     }
+               long size = 0;
+               synchronized (lruNode) {
+                  if (!lruNode.removed) {
+                     lruNode.removed = true;
+                     removed = true;
+                     size = lruNode.size;
                   }
                }
 
                if (removed) {
                   map.replaceNode(node.key, null, null, true);
                   evictedEntries.add(node);
-                  decCreate--;
-                  decEvict--;
-               } else {
-                  // This shouldn't really ever happen - only possible if a remove
-                  // occurs concurrently and removes all the rest of the values
-                  decEvict--;
+                  evictedSize += size;
                }
             }
-            if (decEvict != 0)
-               incrementSizeEviction(currentSize, decCreate, decEvict);
+            incrementSizeEviction(currentSize, -evictedSize, -extra);
          } else {
             evictedEntries = InfinispanCollections.emptyList();
          }
 
          return evictedEntries;
       }
+
+      @Override
+      public long currentSize() {
+         return currentSize.get().size;
+      }
    }
 
    enum Recency {
@@ -1079,6 +1147,11 @@ else if (f.hash == MOVED)
          }
       }
 
+      @Override
+      public void onEntrySizeComputed(Node<K, V> e, V value, long size) {
+         // Entries always have a size of 1
+      }
+
       @Override
       public void onEntryHitWrite(Node<K, V> e, V value) {
          boolean demoteLIR = false;
@@ -1417,6 +1490,488 @@ else if (f.hash == MOVED)
          return InfinispanCollections.emptySet();
       }
 
+      @Override
+      public long currentSize() {
+         return currentSize.get().size;
+      }
+   }
+
+   static final class TinyLFUNode<K, V> implements EvictionEntry<K, V> {
+      // Values of queue
+      static final byte NONE = 0;
+      static final byte WINDOW = 1;
+      static final byte PROBATION = 2;
+      static final byte PROTECTED = 3;
+      static final byte EVICTED = 4;
+      static final byte REMOVED = 5;
+
+      final Node<K, V> attachedNode;
+      // The next few variables are to always be protected by the eviction lock of the policy
+      TinyLFUNode<K, V> prev;
+      TinyLFUNode<K, V> next;
+      byte queue = NONE;
+      // Only written holding the lock of the bin of the attached node and the eviction lock
+      long size;
+
+      public TinyLFUNode(Node<K, V> attachedNode) {
+         this.attachedNode = attachedNode;
+      }
+
+      @Override
+      public K getKey() {
+         return attachedNode.key;
+      }
+
+      @Override
+      public String toString() {
+         return "TinyLFUNode [queue=" + queue + ", key=" + attachedNode.key + "]";
+      }
+   }
+
+   /**
+    * Doubly linked list of {@link TinyLFUNode}s in access order: the least recently used node is first.
+    * It keeps track of the sum of the sizes of its nodes.
+    * Not thread safe, it is always accessed holding the eviction lock.
+    */
+   static final class AccessOrderDeque<K, V> {
+      TinyLFUNode<K, V> first;
+      TinyLFUNode<K, V> last;
+      long size;
+
+      TinyLFUNode<K, V> peekFirst() {
+         return first;
+      }
+
+      TinyLFUNode<K, V> peekLast() {
+         return last;
+      }
+
+      void addLast(TinyLFUNode<K, V> node) {
+         node.prev = last;
+         node.next = null;
+         if (last == null) {
+            first = node;
+         } else {
+            last.next = node;
+         }
+         last = node;
+         size += node.size;
+      }
+
+      void remove(TinyLFUNode<K, V> node) {
+         if (node.prev == null) {
+            first = node.next;
+         } else {
+            node.prev.next = node.next;
+         }
+         if (node.next == null) {
+            last = node.prev;
+         } else {
+            node.next.prev = node.prev;
+         }
+         node.prev = null;
+         node.next = null;
+         size -= node.size;
+      }
+
+      void resize(TinyLFUNode<K, V> node, long newSize) {
+         size += newSize - node.size;
+         node.size = newSize;
+      }
+
+      void moveToLast(TinyLFUNode<K, V> node) {
+         if (node != last) {
+            remove(node);
+            addLast(node);
+         }
+      }
+   }
+
+   /**
+    * A count-min sketch estimating how often keys were accessed, with 4 bit counters. Once the number of
+    * increments reaches 10 times the maximum size of the map, all the counters are halved, so that the
+    * frequencies reflect the recent history.
+    * <p>
+    * Each key maps to 4 counters, in 4 different longs of the table but at the same group of 4 counters in each.
+    * Not thread safe, it is always accessed holding the eviction lock.
+    */
+   static final class FrequencySketch {
+      private static final long[] SEEDS = {
+            0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L };
+      private static final long RESET_MASK = 0x7777777777777777L;
+      private static final long ONE_MASK = 0x1111111111111111L;
+
+      private final long[] table;
+      private final int tableMask;
+      private final int sampleSize;
+      private int additions;
+
+      FrequencySketch(long maxSize) {
+         int maximum = (int) Math.min(Math.max(maxSize, 1), MAXIMUM_CAPACITY);
+         table = new long[tableSizeFor(maximum)];
+         tableMask = table.length - 1;
+         sampleSize = (int) Math.min(10L * maximum, Integer.MAX_VALUE);
+      }
+
+      int frequency(int hash) {
+         hash = rehash(hash);
+         int start = (hash & 3) << 2;
+         int frequency = Integer.MAX_VALUE;
+         for (int i = 0; i < 4; i++) {
+            int index = indexOf(hash, i);
+            int count = (int) ((table[index] >>> ((start + i) << 2)) & 0xfL);
+            frequency = Math.min(frequency, count);
+         }
+         return frequency;
+      }
+
+      void increment(int hash) {
+         hash = rehash(hash);
+         int start = (hash & 3) << 2;
+         boolean added = false;
+         for (int i = 0; i < 4; i++) {
+            added |= incrementAt(indexOf(hash, i), start + i);
+         }
+         if (added && ++additions >= sampleSize) {
+            reset();
+         }
+      }
+
+      private boolean incrementAt(int index, int counter) {
+         int offset = counter << 2;
+         long mask = 0xfL << offset;
+         if ((table[index] & mask) != mask) {
+            table[index] += 1L << offset;
+            return true;
+         }
+         return false;
+      }
+
+      private void reset() {
+         int odd = 0;
+         for (int i = 0; i < table.length; i++) {
+            odd += Long.bitCount(table[i] & ONE_MASK);
+            table[i] = (table[i] >>> 1) & RESET_MASK;
+         }
+         // Halving truncates odd counters, account for it
+         additions = (additions >>> 1) - (odd >>> 2);
+      }
+
+      private int indexOf(int hash, int i) {
+         long h = (hash + SEEDS[i]) * SEEDS[i];
+         h += h >>> 32;
+         return ((int) h) & tableMask;
+      }
+
+      private static int rehash(int hash) {
+         int h = hash * 0x31848bab;
+         h ^= h >>> 14;
+         return h;
+      }
+   }
+
+   /**
+    * Window TinyLFU: new entries go to a small LRU window, and entries leaving the window compete with the
+    * least recently used entry of the main space for admission, based on their frequency estimated by a
+    * {@link FrequencySketch}. The main space is a segmented LRU: entries start in the probation segment and
+    * are promoted to the protected segment when accessed again.
+    * <p>
+    * All the policy state is guarded by a single lock, but reads never wait for it: they record the access in
+    * a striped ring buffer, which is replayed by whoever acquires the lock next. When a stripe of the buffer is
+    * full, accesses are dropped, which only makes the frequency and recency information slightly less accurate.
+    */
+   static final class TinyLFUEvictionPolicy<K, V> implements EvictionPolicy<K, V> {
+      /**
+       * The percentage of the cache which is dedicated to the window
+       */
+      private static final float WINDOW_PERCENTAGE = 0.01f;
+      /**
+       * The percentage of the main space which is dedicated to the protected segment
+       */
+      private static final float PROTECTED_PERCENTAGE = 0.8f;
+
+      private static final int READ_BUFFER_SIZE = 16;
+      private static final int READ_BUFFER_MASK = READ_BUFFER_SIZE - 1;
+      // Drain the buffers once a stripe is half full
+      private static final int READ_BUFFER_DRAIN_THRESHOLD = READ_BUFFER_SIZE / 2;
+      private static final int READ_BUFFER_STRIPES = tableSizeFor(4 * NCPU);
+
+      final BoundedEquivalentConcurrentHashMapV8<K, V> map;
+      final long maxSize;
+      final long maxWindow;
+      final long maxProtected;
+
+      final ReentrantLock evictionLock = new ReentrantLock();
+      // Guarded by evictionLock
+      final AccessOrderDeque<K, V> window = new AccessOrderDeque<>();
+      final AccessOrderDeque<K, V> probation = new AccessOrderDeque<>();
+      final AccessOrderDeque<K, V> protectedSegment = new AccessOrderDeque<>();
+      final FrequencySketch sketch;
+      // Only written holding evictionLock
+      volatile long size;
+
+      final AtomicReferenceArray<TinyLFUNode<K, V>> readBuffer =
+            new AtomicReferenceArray<>(READ_BUFFER_STRIPES * READ_BUFFER_SIZE);
+      final AtomicLongArray readBufferWrites = new AtomicLongArray(READ_BUFFER_STRIPES);
+      // Only written holding evictionLock
+      final AtomicLongArray readBufferReads = new AtomicLongArray(READ_BUFFER_STRIPES);
+
+      public TinyLFUEvictionPolicy(BoundedEquivalentConcurrentHashMapV8<K, V> map, long maxSize) {
+         this.map = map;
+         this.maxSize = maxSize;
+         this.maxWindow = Math.max(1, (long) (maxSize * WINDOW_PERCENTAGE));
+         this.maxProtected = (long) ((maxSize - maxWindow) * PROTECTED_PERCENTAGE);
+         this.sketch = new FrequencySketch(maxSize);
+      }
+
+      @Override
+      public void onEntryHitRead(Node<K, V> e, V value) {
+         TinyLFUNode<K, V> node = (TinyLFUNode<K, V>) e.eviction;
+         if (node != null && recordAccess(node) && evictionLock.tryLock()) {
+            try {
+               drainReadBuffer();
+            } finally {
+               evictionLock.unlock();
+            }
+         }
+      }
+
+      @Override
+      public void onEntryHitWrite(Node<K, V> e, V value) {
+         onEntryHitRead(e, value);
+         // The new value may not have the same size
+         map.sizeLater(e);
+      }
+
+      @Override
+      public void onEntrySizeComputed(Node<K, V> e, V value, long newSize) {
+         TinyLFUNode<K, V> node = (TinyLFUNode<K, V>) e.eviction;
+         if (node == null || e.val != value || node.size == newSize) {
+            return;
+         }
+         evictionLock.lock();
+         try {
+            // Checked again, as the value may have been replaced and sized concurrently
+            if (e.val != value || node.queue == TinyLFUNode.REMOVED || node.queue == TinyLFUNode.EVICTED) {
+               return;
+            }
+            AccessOrderDeque<K, V> deque = dequeOf(node);
+            if (deque != null) {
+               size += newSize - node.size;
+               deque.resize(node, newSize);
+            } else {
+               node.size = newSize;
+            }
+         } finally {
+            evictionLock.unlock();
+         }
+      }
+
+      @Override
+      public void onEntryMiss(Node<K, V> e, V value) {
+         TinyLFUNode<K, V> node = (TinyLFUNode<K, V>) e.eviction;
+         long newSize = map.initialSize();
+         evictionLock.lock();
+         try {
+            drainReadBuffer();
+            if (node.queue == TinyLFUNode.NONE) {
+               sketch.increment(e.hash);
+               node.size = newSize;
+               node.queue = TinyLFUNode.WINDOW;
+               window.addLast(node);
+               size += newSize;
+               while (window.size > maxWindow) {
+                  // The window's least recently used entry becomes the candidate for admission
+                  TinyLFUNode<K, V> candidate = window.peekFirst();
+                  window.remove(candidate);
+                  candidate.queue = TinyLFUNode.PROBATION;
+                  probation.addLast(candidate);
+               }
+            } else {
+               onAccess(node);
+            }
+         } finally {
+            evictionLock.unlock();
+         }
+         map.sizeLater(e);
+      }
+
+      @Override
+      public void onEntryRemove(Node<K, V> e) {
+         TinyLFUNode<K, V> node = (TinyLFUNode<K, V>) e.eviction;
+         evictionLock.lock();
+         try {
+            AccessOrderDeque<K, V> deque = dequeOf(node);
+            if (deque != null) {
+               deque.remove(node);
+               size -= node.size;
+            }
+            node.queue = TinyLFUNode.REMOVED;
+         } finally {
+            evictionLock.unlock();
+         }
+      }
+
+      @Override
+      public Node<K, V> createNewEntry(K key, int hash, Node<K, V> next, V value,
+            EvictionEntry<K, V> evictionEntry) {
+         Node<K, V> node = new Node<K, V>(hash, map.nodeEq, key, value, next);
+         if (evictionEntry == null) {
+            node.lazySetEviction(new TinyLFUNode<>(node));
+         } else {
+            node.lazySetEviction(evictionEntry);
+         }
+         return node;
+      }
+
+      @Override
+      public TreeNode<K, V> createNewEntry(K key, int hash, TreeNode<K, V> next,
+            TreeNode<K, V> parent, V value, EvictionEntry<K, V> evictionEntry) {
+         TreeNode<K, V> treeNode;
+         if (evictionEntry == null) {
+            treeNode = new TreeNode<>(hash, map.nodeEq, key, value, next, parent, null);
+            treeNode.lazySetEviction(new TinyLFUNode<>(treeNode));
+         } else {
+            treeNode = new TreeNode<>(hash, map.nodeEq, key, value, next, parent,
+                  evictionEntry);
+         }
+         return treeNode;
+      }
+
+      @Override
+      public Collection<Node<K, V>> findIfEntriesNeedEvicting() {
+         map.computePendingSizes();
+         if (size <= maxSize) {
+            return InfinispanCollections.emptyList();
+         }
+         List<TinyLFUNode<K, V>> victims = new ArrayList<>();
+         evictionLock.lock();
+         try {
+            drainReadBuffer();
+            while (size > maxSize) {
+               TinyLFUNode<K, V> victim = selectVictim();
+               dequeOf(victim).remove(victim);
+               victim.queue = TinyLFUNode.EVICTED;
+               size -= victim.size;
+               victims.add(victim);
+            }
+         } finally {
+            evictionLock.unlock();
+         }
+
+         // The map locks must not be acquired while holding the eviction lock
+         List<Node<K, V>> evictedEntries = new ArrayList<>(victims.size());
+         for (TinyLFUNode<K, V> victim : victims) {
+            Node<K, V> node = victim.attachedNode;
+            if (map.replaceNode(node.key, null, null, true) != null) {
+               evictedEntries.add(node);
+            }
+         }
+         return evictedEntries;
+      }
+
+      /**
+       * Picks the entry to evict among the least recently used entry of the probation segment and the
+       * candidate most recently moved to it, keeping the one which is accessed more frequently.
+       */
+      private TinyLFUNode<K, V> selectVictim() {
+         TinyLFUNode<K, V> victim = probation.peekFirst();
+         if (victim == null) {
+            victim = protectedSegment.peekFirst();
+            return victim != null ? victim : window.peekFirst();
+         }
+         TinyLFUNode<K, V> candidate = probation.peekLast();
+         if (candidate == victim) {
+            return victim;
+         }
+         int candidateFrequency = sketch.frequency(candidate.attachedNode.hash);
+         int victimFrequency = sketch.frequency(victim.attachedNode.hash);
+         return candidateFrequency > victimFrequency ? victim : candidate;
+      }
+
+      /**
+       * Records a read in the buffer of the current thread's stripe.
+       *
+       * @return {@code true} if the buffers should be drained
+       */
+      private boolean recordAccess(TinyLFUNode<K, V> node) {
+         int stripe = (int) (Thread.currentThread().getId() * 0x9e3779b9L) & (READ_BUFFER_STRIPES - 1);
+         long writes = readBufferWrites.get(stripe);
+         long pending = writes - readBufferReads.get(stripe);
+         if (pending >= READ_BUFFER_SIZE) {
+            // The stripe is full, drop the access
+            return true;
+         }
+         if (readBufferWrites.compareAndSet(stripe, writes, writes + 1)) {
+            readBuffer.lazySet(stripe * READ_BUFFER_SIZE + (int) (writes & READ_BUFFER_MASK), node);
+         }
+         return pending + 1 >= READ_BUFFER_DRAIN_THRESHOLD;
+      }
+
+      // Must be called holding evictionLock
+      private void drainReadBuffer() {
+         for (int stripe = 0; stripe < READ_BUFFER_STRIPES; stripe++) {
+            long reads = readBufferReads.get(stripe);
+            long writes = readBufferWrites.get(stripe);
+            for (; reads < writes; reads++) {
+               int index = stripe * READ_BUFFER_SIZE + (int) (reads & READ_BUFFER_MASK);
+               TinyLFUNode<K, V> node = readBuffer.get(index);
+               if (node == null) {
+                  // The writer has not published the node yet, retry on the next drain
+                  break;
+               }
+               readBuffer.lazySet(index, null);
+               onAccess(node);
+            }
+            readBufferReads.lazySet(stripe, reads);
+         }
+      }
+
+      // Must be called holding evictionLock
+      private void onAccess(TinyLFUNode<K, V> node) {
+         switch (node.queue) {
+            case TinyLFUNode.WINDOW:
+               sketch.increment(node.attachedNode.hash);
+               window.moveToLast(node);
+               break;
+            case TinyLFUNode.PROBATION:
+               sketch.increment(node.attachedNode.hash);
+               probation.remove(node);
+               node.queue = TinyLFUNode.PROTECTED;
+               protectedSegment.addLast(node);
+               while (protectedSegment.size > maxProtected) {
+                  TinyLFUNode<K, V> demoted = protectedSegment.peekFirst();
+                  protectedSegment.remove(demoted);
+                  demoted.queue = TinyLFUNode.PROBATION;
+                  probation.addLast(demoted);
+               }
+               break;
+            case TinyLFUNode.PROTECTED:
+               sketch.increment(node.attachedNode.hash);
+               protectedSegment.moveToLast(node);
+               break;
+            default:
+               // Not added yet, or already gone
+         }
+      }
+
+      private AccessOrderDeque<K, V> dequeOf(TinyLFUNode<K, V> node) {
+         switch (node.queue) {
+            case TinyLFUNode.WINDOW:
+               return window;
+            case TinyLFUNode.PROBATION:
+               return probation;
+            case TinyLFUNode.PROTECTED:
+               return protectedSegment;
+            default:
+               return null;
+         }
+      }
+
+      @Override
+      public long currentSize() {
+         return size;
+      }
    }
 
    public enum Eviction {
@@ -1440,6 +1995,13 @@ public <K, V> EvictionPolicy<K, V> make(BoundedEquivalentConcurrentHashMapV8<K,
                long capacity) {
             return new LIRSEvictionPolicy<K, V>(map, capacity);
          }
+      },
+      TINY_LFU {
+         @Override
+         public <K, V> EvictionPolicy<K, V> make(BoundedEquivalentConcurrentHashMapV8<K, V> map,
+               long capacity) {
+            return new TinyLFUEvictionPolicy<K, V>(map, capacity);
+         }
       };
 
       abstract <K, V> EvictionPolicy<K, V> make(
@@ -2086,6 +2648,41 @@ static final <K,V> void setTabAt(Node<K,V>[] tab, int i, Node<K,V> v) {
 
    final EvictionPolicy<K, V> evictionPolicy;
    final EvictionListener<? super K, ? super V> evictionListener;
+   final EntrySizeCalculator<? super K, ? super V> sizeCalculator;
+   // Nodes whose value was written and whose size has to be computed outside the lock on their bin
+   final Queue<Node<K, V>> pendingSizes = new ConcurrentLinkedQueue<Node<K, V>>();
+
+   /**
+    * Returns the size of a newly written entry until its actual size is computed
+    */
+   final long initialSize() {
+      return sizeCalculator == UnitEntrySizeCalculator.INSTANCE ? 1 : 0;
+   }
+
+   /**
+    * Schedules the computation of the size of the value written in a node. The size calculator may be expensive
+    * (e.g. it may marshall the value), so it is invoked by {@link #computePendingSizes()} once the lock on the bin
+    * is released.
+    */
+   final void sizeLater(Node<K, V> node) {
+      if (sizeCalculator != UnitEntrySizeCalculator.INSTANCE) {
+         pendingSizes.offer(node);
+      }
+   }
+
+   /**
+    * Computes the sizes scheduled by {@link #sizeLater(Node)} and passes them to the eviction policy. This must not
+    * be invoked holding a lock on the table.
+    */
+   final void computePendingSizes() {
+      Node<K, V> node;
+      while ((node = pendingSizes.poll()) != null) {
+         V value = node.val;
+         if (value != null && value != NULL_VALUE) {
+            evictionPolicy.onEntrySizeComputed(node, value, sizeCalculator.calculateSize(node.key, value));
+         }
+      }
+   }
 
     /* ---------------- Public operations -------------- */
 
@@ -2101,6 +2698,7 @@ public BoundedEquivalentConcurrentHashMapV8(long maxSize,
       this.keyEq = keyEquivalence; // EQUIVALENCE_MOD
       this.valueEq = valueEquivalence; // EQUIVALENCE_MOD
       this.nodeEq = new NodeEquivalence<K, V>(this.keyEq, this.valueEq); // EQUIVALENCE_MOD
+      this.sizeCalculator = UnitEntrySizeCalculator.INSTANCE;
       this.evictionPolicy = Eviction.LRU.make(this, maxSize);
       this.evictionListener = new NullEvictionListener<K, V>();
    }
@@ -2111,16 +2709,38 @@ public BoundedEquivalentConcurrentHashMapV8(long maxSize,
    public BoundedEquivalentConcurrentHashMapV8(long maxSize,
          Eviction evictionStrategy, EvictionListener<? super K, ? super V> evictionListener,
          Equivalence<? super K> keyEquivalence, Equivalence<? super V> valueEquivalence) {
+      this(maxSize, evictionStrategy, evictionListener, keyEquivalence, valueEquivalence,
+            UnitEntrySizeCalculator.INSTANCE);
+   }
+
+   /**
+    * Creates a new, empty map with the default initial table size (16), whose maximum size is the
+    * maximum sum of the sizes of the entries computed by the given {@link EntrySizeCalculator}.
+    * The size of an entry is computed when it is inserted and every time its value is replaced, after
+    * the lock on its bin is released.
+    *
+    * @throws IllegalArgumentException if the eviction strategy is {@link Eviction#LIRS} and the
+    * calculator doesn't give every entry a size of 1
+    */
+   public BoundedEquivalentConcurrentHashMapV8(long maxSize,
+         Eviction evictionStrategy, EvictionListener<? super K, ? super V> evictionListener,
+         Equivalence<? super K> keyEquivalence, Equivalence<? super V> valueEquivalence,
+         EntrySizeCalculator<? super K, ? super V> sizeCalculator) {
       if (maxSize <= 0) {
          throw new IllegalArgumentException();
       }
-      if (evictionStrategy == null || evictionListener == null) {
+      if (evictionStrategy == null || evictionListener == null || sizeCalculator == null) {
          throw new NullPointerException();
       }
+      if (evictionStrategy == Eviction.LIRS && sizeCalculator != UnitEntrySizeCalculator.INSTANCE) {
+         // LIRS counts the entries in its stack and queue
+         throw new IllegalArgumentException("LIRS eviction does not support entry sizes");
+      }
       this.maxSize = maxSize;
       this.keyEq = keyEquivalence; // EQUIVALENCE_MOD
       this.valueEq = valueEquivalence; // EQUIVALENCE_MOD
       this.nodeEq = new NodeEquivalence<K, V>(this.keyEq, this.valueEq); // EQUIVALENCE_MOD
+      this.sizeCalculator = sizeCalculator;
       this.evictionPolicy = evictionStrategy.make(this, maxSize);
       this.evictionListener = evictionListener;
    }
@@ -2243,6 +2863,16 @@ public BoundedEquivalentConcurrentHashMapV8(long maxSize, int initialCapacity,
       this.sizeCtl = cap;
    }
 
+   /**
+    * Returns the sum of the sizes of the entries, as computed by the {@link EntrySizeCalculator} of
+    * the map, which the eviction keeps under the maximum size.
+    *
+    * @return the size of the entries, or -1 if the map is not bounded
+    */
+   public long evictionSize() {
+      return evictionPolicy.currentSize();
+   }
+
    // Original (since JDK1.2) Map methods
 
    /**
@@ -2527,6 +3157,15 @@ private void notifyListenerOfRemoval(Node removedNode, boolean isEvict) {
       }
    }
 
+   /**
+    * LRU and TinyLFU mark the nodes they evict, so they have to be notified of the removal of a node
+    * even when evicting it: the node mapped to the key may not be the one chosen for eviction if it
+    * was replaced concurrently, and its size must be released. LIRS takes care of its own evictions.
+    */
+   private boolean notifyPolicyOfRemoval(boolean isEvict) {
+      return !isEvict || !(evictionPolicy instanceof LIRSEvictionPolicy);
+   }
+
    /**
     * Implementation for the four public remove/replace methods:
     * Replaces node value with v, conditional upon match of cv if
@@ -2566,7 +3205,7 @@ else if ((fh = f.hash) == MOVED)
                                  }
                               }
                               else if (pred != null) {
-                                 if (!isEvict) {
+                                 if (notifyPolicyOfRemoval(isEvict)) {
                                     evictionPolicy.onEntryRemove(e);
                                  }
                                  if (oldVal != null) {
@@ -2575,7 +3214,7 @@ else if (pred != null) {
                                  pred.next = e.next;
                               }
                               else {
-                                 if (!isEvict) {
+                                 if (notifyPolicyOfRemoval(isEvict)) {
                                     evictionPolicy.onEntryRemove(e);
                                  }
                                  if (oldVal != null) {
@@ -2613,7 +3252,7 @@ else if (f instanceof TreeBin) {
                               if (t.removeTreeNode(p)) {
                                  setTabAt(tab, i, untreeify(t.first)); // EQUIVALENCE_MOD
                               }
-                              if (!isEvict) {
+                              if (notifyPolicyOfRemoval(isEvict)) {
                                  evictionPolicy.onEntryRemove(p);
                               }
                               notifyListenerOfRemoval(p, isEvict);
@@ -2627,6 +3266,9 @@ else if (f instanceof TreeBin) {
                if (oldVal != null) {
                   if (value == null)
                      addCount(-1L, -1);
+                  else
+                     // The new value may be bigger than the old one
+                     notifyEvictionListener(evictionPolicy.findIfEntriesNeedEvicting());
                   return oldVal;
                }
                break;
@@ -3331,6 +3973,8 @@ else if (f instanceof TreeBin) {
       if (delta != 0) {
          addCount((long)delta, binCount);
       }
+      // The new value may be bigger than the old one
+      notifyEvictionListener(evictionPolicy.findIfEntriesNeedEvicting());
       return val;
    }
 
@@ -3610,8 +4254,9 @@ else if (p != null) {
       }
       if (delta != 0) {
          addCount((long)delta, binCount);
-         notifyEvictionListener(evictionPolicy.findIfEntriesNeedEvicting());
       }
+      // The new value may be bigger than the old one
+      notifyEvictionListener(evictionPolicy.findIfEntriesNeedEvicting());
       return val;
    }
 
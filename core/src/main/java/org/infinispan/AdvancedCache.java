@@ -160,6 +160,10 @@
     * Locks collections of keys eagerly across cache nodes in a cluster.
     * <p>
     * Collections of keys can be locked eagerly in the context of a transaction only.
+    * <p>
+    * Locking all the keys a transaction is going to modify with a single call is cheaper than locking them one by one
+    * with each write: every owner receives a single request with the keys it owns, and the requests are sent to all the
+    * owners in parallel. The keys are locked in a consistent order on every node.
     *
     * @param keys collection of keys to lock
     * @return true if the lock acquisition attempt was successful for <i>all</i> keys;
@@ -1473,6 +1473,12 @@ NotifyingFuture<V> getAsync(final K key, final EnumSet<Flag> explicitFlags, fina
       // Optimization to not start a new thread only when the operation is cheap:
       if (asyncSkipsThread(explicitFlags, key)) {
          return wrapInFuture(get(key, explicitFlags, explicitClassLoader));
+      } else if (isSkipLoader(explicitFlags) && invoker.supportsAsyncInvocation()) {
+         // The remote get completes the future from the thread receiving the response, no need for a thread
+         assertKeyNotNull(key);
+         InvocationContext ctx = getInvocationContextForRead(explicitClassLoader, 1);
+         GetKeyValueCommand command = commandsFactory.buildGetKeyValueCommand(key, explicitFlags);
+         return (NotifyingFuture<V>) invoker.invokeAsync(ctx, command);
       } else {
          // Make sure the flags are cleared
          final EnumSet<Flag> appliedFlags;
@@ -4,6 +4,9 @@
 import org.infinispan.container.entries.CacheEntry;
 import org.infinispan.commands.remote.GetKeysInGroupCommand;
 import org.infinispan.iteration.impl.EntryRequestCommand;
+import org.infinispan.stream.Collector;
+import org.infinispan.stream.impl.StreamPipeline;
+import org.infinispan.stream.impl.StreamSegmentCommand;
 import org.infinispan.iteration.impl.EntryResponseCommand;
 import org.infinispan.metadata.Metadata;
 import org.infinispan.atomic.Delta;
@@ -15,6 +18,7 @@
 import org.infinispan.commands.read.KeySetCommand;
 import org.infinispan.commands.read.MapCombineCommand;
 import org.infinispan.commands.read.ReduceCommand;
+import org.infinispan.commands.read.ShuffleCommand;
 import org.infinispan.commands.read.SizeCommand;
 import org.infinispan.commands.read.ValuesCommand;
 import org.infinispan.commands.remote.ClusteredGetCommand;
@@ -43,6 +47,7 @@
 import org.infinispan.statetransfer.StateResponseCommand;
 import org.infinispan.remoting.transport.Address;
 import org.infinispan.transaction.xa.GlobalTransaction;
+import org.infinispan.xsite.BatchXSiteRpcCommand;
 import org.infinispan.xsite.SingleXSiteRpcCommand;
 import org.infinispan.xsite.XSiteAdminCommand;
 import org.infinispan.xsite.statetransfer.XSiteState;
@@ -351,6 +356,17 @@ <KIn, VIn, KOut, VOut> MapCombineCommand<KIn, VIn, KOut, VOut> buildMapCombineCo
    <KOut, VOut> ReduceCommand<KOut, VOut> buildReduceCommand(String taskId,
             String destinationCache, Reducer<KOut, VOut> r, Collection<KOut> keys);
 
+   /**
+    * Builds a ShuffleCommand used to stream intermediate keys/values of MapReduce tasks to the nodes
+    * reducing them.
+    *
+    * @param values intermediate keys/values, or null to release the values buffered for the task
+    * @param maxBufferedValues number of values buffered in memory before spilling them to disk
+    * @return created ShuffleCommand
+    */
+   <KOut, VOut> ShuffleCommand<KOut, VOut> buildShuffleCommand(String taskId, Map<KOut, List<VOut>> values,
+            int maxBufferedValues);
+
    /**
     * @see GetInDoubtTxInfoCommand
     */
@@ -431,6 +447,15 @@ <KOut, VOut> ReduceCommand<KOut, VOut> buildReduceCommand(String taskId,
     */
    SingleXSiteRpcCommand buildSingleXSiteRpcCommand(VisitableCommand command);
 
+   /**
+    * Builds BatchXSiteRpcCommand used to apply a batch of modifications queued by an asynchronous backup on the backup
+    * site.
+    * @param modifications the modifications, or null if they are compressed
+    * @param compressedModifications the compressed modifications, or null if they are not compressed
+    * @return the BatchXSiteRpcCommand created
+    */
+   BatchXSiteRpcCommand buildBatchXSiteRpcCommand(List<WriteCommand> modifications, byte[] compressedModifications);
+
    /**
     * Builds {@link org.infinispan.iteration.impl.EntryRequestCommand} used to request entries from a remote node for
     * given segments
@@ -474,4 +499,16 @@ <K, C> EntryResponseCommand<K, C> buildEntryResponseCommand(UUID identifier, Set
     */
    GetKeysInGroupCommand buildGetKeysInGroupCommand(Set<Flag> flags, String groupName);
 
+   /**
+    * Builds {@link org.infinispan.stream.impl.StreamSegmentCommand} used to apply the operations of a stream to the
+    * entries of the given segments on their primary owner.
+    *
+    * @param segments The segments to process
+    * @param pipeline The intermediate operations of the stream
+    * @param collector The terminal operation of the stream
+    * @return the StreamSegmentCommand created
+    */
+   StreamSegmentCommand buildStreamSegmentCommand(Set<Integer> segments, StreamPipeline pipeline,
+                                                  Collector<?, ?, ?> collector);
+
 }
@@ -7,6 +7,10 @@
 import org.infinispan.context.InvocationContextFactory;
 import org.infinispan.distribution.group.GroupManager;
 import org.infinispan.iteration.impl.EntryRequestCommand;
+import org.infinispan.stream.Collector;
+import org.infinispan.stream.impl.StreamManager;
+import org.infinispan.stream.impl.StreamPipeline;
+import org.infinispan.stream.impl.StreamSegmentCommand;
 import org.infinispan.iteration.impl.EntryResponseCommand;
 import org.infinispan.iteration.impl.EntryRetriever;
 import org.infinispan.metadata.Metadata;
@@ -20,6 +24,7 @@
 import org.infinispan.commands.read.KeySetCommand;
 import org.infinispan.commands.read.MapCombineCommand;
 import org.infinispan.commands.read.ReduceCommand;
+import org.infinispan.commands.read.ShuffleCommand;
 import org.infinispan.commands.read.SizeCommand;
 import org.infinispan.commands.read.ValuesCommand;
 import org.infinispan.commands.remote.ClusteredGetCommand;
@@ -84,6 +89,7 @@
 import org.infinispan.util.logging.Log;
 import org.infinispan.util.logging.LogFactory;
 import org.infinispan.xsite.BackupSender;
+import org.infinispan.xsite.BatchXSiteRpcCommand;
 import org.infinispan.xsite.SingleXSiteRpcCommand;
 import org.infinispan.xsite.XSiteAdminCommand;
 import org.infinispan.xsite.statetransfer.XSiteState;
@@ -144,6 +150,7 @@ public class CommandsFactoryImpl implements CommandsFactory {
    private EntryRetriever entryRetriever;
    private GroupManager groupManager;
    private PartitionHandlingManager partitionHandlingManager;
+   private StreamManager streamManager;
 
    private Map<Byte, ModuleCommandInitializer> moduleCommandInitializers;
 
@@ -156,7 +163,8 @@ public void setupDependencies(DataContainer container, CacheNotifier notifier, C
                                  LockManager lockManager, InternalEntryFactory entryFactory, MapReduceManager mapReduceManager, 
                                  StateTransferManager stm, BackupSender backupSender, CancellationService cancellationService,
                                  TimeService timeService, XSiteStateProvider xSiteStateProvider, XSiteStateConsumer xSiteStateConsumer,
-                                 XSiteStateTransferManager xSiteStateTransferManager, EntryRetriever entryRetriever, GroupManager groupManager, PartitionHandlingManager partitionHandlingManager) {
+                                 XSiteStateTransferManager xSiteStateTransferManager, EntryRetriever entryRetriever, GroupManager groupManager, PartitionHandlingManager partitionHandlingManager,
+                                 StreamManager streamManager) {
       this.dataContainer = container;
       this.notifier = notifier;
       this.cache = cache;
@@ -182,6 +190,7 @@ public void setupDependencies(DataContainer container, CacheNotifier notifier, C
       this.partitionHandlingManager = partitionHandlingManager;
       this.entryRetriever = entryRetriever;
       this.groupManager = groupManager;
+      this.streamManager = streamManager;
    }
 
    @Start(priority = 1)
@@ -437,6 +446,10 @@ public void initializeReplicableCommand(ReplicableCommand c, boolean isRemote) {
             ReduceCommand reduceCommand = (ReduceCommand)c;
             reduceCommand.init(mapReduceManager);
             break;
+         case ShuffleCommand.COMMAND_ID:
+            ShuffleCommand shuffleCommand = (ShuffleCommand)c;
+            shuffleCommand.init(mapReduceManager);
+            break;
          case DistributedExecuteCommand.COMMAND_ID:
             DistributedExecuteCommand dec = (DistributedExecuteCommand)c;
             dec.init(cache);
@@ -479,6 +492,10 @@ public void initializeReplicableCommand(ReplicableCommand c, boolean isRemote) {
             EntryResponseCommand entryResponseCommand = (EntryResponseCommand) c;
             entryResponseCommand.init(entryRetriever);
             break;
+         case StreamSegmentCommand.COMMAND_ID:
+            StreamSegmentCommand streamSegmentCommand = (StreamSegmentCommand) c;
+            streamSegmentCommand.init(streamManager);
+            break;
          case GetKeysInGroupCommand.COMMAND_ID:
             GetKeysInGroupCommand getKeysInGroupCommand = (GetKeysInGroupCommand) c;
             getKeysInGroupCommand.setGroupManager(groupManager);
@@ -581,6 +598,12 @@ public <KOut, VOut> ReduceCommand<KOut, VOut> buildReduceCommand(String taskId,
       return new ReduceCommand<KOut, VOut>(taskId, r, destintationCache, keys);
    }
 
+   @Override
+   public <KOut, VOut> ShuffleCommand<KOut, VOut> buildShuffleCommand(String taskId, Map<KOut, List<VOut>> values,
+            int maxBufferedValues) {
+      return new ShuffleCommand<KOut, VOut>(cacheName, taskId, values, maxBufferedValues);
+   }
+
    @Override
    public CancelCommand buildCancelCommandCommand(UUID commandUUID) {
       return new CancelCommand(cacheName, commandUUID);
@@ -608,6 +631,11 @@ public SingleXSiteRpcCommand buildSingleXSiteRpcCommand(VisitableCommand command
       return new SingleXSiteRpcCommand(cacheName, command);
    }
 
+   @Override
+   public BatchXSiteRpcCommand buildBatchXSiteRpcCommand(List<WriteCommand> modifications, byte[] compressedModifications) {
+      return new BatchXSiteRpcCommand(cacheName, modifications, compressedModifications);
+   }
+
    @Override
    public <K, V, C> EntryRequestCommand<K, V, C> buildEntryRequestCommand(UUID identifier, Set<Integer> segments,
                                                                     Set<K> keysToFilter,
@@ -636,4 +664,12 @@ public GetCacheEntryCommand buildGetCacheEntryCommand(Object key, Set<Flag> expl
       return new GetCacheEntryCommand(key, explicitFlags, entryFactory);
    }
 
+   @Override
+   public StreamSegmentCommand buildStreamSegmentCommand(Set<Integer> segments, StreamPipeline pipeline,
+                                                         Collector<?, ?, ?> collector) {
+      StreamSegmentCommand command = new StreamSegmentCommand(cacheName, segments, pipeline, collector);
+      command.init(streamManager);
+      return command;
+   }
+
 }
@@ -8,6 +8,7 @@
 import org.infinispan.commands.read.GetKeyValueCommand;
 import org.infinispan.commands.read.MapCombineCommand;
 import org.infinispan.commands.read.ReduceCommand;
+import org.infinispan.commands.read.ShuffleCommand;
 import org.infinispan.commands.remote.CacheRpcCommand;
 import org.infinispan.commands.remote.ClusteredGetCommand;
 import org.infinispan.commands.remote.GetKeysInGroupCommand;
@@ -43,7 +44,9 @@
 import org.infinispan.manager.EmbeddedCacheManager;
 import org.infinispan.statetransfer.StateRequestCommand;
 import org.infinispan.statetransfer.StateResponseCommand;
+import org.infinispan.stream.impl.StreamSegmentCommand;
 import org.infinispan.topology.CacheTopologyControlCommand;
+import org.infinispan.xsite.BatchXSiteRpcCommand;
 import org.infinispan.xsite.SingleXSiteRpcCommand;
 import org.infinispan.xsite.XSiteAdminCommand;
 import org.infinispan.xsite.statetransfer.XSiteStatePushCommand;
@@ -224,6 +227,9 @@ public CacheRpcCommand fromStream(byte id, Object[] parameters, byte type, Strin
             case ReduceCommand.COMMAND_ID:
                command = new ReduceCommand(cacheName);
                break;
+            case ShuffleCommand.COMMAND_ID:
+               command = new ShuffleCommand(cacheName);
+               break;
             case DistributedExecuteCommand.COMMAND_ID:
                command = new DistributedExecuteCommand(cacheName);
                break;
@@ -251,12 +257,18 @@ public CacheRpcCommand fromStream(byte id, Object[] parameters, byte type, Strin
             case SingleXSiteRpcCommand.COMMAND_ID:
                command = new SingleXSiteRpcCommand(cacheName);
                break;
+            case BatchXSiteRpcCommand.COMMAND_ID:
+               command = new BatchXSiteRpcCommand(cacheName);
+               break;
             case EntryRequestCommand.COMMAND_ID:
                command = new EntryRequestCommand(cacheName);
                break;
             case EntryResponseCommand.COMMAND_ID:
                command = new EntryResponseCommand(cacheName);
                break;
+            case StreamSegmentCommand.COMMAND_ID:
+               command = new StreamSegmentCommand(cacheName);
+               break;
             default:
                throw new CacheException("Unknown command id " + id + "!");
          }
@@ -2,6 +2,7 @@
 
 import java.util.Collection;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 import java.util.UUID;
 
@@ -12,6 +13,7 @@
 import org.infinispan.distexec.mapreduce.MapReduceManager;
 import org.infinispan.distexec.mapreduce.Mapper;
 import org.infinispan.distexec.mapreduce.Reducer;
+import org.infinispan.remoting.transport.Address;
 
 
 /**
@@ -34,6 +36,8 @@
    private UUID uuid;
    private String intermediateCacheName;
    private int maxCollectorSize;
+   private List<Address> shuffleTargets;
+   private int maxShuffleBufferSize;
 
    public MapCombineCommand() {
       super(null); // For command id uniqueness test
@@ -118,6 +122,35 @@ public int getMaxCollectorSize() {
       return maxCollectorSize;
    }
 
+   /**
+    * Streams intermediate keys/values directly to the nodes reducing them, instead of storing them
+    * in the intermediate cache.
+    *
+    * @param targets
+    *           nodes executing the reduce phase, in the same order on all nodes
+    * @param maxBufferSize
+    *           the number of intermediate values a reducing node keeps in memory before spilling
+    *           them to local disk
+    */
+   public void setStreamingShuffle(List<Address> targets, int maxBufferSize) {
+      if (maxBufferSize <= 0)
+         throw new IllegalArgumentException("Invalid size " + maxBufferSize);
+      this.shuffleTargets = targets;
+      this.maxShuffleBufferSize = maxBufferSize;
+   }
+
+   public boolean isStreamingShuffle() {
+      return shuffleTargets != null;
+   }
+
+   public List<Address> getShuffleTargets() {
+      return shuffleTargets;
+   }
+
+   public int getMaxShuffleBufferSize() {
+      return maxShuffleBufferSize;
+   }
+
    public Set<KIn> getKeys() {
       return keys;
    }
@@ -155,7 +188,8 @@ public UUID getUUID() {
    @Override
    public Object[] getParameters() {
       return new Object[] { taskId, keys, mapper, combiner, reducePhaseDistributed,
-            useIntermediateSharedCache, uuid, intermediateCacheName, maxCollectorSize};
+            useIntermediateSharedCache, uuid, intermediateCacheName, maxCollectorSize, shuffleTargets,
+            maxShuffleBufferSize};
    }
 
    @SuppressWarnings("unchecked")
@@ -173,6 +207,8 @@ public void setParameters(int commandId, Object[] args) {
       uuid = (UUID) args[i++];
       intermediateCacheName = (String) args[i++]; 
       maxCollectorSize = (Integer) args[i++];
+      shuffleTargets = (List<Address>) args[i++];
+      maxShuffleBufferSize = (Integer) args[i++];
    }
 
    @Override
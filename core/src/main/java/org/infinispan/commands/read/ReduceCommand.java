@@ -29,6 +29,7 @@
    private MapReduceManager mrManager;
    private UUID uuid;
    private String resultCacheName;
+   private boolean streamingShuffle;
 
    private ReduceCommand() {
       super(null); // For command id uniqueness test
@@ -78,6 +79,18 @@ public void setUseIntermediateSharedCache(boolean useIntermediateSharedCache) {
       this.useIntermediateSharedCache = useIntermediateSharedCache;
    }
 
+   /**
+    * @return true if the intermediate keys/values were streamed to the reducing nodes instead of
+    *         being stored in the intermediate cache
+    */
+   public boolean isStreamingShuffle() {
+      return streamingShuffle;
+   }
+
+   public void setStreamingShuffle(boolean streamingShuffle) {
+      this.streamingShuffle = streamingShuffle;
+   }
+
    public boolean emitsIntoResultingCache(){
       return resultCacheName != null && !resultCacheName.isEmpty();
    }
@@ -114,7 +127,7 @@ public UUID getUUID() {
 
    @Override
    public Object[] getParameters() {
-      return new Object[] { taskId, keys, reducer, useIntermediateSharedCache, uuid, resultCacheName };
+      return new Object[] { taskId, keys, reducer, useIntermediateSharedCache, uuid, resultCacheName, streamingShuffle };
    }
 
    @SuppressWarnings({ "unchecked", "rawtypes" })
@@ -129,6 +142,7 @@ public void setParameters(int commandId, Object[] args) {
       useIntermediateSharedCache = (Boolean) args[i++];
       uuid = (UUID) args[i++];
       resultCacheName = (String) args[i++];
+      streamingShuffle = (Boolean) args[i++];
    }
 
    @Override
@@ -0,0 +1,118 @@
+package org.infinispan.commands.read;
+
+import java.util.List;
+import java.util.Map;
+
+import org.infinispan.commands.remote.BaseRpcCommand;
+import org.infinispan.context.InvocationContext;
+import org.infinispan.distexec.mapreduce.MapReduceManager;
+
+/**
+ * ShuffleCommand streams a batch of combined intermediate keys/values of a MapReduceTask to the node
+ * reducing them, when the task uses a streaming shuffle instead of an intermediate cache. A command
+ * without values releases the intermediate keys/values buffered for the task on the target node.
+ *
+ * @since 7.2
+ */
+public class ShuffleCommand<KOut, VOut> extends BaseRpcCommand {
+
+   public static final byte COMMAND_ID = 44;
+   private String taskId;
+   private Map<KOut, List<VOut>> values;
+   private int maxBufferedValues;
+   private MapReduceManager mrManager;
+
+   private ShuffleCommand() {
+      super(null); // For command id uniqueness test
+   }
+
+   public ShuffleCommand(String cacheName) {
+      super(cacheName);
+   }
+
+   public ShuffleCommand(String cacheName, String taskId, Map<KOut, List<VOut>> values, int maxBufferedValues) {
+      super(cacheName);
+      this.taskId = taskId;
+      this.values = values;
+      this.maxBufferedValues = maxBufferedValues;
+   }
+
+   public void init(MapReduceManager mrManager) {
+      this.mrManager = mrManager;
+   }
+
+   /**
+    * Buffers the intermediate keys/values on the reducing node, or releases the buffer of the task
+    * if this command has no values.
+    *
+    * @param context
+    *           invocation context
+    * @return null
+    */
+   @Override
+   public Object perform(InvocationContext context) throws Throwable {
+      if (isRelease()) {
+         mrManager.releaseShuffle(taskId);
+      } else {
+         mrManager.shuffle(this);
+      }
+      return null;
+   }
+
+   public boolean isRelease() {
+      return values == null;
+   }
+
+   public String getTaskId() {
+      return taskId;
+   }
+
+   public Map<KOut, List<VOut>> getValues() {
+      return values;
+   }
+
+   /**
+    * @return the number of intermediate values the target node keeps in memory before spilling
+    *         them to local disk
+    */
+   public int getMaxBufferedValues() {
+      return maxBufferedValues;
+   }
+
+   @Override
+   public byte getCommandId() {
+      return COMMAND_ID;
+   }
+
+   @Override
+   public Object[] getParameters() {
+      return new Object[] { taskId, values, maxBufferedValues };
+   }
+
+   @SuppressWarnings("unchecked")
+   @Override
+   public void setParameters(int commandId, Object[] args) {
+      if (commandId != COMMAND_ID)
+         throw new IllegalStateException("Invalid method id");
+      int i = 0;
+      taskId = (String) args[i++];
+      values = (Map<KOut, List<VOut>>) args[i++];
+      maxBufferedValues = (Integer) args[i++];
+   }
+
+   @Override
+   public boolean isReturnValueExpected() {
+      return false;
+   }
+
+   @Override
+   public boolean canBlock() {
+      // spilling to disk
+      return true;
+   }
+
+   @Override
+   public String toString() {
+      return "ShuffleCommand [taskId=" + taskId + ", keys=" + (values == null ? 0 : values.size()) + "]";
+   }
+}
@@ -39,6 +39,11 @@ public PartitionHandlingConfigurationBuilder partitionHandling() {
       return clusteringBuilder.partitionHandling();
    }
 
+   @Override
+   public ClusterListenerConfigurationBuilder clusterListeners() {
+      return clusteringBuilder.clusterListeners();
+   }
+
    protected ClusteringConfigurationBuilder getClusteringBuilder() {
       return clusteringBuilder;
    }
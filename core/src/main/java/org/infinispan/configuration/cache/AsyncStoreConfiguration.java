@@ -14,14 +14,18 @@ public class AsyncStoreConfiguration {
    private final int modificationQueueSize;
    private long shutdownTimeout;
    private final int threadPoolSize;
+   private final int batchSize;
+   private final long maxBatchDelay;
 
    AsyncStoreConfiguration(boolean enabled, long flushLockTimeout, int modificationQueueSize, long shutdownTimeout,
-                           int threadPoolSize) {
+                           int threadPoolSize, int batchSize, long maxBatchDelay) {
       this.enabled = enabled;
       this.flushLockTimeout = flushLockTimeout;
       this.modificationQueueSize = modificationQueueSize;
       this.shutdownTimeout = shutdownTimeout;
       this.threadPoolSize = threadPoolSize;
+      this.batchSize = batchSize;
+      this.maxBatchDelay = maxBatchDelay;
    }
 
    /**
@@ -81,6 +85,22 @@ public int threadPoolSize() {
       return threadPoolSize;
    }
 
+   /**
+    * Maximum number of modifications written to the cache store at once. The modifications are written with a
+    * single batch if the store implements {@link org.infinispan.persistence.spi.BatchCacheWriter}.
+    */
+   public int batchSize() {
+      return batchSize;
+   }
+
+   /**
+    * Maximum time, in milliseconds, to wait for {@link #batchSize()} modifications to be buffered before writing
+    * them to the cache store. 0 means the modifications are written as soon as they are buffered.
+    */
+   public long maxBatchDelay() {
+      return maxBatchDelay;
+   }
+
    @Override
    public String toString() {
       return "AsyncStoreConfiguration{" +
@@ -89,6 +109,8 @@ public String toString() {
             ", modificationQueueSize=" + modificationQueueSize +
             ", shutdownTimeout=" + shutdownTimeout +
             ", threadPoolSize=" + threadPoolSize +
+            ", batchSize=" + batchSize +
+            ", maxBatchDelay=" + maxBatchDelay +
             '}';
    }
 
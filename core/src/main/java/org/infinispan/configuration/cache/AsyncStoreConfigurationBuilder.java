@@ -2,6 +2,7 @@
 
 import java.util.concurrent.TimeUnit;
 
+import org.infinispan.commons.CacheConfigurationException;
 import org.infinispan.commons.configuration.Builder;
 import org.infinispan.configuration.global.GlobalConfiguration;
 
@@ -19,6 +20,8 @@
    private int modificationQueueSize = 1024;
    private long shutdownTimeout = TimeUnit.SECONDS.toMillis(25);
    private int threadPoolSize = 1;
+   private int batchSize = 100;
+   private long maxBatchDelay = 0;
 
    AsyncStoreConfigurationBuilder(AbstractStoreConfigurationBuilder<? extends AbstractStoreConfiguration, ?> builder) {
       super(builder);
@@ -97,9 +100,41 @@ public AsyncStoreConfigurationBuilder<S> threadPoolSize(int i) {
       return this;
    }
 
+   /**
+    * Maximum number of modifications written to the cache store at once. The modifications are written with a
+    * single batch if the store implements {@link org.infinispan.persistence.spi.BatchCacheWriter}.
+    */
+   public AsyncStoreConfigurationBuilder<S> batchSize(int i) {
+      this.batchSize = i;
+      return this;
+   }
+
+   /**
+    * Maximum time, in milliseconds, to wait for {@link #batchSize(int)} modifications to be buffered before writing
+    * them to the cache store. 0 means the modifications are written as soon as they are buffered.
+    */
+   public AsyncStoreConfigurationBuilder<S> maxBatchDelay(long l) {
+      this.maxBatchDelay = l;
+      return this;
+   }
+
+   /**
+    * Maximum time to wait for {@link #batchSize(int)} modifications to be buffered before writing them to the cache
+    * store.
+    */
+   public AsyncStoreConfigurationBuilder<S> maxBatchDelay(long l, TimeUnit unit) {
+      return maxBatchDelay(unit.toMillis(l));
+   }
+
    @Override
    public
    void validate() {
+      if (enabled) {
+         if (batchSize <= 0)
+            throw new CacheConfigurationException("The async store batch size must be positive");
+         if (maxBatchDelay < 0)
+            throw new CacheConfigurationException("The async store maximum batch delay cannot be negative");
+      }
    }
 
    @Override
@@ -108,7 +143,8 @@ public void validate(GlobalConfiguration globalConfig) {
 
    @Override
    public AsyncStoreConfiguration create() {
-      return new AsyncStoreConfiguration(enabled, flushLockTimeout, modificationQueueSize, shutdownTimeout, threadPoolSize);
+      return new AsyncStoreConfiguration(enabled, flushLockTimeout, modificationQueueSize, shutdownTimeout, threadPoolSize,
+                                         batchSize, maxBatchDelay);
    }
 
    @Override
@@ -118,6 +154,8 @@ public AsyncStoreConfigurationBuilder<S> read(AsyncStoreConfiguration template)
       this.modificationQueueSize = template.modificationQueueSize();
       this.shutdownTimeout = template.shutdownTimeout();
       this.threadPoolSize = template.threadPoolSize();
+      this.batchSize = template.batchSize();
+      this.maxBatchDelay = template.maxBatchDelay();
 
       return this;
    }
@@ -130,6 +168,8 @@ public String toString() {
             ", modificationQueueSize=" + modificationQueueSize +
             ", shutdownTimeout=" + shutdownTimeout +
             ", threadPoolSize=" + threadPoolSize +
+            ", batchSize=" + batchSize +
+            ", maxBatchDelay=" + maxBatchDelay +
             '}';
    }
 }
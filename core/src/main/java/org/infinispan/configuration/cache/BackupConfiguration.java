@@ -14,10 +14,23 @@ public class BackupConfiguration {
    private final boolean useTwoPhaseCommit;
    private final TakeOfflineConfiguration takeOfflineConfiguration;
    private final XSiteStateTransferConfiguration stateTransferConfiguration;
+   private final XSiteAsyncBatchingConfiguration asyncBatchingConfiguration;
    private final boolean enabled;
 
    public BackupConfiguration(String site, BackupStrategy strategy, long timeout, BackupFailurePolicy backupFailurePolicy,
                               String failurePolicyClass, boolean useTwoPhaseCommit, TakeOfflineConfiguration takeOfflineConfiguration, XSiteStateTransferConfiguration stateTransferConfiguration, boolean enabled) {
+      this(site, strategy, timeout, backupFailurePolicy, failurePolicyClass, useTwoPhaseCommit, takeOfflineConfiguration,
+           stateTransferConfiguration,
+           new XSiteAsyncBatchingConfiguration(false, XSiteAsyncBatchingConfigurationBuilder.DEFAULT_FLUSH_INTERVAL,
+                                               XSiteAsyncBatchingConfigurationBuilder.DEFAULT_MAX_MODIFICATIONS,
+                                               XSiteAsyncBatchingConfigurationBuilder.DEFAULT_MAX_QUEUE_SIZE, true),
+           enabled);
+   }
+
+   public BackupConfiguration(String site, BackupStrategy strategy, long timeout, BackupFailurePolicy backupFailurePolicy,
+                              String failurePolicyClass, boolean useTwoPhaseCommit, TakeOfflineConfiguration takeOfflineConfiguration,
+                              XSiteStateTransferConfiguration stateTransferConfiguration,
+                              XSiteAsyncBatchingConfiguration asyncBatchingConfiguration, boolean enabled) {
       this.site = site;
       this.strategy = strategy;
       this.timeout = timeout;
@@ -26,6 +39,7 @@ public BackupConfiguration(String site, BackupStrategy strategy, long timeout, B
       this.useTwoPhaseCommit = useTwoPhaseCommit;
       this.takeOfflineConfiguration = takeOfflineConfiguration;
       this.stateTransferConfiguration = stateTransferConfiguration;
+      this.asyncBatchingConfiguration = asyncBatchingConfiguration;
       this.enabled = enabled;
    }
 
@@ -86,6 +100,10 @@ public XSiteStateTransferConfiguration stateTransfer() {
       return stateTransferConfiguration;
    }
 
+   public XSiteAsyncBatchingConfiguration asyncBatching() {
+      return asyncBatchingConfiguration;
+   }
+
    @Override
    public boolean equals(Object o) {
       if (this == o) return true;
@@ -105,6 +123,10 @@ public boolean equals(Object o) {
             !stateTransferConfiguration.equals(that.stateTransferConfiguration) :
             that.stateTransferConfiguration != null)
          return false;
+      if (asyncBatchingConfiguration != null ?
+            !asyncBatchingConfiguration.equals(that.asyncBatchingConfiguration) :
+            that.asyncBatchingConfiguration != null)
+         return false;
 
       return true;
    }
@@ -117,6 +139,7 @@ public int hashCode() {
       result = 31 * result + (backupFailurePolicy != null ? backupFailurePolicy.hashCode() : 0);
       result = 31 * result + (failurePolicyClass != null ? failurePolicyClass.hashCode() : 0);
       result = 31 * result + (stateTransferConfiguration != null ? stateTransferConfiguration.hashCode() : 0);
+      result = 31 * result + (asyncBatchingConfiguration != null ? asyncBatchingConfiguration.hashCode() : 0);
       result = 31 * result + (useTwoPhaseCommit ? 1 : 0);
       return result;
    }
@@ -131,6 +154,7 @@ public String toString() {
             ", backupFailurePolicy=" + backupFailurePolicy +
             ", failurePolicyClass='" + failurePolicyClass + '\'' +
             ", stateTransferConfiguration=" + stateTransferConfiguration +
+            ", asyncBatchingConfiguration=" + asyncBatchingConfiguration +
             ", enabled='" + enabled + '\'' +
             '}';
    }
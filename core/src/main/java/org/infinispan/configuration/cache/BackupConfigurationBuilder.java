@@ -31,10 +31,13 @@ public class BackupConfigurationBuilder extends AbstractConfigurationChildBuilde
 
    private XSiteStateTransferConfigurationBuilder stateTransferBuilder;
 
+   private XSiteAsyncBatchingConfigurationBuilder asyncBatchingBuilder;
+
    public BackupConfigurationBuilder(ConfigurationBuilder builder) {
       super(builder);
       takeOfflineBuilder = new TakeOfflineConfigurationBuilder(builder, this);
       this.stateTransferBuilder = new XSiteStateTransferConfigurationBuilder(builder, this);
+      this.asyncBatchingBuilder = new XSiteAsyncBatchingConfigurationBuilder(builder, this);
    }
 
    /**
@@ -142,10 +145,15 @@ public XSiteStateTransferConfigurationBuilder stateTransfer() {
       return this.stateTransferBuilder;
    }
 
+   public XSiteAsyncBatchingConfigurationBuilder asyncBatching() {
+      return this.asyncBatchingBuilder;
+   }
+
    @Override
    public void validate() {
       takeOfflineBuilder.validate();
       stateTransferBuilder.validate();
+      asyncBatchingBuilder.validate();
       if (site == null)
          throw log.backupSiteNullName();
       if (backupFailurePolicy == BackupFailurePolicy.CUSTOM && (failurePolicyClass == null)) {
@@ -160,18 +168,21 @@ public void validate() {
    public void validate(GlobalConfiguration globalConfig) {
       takeOfflineBuilder.validate(globalConfig);
       stateTransferBuilder.validate(globalConfig);
+      asyncBatchingBuilder.validate(globalConfig);
    }
 
    @Override
    public BackupConfiguration create() {
       return new BackupConfiguration(site, strategy, replicationTimeout, backupFailurePolicy, failurePolicyClass,
-                                     useTwoPhaseCommit, takeOfflineBuilder.create(), stateTransferBuilder.create(), enabled);
+                                     useTwoPhaseCommit, takeOfflineBuilder.create(), stateTransferBuilder.create(),
+                                     asyncBatchingBuilder.create(), enabled);
    }
 
    @Override
    public Builder read(BackupConfiguration template) {
       this.takeOfflineBuilder.read(template.takeOffline());
       this.stateTransferBuilder.read(template.stateTransfer());
+      this.asyncBatchingBuilder.read(template.asyncBatching());
       this.site = template.site();
       this.strategy = template.strategy();
       this.backupFailurePolicy = template.backupFailurePolicy();
@@ -203,6 +214,10 @@ public boolean equals(Object o) {
             !stateTransferBuilder.equals(that.stateTransferBuilder) :
             that.stateTransferBuilder != null)
          return false;
+      if (asyncBatchingBuilder != null ?
+            !asyncBatchingBuilder.equals(that.asyncBatchingBuilder) :
+            that.asyncBatchingBuilder != null)
+         return false;
 
       return true;
    }
@@ -216,6 +231,7 @@ public int hashCode() {
       result = 31 * result + (failurePolicyClass != null ? failurePolicyClass.hashCode() : 0);
       result = 31 * result + (takeOfflineBuilder != null ? takeOfflineBuilder.hashCode() : 0);
       result = 31 * result + (stateTransferBuilder != null ? stateTransferBuilder.hashCode() : 0);
+      result = 31 * result + (asyncBatchingBuilder != null ? asyncBatchingBuilder.hashCode() : 0);
       result = 31 * result + (useTwoPhaseCommit ? 1 : 0);
       return result;
    }
@@ -231,6 +247,7 @@ public String toString() {
             ", failurePolicyClass='" + failurePolicyClass + '\'' +
             ", takeOfflineBuilder=" + takeOfflineBuilder +
             ", stateTransferBuilder=" + stateTransferBuilder +
+            ", asyncBatchingBuilder=" + asyncBatchingBuilder +
             ", enabled=" + enabled +
             '}';
    }
@@ -0,0 +1,62 @@
+package org.infinispan.configuration.cache;
+
+/**
+ * Configures how the events of the cluster listeners registered on other nodes are sent to them.
+ *
+ * @since 7.2
+ */
+public class ClusterListenerConfiguration {
+
+   private final int batchSize;
+   private final long maxBatchDelay;
+
+   ClusterListenerConfiguration(int batchSize, long maxBatchDelay) {
+      this.batchSize = batchSize;
+      this.maxBatchDelay = maxBatchDelay;
+   }
+
+   /**
+    * The number of events for the asynchronous cluster listeners of a node that are sent with a single RPC, when
+    * batching is enabled with {@link #maxBatchDelay()}.
+    */
+   public int batchSize() {
+      return batchSize;
+   }
+
+   /**
+    * The maximum time in milliseconds the events for the asynchronous cluster listeners of a node are kept before
+    * sending them, if fewer than {@link #batchSize()} events are queued. 0 disables the batching, and sends the events
+    * at the end of each operation or transaction.
+    */
+   public long maxBatchDelay() {
+      return maxBatchDelay;
+   }
+
+   @Override
+   public String toString() {
+      return "ClusterListenerConfiguration{" +
+            "batchSize=" + batchSize +
+            ", maxBatchDelay=" + maxBatchDelay +
+            '}';
+   }
+
+   @Override
+   public boolean equals(Object o) {
+      if (this == o) return true;
+      if (o == null || getClass() != o.getClass()) return false;
+
+      ClusterListenerConfiguration that = (ClusterListenerConfiguration) o;
+
+      if (batchSize != that.batchSize) return false;
+      if (maxBatchDelay != that.maxBatchDelay) return false;
+
+      return true;
+   }
+
+   @Override
+   public int hashCode() {
+      int result = batchSize;
+      result = 31 * result + (int) (maxBatchDelay ^ (maxBatchDelay >>> 32));
+      return result;
+   }
+}
@@ -0,0 +1,79 @@
+package org.infinispan.configuration.cache;
+
+import org.infinispan.commons.CacheConfigurationException;
+import org.infinispan.commons.configuration.Builder;
+import org.infinispan.configuration.global.GlobalConfiguration;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Configures how the events of the cluster listeners registered on other nodes are sent to them.
+ *
+ * @since 7.2
+ */
+public class ClusterListenerConfigurationBuilder extends AbstractClusteringConfigurationChildBuilder implements Builder<ClusterListenerConfiguration> {
+
+   private int batchSize = 100;
+   private long maxBatchDelay = 0;
+
+   ClusterListenerConfigurationBuilder(ClusteringConfigurationBuilder builder) {
+      super(builder);
+   }
+
+   /**
+    * The number of events for the asynchronous cluster listeners of a node that are sent with a single RPC. A batch
+    * is sent as soon as it reaches this size, even if the {@link #maxBatchDelay(long)} did not elapse.
+    */
+   public ClusterListenerConfigurationBuilder batchSize(int batchSize) {
+      this.batchSize = batchSize;
+      return this;
+   }
+
+   /**
+    * The maximum time in milliseconds to keep the events for the asynchronous cluster listeners of a node before
+    * sending them. Default 0, which sends the events at the end of each operation or transaction.
+    */
+   public ClusterListenerConfigurationBuilder maxBatchDelay(long maxBatchDelay) {
+      this.maxBatchDelay = maxBatchDelay;
+      return this;
+   }
+
+   /**
+    * The maximum time to keep the events for the asynchronous cluster listeners of a node before sending them.
+    */
+   public ClusterListenerConfigurationBuilder maxBatchDelay(long maxBatchDelay, TimeUnit unit) {
+      return maxBatchDelay(unit.toMillis(maxBatchDelay));
+   }
+
+   @Override
+   public void validate() {
+      if (batchSize < 1)
+         throw new CacheConfigurationException("The cluster listener batch size must be positive");
+      if (maxBatchDelay < 0)
+         throw new CacheConfigurationException("The cluster listener maximum batch delay cannot be negative");
+   }
+
+   @Override
+   public void validate(GlobalConfiguration globalConfig) {
+   }
+
+   @Override
+   public ClusterListenerConfiguration create() {
+      return new ClusterListenerConfiguration(batchSize, maxBatchDelay);
+   }
+
+   @Override
+   public ClusterListenerConfigurationBuilder read(ClusterListenerConfiguration template) {
+      batchSize = template.batchSize();
+      maxBatchDelay = template.maxBatchDelay();
+      return this;
+   }
+
+   @Override
+   public String toString() {
+      return "ClusterListenerConfigurationBuilder{" +
+            "batchSize=" + batchSize +
+            ", maxBatchDelay=" + maxBatchDelay +
+            '}';
+   }
+}
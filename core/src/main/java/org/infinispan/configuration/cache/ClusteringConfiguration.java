@@ -15,10 +15,11 @@ public class ClusteringConfiguration {
    private final StateTransferConfiguration stateTransferConfiguration;
    private final SyncConfiguration syncConfiguration;
    private final PartitionHandlingConfiguration partitionHandlingConfiguration;
+   private final ClusterListenerConfiguration clusterListenerConfiguration;
 
    ClusteringConfiguration(CacheMode cacheMode, AsyncConfiguration asyncConfiguration, HashConfiguration hashConfiguration,
          L1Configuration l1Configuration, StateTransferConfiguration stateTransferConfiguration, SyncConfiguration syncConfiguration,
-         PartitionHandlingConfiguration partitionHandlingStrategy) {
+         PartitionHandlingConfiguration partitionHandlingStrategy, ClusterListenerConfiguration clusterListenerConfiguration) {
       this.cacheMode = cacheMode;
       this.asyncConfiguration = asyncConfiguration;
       this.hashConfiguration = hashConfiguration;
@@ -26,6 +27,7 @@ public class ClusteringConfiguration {
       this.stateTransferConfiguration = stateTransferConfiguration;
       this.syncConfiguration = syncConfiguration;
       this.partitionHandlingConfiguration  = partitionHandlingStrategy;
+      this.clusterListenerConfiguration = clusterListenerConfiguration;
    }
 
    /**
@@ -82,6 +84,13 @@ public StateTransferConfiguration stateTransfer() {
       return stateTransferConfiguration;
    }
 
+   /**
+    * Configures how the events of the cluster listeners registered on other nodes are sent to them.
+    */
+   public ClusterListenerConfiguration clusterListeners() {
+      return clusterListenerConfiguration;
+   }
+
    @Override
    public String toString() {
       return "ClusteringConfiguration{" +
@@ -91,6 +100,7 @@ public String toString() {
             ", l1=" + l1Configuration +
             ", stateTransfer=" + stateTransferConfiguration +
             ", sync=" + syncConfiguration +
+            ", clusterListeners=" + clusterListenerConfiguration +
             '}';
    }
 
@@ -112,6 +122,8 @@ public boolean equals(Object o) {
          return false;
       if (syncConfiguration != null ? !syncConfiguration.equals(that.syncConfiguration) : that.syncConfiguration != null)
          return false;
+      if (clusterListenerConfiguration != null ? !clusterListenerConfiguration.equals(that.clusterListenerConfiguration) : that.clusterListenerConfiguration != null)
+         return false;
 
       return true;
    }
@@ -124,6 +136,7 @@ public int hashCode() {
       result = 31 * result + (l1Configuration != null ? l1Configuration.hashCode() : 0);
       result = 31 * result + (stateTransferConfiguration != null ? stateTransferConfiguration.hashCode() : 0);
       result = 31 * result + (syncConfiguration != null ? syncConfiguration.hashCode() : 0);
+      result = 31 * result + (clusterListenerConfiguration != null ? clusterListenerConfiguration.hashCode() : 0);
       return result;
    }
 
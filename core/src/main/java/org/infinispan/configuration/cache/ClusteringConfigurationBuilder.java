@@ -22,6 +22,7 @@ public class ClusteringConfigurationBuilder extends AbstractConfigurationChildBu
    private final StateTransferConfigurationBuilder stateTransferConfigurationBuilder;
    private final SyncConfigurationBuilder syncConfigurationBuilder;
    private final PartitionHandlingConfigurationBuilder partitionHandlingConfigurationBuilder;
+   private final ClusterListenerConfigurationBuilder clusterListenerConfigurationBuilder;
 
    ClusteringConfigurationBuilder(ConfigurationBuilder builder) {
       super(builder);
@@ -31,6 +32,7 @@ public class ClusteringConfigurationBuilder extends AbstractConfigurationChildBu
       this.stateTransferConfigurationBuilder = new StateTransferConfigurationBuilder(this);
       this.syncConfigurationBuilder = new SyncConfigurationBuilder(this);
       this.partitionHandlingConfigurationBuilder = new PartitionHandlingConfigurationBuilder(this);
+      this.clusterListenerConfigurationBuilder = new ClusterListenerConfigurationBuilder(this);
    }
 
    /**
@@ -96,12 +98,18 @@ public PartitionHandlingConfigurationBuilder partitionHandling() {
       return partitionHandlingConfigurationBuilder;
    }
 
+   @Override
+   public ClusterListenerConfigurationBuilder clusterListeners() {
+      return clusterListenerConfigurationBuilder;
+   }
+
    @Override
    public
    void validate() {
       for (Builder<?> validatable:
             Arrays.asList(asyncConfigurationBuilder, hashConfigurationBuilder, l1ConfigurationBuilder,
-                          syncConfigurationBuilder, stateTransferConfigurationBuilder, partitionHandlingConfigurationBuilder)) {
+                          syncConfigurationBuilder, stateTransferConfigurationBuilder, partitionHandlingConfigurationBuilder,
+                          clusterListenerConfigurationBuilder)) {
          validatable.validate();
       }
    }
@@ -115,7 +123,8 @@ public void validate(GlobalConfiguration globalConfig) {
 
       for (ConfigurationChildBuilder validatable:
          Arrays.asList(asyncConfigurationBuilder, hashConfigurationBuilder, l1ConfigurationBuilder,
-                       syncConfigurationBuilder, stateTransferConfigurationBuilder, partitionHandlingConfigurationBuilder)) {
+                       syncConfigurationBuilder, stateTransferConfigurationBuilder, partitionHandlingConfigurationBuilder,
+                       clusterListenerConfigurationBuilder)) {
          validatable.validate(globalConfig);
       }
    }
@@ -124,7 +133,8 @@ public void validate(GlobalConfiguration globalConfig) {
    public
    ClusteringConfiguration create() {
       return new ClusteringConfiguration(cacheMode, asyncConfigurationBuilder.create(), hashConfigurationBuilder.create(),
-            l1ConfigurationBuilder.create(), stateTransferConfigurationBuilder.create(), syncConfigurationBuilder.create(), partitionHandlingConfigurationBuilder.create());
+            l1ConfigurationBuilder.create(), stateTransferConfigurationBuilder.create(), syncConfigurationBuilder.create(), partitionHandlingConfigurationBuilder.create(),
+            clusterListenerConfigurationBuilder.create());
    }
 
    @Override
@@ -136,6 +146,7 @@ public ClusteringConfigurationBuilder read(ClusteringConfiguration template) {
       stateTransferConfigurationBuilder.read(template.stateTransfer());
       syncConfigurationBuilder.read(template.sync());
       partitionHandlingConfigurationBuilder.read(template.partitionHandling());
+      clusterListenerConfigurationBuilder.read(template.clusterListeners());
 
       return this;
    }
@@ -149,6 +160,7 @@ public String toString() {
             ", l1=" + l1ConfigurationBuilder +
             ", stateTransfer=" + stateTransferConfigurationBuilder +
             ", sync=" + syncConfigurationBuilder +
+            ", clusterListeners=" + clusterListenerConfigurationBuilder +
             '}';
    }
 
@@ -37,4 +37,9 @@ public interface ClusteringConfigurationChildBuilder extends ConfigurationChildB
     * Configures how the cache will react to cluster partitions.
     */
    PartitionHandlingConfigurationBuilder partitionHandling();
+
+   /**
+    * Configures how the events of the cluster listeners registered on other nodes are sent to them.
+    */
+   ClusterListenerConfigurationBuilder clusterListeners();
 }
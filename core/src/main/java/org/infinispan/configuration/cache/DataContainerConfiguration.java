@@ -16,14 +16,18 @@ public class DataContainerConfiguration extends AbstractTypedPropertiesConfigura
    private final DataContainer dataContainer;
    private final Equivalence keyEquivalence;
    private final Equivalence valueEquivalence;
+   private final boolean offHeap;
+   private final boolean segmented;
 
    DataContainerConfiguration(DataContainer dataContainer,
          TypedProperties properties, Equivalence keyEquivalence,
-         Equivalence valueEquivalence) {
+         Equivalence valueEquivalence, boolean offHeap, boolean segmented) {
       super(properties);
       this.dataContainer = dataContainer;
       this.keyEquivalence = keyEquivalence;
       this.valueEquivalence = valueEquivalence;
+      this.offHeap = offHeap;
+      this.segmented = segmented;
    }
    
    /**
@@ -44,12 +48,28 @@ public <V> Equivalence<V> valueEquivalence() {
       return valueEquivalence;
    }
 
+   /**
+    * Whether the entries are stored in native memory, outside of the Java heap
+    */
+   public boolean offHeap() {
+      return offHeap;
+   }
+
+   /**
+    * Whether the entries are kept in a separate map for each segment
+    */
+   public boolean segmented() {
+      return segmented;
+   }
+
    @Override
    public String toString() {
       return "DataContainerConfiguration{" +
             "dataContainer=" + dataContainer +
             ", keyEquivalence=" + keyEquivalence +
             ", valueEquivalence=" + valueEquivalence +
+            ", offHeap=" + offHeap +
+            ", segmented=" + segmented +
             '}';
    }
 
@@ -67,6 +87,10 @@ public boolean equals(Object o) {
          return false;
       if (valueEquivalence != null ? !valueEquivalence.equals(that.valueEquivalence) : that.valueEquivalence != null)
          return false;
+      if (offHeap != that.offHeap)
+         return false;
+      if (segmented != that.segmented)
+         return false;
 
       return true;
    }
@@ -77,6 +101,8 @@ public int hashCode() {
       result = 31 * result + (dataContainer != null ? dataContainer.hashCode() : 0);
       result = 31 * result + (keyEquivalence != null ? keyEquivalence.hashCode() : 0);
       result = 31 * result + (valueEquivalence != null ? valueEquivalence.hashCode() : 0);
+      result = 31 * result + (offHeap ? 1 : 0);
+      result = 31 * result + (segmented ? 1 : 0);
       return result;
    }
 
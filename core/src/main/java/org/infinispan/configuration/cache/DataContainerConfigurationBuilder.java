@@ -2,6 +2,7 @@
 
 import java.util.Properties;
 
+import org.infinispan.commons.CacheConfigurationException;
 import org.infinispan.commons.configuration.Builder;
 import org.infinispan.commons.equivalence.AnyEquivalence;
 import org.infinispan.commons.equivalence.Equivalence;
@@ -21,6 +22,8 @@ public class DataContainerConfigurationBuilder extends AbstractConfigurationChil
    private DataContainer dataContainer;
    private Equivalence keyEquivalence = AnyEquivalence.getInstance();
    private Equivalence valueEquivalence = AnyEquivalence.getInstance();
+   private boolean offHeap = false;
+   private boolean segmented = false;
    // TODO: What are properties used for? Is it just legacy?
    private Properties properties = new Properties();
 
@@ -91,8 +94,55 @@ public <V> DataContainerConfigurationBuilder valueEquivalence(Equivalence<V> val
       return this;
    }
 
+   /**
+    * Store the entries of the cache in native memory, outside of the Java heap, using an
+    * {@link org.infinispan.container.OffHeapDataContainer}. Keys, values and metadata are kept in marshalled form,
+    * which reduces the garbage collection overhead of large caches at the expense of marshalling on every access.
+    * The eviction settings of the cache still apply, using an LRU ordering. The maximum number of entries is split
+    * evenly among the internal segments of the container and enforced per segment, so with a skewed key distribution
+    * entries may be evicted before the container holds {@code maxEntries} entries.
+    * Keys are compared by their marshalled form, so a custom {@link #keyEquivalence(Equivalence)} is not allowed.
+    *
+    * @param offHeap whether the entries must be stored off-heap
+    * @return this configuration builder
+    */
+   public DataContainerConfigurationBuilder offHeap(boolean offHeap) {
+      this.offHeap = offHeap;
+      return this;
+   }
+
+   /**
+    * Keep the entries of each segment of a clustered cache in a separate map, using a
+    * {@link org.infinispan.container.SegmentedDataContainer}. State transfer, entry iteration and the removal of the
+    * segments no longer owned then only visit the entries of the segments involved, instead of the whole container.
+    * Segmented data containers cannot be bounded, so eviction must be disabled.
+    *
+    * @param segmented whether the entries must be split by segment
+    * @return this configuration builder
+    */
+   public DataContainerConfigurationBuilder segmented(boolean segmented) {
+      this.segmented = segmented;
+      return this;
+   }
+
+   boolean offHeap() {
+      return offHeap;
+   }
+
+   boolean segmented() {
+      return segmented;
+   }
+
    @Override
    public void validate() {
+      if (offHeap && dataContainer != null)
+         throw new CacheConfigurationException("Cannot store entries off-heap when a custom data container is specified");
+      if (offHeap && !(keyEquivalence instanceof AnyEquivalence))
+         throw new CacheConfigurationException("Cannot store entries off-heap with a custom key equivalence, the off-heap container compares the marshalled keys");
+      if (segmented && (offHeap || dataContainer != null))
+         throw new CacheConfigurationException("A segmented data container cannot be combined with off-heap storage or a custom data container");
+      if (segmented && !clustering().cacheMode().isClustered())
+         throw new CacheConfigurationException("A segmented data container can only be used by clustered caches");
    }
 
    @Override
@@ -103,7 +153,7 @@ public void validate(GlobalConfiguration globalConfig) {
    public DataContainerConfiguration create() {
       return new DataContainerConfiguration(dataContainer,
             TypedProperties.toTypedProperties(properties), keyEquivalence,
-            valueEquivalence);
+            valueEquivalence, offHeap, segmented);
    }
 
    @Override
@@ -112,6 +162,8 @@ public DataContainerConfigurationBuilder read(DataContainerConfiguration templat
       this.properties = template.properties();
       this.keyEquivalence = template.keyEquivalence();
       this.valueEquivalence = template.valueEquivalence();
+      this.offHeap = template.offHeap();
+      this.segmented = template.segmented();
 
       return this;
    }
@@ -123,6 +175,8 @@ public String toString() {
             ", properties=" + properties +
             ", keyEquivalence=" + keyEquivalence +
             ", valueEquivalence=" + valueEquivalence +
+            ", offHeap=" + offHeap +
+            ", segmented=" + segmented +
             '}';
    }
 }
@@ -2,25 +2,28 @@
 
 import org.infinispan.eviction.EvictionStrategy;
 import org.infinispan.eviction.EvictionThreadPolicy;
+import org.infinispan.eviction.EvictionType;
 
 /**
  * Controls the eviction settings for the cache.
  */
 public class EvictionConfiguration {
    
-   private final int maxEntries;
+   private final long size;
+   private final EvictionType type;
    private final EvictionStrategy strategy;
    private final EvictionThreadPolicy threadPolicy;
    
-   EvictionConfiguration(int maxEntries, EvictionStrategy strategy, EvictionThreadPolicy threadPolicy) {
-      this.maxEntries = maxEntries;
+   EvictionConfiguration(long size, EvictionType type, EvictionStrategy strategy, EvictionThreadPolicy threadPolicy) {
+      this.size = size;
+      this.type = type;
       this.strategy = strategy;
       this.threadPolicy = threadPolicy;
    }
    
    /**
-    * Eviction strategy. Available options are 'UNORDERED', 'LRU', 'LIRS' and 'NONE' (to disable
-    * eviction).
+    * Eviction strategy. Available options are 'UNORDERED', 'LRU', 'LIRS', 'TINY_LFU' and 'NONE' (to
+    * disable eviction).
     */
    public EvictionStrategy strategy() {
       return strategy;
@@ -39,13 +42,30 @@ public EvictionThreadPolicy threadPolicy() {
     * be exactly maximum number of entries specified here.
     */
    public int maxEntries() {
-      return maxEntries;
+      return (int) Math.min(size, Integer.MAX_VALUE);
+   }
+
+   /**
+    * Maximum size of a cache instance, in number of entries or in bytes depending on the
+    * {@link #type()}.
+    */
+   public long size() {
+      return size;
+   }
+
+   /**
+    * How the size of the cache is measured: 'COUNT' for the number of entries, 'MEMORY' for the
+    * estimated amount of memory used by the entries, in bytes.
+    */
+   public EvictionType type() {
+      return type;
    }
 
    @Override
    public String toString() {
       return "EvictionConfiguration{" +
-            "maxEntries=" + maxEntries +
+            "size=" + size +
+            ", type=" + type +
             ", strategy=" + strategy +
             ", threadPolicy=" + threadPolicy +
             '}';
@@ -58,7 +78,8 @@ public boolean equals(Object o) {
 
       EvictionConfiguration that = (EvictionConfiguration) o;
 
-      if (maxEntries != that.maxEntries) return false;
+      if (size != that.size) return false;
+      if (type != that.type) return false;
       if (strategy != that.strategy) return false;
       if (threadPolicy != that.threadPolicy) return false;
 
@@ -67,7 +88,8 @@ public boolean equals(Object o) {
 
    @Override
    public int hashCode() {
-      int result = maxEntries;
+      int result = (int) (size ^ (size >>> 32));
+      result = 31 * result + (type != null ? type.hashCode() : 0);
       result = 31 * result + (strategy != null ? strategy.hashCode() : 0);
       result = 31 * result + (threadPolicy != null ? threadPolicy.hashCode() : 0);
       return result;
@@ -5,6 +5,7 @@
 import org.infinispan.configuration.global.GlobalConfiguration;
 import org.infinispan.eviction.EvictionStrategy;
 import org.infinispan.eviction.EvictionThreadPolicy;
+import org.infinispan.eviction.EvictionType;
 import org.infinispan.util.logging.Log;
 import org.infinispan.util.logging.LogFactory;
 
@@ -15,7 +16,8 @@ public class EvictionConfigurationBuilder extends AbstractConfigurationChildBuil
 
    private static final Log log = LogFactory.getLog(EvictionConfigurationBuilder.class);
 
-   private int maxEntries = -1;
+   private long size = -1;
+   private EvictionType type = EvictionType.COUNT;
    private EvictionStrategy strategy = EvictionStrategy.NONE;
    private EvictionThreadPolicy threadPolicy = EvictionThreadPolicy.DEFAULT;
 
@@ -25,8 +27,8 @@ public class EvictionConfigurationBuilder extends AbstractConfigurationChildBuil
 
 
    /**
-    * Eviction strategy. Available options are 'UNORDERED', 'LRU', 'LIRS' and 'NONE' (to disable
-    * eviction).
+    * Eviction strategy. Available options are 'UNORDERED', 'LRU', 'LIRS', 'TINY_LFU' and 'NONE' (to
+    * disable eviction).
     *
     * @param evictionStrategy
     */
@@ -57,7 +59,30 @@ public EvictionConfigurationBuilder threadPolicy(EvictionThreadPolicy policy) {
     * @param maxEntries
     */
    public EvictionConfigurationBuilder maxEntries(int maxEntries) {
-      this.maxEntries = maxEntries;
+      this.size = maxEntries;
+      return this;
+   }
+
+   /**
+    * Maximum size of a cache instance, in number of entries or in bytes depending on the
+    * {@link #type(EvictionType)}. -1 means no limit.
+    *
+    * @param size
+    */
+   public EvictionConfigurationBuilder size(long size) {
+      this.size = size;
+      return this;
+   }
+
+   /**
+    * How the size of the cache is measured. Available options are 'COUNT' (the number of entries,
+    * the default) and 'MEMORY' (the estimated amount of memory used by the entries, in bytes). 'MEMORY'
+    * cannot be used with the 'LIRS' strategy.
+    *
+    * @param type
+    */
+   public EvictionConfigurationBuilder type(EvictionType type) {
+      this.type = type;
       return this;
    }
 
@@ -67,12 +92,15 @@ public void validate() {
          log.passivationWithoutEviction();
       if(strategy == EvictionStrategy.FIFO)
          log.warnFifoStrategyIsDeprecated();
-      if (strategy.isEnabled() && maxEntries <= 0)
+      if (strategy.isEnabled() && size <= 0)
          throw new CacheConfigurationException("Eviction maxEntries value cannot be less than or equal to zero if eviction is enabled");
-      if (maxEntries > 0 && !strategy.isEnabled()) {
-         strategy = EvictionStrategy.LIRS;
-         log.debugf("Max entries configured (%d) without eviction strategy. Eviction strategy overriden to %s", maxEntries, strategy);
+      if (size > 0 && !strategy.isEnabled()) {
+         // LIRS can only count the entries
+         strategy = type == EvictionType.MEMORY ? EvictionStrategy.LRU : EvictionStrategy.LIRS;
+         log.debugf("Max entries configured (%d) without eviction strategy. Eviction strategy overriden to %s", size, strategy);
       }
+      if (type == EvictionType.MEMORY && strategy == EvictionStrategy.LIRS)
+         throw new CacheConfigurationException("Eviction strategy LIRS cannot be used with eviction type MEMORY");
    }
 
    @Override
@@ -81,12 +109,13 @@ public void validate(GlobalConfiguration globalConfig) {
 
    @Override
    public EvictionConfiguration create() {
-      return new EvictionConfiguration(maxEntries, strategy, threadPolicy);
+      return new EvictionConfiguration(size, type, strategy, threadPolicy);
    }
 
    @Override
    public EvictionConfigurationBuilder read(EvictionConfiguration template) {
-      this.maxEntries = template.maxEntries();
+      this.size = template.size();
+      this.type = template.type();
       this.strategy = template.strategy();
       this.threadPolicy = template.threadPolicy();
 
@@ -96,7 +125,8 @@ public EvictionConfigurationBuilder read(EvictionConfiguration template) {
    @Override
    public String toString() {
       return "EvictionConfigurationBuilder{" +
-            "maxEntries=" + maxEntries +
+            "size=" + size +
+            ", type=" + type +
             ", strategy=" + strategy +
             ", threadPolicy=" + threadPolicy +
             '}';
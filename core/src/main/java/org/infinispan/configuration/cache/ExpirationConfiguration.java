@@ -9,12 +9,14 @@ public class ExpirationConfiguration {
    private final long maxIdle;
    private final boolean reaperEnabled;
    private final long wakeUpInterval;
+   private final boolean indexed;
 
-   ExpirationConfiguration(long lifespan, long maxIdle, boolean reaperEnabled, long wakeUpInterval) {
+   ExpirationConfiguration(long lifespan, long maxIdle, boolean reaperEnabled, long wakeUpInterval, boolean indexed) {
       this.lifespan = lifespan;
       this.maxIdle = maxIdle;
       this.reaperEnabled = reaperEnabled;
       this.wakeUpInterval = wakeUpInterval;
+      this.indexed = indexed;
    }
 
    /**
@@ -55,6 +57,15 @@ public long wakeUpInterval() {
       return wakeUpInterval;
    }
 
+   /**
+    * Determines whether the data container keeps an index of the entries that can expire, ordered by their expiration
+    * time. With the index, each run of the reaper only visits the entries that are due to expire instead of all the
+    * entries in memory.
+    */
+   public boolean indexed() {
+      return indexed;
+   }
+
    @Override
    public String toString() {
       return "ExpirationConfiguration{" +
@@ -62,6 +73,7 @@ public String toString() {
             ", maxIdle=" + maxIdle +
             ", reaperEnabled=" + reaperEnabled +
             ", wakeUpInterval=" + wakeUpInterval +
+            ", indexed=" + indexed +
             '}';
    }
 
@@ -76,6 +88,7 @@ public boolean equals(Object o) {
       if (maxIdle != that.maxIdle) return false;
       if (reaperEnabled != that.reaperEnabled) return false;
       if (wakeUpInterval != that.wakeUpInterval) return false;
+      if (indexed != that.indexed) return false;
 
       return true;
    }
@@ -86,6 +99,7 @@ public int hashCode() {
       result = 31 * result + (int) (maxIdle ^ (maxIdle >>> 32));
       result = 31 * result + (reaperEnabled ? 1 : 0);
       result = 31 * result + (int) (wakeUpInterval ^ (wakeUpInterval >>> 32));
+      result = 31 * result + (indexed ? 1 : 0);
       return result;
    }
 
@@ -2,6 +2,7 @@
 
 import java.util.concurrent.TimeUnit;
 
+import org.infinispan.commons.CacheConfigurationException;
 import org.infinispan.commons.configuration.Builder;
 import org.infinispan.configuration.global.GlobalConfiguration;
 
@@ -14,6 +15,7 @@ public class ExpirationConfigurationBuilder extends AbstractConfigurationChildBu
    private long maxIdle = -1L;
    private boolean reaperEnabled = true;
    private long wakeUpInterval = TimeUnit.MINUTES.toMillis(1);
+   private boolean indexed = false;
 
    ExpirationConfigurationBuilder(ConfigurationBuilder builder) {
       super(builder);
@@ -110,8 +112,21 @@ public ExpirationConfigurationBuilder wakeUpInterval(long l, TimeUnit unit) {
       return wakeUpInterval(unit.toMillis(l));
    }
 
+   /**
+    * Keeps an index of the entries that can expire, ordered by their expiration time, so that each run of the reaper
+    * only visits the entries that are due to expire instead of all the entries in memory. The index uses some memory
+    * for each entry with a lifespan or a maximum idle time, and does not apply to cache stores. Only the default data
+    * container supports the index, it cannot be combined with off-heap or segmented data containers.
+    */
+   public ExpirationConfigurationBuilder indexed(boolean indexed) {
+      this.indexed = indexed;
+      return this;
+   }
+
    @Override
    public void validate() {
+      if (indexed && (dataContainer().offHeap() || dataContainer().segmented()))
+         throw new CacheConfigurationException("The expiration index is not supported by off-heap or segmented data containers");
    }
 
    @Override
@@ -120,7 +135,7 @@ public void validate(GlobalConfiguration globalConfig) {
 
    @Override
    public ExpirationConfiguration create() {
-      return new ExpirationConfiguration(lifespan, maxIdle, reaperEnabled, wakeUpInterval);
+      return new ExpirationConfiguration(lifespan, maxIdle, reaperEnabled, wakeUpInterval, indexed);
    }
 
    @Override
@@ -129,6 +144,7 @@ public ExpirationConfigurationBuilder read(ExpirationConfiguration template) {
       this.maxIdle = template.maxIdle();
       this.reaperEnabled = template.reaperEnabled();
       this.wakeUpInterval = template.wakeUpInterval();
+      this.indexed = template.indexed();
 
       return this;
    }
@@ -140,6 +156,7 @@ public String toString() {
             ", maxIdle=" + maxIdle +
             ", reaperEnabled=" + reaperEnabled +
             ", wakeUpInterval=" + wakeUpInterval +
+            ", indexed=" + indexed +
             '}';
    }
 }
@@ -11,12 +11,17 @@ public class L1Configuration {
    private final int invalidationThreshold;
    private final long lifespan;
    private final long cleanupTaskFrequency;
+   private final boolean segmentTracking;
+   private final long invalidationBatchWindow;
 
-   L1Configuration(boolean enabled, int invalidationThreshold, long lifespan, long cleanupTaskFrequency) {
+   L1Configuration(boolean enabled, int invalidationThreshold, long lifespan, long cleanupTaskFrequency,
+                   boolean segmentTracking, long invalidationBatchWindow) {
       this.enabled = enabled;
       this.invalidationThreshold = invalidationThreshold;
       this.lifespan = lifespan;
       this.cleanupTaskFrequency = cleanupTaskFrequency;
+      this.segmentTracking = segmentTracking;
+      this.invalidationBatchWindow = invalidationBatchWindow;
    }
 
    public boolean enabled() {
@@ -56,6 +61,23 @@ public long lifespan() {
       return lifespan;
    }
 
+   /**
+    * If true, the nodes that requested a key are tracked per segment instead of per key, so the memory used by the
+    * requestors log is bounded by the number of segments and nodes. Invalidations are then sent to all the nodes
+    * that requested any key of the segment.
+    */
+   public boolean segmentTracking() {
+      return segmentTracking;
+   }
+
+   /**
+    * The time in milliseconds during which L1 invalidations are collected before sending them, so that all the keys
+    * invalidated on the same node are sent with a single command. 0 sends each invalidation immediately.
+    */
+   public long invalidationBatchWindow() {
+      return invalidationBatchWindow;
+   }
+
    @Override
    public String toString() {
       return "L1Configuration{" +
@@ -63,6 +85,8 @@ public String toString() {
             ", invalidationThreshold=" + invalidationThreshold +
             ", lifespan=" + lifespan +
             ", cleanupTaskFrequency=" + cleanupTaskFrequency +
+            ", segmentTracking=" + segmentTracking +
+            ", invalidationBatchWindow=" + invalidationBatchWindow +
             '}';
    }
 
@@ -77,6 +101,8 @@ public boolean equals(Object o) {
       if (invalidationThreshold != that.invalidationThreshold) return false;
       if (lifespan != that.lifespan) return false;
       if (cleanupTaskFrequency != that.cleanupTaskFrequency) return false;
+      if (segmentTracking != that.segmentTracking) return false;
+      if (invalidationBatchWindow != that.invalidationBatchWindow) return false;
 
       return true;
    }
@@ -87,6 +113,8 @@ public int hashCode() {
       result = 31 * result + invalidationThreshold;
       result = 31 * result + (int) (lifespan ^ (lifespan >>> 32));
       result = 31 * result + (int) (cleanupTaskFrequency ^ (cleanupTaskFrequency >>> 32));
+      result = 31 * result + (segmentTracking ? 1 : 0);
+      result = 31 * result + (int) (invalidationBatchWindow ^ (invalidationBatchWindow >>> 32));
       return result;
    }
 
@@ -21,6 +21,8 @@ public class L1ConfigurationBuilder extends AbstractClusteringConfigurationChild
    private int invalidationThreshold = 0;
    private long lifespan = TimeUnit.MINUTES.toMillis(10);
    private long cleanupTaskFrequency = TimeUnit.MINUTES.toMillis(1);
+   private boolean segmentTracking = false;
+   private long invalidationBatchWindow = 0;
 
    L1ConfigurationBuilder(ClusteringConfigurationBuilder builder) {
       super(builder);
@@ -78,6 +80,32 @@ public L1ConfigurationBuilder cleanupTaskFrequency(long frequencyMillis, TimeUni
       return cleanupTaskFrequency(unit.toMillis(frequencyMillis));
    }
 
+   /**
+    * Tracks the nodes that requested a key per segment instead of per key, bounding the memory used by the
+    * requestors log at the cost of invalidating the L1 entries of a segment on all the nodes that read from it.
+    */
+   public L1ConfigurationBuilder segmentTracking(boolean segmentTracking) {
+      this.segmentTracking = segmentTracking;
+      return this;
+   }
+
+   /**
+    * How long to collect L1 invalidations before sending them, so that the keys invalidated on the same node are
+    * sent with a single command. Writes wait for their invalidations, so this should be kept short. Default 0, which
+    * sends each invalidation immediately.
+    */
+   public L1ConfigurationBuilder invalidationBatchWindow(long windowMillis) {
+      this.invalidationBatchWindow = windowMillis;
+      return this;
+   }
+
+   /**
+    * How long to collect L1 invalidations before sending them
+    */
+   public L1ConfigurationBuilder invalidationBatchWindow(long window, TimeUnit unit) {
+      return invalidationBatchWindow(unit.toMillis(window));
+   }
+
    public L1ConfigurationBuilder enable() {
       this.enabled = true;
       return this;
@@ -102,6 +130,9 @@ public void validate() {
          if (lifespan < 1)
             throw new CacheConfigurationException("Using a L1 lifespan of 0 or a negative value is meaningless");
 
+         if (invalidationBatchWindow < 0)
+            throw new CacheConfigurationException("The L1 invalidation batch window cannot be negative");
+
       }
    }
 
@@ -111,7 +142,8 @@ public void validate(GlobalConfiguration globalConfig) {
 
    @Override
    public L1Configuration create() {
-      return new L1Configuration(enabled, invalidationThreshold, lifespan, cleanupTaskFrequency);
+      return new L1Configuration(enabled, invalidationThreshold, lifespan, cleanupTaskFrequency, segmentTracking,
+                                 invalidationBatchWindow);
    }
 
    @Override
@@ -120,6 +152,8 @@ public L1ConfigurationBuilder read(L1Configuration template) {
       invalidationThreshold = template.invalidationThreshold();
       lifespan = template.lifespan();
       cleanupTaskFrequency = template.cleanupTaskFrequency();
+      segmentTracking = template.segmentTracking();
+      invalidationBatchWindow = template.invalidationBatchWindow();
       return this;
    }
 
@@ -130,6 +164,8 @@ public String toString() {
             ", invalidationThreshold=" + invalidationThreshold +
             ", lifespan=" + lifespan +
             ", cleanupTaskFrequency=" + cleanupTaskFrequency +
+            ", segmentTracking=" + segmentTracking +
+            ", invalidationBatchWindow=" + invalidationBatchWindow +
             '}';
    }
 }
@@ -17,6 +17,8 @@
 
    private float fragmentationFactor  = 0.75f;
 
+   private float compactionThreshold = 0.5f;
+
    public SingleFileStoreConfigurationBuilder(PersistenceConfigurationBuilder builder) {
       super(builder);
    }
@@ -69,11 +71,23 @@ public SingleFileStoreConfigurationBuilder fragmentationFactor(float fragmentati
       return this;
    }
 
+   /**
+    * The share of the file taken by free space above which the store is compacted after purging expired entries.
+    * Compaction moves the entries found towards the end of the file into free space closer to its start, and then
+    * truncates the file. It runs in the background while the store keeps serving reads and writes. A value of 1 or
+    * more disables compaction.
+    */
+   public SingleFileStoreConfigurationBuilder compactionThreshold(float compactionThreshold) {
+      this.compactionThreshold = compactionThreshold;
+      return this;
+   }
+
    @Override
    public SingleFileStoreConfiguration create() {
       return new SingleFileStoreConfiguration(purgeOnStartup, fetchPersistentState,ignoreModifications,
                                                     async.create(), singletonStore.create(), preload,
-                                                    shared, properties, location, maxEntries, fragmentationFactor);
+                                                    shared, properties, location, maxEntries, fragmentationFactor,
+                                                    compactionThreshold);
    }
 
    @Override
@@ -84,6 +98,7 @@ public Builder<?> read(SingleFileStoreConfiguration template) {
       location = template.location();
       maxEntries = template.maxEntries();
       fragmentationFactor  = template.fragmentationFactor();
+      compactionThreshold = template.compactionThreshold();
 
       return this;
    }
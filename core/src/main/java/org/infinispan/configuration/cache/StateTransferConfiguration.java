@@ -12,15 +12,17 @@ public class StateTransferConfiguration {
    private Boolean originalFetchInMemoryState;
    private long timeout;
    private int chunkSize;
+   private int maxInFlightChunks;
    private boolean awaitInitialTransfer;
    private Boolean originalAwaitInitialTransfer;
 
    StateTransferConfiguration(boolean fetchInMemoryState, Boolean originalFetchInMemoryState, long timeout, int chunkSize,
-                              boolean awaitInitialTransfer, Boolean originalAwaitInitialTransfer) {
+                              int maxInFlightChunks, boolean awaitInitialTransfer, Boolean originalAwaitInitialTransfer) {
       this.fetchInMemoryState = fetchInMemoryState;
       this.originalFetchInMemoryState = originalFetchInMemoryState;
       this.timeout = timeout;
       this.chunkSize = chunkSize;
+      this.maxInFlightChunks = maxInFlightChunks;
       this.awaitInitialTransfer = awaitInitialTransfer;
       this.originalAwaitInitialTransfer = originalAwaitInitialTransfer;
    }
@@ -69,6 +71,16 @@ public int chunkSize() {
       return chunkSize;
    }
 
+   /**
+    * The maximum number of state chunks a node sends to another node before the first of them is applied.
+    * If {@code 1}, the chunks are sent one at a time. If greater than {@code 1}, the state is streamed: the chunks of
+    * all the transferred segments are sent without waiting for the previous ones and, when the cache has no stores,
+    * listeners or transactions to update, the receiver writes them directly into the data container.
+    */
+   public int maxInFlightChunks() {
+      return maxInFlightChunks;
+   }
+
    /**
     * If {@code true}, this will cause the first call to method {@code CacheManager.getCache()} on the joiner node to
     * block and wait until the joining is complete and the cache has finished receiving state from neighboring caches
@@ -92,6 +104,7 @@ protected Boolean originalAwaitInitialTransfer() {
    public String toString() {
       return "StateTransferConfiguration{" +
             "chunkSize=" + chunkSize +
+            ", maxInFlightChunks=" + maxInFlightChunks +
             ", fetchInMemoryState=" + fetchInMemoryState +
             ", originalFetchInMemoryState=" + originalFetchInMemoryState +
             ", timeout=" + timeout +
@@ -108,6 +121,7 @@ public boolean equals(Object o) {
       StateTransferConfiguration that = (StateTransferConfiguration) o;
 
       if (chunkSize != that.chunkSize) return false;
+      if (maxInFlightChunks != that.maxInFlightChunks) return false;
       if (fetchInMemoryState != that.fetchInMemoryState) return false;
       if (timeout != that.timeout) return false;
       if (originalFetchInMemoryState != null ? !originalFetchInMemoryState.equals(that.originalFetchInMemoryState) : that.originalFetchInMemoryState != null)
@@ -125,6 +139,7 @@ public int hashCode() {
       result = 31 * result + (originalFetchInMemoryState != null ? originalFetchInMemoryState.hashCode() : 0);
       result = 31 * result + (int) (timeout ^ (timeout >>> 32));
       result = 31 * result + chunkSize;
+      result = 31 * result + maxInFlightChunks;
       result = 31 * result + (awaitInitialTransfer ? 1 : 0);
       result = 31 * result + (originalAwaitInitialTransfer != null ? originalAwaitInitialTransfer.hashCode() : 0);
       return result;
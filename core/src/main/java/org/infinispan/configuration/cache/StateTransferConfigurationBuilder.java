@@ -22,6 +22,7 @@ public class StateTransferConfigurationBuilder extends
    private Boolean fetchInMemoryState = null;
    private Boolean awaitInitialTransfer = null;
    private int chunkSize = 512;
+   private int maxInFlightChunks = 1;
    private long timeout = TimeUnit.MINUTES.toMillis(4);
 
    StateTransferConfigurationBuilder(ClusteringConfigurationBuilder builder) {
@@ -63,6 +64,17 @@ public StateTransferConfigurationBuilder chunkSize(int i) {
       return this;
    }
 
+   /**
+    * The maximum number of state chunks a node sends to another node before the first of them is applied.
+    * If {@code 1}, the chunks are sent one at a time. If greater than {@code 1}, the state is streamed: the chunks of
+    * all the transferred segments are sent without waiting for the previous ones and, when the cache has no stores,
+    * listeners or transactions to update, the receiver writes them directly into the data container.
+    */
+   public StateTransferConfigurationBuilder maxInFlightChunks(int i) {
+      this.maxInFlightChunks = i;
+      return this;
+   }
+
    /**
     * This is the maximum amount of time - in milliseconds - to wait for state from neighboring
     * caches, before throwing an exception and aborting startup.
@@ -86,6 +98,10 @@ public void validate() {
          throw new CacheConfigurationException("chunkSize can not be <= 0");
       }
 
+      if (maxInFlightChunks <= 0) {
+         throw new CacheConfigurationException("maxInFlightChunks can not be <= 0");
+      }
+
       if (awaitInitialTransfer != null && awaitInitialTransfer
             && !getClusteringBuilder().cacheMode().isReplicated() && !getClusteringBuilder().cacheMode().isDistributed())
          throw new CacheConfigurationException(
@@ -123,7 +139,7 @@ public  StateTransferConfiguration create() {
          _awaitInitialTransfer = false;
       }
       return new StateTransferConfiguration(_fetchInMemoryState, fetchInMemoryState,
-            timeout, chunkSize, _awaitInitialTransfer, awaitInitialTransfer);
+            timeout, chunkSize, maxInFlightChunks, _awaitInitialTransfer, awaitInitialTransfer);
    }
 
    @Override
@@ -132,6 +148,7 @@ public StateTransferConfigurationBuilder read(StateTransferConfiguration templat
       this.awaitInitialTransfer = template.originalAwaitInitialTransfer();
       this.timeout = template.timeout();
       this.chunkSize = template.chunkSize();
+      this.maxInFlightChunks = template.maxInFlightChunks();
       return this;
    }
 
@@ -139,6 +156,7 @@ public StateTransferConfigurationBuilder read(StateTransferConfiguration templat
    public String toString() {
       return "StateTransferConfigurationBuilder{" +
             "chunkSize=" + chunkSize +
+            ", maxInFlightChunks=" + maxInFlightChunks +
             ", fetchInMemoryState=" + fetchInMemoryState +
             ", awaitInitialTransfer=" + awaitInitialTransfer +
             ", timeout=" + timeout +
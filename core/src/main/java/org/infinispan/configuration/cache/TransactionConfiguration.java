@@ -28,6 +28,7 @@ public class TransactionConfiguration {
    private final boolean useSynchronization;
    private final RecoveryConfiguration recovery;
    private final boolean use1PcForAutoCommitTransactions;
+   private final boolean use1PcForPrimaryOwnerTransactions;
    private final long reaperWakeUpInterval;
    private final long completedTxTimeout;
    private final TransactionProtocol transactionProtocol; //2PC or Total order protocol
@@ -37,7 +38,7 @@ public class TransactionConfiguration {
                             boolean syncCommitPhase, boolean syncRollbackPhase, TransactionManagerLookup transactionManagerLookup,
                             TransactionSynchronizationRegistryLookup transactionSynchronizationRegistryLookup, TransactionMode transactionMode,
                             boolean useEagerLocking, boolean useSynchronization, boolean use1PcForAutoCommitTransactions,
-                            long reaperWakeUpInterval, long completedTxTimeout, RecoveryConfiguration recovery, TransactionProtocol transactionProtocol) {
+                            boolean use1PcForPrimaryOwnerTransactions, long reaperWakeUpInterval, long completedTxTimeout, RecoveryConfiguration recovery, TransactionProtocol transactionProtocol) {
       this.autoCommit = autoCommit;
       this.cacheStopTimeout = cacheStopTimeout;
       this.eagerLockingSingleNode = eagerLockingSingleNode;
@@ -51,6 +52,7 @@ public class TransactionConfiguration {
       this.useSynchronization = useSynchronization;
       this.recovery = recovery;
       this.use1PcForAutoCommitTransactions = use1PcForAutoCommitTransactions;
+      this.use1PcForPrimaryOwnerTransactions = use1PcForPrimaryOwnerTransactions;
       this.reaperWakeUpInterval = reaperWakeUpInterval;
       this.completedTxTimeout = completedTxTimeout;
       this.transactionProtocol = transactionProtocol;
@@ -269,6 +271,18 @@ public boolean use1PcForAutoCommitTransactions() {
       return use1PcForAutoCommitTransactions;
    }
 
+   /**
+    * If enabled, an optimistic transaction started on the primary owner of all the keys it modifies is only prepared
+    * locally, and the other owners receive its modifications in a single one-phase prepare when it commits. So only 1
+    * RPC instead of 2RPCs as in the case of a full 2 Phase Commit (2PC). The write skew check is still performed by
+    * the local prepare.
+    * <p/>
+    * Ignored with pessimistic locking, total order, asynchronous replication and recovery.
+    */
+   public boolean use1PcForPrimaryOwnerTransactions() {
+      return use1PcForPrimaryOwnerTransactions;
+   }
+
    @Override
    public String toString() {
       return "TransactionConfiguration{" +
@@ -287,6 +301,7 @@ public String toString() {
             ", reaperWakeUpInterval=" + reaperWakeUpInterval +
             ", completedTxTimeout=" + completedTxTimeout +
             ", use1PcForAutoCommitTransactions=" + use1PcForAutoCommitTransactions +
+            ", use1PcForPrimaryOwnerTransactions=" + use1PcForPrimaryOwnerTransactions +
             '}';
    }
 
@@ -304,6 +319,8 @@ public boolean equals(Object o) {
       if (syncRollbackPhase != that.syncRollbackPhase) return false;
       if (use1PcForAutoCommitTransactions != that.use1PcForAutoCommitTransactions)
          return false;
+      if (use1PcForPrimaryOwnerTransactions != that.use1PcForPrimaryOwnerTransactions)
+         return false;
       if (useEagerLocking != that.useEagerLocking) return false;
       if (useSynchronization != that.useSynchronization) return false;
       if (lockingMode != that.lockingMode) return false;
@@ -336,6 +353,7 @@ public int hashCode() {
       result = 31 * result + (useSynchronization ? 1 : 0);
       result = 31 * result + (recovery != null ? recovery.hashCode() : 0);
       result = 31 * result + (use1PcForAutoCommitTransactions ? 1 : 0);
+      result = 31 * result + (use1PcForPrimaryOwnerTransactions ? 1 : 0);
       result = 31 * result + (transactionProtocol != null ? transactionProtocol.hashCode() : 0);
       return result;
    }
@@ -37,6 +37,7 @@ public class TransactionConfigurationBuilder extends AbstractConfigurationChildB
    private boolean useSynchronization = false;
    private final RecoveryConfigurationBuilder recovery;
    private boolean use1PcForAutoCommitTransactions = false;
+   private boolean use1PcForPrimaryOwnerTransactions = false;
    private long reaperWakeUpInterval = 30000;
    private long completedTxTimeout = 60000;
    private TransactionProtocol transactionProtocol = TransactionProtocol.DEFAULT;
@@ -236,6 +237,19 @@ public TransactionConfigurationBuilder use1PcForAutoCommitTransactions(boolean b
       return this;
    }
 
+   /**
+    * If enabled, an optimistic transaction started on the primary owner of all the keys it modifies is only prepared
+    * locally, and the other owners receive its modifications in a single one-phase prepare when it commits. So only 1
+    * RPC instead of 2RPCs as in the case of a full 2 Phase Commit (2PC). The write skew check is still performed by
+    * the local prepare.
+    * <p/>
+    * Ignored with pessimistic locking, total order, asynchronous replication and recovery.
+    */
+   public TransactionConfigurationBuilder use1PcForPrimaryOwnerTransactions(boolean b) {
+      this.use1PcForPrimaryOwnerTransactions = b;
+      return this;
+   }
+
    /**
     *The time interval (millis) at which the thread that cleans up transaction completion information kicks in. Defaults to 30000.
     */
@@ -296,7 +310,7 @@ else if (transactionMode == null)
          transactionMode = TransactionMode.NON_TRANSACTIONAL;
       return new TransactionConfiguration(autoCommit, cacheStopTimeout, eagerLockingSingleNode, lockingMode, syncCommitPhase,
             syncRollbackPhase, transactionManagerLookup, transactionSynchronizationRegistryLookup, transactionMode,
-            useEagerLocking, useSynchronization, use1PcForAutoCommitTransactions, reaperWakeUpInterval, completedTxTimeout, recovery.create(), transactionProtocol);
+            useEagerLocking, useSynchronization, use1PcForAutoCommitTransactions, use1PcForPrimaryOwnerTransactions, reaperWakeUpInterval, completedTxTimeout, recovery.create(), transactionProtocol);
    }
 
    @Override
@@ -313,6 +327,7 @@ public TransactionConfigurationBuilder read(TransactionConfiguration template) {
       this.useEagerLocking = template.useEagerLocking();
       this.useSynchronization = template.useSynchronization();
       this.use1PcForAutoCommitTransactions = template.use1PcForAutoCommitTransactions();
+      this.use1PcForPrimaryOwnerTransactions = template.use1PcForPrimaryOwnerTransactions();
       this.recovery.read(template.recovery());
       this.reaperWakeUpInterval = template.reaperWakeUpInterval();
       this.completedTxTimeout = template.completedTxTimeout();
@@ -337,6 +352,7 @@ public String toString() {
             ", useSynchronization=" + useSynchronization +
             ", recovery=" + recovery +
             ", use1PcForAutoCommitTransactions=" + use1PcForAutoCommitTransactions +
+            ", use1PcForPrimaryOwnerTransactions=" + use1PcForPrimaryOwnerTransactions +
             ", completedTxTimeout=" + completedTxTimeout +
             ", reaperWakeUpInterval=" + reaperWakeUpInterval +
             '}';
@@ -0,0 +1,96 @@
+package org.infinispan.configuration.cache;
+
+/**
+ * Configuration of the batching of asynchronous backups to a remote site.
+ *
+ * @since 7.2
+ */
+public class XSiteAsyncBatchingConfiguration {
+
+   private final boolean enabled;
+   private final long flushInterval;
+   private final int maxModifications;
+   private final int maxQueueSize;
+   private final boolean compression;
+
+   public XSiteAsyncBatchingConfiguration(boolean enabled, long flushInterval, int maxModifications,
+                                          int maxQueueSize, boolean compression) {
+      this.enabled = enabled;
+      this.flushInterval = flushInterval;
+      this.maxModifications = maxModifications;
+      this.maxQueueSize = maxQueueSize;
+      this.compression = compression;
+   }
+
+   /**
+    * @see XSiteAsyncBatchingConfigurationBuilder#enabled(boolean)
+    */
+   public boolean enabled() {
+      return enabled;
+   }
+
+   /**
+    * @see XSiteAsyncBatchingConfigurationBuilder#flushInterval(long)
+    */
+   public long flushInterval() {
+      return flushInterval;
+   }
+
+   /**
+    * @see XSiteAsyncBatchingConfigurationBuilder#maxModifications(int)
+    */
+   public int maxModifications() {
+      return maxModifications;
+   }
+
+   /**
+    * @see XSiteAsyncBatchingConfigurationBuilder#maxQueueSize(int)
+    */
+   public int maxQueueSize() {
+      return maxQueueSize;
+   }
+
+   /**
+    * @see XSiteAsyncBatchingConfigurationBuilder#compression(boolean)
+    */
+   public boolean compression() {
+      return compression;
+   }
+
+   @Override
+   public String toString() {
+      return "XSiteAsyncBatchingConfiguration{" +
+            "enabled=" + enabled +
+            ", flushInterval=" + flushInterval +
+            ", maxModifications=" + maxModifications +
+            ", maxQueueSize=" + maxQueueSize +
+            ", compression=" + compression +
+            '}';
+   }
+
+   @Override
+   public boolean equals(Object o) {
+      if (this == o) return true;
+      if (o == null || getClass() != o.getClass()) return false;
+
+      XSiteAsyncBatchingConfiguration that = (XSiteAsyncBatchingConfiguration) o;
+
+      if (enabled != that.enabled) return false;
+      if (flushInterval != that.flushInterval) return false;
+      if (maxModifications != that.maxModifications) return false;
+      if (maxQueueSize != that.maxQueueSize) return false;
+      if (compression != that.compression) return false;
+
+      return true;
+   }
+
+   @Override
+   public int hashCode() {
+      int result = enabled ? 1 : 0;
+      result = 31 * result + (int) (flushInterval ^ (flushInterval >>> 32));
+      result = 31 * result + maxModifications;
+      result = 31 * result + maxQueueSize;
+      result = 31 * result + (compression ? 1 : 0);
+      return result;
+   }
+}
@@ -0,0 +1,163 @@
+package org.infinispan.configuration.cache;
+
+import org.infinispan.commons.CacheConfigurationException;
+import org.infinispan.commons.configuration.Builder;
+import org.infinispan.configuration.global.GlobalConfiguration;
+
+/**
+ * Configuration Builder to configure the batching of asynchronous backups to a remote site. When enabled, the writes
+ * are queued and coalesced per key, then sent periodically to the remote site in a single (optionally compressed)
+ * command.
+ *
+ * @since 7.2
+ */
+public class XSiteAsyncBatchingConfigurationBuilder extends AbstractConfigurationChildBuilder
+      implements Builder<XSiteAsyncBatchingConfiguration> {
+
+   public static final long DEFAULT_FLUSH_INTERVAL = 100;
+   public static final int DEFAULT_MAX_MODIFICATIONS = 1000;
+   public static final int DEFAULT_MAX_QUEUE_SIZE = 10000;
+   private boolean enabled = false;
+   private long flushInterval = DEFAULT_FLUSH_INTERVAL;
+   private int maxModifications = DEFAULT_MAX_MODIFICATIONS;
+   private int maxQueueSize = DEFAULT_MAX_QUEUE_SIZE;
+   private boolean compression = true;
+   private final BackupConfigurationBuilder backupConfigurationBuilder;
+
+   public XSiteAsyncBatchingConfigurationBuilder(ConfigurationBuilder builder,
+                                                 BackupConfigurationBuilder backupConfigurationBuilder) {
+      super(builder);
+      this.backupConfigurationBuilder = backupConfigurationBuilder;
+   }
+
+   @Override
+   public void validate() {
+      if (!enabled) {
+         return;
+      }
+      if (backupConfigurationBuilder.strategy() != BackupConfiguration.BackupStrategy.ASYNC) {
+         throw new CacheConfigurationException("Batching can only be enabled for backups using the ASYNC strategy.");
+      }
+      if (flushInterval <= 0) {
+         throw new CacheConfigurationException("Flush interval must be higher or equals than 1 (one).");
+      }
+      if (maxModifications <= 0) {
+         throw new CacheConfigurationException("Maximum number of modifications must be higher or equals than 1 (one).");
+      }
+      if (maxQueueSize < maxModifications) {
+         throw new CacheConfigurationException("Maximum queue size must be higher or equals than the maximum number of modifications.");
+      }
+   }
+
+   @Override
+   public void validate(GlobalConfiguration globalConfig) {
+   }
+
+   /**
+    * Enables the batching of the asynchronous backups to this site. Defaults to false.
+    */
+   public final XSiteAsyncBatchingConfigurationBuilder enabled(boolean enabled) {
+      this.enabled = enabled;
+      return this;
+   }
+
+   public final XSiteAsyncBatchingConfigurationBuilder enable() {
+      return enabled(true);
+   }
+
+   public final XSiteAsyncBatchingConfigurationBuilder disable() {
+      return enabled(false);
+   }
+
+   /**
+    * The time (in milliseconds) the writes are queued before being sent to the remote site. Several writes to the same
+    * key during this time are sent as a single one. Default value is 100 milliseconds.
+    */
+   public final XSiteAsyncBatchingConfigurationBuilder flushInterval(long flushInterval) {
+      this.flushInterval = flushInterval;
+      return this;
+   }
+
+   /**
+    * The number of queued modifications that triggers a flush before the flush interval expires. Default value is
+    * 1000.
+    */
+   public final XSiteAsyncBatchingConfigurationBuilder maxModifications(int maxModifications) {
+      this.maxModifications = maxModifications;
+      return this;
+   }
+
+   /**
+    * The maximum number of modifications queued for this site. When the queue is full, the writers wait until a batch
+    * has been sent, for at most the backup timeout. Default value is 10000.
+    */
+   public final XSiteAsyncBatchingConfigurationBuilder maxQueueSize(int maxQueueSize) {
+      this.maxQueueSize = maxQueueSize;
+      return this;
+   }
+
+   /**
+    * If true, the batches are compressed before being sent to the remote site. Default value is true.
+    */
+   public final XSiteAsyncBatchingConfigurationBuilder compression(boolean compression) {
+      this.compression = compression;
+      return this;
+   }
+
+   public final BackupConfigurationBuilder backup() {
+      return backupConfigurationBuilder;
+   }
+
+   @Override
+   public XSiteAsyncBatchingConfiguration create() {
+      return new XSiteAsyncBatchingConfiguration(enabled, flushInterval, maxModifications, maxQueueSize,
+                                                 compression);
+   }
+
+   @Override
+   public Builder<XSiteAsyncBatchingConfiguration> read(XSiteAsyncBatchingConfiguration template) {
+      this.enabled = template.enabled();
+      this.flushInterval = template.flushInterval();
+      this.maxModifications = template.maxModifications();
+      this.maxQueueSize = template.maxQueueSize();
+      this.compression = template.compression();
+      return this;
+   }
+
+   @Override
+   public String toString() {
+      return "XSiteAsyncBatchingConfigurationBuilder{" +
+            "enabled=" + enabled +
+            ", flushInterval=" + flushInterval +
+            ", maxModifications=" + maxModifications +
+            ", maxQueueSize=" + maxQueueSize +
+            ", compression=" + compression +
+            '}';
+   }
+
+   @Override
+   public boolean equals(Object o) {
+      if (this == o) return true;
+      if (o == null || getClass() != o.getClass()) return false;
+
+      XSiteAsyncBatchingConfigurationBuilder that = (XSiteAsyncBatchingConfigurationBuilder) o;
+
+      if (enabled != that.enabled) return false;
+      if (flushInterval != that.flushInterval) return false;
+      if (maxModifications != that.maxModifications) return false;
+      if (maxQueueSize != that.maxQueueSize) return false;
+      if (compression != that.compression) return false;
+
+      return true;
+   }
+
+   @Override
+   public int hashCode() {
+      int result = enabled ? 1 : 0;
+      result = 31 * result + (int) (flushInterval ^ (flushInterval >>> 32));
+      result = 31 * result + maxModifications;
+      result = 31 * result + maxQueueSize;
+      result = 31 * result + (compression ? 1 : 0);
+      return result;
+   }
+}
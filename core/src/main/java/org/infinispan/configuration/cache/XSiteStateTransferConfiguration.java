@@ -12,12 +12,19 @@ public class XSiteStateTransferConfiguration {
    private final long timeout;
    private final int maxRetries;
    private final long waitTime;
+   private final int maxInFlightChunks;
 
    public XSiteStateTransferConfiguration(int chunkSize, long timeout, int maxRetries, long waitTime) {
+      this(chunkSize, timeout, maxRetries, waitTime, XSiteStateTransferConfigurationBuilder.DEFAULT_MAX_IN_FLIGHT_CHUNKS);
+   }
+
+   public XSiteStateTransferConfiguration(int chunkSize, long timeout, int maxRetries, long waitTime,
+                                          int maxInFlightChunks) {
       this.chunkSize = chunkSize;
       this.timeout = timeout;
       this.maxRetries = maxRetries;
       this.waitTime = waitTime;
+      this.maxInFlightChunks = maxInFlightChunks;
    }
 
    public int chunkSize() {
@@ -36,6 +43,10 @@ public long waitTime() {
       return waitTime;
    }
 
+   public int maxInFlightChunks() {
+      return maxInFlightChunks;
+   }
+
    @Override
    public String toString() {
       return "XSiteStateTransferConfiguration{" +
@@ -43,6 +54,7 @@ public String toString() {
             ", timeout=" + timeout +
             ", maxRetries=" + maxRetries +
             ", waitTime=" + waitTime +
+            ", maxInFlightChunks=" + maxInFlightChunks +
             '}';
    }
 
@@ -57,6 +69,7 @@ public boolean equals(Object o) {
       if (maxRetries != that.maxRetries) return false;
       if (timeout != that.timeout) return false;
       if (waitTime != that.waitTime) return false;
+      if (maxInFlightChunks != that.maxInFlightChunks) return false;
 
       return true;
    }
@@ -67,6 +80,7 @@ public int hashCode() {
       result = 31 * result + (int) (timeout ^ (timeout >>> 32));
       result = 31 * result + maxRetries;
       result = 31 * result + (int) (waitTime ^ (waitTime >>> 32));
+      result = 31 * result + maxInFlightChunks;
       return result;
    }
 }
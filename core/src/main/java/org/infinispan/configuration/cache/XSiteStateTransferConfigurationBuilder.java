@@ -23,6 +23,8 @@ public class XSiteStateTransferConfigurationBuilder extends AbstractConfiguratio
    private int maxRetries = DEFAULT_MAX_RETRIES;
    public static final long DEFAULT_WAIT_TIME = TimeUnit.SECONDS.toMillis(2);
    private long waitTime = DEFAULT_WAIT_TIME;
+   public static final int DEFAULT_MAX_IN_FLIGHT_CHUNKS = 1;
+   private int maxInFlightChunks = DEFAULT_MAX_IN_FLIGHT_CHUNKS;
    private final BackupConfigurationBuilder backupConfigurationBuilder;
 
    public XSiteStateTransferConfigurationBuilder(ConfigurationBuilder builder,
@@ -39,6 +41,9 @@ public void validate() {
       if (waitTime <= 0) {
          throw new CacheConfigurationException("Waiting time between retries must be higher or equals than 1 (one).");
       }
+      if (maxInFlightChunks <= 0) {
+         throw new CacheConfigurationException("Maximum number of in-flight chunks must be higher or equals than 1 (one).");
+      }
    }
 
    @Override
@@ -80,13 +85,23 @@ public final XSiteStateTransferConfigurationBuilder waitTime(long waitingTimeBet
       return this;
    }
 
+   /**
+    * The maximum number of chunks each node sends to the backup site without waiting for them to be applied. If
+    * &gt; 1, the chunks are sent in parallel and the segments are pipelined: a node starts sending a segment while the
+    * chunks of the previous ones are still in flight. Default value is 1.
+    */
+   public final XSiteStateTransferConfigurationBuilder maxInFlightChunks(int maxInFlightChunks) {
+      this.maxInFlightChunks = maxInFlightChunks;
+      return this;
+   }
+
    public final BackupConfigurationBuilder backup() {
       return backupConfigurationBuilder;
    }
 
    @Override
    public XSiteStateTransferConfiguration create() {
-      return new XSiteStateTransferConfiguration(chunkSize, timeout, maxRetries, waitTime);
+      return new XSiteStateTransferConfiguration(chunkSize, timeout, maxRetries, waitTime, maxInFlightChunks);
    }
 
    @Override
@@ -95,6 +110,7 @@ public Builder<XSiteStateTransferConfiguration> read(XSiteStateTransferConfigura
       this.timeout = template.timeout();
       this.maxRetries = template.maxRetries();
       this.waitTime = template.waitTime();
+      this.maxInFlightChunks = template.maxInFlightChunks();
       return this;
    }
 
@@ -105,6 +121,7 @@ public String toString() {
             ", timeout=" + timeout +
             ", maxRetries=" + maxRetries +
             ", waitTime=" + waitTime +
+            ", maxInFlightChunks=" + maxInFlightChunks +
             '}';
    }
 
@@ -119,6 +136,7 @@ public boolean equals(Object o) {
       if (maxRetries != that.maxRetries) return false;
       if (timeout != that.timeout) return false;
       if (waitTime != that.waitTime) return false;
+      if (maxInFlightChunks != that.maxInFlightChunks) return false;
 
       return true;
    }
@@ -129,6 +147,7 @@ public int hashCode() {
       result = 31 * result + (int) (timeout ^ (timeout >>> 32));
       result = 31 * result + maxRetries;
       result = 31 * result + (int) (waitTime ^ (waitTime >>> 32));
+      result = 31 * result + maxInFlightChunks;
       return result;
    }
 }
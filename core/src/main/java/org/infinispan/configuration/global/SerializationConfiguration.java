@@ -12,14 +12,16 @@ public class SerializationConfiguration {
    private final short version;
    private final Map<Integer, AdvancedExternalizer<?>> advancedExternalizers;
    private final ClassResolver classResolver;
+   private final boolean binaryFormat;
 
    SerializationConfiguration(Marshaller marshaller, short version,
          Map<Integer, AdvancedExternalizer<?>> advancedExternalizers,
-         ClassResolver classResolver) {
+         ClassResolver classResolver, boolean binaryFormat) {
       this.marshaller = marshaller;
       this.version = version;
       this.advancedExternalizers = advancedExternalizers;
       this.classResolver = classResolver;
+      this.binaryFormat = binaryFormat;
    }
 
    public Marshaller marshaller() {
@@ -38,6 +40,13 @@ public ClassResolver classResolver() {
       return classResolver;
    }
 
+   /**
+    * @return whether the binary format may be used once every member of the cluster supports it.
+    */
+   public boolean binaryFormat() {
+      return binaryFormat;
+   }
+
    @Override
    public String toString() {
       return "SerializationConfiguration{" +
@@ -45,6 +54,7 @@ public String toString() {
             ", marshaller=" + marshaller +
             ", version=" + version +
             ", classResolver=" + classResolver +
+            ", binaryFormat=" + binaryFormat +
             '}';
    }
 
@@ -20,6 +20,7 @@ public class SerializationConfigurationBuilder extends AbstractGlobalConfigurati
    private short marshallVersion = Version.getMarshallVersion();
    private Map<Integer, AdvancedExternalizer<?>> advancedExternalizers = new HashMap<Integer, AdvancedExternalizer<?>>();
    private ClassResolver classResolver;
+   private boolean binaryFormat = false;
 
    SerializationConfigurationBuilder(GlobalConfigurationBuilder globalConfig) {
       super(globalConfig);
@@ -124,6 +125,18 @@ public SerializationConfigurationBuilder classResolver(ClassResolver classResolv
       return this;
    }
 
+   /**
+    * Enables the binary format for the internal objects, which is smaller and faster than the default format.
+    * Every member of the cluster advertises whether it enabled it, and the binary format is only written once all the
+    * members did, so it can be enabled in a rolling upgrade. Both formats can always be read.
+    *
+    * @param binaryFormat
+    */
+   public SerializationConfigurationBuilder binaryFormat(boolean binaryFormat) {
+      this.binaryFormat = binaryFormat;
+      return this;
+   }
+
    @Override
    public void validate() {
       // No-op, no validation required
@@ -133,7 +146,7 @@ public void validate() {
    public
    SerializationConfiguration create() {
       return new SerializationConfiguration(
-            marshaller, marshallVersion, advancedExternalizers, classResolver);
+            marshaller, marshallVersion, advancedExternalizers, classResolver, binaryFormat);
    }
 
    @Override
@@ -143,6 +156,7 @@ SerializationConfigurationBuilder read(SerializationConfiguration template) {
       this.marshaller = template.marshaller();
       this.marshallVersion = template.version();
       this.classResolver = template.classResolver();
+      this.binaryFormat = template.binaryFormat();
 
       return this;
    }
@@ -154,6 +168,7 @@ public String toString() {
             ", marshaller=" + marshaller +
             ", marshallVersion=" + marshallVersion +
             ", classResolver=" + classResolver +
+            ", binaryFormat=" + binaryFormat +
             '}';
    }
 
@@ -165,6 +180,7 @@ public boolean equals(Object o) {
       SerializationConfigurationBuilder that = (SerializationConfigurationBuilder) o;
 
       if (marshallVersion != that.marshallVersion) return false;
+      if (binaryFormat != that.binaryFormat) return false;
       if (advancedExternalizers != null ? !advancedExternalizers.equals(that.advancedExternalizers) : that.advancedExternalizers != null)
          return false;
       if (marshaller != null ? !marshaller.equals(that.marshaller) : that.marshaller != null)
@@ -181,6 +197,7 @@ public int hashCode() {
       result = 31 * result + marshallVersion;
       result = 31 * result + (advancedExternalizers != null ? advancedExternalizers.hashCode() : 0);
       result = 31 * result + (classResolver != null ? classResolver.hashCode() : 0);
+      result = 31 * result + (binaryFormat ? 1 : 0);
       return result;
    }
 
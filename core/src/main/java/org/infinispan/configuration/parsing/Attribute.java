@@ -24,12 +24,15 @@ public enum Attribute {
     AUTO_CONFIG("auto-config"),
     AWAIT_INITIAL_TRANSFER("await-initial-transfer"),
     BACKUP_FAILURE_POLICY("failure-policy"),
+    BATCH_SIZE("batch-size"),
     BEFORE("before"),
+    BINARY_FORMAT("binary-format"),
     CAPACITY_FACTOR("capacity"),
     CHUNK_SIZE("chunk-size"),
     CLASS("class"),
     CLUSTER("cluster"),
     COMPLETED_TX_TIMEOUT("complete-timeout"),
+    COMPRESSION("compression"),
     CONCURRENCY_LEVEL("concurrency-level"),
     CONSISTENT_HASH_FACTORY("consistent-hash-factory"),
     CORE_THREADS("core-threads"),
@@ -44,6 +47,7 @@ public enum Attribute {
     GROUP_NAME("group-name"),
     ID("id"),
     INDEX("index"),
+    INDEXED("indexed"),
     INTERVAL("interval"),
     INVALIDATION_CLEANUP_TASK_FREQUENCY("l1-cleanup-interval"),
     ISOLATION("isolation"),
@@ -51,7 +55,9 @@ public enum Attribute {
     JMX_DOMAIN("domain"),
     KEEP_ALIVE_TIME("keepalive-time"),
     KEY_EQUIVALENCE("key-equivalence"),
+    L1_INVALIDATION_BATCH_WINDOW("l1-invalidation-batch-window"),
     L1_LIFESPAN("l1-lifespan"),
+    L1_SEGMENT_TRACKING("l1-segment-tracking"),
     LIFESPAN("lifespan"),
     LISTENER_EXECUTOR("listener-executor"),
     LOCATION("location"),
@@ -60,8 +66,11 @@ public enum Attribute {
     MACHINE_ID("machine"),
     MAPPER("mapper"),
     MARSHALLER_CLASS("marshaller"),
+    MAX_BATCH_DELAY("max-batch-delay"),
     MAX_ENTRIES("max-entries"),
     MAX_IDLE("max-idle"),
+    MAX_IN_FLIGHT_CHUNKS("max-in-flight-chunks"),
+    MAX_QUEUE_SIZE("max-queue-size"),
     MAX_RETRIES("max-retries"),
     MAX_THREADS("max-threads"),
     MBEAN_SERVER_LOOKUP("mbean-server-lookup"),
@@ -78,6 +87,7 @@ public enum Attribute {
     PERSISTENCE_EXECUTOR("persistence-executor"),
     POSITION("position"),
     PRELOAD("preload"),
+    PRIMARY_OWNER_ONE_PHASE_COMMIT("primary-owner-one-phase-commit"),
     PRIORITY("priority"),
     PURGE("purge"),
     QUEUE_FLUSH_INTERVAL("queue-flush-interval"),
@@ -100,6 +110,7 @@ public enum Attribute {
     SHUTDOWN_TIMEOUT("shutdown-timeout"),
     SINGLETON("singleton"),
     SITE("site"),
+    SIZE("size"),
     SPIN_DURATION("deadlock-detection-spin"),
     STATISTICS("statistics"),
     START("start"),
@@ -121,6 +132,7 @@ public enum Attribute {
     TRANSACTION_MANAGER_LOOKUP_CLASS("transaction-manager-lookup"),
     TRANSACTION_PROTOCOL("protocol"),
     TRANSPORT("transport"),
+    TYPE("type"),
     UNRELIABLE_RETURN_VALUES("unreliable-return-values"),
     USE_TWO_PHASE_COMMIT("two-phase-commit"),
     VALUE("value"),
@@ -129,7 +141,8 @@ public enum Attribute {
     VERSIONING_SCHEME("scheme"),
     WAIT_TIME("wait-time"),
     WRITE_SKEW_CHECK("write-skew"),
-    FRAGMENTATION_FACTOR("fragmentation-factor");
+    FRAGMENTATION_FACTOR("fragmentation-factor"),
+    COMPACTION_THRESHOLD("compaction-threshold");
 
     ;
 
@@ -16,6 +16,7 @@ public enum Element {
 
     ADVANCED_EXTERNALIZER("advanced-externalizer"),
     ASYNC("async"),
+    ASYNC_BATCHING("async-batching"),
     AUTHORIZATION("authorization"),
     BACKUP("backup"),
     BACKUPS("backups"),
@@ -24,6 +25,7 @@ public enum Element {
     CACHE_CONTAINER("cache-container"),
     CACHED_THREAD_POOL("cached-thread-pool"),
     CLUSTERING("clustering"),
+    CLUSTER_LISTENERS("cluster-listeners"),
     CLUSTER_LOADER("cluster-loader"),
     CLUSTER_STORE("cluster"),
     CLUSTER_ROLE_MAPPER("cluster-role-mapper"),
@@ -23,6 +23,7 @@
 import org.infinispan.distribution.group.Grouper;
 import org.infinispan.eviction.EvictionStrategy;
 import org.infinispan.eviction.EvictionThreadPolicy;
+import org.infinispan.eviction.EvictionType;
 import org.infinispan.factories.threads.DefaultThreadFactory;
 import org.infinispan.interceptors.base.CommandInterceptor;
 import org.infinispan.jmx.MBeanServerLookup;
@@ -118,6 +119,10 @@ private void parseSerialization(final XMLExtendedStreamReader reader, final Conf
                builder.serialization().version(value);
                break;
             }
+            case BINARY_FORMAT: {
+               builder.serialization().binaryFormat(Boolean.parseBoolean(value));
+               break;
+            }
             default: {
                throw ParseUtils.unexpectedAttribute(reader, i);
             }
@@ -883,6 +888,28 @@ private void parsePartitionHandling(XMLExtendedStreamReader reader, Configuratio
       ParseUtils.requireNoContent(reader);
    }
 
+   private void parseClusterListeners(XMLExtendedStreamReader reader, ConfigurationBuilder builder) throws XMLStreamException {
+      ClusterListenerConfigurationBuilder cl = builder.clustering().clusterListeners();
+      for (int i = 0; i < reader.getAttributeCount(); i++) {
+         String value = replaceProperties(reader.getAttributeValue(i));
+         Attribute attribute = Attribute.forName(reader.getAttributeLocalName(i));
+         switch (attribute) {
+            case BATCH_SIZE: {
+               cl.batchSize(Integer.parseInt(value));
+               break;
+            }
+            case MAX_BATCH_DELAY: {
+               cl.maxBatchDelay(Long.parseLong(value));
+               break;
+            }
+            default: {
+               throw ParseUtils.unexpectedAttribute(reader, i);
+            }
+         }
+      }
+      ParseUtils.requireNoContent(reader);
+   }
+
    private void parseBackup(XMLExtendedStreamReader reader, ConfigurationBuilder builder) throws XMLStreamException {
       BackupConfigurationBuilder backup = builder.sites().addBackup();
       for (int i = 0; i < reader.getAttributeCount(); i++) {
@@ -938,6 +965,10 @@ private void parseBackup(XMLExtendedStreamReader reader, ConfigurationBuilder bu
                this.parseXSiteStateTransfer(reader, backup);
                break;
             }
+            case ASYNC_BATCHING: {
+               this.parseXSiteAsyncBatching(reader, backup);
+               break;
+            }
             default: {
                throw ParseUtils.unexpectedElement(reader);
             }
@@ -983,6 +1014,37 @@ private void parseXSiteStateTransfer(XMLExtendedStreamReader reader, BackupConfi
             case WAIT_TIME:
                backup.stateTransfer().waitTime(Long.parseLong(value));
                break;
+            case MAX_IN_FLIGHT_CHUNKS:
+               backup.stateTransfer().maxInFlightChunks(Integer.parseInt(value));
+               break;
+            default:
+               throw ParseUtils.unexpectedAttribute(reader, i);
+         }
+      }
+      ParseUtils.requireNoContent(reader);
+   }
+
+   private void parseXSiteAsyncBatching(XMLExtendedStreamReader reader, BackupConfigurationBuilder backup) throws XMLStreamException {
+      backup.asyncBatching().enable();
+      for (int i = 0; i < reader.getAttributeCount(); i++) {
+         String value = replaceProperties(reader.getAttributeValue(i));
+         Attribute attribute = Attribute.forName(reader.getAttributeLocalName(i));
+         switch (attribute) {
+            case ENABLED:
+               backup.asyncBatching().enabled(Boolean.parseBoolean(value));
+               break;
+            case QUEUE_FLUSH_INTERVAL:
+               backup.asyncBatching().flushInterval(Long.parseLong(value));
+               break;
+            case QUEUE_SIZE:
+               backup.asyncBatching().maxModifications(Integer.parseInt(value));
+               break;
+            case MAX_QUEUE_SIZE:
+               backup.asyncBatching().maxQueueSize(Integer.parseInt(value));
+               break;
+            case COMPRESSION:
+               backup.asyncBatching().compression(Boolean.parseBoolean(value));
+               break;
             default:
                throw ParseUtils.unexpectedAttribute(reader, i);
          }
@@ -1115,6 +1177,10 @@ protected void parseCacheElement(XMLExtendedStreamReader reader, Element element
             this.parsePartitionHandling(reader, builder);
             break;
          }
+         case CLUSTER_LISTENERS: {
+            this.parseClusterListeners(reader, builder);
+            break;
+         }
          case SECURITY: {
             this.parseCacheSecurity(reader, builder);
             break;
@@ -1341,6 +1407,10 @@ protected void parseTransaction(XMLExtendedStreamReader reader, ConfigurationBui
                builder.transaction().autoCommit(Boolean.parseBoolean(value));
                break;
             }
+            case PRIMARY_OWNER_ONE_PHASE_COMMIT: {
+               builder.transaction().use1PcForPrimaryOwnerTransactions(Boolean.parseBoolean(value));
+               break;
+            }
             case RECOVERY_INFO_CACHE_NAME: {
                builder.transaction().recovery().recoveryInfoCacheName(value);
                break;
@@ -1366,6 +1436,14 @@ protected void parseEviction(XMLExtendedStreamReader reader, ConfigurationBuilde
                builder.eviction().maxEntries(Integer.parseInt(value));
                break;
             }
+            case SIZE: {
+               builder.eviction().size(Long.parseLong(value));
+               break;
+            }
+            case TYPE: {
+               builder.eviction().type(EvictionType.valueOf(value));
+               break;
+            }
             case THREAD_POLICY: {
                builder.eviction().threadPolicy(EvictionThreadPolicy.valueOf(value));
                break;
@@ -1395,6 +1473,10 @@ private void parseExpiration(XMLExtendedStreamReader reader, ConfigurationBuilde
                builder.expiration().wakeUpInterval(Long.parseLong(value));
                break;
             }
+            case INDEXED: {
+               builder.expiration().indexed(Boolean.parseBoolean(value));
+               break;
+            }
             default: {
                throw ParseUtils.unexpectedAttribute(reader, i);
             }
@@ -1501,6 +1583,10 @@ private void parseStateTransfer(XMLExtendedStreamReader reader, ConfigurationBui
                builder.clustering().stateTransfer().chunkSize(Integer.parseInt(value));
                break;
             }
+            case MAX_IN_FLIGHT_CHUNKS: {
+               builder.clustering().stateTransfer().maxInFlightChunks(Integer.parseInt(value));
+               break;
+            }
             default: {
                throw ParseUtils.unexpectedAttribute(reader, i);
             }
@@ -1538,6 +1624,14 @@ private void parseDistributedCache(XMLExtendedStreamReader reader, Configuration
                builder.clustering().l1().cleanupTaskFrequency(Long.parseLong(value));
                break;
             }
+            case L1_SEGMENT_TRACKING: {
+               builder.clustering().l1().segmentTracking(Boolean.parseBoolean(value));
+               break;
+            }
+            case L1_INVALIDATION_BATCH_WINDOW: {
+               builder.clustering().l1().invalidationBatchWindow(Long.parseLong(value));
+               break;
+            }
             case CAPACITY_FACTOR: {
                builder.clustering().hash().capacityFactor(Float.parseFloat(value));
                break;
@@ -1687,6 +1781,10 @@ protected void parseFileStore(XMLExtendedStreamReader reader, ConfigurationBuild
                storeBuilder.fragmentationFactor(Float.parseFloat(value));
                break;
             }
+            case COMPACTION_THRESHOLD: {
+               storeBuilder.compactionThreshold(Float.parseFloat(value));
+               break;
+            }
             default: {
                parseStoreAttribute(reader, i, storeBuilder);
             }
@@ -1776,6 +1874,14 @@ public static void parseStoreWriteBehind(XMLExtendedStreamReader reader, AsyncSt
                storeBuilder.threadPoolSize(Integer.parseInt(value));
                break;
             }
+            case BATCH_SIZE: {
+               storeBuilder.batchSize(Integer.parseInt(value));
+               break;
+            }
+            case MAX_BATCH_DELAY: {
+               storeBuilder.maxBatchDelay(Long.parseLong(value));
+               break;
+            }
             default:
                throw ParseUtils.unexpectedAttribute(reader, i);
          }
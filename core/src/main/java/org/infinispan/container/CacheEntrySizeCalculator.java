@@ -0,0 +1,73 @@
+package org.infinispan.container;
+
+import org.infinispan.commons.CacheException;
+import org.infinispan.commons.marshall.StreamingMarshaller;
+import org.infinispan.commons.util.concurrent.jdk8backported.BoundedEquivalentConcurrentHashMapV8.EntrySizeCalculator;
+import org.infinispan.container.entries.InternalCacheEntry;
+import org.infinispan.marshall.core.MarshalledValue;
+
+/**
+ * Estimates the amount of memory used by a cache entry, for the memory based eviction of the
+ * {@link DefaultDataContainer}.
+ * <p/>
+ * The size of byte arrays, strings, boxed primitives and {@link MarshalledValue}s is estimated from their layout in a
+ * 64 bit JVM using compressed references. The size of any other key or value is the length of its serialized form,
+ * which is only an approximation of its size in memory, so they must be marshallable by the cache marshaller.
+ *
+ * @since 7.2
+ */
+public class CacheEntrySizeCalculator<K, V> implements EntrySizeCalculator<K, InternalCacheEntry<K, V>> {
+
+   private static final int OBJECT_HEADER = 12;
+   private static final int ARRAY_HEADER = 16;
+   private static final int REFERENCE = 4;
+   // Internal cache entry, node of the map and nodes of the eviction policy
+   private static final int ENTRY_OVERHEAD = 96;
+
+   private final StreamingMarshaller marshaller;
+
+   public CacheEntrySizeCalculator(StreamingMarshaller marshaller) {
+      this.marshaller = marshaller;
+   }
+
+   @Override
+   public long calculateSize(K key, InternalCacheEntry<K, V> entry) {
+      return ENTRY_OVERHEAD + estimateSize(key) + estimateSize(entry.getValue());
+   }
+
+   long estimateSize(Object o) {
+      if (o == null) {
+         return 0;
+      } else if (o instanceof byte[]) {
+         return align(ARRAY_HEADER + ((byte[]) o).length);
+      } else if (o instanceof String) {
+         // The char array, the hash code and the reference to the array
+         return align(OBJECT_HEADER + REFERENCE + 4) + align(ARRAY_HEADER + 2 * ((String) o).length());
+      } else if (o instanceof Long || o instanceof Double) {
+         return align(OBJECT_HEADER + 8);
+      } else if (o instanceof Integer || o instanceof Float || o instanceof Short || o instanceof Byte
+            || o instanceof Character || o instanceof Boolean) {
+         return align(OBJECT_HEADER + 4);
+      } else if (o instanceof MarshalledValue) {
+         // The cached hash code and the references to the byte stream and the marshaller
+         return align(OBJECT_HEADER + 4 + 2 * REFERENCE)
+               + align(ARRAY_HEADER + ((MarshalledValue) o).getRaw().size());
+      }
+      return marshalledSize(o);
+   }
+
+   private long marshalledSize(Object o) {
+      try {
+         return align(ARRAY_HEADER + marshaller.objectToBuffer(o).getLength());
+      } catch (InterruptedException e) {
+         Thread.currentThread().interrupt();
+         throw new CacheException("Interrupted while estimating the size of " + o, e);
+      } catch (Exception e) {
+         throw new CacheException("Unable to estimate the size of " + o, e);
+      }
+   }
+
+   private static long align(long size) {
+      return (size + 7) & ~7L;
+   }
+}
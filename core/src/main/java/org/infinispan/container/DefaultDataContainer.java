@@ -12,8 +12,10 @@
 import org.infinispan.commons.util.concurrent.ParallelIterableMap.KeyValueAction;
 import org.infinispan.commons.util.concurrent.jdk8backported.BoundedEquivalentConcurrentHashMapV8;
 import org.infinispan.commons.util.concurrent.jdk8backported.EquivalentConcurrentHashMapV8;
+import org.infinispan.commons.util.concurrent.jdk8backported.BoundedEquivalentConcurrentHashMapV8.EntrySizeCalculator;
 import org.infinispan.commons.util.concurrent.jdk8backported.BoundedEquivalentConcurrentHashMapV8.Eviction;
 import org.infinispan.commons.util.concurrent.jdk8backported.BoundedEquivalentConcurrentHashMapV8.EvictionListener;
+import org.infinispan.configuration.cache.Configuration;
 import org.infinispan.container.entries.InternalCacheEntry;
 import org.infinispan.eviction.ActivationManager;
 import org.infinispan.eviction.EvictionManager;
@@ -67,6 +69,7 @@
    private ActivationManager activator;
    private PersistenceManager pm;
    private TimeService timeService;
+   private ExpirationTimingWheel<K> expirationIndex;
 
    public DefaultDataContainer(int concurrencyLevel) {
       // If no comparing implementations passed, could fallback on JDK CHM
@@ -84,6 +87,17 @@ public DefaultDataContainer(int concurrencyLevel,
    protected DefaultDataContainer(int concurrencyLevel, int maxEntries,
          EvictionStrategy strategy, EvictionThreadPolicy policy,
          Equivalence<? super K> keyEquivalence) {
+      this(concurrencyLevel, (long) maxEntries, strategy, policy, keyEquivalence, null);
+   }
+
+   /**
+    * Creates a bounded container whose size is measured by the given calculator, or by the number of entries if
+    * {@code sizeCalculator} is {@code null}.
+    */
+   protected DefaultDataContainer(int concurrencyLevel, long maxSize,
+         EvictionStrategy strategy, EvictionThreadPolicy policy,
+         Equivalence<? super K> keyEquivalence,
+         EntrySizeCalculator<? super K, ? super InternalCacheEntry<K, V>> sizeCalculator) {
       DefaultEvictionListener evictionListener;
       // translate eviction policy and strategy
       switch (policy) {
@@ -100,17 +114,24 @@ protected DefaultDataContainer(int concurrencyLevel, int maxEntries,
          case FIFO:
          case UNORDERED:
          case LRU:
+         case LIRS:
+            // The container has always evicted in LRU order for these strategies
             eviction = Eviction.LRU;
             break;
-         case LIRS:
-            eviction = Eviction.LIRS;
+         case TINY_LFU:
+            eviction = Eviction.TINY_LFU;
             break;
          default:
             throw new IllegalArgumentException("No such eviction strategy " + strategy);
       }
 
-      entries = new BoundedEquivalentConcurrentHashMapV8<K, InternalCacheEntry<K, V>>(
-            (long) maxEntries, Eviction.LRU, evictionListener, keyEquivalence, AnyEquivalence.getInstance());
+      if (sizeCalculator == null) {
+         entries = new BoundedEquivalentConcurrentHashMapV8<K, InternalCacheEntry<K, V>>(
+               maxSize, eviction, evictionListener, keyEquivalence, AnyEquivalence.getInstance());
+      } else {
+         entries = new BoundedEquivalentConcurrentHashMapV8<K, InternalCacheEntry<K, V>>(
+               maxSize, eviction, evictionListener, keyEquivalence, AnyEquivalence.getInstance(), sizeCalculator);
+      }
       extendedMap = new BoundedEquivalentConcurrentExtendedMap();
    }
 
@@ -125,6 +146,16 @@ public void initialize(EvictionManager evictionManager, PassivationManager passi
       this.timeService = timeService;
    }
 
+   @Inject
+   public void initializeExpirationIndex(Configuration configuration, TimeService timeService) {
+      if (configuration.expiration().indexed()) {
+         // Entries are purged at most one tick after they expire
+         long tickMillis = ExpirationTimingWheel.tickMillis(configuration.expiration().wakeUpInterval());
+         expirationIndex = new ExpirationTimingWheel<K>(tickMillis, timeService.wallClockTime(),
+               configuration.dataContainer().<K>keyEquivalence());
+      }
+   }
+
    public static <K, V> DataContainer<K, V> boundedDataContainer(int concurrencyLevel, int maxEntries,
             EvictionStrategy strategy, EvictionThreadPolicy policy,
             Equivalence<? super K> keyEquivalence) {
@@ -132,6 +163,14 @@ public static <K, V> DataContainer<K, V> boundedDataContainer(int concurrencyLev
             policy, keyEquivalence);
    }
 
+   public static <K, V> DataContainer<K, V> boundedDataContainer(int concurrencyLevel, long maxSize,
+            EvictionStrategy strategy, EvictionThreadPolicy policy,
+            Equivalence<? super K> keyEquivalence,
+            EntrySizeCalculator<? super K, ? super InternalCacheEntry<K, V>> sizeCalculator) {
+      return new DefaultDataContainer<K, V>(concurrencyLevel, maxSize, strategy,
+            policy, keyEquivalence, sizeCalculator);
+   }
+
    public static <K, V> DataContainer<K, V> unBoundedDataContainer(int concurrencyLevel,
          Equivalence<? super K> keyEquivalence) {
       return new DefaultDataContainer(concurrencyLevel, keyEquivalence);
@@ -213,10 +252,26 @@ public int size() {
       return entries.size();
    }
 
+   /**
+    * Returns the size of the container as measured by its eviction: the number of entries, or their estimated memory
+    * usage in bytes with memory based eviction.
+    *
+    * @return the size of the container, or -1 if it is not bounded
+    */
+   public long evictionSize() {
+      if (entries instanceof BoundedEquivalentConcurrentHashMapV8) {
+         return ((BoundedEquivalentConcurrentHashMapV8<K, InternalCacheEntry<K, V>>) entries).evictionSize();
+      }
+      return -1;
+   }
+
    @Override
    public void clear() {
       log.tracef("Clearing data container");
       entries.clear();
+      if (expirationIndex != null) {
+         expirationIndex.clear();
+      }
    }
 
    @Override
@@ -237,6 +292,10 @@ public Set<InternalCacheEntry<K, V>> entrySet() {
    @Override
    public void purgeExpired() {
       long currentTimeMillis = timeService.wallClockTime();
+      if (expirationIndex != null) {
+         expirationIndex.advance(currentTimeMillis, new ExpiredEntryRemover());
+         return;
+      }
       for (Iterator<InternalCacheEntry<K, V>> purgeCandidates = entries.values().iterator(); purgeCandidates.hasNext();) {
          InternalCacheEntry e = purgeCandidates.next();
          if (e.isExpired(currentTimeMillis)) {
@@ -255,15 +314,55 @@ public InternalCacheEntry<K, V> compute(K key, ComputeAction<K, V> action) {
       return extendedMap.compute(key, action);
    }
 
+   /**
+    * Updates the expiration index with the entry written for the key, or removes the key if the entry was removed.
+    * Invoked by the map while it holds the lock of the key, so the index follows the order of the writes.
+    */
+   private void updateExpirationIndex(Object key, InternalCacheEntry<K, V> newEntry) {
+      if (expirationIndex != null) {
+         if (newEntry == null) {
+            expirationIndex.remove(key);
+         } else {
+            expirationIndex.schedule(newEntry.getKey(), newEntry.getExpiryTime());
+         }
+      }
+   }
+
    @Override
    public Iterator<InternalCacheEntry<K, V>> iterator() {
       return new EntryIterator(entries.values().iterator());
    }
 
+   /**
+    * Removes the expired entries found by the expiration index.
+    */
+   private final class ExpiredEntryRemover implements ExpirationTimingWheel.Expirer<K> {
+      @Override
+      public long expire(K key, long now) {
+         InternalCacheEntry<K, V> e = peek(key);
+         while (e != null && e.canExpire() && e.isExpired(now)) {
+            // We can only remove the same value - in case if a concurrent write updates it
+            if (entries.remove(key, e)) {
+               return -1;
+            }
+            e = peek(key);
+         }
+         return e == null || !e.canExpire() ? -1 : e.getExpiryTime();
+      }
+   }
+
    private final class DefaultEvictionListener implements EvictionListener<K, InternalCacheEntry<K, V>> {
 
       @Override
       public void onEntryEviction(Map<K, InternalCacheEntry<K, V>> evicted) {
+         if (expirationIndex != null) {
+            // Notified outside the lock of the keys: only remove the keys not written again since
+            for (InternalCacheEntry<K, V> entry : evicted.values()) {
+               if (entry.canExpire()) {
+                  expirationIndex.remove(entry.getKey(), entry.getExpiryTime());
+               }
+            }
+         }
          evictionManager.onEntryEviction(evicted);
       }
 
@@ -463,6 +562,7 @@ public void evict(K key) {
                   @Override
                   public InternalCacheEntry<K, V> apply(K o, InternalCacheEntry<K, V> entry) {
                      passivator.passivate(entry);
+                     updateExpirationIndex(o, null);
                      return null;
                   }
                });
@@ -479,9 +579,11 @@ public InternalCacheEntry<K, V> apply(K key, InternalCacheEntry<K, V> oldEntry)
                         return oldEntry;
                      } else if (newEntry == null) {
                         activator.onRemove(key, false);
+                        updateExpirationIndex(key, null);
                         return null;
                      }
                      activator.onUpdate(key, oldEntry == null);
+                     updateExpirationIndex(key, newEntry);
                      if (trace)
                         log.tracef("Store %s in container", newEntry);
                      return newEntry;
@@ -496,6 +598,7 @@ public void putAndActivate(final InternalCacheEntry<K, V> newEntry) {
                   @Override
                   public InternalCacheEntry<K, V> apply(K key, InternalCacheEntry<K, V> entry) {
                      activator.onUpdate(key, entry == null);
+                     updateExpirationIndex(key, newEntry);
                      return newEntry;
                   }
                });
@@ -509,6 +612,7 @@ public InternalCacheEntry<K, V> removeAndActivate(Object key) {
                   @Override
                   public InternalCacheEntry<K, V> apply(Object key, InternalCacheEntry<K, V> entry) {
                      activator.onRemove(key, entry == null);
+                     updateExpirationIndex(key, null);
                      reference.set(entry);
                      return null;
                   }
@@ -525,6 +629,7 @@ public void evict(K key) {
                   @Override
                   public InternalCacheEntry<K, V> apply(K o, InternalCacheEntry<K, V> entry) {
                      passivator.passivate(entry);
+                     updateExpirationIndex(o, null);
                      return null;
                   }
                });
@@ -541,9 +646,11 @@ public InternalCacheEntry<K, V> apply(K key, InternalCacheEntry<K, V> oldEntry)
                         return oldEntry;
                      } else if (newEntry == null) {
                         activator.onRemove(key, false);
+                        updateExpirationIndex(key, null);
                         return null;
                      }
                      activator.onUpdate(key, oldEntry == null);
+                     updateExpirationIndex(key, newEntry);
                      if (trace)
                         log.tracef("Store %s in container", newEntry);
                      return newEntry;
@@ -558,6 +665,7 @@ public void putAndActivate(final InternalCacheEntry<K, V> newEntry) {
                   @Override
                   public InternalCacheEntry<K, V> apply(K key, InternalCacheEntry<K, V> entry) {
                      activator.onUpdate(key, entry == null);
+                     updateExpirationIndex(key, newEntry);
                      return newEntry;
                   }
                });
@@ -571,6 +679,7 @@ public InternalCacheEntry<K, V> removeAndActivate(Object key) {
                   @Override
                   public InternalCacheEntry<K, V> apply(Object key, InternalCacheEntry<K, V> entry) {
                      activator.onRemove(key, entry == null);
+                     updateExpirationIndex(key, null);
                      reference.set(entry);
                      return null;
                   }
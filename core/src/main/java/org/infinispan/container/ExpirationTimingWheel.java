@@ -0,0 +1,240 @@
+package org.infinispan.container;
+
+import net.jcip.annotations.ThreadSafe;
+
+import org.infinispan.commons.equivalence.AnyEquivalence;
+import org.infinispan.commons.equivalence.Equivalence;
+import org.infinispan.commons.util.CollectionFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * An index of the keys of the entries that can expire, ordered by their expiration time, so that the expired entries
+ * can be purged without iterating over all the entries of a data container.
+ * <p/>
+ * The index is a hierarchical timing wheel: the keys that expire in the next {@code 64} ticks are kept in one bucket
+ * per tick, the ones that expire later are kept in coarser buckets of {@code 64}, {@code 64^2} and {@code 64^3} ticks,
+ * and are moved to finer buckets as their expiration time gets closer. Adding a key and advancing the wheel by one
+ * tick only touch the buckets involved, so the cost of a purge only depends on the number of keys that are due.
+ * <p/>
+ * The wheel remembers the expiration time each key was last scheduled for, and ignores the older records of a key, so
+ * a key is added again every time its entry is written with a different expiration time. Reading an entry with a
+ * maximum idle time moves its expiration time without updating the index: when its old expiration time is reached the
+ * entry is not expired and its key is rescheduled for the new expiration time.
+ *
+ * @since 7.2
+ */
+@ThreadSafe
+class ExpirationTimingWheel<K> {
+
+   private static final int SLOT_BITS = 6;
+   private static final int SLOTS = 1 << SLOT_BITS;
+   private static final int SLOT_MASK = SLOTS - 1;
+   private static final int LEVELS = 4;
+   // Longer gaps between two advances redistribute all the records instead of visiting every tick
+   private static final long MAX_WALKED_TICKS = SLOTS * SLOTS;
+   private static final long DEFAULT_TICK_MILLIS = 1000;
+
+   /**
+    * Expires the entries of the keys that are due.
+    */
+   interface Expirer<K> {
+      /**
+       * Removes the entry of the key if it is expired.
+       *
+       * @return the expiration time of the entry if it was not removed and can still expire, {@code -1} otherwise
+       */
+      long expire(K key, long now);
+   }
+
+   private final long tickMillis;
+   private final Queue<Record<K>>[][] buckets;
+   // Keys whose expiration time was already reached, or passed by the wheel while they were being added
+   private final Queue<Record<K>> overdue = new ConcurrentLinkedQueue<Record<K>>();
+   private final ConcurrentMap<K, Long> deadlines;
+   // Only modified by the thread advancing the wheel, with the wheel's lock held
+   private volatile long currentTick;
+   private long visitedRecords;
+
+   /**
+    * Returns the duration of a tick for the given interval between two advances: at most one second, so that entries
+    * are purged soon after they expire, but long enough for an advance to span no more than one bucket of each level.
+    */
+   static long tickMillis(long advanceInterval) {
+      if (advanceInterval <= 0) {
+         return DEFAULT_TICK_MILLIS;
+      }
+      return Math.max(Math.min(advanceInterval, DEFAULT_TICK_MILLIS), (advanceInterval + SLOTS - 1) / SLOTS);
+   }
+
+   @SuppressWarnings("unchecked")
+   ExpirationTimingWheel(long tickMillis, long now, Equivalence<? super K> keyEquivalence) {
+      this.tickMillis = tickMillis;
+      this.currentTick = now / tickMillis;
+      this.deadlines = CollectionFactory.makeConcurrentMap(keyEquivalence, AnyEquivalence.<Long>getInstance());
+      this.buckets = new Queue[LEVELS][SLOTS];
+      for (int level = 0; level < LEVELS; level++) {
+         for (int slot = 0; slot < SLOTS; slot++) {
+            buckets[level][slot] = new ConcurrentLinkedQueue<Record<K>>();
+         }
+      }
+   }
+
+   /**
+    * Schedules the key for its expiration time, or removes it from the index if its expiration time is negative.
+    */
+   void schedule(K key, long expiryTime) {
+      if (expiryTime < 0) {
+         deadlines.remove(key);
+         return;
+      }
+      Long previous = deadlines.put(key, expiryTime);
+      if (previous == null || previous != expiryTime) {
+         add(new Record<K>(key, expiryTime));
+      }
+   }
+
+   /**
+    * Removes the key from the index. Its records are discarded when their expiration time is reached.
+    */
+   void remove(Object key) {
+      deadlines.remove(key);
+   }
+
+   void clear() {
+      deadlines.clear();
+   }
+
+   /**
+    * @return the number of keys in the index
+    */
+   int size() {
+      return deadlines.size();
+   }
+
+   /**
+    * Removes the key from the index if it is still scheduled for the given expiration time.
+    */
+   void remove(Object key, long expiryTime) {
+      deadlines.remove(key, expiryTime);
+   }
+
+   /**
+    * @return the number of records taken out of the buckets by all the advances so far
+    */
+   synchronized long visitedRecords() {
+      return visitedRecords;
+   }
+
+   /**
+    * Advances the wheel up to the given time, invoking the expirer for each key whose expiration time was reached.
+    * Only one thread advances the wheel at a time.
+    */
+   synchronized void advance(long now, Expirer<K> expirer) {
+      // The overdue records added during this advance are only processed by the next one
+      List<Record<K>> records = new ArrayList<Record<K>>();
+      drainTo(overdue, records);
+      process(records, now, expirer);
+
+      long targetTick = now / tickMillis;
+      if (targetTick - currentTick > MAX_WALKED_TICKS) {
+         // Too far behind to visit every tick, e.g. after a long pause: redistribute every record instead
+         currentTick = targetTick;
+         records.clear();
+         for (Queue<Record<K>>[] level : buckets) {
+            for (Queue<Record<K>> bucket : level) {
+               drainTo(bucket, records);
+            }
+         }
+         process(records, now, expirer);
+      } else {
+         // Visiting the ticks with no due keys only polls their empty buckets
+         while (currentTick < targetTick) {
+            long tick = currentTick + 1;
+            currentTick = tick;
+            records.clear();
+            drainTo(buckets[0][(int) (tick & SLOT_MASK)], records);
+            // Move the records of a coarser bucket to the finer levels once all the finer buckets were visited
+            for (int level = 1; level < LEVELS && (tick & ((1L << (level * SLOT_BITS)) - 1)) == 0; level++) {
+               drainTo(buckets[level][(int) ((tick >>> (level * SLOT_BITS)) & SLOT_MASK)], records);
+            }
+            process(records, now, expirer);
+         }
+      }
+   }
+
+   private void process(List<Record<K>> records, long now, Expirer<K> expirer) {
+      visitedRecords += records.size();
+      for (Record<K> record : records) {
+         Long deadline = deadlines.get(record.key);
+         if (deadline == null || deadline != record.expiryTime) {
+            // The key was removed, or rescheduled with another record
+            continue;
+         }
+         if (record.expiryTime > now) {
+            // Not due yet, move it to a finer bucket
+            add(record);
+            continue;
+         }
+         long expiryTime = expirer.expire(record.key, now);
+         if (expiryTime < 0) {
+            deadlines.remove(record.key, deadline);
+         } else if (expiryTime > now) {
+            // The entry was read, or written without updating the index
+            if (deadlines.replace(record.key, deadline, expiryTime)) {
+               add(new Record<K>(record.key, expiryTime));
+            }
+         } else {
+            // Reached by the wall clock but not by the entry's own check, try again on the next advance
+            overdue.add(record);
+         }
+      }
+   }
+
+   private void add(Record<K> record) {
+      long tick = currentTick;
+      long expiryTick = (record.expiryTime + tickMillis - 1) / tickMillis;
+      if (expiryTick <= tick) {
+         overdue.add(record);
+         return;
+      }
+      bucketFor(expiryTick, tick).add(record);
+      if (expiryTick <= currentTick) {
+         // The wheel may have visited the bucket before the record was added
+         overdue.add(record);
+      }
+   }
+
+   private Queue<Record<K>> bucketFor(long expiryTick, long tick) {
+      long delta = expiryTick - tick;
+      for (int level = 0; level < LEVELS; level++) {
+         if (delta < (1L << ((level + 1) * SLOT_BITS))) {
+            return buckets[level][(int) ((expiryTick >>> (level * SLOT_BITS)) & SLOT_MASK)];
+         }
+      }
+      // Beyond the range of the wheel: the last bucket of the coarsest level to be visited
+      int shift = (LEVELS - 1) * SLOT_BITS;
+      return buckets[LEVELS - 1][(int) (((tick >>> shift) - 1) & SLOT_MASK)];
+   }
+
+   private static <K> void drainTo(Queue<Record<K>> bucket, List<Record<K>> records) {
+      Record<K> record;
+      while ((record = bucket.poll()) != null) {
+         records.add(record);
+      }
+   }
+
+   private static class Record<K> {
+      final K key;
+      final long expiryTime;
+
+      Record(K key, long expiryTime) {
+         this.key = key;
+         this.expiryTime = expiryTime;
+      }
+   }
+}
@@ -0,0 +1,938 @@
+package org.infinispan.container;
+
+import net.jcip.annotations.ThreadSafe;
+
+import org.infinispan.commons.CacheException;
+import org.infinispan.commons.marshall.StreamingMarshaller;
+import org.infinispan.commons.util.concurrent.ParallelIterableMap.KeyValueAction;
+import org.infinispan.container.entries.ExpiryHelper;
+import org.infinispan.container.entries.InternalCacheEntry;
+import org.infinispan.container.entries.metadata.L1MetadataInternalCacheEntry;
+import org.infinispan.eviction.ActivationManager;
+import org.infinispan.eviction.EvictionManager;
+import org.infinispan.eviction.PassivationManager;
+import org.infinispan.factories.annotations.ComponentName;
+import org.infinispan.factories.annotations.Inject;
+import org.infinispan.factories.annotations.Stop;
+import org.infinispan.filter.KeyFilter;
+import org.infinispan.filter.KeyValueFilter;
+import org.infinispan.metadata.Metadata;
+import org.infinispan.metadata.impl.L1Metadata;
+import org.infinispan.util.CoreImmutables;
+import org.infinispan.util.TimeService;
+import org.infinispan.util.logging.Log;
+import org.infinispan.util.logging.LogFactory;
+
+import java.util.AbstractCollection;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static org.infinispan.factories.KnownComponentNames.CACHE_MARSHALLER;
+
+/**
+ * A {@link DataContainer} which keeps the keys, values and metadata of its entries serialized in native memory, outside
+ * of the Java heap, so that large caches do not increase the garbage collection overhead.
+ * <p/>
+ * The container is split into a number of segments, each one guarded by its own lock and owning an open hash table
+ * whose bucket array and entries are allocated with {@link sun.misc.Unsafe}. Every entry is a single memory block laid
+ * out as a fixed size header (hash chain and LRU pointers, timestamps, expiration settings and lengths) followed by the
+ * marshalled key, metadata and value. Keys are compared by their marshalled form, so the cache marshaller must produce
+ * the same bytes for equal keys.
+ * <p/>
+ * {@link InternalCacheEntry} instances returned by this container are unmarshalled copies: modifying them has no
+ * effect on the stored entry, which can only be changed through the container methods.
+ * <p/>
+ * When bounded, every segment evicts its least recently used entries once it holds more than its share of
+ * {@code maxEntries} (rounded up). The bound is enforced per segment, not globally: when the keys are not evenly spread
+ * across the segments, a segment may evict while the container holds fewer than {@code maxEntries} entries. The
+ * container never holds more than {@code maxEntries} rounded up to a multiple of the number of segments.
+ * <p/>
+ * The native memory is released when the container is cleared or stopped.
+ *
+ * @since 7.2
+ */
+@ThreadSafe
+public class OffHeapDataContainer<K, V> implements DataContainer<K, V> {
+
+   private static final Log log = LogFactory.getLog(OffHeapDataContainer.class);
+   private static final boolean trace = log.isTraceEnabled();
+
+   private static final sun.misc.Unsafe UNSAFE = getUnsafe();
+   private static final long BYTE_ARRAY_OFFSET = UNSAFE.arrayBaseOffset(byte[].class);
+
+   // Entry header layout
+   private static final int NEXT_OFFSET = 0;
+   private static final int LRU_PREVIOUS_OFFSET = 8;
+   private static final int LRU_NEXT_OFFSET = 16;
+   private static final int CREATED_OFFSET = 24;
+   private static final int LAST_USED_OFFSET = 32;
+   private static final int LIFESPAN_OFFSET = 40;
+   private static final int MAX_IDLE_OFFSET = 48;
+   private static final int HASH_OFFSET = 56;
+   private static final int KEY_LENGTH_OFFSET = 60;
+   private static final int METADATA_LENGTH_OFFSET = 64;
+   private static final int VALUE_LENGTH_OFFSET = 68;
+   private static final int FLAGS_OFFSET = 72;
+   private static final int HEADER_SIZE = 80;
+
+   private static final byte FLAG_L1 = 1;
+
+   private static final int INITIAL_BUCKETS = 16;
+   private static final int MAX_BUCKETS = 1 << 30;
+
+   private final Segment[] segments;
+   private final int segmentShift;
+   private final int segmentMask;
+
+   private InternalEntryFactory entryFactory;
+   private EvictionManager evictionManager;
+   private PassivationManager passivator;
+   private ActivationManager activator;
+   private TimeService timeService;
+   private StreamingMarshaller marshaller;
+
+   /**
+    * @param concurrencyLevel the estimated number of concurrently updating threads, used to size the segments
+    * @param maxEntries       the maximum number of entries in the container, or a negative value if unbounded. It is
+    *                         split evenly among the segments, see the class documentation.
+    */
+   public OffHeapDataContainer(int concurrencyLevel, int maxEntries) {
+      int segmentCount = 1;
+      int shift = 0;
+      while (segmentCount < concurrencyLevel && segmentCount < (1 << 16)) {
+         segmentCount <<= 1;
+         shift++;
+      }
+      segmentShift = 32 - shift;
+      segmentMask = segmentCount - 1;
+      segments = (Segment[]) new OffHeapDataContainer.Segment[segmentCount];
+      long maxPerSegment = maxEntries < 0 ? -1 : Math.max(1, (maxEntries + segmentCount - 1) / segmentCount);
+      for (int i = 0; i < segmentCount; i++) {
+         segments[i] = new Segment(maxPerSegment);
+      }
+   }
+
+   @Inject
+   public void initialize(EvictionManager evictionManager, PassivationManager passivator,
+                          InternalEntryFactory entryFactory, ActivationManager activator, TimeService timeService,
+                          @ComponentName(CACHE_MARSHALLER) StreamingMarshaller marshaller) {
+      this.evictionManager = evictionManager;
+      this.passivator = passivator;
+      this.entryFactory = entryFactory;
+      this.activator = activator;
+      this.timeService = timeService;
+      this.marshaller = marshaller;
+   }
+
+   @Override
+   public InternalCacheEntry<K, V> peek(Object k) {
+      byte[] key = marshall(k);
+      int hash = hash(key);
+      Segment segment = segmentFor(hash);
+      segment.lock.lock();
+      try {
+         long address = segment.find(key, hash);
+         return address == 0 ? null : readEntry(address, k);
+      } finally {
+         segment.lock.unlock();
+      }
+   }
+
+   @Override
+   public InternalCacheEntry<K, V> get(Object k) {
+      byte[] key = marshall(k);
+      int hash = hash(key);
+      Segment segment = segmentFor(hash);
+      segment.lock.lock();
+      try {
+         long address = segment.find(key, hash);
+         if (address == 0) {
+            return null;
+         }
+         if (canExpire(address)) {
+            long now = timeService.wallClockTime();
+            if (isExpired(address, now)) {
+               segment.removeEntry(address);
+               return null;
+            }
+            if (UNSAFE.getLong(address + MAX_IDLE_OFFSET) > -1) {
+               UNSAFE.putLong(address + LAST_USED_OFFSET, now);
+            }
+         }
+         segment.recordAccess(address);
+         return readEntry(address, k);
+      } finally {
+         segment.lock.unlock();
+      }
+   }
+
+   @Override
+   public void put(K k, V v, Metadata metadata) {
+      boolean l1Entry = false;
+      if (metadata instanceof L1Metadata) {
+         metadata = ((L1Metadata) metadata).metadata();
+         l1Entry = true;
+      }
+      byte[] key = marshall(k);
+      int hash = hash(key);
+      Segment segment = segmentFor(hash);
+      Map<K, InternalCacheEntry<K, V>> evicted;
+      segment.lock.lock();
+      try {
+         long address = segment.find(key, hash);
+         InternalCacheEntry<K, V> e;
+         if (trace) {
+            log.tracef("Creating new ICE for writing. Existing address=%s, metadata=%s, new value=%s", address, metadata, v);
+         }
+         if (l1Entry) {
+            e = entryFactory.createL1(k, v, metadata);
+         } else if (address != 0) {
+            e = entryFactory.update(readEntry(address, k), v, metadata);
+         } else {
+            e = entryFactory.create(k, v, metadata);
+         }
+         if (trace)
+            log.tracef("Store %s in container", e);
+         activator.onUpdate(k, address == 0);
+         evicted = segment.store(key, hash, address, e);
+      } finally {
+         segment.lock.unlock();
+      }
+      notifyEvicted(evicted);
+   }
+
+   @Override
+   public boolean containsKey(Object k) {
+      byte[] key = marshall(k);
+      int hash = hash(key);
+      Segment segment = segmentFor(hash);
+      segment.lock.lock();
+      try {
+         long address = segment.find(key, hash);
+         if (address != 0 && canExpire(address) && isExpired(address, timeService.wallClockTime())) {
+            segment.removeEntry(address);
+            address = 0;
+         }
+         return address != 0;
+      } finally {
+         segment.lock.unlock();
+      }
+   }
+
+   @Override
+   public InternalCacheEntry<K, V> remove(Object k) {
+      byte[] key = marshall(k);
+      int hash = hash(key);
+      Segment segment = segmentFor(hash);
+      segment.lock.lock();
+      try {
+         long address = segment.find(key, hash);
+         activator.onRemove(k, address == 0);
+         if (address == 0) {
+            return null;
+         }
+         boolean expired = canExpire(address) && isExpired(address, timeService.wallClockTime());
+         InternalCacheEntry<K, V> e = expired ? null : readEntry(address, k);
+         segment.removeEntry(address);
+         return e;
+      } finally {
+         segment.lock.unlock();
+      }
+   }
+
+   @Override
+   public int size() {
+      int size = 0;
+      for (Segment segment : segments) {
+         size += segment.count;
+      }
+      return size;
+   }
+
+   @Override
+   public void clear() {
+      log.tracef("Clearing data container");
+      for (Segment segment : segments) {
+         segment.lock.lock();
+         try {
+            segment.clear();
+         } finally {
+            segment.lock.unlock();
+         }
+      }
+   }
+
+   /**
+    * Releases all the native memory allocated by this container: the entries and the bucket array of every segment.
+    * The container can still be used afterwards, the segments allocate their bucket arrays again on the first write.
+    */
+   @Stop(priority = 999)
+   public void stop() {
+      clear();
+   }
+
+   /**
+    * @return the number of bytes of native memory currently allocated by this container
+    */
+   public long memoryUsed() {
+      long memory = 0;
+      for (Segment segment : segments) {
+         memory += segment.memory;
+      }
+      return memory;
+   }
+
+   @Override
+   public Set<K> keySet() {
+      return new KeySet();
+   }
+
+   @Override
+   public Collection<V> values() {
+      return new Values();
+   }
+
+   @Override
+   public Set<InternalCacheEntry<K, V>> entrySet() {
+      return new EntrySet();
+   }
+
+   @Override
+   public void purgeExpired() {
+      long now = timeService.wallClockTime();
+      for (Segment segment : segments) {
+         segment.lock.lock();
+         try {
+            segment.purgeExpired(now);
+         } finally {
+            segment.lock.unlock();
+         }
+      }
+   }
+
+   @Override
+   public void evict(K k) {
+      byte[] key = marshall(k);
+      int hash = hash(key);
+      Segment segment = segmentFor(hash);
+      segment.lock.lock();
+      try {
+         long address = segment.find(key, hash);
+         if (address != 0) {
+            passivator.passivate(readEntry(address, k));
+            segment.removeEntry(address);
+         }
+      } finally {
+         segment.lock.unlock();
+      }
+   }
+
+   @Override
+   public InternalCacheEntry<K, V> compute(K k, ComputeAction<K, V> action) {
+      byte[] key = marshall(k);
+      int hash = hash(key);
+      Segment segment = segmentFor(hash);
+      Map<K, InternalCacheEntry<K, V>> evicted = null;
+      InternalCacheEntry<K, V> newEntry;
+      segment.lock.lock();
+      try {
+         long address = segment.find(key, hash);
+         InternalCacheEntry<K, V> oldEntry = address == 0 ? null : readEntry(address, k);
+         newEntry = action.compute(k, oldEntry, entryFactory);
+         if (newEntry == oldEntry) {
+            return oldEntry;
+         } else if (newEntry == null) {
+            activator.onRemove(k, false);
+            if (address != 0) {
+               segment.removeEntry(address);
+            }
+            return null;
+         }
+         activator.onUpdate(k, oldEntry == null);
+         if (trace)
+            log.tracef("Store %s in container", newEntry);
+         evicted = segment.store(key, hash, address, newEntry);
+      } finally {
+         segment.lock.unlock();
+      }
+      notifyEvicted(evicted);
+      return newEntry;
+   }
+
+   @Override
+   public Iterator<InternalCacheEntry<K, V>> iterator() {
+      return new EntryIterator(false);
+   }
+
+   @Override
+   public void executeTask(final KeyFilter<? super K> filter, final KeyValueAction<? super K, InternalCacheEntry<K, V>> action)
+         throws InterruptedException {
+      if (filter == null)
+         throw new IllegalArgumentException("No filter specified");
+      if (action == null)
+         throw new IllegalArgumentException("No action specified");
+
+      for (Iterator<InternalCacheEntry<K, V>> it = new EntryIterator(false); it.hasNext(); ) {
+         InternalCacheEntry<K, V> entry = it.next();
+         if (filter.accept(entry.getKey())) {
+            action.apply(entry.getKey(), entry);
+         }
+         if (Thread.currentThread().isInterrupted()) {
+            throw new InterruptedException();
+         }
+      }
+   }
+
+   @Override
+   public void executeTask(final KeyValueFilter<? super K, ? super V> filter, final KeyValueAction<? super K, InternalCacheEntry<K, V>> action)
+         throws InterruptedException {
+      if (filter == null)
+         throw new IllegalArgumentException("No filter specified");
+      if (action == null)
+         throw new IllegalArgumentException("No action specified");
+
+      for (Iterator<InternalCacheEntry<K, V>> it = new EntryIterator(false); it.hasNext(); ) {
+         InternalCacheEntry<K, V> entry = it.next();
+         if (filter.accept(entry.getKey(), entry.getValue(), entry.getMetadata())) {
+            action.apply(entry.getKey(), entry);
+         }
+         if (Thread.currentThread().isInterrupted()) {
+            throw new InterruptedException();
+         }
+      }
+   }
+
+   private void notifyEvicted(Map<K, InternalCacheEntry<K, V>> evicted) {
+      if (evicted != null && !evicted.isEmpty()) {
+         evictionManager.onEntryEviction(evicted);
+      }
+   }
+
+   private Segment segmentFor(int hash) {
+      return segments[(hash >>> segmentShift) & segmentMask];
+   }
+
+   private static int hash(byte[] bytes) {
+      int h = 1;
+      for (byte b : bytes) {
+         h = 31 * h + b;
+      }
+      // Spread the bits so that both the segment (high bits) and the bucket (low bits) are well distributed
+      h += (h << 15) ^ 0xffffcd7d;
+      h ^= (h >>> 10);
+      h += (h << 3);
+      h ^= (h >>> 6);
+      h += (h << 2) + (h << 14);
+      return h ^ (h >>> 16);
+   }
+
+   private byte[] marshall(Object o) {
+      try {
+         return marshaller.objectToByteBuffer(o);
+      } catch (InterruptedException e) {
+         Thread.currentThread().interrupt();
+         throw new CacheException(e);
+      } catch (Exception e) {
+         throw new CacheException("Unable to marshall " + o, e);
+      }
+   }
+
+   private Object unmarshall(long address, int length) {
+      if (length < 0) {
+         return null;
+      }
+      byte[] bytes = new byte[length];
+      UNSAFE.copyMemory(null, address, bytes, BYTE_ARRAY_OFFSET, length);
+      try {
+         return marshaller.objectFromByteBuffer(bytes);
+      } catch (Exception e) {
+         throw new CacheException("Unable to unmarshall off-heap entry", e);
+      }
+   }
+
+   private static boolean canExpire(long address) {
+      return UNSAFE.getLong(address + LIFESPAN_OFFSET) > -1 || UNSAFE.getLong(address + MAX_IDLE_OFFSET) > -1;
+   }
+
+   private static boolean isExpired(long address, long now) {
+      return ExpiryHelper.isExpiredTransientMortal(UNSAFE.getLong(address + MAX_IDLE_OFFSET),
+            UNSAFE.getLong(address + LAST_USED_OFFSET), UNSAFE.getLong(address + LIFESPAN_OFFSET),
+            UNSAFE.getLong(address + CREATED_OFFSET), now);
+   }
+
+   private K readKey(long address) {
+      return (K) unmarshall(address + HEADER_SIZE, UNSAFE.getInt(address + KEY_LENGTH_OFFSET));
+   }
+
+   /**
+    * Rebuilds the {@link InternalCacheEntry} stored at the given address. The caller must hold the segment lock.
+    *
+    * @param key the key of the entry if already known by the caller, {@code null} to unmarshall it
+    */
+   private InternalCacheEntry<K, V> readEntry(long address, Object key) {
+      int keyLength = UNSAFE.getInt(address + KEY_LENGTH_OFFSET);
+      int metadataLength = UNSAFE.getInt(address + METADATA_LENGTH_OFFSET);
+      int valueLength = UNSAFE.getInt(address + VALUE_LENGTH_OFFSET);
+      long metadataAddress = address + HEADER_SIZE + keyLength;
+      K k = key == null ? readKey(address) : (K) key;
+      Metadata metadata = (Metadata) unmarshall(metadataAddress, metadataLength);
+      V v = (V) unmarshall(metadataAddress + Math.max(metadataLength, 0), valueLength);
+      long created = UNSAFE.getLong(address + CREATED_OFFSET);
+      if ((UNSAFE.getByte(address + FLAGS_OFFSET) & FLAG_L1) != 0) {
+         return new L1MetadataInternalCacheEntry(k, v, metadata, created);
+      }
+      return entryFactory.create(k, v, metadata, created, UNSAFE.getLong(address + LIFESPAN_OFFSET),
+                                 UNSAFE.getLong(address + LAST_USED_OFFSET), UNSAFE.getLong(address + MAX_IDLE_OFFSET));
+   }
+
+   private static int length(byte[] bytes) {
+      return bytes == null ? 0 : bytes.length;
+   }
+
+   private static void copy(byte[] bytes, long address) {
+      if (bytes != null) {
+         UNSAFE.copyMemory(bytes, BYTE_ARRAY_OFFSET, null, address, bytes.length);
+      }
+   }
+
+   /**
+    * A lock protected hash table allocated in native memory. All the methods must be invoked holding {@link #lock}.
+    */
+   private final class Segment {
+      final ReentrantLock lock = new ReentrantLock();
+      final long maxEntries;
+      long buckets;
+      int capacity;
+      volatile int count;
+      volatile long memory;
+      // most recently used entry
+      long lruHead;
+      // least recently used entry, first candidate for eviction
+      long lruTail;
+
+      Segment(long maxEntries) {
+         this.maxEntries = maxEntries;
+      }
+
+      long bucketAddress(int hash) {
+         return buckets + ((long) (hash & (capacity - 1)) << 3);
+      }
+
+      long find(byte[] key, int hash) {
+         if (capacity == 0) {
+            return 0;
+         }
+         long address = UNSAFE.getLong(bucketAddress(hash));
+         while (address != 0) {
+            if (UNSAFE.getInt(address + HASH_OFFSET) == hash && keyEquals(address, key)) {
+               return address;
+            }
+            address = UNSAFE.getLong(address + NEXT_OFFSET);
+         }
+         return 0;
+      }
+
+      private boolean keyEquals(long address, byte[] key) {
+         if (UNSAFE.getInt(address + KEY_LENGTH_OFFSET) != key.length) {
+            return false;
+         }
+         long keyAddress = address + HEADER_SIZE;
+         for (int i = 0; i < key.length; i++) {
+            if (UNSAFE.getByte(keyAddress + i) != key[i]) {
+               return false;
+            }
+         }
+         return true;
+      }
+
+      /**
+       * Writes the entry in a new memory block, replacing the block at {@code oldAddress} if not 0, and evicts the least
+       * recently used entries if the segment grows over its capacity.
+       *
+       * @return the entries evicted to make room for the new one, or {@code null} if none
+       */
+      Map<K, InternalCacheEntry<K, V>> store(byte[] key, int hash, long oldAddress, InternalCacheEntry<K, V> entry) {
+         Metadata metadata = entry.getMetadata();
+         byte[] metadataBytes = metadata == null ? null : marshall(metadata);
+         byte[] valueBytes = entry.getValue() == null ? null : marshall(entry.getValue());
+         long size = (long) HEADER_SIZE + key.length + length(metadataBytes) + length(valueBytes);
+         long address = UNSAFE.allocateMemory(size);
+         UNSAFE.putLong(address + NEXT_OFFSET, 0);
+         UNSAFE.putLong(address + LRU_PREVIOUS_OFFSET, 0);
+         UNSAFE.putLong(address + LRU_NEXT_OFFSET, 0);
+         UNSAFE.putLong(address + CREATED_OFFSET, entry.getCreated());
+         UNSAFE.putLong(address + LAST_USED_OFFSET, entry.getLastUsed());
+         UNSAFE.putLong(address + LIFESPAN_OFFSET, entry.getLifespan());
+         UNSAFE.putLong(address + MAX_IDLE_OFFSET, entry.getMaxIdle());
+         UNSAFE.putInt(address + HASH_OFFSET, hash);
+         UNSAFE.putInt(address + KEY_LENGTH_OFFSET, key.length);
+         UNSAFE.putInt(address + METADATA_LENGTH_OFFSET, metadataBytes == null ? -1 : metadataBytes.length);
+         UNSAFE.putInt(address + VALUE_LENGTH_OFFSET, valueBytes == null ? -1 : valueBytes.length);
+         UNSAFE.putByte(address + FLAGS_OFFSET, entry.isL1Entry() ? FLAG_L1 : 0);
+         copy(key, address + HEADER_SIZE);
+         copy(metadataBytes, address + HEADER_SIZE + key.length);
+         copy(valueBytes, address + HEADER_SIZE + key.length + length(metadataBytes));
+
+         if (oldAddress != 0) {
+            removeEntry(oldAddress);
+         }
+         if (capacity == 0) {
+            allocateBuckets(INITIAL_BUCKETS);
+         } else if (count >= capacity - (capacity >>> 2) && capacity < MAX_BUCKETS) {
+            resize();
+         }
+         long bucket = bucketAddress(hash);
+         UNSAFE.putLong(address + NEXT_OFFSET, UNSAFE.getLong(bucket));
+         UNSAFE.putLong(bucket, address);
+         linkFirst(address);
+         count++;
+         memory += size;
+
+         if (maxEntries < 0 || count <= maxEntries) {
+            return null;
+         }
+         Map<K, InternalCacheEntry<K, V>> evicted = new HashMap<K, InternalCacheEntry<K, V>>(4);
+         while (count > maxEntries && lruTail != address) {
+            long victim = lruTail;
+            InternalCacheEntry<K, V> ice = readEntry(victim, null);
+            passivator.passivate(ice);
+            evicted.put(ice.getKey(), ice);
+            removeEntry(victim);
+         }
+         return evicted;
+      }
+
+      /**
+       * Unlinks the entry from its bucket and from the LRU list and releases its memory.
+       */
+      void removeEntry(long address) {
+         long bucket = bucketAddress(UNSAFE.getInt(address + HASH_OFFSET));
+         long current = UNSAFE.getLong(bucket);
+         long previous = 0;
+         while (current != address) {
+            previous = current;
+            current = UNSAFE.getLong(current + NEXT_OFFSET);
+         }
+         long next = UNSAFE.getLong(address + NEXT_OFFSET);
+         if (previous == 0) {
+            UNSAFE.putLong(bucket, next);
+         } else {
+            UNSAFE.putLong(previous + NEXT_OFFSET, next);
+         }
+         unlink(address);
+         free(address);
+         count--;
+      }
+
+      void recordAccess(long address) {
+         if (maxEntries >= 0 && lruHead != address) {
+            unlink(address);
+            linkFirst(address);
+         }
+      }
+
+      private void linkFirst(long address) {
+         UNSAFE.putLong(address + LRU_PREVIOUS_OFFSET, 0);
+         UNSAFE.putLong(address + LRU_NEXT_OFFSET, lruHead);
+         if (lruHead != 0) {
+            UNSAFE.putLong(lruHead + LRU_PREVIOUS_OFFSET, address);
+         } else {
+            lruTail = address;
+         }
+         lruHead = address;
+      }
+
+      private void unlink(long address) {
+         long previous = UNSAFE.getLong(address + LRU_PREVIOUS_OFFSET);
+         long next = UNSAFE.getLong(address + LRU_NEXT_OFFSET);
+         if (previous == 0) {
+            lruHead = next;
+         } else {
+            UNSAFE.putLong(previous + LRU_NEXT_OFFSET, next);
+         }
+         if (next == 0) {
+            lruTail = previous;
+         } else {
+            UNSAFE.putLong(next + LRU_PREVIOUS_OFFSET, previous);
+         }
+      }
+
+      private void free(long address) {
+         memory -= HEADER_SIZE + UNSAFE.getInt(address + KEY_LENGTH_OFFSET)
+               + Math.max(UNSAFE.getInt(address + METADATA_LENGTH_OFFSET), 0)
+               + Math.max(UNSAFE.getInt(address + VALUE_LENGTH_OFFSET), 0);
+         UNSAFE.freeMemory(address);
+      }
+
+      private void allocateBuckets(int newCapacity) {
+         long bytes = (long) newCapacity << 3;
+         buckets = UNSAFE.allocateMemory(bytes);
+         UNSAFE.setMemory(buckets, bytes, (byte) 0);
+         capacity = newCapacity;
+         memory += bytes;
+      }
+
+      /**
+       * Doubles the bucket array. Entries whose hashes share the low bits of the old capacity stay in buckets at the
+       * same index modulo the old capacity, which {@link EntryIterator} relies on.
+       */
+      private void resize() {
+         long oldBuckets = buckets;
+         int oldCapacity = capacity;
+         allocateBuckets(oldCapacity << 1);
+         for (int i = 0; i < oldCapacity; i++) {
+            long address = UNSAFE.getLong(oldBuckets + ((long) i << 3));
+            while (address != 0) {
+               long next = UNSAFE.getLong(address + NEXT_OFFSET);
+               long bucket = bucketAddress(UNSAFE.getInt(address + HASH_OFFSET));
+               UNSAFE.putLong(address + NEXT_OFFSET, UNSAFE.getLong(bucket));
+               UNSAFE.putLong(bucket, address);
+               address = next;
+            }
+         }
+         UNSAFE.freeMemory(oldBuckets);
+         memory -= (long) oldCapacity << 3;
+      }
+
+      void purgeExpired(long now) {
+         for (int i = 0; i < capacity; i++) {
+            long address = UNSAFE.getLong(buckets + ((long) i << 3));
+            while (address != 0) {
+               long next = UNSAFE.getLong(address + NEXT_OFFSET);
+               if (canExpire(address) && isExpired(address, now)) {
+                  removeEntry(address);
+               }
+               address = next;
+            }
+         }
+      }
+
+      /**
+       * Reads the entries of all the buckets whose index is congruent to {@code index} modulo {@code stride}.
+       */
+      void readBuckets(int index, int stride, List<InternalCacheEntry<K, V>> target) {
+         for (int i = index; i < capacity; i += stride) {
+            long address = UNSAFE.getLong(buckets + ((long) i << 3));
+            while (address != 0) {
+               target.add(readEntry(address, null));
+               address = UNSAFE.getLong(address + NEXT_OFFSET);
+            }
+         }
+      }
+
+      void clear() {
+         for (int i = 0; i < capacity; i++) {
+            long address = UNSAFE.getLong(buckets + ((long) i << 3));
+            while (address != 0) {
+               long next = UNSAFE.getLong(address + NEXT_OFFSET);
+               UNSAFE.freeMemory(address);
+               address = next;
+            }
+         }
+         if (capacity != 0) {
+            UNSAFE.freeMemory(buckets);
+         }
+         buckets = 0;
+         capacity = 0;
+         count = 0;
+         memory = 0;
+         lruHead = 0;
+         lruTail = 0;
+      }
+   }
+
+   /**
+    * Weakly consistent iterator which unmarshalls the entries one bucket group at a time, holding the segment lock only
+    * while copying the group. A group is made of the buckets whose index is congruent modulo the capacity of the segment
+    * when its iteration started, so concurrent resizes neither hide nor duplicate entries.
+    */
+   private class EntryIterator implements Iterator<InternalCacheEntry<K, V>> {
+      private final boolean immutable;
+      private final List<InternalCacheEntry<K, V>> batch = new ArrayList<InternalCacheEntry<K, V>>();
+      private int batchPosition;
+      private int segmentIndex = -1;
+      private int stride;
+      private int bucketIndex;
+
+      EntryIterator(boolean immutable) {
+         this.immutable = immutable;
+      }
+
+      @Override
+      public boolean hasNext() {
+         while (batchPosition >= batch.size()) {
+            if (!fetchBatch()) {
+               return false;
+            }
+         }
+         return true;
+      }
+
+      @Override
+      public InternalCacheEntry<K, V> next() {
+         if (!hasNext()) {
+            throw new NoSuchElementException();
+         }
+         InternalCacheEntry<K, V> entry = batch.get(batchPosition++);
+         return immutable ? CoreImmutables.immutableInternalCacheEntry(entry) : entry;
+      }
+
+      @Override
+      public void remove() {
+         throw new UnsupportedOperationException();
+      }
+
+      private boolean fetchBatch() {
+         batch.clear();
+         batchPosition = 0;
+         while (bucketIndex >= stride) {
+            if (++segmentIndex >= segments.length) {
+               return false;
+            }
+            Segment segment = segments[segmentIndex];
+            segment.lock.lock();
+            try {
+               stride = segment.capacity;
+            } finally {
+               segment.lock.unlock();
+            }
+            bucketIndex = 0;
+         }
+         Segment segment = segments[segmentIndex];
+         segment.lock.lock();
+         try {
+            // A cleared segment is smaller than the stride, there is nothing left to iterate
+            if (segment.capacity >= stride) {
+               segment.readBuckets(bucketIndex, stride, batch);
+            } else {
+               bucketIndex = stride;
+            }
+         } finally {
+            segment.lock.unlock();
+         }
+         bucketIndex++;
+         return true;
+      }
+   }
+
+   private class EntrySet extends AbstractSet<InternalCacheEntry<K, V>> {
+
+      @Override
+      public boolean contains(Object o) {
+         if (!(o instanceof Map.Entry)) {
+            return false;
+         }
+
+         @SuppressWarnings("rawtypes")
+         Map.Entry e = (Map.Entry) o;
+         InternalCacheEntry ice = peek(e.getKey());
+         if (ice == null) {
+            return false;
+         }
+         return ice.getValue().equals(e.getValue());
+      }
+
+      @Override
+      public Iterator<InternalCacheEntry<K, V>> iterator() {
+         return new EntryIterator(true);
+      }
+
+      @Override
+      public int size() {
+         return OffHeapDataContainer.this.size();
+      }
+   }
+
+   private class KeySet extends AbstractSet<K> {
+
+      @Override
+      public boolean contains(Object o) {
+         return peek(o) != null;
+      }
+
+      @Override
+      public Iterator<K> iterator() {
+         final Iterator<InternalCacheEntry<K, V>> it = new EntryIterator(false);
+         return new Iterator<K>() {
+            @Override
+            public boolean hasNext() {
+               return it.hasNext();
+            }
+
+            @Override
+            public K next() {
+               return it.next().getKey();
+            }
+
+            @Override
+            public void remove() {
+               throw new UnsupportedOperationException();
+            }
+         };
+      }
+
+      @Override
+      public int size() {
+         return OffHeapDataContainer.this.size();
+      }
+   }
+
+   private class Values extends AbstractCollection<V> {
+
+      @Override
+      public Iterator<V> iterator() {
+         final Iterator<InternalCacheEntry<K, V>> it = new EntryIterator(false);
+         return new Iterator<V>() {
+            @Override
+            public boolean hasNext() {
+               return it.hasNext();
+            }
+
+            @Override
+            public V next() {
+               return it.next().getValue();
+            }
+
+            @Override
+            public void remove() {
+               throw new UnsupportedOperationException();
+            }
+         };
+      }
+
+      @Override
+      public int size() {
+         return OffHeapDataContainer.this.size();
+      }
+   }
+
+   private static sun.misc.Unsafe getUnsafe() {
+      try {
+         return sun.misc.Unsafe.getUnsafe();
+      } catch (SecurityException tryReflectionInstead) {}
+      try {
+         return java.security.AccessController.doPrivileged
+               (new java.security.PrivilegedExceptionAction<sun.misc.Unsafe>() {
+                  public sun.misc.Unsafe run() throws Exception {
+                     Class<sun.misc.Unsafe> k = sun.misc.Unsafe.class;
+                     for (java.lang.reflect.Field f : k.getDeclaredFields()) {
+                        f.setAccessible(true);
+                        Object x = f.get(null);
+                        if (k.isInstance(x))
+                           return k.cast(x);
+                     }
+                     throw new NoSuchFieldError("the Unsafe");
+                  }});
+      } catch (java.security.PrivilegedActionException e) {
+         throw new RuntimeException("Could not initialize intrinsics", e.getCause());
+      }
+   }
+}
@@ -0,0 +1,537 @@
+package org.infinispan.container;
+
+import net.jcip.annotations.ThreadSafe;
+
+import org.infinispan.commons.equivalence.AnyEquivalence;
+import org.infinispan.commons.equivalence.Equivalence;
+import org.infinispan.commons.util.CollectionFactory;
+import org.infinispan.commons.util.concurrent.ParallelIterableMap;
+import org.infinispan.commons.util.concurrent.ParallelIterableMap.KeyValueAction;
+import org.infinispan.commons.util.concurrent.jdk8backported.EquivalentConcurrentHashMapV8;
+import org.infinispan.configuration.cache.Configuration;
+import org.infinispan.container.entries.InternalCacheEntry;
+import org.infinispan.distribution.ch.ConsistentHash;
+import org.infinispan.distribution.ch.ConsistentHashFactory;
+import org.infinispan.distribution.ch.impl.DefaultConsistentHashFactory;
+import org.infinispan.distribution.ch.impl.ReplicatedConsistentHashFactory;
+import org.infinispan.distribution.group.GroupManager;
+import org.infinispan.distribution.group.GroupingConsistentHash;
+import org.infinispan.eviction.ActivationManager;
+import org.infinispan.eviction.PassivationManager;
+import org.infinispan.factories.annotations.Inject;
+import org.infinispan.filter.KeyFilter;
+import org.infinispan.filter.KeyValueFilter;
+import org.infinispan.metadata.Metadata;
+import org.infinispan.metadata.impl.L1Metadata;
+import org.infinispan.remoting.rpc.RpcManager;
+import org.infinispan.remoting.transport.Address;
+import org.infinispan.util.CoreImmutables;
+import org.infinispan.util.TimeService;
+import org.infinispan.util.logging.Log;
+import org.infinispan.util.logging.LogFactory;
+
+import java.util.AbstractCollection;
+import java.util.AbstractSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * An unbounded {@link DataContainer} which keeps the entries of each segment of the cache in a separate map, so that
+ * the entries of some segments can be iterated, or all dropped, without touching the rest of the container.
+ * <p/>
+ * The segment of a key is computed with a consistent hash created from the cache configuration, using the same
+ * {@link ConsistentHashFactory}, hash function and key grouping as the cache topology. The segment of a key does not
+ * depend on the members of the cluster, so the segments of this container always match the segments of the current
+ * cache topology.
+ *
+ * @since 7.2
+ */
+@ThreadSafe
+public class SegmentedDataContainer<K, V> implements DataContainer<K, V> {
+
+   private static final Log log = LogFactory.getLog(SegmentedDataContainer.class);
+   private static final boolean trace = log.isTraceEnabled();
+
+   private final int concurrencyLevel;
+   private final Equivalence<? super K> keyEquivalence;
+   private final AtomicReferenceArray<EquivalentConcurrentHashMapV8<K, InternalCacheEntry<K, V>>> maps;
+   private ConsistentHash segmentHash;
+   private InternalEntryFactory entryFactory;
+   private PassivationManager passivator;
+   private ActivationManager activator;
+   private TimeService timeService;
+
+   public SegmentedDataContainer(int concurrencyLevel, int numSegments, Equivalence<? super K> keyEquivalence) {
+      this.concurrencyLevel = concurrencyLevel;
+      this.keyEquivalence = keyEquivalence;
+      this.maps = new AtomicReferenceArray<EquivalentConcurrentHashMapV8<K, InternalCacheEntry<K, V>>>(numSegments);
+      for (int i = 0; i < numSegments; i++) {
+         maps.set(i, newMap());
+      }
+   }
+
+   @Inject
+   public void initialize(PassivationManager passivator, InternalEntryFactory entryFactory,
+                          ActivationManager activator, TimeService timeService, Configuration configuration,
+                          RpcManager rpcManager, GroupManager groupManager) {
+      this.passivator = passivator;
+      this.entryFactory = entryFactory;
+      this.activator = activator;
+      this.timeService = timeService;
+      ConsistentHashFactory factory = configuration.clustering().hash().consistentHashFactory();
+      if (factory == null) {
+         // the topology aware factory creates the same segments as the default one
+         factory = configuration.clustering().cacheMode().isDistributed() ? new DefaultConsistentHashFactory() :
+               new ReplicatedConsistentHashFactory();
+      }
+      Address localAddress = rpcManager.getAddress();
+      ConsistentHash ch = factory.create(configuration.clustering().hash().hash(), 1, maps.length(),
+                                         Collections.singletonList(localAddress),
+                                         Collections.singletonMap(localAddress, 1.0f));
+      this.segmentHash = groupManager == null ? ch : new GroupingConsistentHash(ch, groupManager);
+   }
+
+   /**
+    * Returns the entries of the container if it is not segmented, or only the entries of the given segments if it is a
+    * {@link SegmentedDataContainer} with the same segments as the given consistent hash. In both cases the returned
+    * entries may still belong to other segments, so callers must keep filtering them.
+    */
+   public static <K, V> Iterable<InternalCacheEntry<K, V>> entriesInSegments(final DataContainer<K, V> dataContainer,
+                                                                            ConsistentHash ch, final Set<Integer> segments) {
+      if (dataContainer instanceof SegmentedDataContainer
+            && ((SegmentedDataContainer) dataContainer).getNumSegments() == ch.getNumSegments()) {
+         return new Iterable<InternalCacheEntry<K, V>>() {
+            @Override
+            public Iterator<InternalCacheEntry<K, V>> iterator() {
+               return ((SegmentedDataContainer<K, V>) dataContainer).iterator(segments);
+            }
+         };
+      }
+      return dataContainer;
+   }
+
+   public int getNumSegments() {
+      return maps.length();
+   }
+
+   public int getSegment(Object key) {
+      return segmentHash.getSegment(key);
+   }
+
+   private EquivalentConcurrentHashMapV8<K, InternalCacheEntry<K, V>> newMap() {
+      return (EquivalentConcurrentHashMapV8<K, InternalCacheEntry<K, V>>) CollectionFactory.<K, InternalCacheEntry<K, V>>makeConcurrentParallelMap(
+            16, concurrencyLevel, keyEquivalence, AnyEquivalence.getInstance());
+   }
+
+   private EquivalentConcurrentHashMapV8<K, InternalCacheEntry<K, V>> mapFor(Object key) {
+      return maps.get(getSegment(key));
+   }
+
+   @Override
+   public InternalCacheEntry<K, V> peek(Object key) {
+      return mapFor(key).get(key);
+   }
+
+   @Override
+   public InternalCacheEntry<K, V> get(Object k) {
+      EquivalentConcurrentHashMapV8<K, InternalCacheEntry<K, V>> map = mapFor(k);
+      InternalCacheEntry<K, V> e = map.get(k);
+      if (e != null && e.canExpire()) {
+         long currentTimeMillis = timeService.wallClockTime();
+         if (e.isExpired(currentTimeMillis)) {
+            // We can only remove the same value - in case if a concurrent write updates it
+            map.remove(k, e);
+            e = null;
+         } else {
+            e.touch(currentTimeMillis);
+         }
+      }
+      return e;
+   }
+
+   @Override
+   public void put(K k, V v, Metadata metadata) {
+      boolean l1Entry = false;
+      if (metadata instanceof L1Metadata) {
+         metadata = ((L1Metadata) metadata).metadata();
+         l1Entry = true;
+      }
+      EquivalentConcurrentHashMapV8<K, InternalCacheEntry<K, V>> map = mapFor(k);
+      InternalCacheEntry<K, V> e = map.get(k);
+
+      if (trace) {
+         log.tracef("Creating new ICE for writing. Existing=%s, metadata=%s, new value=%s", e, metadata, v);
+      }
+      if (l1Entry) {
+         e = entryFactory.createL1(k, v, metadata);
+      } else if (e != null) {
+         e = entryFactory.update(e, v, metadata);
+      } else {
+         // this is a brand-new entry
+         e = entryFactory.create(k, v, metadata);
+      }
+
+      if (trace)
+         log.tracef("Store %s in container", e);
+
+      final InternalCacheEntry<K, V> newEntry = e;
+      map.compute(k, new EquivalentConcurrentHashMapV8.BiFun<K, InternalCacheEntry<K, V>, InternalCacheEntry<K, V>>() {
+         @Override
+         public InternalCacheEntry<K, V> apply(K key, InternalCacheEntry<K, V> entry) {
+            activator.onUpdate(key, entry == null);
+            return newEntry;
+         }
+      });
+   }
+
+   @Override
+   public boolean containsKey(Object k) {
+      InternalCacheEntry<K, V> ice = peek(k);
+      if (ice != null && ice.canExpire() && ice.isExpired(timeService.wallClockTime())) {
+         mapFor(k).remove(k);
+         ice = null;
+      }
+      return ice != null;
+   }
+
+   @Override
+   public InternalCacheEntry<K, V> remove(Object k) {
+      final AtomicReference<InternalCacheEntry<K, V>> reference = new AtomicReference<>(null);
+      ((EquivalentConcurrentHashMapV8<Object, InternalCacheEntry<K, V>>) mapFor(k))
+            .compute(k, new EquivalentConcurrentHashMapV8.BiFun<Object, InternalCacheEntry<K, V>, InternalCacheEntry<K, V>>() {
+               @Override
+               public InternalCacheEntry<K, V> apply(Object key, InternalCacheEntry<K, V> entry) {
+                  activator.onRemove(key, entry == null);
+                  reference.set(entry);
+                  return null;
+               }
+            });
+      InternalCacheEntry<K, V> e = reference.get();
+      return e == null || (e.canExpire() && e.isExpired(timeService.wallClockTime())) ? null : e;
+   }
+
+   @Override
+   public int size() {
+      int size = 0;
+      for (int i = 0; i < maps.length(); i++) {
+         size += maps.get(i).size();
+      }
+      return size;
+   }
+
+   /**
+    * @return the number of entries of the given segments
+    */
+   public int size(Set<Integer> segments) {
+      int size = 0;
+      for (int segment : segments) {
+         size += maps.get(segment).size();
+      }
+      return size;
+   }
+
+   @Override
+   public void clear() {
+      log.tracef("Clearing data container");
+      for (int i = 0; i < maps.length(); i++) {
+         maps.get(i).clear();
+      }
+   }
+
+   /**
+    * Drops all the entries of the given segments by clearing their maps. No activation or persistence callbacks are
+    * invoked, so it must only be used for segments whose entries are no longer needed. The maps are cleared in place, so
+    * a write done concurrently to one of these segments is either removed or kept, but never lost while it is reported
+    * as stored.
+    */
+   public void removeSegments(Set<Integer> segments) {
+      for (int segment : segments) {
+         maps.get(segment).clear();
+      }
+      if (trace) log.tracef("Removed segments %s, data container now has %d keys", segments, size());
+   }
+
+   @Override
+   public Set<K> keySet() {
+      return new KeySet();
+   }
+
+   @Override
+   public Collection<V> values() {
+      return new Values();
+   }
+
+   @Override
+   public Set<InternalCacheEntry<K, V>> entrySet() {
+      return new EntrySet();
+   }
+
+   @Override
+   public void purgeExpired() {
+      long currentTimeMillis = timeService.wallClockTime();
+      for (int i = 0; i < maps.length(); i++) {
+         for (Iterator<InternalCacheEntry<K, V>> purgeCandidates = maps.get(i).values().iterator(); purgeCandidates.hasNext(); ) {
+            InternalCacheEntry e = purgeCandidates.next();
+            if (e.isExpired(currentTimeMillis)) {
+               purgeCandidates.remove();
+            }
+         }
+      }
+   }
+
+   @Override
+   public void evict(K key) {
+      mapFor(key).computeIfPresent(key, new EquivalentConcurrentHashMapV8.BiFun<K, InternalCacheEntry<K, V>, InternalCacheEntry<K, V>>() {
+         @Override
+         public InternalCacheEntry<K, V> apply(K o, InternalCacheEntry<K, V> entry) {
+            passivator.passivate(entry);
+            return null;
+         }
+      });
+   }
+
+   @Override
+   public InternalCacheEntry<K, V> compute(K key, final ComputeAction<K, V> action) {
+      return mapFor(key).compute(key, new EquivalentConcurrentHashMapV8.BiFun<K, InternalCacheEntry<K, V>, InternalCacheEntry<K, V>>() {
+         @Override
+         public InternalCacheEntry<K, V> apply(K key, InternalCacheEntry<K, V> oldEntry) {
+            InternalCacheEntry<K, V> newEntry = action.compute(key, oldEntry, entryFactory);
+            if (newEntry == oldEntry) {
+               return oldEntry;
+            } else if (newEntry == null) {
+               activator.onRemove(key, false);
+               return null;
+            }
+            activator.onUpdate(key, oldEntry == null);
+            if (trace)
+               log.tracef("Store %s in container", newEntry);
+            return newEntry;
+         }
+      });
+   }
+
+   @Override
+   public Iterator<InternalCacheEntry<K, V>> iterator() {
+      return new SegmentIterator(allSegments(), false);
+   }
+
+   /**
+    * @return an iterator over the entries of the given segments only
+    */
+   public Iterator<InternalCacheEntry<K, V>> iterator(Set<Integer> segments) {
+      return new SegmentIterator(segments.iterator(), false);
+   }
+
+   @Override
+   public void executeTask(final KeyFilter<? super K> filter, final KeyValueAction<? super K, InternalCacheEntry<K, V>> action)
+         throws InterruptedException {
+      if (filter == null)
+         throw new IllegalArgumentException("No filter specified");
+      executeTask(allSegments(), new KeyValueFilter<K, V>() {
+         @Override
+         public boolean accept(K key, V value, Metadata metadata) {
+            return filter.accept(key);
+         }
+      }, action);
+   }
+
+   @Override
+   public void executeTask(final KeyValueFilter<? super K, ? super V> filter, final KeyValueAction<? super K, InternalCacheEntry<K, V>> action)
+         throws InterruptedException {
+      executeTask(allSegments(), filter, action);
+   }
+
+   /**
+    * Executes the action on the entries of the given segments accepted by the filter.
+    */
+   public void executeTask(Set<Integer> segments, KeyValueFilter<? super K, ? super V> filter,
+                           KeyValueAction<? super K, InternalCacheEntry<K, V>> action) throws InterruptedException {
+      executeTask(segments.iterator(), filter, action);
+   }
+
+   private void executeTask(Iterator<Integer> segments, final KeyValueFilter<? super K, ? super V> filter,
+                            final KeyValueAction<? super K, InternalCacheEntry<K, V>> action) throws InterruptedException {
+      if (filter == null)
+         throw new IllegalArgumentException("No filter specified");
+      if (action == null)
+         throw new IllegalArgumentException("No action specified");
+
+      while (segments.hasNext()) {
+         ParallelIterableMap<K, InternalCacheEntry<K, V>> map = (ParallelIterableMap<K, InternalCacheEntry<K, V>>) maps.get(segments.next());
+         map.forEach(32, new KeyValueAction<K, InternalCacheEntry<K, V>>() {
+            @Override
+            public void apply(K key, InternalCacheEntry<K, V> value) {
+               if (filter.accept(key, value.getValue(), value.getMetadata())) {
+                  action.apply(key, value);
+               }
+            }
+         });
+         //TODO figure out the way how to do interruption better (during iteration)
+         if (Thread.currentThread().isInterrupted()) {
+            throw new InterruptedException();
+         }
+      }
+   }
+
+   private Iterator<Integer> allSegments() {
+      return new Iterator<Integer>() {
+         private int next;
+
+         @Override
+         public boolean hasNext() {
+            return next < maps.length();
+         }
+
+         @Override
+         public Integer next() {
+            if (!hasNext()) throw new NoSuchElementException();
+            return next++;
+         }
+
+         @Override
+         public void remove() {
+            throw new UnsupportedOperationException();
+         }
+      };
+   }
+
+   private class SegmentIterator implements Iterator<InternalCacheEntry<K, V>> {
+      private final Iterator<Integer> segments;
+      private final boolean immutable;
+      private Iterator<InternalCacheEntry<K, V>> current = Collections.emptyIterator();
+
+      SegmentIterator(Iterator<Integer> segments, boolean immutable) {
+         this.segments = segments;
+         this.immutable = immutable;
+      }
+
+      @Override
+      public boolean hasNext() {
+         while (!current.hasNext()) {
+            if (!segments.hasNext()) {
+               return false;
+            }
+            current = maps.get(segments.next()).values().iterator();
+         }
+         return true;
+      }
+
+      @Override
+      public InternalCacheEntry<K, V> next() {
+         if (!hasNext()) throw new NoSuchElementException();
+         InternalCacheEntry<K, V> entry = current.next();
+         return immutable ? CoreImmutables.immutableInternalCacheEntry(entry) : entry;
+      }
+
+      @Override
+      public void remove() {
+         throw new UnsupportedOperationException();
+      }
+   }
+
+   /**
+    * Minimal implementation needed for unmodifiable Set
+    */
+   private class EntrySet extends AbstractSet<InternalCacheEntry<K, V>> {
+
+      @Override
+      public boolean contains(Object o) {
+         if (!(o instanceof Map.Entry)) {
+            return false;
+         }
+
+         @SuppressWarnings("rawtypes")
+         Map.Entry e = (Map.Entry) o;
+         InternalCacheEntry ice = peek(e.getKey());
+         if (ice == null) {
+            return false;
+         }
+         return ice.getValue().equals(e.getValue());
+      }
+
+      @Override
+      public Iterator<InternalCacheEntry<K, V>> iterator() {
+         return new SegmentIterator(allSegments(), true);
+      }
+
+      @Override
+      public int size() {
+         return SegmentedDataContainer.this.size();
+      }
+   }
+
+   /**
+    * Minimal implementation needed for unmodifiable Set
+    */
+   private class KeySet extends AbstractSet<K> {
+
+      @Override
+      public boolean contains(Object o) {
+         return peek(o) != null;
+      }
+
+      @Override
+      public Iterator<K> iterator() {
+         final Iterator<InternalCacheEntry<K, V>> it = SegmentedDataContainer.this.iterator();
+         return new Iterator<K>() {
+            @Override
+            public boolean hasNext() {
+               return it.hasNext();
+            }
+
+            @Override
+            public K next() {
+               return it.next().getKey();
+            }
+
+            @Override
+            public void remove() {
+               throw new UnsupportedOperationException();
+            }
+         };
+      }
+
+      @Override
+      public int size() {
+         return SegmentedDataContainer.this.size();
+      }
+   }
+
+   /**
+    * Minimal implementation needed for unmodifiable Collection
+    */
+   private class Values extends AbstractCollection<V> {
+
+      @Override
+      public Iterator<V> iterator() {
+         final Iterator<InternalCacheEntry<K, V>> it = SegmentedDataContainer.this.iterator();
+         return new Iterator<V>() {
+            @Override
+            public boolean hasNext() {
+               return it.hasNext();
+            }
+
+            @Override
+            public V next() {
+               return it.next().getValue();
+            }
+
+            @Override
+            public void remove() {
+               throw new UnsupportedOperationException();
+            }
+         };
+      }
+
+      @Override
+      public int size() {
+         return SegmentedDataContainer.this.size();
+      }
+   }
+}
@@ -65,6 +65,19 @@ public interface InvocationContext extends EntryLookup, Cloneable {
     */
    void setClassLoader(ClassLoader classLoader);
 
+   /**
+    * Returns true while the command is walked through the interceptor chain by {@link
+    * org.infinispan.interceptors.InterceptorChain#invokeAsync(InvocationContext, org.infinispan.commands.VisitableCommand)}.
+    * The interceptors may then return an {@link org.infinispan.interceptors.base.InvocationStage} instead of waiting
+    * for a remote call to complete.
+    */
+   boolean isAsyncInvocation();
+
+   /**
+    * Marks the invocation as asynchronous, see {@link #isAsyncInvocation()}.
+    */
+   void setAsyncInvocation(boolean asyncInvocation);
+
    /**
     * Tracks the given key as locked by this invocation context.
     */
@@ -35,6 +35,8 @@ public final class SingleKeyNonTxInvocationContext implements InvocationContext
    //(verify if this is worth it by looking at object alignment - would need a different implementation as pointing to null wouldn't help)
    private Address origin;
 
+   private boolean asyncInvocation;
+
    public SingleKeyNonTxInvocationContext(final boolean originLocal, final Equivalence keyEquivalence) {
       this.isOriginLocal = originLocal;
       this.keyEquivalence = keyEquivalence;
@@ -139,6 +141,16 @@ public void setClassLoader(ClassLoader classLoader) {
       this.classLoader = classLoader;
    }
 
+   @Override
+   public boolean isAsyncInvocation() {
+      return asyncInvocation;
+   }
+
+   @Override
+   public void setAsyncInvocation(boolean asyncInvocation) {
+      this.asyncInvocation = asyncInvocation;
+   }
+
    @Override
    public boolean hasLockedKey(final Object key) {
       return isLocked && keyEquivalence.equals(this.key, key);
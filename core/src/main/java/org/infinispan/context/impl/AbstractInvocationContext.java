@@ -18,6 +18,7 @@ public abstract class AbstractInvocationContext implements InvocationContext {
    private Address origin;
    // Class loader associated with this invocation which supports AdvancedCache.with() functionality
    private ClassLoader classLoader;
+   private boolean asyncInvocation;
 
    @Override
    public final Address getOrigin() {
@@ -51,6 +52,16 @@ public AbstractInvocationContext clone() {
       }
    }
 
+   @Override
+   public final boolean isAsyncInvocation() {
+      return asyncInvocation;
+   }
+
+   @Override
+   public final void setAsyncInvocation(boolean asyncInvocation) {
+      this.asyncInvocation = asyncInvocation;
+   }
+
    @Override
    public final ClassLoader getClassLoader() {
       return classLoader;
@@ -89,6 +89,16 @@ public void setClassLoader(ClassLoader classLoader) {
       throw newUnsupportedMethod();
    }
 
+   @Override
+   public boolean isAsyncInvocation() {
+      return false;
+   }
+
+   @Override
+   public void setAsyncInvocation(boolean asyncInvocation) {
+      throw newUnsupportedMethod();
+   }
+
    /**
     * @return an exception to state this context is read only
     */
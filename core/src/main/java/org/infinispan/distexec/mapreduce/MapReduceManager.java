@@ -8,6 +8,7 @@
 
 import org.infinispan.commands.read.MapCombineCommand;
 import org.infinispan.commands.read.ReduceCommand;
+import org.infinispan.commands.read.ShuffleCommand;
 import org.infinispan.distribution.DistributionManager;
 import org.infinispan.remoting.transport.Address;
 
@@ -86,6 +87,34 @@ <KOut, VOut> void reduce(ReduceCommand<KOut, VOut> reducer, String resultCache)
    <T> Map<Address, List<T>> mapKeysToNodes(DistributionManager dm, String taskId,
             Collection<T> keysToMap);
    
+   /**
+    * Maps Map/Reduce task intermediate keys to the nodes reducing them when the task uses a
+    * streaming shuffle. Every node maps a given key to the same member of the given list.
+    *
+    * @param members
+    *           nodes executing the reduce phase, in the same order on all nodes
+    * @param keysToMap
+    *           intermediate keys to locate
+    * @return map where each key is an Address in the cluster and value are the keys mapped to that
+    *         Address
+    */
+   <T> Map<Address, List<T>> mapKeysToNodes(List<Address> members, Collection<T> keysToMap);
+
+   /**
+    * Invoked when ShuffleCommand arrives to a target Infinispan node. Implementations should buffer
+    * the intermediate keys/values of the command until the reduce phase of its task is executed.
+    *
+    * @param shuffle ShuffleCommand sent from a node executing the map phase
+    */
+   <KOut, VOut> void shuffle(ShuffleCommand<KOut, VOut> shuffle);
+
+   /**
+    * Releases the intermediate keys/values buffered for a task, including any spilled to local disk.
+    *
+    * @param taskId id of the map/reduce task
+    */
+   void releaseShuffle(String taskId);
+
    /**
     * ExecutorService provided for local task execution
     * 
@@ -4,9 +4,13 @@
 import org.infinispan.atomic.Delta;
 import org.infinispan.atomic.DeltaAware;
 import org.infinispan.commands.read.MapCombineCommand;
+import org.infinispan.commands.CommandsFactory;
 import org.infinispan.commands.read.ReduceCommand;
+import org.infinispan.commands.read.ShuffleCommand;
 import org.infinispan.commons.CacheException;
+import org.infinispan.commons.hash.MurmurHash3;
 import org.infinispan.commons.marshall.AbstractExternalizer;
+import org.infinispan.commons.marshall.StreamingMarshaller;
 import org.infinispan.commons.util.CollectionFactory;
 import org.infinispan.commons.util.Util;
 import org.infinispan.commons.util.concurrent.ParallelIterableMap.KeyValueAction;
@@ -30,6 +34,8 @@
 import org.infinispan.marshall.core.Ids;
 import org.infinispan.marshall.core.MarshalledEntry;
 import org.infinispan.marshall.core.MarshalledValue;
+import org.infinispan.remoting.responses.Response;
+import org.infinispan.remoting.rpc.RpcManager;
 import org.infinispan.remoting.transport.Address;
 import org.infinispan.util.TimeService;
 import org.infinispan.util.logging.Log;
@@ -43,11 +49,13 @@
 import java.util.Map.Entry;
 import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.infinispan.factories.KnownComponentNames.ASYNC_TRANSPORT_EXECUTOR;
+import static org.infinispan.factories.KnownComponentNames.CACHE_MARSHALLER;
 
 /**
  * Default implementation of {@link MapReduceManager}.
@@ -67,6 +75,8 @@ public class MapReduceManagerImpl implements MapReduceManager {
    private ExecutorService executorService;
    private TimeService timeService;
    private int chunkSize;
+   private StreamingMarshaller marshaller;
+   private final ConcurrentMap<String, ShuffleBuffer<?, ?>> shuffleBuffers = CollectionFactory.makeConcurrentMap();
 
    MapReduceManagerImpl() {
    }
@@ -74,8 +84,10 @@ public class MapReduceManagerImpl implements MapReduceManager {
    @Inject
    public void init(EmbeddedCacheManager cacheManager, PersistenceManager persistenceManager,
             @ComponentName(ASYNC_TRANSPORT_EXECUTOR) ExecutorService asyncTransportExecutor,
-            ClusteringDependentLogic cdl, TimeService timeService, Configuration configuration) {
+            ClusteringDependentLogic cdl, TimeService timeService, Configuration configuration,
+            @ComponentName(CACHE_MARSHALLER) StreamingMarshaller marshaller) {
       this.cacheManager = cacheManager;
+      this.marshaller = marshaller;
       this.persistenceManager = persistenceManager;
       this.cdl = cdl;
       this.executorService = asyncTransportExecutor;
@@ -131,6 +143,10 @@ protected <KOut, VOut> void reduce(ReduceCommand<KOut, VOut> reduceCommand, fina
                + " executed with empty input keys");
       } else {
          final Reducer<KOut, VOut> reducer = reduceCommand.getReducer();
+         if (reduceCommand.isStreamingShuffle()) {
+            reduceShuffled(reduceCommand, result);
+            return;
+         }
          final boolean sharedTmpCacheUsed = reduceCommand.isUseIntermediateSharedCache();
          MapReduceTaskLifecycleService taskLifecycleService = MapReduceTaskLifecycleService.getInstance();
          log.tracef("For m/r task %s invoking %s at %s", taskId, reduceCommand, cdl.getAddress());
@@ -169,6 +185,54 @@ public void apply(IntermediateKey<KOut> k, InternalCacheEntry<IntermediateKey<KO
       }
    }
 
+   @SuppressWarnings("unchecked")
+   private <KOut, VOut> void reduceShuffled(ReduceCommand<KOut, VOut> reduceCommand, Map<KOut, VOut> result) {
+      String taskId = reduceCommand.getTaskId();
+      Reducer<KOut, VOut> reducer = reduceCommand.getReducer();
+      ShuffleBuffer<KOut, VOut> buffer = (ShuffleBuffer<KOut, VOut>) shuffleBuffers.remove(taskId);
+      if (buffer == null) {
+         throw new IllegalStateException("Reduce phase of MapReduceTask " + taskId + " on node " + cdl.getAddress()
+               + " executed without intermediate keys/values");
+      }
+      MapReduceTaskLifecycleService taskLifecycleService = MapReduceTaskLifecycleService.getInstance();
+      log.tracef("For m/r task %s invoking %s on shuffled keys/values at %s", taskId, reduceCommand, cdl.getAddress());
+      long start = log.isTraceEnabled() ? timeService.time() : 0;
+      try {
+         taskLifecycleService.onPreExecute(reducer, cacheManager.getCache(reduceCommand.getCacheName()));
+         buffer.reduce(reducer, result);
+      } finally {
+         buffer.release();
+         if (log.isTraceEnabled()) {
+            log.tracef("Reduce for task %s took %s milliseconds", taskId,
+                  timeService.timeDuration(start, TimeUnit.MILLISECONDS));
+         }
+         taskLifecycleService.onPostExecute(reducer);
+      }
+   }
+
+   @Override
+   @SuppressWarnings("unchecked")
+   public <KOut, VOut> void shuffle(ShuffleCommand<KOut, VOut> shuffle) {
+      String taskId = shuffle.getTaskId();
+      ShuffleBuffer<KOut, VOut> buffer = (ShuffleBuffer<KOut, VOut>) shuffleBuffers.get(taskId);
+      if (buffer == null) {
+         buffer = new ShuffleBuffer<KOut, VOut>(taskId, marshaller, shuffle.getMaxBufferedValues());
+         ShuffleBuffer<KOut, VOut> existing = (ShuffleBuffer<KOut, VOut>) shuffleBuffers.putIfAbsent(taskId, buffer);
+         if (existing != null) {
+            buffer = existing;
+         }
+      }
+      buffer.add(shuffle.getValues());
+   }
+
+   @Override
+   public void releaseShuffle(String taskId) {
+      ShuffleBuffer<?, ?> buffer = shuffleBuffers.remove(taskId);
+      if (buffer != null) {
+         buffer.release();
+      }
+   }
+
    @SuppressWarnings("unchecked")
    protected <KIn, VIn, KOut, VOut> CollectableCollector<KOut, VOut> map(
             MapCombineCommand<KIn, VIn, KOut, VOut> mcc) throws InterruptedException {
@@ -313,6 +377,9 @@ protected <KIn, VIn, KOut, VOut> void combine(MapCombineCommand<KIn, VIn, KOut,
 
    private <KIn, VIn, KOut, VOut> Set<KOut> migrateIntermediateKeysAndValues(
          MapCombineCommand<KIn, VIn, KOut, VOut> mcc, Map<KOut, List<VOut>> collectedValues) {
+      if (mcc.isStreamingShuffle()) {
+         return shuffleIntermediateKeysAndValues(mcc, collectedValues);
+      }
 
       String taskId =  mcc.getTaskId();
       String tmpCacheName = mcc.getIntermediateCacheName();
@@ -355,6 +422,92 @@ private <KIn, VIn, KOut, VOut> Set<KOut> migrateIntermediateKeysAndValues(
       return mapPhaseKeys;
    }
 
+   /**
+    * Streams intermediate keys/values to the nodes reducing them, in batches of at most chunkSize
+    * values. Batches are sent synchronously, so the map phase completes only once all its
+    * intermediate keys/values are buffered on the reducing nodes.
+    */
+   private <KIn, VIn, KOut, VOut> Set<KOut> shuffleIntermediateKeysAndValues(
+         MapCombineCommand<KIn, VIn, KOut, VOut> mcc, Map<KOut, List<VOut>> collectedValues) {
+      String taskId = mcc.getTaskId();
+      Cache<KIn, VIn> cache = cacheManager.getCache(mcc.getCacheName());
+      RpcManager rpcManager = cache.getAdvancedCache().getRpcManager();
+      CommandsFactory commandsFactory = cache.getAdvancedCache().getComponentRegistry().getComponent(CommandsFactory.class);
+      Map<Address, List<KOut>> keysToNodes = mapKeysToNodes(mcc.getShuffleTargets(), collectedValues.keySet());
+      long start = log.isTraceEnabled() ? timeService.time() : 0;
+      try {
+         for (Entry<Address, List<KOut>> entry : keysToNodes.entrySet()) {
+            Address target = entry.getKey();
+            log.tracef("For m/r task %s shuffling intermediate keys %s to %s", taskId, entry.getValue(), target);
+            Map<KOut, List<VOut>> batch = new HashMap<KOut, List<VOut>>();
+            int batchSize = 0;
+            for (KOut key : entry.getValue()) {
+               List<VOut> values = collectedValues.get(key);
+               for (int i = 0; i < values.size(); i += chunkSize) {
+                  List<VOut> chunk = values.subList(i, Math.min(values.size(), i + chunkSize));
+                  List<VOut> batchValues = batch.get(key);
+                  if (batchValues == null) {
+                     batchValues = new ArrayList<VOut>(chunk.size());
+                     batch.put(key, batchValues);
+                  }
+                  batchValues.addAll(chunk);
+                  batchSize += chunk.size();
+                  if (batchSize >= chunkSize) {
+                     sendShuffleBatch(mcc, rpcManager, commandsFactory, target, batch);
+                     batch = new HashMap<KOut, List<VOut>>();
+                     batchSize = 0;
+                  }
+               }
+            }
+            if (!batch.isEmpty()) {
+               sendShuffleBatch(mcc, rpcManager, commandsFactory, target, batch);
+            }
+         }
+      } finally {
+         if (log.isTraceEnabled()) {
+            log.tracef("Shuffling keys for task %s took %s milliseconds (Shuffled %s keys)",
+                  taskId, timeService.timeDuration(start, TimeUnit.MILLISECONDS), collectedValues.size());
+         }
+      }
+      return new HashSet<KOut>(collectedValues.keySet());
+   }
+
+   private <KIn, VIn, KOut, VOut> void sendShuffleBatch(MapCombineCommand<KIn, VIn, KOut, VOut> mcc,
+         RpcManager rpcManager, CommandsFactory commandsFactory, Address target, Map<KOut, List<VOut>> batch) {
+      ShuffleCommand<KOut, VOut> cmd = commandsFactory.buildShuffleCommand(mcc.getTaskId(), batch,
+            mcc.getMaxShuffleBufferSize());
+      if (target.equals(cdl.getAddress())) {
+         shuffle(cmd);
+         return;
+      }
+      Map<Address, Response> responses = rpcManager.invokeRemotely(Collections.singleton(target), cmd,
+            rpcManager.getDefaultRpcOptions(true));
+      for (Entry<Address, Response> e : responses.entrySet()) {
+         // ShuffleCommand doesn't return a value, so a successful shuffle has a null response
+         Response response = e.getValue();
+         if (response != null && !response.isSuccessful()) {
+            throw new CacheException("Could not shuffle intermediate keys/values for M/R task " + mcc.getTaskId()
+                  + " to " + e.getKey());
+         }
+      }
+   }
+
+   @Override
+   public <T> Map<Address, List<T>> mapKeysToNodes(List<Address> members, Collection<T> keysToMap) {
+      Map<Address, List<T>> addressToKey = new HashMap<Address, List<T>>();
+      MurmurHash3 hash = MurmurHash3.getInstance();
+      for (T key : keysToMap) {
+         Address owner = members.get((hash.hash(key) & Integer.MAX_VALUE) % members.size());
+         List<T> keysAtNode = addressToKey.get(owner);
+         if (keysAtNode == null) {
+            keysAtNode = new ArrayList<T>();
+            addressToKey.put(owner, keysAtNode);
+         }
+         keysAtNode.add(key);
+      }
+      return addressToKey;
+   }
+
    @Override
    public <T> Map<Address, List<T>> mapKeysToNodes(DistributionManager dm, String taskId,
             Collection<T> keysToMap) {
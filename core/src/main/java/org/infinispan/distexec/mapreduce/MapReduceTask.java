@@ -29,6 +29,7 @@
 import org.infinispan.commands.CreateCacheCommand;
 import org.infinispan.commands.read.MapCombineCommand;
 import org.infinispan.commands.read.ReduceCommand;
+import org.infinispan.commands.read.ShuffleCommand;
 import org.infinispan.commons.CacheException;
 import org.infinispan.commons.marshall.Marshaller;
 import org.infinispan.commons.marshall.StreamingMarshaller;
@@ -164,6 +165,10 @@
    protected String intermediateCacheConfigurationName = DEFAULT_TMP_CACHE_CONFIGURATION_NAME;
    private StateTransferManager stateTransferManager;
    private static final int MAX_COLLECTOR_SIZE = 1000;
+   private static final int DEFAULT_MAX_SHUFFLE_BUFFER_SIZE = 1000000;
+   protected boolean streamingShuffle;
+   protected int maxShuffleBufferSize = DEFAULT_MAX_SHUFFLE_BUFFER_SIZE;
+   private List<Address> shuffleTargets;
 
    /**
     * Create a new MapReduceTask given a master cache node. All distributed task executions will be
@@ -351,6 +356,7 @@ public MapReduceTask<KIn, VIn, KOut, VOut> usingIntermediateCache(String cacheCo
       }
       this.intermediateCacheConfigurationName = cacheConfigurationName;
       this.useIntermediateSharedCache = false;
+      this.streamingShuffle = false;
       return this;
    }
 
@@ -371,6 +377,7 @@ public MapReduceTask<KIn, VIn, KOut, VOut> usingSharedIntermediateCache(String c
       }
       this.customIntermediateCacheName = cacheName;
       this.useIntermediateSharedCache = true;
+      this.streamingShuffle = false;
       return this;
    }
 
@@ -402,6 +409,42 @@ public MapReduceTask<KIn, VIn, KOut, VOut> usingSharedIntermediateCache(String c
       this.customIntermediateCacheName = cacheName;
       this.intermediateCacheConfigurationName = cacheConfigurationName;
       this.useIntermediateSharedCache = true;
+      this.streamingShuffle = false;
+      return this;
+   }
+
+   /**
+    * Allows this MapReduceTask to stream intermediate <KOut, List<VOut>> key/values pairs directly to
+    * the nodes reducing them, instead of storing them in an intermediate cache. Output of the map
+    * phase is combined, partitioned by reducing node and sent in batches; reducing nodes buffer it in
+    * memory and spill it to local disk when the buffer is full or the heap is nearly exhausted.
+    * <p>
+    * No intermediate cache is created, so intermediate key/values pairs are neither locked nor
+    * replicated. However, the task fails if a node leaves the cluster while it is executed.
+    * Only applies to tasks with a distributed reduce phase.
+    *
+    * @return this MapReduceTask iteself
+    * @since 7.2
+    */
+   public MapReduceTask<KIn, VIn, KOut, VOut> usingStreamingShuffle() {
+      return usingStreamingShuffle(DEFAULT_MAX_SHUFFLE_BUFFER_SIZE);
+   }
+
+   /**
+    * Same as {@link #usingStreamingShuffle()}, but limits the number of intermediate values each
+    * reducing node keeps in memory before spilling them to local disk.
+    *
+    * @param maxBufferedValues
+    *           the number of intermediate values buffered in memory by each reducing node
+    * @return this MapReduceTask iteself
+    * @since 7.2
+    */
+   public MapReduceTask<KIn, VIn, KOut, VOut> usingStreamingShuffle(int maxBufferedValues) {
+      if (maxBufferedValues <= 0) {
+         throw new IllegalArgumentException("Invalid buffer size " + maxBufferedValues);
+      }
+      this.streamingShuffle = true;
+      this.maxShuffleBufferSize = maxBufferedValues;
       return this;
    }
 
@@ -464,7 +507,18 @@ protected Map<KOut, VOut> executeHelper(String resultCache) throws NullPointerEx
          throw new NullPointerException("A valid reference of Reducer is not set " + reducer);
 
       Map<KOut,VOut> result = null;
-      if(!isLocalOnly && distributeReducePhase()){
+      if (!isLocalOnly && distributeReducePhase() && useStreamingShuffle()) {
+         // reducing nodes are fixed for the whole task
+         shuffleTargets = new ArrayList<Address>(cache.getRpcManager().getMembers());
+         try {
+            result = executeReducePhase(resultCache, executeMapPhase(), false);
+         } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            throw new MapReduceException(ie);
+         } finally {
+            releaseShuffle();
+         }
+      } else if(!isLocalOnly && distributeReducePhase()){
          // init and create tmp caches
          executeTaskInit(getIntermediateCacheName());
          Set<KOut> allMapPhasesResponses = null;
@@ -528,6 +582,26 @@ protected boolean useIntermediatePerTaskCache() {
       return !useIntermediateSharedCache();
    }
 
+   protected boolean useStreamingShuffle() {
+      return streamingShuffle;
+   }
+
+   /**
+    * Releases the intermediate key/values pairs left on the reducing nodes if the task failed before
+    * or during its reduce phase.
+    */
+   protected void releaseShuffle() {
+      RpcManager rpc = cache.getRpcManager();
+      CommandsFactory factory = cache.getComponentRegistry().getComponent(CommandsFactory.class);
+      ShuffleCommand<KOut, VOut> release = factory.buildShuffleCommand(taskId.toString(), null, maxShuffleBufferSize);
+      mapReduceManager.releaseShuffle(taskId.toString());
+      try {
+         rpc.invokeRemotely(shuffleTargets, release, rpc.getDefaultRpcOptions(false));
+      } catch (Exception e) {
+         log.debugf(e, "Could not release intermediate key/values of %s", this);
+      }
+   }
+
 
    protected void executeTaskInit(String tmpCacheName) throws MapReduceException {
       RpcManager rpc = cache.getRpcManager();
@@ -695,11 +769,18 @@ protected <V> MapTaskPart<V> createTaskMapPart(MapCombineCommand<KIn, VIn, KOut,
    protected Map<KOut, VOut> executeReducePhase(String resultCache, Set<KOut> allMapPhasesResponses,
             boolean useIntermediateSharedCache) throws MapReduceException, InterruptedException {
       RpcManager rpc = cache.getRpcManager();
-      String destCache = getIntermediateCacheName();
-
-      Cache<Object, Object> dstCache = cache.getCacheManager().getCache(destCache);
-      Map<Address, ? extends Collection<KOut>> keysToNodes = mapKeysToNodes(dstCache.getAdvancedCache()
-               .getDistributionManager(), allMapPhasesResponses, useIntermediateSharedCache);
+      String destCache;
+      Map<Address, ? extends Collection<KOut>> keysToNodes;
+      if (useStreamingShuffle()) {
+         // intermediate key/values pairs are buffered by the MapReduceManager of the input cache
+         destCache = cache.getName();
+         keysToNodes = mapReduceManager.mapKeysToNodes(shuffleTargets, allMapPhasesResponses);
+      } else {
+         destCache = getIntermediateCacheName();
+         Cache<Object, Object> dstCache = cache.getCacheManager().getCache(destCache);
+         keysToNodes = mapKeysToNodes(dstCache.getAdvancedCache().getDistributionManager(), allMapPhasesResponses,
+               useIntermediateSharedCache);
+      }
       Map<KOut, VOut> reduceResult = new HashMap<KOut, VOut>();
       List<ReduceTaskPart<Map<KOut, VOut>>> reduceTasks = new ArrayList<ReduceTaskPart<Map<KOut, VOut>>>();
       ReduceCommand<KOut, VOut> reduceCommand = null;
@@ -765,6 +846,9 @@ private MapCombineCommand<KIn, VIn, KOut, VOut> buildMapCombineCommand(
       c.setUseIntermediateSharedCache(useIntermediateSharedCache);
       c.setIntermediateCacheName(intermediateCacheName);
       c.setMaxCollectorSize(MAX_COLLECTOR_SIZE);
+      if (reducePhaseDistributed && useStreamingShuffle()) {
+         c.setStreamingShuffle(shuffleTargets, maxShuffleBufferSize);
+      }
       return c;
    }
 
@@ -775,6 +859,7 @@ private ReduceCommand<KOut, VOut> buildReduceCommand(String resultCacheName, Str
       ReduceCommand<KOut, VOut> reduceCommand = factory.buildReduceCommand(taskId, destinationCache, r, keys);
       reduceCommand.setUseIntermediateSharedCache(useIntermediateSharedCache);
       reduceCommand.setResultCacheName(resultCacheName);
+      reduceCommand.setStreamingShuffle(useStreamingShuffle());
       return reduceCommand;
    }
 
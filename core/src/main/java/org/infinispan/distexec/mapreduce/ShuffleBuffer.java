@@ -0,0 +1,183 @@
+package org.infinispan.distexec.mapreduce;
+
+import org.infinispan.commons.CacheException;
+import org.infinispan.commons.marshall.StreamingMarshaller;
+import org.infinispan.util.logging.Log;
+import org.infinispan.util.logging.LogFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+/**
+ * Intermediate keys/values of a MapReduceTask streamed to the node reducing them.
+ * <p>
+ * Values are kept in memory until either their number exceeds the configured limit or the heap is
+ * nearly exhausted; the buffered values are then spilled to local disk, hash partitioned by key.
+ * Reduction processes one partition at a time, so only the values of a fraction of the keys are
+ * loaded back in memory at once.
+ * <p>
+ * This is an internal class, not intended to be used by clients.
+ *
+ * @since 7.2
+ */
+final class ShuffleBuffer<KOut, VOut> {
+
+   private static final Log log = LogFactory.getLog(ShuffleBuffer.class);
+   private static final int SPILL_PARTITIONS = 16;
+   // spill early when less than this fraction of the maximum heap is free
+   private static final int MIN_FREE_HEAP_RATIO = 10;
+
+   private final String taskId;
+   private final StreamingMarshaller marshaller;
+   private final int maxBufferedValues;
+   private Map<KOut, List<VOut>> buffered = new HashMap<KOut, List<VOut>>();
+   private int bufferedValues;
+   private File spillDir;
+   private final List<List<File>> spills = new ArrayList<List<File>>(SPILL_PARTITIONS);
+   private int spillCount;
+
+   ShuffleBuffer(String taskId, StreamingMarshaller marshaller, int maxBufferedValues) {
+      this.taskId = taskId;
+      this.marshaller = marshaller;
+      this.maxBufferedValues = maxBufferedValues;
+      for (int i = 0; i < SPILL_PARTITIONS; i++) {
+         spills.add(new ArrayList<File>());
+      }
+   }
+
+   synchronized void add(Map<KOut, List<VOut>> values) {
+      for (Entry<KOut, List<VOut>> e : values.entrySet()) {
+         List<VOut> list = buffered.get(e.getKey());
+         if (list == null) {
+            list = new ArrayList<VOut>(e.getValue().size());
+            buffered.put(e.getKey(), list);
+         }
+         list.addAll(e.getValue());
+         bufferedValues += e.getValue().size();
+      }
+      if (bufferedValues > maxBufferedValues || isMemoryShort()) {
+         spill();
+      }
+   }
+
+   /**
+    * Merges the buffered and spilled values of each key and passes them to the reducer.
+    */
+   synchronized void reduce(Reducer<KOut, VOut> reducer, Map<KOut, VOut> result) {
+      if (spillCount == 0) {
+         reduce(reducer, buffered, result);
+         return;
+      }
+      List<Map<KOut, List<VOut>>> partitions = partition(buffered);
+      buffered = new HashMap<KOut, List<VOut>>();
+      bufferedValues = 0;
+      for (int i = 0; i < SPILL_PARTITIONS; i++) {
+         Map<KOut, List<VOut>> merged = partitions.get(i);
+         partitions.set(i, null);
+         for (File file : spills.get(i)) {
+            merge(merged, read(file));
+         }
+         reduce(reducer, merged, result);
+      }
+   }
+
+   synchronized void release() {
+      buffered = new HashMap<KOut, List<VOut>>();
+      bufferedValues = 0;
+      for (List<File> files : spills) {
+         for (File file : files) {
+            delete(file);
+         }
+         files.clear();
+      }
+      spillCount = 0;
+      if (spillDir != null) {
+         delete(spillDir);
+         spillDir = null;
+      }
+   }
+
+   private void reduce(Reducer<KOut, VOut> reducer, Map<KOut, List<VOut>> values, Map<KOut, VOut> result) {
+      for (Entry<KOut, List<VOut>> e : values.entrySet()) {
+         VOut reduced = reducer.reduce(e.getKey(), e.getValue().iterator());
+         result.put(e.getKey(), reduced);
+         log.tracef("For m/r task %s reduced %s to %s", taskId, e.getKey(), reduced);
+      }
+   }
+
+   private void spill() {
+      try {
+         if (spillDir == null) {
+            spillDir = Files.createTempDirectory("infinispan-mapreduce-" + taskId).toFile();
+         }
+         List<Map<KOut, List<VOut>>> partitions = partition(buffered);
+         for (int i = 0; i < SPILL_PARTITIONS; i++) {
+            Map<KOut, List<VOut>> partition = partitions.get(i);
+            if (!partition.isEmpty()) {
+               File file = new File(spillDir, spillCount + "-" + i);
+               Files.write(file.toPath(), marshaller.objectToByteBuffer(partition));
+               spills.get(i).add(file);
+            }
+         }
+         log.tracef("For m/r task %s spilled %s values to %s", taskId, bufferedValues, spillDir);
+         spillCount++;
+         buffered = new HashMap<KOut, List<VOut>>();
+         bufferedValues = 0;
+      } catch (InterruptedException e) {
+         Thread.currentThread().interrupt();
+         throw new CacheException("Interrupted while spilling intermediate values of M/R task " + taskId, e);
+      } catch (Exception e) {
+         throw new CacheException("Could not spill intermediate values of M/R task " + taskId, e);
+      }
+   }
+
+   @SuppressWarnings("unchecked")
+   private Map<KOut, List<VOut>> read(File file) {
+      try {
+         return (Map<KOut, List<VOut>>) marshaller.objectFromByteBuffer(Files.readAllBytes(file.toPath()));
+      } catch (IOException | ClassNotFoundException e) {
+         throw new CacheException("Could not read spilled intermediate values of M/R task " + taskId, e);
+      }
+   }
+
+   private List<Map<KOut, List<VOut>>> partition(Map<KOut, List<VOut>> values) {
+      List<Map<KOut, List<VOut>>> partitions = new ArrayList<Map<KOut, List<VOut>>>(SPILL_PARTITIONS);
+      for (int i = 0; i < SPILL_PARTITIONS; i++) {
+         partitions.add(new HashMap<KOut, List<VOut>>());
+      }
+      for (Entry<KOut, List<VOut>> e : values.entrySet()) {
+         int partition = (e.getKey().hashCode() & Integer.MAX_VALUE) % SPILL_PARTITIONS;
+         partitions.get(partition).put(e.getKey(), e.getValue());
+      }
+      return partitions;
+   }
+
+   private void merge(Map<KOut, List<VOut>> target, Map<KOut, List<VOut>> values) {
+      for (Entry<KOut, List<VOut>> e : values.entrySet()) {
+         List<VOut> list = target.get(e.getKey());
+         if (list == null) {
+            target.put(e.getKey(), e.getValue());
+         } else {
+            list.addAll(e.getValue());
+         }
+      }
+   }
+
+   private void delete(File file) {
+      if (!file.delete()) {
+         log.debugf("For m/r task %s could not delete %s", taskId, file);
+      }
+   }
+
+   private static boolean isMemoryShort() {
+      Runtime runtime = Runtime.getRuntime();
+      long used = runtime.totalMemory() - runtime.freeMemory();
+      return runtime.maxMemory() - used < runtime.maxMemory() / MIN_FREE_HEAP_RATIO;
+   }
+}
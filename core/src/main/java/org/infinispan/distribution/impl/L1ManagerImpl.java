@@ -3,42 +3,75 @@
 import org.infinispan.commands.CommandsFactory;
 import org.infinispan.commands.remote.SingleRpcCommand;
 import org.infinispan.commands.write.InvalidateCommand;
+import org.infinispan.commons.CacheException;
 import org.infinispan.commons.util.CollectionFactory;
 import org.infinispan.commons.util.InfinispanCollections;
+import org.infinispan.commons.util.concurrent.NotifyingFuture;
 import org.infinispan.container.entries.InternalCacheEntry;
 import org.infinispan.context.Flag;
 import org.infinispan.factories.KnownComponentNames;
 import org.infinispan.factories.annotations.ComponentName;
 import org.infinispan.configuration.cache.Configuration;
+import org.infinispan.distribution.DistributionManager;
 import org.infinispan.distribution.L1Manager;
 import org.infinispan.distribution.RemoteValueRetrievedListener;
 import org.infinispan.factories.annotations.Inject;
 import org.infinispan.factories.annotations.Start;
 import org.infinispan.factories.annotations.Stop;
 import org.infinispan.interceptors.distribution.L1WriteSynchronizer;
+import org.infinispan.jmx.JmxStatisticsExposer;
+import org.infinispan.jmx.annotations.DataType;
+import org.infinispan.jmx.annotations.MBean;
+import org.infinispan.jmx.annotations.ManagedAttribute;
+import org.infinispan.jmx.annotations.ManagedOperation;
+import org.infinispan.jmx.annotations.MeasurementType;
 import org.infinispan.remoting.inboundhandler.DeliverOrder;
 import org.infinispan.remoting.rpc.ResponseMode;
 import org.infinispan.remoting.rpc.RpcManager;
+import org.infinispan.remoting.responses.Response;
 import org.infinispan.remoting.rpc.RpcOptions;
 import org.infinispan.remoting.transport.Address;
 import org.infinispan.util.TimeService;
 import org.infinispan.util.logging.Log;
 import org.infinispan.util.logging.LogFactory;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
 import static org.infinispan.factories.KnownComponentNames.ASYNC_TRANSPORT_EXECUTOR;
 
-public class L1ManagerImpl implements L1Manager, RemoteValueRetrievedListener {
+/**
+ * Tracks the nodes that cached the keys owned by this node in their L1, and invalidates them when the keys are
+ * written.
+ * <p/>
+ * The requestors are tracked per key by default. With {@link org.infinispan.configuration.cache.L1Configuration#segmentTracking()}
+ * they are tracked per segment instead, which bounds the memory used by the tracking data to the number of segments
+ * times the number of nodes, at the price of invalidating a key on every node that read any key of its segment.
+ * <p/>
+ * With a positive {@link org.infinispan.configuration.cache.L1Configuration#invalidationBatchWindow()}, the
+ * invalidations are collected during the window and then sent with a single command per write origin and target
+ * node.
+ */
+@MBean(objectName = "L1Manager", description = "Component that tracks and invalidates the L1 entries of the keys owned by this node")
+public class L1ManagerImpl implements L1Manager, RemoteValueRetrievedListener, JmxStatisticsExposer {
 
    private static final Log log = LogFactory.getLog(L1ManagerImpl.class);
    private final boolean trace = log.isTraceEnabled();
@@ -49,9 +82,14 @@ public class L1ManagerImpl implements L1Manager, RemoteValueRetrievedListener {
    private int threshold;
    private long l1Lifespan;
    private ExecutorService asyncTransportExecutor;
+   private DistributionManager distributionManager;
+   private boolean segmentTracking;
+   private long invalidationBatchWindow;
 
    // TODO replace this with a custom, expirable collection
    private final ConcurrentMap<Object, ConcurrentMap<Address, Long>> requestors;
+   // The requestors of each segment, only used with segment tracking
+   private AtomicReferenceArray<ConcurrentMap<Address, Long>> segmentRequestors;
    private final ConcurrentMap<Object, L1WriteSynchronizer> synchronizers;
    private ScheduledExecutorService scheduledExecutor;
    private ScheduledFuture<?> scheduledRequestorsCleanupTask;
@@ -59,6 +97,15 @@ public class L1ManagerImpl implements L1Manager, RemoteValueRetrievedListener {
 
    private RpcOptions syncIgnoreLeaversRpcOptions;
 
+   private final Object batchLock = new Object();
+   // guarded by batchLock
+   private InvalidationBatch pendingBatch;
+
+   private volatile boolean statisticsEnabled;
+   private final AtomicLong invalidatedEntries = new AtomicLong();
+   private final AtomicLong avoidedInvalidations = new AtomicLong();
+   private final AtomicLong invalidationCommands = new AtomicLong();
+
    public L1ManagerImpl() {
       requestors = CollectionFactory.makeConcurrentMap();
       synchronizers = CollectionFactory.makeConcurrentMap();
@@ -77,10 +124,21 @@ public void init(Configuration configuration, RpcManager rpcManager, CommandsFac
       this.timeService = timeService;
    }
 
+   @Inject
+   public void injectDistributionManager(DistributionManager distributionManager) {
+      this.distributionManager = distributionManager;
+   }
+
    @Start (priority = 3)
    public void start() {
       this.threshold = configuration.clustering().l1().invalidationThreshold();
       this.l1Lifespan = configuration.clustering().l1().lifespan();
+      this.segmentTracking = configuration.clustering().l1().segmentTracking();
+      this.invalidationBatchWindow = configuration.clustering().l1().invalidationBatchWindow();
+      if (segmentTracking) {
+         segmentRequestors = new AtomicReferenceArray<ConcurrentMap<Address, Long>>(configuration.clustering().hash().numSegments());
+      }
+      this.statisticsEnabled = configuration.jmxStatistics().enabled();
       if (configuration.clustering().l1().cleanupTaskFrequency() > 0) {
          scheduledRequestorsCleanupTask = scheduledExecutor.scheduleAtFixedRate(new Runnable() {
             @Override
@@ -101,6 +159,21 @@ public void run() {
    @Stop (priority = 3)
    public void stop() {
       if (scheduledRequestorsCleanupTask != null) scheduledRequestorsCleanupTask.cancel(true);
+      // Don't leave the writers waiting for the end of the batch window, but don't block the shutdown on the RPCs
+      InvalidationBatch batch;
+      synchronized (batchLock) {
+         batch = pendingBatch;
+         pendingBatch = null;
+      }
+      if (batch != null) {
+         batch.scheduledSend.cancel(false);
+         try {
+            asyncTransportExecutor.execute(batch.future);
+         } catch (RejectedExecutionException e) {
+            log.debugf("Unable to send the pending L1 invalidations on shutdown: %s", e.getMessage());
+            batch.future.cancel(false);
+         }
+      }
    }
 
    private void cleanUpRequestors() {
@@ -111,6 +184,13 @@ private void cleanUpRequestors() {
          prune(reqs, expiryTime);
          if (reqs.isEmpty()) requestors.remove(key);
       }
+      if (segmentTracking) {
+         // The segment maps are kept, their number is bounded
+         for (int i = 0; i < segmentRequestors.length(); i++) {
+            ConcurrentMap<Address, Long> reqs = segmentRequestors.get(i);
+            if (reqs != null) prune(reqs, expiryTime);
+         }
+      }
    }
 
    private void prune(ConcurrentMap<Address, Long> reqs, long expiryTime) {
@@ -121,6 +201,11 @@ private void prune(ConcurrentMap<Address, Long> reqs, long expiryTime) {
 
    @Override
    public void addRequestor(Object key, Address origin) {
+      if (segmentTracking) {
+         log.tracef("Registering requestor %s for the segment of key '%s'", origin, key);
+         getSegmentRequestors(key).put(origin, timeService.wallClockTime());
+         return;
+      }
       //we do a plain get first as that's likely to be enough
       ConcurrentMap<Address, Long> as = requestors.get(key);
       log.tracef("Registering requestor %s for key '%s'", origin, key);
@@ -139,22 +224,42 @@ public void addRequestor(Object key, Address origin) {
       }
    }
 
+   private ConcurrentMap<Address, Long> getSegmentRequestors(Object key) {
+      int segment = distributionManager.getReadConsistentHash().getSegment(key);
+      ConcurrentMap<Address, Long> as = segmentRequestors.get(segment);
+      if (as == null) {
+         as = CollectionFactory.makeConcurrentMap();
+         if (!segmentRequestors.compareAndSet(segment, null, as)) {
+            as = segmentRequestors.get(segment);
+         }
+      }
+      return as;
+   }
+
    @Override
    public Future<Object> flushCache(Collection<Object> keys, Address origin, boolean assumeOriginKeptEntryInL1) {
-      final Collection<Address> invalidationAddresses = buildInvalidationAddressList(keys, origin, assumeOriginKeptEntryInL1);
+      final Map<Address, Collection<Object>> keysByTarget = buildInvalidationTargets(keys, origin, assumeOriginKeptEntryInL1);
+      final Collection<Address> invalidationAddresses = keysByTarget.keySet();
 
       int nodes = invalidationAddresses.size();
 
-      if (nodes > 0) {
-         InvalidateCommand ic = commandsFactory.buildInvalidateFromL1Command(origin, InfinispanCollections.<Flag>emptySet(), keys);
-         final SingleRpcCommand rpcCommand = commandsFactory.buildSingleRpcCommand(ic);
-
+      if (nodes > 0 && invalidationBatchWindow > 0) {
+         boolean multicast = isUseMulticast(nodes);
+         if (trace) log.tracef("Batching invalidation of keys %s on nodes %s. Use multicast? %s", keys, invalidationAddresses, multicast);
+         return addToBatch(origin, multicast ? Collections.<Address, Collection<Object>>singletonMap(null, keys) : keysByTarget);
+      } else if (nodes > 0) {
          // No need to invalidate at all if there is no one to invalidate!
          boolean multicast = isUseMulticast(nodes);
          if (trace) log.tracef("Invalidating keys %s on nodes %s. Use multicast? %s", keys, invalidationAddresses, multicast);
 
          Runnable toExecute;
          if (multicast) {
+            InvalidateCommand ic = commandsFactory.buildInvalidateFromL1Command(origin, InfinispanCollections.<Flag>emptySet(), keys);
+            final SingleRpcCommand rpcCommand = commandsFactory.buildSingleRpcCommand(ic);
+            if (statisticsEnabled) {
+               invalidationCommands.incrementAndGet();
+               invalidatedEntries.addAndGet(keys.size());
+            }
             toExecute = new Runnable() {
                @Override
                public void run() {
@@ -162,10 +267,36 @@ public void run() {
                }
             };
          } else {
+            // Each requestor only receives the keys it requested
+            final Map<Address, SingleRpcCommand> commands = new HashMap<Address, SingleRpcCommand>(nodes);
+            for (Map.Entry<Address, Collection<Object>> e : keysByTarget.entrySet()) {
+               InvalidateCommand ic = commandsFactory.buildInvalidateFromL1Command(origin,
+                     InfinispanCollections.<Flag>emptySet(), e.getValue());
+               commands.put(e.getKey(), commandsFactory.buildSingleRpcCommand(ic));
+               if (statisticsEnabled) {
+                  invalidationCommands.incrementAndGet();
+                  invalidatedEntries.addAndGet(e.getValue().size());
+               }
+            }
             toExecute = new Runnable() {
                @Override
                public void run() {
-                  rpcManager.invokeRemotely(invalidationAddresses, rpcCommand, syncIgnoreLeaversRpcOptions);
+                  List<NotifyingFuture<Map<Address, Response>>> futures =
+                        new ArrayList<NotifyingFuture<Map<Address, Response>>>(commands.size());
+                  for (Map.Entry<Address, SingleRpcCommand> e : commands.entrySet()) {
+                     futures.add(rpcManager.invokeRemotelyAsync(Collections.singletonList(e.getKey()), e.getValue(),
+                                                                syncIgnoreLeaversRpcOptions));
+                  }
+                  for (NotifyingFuture<Map<Address, Response>> f : futures) {
+                     try {
+                        f.get();
+                     } catch (InterruptedException ie) {
+                        Thread.currentThread().interrupt();
+                        return;
+                     } catch (ExecutionException ee) {
+                        throw new CacheException(ee.getCause());
+                     }
+                  }
                }
             };
          }
@@ -176,24 +307,65 @@ public void run() {
       }
    }
 
-   private Collection<Address> buildInvalidationAddressList(Collection<Object> keys, Address origin, boolean assumeOriginKeptEntryInL1) {
-      Collection<Address> addresses = new HashSet<Address>(2);
-      boolean originIsInRequestorsList = false;
+   /**
+    * @return the keys to invalidate on each requestor, excluding the origin if it kept the new value in its L1.
+    */
+   private Map<Address, Collection<Object>> buildInvalidationTargets(Collection<Object> keys, Address origin, boolean assumeOriginKeptEntryInL1) {
+      Map<Address, Collection<Object>> keysByTarget = new HashMap<Address, Collection<Object>>(4);
+      int avoided = 0;
       for (Object key : keys) {
-         ConcurrentMap<Address, Long> as = requestors.remove(key);
-         if (as != null) {
-            Set<Address> requestorAddresses = as.keySet();
-            addresses.addAll(requestorAddresses);
-            if (assumeOriginKeptEntryInL1 && origin != null && requestorAddresses.contains(origin)) {
-               originIsInRequestorsList = true;
-               // re-add the origin as a requestor since the key will still be in the origin's L1 cache
-               addRequestor(key, origin);
+         Set<Address> requestorAddresses = getRequestorsToInvalidate(key);
+         // Prevent a loop by not sending the invalidation message to the origin
+         boolean originKeptEntry = assumeOriginKeptEntryInL1 && origin != null && requestorAddresses.contains(origin);
+         if (originKeptEntry && !segmentTracking) {
+            // re-add the origin as a requestor since the key will still be in the origin's L1 cache
+            addRequestor(key, origin);
+         }
+         boolean invalidated = false;
+         for (Address requestor : requestorAddresses) {
+            if (originKeptEntry && requestor.equals(origin))
+               continue;
+            Collection<Object> targetKeys = keysByTarget.get(requestor);
+            if (targetKeys == null) {
+               targetKeys = new ArrayList<Object>(keys.size());
+               keysByTarget.put(requestor, targetKeys);
             }
+            targetKeys.add(key);
+            invalidated = true;
+         }
+         if (!invalidated) avoided++;
+      }
+      if (statisticsEnabled && avoided > 0) avoidedInvalidations.addAndGet(avoided);
+      return keysByTarget;
+   }
+
+   private Set<Address> getRequestorsToInvalidate(Object key) {
+      if (segmentTracking) {
+         // The other keys of the segment may still be cached by the requestors, so they stay registered
+         return getSegmentRequestors(key).keySet();
+      }
+      ConcurrentMap<Address, Long> as = requestors.remove(key);
+      return as == null ? InfinispanCollections.<Address>emptySet() : as.keySet();
+   }
+
+   private Future<Object> addToBatch(Address origin, Map<Address, Collection<Object>> keysByTarget) {
+      synchronized (batchLock) {
+         if (pendingBatch == null) {
+            final InvalidationBatch batch = new InvalidationBatch();
+            pendingBatch = batch;
+            batch.scheduledSend = scheduledExecutor.schedule(new Runnable() {
+               @Override
+               public void run() {
+                  synchronized (batchLock) {
+                     if (pendingBatch == batch) pendingBatch = null;
+                  }
+                  asyncTransportExecutor.execute(batch.future);
+               }
+            }, invalidationBatchWindow, TimeUnit.MILLISECONDS);
          }
+         pendingBatch.add(origin, keysByTarget);
+         return pendingBatch.future;
       }
-      // Prevent a loop by not sending the invalidation message to the origin
-      if (originIsInRequestorsList) addresses.remove(origin);
-      return addresses;
    }
 
    private boolean isUseMulticast(int nodes) {
@@ -230,6 +402,56 @@ public void remoteValueFound(InternalCacheEntry ice) {
       }
    }
 
+   @ManagedAttribute(description = "The number of L1 entries invalidated on other nodes", displayName = "Number of L1 invalidated entries", measurementType = MeasurementType.TRENDSUP)
+   public long getInvalidatedEntries() {
+      return invalidatedEntries.get();
+   }
+
+   @ManagedAttribute(description = "The number of written keys that did not need an L1 invalidation because no other node cached them", displayName = "Number of avoided L1 invalidations", measurementType = MeasurementType.TRENDSUP)
+   public long getAvoidedInvalidations() {
+      return avoidedInvalidations.get();
+   }
+
+   @ManagedAttribute(description = "The number of L1 invalidation commands sent", displayName = "Number of L1 invalidation commands", measurementType = MeasurementType.TRENDSUP)
+   public long getInvalidationCommands() {
+      return invalidationCommands.get();
+   }
+
+   @ManagedAttribute(description = "The number of keys, or segments with segment tracking, for which L1 requestors are tracked", displayName = "Number of tracked L1 keys or segments")
+   public int getTrackedRequestorEntries() {
+      if (!segmentTracking)
+         return requestors.size();
+      int count = 0;
+      for (int i = 0; i < segmentRequestors.length(); i++) {
+         ConcurrentMap<Address, Long> reqs = segmentRequestors.get(i);
+         if (reqs != null && !reqs.isEmpty()) count++;
+      }
+      return count;
+   }
+
+   @ManagedAttribute(description = "Enables or disables the gathering of statistics by this component", displayName = "Statistics enabled", dataType = DataType.TRAIT, writable = true)
+   public boolean isStatisticsEnabled() {
+      return statisticsEnabled;
+   }
+
+   @Override
+   public boolean getStatisticsEnabled() {
+      return isStatisticsEnabled();
+   }
+
+   @Override
+   public void setStatisticsEnabled(boolean statisticsEnabled) {
+      this.statisticsEnabled = statisticsEnabled;
+   }
+
+   @Override
+   @ManagedOperation(description = "Resets statistics gathered by this component", displayName = "Reset statistics")
+   public void resetStatistics() {
+      invalidatedEntries.set(0);
+      avoidedInvalidations.set(0);
+      invalidationCommands.set(0);
+   }
+
    @Override
    public void remoteValueNotFound(Object key) {
       L1WriteSynchronizer synchronizer = synchronizers.get(key);
@@ -238,4 +460,57 @@ public void remoteValueNotFound(Object key) {
          synchronizer.runL1UpdateIfPossible(null);
       }
    }
+
+   /**
+    * The invalidations collected during a batch window, sent with one command per write origin and target node.
+    */
+   private class InvalidationBatch implements Callable<Object> {
+      // write origin -> target node (null for a multicast) -> keys
+      private final Map<Address, Map<Address, Set<Object>>> keys = new HashMap<Address, Map<Address, Set<Object>>>(4);
+      private final FutureTask<Object> future = new FutureTask<Object>(this);
+      // guarded by batchLock
+      private ScheduledFuture<?> scheduledSend;
+
+      // guarded by batchLock
+      void add(Address origin, Map<Address, Collection<Object>> keysByTarget) {
+         Map<Address, Set<Object>> originKeys = keys.get(origin);
+         if (originKeys == null) {
+            originKeys = new HashMap<Address, Set<Object>>(4);
+            keys.put(origin, originKeys);
+         }
+         for (Map.Entry<Address, Collection<Object>> e : keysByTarget.entrySet()) {
+            Set<Object> targetKeys = originKeys.get(e.getKey());
+            if (targetKeys == null) {
+               targetKeys = new HashSet<Object>(e.getValue().size());
+               originKeys.put(e.getKey(), targetKeys);
+            }
+            targetKeys.addAll(e.getValue());
+         }
+      }
+
+      @Override
+      public Object call() throws Exception {
+         List<NotifyingFuture<Map<Address, Response>>> futures = new ArrayList<NotifyingFuture<Map<Address, Response>>>();
+         for (Map.Entry<Address, Map<Address, Set<Object>>> originEntry : keys.entrySet()) {
+            for (Map.Entry<Address, Set<Object>> targetEntry : originEntry.getValue().entrySet()) {
+               Address target = targetEntry.getKey();
+               Set<Object> targetKeys = targetEntry.getValue();
+               if (trace) log.tracef("Invalidating keys %s on node %s", targetKeys, target == null ? "all" : target);
+               InvalidateCommand ic = commandsFactory.buildInvalidateFromL1Command(originEntry.getKey(),
+                     InfinispanCollections.<Flag>emptySet(), targetKeys);
+               Collection<Address> recipients = target == null ? null : Collections.singletonList(target);
+               futures.add(rpcManager.invokeRemotelyAsync(recipients, commandsFactory.buildSingleRpcCommand(ic),
+                                                          syncIgnoreLeaversRpcOptions));
+               if (statisticsEnabled) {
+                  invalidationCommands.incrementAndGet();
+                  invalidatedEntries.addAndGet(targetKeys.size());
+               }
+            }
+         }
+         for (NotifyingFuture<Map<Address, Response>> f : futures) {
+            f.get();
+         }
+         return null;
+      }
+   }
 }
@@ -16,7 +16,11 @@ public enum EvictionStrategy {
    @Deprecated
    FIFO, 
    LRU, 
-   LIRS;
+   LIRS,
+   /*
+    * LRU window in front of a segmented LRU, admitting entries based on their estimated access frequency
+    */
+   TINY_LFU;
 
    public boolean isEnabled() {
       return this != NONE;
@@ -0,0 +1,17 @@
+package org.infinispan.eviction;
+
+/**
+ * Supported ways of measuring the size of a cache for eviction
+ *
+ * @since 7.2
+ */
+public enum EvictionType {
+   /*
+    * The size is the number of entries
+    */
+   COUNT,
+   /*
+    * The size is the estimated amount of memory used by the keys and values of the entries, in bytes
+    */
+   MEMORY;
+}
@@ -24,6 +24,7 @@
 import java.util.Map;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
 
 @ThreadSafe
@@ -74,8 +75,10 @@ public void start() {
          if (expWakeUpInt <= 0) {
             log.notStartingEvictionThread();
          } else {
+            // Spread the first run over half a wake up interval, so that the caches started together don't purge together
+            long initialDelay = expWakeUpInt - ThreadLocalRandom.current().nextLong(expWakeUpInt / 2 + 1);
             evictionTask = executor.scheduleWithFixedDelay(new ScheduledTask(),
-                  expWakeUpInt, expWakeUpInt, TimeUnit.MILLISECONDS);
+                  initialDelay, expWakeUpInt, TimeUnit.MILLISECONDS);
          }
       }
    }
@@ -3,10 +3,14 @@
 import org.infinispan.commons.equivalence.AnyEquivalence;
 import org.infinispan.commons.equivalence.Equivalence;
 import org.infinispan.commons.CacheConfigurationException;
+import org.infinispan.container.CacheEntrySizeCalculator;
 import org.infinispan.container.DataContainer;
 import org.infinispan.container.DefaultDataContainer;
+import org.infinispan.container.OffHeapDataContainer;
+import org.infinispan.container.SegmentedDataContainer;
 import org.infinispan.eviction.EvictionStrategy;
 import org.infinispan.eviction.EvictionThreadPolicy;
+import org.infinispan.eviction.EvictionType;
 import org.infinispan.factories.annotations.DefaultFactoryFor;
 
 /**
@@ -25,6 +29,17 @@ public class DataContainerFactory extends AbstractNamedCacheComponentFactory imp
    public <T> T construct(Class<T> componentType) {
       if (configuration.dataContainer().dataContainer() != null) {
          return (T) configuration.dataContainer().dataContainer();
+      } else if (configuration.dataContainer().offHeap()) {
+         if (configuration.eviction().strategy().isEnabled() && configuration.eviction().type() == EvictionType.MEMORY)
+            throw new CacheConfigurationException("Memory based eviction is not supported by off-heap data containers");
+         int level = configuration.locking().concurrencyLevel();
+         int maxEntries = configuration.eviction().strategy().isEnabled() ? configuration.eviction().maxEntries() : -1;
+         return (T) new OffHeapDataContainer(level, maxEntries);
+      } else if (configuration.dataContainer().segmented()) {
+         if (configuration.eviction().strategy().isEnabled() && configuration.eviction().size() >= 0)
+            throw new CacheConfigurationException("Eviction is not supported by segmented data containers");
+         return (T) new SegmentedDataContainer(configuration.locking().concurrencyLevel(),
+               configuration.clustering().hash().numSegments(), configuration.dataContainer().keyEquivalence());
       } else {
          EvictionStrategy st = configuration.eviction().strategy();
          int level = configuration.locking().concurrencyLevel();
@@ -38,17 +53,23 @@ public <T> T construct(Class<T> componentType) {
             case LRU:
             case FIFO:
             case LIRS:
-               int maxEntries = configuration.eviction().maxEntries();
+            case TINY_LFU:
+               long maxSize = configuration.eviction().size();
                //handle case when < 0 value signifies unbounded container 
-               if(maxEntries < 0) {
+               if(maxSize < 0) {
                    return (T) DefaultDataContainer.unBoundedDataContainer(
                          level, keyEquivalence);
                }
 
                EvictionThreadPolicy policy = configuration.eviction().threadPolicy();
 
+               if (configuration.eviction().type() == EvictionType.MEMORY) {
+                  return (T) DefaultDataContainer.boundedDataContainer(
+                     level, maxSize, st, policy, keyEquivalence,
+                     new CacheEntrySizeCalculator(componentRegistry.getCacheMarshaller()));
+               }
                return (T) DefaultDataContainer.boundedDataContainer(
-                  level, maxEntries, st, policy, keyEquivalence);
+                  level, configuration.eviction().maxEntries(), st, policy, keyEquivalence);
             default:
                throw new CacheConfigurationException("Unknown eviction strategy "
                         + configuration.eviction().strategy());
@@ -30,6 +30,7 @@
 import org.infinispan.lifecycle.ModuleLifecycle;
 import org.infinispan.manager.EmbeddedCacheManager;
 import org.infinispan.manager.EmbeddedCacheManagerStartupException;
+import org.infinispan.marshall.core.BinaryFormatNegotiator;
 import org.infinispan.notifications.cachemanagerlistener.CacheManagerNotifier;
 import org.infinispan.notifications.cachemanagerlistener.CacheManagerNotifierImpl;
 import org.infinispan.registry.ClusterRegistry;
@@ -110,6 +111,7 @@ public GlobalComponentRegistry(GlobalConfiguration configuration,
          registerComponent(new CacheManagerJmxRegistration(), CacheManagerJmxRegistration.class);
          registerComponent(new CacheManagerNotifierImpl(), CacheManagerNotifier.class);
          registerComponent(new ClusterRegistryImpl(), ClusterRegistry.class);
+         registerComponent(new BinaryFormatNegotiator(), BinaryFormatNegotiator.class);
 
          moduleProperties.loadModuleCommandHandlers(configuredClassLoader);
          Map<Byte, ModuleCommandFactory> factories = moduleProperties.moduleCommandFactories();
@@ -29,9 +29,11 @@
 import org.infinispan.distribution.group.GroupFilter;
 import org.infinispan.distribution.group.GroupManager;
 import org.infinispan.factories.annotations.Inject;
+import org.infinispan.factories.annotations.Start;
 import org.infinispan.filter.CollectionKeyFilter;
 import org.infinispan.filter.CompositeKeyFilter;
 import org.infinispan.filter.KeyFilter;
+import org.infinispan.interceptors.base.InvocationStageAware;
 import org.infinispan.interceptors.base.JmxStatsCommandInterceptor;
 import org.infinispan.jmx.annotations.DisplayType;
 import org.infinispan.jmx.annotations.MBean;
@@ -47,11 +49,13 @@
 import org.infinispan.persistence.manager.PersistenceManager;
 import org.infinispan.persistence.spi.AdvancedCacheLoader;
 import org.infinispan.util.TimeService;
+import org.infinispan.util.concurrent.IsolationLevel;
+import org.infinispan.util.concurrent.locks.LockManager;
 import org.infinispan.util.logging.Log;
 import org.infinispan.util.logging.LogFactory;
 
 @MBean(objectName = "CacheLoader", description = "Component that handles loading entries from a CacheStore into memory.")
-public class CacheLoaderInterceptor extends JmxStatsCommandInterceptor {
+public class CacheLoaderInterceptor extends JmxStatsCommandInterceptor implements InvocationStageAware {
    private final AtomicLong cacheLoads = new AtomicLong(0);
    private final AtomicLong cacheMisses = new AtomicLong(0);
 
@@ -63,6 +67,8 @@ public class CacheLoaderInterceptor extends JmxStatsCommandInterceptor {
    private InternalEntryFactory iceFactory;
    private DataContainer dataContainer;
    private GroupManager groupManager;
+   private LockManager lockManager;
+   private boolean optimisticLoad;
 
    private static final Log log = LogFactory.getLog(CacheLoaderInterceptor.class);
    private static final boolean trace = log.isTraceEnabled();
@@ -75,7 +81,7 @@ protected Log getLog() {
    @Inject
    protected void injectDependencies(PersistenceManager clm, EntryFactory entryFactory, CacheNotifier notifier,
                                      TimeService timeService, InternalEntryFactory iceFactory, DataContainer dataContainer,
-                                     GroupManager groupManager) {
+                                     GroupManager groupManager, LockManager lockManager) {
       this.persistenceManager = clm;
       this.notifier = notifier;
       this.entryFactory = entryFactory;
@@ -83,6 +89,16 @@ protected void injectDependencies(PersistenceManager clm, EntryFactory entryFact
       this.iceFactory = iceFactory;
       this.dataContainer = dataContainer;
       this.groupManager = groupManager;
+      this.lockManager = lockManager;
+   }
+
+   @Start
+   private void startCacheLoaderInterceptor() {
+      // Without transactions and with read committed, a read only needs an entry that was not modified while it was
+      // being loaded. With passivation, the entry is removed from the store when it is activated.
+      optimisticLoad = !cacheConfiguration.transaction().transactionMode().isTransactional()
+            && cacheConfiguration.locking().isolationLevel() == IsolationLevel.READ_COMMITTED
+            && !cacheConfiguration.persistence().passivation();
    }
 
    @Override
@@ -201,8 +217,13 @@ protected final Boolean loadIfNeeded(final InvocationContext ctx, Object key, fi
 
       final boolean isDelta = cmd instanceof ApplyDeltaCommand;
       final AtomicReference<Boolean> isLoaded = new AtomicReference<>();
-      InternalCacheEntry entry = PersistenceUtil.loadAndStoreInDataContainer(dataContainer, persistenceManager, key,
-                                                                             ctx, timeService, isLoaded);
+      InternalCacheEntry entry;
+      if (optimisticLoad && !(cmd instanceof WriteCommand)) {
+         entry = optimisticLoadAndStoreInDataContainer(ctx, key, isLoaded);
+      } else {
+         entry = PersistenceUtil.loadAndStoreInDataContainer(dataContainer, persistenceManager, key, ctx, timeService,
+                                                             isLoaded);
+      }
       Boolean isLoadedValue = isLoaded.get();
       if (trace) {
          log.tracef("Entry was loaded? %s", isLoadedValue);
@@ -226,6 +247,55 @@ protected final Boolean loadIfNeeded(final InvocationContext ctx, Object key, fi
       return isLoadedValue;
    }
 
+   /**
+    * Same as {@link PersistenceUtil#loadAndStoreInDataContainer}, but the entry is loaded from the store outside the
+    * data container lock, so that a slow store doesn't block the other keys in the same bin. The loaded entry is only
+    * stored if the key was not locked by a writer while loading it, otherwise it is loaded again under the lock.
+    */
+   private InternalCacheEntry optimisticLoadAndStoreInDataContainer(final InvocationContext ctx, Object key,
+                                                                    final AtomicReference<Boolean> isLoaded) {
+      final long stamp = lockManager.tryOptimisticRead(key);
+      if (stamp == 0) {
+         return PersistenceUtil.loadAndStoreInDataContainer(dataContainer, persistenceManager, key, ctx, timeService,
+                                                            isLoaded);
+      }
+      InternalCacheEntry existing = dataContainer.peek(key);
+      if (existing != null) {
+         isLoaded.set(null); //not loaded
+         return existing;
+      }
+
+      final MarshalledEntry preloaded = PersistenceUtil.loadAndCheckExpiration(persistenceManager, key, ctx, timeService);
+      if (preloaded == null && lockManager.validate(key, stamp)) {
+         isLoaded.set(Boolean.FALSE); //not loaded
+         return null;
+      }
+      return dataContainer.compute(key, new DataContainer.ComputeAction() {
+         @Override
+         public InternalCacheEntry compute(Object key, InternalCacheEntry oldEntry, InternalEntryFactory factory) {
+            if (oldEntry != null) {
+               isLoaded.set(null); //not loaded
+               return oldEntry; //no changes in container
+            }
+
+            MarshalledEntry loaded = preloaded;
+            if (!lockManager.validate(key, stamp)) {
+               if (trace) {
+                  log.tracef("Key %s was modified while loading it, loading it again", key);
+               }
+               loaded = PersistenceUtil.loadAndCheckExpiration(persistenceManager, key, ctx, timeService);
+            }
+            if (loaded == null) {
+               isLoaded.set(Boolean.FALSE); //not loaded
+               return null; //no changed in container
+            }
+
+            isLoaded.set(Boolean.TRUE); //loaded!
+            return convert(loaded, factory);
+         }
+      });
+   }
+
    private boolean skipLoad(FlagAffectedCommand cmd, Object key, InvocationContext ctx) {
       if (!shouldAttemptLookup(ctx.lookupEntry(key))) {
          if (trace) {
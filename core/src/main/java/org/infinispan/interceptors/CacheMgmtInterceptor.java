@@ -11,10 +11,14 @@
 import org.infinispan.commands.write.ReplaceCommand;
 import org.infinispan.commands.write.WriteCommand;
 import org.infinispan.container.DataContainer;
+import org.infinispan.container.DefaultDataContainer;
 import org.infinispan.context.Flag;
 import org.infinispan.context.InvocationContext;
+import org.infinispan.eviction.EvictionType;
 import org.infinispan.factories.annotations.Inject;
 import org.infinispan.factories.annotations.Start;
+import org.infinispan.interceptors.base.InvocationStage;
+import org.infinispan.interceptors.base.InvocationStageAware;
 import org.infinispan.interceptors.base.JmxStatsCommandInterceptor;
 import org.infinispan.jmx.annotations.DisplayType;
 import org.infinispan.jmx.annotations.MBean;
@@ -40,7 +44,7 @@
  * @since 4.0
  */
 @MBean(objectName = "Statistics", description = "General statistics such as timings, hit/miss ratio, etc.")
-public class CacheMgmtInterceptor extends JmxStatsCommandInterceptor {
+public class CacheMgmtInterceptor extends JmxStatsCommandInterceptor implements InvocationStageAware {
    private final LongAdder hitTimes = new LongAdder();
    private final LongAdder missTimes = new LongAdder();
    private final LongAdder storeTimes = new LongAdder();
@@ -94,14 +98,30 @@ public final Object visitGetKeyValueCommand(InvocationContext ctx, GetKeyValueCo
    public final Object visitGetCacheEntryCommand(InvocationContext ctx, GetCacheEntryCommand command) throws Throwable {
       return visitDataReadCommand(ctx, command);
    }
-   private Object visitDataReadCommand(InvocationContext ctx, AbstractDataCommand command) throws Throwable {
+   private Object visitDataReadCommand(final InvocationContext ctx, AbstractDataCommand command) throws Throwable {
       long start = 0;
-      boolean statisticsEnabled = getStatisticsEnabled(command);
+      final boolean statisticsEnabled = getStatisticsEnabled(command);
       if (statisticsEnabled)
          start = timeService.time();
 
       Object retval = invokeNextInterceptor(ctx, command);
 
+      if (retval instanceof InvocationStage) {
+         final long startTime = start;
+         return ((InvocationStage) retval).handle(new InvocationStage.ReturnHandler() {
+            @Override
+            public Object handle(Object returnValue, Throwable throwable) throws Throwable {
+               if (throwable != null) throw throwable;
+               updateReadStatistics(ctx, statisticsEnabled, startTime, returnValue);
+               return returnValue;
+            }
+         });
+      }
+      updateReadStatistics(ctx, statisticsEnabled, start, retval);
+      return retval;
+   }
+
+   private void updateReadStatistics(InvocationContext ctx, boolean statisticsEnabled, long start, Object retval) {
       if (statisticsEnabled) {
          long intervalMilliseconds = timeService.timeDuration(start, TimeUnit.MILLISECONDS);
          if (ctx.isOriginLocal()) {
@@ -114,8 +134,6 @@ private Object visitDataReadCommand(InvocationContext ctx, AbstractDataCommand c
             }
          }
       }
-
-      return retval;
    }
 
    @Override
@@ -344,6 +362,18 @@ public int getNumberOfEntries() {
       return dataContainer.size();
    }
 
+   @ManagedAttribute(
+         description = "Estimated amount of memory used by the entries of the cache, in bytes, when eviction is based on memory, -1 otherwise",
+         displayName = "Memory used by cache entries",
+         displayType = DisplayType.SUMMARY
+   )
+   public long getDataMemoryUsed() {
+      if (cacheConfiguration.eviction().type() == EvictionType.MEMORY && dataContainer instanceof DefaultDataContainer) {
+         return ((DefaultDataContainer) dataContainer).evictionSize();
+      }
+      return -1;
+   }
+
    @ManagedAttribute(
          description = "Number of seconds since cache started",
          displayName = "Seconds since cache started",
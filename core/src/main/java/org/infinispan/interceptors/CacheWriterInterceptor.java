@@ -21,12 +21,18 @@
 import org.infinispan.factories.annotations.ComponentName;
 import org.infinispan.factories.annotations.Inject;
 import org.infinispan.factories.annotations.Start;
+import org.infinispan.interceptors.base.InvocationStageAware;
 import org.infinispan.interceptors.base.JmxStatsCommandInterceptor;
 import org.infinispan.jmx.annotations.MBean;
 import org.infinispan.jmx.annotations.ManagedAttribute;
 import org.infinispan.jmx.annotations.ManagedOperation;
 import org.infinispan.jmx.annotations.MeasurementType;
+import org.infinispan.jmx.annotations.Units;
+import org.infinispan.persistence.async.AsyncCacheWriter;
+import org.infinispan.persistence.async.AsyncStoreStatistics;
+import org.infinispan.persistence.file.SingleFileStore;
 import org.infinispan.persistence.manager.PersistenceManager;
+import org.infinispan.persistence.spi.CacheWriter;
 import org.infinispan.marshall.core.MarshalledEntryImpl;
 import org.infinispan.metadata.EmbeddedMetadata;
 import org.infinispan.metadata.Metadata;
@@ -41,6 +47,7 @@
 
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
 
 import static org.infinispan.factories.KnownComponentNames.CACHE_MARSHALLER;
@@ -60,7 +67,7 @@
  * @since 4.0
  */
 @MBean(objectName = "CacheStore", description = "Component that handles storing of entries to a CacheStore from memory.")
-public class CacheWriterInterceptor extends JmxStatsCommandInterceptor {
+public class CacheWriterInterceptor extends JmxStatsCommandInterceptor implements InvocationStageAware {
    PersistenceConfiguration loaderConfig = null;
    final AtomicLong cacheStores = new AtomicLong(0);
    protected PersistenceManager persistenceManager;
@@ -320,6 +327,13 @@ protected Object visitSingleStore(InvocationContext ctx, FlagAffectedCommand com
    )
    public void resetStatistics() {
       cacheStores.set(0);
+      for (CacheWriter writer : persistenceManager.getAllWriters()) {
+         if (writer instanceof AsyncCacheWriter)
+            ((AsyncCacheWriter) writer).getStatistics().reset();
+      }
+      for (SingleFileStore store : persistenceManager.getStores(SingleFileStore.class)) {
+         store.resetStatistics();
+      }
    }
 
    @ManagedAttribute(
@@ -331,6 +345,172 @@ public long getWritesToTheStores() {
       return cacheStores.get();
    }
 
+   @ManagedAttribute(
+         description = "Number of batches written by the write-behind stores",
+         displayName = "Number of write-behind batches",
+         measurementType = MeasurementType.TRENDSUP
+   )
+   public long getAsyncStoreBatches() {
+      return asyncStoreStatistics().getBatches();
+   }
+
+   @ManagedAttribute(
+         description = "Number of batches the write-behind stores failed to write",
+         displayName = "Number of failed write-behind batches",
+         measurementType = MeasurementType.TRENDSUP
+   )
+   public long getAsyncStoreFailedBatches() {
+      return asyncStoreStatistics().getFailedBatches();
+   }
+
+   @ManagedAttribute(
+         description = "Average number of modifications in a write-behind batch",
+         displayName = "Average write-behind batch size"
+   )
+   public long getAsyncStoreAverageBatchSize() {
+      return asyncStoreStatistics().getAverageBatchSize();
+   }
+
+   @ManagedAttribute(
+         description = "Maximum number of modifications in a write-behind batch",
+         displayName = "Maximum write-behind batch size"
+   )
+   public long getAsyncStoreMaxBatchSize() {
+      return asyncStoreStatistics().getMaxBatchSize();
+   }
+
+   @ManagedAttribute(
+         description = "Number of write-behind batches by number of modifications",
+         displayName = "Write-behind batch size histogram"
+   )
+   public String getAsyncStoreBatchSizeHistogram() {
+      return asyncStoreStatistics().getBatchSizeHistogram();
+   }
+
+   @ManagedAttribute(
+         description = "Average time between a modification and its write by a write-behind store",
+         displayName = "Average write-behind lag",
+         units = Units.MILLISECONDS
+   )
+   public long getAsyncStoreAverageLag() {
+      return asyncStoreStatistics().getAverageLag();
+   }
+
+   @ManagedAttribute(
+         description = "Maximum time between a modification and its write by a write-behind store",
+         displayName = "Maximum write-behind lag",
+         units = Units.MILLISECONDS
+   )
+   public long getAsyncStoreMaxLag() {
+      return asyncStoreStatistics().getMaxLag();
+   }
+
+   @ManagedAttribute(
+         description = "Number of write-behind batches by lag in milliseconds",
+         displayName = "Write-behind lag histogram"
+   )
+   public String getAsyncStoreLagHistogram() {
+      return asyncStoreStatistics().getLagHistogram();
+   }
+
+   @ManagedAttribute(
+         description = "Total size of the data files of the single file stores",
+         displayName = "Single file store size"
+   )
+   public long getSingleFileStoreFileSize() {
+      long fileSize = 0;
+      for (SingleFileStore store : persistenceManager.getStores(SingleFileStore.class)) {
+         fileSize += store.getFileSize();
+      }
+      return fileSize;
+   }
+
+   @ManagedAttribute(
+         description = "Number of bytes of the data files of the single file stores which are not used by any entry",
+         displayName = "Single file store free space"
+   )
+   public long getSingleFileStoreFreeSpace() {
+      long freeSpace = 0;
+      for (SingleFileStore store : persistenceManager.getStores(SingleFileStore.class)) {
+         freeSpace += store.getFreeSpace();
+      }
+      return freeSpace;
+   }
+
+   @ManagedAttribute(
+         description = "Fraction of the data files of the single file stores which is not used by any entry",
+         displayName = "Single file store fragmentation ratio",
+         units = Units.PERCENTAGE
+   )
+   public double getSingleFileStoreFragmentationRatio() {
+      long freeSpace = 0;
+      long dataSize = 0;
+      for (SingleFileStore store : persistenceManager.getStores(SingleFileStore.class)) {
+         freeSpace += store.getFreeSpace();
+         dataSize += store.getDataSize();
+      }
+      return dataSize == 0 ? 0 : (double) freeSpace / dataSize;
+   }
+
+   @ManagedAttribute(
+         description = "Number of bytes moved per second by the compactions of the single file stores",
+         displayName = "Single file store compaction throughput"
+   )
+   public long getSingleFileStoreCompactionThroughput() {
+      long relocatedBytes = 0;
+      long nanos = 0;
+      for (SingleFileStore store : persistenceManager.getStores(SingleFileStore.class)) {
+         relocatedBytes += store.getCompactionRelocatedBytes();
+         nanos += store.getCompactionTimeNanos();
+      }
+      return nanos == 0 ? 0 : relocatedBytes * TimeUnit.SECONDS.toNanos(1) / nanos;
+   }
+
+   @ManagedAttribute(
+         description = "Number of compactions of the data files of the single file stores",
+         displayName = "Single file store compactions",
+         measurementType = MeasurementType.TRENDSUP
+   )
+   public long getSingleFileStoreCompactions() {
+      long compactions = 0;
+      for (SingleFileStore store : persistenceManager.getStores(SingleFileStore.class)) {
+         compactions += store.getCompactions();
+      }
+      return compactions;
+   }
+
+   @ManagedAttribute(
+         description = "Number of bytes by which compactions shrank the data files of the single file stores",
+         displayName = "Single file store reclaimed bytes",
+         measurementType = MeasurementType.TRENDSUP
+   )
+   public long getSingleFileStoreReclaimedBytes() {
+      long reclaimedBytes = 0;
+      for (SingleFileStore store : persistenceManager.getStores(SingleFileStore.class)) {
+         reclaimedBytes += store.getCompactionReclaimedBytes();
+      }
+      return reclaimedBytes;
+   }
+
+   @ManagedOperation(
+         description = "Moves the entries at the end of the single file stores' data files into free space and truncates the files",
+         displayName = "Compact single file stores"
+   )
+   public void compactSingleFileStores() {
+      for (SingleFileStore store : persistenceManager.getStores(SingleFileStore.class)) {
+         store.compact();
+      }
+   }
+
+   private AsyncStoreStatistics asyncStoreStatistics() {
+      AsyncStoreStatistics statistics = new AsyncStoreStatistics();
+      for (CacheWriter writer : persistenceManager.getAllWriters()) {
+         if (writer instanceof AsyncCacheWriter)
+            statistics.merge(((AsyncCacheWriter) writer).getStatistics());
+      }
+      return statistics;
+   }
+
    void storeEntry(InvocationContext ctx, Object key, FlagAffectedCommand command) {
       InternalCacheValue sv = getStoredValue(key, ctx);
       persistenceManager.writeToAllStores(new MarshalledEntryImpl(key, sv.getValue(), internalMetadata(sv), marshaller),
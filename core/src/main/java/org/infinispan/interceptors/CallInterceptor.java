@@ -14,6 +14,7 @@
 import org.infinispan.context.impl.TxInvocationContext;
 import org.infinispan.factories.annotations.Inject;
 import org.infinispan.interceptors.base.CommandInterceptor;
+import org.infinispan.interceptors.base.InvocationStageAware;
 import org.infinispan.notifications.cachelistener.CacheNotifier;
 import org.infinispan.util.logging.Log;
 import org.infinispan.util.logging.LogFactory;
@@ -27,7 +28,7 @@
  * @author Mircea.Markus@jboss.com
  * @since 4.0
  */
-public class CallInterceptor extends CommandInterceptor {
+public class CallInterceptor extends CommandInterceptor implements InvocationStageAware {
 
    private static final Log log = LogFactory.getLog(CallInterceptor.class);
    private static final boolean trace = log.isTraceEnabled();
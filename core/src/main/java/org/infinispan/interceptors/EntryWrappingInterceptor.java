@@ -38,6 +38,7 @@
 import org.infinispan.filter.CompositeKeyFilter;
 import org.infinispan.filter.KeyFilter;
 import org.infinispan.interceptors.base.CommandInterceptor;
+import org.infinispan.interceptors.base.InvocationStageAware;
 import org.infinispan.interceptors.locking.ClusteringDependentLogic;
 import org.infinispan.metadata.Metadata;
 import org.infinispan.statetransfer.OutdatedTopologyException;
@@ -61,7 +62,7 @@
  * @author Pedro Ruivo
  * @since 5.1
  */
-public class EntryWrappingInterceptor extends CommandInterceptor {
+public class EntryWrappingInterceptor extends CommandInterceptor implements InvocationStageAware {
 
    private EntryFactory entryFactory;
    protected DataContainer<Object, Object> dataContainer;
@@ -10,6 +10,7 @@
 import org.infinispan.distribution.group.GroupManager;
 import org.infinispan.factories.annotations.Inject;
 import org.infinispan.interceptors.base.CommandInterceptor;
+import org.infinispan.interceptors.base.InvocationStageAware;
 import org.infinispan.notifications.Listener;
 import org.infinispan.notifications.cachelistener.CacheNotifier;
 import org.infinispan.notifications.cachelistener.annotation.CacheEntryActivated;
@@ -30,7 +31,7 @@
  * @author Pedro Ruivo
  * @since 7.0
  */
-public class GroupingInterceptor extends CommandInterceptor {
+public class GroupingInterceptor extends CommandInterceptor implements InvocationStageAware {
 
    private CacheNotifier<?, ?> cacheNotifier;
    private GroupManager groupManager;
@@ -4,6 +4,7 @@
 import org.infinispan.commons.CacheException;
 import org.infinispan.commons.util.InfinispanCollections;
 import org.infinispan.commons.util.ReflectionUtil;
+import org.infinispan.commons.util.concurrent.NotifyingFuture;
 import org.infinispan.commons.CacheConfigurationException;
 import org.infinispan.context.InvocationContext;
 import org.infinispan.factories.annotations.Inject;
@@ -13,6 +14,8 @@
 import org.infinispan.factories.scopes.Scope;
 import org.infinispan.factories.scopes.Scopes;
 import org.infinispan.interceptors.base.CommandInterceptor;
+import org.infinispan.interceptors.base.InvocationStage;
+import org.infinispan.interceptors.base.InvocationStageAware;
 import org.infinispan.util.logging.Log;
 import org.infinispan.util.logging.LogFactory;
 
@@ -39,6 +42,11 @@ public class InterceptorChain {
     */
    private volatile CommandInterceptor firstInChain;
 
+   /**
+    * whether all the interceptors in the chain are {@link InvocationStageAware}, updated whenever the chain changes
+    */
+   private volatile boolean asyncInvocationSupported;
+
    final ReentrantLock lock = new ReentrantLock();
    final ComponentMetadataRepo componentMetadataRepo;
 
@@ -107,6 +115,7 @@ public void addInterceptor(CommandInterceptor interceptor, int position) {
          }
          throw new IllegalArgumentException("Invalid index: " + index + " !");
       } finally {
+         chainModified();
          lock.unlock();
       }
    }
@@ -138,6 +147,7 @@ public void removeInterceptor(int position) {
          }
          throw new IllegalArgumentException("Invalid position: " + position + " !");
       } finally {
+         chainModified();
          lock.unlock();
       }
    }
@@ -194,6 +204,7 @@ public void removeInterceptor(Class<? extends CommandInterceptor> clazz) {
             it = it.getNext();
          }
       } finally {
+         chainModified();
          lock.unlock();
       }
    }
@@ -225,6 +236,7 @@ public boolean addInterceptorAfter(CommandInterceptor toAdd, Class<? extends Com
          }
          return false;
       } finally {
+         chainModified();
          lock.unlock();
       }
    }
@@ -267,6 +279,7 @@ public boolean addInterceptorBefore(CommandInterceptor toAdd, Class<? extends Co
          }
          return false;
       } finally {
+         chainModified();
          lock.unlock();
       }
    }
@@ -305,6 +318,7 @@ public boolean replaceInterceptor(CommandInterceptor replacingInterceptor, Class
          }
          return false;
       } finally {
+         chainModified();
          lock.unlock();
       }
    }
@@ -326,6 +340,7 @@ public void appendInterceptor(CommandInterceptor ci, boolean isCustom) {
       }
       // make sure we nullify the "next" pointer in the last interceptors.
       ci.setNext(null);
+      chainModified();
    }
 
    /**
@@ -345,6 +360,53 @@ public Object invoke(InvocationContext ctx, VisitableCommand command) {
       }
    }
 
+   /**
+    * Walks the command through the interceptor chain, without waiting for the remote calls it needs.
+    * <p/>
+    * If all the interceptors in the chain are {@link InvocationStageAware}, the interceptors may return an
+    * {@link InvocationStage} instead of waiting for a remote call, and the returned future is completed from the
+    * thread receiving the response. Otherwise the command is invoked synchronously and the returned future is
+    * already done.
+    *
+    * @since 7.2
+    */
+   public NotifyingFuture<Object> invokeAsync(InvocationContext ctx, VisitableCommand command) {
+      InvocationStage stage = new InvocationStage();
+      ctx.setAsyncInvocation(supportsAsyncInvocation());
+      try {
+         stage.completeWith(command.acceptVisitor(ctx, firstInChain));
+      } catch (CacheException e) {
+         if (e.getCause() instanceof InterruptedException)
+            Thread.currentThread().interrupt();
+         stage.completeExceptionally(e);
+      } catch (RuntimeException e) {
+         stage.completeExceptionally(e);
+      } catch (Throwable t) {
+         stage.completeExceptionally(new CacheException(t));
+      } finally {
+         // The context may be reused for a synchronous invocation
+         ctx.setAsyncInvocation(false);
+      }
+      return stage;
+   }
+
+   /**
+    * @return true if all the interceptors in the chain handle the {@link InvocationStage}s returned by the next
+    * interceptors.
+    * @since 7.2
+    */
+   public boolean supportsAsyncInvocation() {
+      return asyncInvocationSupported;
+   }
+
+   private void chainModified() {
+      boolean supported = true;
+      for (CommandInterceptor it = firstInChain; it != null && supported; it = it.getNext()) {
+         supported = it instanceof InvocationStageAware;
+      }
+      asyncInvocationSupported = supported;
+   }
+
    /**
     * @return the first interceptor in the chain.
     */
@@ -360,6 +422,7 @@ public CommandInterceptor getFirstInChain() {
     */
    public void setFirstInChain(CommandInterceptor interceptor) {
       this.firstInChain = interceptor;
+      chainModified();
    }
 
    /**
@@ -16,6 +16,7 @@
 import org.infinispan.factories.annotations.Inject;
 import org.infinispan.factories.annotations.Start;
 import org.infinispan.interceptors.base.CommandInterceptor;
+import org.infinispan.interceptors.base.InvocationStageAware;
 import org.infinispan.commons.marshall.NotSerializableException;
 import org.infinispan.commons.marshall.StreamingMarshaller;
 import org.infinispan.util.logging.Log;
@@ -39,7 +40,7 @@
  * @author Galder Zamarreño
  * @since 4.2
  */
-public class IsMarshallableInterceptor extends CommandInterceptor {
+public class IsMarshallableInterceptor extends CommandInterceptor implements InvocationStageAware {
 
    private StreamingMarshaller marshaller;
    private DistributionManager distManager;
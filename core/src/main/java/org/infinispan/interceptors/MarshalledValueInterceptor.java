@@ -19,6 +19,8 @@
 import org.infinispan.factories.annotations.Inject;
 import org.infinispan.factories.annotations.Start;
 import org.infinispan.interceptors.base.CommandInterceptor;
+import org.infinispan.interceptors.base.InvocationStage;
+import org.infinispan.interceptors.base.InvocationStageAware;
 import org.infinispan.marshall.core.MarshalledValue;
 import org.infinispan.commons.marshall.StreamingMarshaller;
 import org.infinispan.commons.util.Immutables;
@@ -51,7 +53,7 @@
  * @see org.infinispan.marshall.core.MarshalledValue
  * @since 4.0
  */
-public class MarshalledValueInterceptor extends CommandInterceptor {
+public class MarshalledValueInterceptor extends CommandInterceptor implements InvocationStageAware {
    private StreamingMarshaller marshaller;
    private boolean wrapKeys = true;
    private boolean wrapValues = true;
@@ -162,7 +164,7 @@ public final Object visitGetKeyValueCommand(InvocationContext ctx, GetKeyValueCo
    public final Object visitGetCacheEntryCommand(InvocationContext ctx, GetCacheEntryCommand command) throws Throwable {
       return visitDataReadCommand(ctx, command);
    }
-   private Object visitDataReadCommand(InvocationContext ctx, AbstractDataCommand command) throws Throwable {
+   private Object visitDataReadCommand(final InvocationContext ctx, AbstractDataCommand command) throws Throwable {
       MarshalledValue mv;
       if (wrapKeys) {
          if (!isTypeExcluded(command.getKey().getClass())) {
@@ -171,6 +173,15 @@ private Object visitDataReadCommand(InvocationContext ctx, AbstractDataCommand c
          }
       }
       Object retVal = invokeNextInterceptor(ctx, command);
+      if (retVal instanceof InvocationStage) {
+         return ((InvocationStage) retVal).handle(new InvocationStage.ReturnHandler() {
+            @Override
+            public Object handle(Object returnValue, Throwable throwable) throws Throwable {
+               if (throwable != null) throw throwable;
+               return processRetVal(returnValue, ctx);
+            }
+         });
+      }
       return processRetVal(retVal, ctx);
    }
 
@@ -5,6 +5,7 @@
 import org.infinispan.commands.tx.RollbackCommand;
 import org.infinispan.context.impl.TxInvocationContext;
 import org.infinispan.factories.annotations.Inject;
+import org.infinispan.interceptors.base.InvocationStageAware;
 import org.infinispan.notifications.cachelistener.CacheNotifier;
 import org.infinispan.interceptors.base.CommandInterceptor;
 import org.infinispan.util.logging.Log;
@@ -16,7 +17,7 @@
  * @author <a href="mailto:manik@jboss.org">Manik Surtani</a>
  * @since 4.0
  */
-public class NotificationInterceptor extends CommandInterceptor {
+public class NotificationInterceptor extends CommandInterceptor implements InvocationStageAware {
    private CacheNotifier notifier;
 
    private static final Log log = LogFactory.getLog(NotificationInterceptor.class);
@@ -0,0 +1,87 @@
+package org.infinispan.interceptors.base;
+
+import org.infinispan.commons.util.concurrent.CompletableNotifyingFuture;
+import org.infinispan.commons.util.concurrent.FutureListener;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+/**
+ * The return value of an interceptor that doesn't wait for a remote call to complete.
+ * <p/>
+ * When a command is invoked with {@link org.infinispan.interceptors.InterceptorChain#invokeAsync(
+ * org.infinispan.context.InvocationContext, org.infinispan.commands.VisitableCommand)}, an interceptor may return an
+ * invocation stage instead of its return value, and complete the stage when the remote call completes. The
+ * interceptors before it in the chain can't post-process the return value in their <tt>visitXXX()</tt> methods, so
+ * they have to do it in a {@link ReturnHandler} registered with {@link #handle(ReturnHandler)}, whose result is
+ * returned instead.
+ * <p/>
+ * The handlers are invoked in the thread completing the stage, usually a transport thread, so they must not block.
+ *
+ * @see InvocationStageAware
+ * @since 7.2
+ */
+public final class InvocationStage extends CompletableNotifyingFuture<Object> {
+
+   /**
+    * Post-processes the return value of an invocation stage.
+    */
+   public interface ReturnHandler {
+      /**
+       * @param returnValue the return value of the stage, {@code null} if it failed.
+       * @param throwable   the exception thrown by the stage, {@code null} if it succeeded.
+       * @return the return value of the new stage, or another {@link InvocationStage} completing it.
+       * @throws Throwable to fail the new stage.
+       */
+      Object handle(Object returnValue, Throwable throwable) throws Throwable;
+   }
+
+   /**
+    * Returns a new stage that is completed with the result of the handler, after this stage completes.
+    */
+   public InvocationStage handle(final ReturnHandler handler) {
+      final InvocationStage next = new InvocationStage();
+      attachListener(new FutureListener<Object>() {
+         @Override
+         public void futureDone(Future<Object> future) {
+            Object returnValue = null;
+            Throwable throwable = null;
+            try {
+               returnValue = future.get();
+            } catch (ExecutionException e) {
+               throwable = e.getCause();
+            } catch (Throwable t) {
+               throwable = t;
+            }
+            try {
+               next.completeWith(handler.handle(returnValue, throwable));
+            } catch (Throwable t) {
+               next.completeExceptionally(t);
+            }
+         }
+      });
+      return next;
+   }
+
+   /**
+    * Completes this stage with the given return value, or with the result of another stage once it completes.
+    */
+   public void completeWith(Object returnValue) {
+      if (returnValue instanceof InvocationStage) {
+         ((InvocationStage) returnValue).attachListener(new FutureListener<Object>() {
+            @Override
+            public void futureDone(Future<Object> future) {
+               try {
+                  complete(future.get());
+               } catch (ExecutionException e) {
+                  completeExceptionally(e.getCause());
+               } catch (Throwable t) {
+                  completeExceptionally(t);
+               }
+            }
+         });
+      } else {
+         complete(returnValue);
+      }
+   }
+}
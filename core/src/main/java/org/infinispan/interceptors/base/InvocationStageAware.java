@@ -0,0 +1,15 @@
+package org.infinispan.interceptors.base;
+
+/**
+ * Marks the interceptors that handle an {@link InvocationStage} returned by the next interceptors for the read
+ * commands, instead of expecting the return value itself.
+ * <p/>
+ * {@link org.infinispan.interceptors.InterceptorChain#invokeAsync(org.infinispan.context.InvocationContext,
+ * org.infinispan.commands.VisitableCommand)} only allows the interceptors to return invocation stages if all the
+ * interceptors in the chain implement this interface. Custom interceptors don't, so the commands are invoked
+ * synchronously if the chain contains any.
+ *
+ * @since 7.2
+ */
+public interface InvocationStageAware {
+}
@@ -7,6 +7,7 @@
 import org.infinispan.commands.write.ValueMatcher;
 import org.infinispan.commands.write.WriteCommand;
 import org.infinispan.commons.CacheException;
+import org.infinispan.commons.util.concurrent.FutureListener;
 import org.infinispan.container.entries.CacheEntry;
 import org.infinispan.container.entries.InternalCacheEntry;
 import org.infinispan.container.entries.InternalCacheValue;
@@ -17,6 +18,7 @@
 import org.infinispan.distribution.group.GroupManager;
 import org.infinispan.factories.annotations.Inject;
 import org.infinispan.interceptors.ClusteringInterceptor;
+import org.infinispan.interceptors.base.InvocationStage;
 import org.infinispan.interceptors.locking.ClusteringDependentLogic;
 import org.infinispan.remoting.RemoteException;
 import org.infinispan.remoting.inboundhandler.DeliverOrder;
@@ -44,6 +46,8 @@
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 
 /**
  * Base class for distribution of entries across a cluster.
@@ -108,56 +112,44 @@ protected final InternalCacheEntry retrieveFromRemoteSource(Object key, Invocati
       get.setWrite(isWrite);
 
       RpcOptionsBuilder rpcOptionsBuilder = rpcManager.getRpcOptionsBuilder(ResponseMode.WAIT_FOR_VALID_RESPONSE, DeliverOrder.NONE);
-      int lastTopologyId = -1;
+      RemoteGetTargets remoteGetTargets = new RemoteGetTargets(key);
       InternalCacheEntry value = null;
-      while (value == null) {
-         final CacheTopology cacheTopology = stateTransferManager.getCacheTopology();
-         final int currentTopologyId = cacheTopology.getTopologyId();
-
-         if (trace) {
-            log.tracef("Perform remote get for key %s. topologyId=%s, currentTopologyId=%s",
-                       key, lastTopologyId, currentTopologyId);
-         }
-         List<Address> targets;
-         if (lastTopologyId < currentTopologyId) {
-            // Cache topology has changed or it is the first time.
-            lastTopologyId = currentTopologyId;
-            targets = new ArrayList<>(cacheTopology.getReadConsistentHash().locateOwners(key));
-         } else if (lastTopologyId == currentTopologyId && cacheTopology.getPendingCH() != null) {
-            // Same topologyId, but the owners could have already installed the next topology
-            // Lets try with pending consistent owners (the read owners in the next topology)
-            lastTopologyId = currentTopologyId + 1;
-            targets = new ArrayList<>(cacheTopology.getPendingCH().locateOwners(key));
-            // Remove already contacted nodes
-            targets.removeAll(cacheTopology.getReadConsistentHash().locateOwners(key));
-            if (targets.isEmpty()) {
-               if (trace) {
-                  log.tracef("No valid values found for key '%s' (topologyId=%s).", key, currentTopologyId);
-               }
-               break;
-            }
-         } else { // lastTopologyId > currentTopologyId || cacheTopology.getPendingCH() == null
-            // We have not received a valid value from the pending CH owners either, and the topology id hasn't changed
-            if (trace) {
-               log.tracef("No valid values found for key '%s' (topologyId=%s).", key, currentTopologyId);
-            }
-            break;
-         }
-
+      List<Address> targets;
+      while (value == null && (targets = remoteGetTargets.next()) != null) {
          value = invokeClusterGetCommandRemotely(targets, rpcOptionsBuilder, get, key);
          if (trace) {
-            log.tracef("Remote get of key '%s' (topologyId=%s) returns %s", key, currentTopologyId, value);
+            log.tracef("Remote get of key '%s' (topologyId=%s) returns %s", key, remoteGetTargets.currentTopologyId, value);
          }
       }
       return value;
    }
 
+   /**
+    * Same as {@link #retrieveFromRemoteSource(Object, InvocationContext, boolean, FlagAffectedCommand, boolean)}, for
+    * a non-transactional read that doesn't acquire a remote lock, but doesn't wait for the responses: the returned
+    * stage is completed with the remote entry, or with {@code null}, from the thread receiving the responses.
+    *
+    * @since 7.2
+    */
+   protected final InvocationStage retrieveFromRemoteSourceAsync(Object key, InvocationContext ctx,
+                                                                 FlagAffectedCommand command) {
+      ClusteredGetCommand get = cf.buildClusteredGetCommand(key, command.getFlags(), false, null);
+      get.setWrite(false);
+
+      AsyncRemoteGet remoteGet = new AsyncRemoteGet(key, get);
+      remoteGet.invokeNext();
+      return remoteGet.stage;
+   }
+
    private InternalCacheEntry invokeClusterGetCommandRemotely(List<Address> targets, RpcOptionsBuilder rpcOptionsBuilder,
                                                       ClusteredGetCommand get, Object key) {
       ResponseFilter filter = new ClusteredGetResponseValidityFilter(targets, rpcManager.getAddress());
       RpcOptions options = rpcOptionsBuilder.responseFilter(filter).build();
       Map<Address, Response> responses = rpcManager.invokeRemotely(targets, get, options);
+      return extractRemoteEntry(responses, key);
+   }
 
+   private InternalCacheEntry extractRemoteEntry(Map<Address, Response> responses, Object key) {
       if (!responses.isEmpty()) {
          for (Response r : responses.values()) {
             if (r instanceof SuccessfulResponse) {
@@ -184,6 +176,113 @@ private InternalCacheEntry invokeClusterGetCommandRemotely(List<Address> targets
       return null;
    }
 
+   /**
+    * Chooses the owners to ask for a key in a remote get: first the read owners, then the owners in the pending
+    * consistent hash that weren't asked already, and again the read owners every time the topology changes.
+    */
+   private class RemoteGetTargets {
+      private final Object key;
+      private int lastTopologyId = -1;
+      private int currentTopologyId = -1;
+
+      RemoteGetTargets(Object key) {
+         this.key = key;
+      }
+
+      /**
+       * @return the owners to ask next, or {@code null} if all the owners were asked without a valid value.
+       */
+      List<Address> next() {
+         final CacheTopology cacheTopology = stateTransferManager.getCacheTopology();
+         currentTopologyId = cacheTopology.getTopologyId();
+
+         if (trace) {
+            log.tracef("Perform remote get for key %s. topologyId=%s, currentTopologyId=%s",
+                       key, lastTopologyId, currentTopologyId);
+         }
+         if (lastTopologyId < currentTopologyId) {
+            // Cache topology has changed or it is the first time.
+            lastTopologyId = currentTopologyId;
+            return new ArrayList<>(cacheTopology.getReadConsistentHash().locateOwners(key));
+         } else if (lastTopologyId == currentTopologyId && cacheTopology.getPendingCH() != null) {
+            // Same topologyId, but the owners could have already installed the next topology
+            // Lets try with pending consistent owners (the read owners in the next topology)
+            lastTopologyId = currentTopologyId + 1;
+            List<Address> targets = new ArrayList<>(cacheTopology.getPendingCH().locateOwners(key));
+            // Remove already contacted nodes
+            targets.removeAll(cacheTopology.getReadConsistentHash().locateOwners(key));
+            if (targets.isEmpty()) {
+               if (trace) {
+                  log.tracef("No valid values found for key '%s' (topologyId=%s).", key, currentTopologyId);
+               }
+               return null;
+            }
+            return targets;
+         } else { // lastTopologyId > currentTopologyId || cacheTopology.getPendingCH() == null
+            // We have not received a valid value from the pending CH owners either, and the topology id hasn't changed
+            if (trace) {
+               log.tracef("No valid values found for key '%s' (topologyId=%s).", key, currentTopologyId);
+            }
+            return null;
+         }
+      }
+   }
+
+   /**
+    * Asks the owners returned by {@link RemoteGetTargets} in turn, each time the previous owners responded without a
+    * valid value, and completes the stage with the first value found.
+    */
+   private class AsyncRemoteGet implements FutureListener<Map<Address, Response>> {
+      private final InvocationStage stage = new InvocationStage();
+      private final RemoteGetTargets remoteGetTargets;
+      private final Object key;
+      private final ClusteredGetCommand get;
+
+      AsyncRemoteGet(Object key, ClusteredGetCommand get) {
+         this.key = key;
+         this.get = get;
+         this.remoteGetTargets = new RemoteGetTargets(key);
+      }
+
+      void invokeNext() {
+         try {
+            List<Address> targets = remoteGetTargets.next();
+            if (targets == null) {
+               stage.complete(null);
+               return;
+            }
+            ResponseFilter filter = new ClusteredGetResponseValidityFilter(targets, rpcManager.getAddress());
+            RpcOptions options = rpcManager.getRpcOptionsBuilder(ResponseMode.WAIT_FOR_VALID_RESPONSE, DeliverOrder.NONE)
+                  .responseFilter(filter).build();
+            rpcManager.invokeRemotelyAsync(targets, get, options).attachListener(this);
+         } catch (Throwable t) {
+            stage.completeExceptionally(t);
+         }
+      }
+
+      @Override
+      public void futureDone(Future<Map<Address, Response>> future) {
+         InternalCacheEntry value;
+         try {
+            value = extractRemoteEntry(future.get(), key);
+         } catch (ExecutionException e) {
+            stage.completeExceptionally(e.getCause());
+            return;
+         } catch (Throwable t) {
+            stage.completeExceptionally(t);
+            return;
+         }
+         if (trace) {
+            log.tracef("Remote get of key '%s' (topologyId=%s) returns %s", key, remoteGetTargets.currentTopologyId, value);
+         }
+         if (value != null) {
+            stage.complete(value);
+         } else {
+            invokeNext();
+         }
+      }
+   }
+
    protected final Object handleNonTxWriteCommand(InvocationContext ctx, DataWriteCommand command) throws Throwable {
       if (ctx.isInTxScope()) {
          throw new CacheException("Attempted execution of non-transactional write command in a transactional invocation context");
@@ -14,6 +14,8 @@
 import org.infinispan.container.entries.InternalCacheEntry;
 import org.infinispan.context.Flag;
 import org.infinispan.context.InvocationContext;
+import org.infinispan.interceptors.base.InvocationStage;
+import org.infinispan.interceptors.base.InvocationStageAware;
 import org.infinispan.remoting.transport.Address;
 import org.infinispan.remoting.transport.jgroups.SuspectException;
 import org.infinispan.util.logging.Log;
@@ -36,7 +38,7 @@
  * @author Mircea Markus
  * @since 5.2
  */
-public class NonTxDistributionInterceptor extends BaseDistributionInterceptor {
+public class NonTxDistributionInterceptor extends BaseDistributionInterceptor implements InvocationStageAware {
 
    private static Log log = LogFactory.getLog(NonTxDistributionInterceptor.class);
    private static final boolean trace = log.isTraceEnabled();
@@ -68,20 +70,49 @@ private <T extends AbstractDataCommand & RemoteFetchingCommand> Object visitRemo
       if (returnValue == null) {
          Object key = command.getKey();
          if (needsRemoteGet(ctx, command)) {
+            if (ctx.isAsyncInvocation()) {
+               return remoteGetCacheEntryAsync(ctx, command, returnEntry);
+            }
             InternalCacheEntry remoteEntry = remoteGetCacheEntry(ctx, key, command);
             returnValue = computeGetReturn(remoteEntry, command, returnEntry);
          }
          if (returnValue == null) {
-            InternalCacheEntry localEntry = fetchValueLocallyIfAvailable(dm.getReadConsistentHash(), key);
-            if (localEntry != null) {
-               wrapInternalCacheEntry(localEntry, ctx, key, false, command);
-            }
-            returnValue = computeGetReturn(localEntry, command, returnEntry);
+            returnValue = localGetReturn(ctx, command, returnEntry);
          }
       }
       return returnValue;
    }
 
+   private <T extends AbstractDataCommand & RemoteFetchingCommand> InvocationStage remoteGetCacheEntryAsync(
+         final InvocationContext ctx, final T command, final boolean returnEntry) {
+      if (trace) log.tracef("Doing an asynchronous remote get for key %s", command.getKey());
+      InvocationStage stage = retrieveFromRemoteSourceAsync(command.getKey(), ctx, command);
+      return stage.handle(new InvocationStage.ReturnHandler() {
+         @Override
+         public Object handle(Object returnValue, Throwable throwable) throws Throwable {
+            if (throwable instanceof SuspectException) {
+               //retry
+               return remoteGetCacheEntryAsync(ctx, command, returnEntry);
+            } else if (throwable != null) {
+               throw throwable;
+            }
+            InternalCacheEntry remoteEntry = (InternalCacheEntry) returnValue;
+            command.setRemotelyFetchedValue(remoteEntry);
+            Object getReturn = computeGetReturn(remoteEntry, command, returnEntry);
+            return getReturn != null ? getReturn : localGetReturn(ctx, command, returnEntry);
+         }
+      });
+   }
+
+   private Object localGetReturn(InvocationContext ctx, AbstractDataCommand command, boolean returnEntry) {
+      Object key = command.getKey();
+      InternalCacheEntry localEntry = fetchValueLocallyIfAvailable(dm.getReadConsistentHash(), key);
+      if (localEntry != null) {
+         wrapInternalCacheEntry(localEntry, ctx, key, false, command);
+      }
+      return computeGetReturn(localEntry, command, returnEntry);
+   }
+
    private Object computeGetReturn(InternalCacheEntry entry, AbstractDataCommand command, boolean returnEntry) {
       if (!returnEntry && entry != null)
          return entry.getValue();
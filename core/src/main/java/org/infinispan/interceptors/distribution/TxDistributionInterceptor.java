@@ -17,6 +17,7 @@
 import org.infinispan.commands.write.ReplaceCommand;
 import org.infinispan.commands.write.WriteCommand;
 import org.infinispan.commons.util.InfinispanCollections;
+import org.infinispan.commons.util.concurrent.NotifyingFuture;
 import org.infinispan.container.entries.InternalCacheEntry;
 import org.infinispan.context.Flag;
 import org.infinispan.context.InvocationContext;
@@ -24,6 +25,7 @@
 import org.infinispan.context.impl.TxInvocationContext;
 import org.infinispan.factories.annotations.Start;
 import org.infinispan.remoting.inboundhandler.DeliverOrder;
+import org.infinispan.remoting.responses.Response;
 import org.infinispan.remoting.rpc.ResponseMode;
 import org.infinispan.remoting.rpc.RpcOptions;
 import org.infinispan.remoting.transport.Address;
@@ -33,8 +35,13 @@
 import org.infinispan.util.logging.Log;
 import org.infinispan.util.logging.LogFactory;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeoutException;
 
 import static org.infinispan.util.DeltaCompositeKeyUtil.filterDeltaCompositeKey;
@@ -54,6 +61,7 @@ public class TxDistributionInterceptor extends BaseDistributionInterceptor {
 
    private boolean isPessimisticCache;
    private boolean useClusteredWriteSkewCheck;
+   private boolean canDeferRemotePrepare;
 
    private static final RecipientGenerator CLEAR_COMMAND_GENERATOR = new RecipientGenerator() {
       @Override
@@ -96,6 +104,11 @@ public void start() {
       isPessimisticCache = cacheConfiguration.transaction().lockingMode() == LockingMode.PESSIMISTIC;
       useClusteredWriteSkewCheck = !isPessimisticCache &&
             cacheConfiguration.versioning().enabled() && cacheConfiguration.locking().writeSkewCheck();
+      // With recovery, the backup owners must know about the prepared transactions
+      canDeferRemotePrepare = cacheConfiguration.transaction().use1PcForPrimaryOwnerTransactions() &&
+            !isPessimisticCache && defaultSynchronous &&
+            !cacheConfiguration.transaction().transactionProtocol().isTotalOrder() &&
+            !cacheConfiguration.transaction().recovery().enabled();
    }
 
    @Override
@@ -184,17 +197,61 @@ public Object visitLockControlCommand(TxInvocationContext ctx, LockControlComman
          final Collection<Address> affectedNodes = cdl.getOwners(filterDeltaCompositeKeys(command.getKeys()));
          ((LocalTxInvocationContext) ctx).remoteLocksAcquired(affectedNodes == null ? dm.getConsistentHash().getMembers() : affectedNodes);
          log.tracef("Registered remote locks acquired %s", affectedNodes);
-         rpcManager.invokeRemotely(affectedNodes, command, rpcManager.getDefaultRpcOptions(true, DeliverOrder.NONE));
+         if (command.multipleKeys() && affectedNodes != null && affectedNodes.size() > 1) {
+            lockOnEachOwner(command);
+         } else {
+            rpcManager.invokeRemotely(affectedNodes, command, rpcManager.getDefaultRpcOptions(true, DeliverOrder.NONE));
+         }
       }
       return invokeNextInterceptor(ctx, command);
    }
 
+   /**
+    * Sends each owner a lock command with only the keys it owns. The commands are sent in parallel, so locking keys
+    * with different primary owners still takes a single round trip.
+    */
+   private void lockOnEachOwner(LockControlCommand command) throws Throwable {
+      Map<Address, List<Object>> keysByOwner = new HashMap<>();
+      for (Object key : command.getKeys()) {
+         for (Address owner : cdl.getOwners(filterDeltaCompositeKey(key))) {
+            List<Object> ownerKeys = keysByOwner.get(owner);
+            if (ownerKeys == null) {
+               ownerKeys = new ArrayList<>();
+               keysByOwner.put(owner, ownerKeys);
+            }
+            ownerKeys.add(key);
+         }
+      }
+      keysByOwner.remove(rpcManager.getAddress());
+
+      RpcOptions rpcOptions = rpcManager.getDefaultRpcOptions(true, DeliverOrder.NONE);
+      List<NotifyingFuture<Map<Address, Response>>> futures = new ArrayList<>(keysByOwner.size());
+      for (Map.Entry<Address, List<Object>> entry : keysByOwner.entrySet()) {
+         LockControlCommand ownerCommand = cf.buildLockControlCommand(entry.getValue(), command.getFlags(),
+                                                                      command.getGlobalTransaction());
+         ownerCommand.setTopologyId(command.getTopologyId());
+         if (trace) log.tracef("Locking keys %s on %s", entry.getValue(), entry.getKey());
+         futures.add(rpcManager.invokeRemotelyAsync(Collections.singleton(entry.getKey()), ownerCommand, rpcOptions));
+      }
+      for (NotifyingFuture<Map<Address, Response>> future : futures) {
+         try {
+            future.get();
+         } catch (ExecutionException e) {
+            throw e.getCause();
+         }
+      }
+   }
+
    // ---- TX boundary commands
    @Override
    public Object visitCommitCommand(TxInvocationContext ctx, CommitCommand command) throws Throwable {
       if (shouldInvokeRemoteTxCommand(ctx)) {
-         sendCommitCommand(ctx, command);
-
+         LocalTransaction localTx = (LocalTransaction) ctx.getCacheTransaction();
+         if (localTx.isRemotePrepareDeferred()) {
+            sendDeferredPrepareCommand(ctx, command);
+         } else {
+            sendCommitCommand(ctx, command);
+         }
       }
       return invokeNextInterceptor(ctx, command);
    }
@@ -204,6 +261,13 @@ public Object visitPrepareCommand(TxInvocationContext ctx, PrepareCommand comman
       Object retVal = invokeNextInterceptor(ctx, command);
 
       if (shouldInvokeRemoteTxCommand(ctx)) {
+         if (!command.isOnePhaseCommit() && isPrimaryOwnerOfAllKeys(ctx)) {
+            // The keys were locked and checked for write skew by the local prepare, so the backup owners can
+            // receive the modifications in a single one-phase prepare at commit time.
+            if (trace) log.tracef("Deferring the remote prepare of %s until commit", command.getGlobalTransaction());
+            ((LocalTransaction) ctx.getCacheTransaction()).markRemotePrepareDeferred(command.getTopologyId());
+            return retVal;
+         }
          boolean affectsAllNodes = ctx.getCacheTransaction().hasModification(ClearCommand.class);
          Collection<Address> recipients = affectsAllNodes ? dm.getWriteConsistentHash().getMembers() :
                cdl.getOwners(getAffectedKeysFromContext(ctx));
@@ -231,7 +295,7 @@ protected void prepareOnAffectedNodes(TxInvocationContext ctx, PrepareCommand co
 
    @Override
    public Object visitRollbackCommand(TxInvocationContext ctx, RollbackCommand command) throws Throwable {
-      if (shouldInvokeRemoteTxCommand(ctx)) {
+      if (shouldInvokeRemoteTxCommand(ctx) && !((LocalTransaction) ctx.getCacheTransaction()).isRemotePrepareDeferred()) {
          boolean syncRollback = cacheConfiguration.transaction().syncRollbackPhase();
          ResponseMode responseMode = syncRollback ? ResponseMode.SYNCHRONOUS_IGNORE_LEAVERS : ResponseMode.ASYNCHRONOUS;
          rpcManager.invokeRemotely(getCommitNodes(ctx), command, rpcManager.getRpcOptionsBuilder(responseMode, DeliverOrder.NONE).build());
@@ -247,6 +311,60 @@ private Collection<Address> getCommitNodes(TxInvocationContext ctx) {
       return localTx.getCommitNodes(affectedNodes, rpcManager.getTopologyId(), members);
    }
 
+   private boolean isPrimaryOwnerOfAllKeys(TxInvocationContext ctx) {
+      if (!canDeferRemotePrepare || ctx.getCacheTransaction().hasModification(ClearCommand.class) ||
+            stateTransferManager.isStateTransferInProgress()) {
+         return false;
+      }
+      for (Object key : getAffectedKeysFromContext(ctx)) {
+         if (!cdl.localNodeIsPrimaryOwner(key)) {
+            return false;
+         }
+      }
+      return true;
+   }
+
+   /**
+    * Sends the modifications of a transaction that was only prepared locally to the other owners, which apply them
+    * in one phase. If the topology changed since the local prepare, the local node might not be the primary owner of
+    * the keys any more, so the transaction is prepared and committed remotely in two phases instead.
+    */
+   private void sendDeferredPrepareCommand(TxInvocationContext ctx, CommitCommand command) throws Throwable {
+      LocalTransaction localTx = (LocalTransaction) ctx.getCacheTransaction();
+      if (localTx.getRemotePrepareDeferredTopologyId() != command.getTopologyId()) {
+         if (trace) log.tracef("Topology changed since %s was prepared, preparing it remotely", localTx);
+         // From now on the transaction is a regular two-phase one: a rollback must reach the other owners and
+         // they must be notified of its completion
+         localTx.clearRemotePrepareDeferred();
+         PrepareCommand prepareCommand = buildRemotePrepareCommand(ctx, false);
+         prepareCommand.setTopologyId(command.getTopologyId());
+         Collection<Address> recipients = cdl.getOwners(getAffectedKeysFromContext(ctx));
+         prepareOnAffectedNodes(ctx, prepareCommand, recipients, true);
+         ((LocalTxInvocationContext) ctx).remoteLocksAcquired(recipients == null ? dm.getWriteConsistentHash().getMembers() : recipients);
+         sendCommitCommand(ctx, command);
+         return;
+      }
+
+      PrepareCommand prepareCommand = buildRemotePrepareCommand(ctx, true);
+      prepareCommand.setTopologyId(command.getTopologyId());
+      boolean syncCommitPhase = cacheConfiguration.transaction().syncCommitPhase();
+      RpcOptions rpcOptions;
+      if (syncCommitPhase) {
+         rpcOptions = rpcManager.getRpcOptionsBuilder(ResponseMode.SYNCHRONOUS_IGNORE_LEAVERS, DeliverOrder.NONE).build();
+      } else {
+         rpcOptions = rpcManager.getDefaultRpcOptions(false, DeliverOrder.NONE);
+      }
+      rpcManager.invokeRemotely(getCommitNodes(ctx), prepareCommand, rpcOptions);
+   }
+
+   /**
+    * @return the prepare command sent to the other owners at commit time, for a transaction whose remote prepare was
+    *         deferred.
+    */
+   protected PrepareCommand buildRemotePrepareCommand(TxInvocationContext ctx, boolean onePhaseCommit) {
+      return cf.buildPrepareCommand(ctx.getGlobalTransaction(), ctx.getModifications(), onePhaseCommit);
+   }
+
    private void sendCommitCommand(TxInvocationContext ctx, CommitCommand command) throws TimeoutException, InterruptedException {
       Collection<Address> recipients = getCommitNodes(ctx);
       boolean syncCommitPhase = cacheConfiguration.transaction().syncCommitPhase();
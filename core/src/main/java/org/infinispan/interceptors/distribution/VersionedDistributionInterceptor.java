@@ -1,6 +1,7 @@
 package org.infinispan.interceptors.distribution;
 
 import org.infinispan.commands.tx.PrepareCommand;
+import org.infinispan.commands.tx.VersionedPrepareCommand;
 import org.infinispan.context.impl.TxInvocationContext;
 import org.infinispan.remoting.inboundhandler.DeliverOrder;
 import org.infinispan.remoting.responses.Response;
@@ -29,6 +30,17 @@ protected Log getLog() {
       return log;
    }
 
+   @Override
+   protected PrepareCommand buildRemotePrepareCommand(TxInvocationContext ctx, boolean onePhaseCommit) {
+      VersionedPrepareCommand command = cf.buildVersionedPrepareCommand(ctx.getGlobalTransaction(),
+                                                                        ctx.getModifications(), onePhaseCommit);
+      // A one-phase prepare is committed with the versions it carries, so it needs the versions generated by the
+      // local write skew check instead of the versions read by the transaction
+      CacheTransaction ct = ctx.getCacheTransaction();
+      command.setVersionsSeen(onePhaseCommit ? ct.getUpdatedEntryVersions() : ct.getVersionsRead());
+      return command;
+   }
+
    @Override
    protected void prepareOnAffectedNodes(TxInvocationContext ctx, PrepareCommand command, Collection<Address> recipients, boolean ignored) {
       // Perform the RPC
@@ -1,7 +1,12 @@
 package org.infinispan.interceptors.locking;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 
 import org.infinispan.commands.CommandsFactory;
@@ -14,11 +19,13 @@
 import org.infinispan.commands.write.ClearCommand;
 import org.infinispan.commands.write.DataWriteCommand;
 import org.infinispan.commands.write.PutMapCommand;
+import org.infinispan.commons.equivalence.Equivalence;
 import org.infinispan.container.entries.InternalCacheEntry;
 import org.infinispan.context.Flag;
 import org.infinispan.context.InvocationContext;
 import org.infinispan.context.impl.TxInvocationContext;
 import org.infinispan.factories.annotations.Inject;
+import org.infinispan.factories.annotations.Start;
 import org.infinispan.remoting.inboundhandler.DeliverOrder;
 import org.infinispan.statetransfer.StateTransferManager;
 import org.infinispan.transaction.impl.LocalTransaction;
@@ -38,6 +45,10 @@
  * by the deadlock detection logic, but might not be optimal: acquiring locks locally first might help to fail fast the
  * in the case of keys being locked.
  *
+ * The commands locking multiple keys (e.g. {@link org.infinispan.AdvancedCache#lock(java.util.Collection)}) lock them
+ * in the order of their hash codes, on every node, so two transactions locking overlapping sets of keys don't
+ * deadlock.
+ *
  * @author Mircea Markus
  * @since 5.1
  */
@@ -45,6 +56,7 @@ public class PessimisticLockingInterceptor extends AbstractTxLockingInterceptor
 
    private CommandsFactory cf;
    private StateTransferManager stateTransferManager;
+   private Comparator<Object> lockOrder;
 
    private static final Log log = LogFactory.getLog(PessimisticLockingInterceptor.class);
 
@@ -59,6 +71,49 @@ public void init(CommandsFactory factory, StateTransferManager stateTransferMana
       this.stateTransferManager = stateTransferManager;
    }
 
+   @Start
+   public void start() {
+      final Equivalence<Object> keyEquivalence = cacheConfiguration.dataContainer().keyEquivalence();
+      lockOrder = new Comparator<Object>() {
+         @Override
+         public int compare(Object key1, Object key2) {
+            int h1 = keyEquivalence.hashCode(key1);
+            int h2 = keyEquivalence.hashCode(key2);
+            if (h1 != h2) {
+               return h1 < h2 ? -1 : 1;
+            }
+            return keyEquivalence.equals(key1, key2) ? 0 : compareCollidingKeys(key1, key2);
+         }
+      };
+   }
+
+   /**
+    * Orders different keys with the same hash code, so that every transaction locks them in the same order: by class
+    * name, then by natural ordering, by content for byte arrays, or by string form.
+    */
+   @SuppressWarnings("unchecked")
+   private static int compareCollidingKeys(Object key1, Object key2) {
+      Class<?> c1 = key1.getClass();
+      Class<?> c2 = key2.getClass();
+      if (c1 != c2) {
+         return c1.getName().compareTo(c2.getName());
+      }
+      if (key1 instanceof Comparable) {
+         return ((Comparable<Object>) key1).compareTo(key2);
+      }
+      if (key1 instanceof byte[]) {
+         byte[] b1 = (byte[]) key1;
+         byte[] b2 = (byte[]) key2;
+         for (int i = 0; i < Math.min(b1.length, b2.length); i++) {
+            if (b1[i] != b2[i]) {
+               return b1[i] < b2[i] ? -1 : 1;
+            }
+         }
+         return b1.length - b2.length;
+      }
+      return String.valueOf(key1).compareTo(String.valueOf(key2));
+   }
+
    @Override
    protected final Object visitDataReadCommand(InvocationContext ctx, DataCommand command) throws Throwable {
       try {
@@ -90,7 +145,7 @@ public Object visitPutMapCommand(InvocationContext ctx, PutMapCommand command) t
             acquireRemoteIfNeeded(ctx, command.getMap().keySet(), command);
             final TxInvocationContext txContext = (TxInvocationContext) ctx;
             long lockTimeout = getLockAcquisitionTimeout(command, skipLocking);
-            for (Object key : command.getMap().keySet()) {
+            for (Object key : inLockOrder(command.getMap().keySet())) {
                lockAndRegisterBackupLock(txContext, key, lockTimeout, skipLocking);
             }
          }
@@ -129,7 +184,7 @@ public Object visitApplyDeltaCommand(InvocationContext ctx, ApplyDeltaCommand co
             acquireRemoteIfNeeded(ctx, keysToLock, command);
             if (cdl.localNodeIsOwner(command.getKey())) {
                long lockTimeout = getLockAcquisitionTimeout(command, skipLocking);
-               for (Object key : compositeKeys) {
+               for (Object key : inLockOrder(keysToLock)) {
                   lockKey(ctx, key, lockTimeout, skipLocking);
                }
             }
@@ -194,7 +249,7 @@ public Object visitLockControlCommand(TxInvocationContext ctx, LockControlComman
          }
 
          long lockTimeout = getLockAcquisitionTimeout(command, skipLocking);
-         for (Object key : command.getKeys()) {
+         for (Object key : inLockOrder(command.getKeys())) {
             lockAndRegisterBackupLock(ctx, key, lockTimeout, skipLocking);
          }
          return Boolean.TRUE;
@@ -239,6 +294,18 @@ private void acquireRemoteIfNeeded(InvocationContext ctx, DataCommand command, b
       ((TxInvocationContext) ctx).addAffectedKey(key);
    }
 
+   /**
+    * Sorts the keys in the order in which all the nodes acquire locks on multiple keys.
+    */
+   private Collection<Object> inLockOrder(Collection<Object> keys) {
+      if (keys.size() <= 1) {
+         return keys;
+      }
+      List<Object> sortedKeys = new ArrayList<Object>(keys);
+      Collections.sort(sortedKeys, lockOrder);
+      return sortedKeys;
+   }
+
    private boolean isStateTransferInProgress() {
       return stateTransferManager != null && stateTransferManager.isStateTransferInProgress();
    }
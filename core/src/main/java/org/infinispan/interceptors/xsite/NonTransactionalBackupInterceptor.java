@@ -10,6 +10,7 @@
 import org.infinispan.commands.write.WriteCommand;
 import org.infinispan.context.InvocationContext;
 import org.infinispan.factories.annotations.Inject;
+import org.infinispan.interceptors.base.InvocationStageAware;
 import org.infinispan.interceptors.locking.ClusteringDependentLogic;
 
 /**
@@ -19,7 +20,7 @@
  * @author Pedro Ruivo
  * @since 5.2
  */
-public class NonTransactionalBackupInterceptor extends BaseBackupInterceptor {
+public class NonTransactionalBackupInterceptor extends BaseBackupInterceptor implements InvocationStageAware {
 
    private CommandsFactory commandsFactory;
    private ClusteringDependentLogic clusteringDependentLogic;
@@ -3,9 +3,13 @@
 import org.infinispan.AdvancedCache;
 import org.infinispan.commands.CommandsFactory;
 import org.infinispan.commons.CacheException;
+import org.infinispan.commons.marshall.StreamingMarshaller;
 import org.infinispan.commons.util.CloseableIterator;
 import org.infinispan.commons.util.CollectionFactory;
+import org.infinispan.commons.util.concurrent.NotifyingFutureImpl;
+import org.infinispan.commons.util.concurrent.NotifyingNotifiableFuture;
 import org.infinispan.commons.util.concurrent.ParallelIterableMap;
+import org.infinispan.container.SegmentedDataContainer;
 import org.infinispan.container.entries.CacheEntry;
 import org.infinispan.container.entries.InternalCacheEntry;
 import org.infinispan.context.Flag;
@@ -30,6 +34,7 @@
 import org.infinispan.persistence.manager.PersistenceManager;
 import org.infinispan.remoting.responses.ExceptionResponse;
 import org.infinispan.remoting.responses.Response;
+import org.infinispan.remoting.responses.SuccessfulResponse;
 import org.infinispan.remoting.rpc.ResponseMode;
 import org.infinispan.remoting.rpc.RpcManager;
 import org.infinispan.remoting.rpc.RpcOptions;
@@ -41,12 +46,14 @@
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.concurrent.atomic.AtomicReferenceArray;
 
+import static org.infinispan.factories.KnownComponentNames.CACHE_MARSHALLER;
 import static org.infinispan.factories.KnownComponentNames.REMOTE_COMMAND_EXECUTOR;
 
 /**
@@ -62,12 +69,25 @@
  * them.</p>
  * <p>Values retrieved for suspect segments are sent to the iterator and it is noted that they were raised.  When
  * these segments are requested again the noted keys are sent along to reduce value payload size.</p>
+ * <p>Requests are sent to up to {@link #MAX_CONCURRENT_REQUESTS} owners at the same time.  A remote node sends a batch
+ * of entries without waiting for the previous one to be acknowledged, so that it retrieves the next batch while the
+ * previous one is in flight, and the iterator buffers up to two batches so a batch can be received while the previous
+ * one is consumed.  The originator replies to each batch with the batch size it wants next: batches grow while the
+ * consumer waits for entries and shrink back while it has a full batch left to consume.  The remote node also bounds
+ * batches by the marshalled size of a sample entry.</p>
  *
  * @author wburns
  * @since 7.0
  */
 @Listener
 public class DistributedEntryRetriever<K, V> extends LocalEntryRetriever<K, V> {
+   // Maximum number of owners with a pending request for the same iteration
+   static final int MAX_CONCURRENT_REQUESTS = 4;
+   // Batches grow up to this multiple of the configured batch size while the consumer is waiting for entries
+   static final int MAX_BATCH_SIZE_FACTOR = 8;
+   // Batches are bounded so their estimated marshalled size stays under this many bytes
+   static final int MAX_BATCH_BYTES = 4 * 1024 * 1024;
+
    private final AtomicReference<ConsistentHash> currentHash = new AtomicReference<ConsistentHash>();
 
    private DistributionManager distributionManager;
@@ -76,6 +96,7 @@
    private Address localAddress;
    private RpcManager rpcManager;
    private ExecutorService remoteExecutorService;
+   private StreamingMarshaller marshaller;
 
    class IterationStatus<C> {
       final DistributedItr<C> ongoingIterator;
@@ -85,7 +106,8 @@
       final Set<Flag> flags;
       final AtomicReferenceArray<Set<K>> processedKeys;
 
-      final AtomicReference<Address> awaitingResponseFrom = new AtomicReference<>();
+      final Set<Address> awaitingResponseFrom = new ConcurrentHashSet<>();
+      final AtomicInteger remoteBatchSize = new AtomicInteger(batchSize);
       final AtomicReference<LocalStatus> localRunning = new AtomicReference<>(LocalStatus.IDLE);
 
       public IterationStatus(DistributedItr<C> ongoingIterator, SegmentListener segmentListener,
@@ -189,43 +211,25 @@ public void topologyChanged(TopologyChangedEvent<K, V> event) {
                final IterationStatus<?> status = details.getValue();
                Set<Integer> remoteSegments = findMissingRemoteSegments(status.processedKeys, afterHash);
                if (!remoteSegments.isEmpty()) {
-                  Map.Entry<Address, Set<Integer>> route = findOptimalRoute(remoteSegments, afterHash);
-                  boolean sendRequest;
-                  AtomicReference<Address> awaitingResponsefrom = status.awaitingResponseFrom;
-                  Address waitingFor = awaitingResponsefrom.get();
-                  // If the node we are waiting from a response from has gone down we have to resubmit it - note we just
-                  // call sendRequest without checking awaitingResponseFrom
-                  if (sendRequest = leavers.contains(waitingFor)) {
-                     if (trace) {
-                        log.tracef("Resending new segment request %s for identifier %s since node %s has gone down",
-                                   route.getValue(), identifier, waitingFor);
-                     }
-                  } else if (sendRequest = (waitingFor == null && awaitingResponsefrom.compareAndSet(null, route.getKey()))) {
-                     // This clause is in case if we finished all remote segment retrievals and now we need to send
-                     // a new one due to rehash
+                  // If a node we are waiting a response from has gone down we have to resubmit its segments
+                  Set<Address> lostRequests = new HashSet<>(status.awaitingResponseFrom);
+                  lostRequests.retainAll(leavers);
+                  if (!lostRequests.isEmpty()) {
                      if (trace) {
-                        log.tracef("There is no pending remote request for identifier %s, sending new one for segments %s",
-                                   identifier, route.getValue());
-                     }
-                  }
-                  if (sendRequest) {
-                     if (status.ongoingIterator != null) {
-                        // We don't have to call the eventuallySendRequest, because if the node we are sending to
-                        // is now gone we will get another topology update and retry again - also this is async
-                        // so we aren't blocking during an update
-                        sendRequest(false, route, identifier, status);
-                     } else {
-                        // Just in case if we did the putIfAbsent to free up reference if the iterator was shutdown
-                        awaitingResponsefrom.set(null);
-                        if (trace) {
-                           log.tracef("Not sending request since iterator has been closed for identifier %s", identifier);
-                        }
+                        log.tracef("Resending segment requests for identifier %s since nodes %s have gone down",
+                                   identifier, lostRequests);
                      }
+                     status.awaitingResponseFrom.removeAll(lostRequests);
                   }
+                  // This also covers the case where we finished all remote segment retrievals and now we need to
+                  // send new ones due to rehash.  We don't have to call the eventuallySendRequests, because if the
+                  // node we are sending to is now gone we will get another topology update and retry again - also
+                  // this is async so we aren't blocking during an update
+                  sendRequests(false, identifier, status, remoteSegments, afterHash);
                } else {
                   // If we get in here it means that all remaining segments are local - so we aren't waiting
                   // for a response any longer
-                  details.getValue().awaitingResponseFrom.set(null);
+                  status.awaitingResponseFrom.clear();
                }
 
 
@@ -246,6 +250,11 @@ public void handleBatch(UUID identifier, boolean complete, Set<Integer> complete
                      public void handleException(CacheException e) {
                         status.ongoingIterator.close(e);;
                      }
+
+                     @Override
+                     public int getBatchSize() {
+                        return batchSize;
+                     }
                   });
                }
             }
@@ -257,8 +266,10 @@ public void handleException(CacheException e) {
    public void initialize(DistributionManager distributionManager,
                           PersistenceManager persistenceManager, CommandsFactory commandsFactory,
                           RpcManager rpcManager,
-                          @ComponentName(REMOTE_COMMAND_EXECUTOR) ExecutorService remoteExecutorService) {
+                          @ComponentName(REMOTE_COMMAND_EXECUTOR) ExecutorService remoteExecutorService,
+                          @ComponentName(CACHE_MARSHALLER) StreamingMarshaller marshaller) {
       this.distributionManager = distributionManager;
+      this.marshaller = marshaller;
       this.persistenceManager = persistenceManager;
       this.commandsFactory = commandsFactory;
       this.rpcManager = rpcManager;
@@ -281,35 +292,8 @@ public <C> void startRetrievingValues(final UUID identifier, final Address origi
          log.tracef("Received entry request for %s from node %s for segments %s", identifier, origin, segments);
       }
 
-      startRetrievingValues(identifier, segments, keysToFilter, filter, converter, flags, new SegmentBatchHandler<K, C>() {
-         @Override
-         public void handleBatch(UUID identifier, boolean complete, Set<Integer> completedSegments,
-                                 Set<Integer> inDoubtSegments, Collection<CacheEntry<K, C>> entries) {
-            if (cache.getStatus() != ComponentStatus.RUNNING) {
-               if (log.isTraceEnabled()) {
-                  log.tracef("Cache status is no longer running, all segments are now suspect");
-               }
-               inDoubtSegments.addAll(completedSegments);
-               completedSegments.clear();
-            }
-            if (log.isTraceEnabled()) {
-               log.tracef("Sending batch response for %s to origin %s with %s completed segments, %s in doubt segments and %s values",
-                          identifier, origin, completedSegments, inDoubtSegments, entries.size());
-            }
-
-            EntryResponseCommand<K, C> command = commandsFactory.buildEntryResponseCommand(identifier, completedSegments,
-                                                                                     inDoubtSegments, entries, null);
-            rpcManager.invokeRemotely(Collections.singleton(origin), command, rpcManager.getRpcOptionsBuilder(
-                  ResponseMode.SYNCHRONOUS).timeout(Long.MAX_VALUE, TimeUnit.SECONDS).build());
-         }
-
-         @Override
-         public void handleException(CacheException e) {
-            EntryResponseCommand<K, C> command = commandsFactory.buildEntryResponseCommand(identifier, null, null, null, e);
-            rpcManager.invokeRemotely(Collections.singleton(origin), command, rpcManager.getRpcOptionsBuilder(
-                  ResponseMode.SYNCHRONOUS).timeout(Long.MAX_VALUE, TimeUnit.SECONDS).build());
-         }
-      });
+      startRetrievingValues(identifier, segments, keysToFilter, filter, converter, flags,
+                            new RemoteBatchSender<C>(identifier, origin));
    }
 
    private <H, C extends H> void startRetrievingValues(final UUID identifier, final Set<Integer> segments,
@@ -373,13 +357,14 @@ public boolean add(CacheEntry<K, C> kcEntry) {
                         }
                      };
                      ParallelIterableMap.KeyValueAction<? super K, CacheEntry<? super K, ? super V>> action =
-                           new MapAction(identifier, segmentsToUse, inDoubtSegmentsToUse, batchSize, usedConverter, handler,
+                           new MapAction(identifier, segmentsToUse, inDoubtSegmentsToUse, usedConverter, handler,
                                          queue);
 
                      PassivationListener<K, V> listener = null;
                      long currentTime = timeService.wallClockTime();
                      try {
-                        for (InternalCacheEntry<K, V> entry : dataContainer) {
+                        for (InternalCacheEntry<K, V> entry : SegmentedDataContainer.entriesInSegments(
+                              dataContainer, hashToUse, segmentsToUse)) {
                            if (!entry.isExpired(currentTime)) {
                               InternalCacheEntry<K, V> clone = entryFactory.create(unwrapMarshalledvalue(entry.getKey()),
                                                                                    unwrapMarshalledvalue(entry.getValue()), entry);
@@ -416,7 +401,7 @@ else if (!filter.accept(key, clone.getValue(), clone.getMetadata())) {
                               stackedFilters.add(new CollectionKeyFilter<K>(keysToFilter));
                            }
                            if (filterAndConvert) {
-                              action = new MapAction(identifier, segmentsToUse, inDoubtSegmentsToUse, batchSize, (KeyValueFilterConverter) filter, handler, queue);
+                              action = new MapAction(identifier, segmentsToUse, inDoubtSegmentsToUse, (KeyValueFilterConverter) filter, handler, queue);
                            } else if (filter != null) {
                               stackedFilters.add(new KeyValueFilterAsKeyFilter<K>(filter));
                            }
@@ -577,7 +562,8 @@ public <C> CloseableIterator<CacheEntry<K, C>> retrieveEntries(final KeyValueFil
                     filter, usedConverter);
       }
 
-      DistributedItr<C> itr = new DistributedItr<>(batchSize, identifier, listener, hash);
+      // Room for two of the largest batches, so one can be received while the other is consumed
+      DistributedItr<C> itr = new DistributedItr<>(2 * MAX_BATCH_SIZE_FACTOR * batchSize, identifier, listener, hash);
       registerIterator(itr, flags);
       Set<Integer> remoteSegments = new HashSet<>();
       AtomicReferenceArray<Set<K>> processedKeys = new AtomicReferenceArray<Set<K>>(hash.getNumSegments());
@@ -594,7 +580,7 @@ public <C> CloseableIterator<CacheEntry<K, C>> retrieveEntries(final KeyValueFil
       Set<Integer> ourSegments = hash.getPrimarySegmentsForOwner(localAddress);
       remoteSegments.removeAll(ourSegments);
       if (!remoteSegments.isEmpty()) {
-         eventuallySendRequest(identifier, status);
+         eventuallySendRequests(identifier, status);
       }
       if (!ourSegments.isEmpty()) {
          startRetrievingValuesLocal(identifier, ourSegments, status, new SegmentBatchHandler<K, C>() {
@@ -607,6 +593,11 @@ public void handleBatch(UUID identifier, boolean complete, Set<Integer> complete
             public void handleException(CacheException e) {
                status.ongoingIterator.close(e);
             }
+
+            @Override
+            public int getBatchSize() {
+               return batchSize;
+            }
          });
       }
       return itr;
@@ -621,7 +612,7 @@ private ConsistentHash getCurrentHash() {
       return hash;
    }
 
-   private <C> boolean eventuallySendRequest(UUID identifier, IterationStatus<?> status) {
+   private void eventuallySendRequests(UUID identifier, IterationStatus<?> status) {
       boolean sent = false;
       while (!sent) {
          // This means our iterator was closed explicitly
@@ -629,28 +620,45 @@ private <C> boolean eventuallySendRequest(UUID identifier, IterationStatus<?> st
             if (log.isTraceEnabled()) {
                log.tracef("Cannot send remote request as our iterator was concurrently closed for %s", identifier);
             }
-            return false;
+            return;
          }
 
          ConsistentHash hash = getCurrentHash();
          Set<Integer> missingRemoteSegments = findMissingRemoteSegments(status.processedKeys, hash);
          if (!missingRemoteSegments.isEmpty()) {
-            Map.Entry<Address, Set<Integer>> route = findOptimalRoute(missingRemoteSegments, hash);
-
-            // If another request came in we don't want to keep on trying.  This could happen if a rehash caused
-            // our existing node request to go away.
-            if (status.awaitingResponseFrom.compareAndSet(null, route.getKey())) {
-               sent = sendRequest(true, route, identifier, status);
-            } else {
-               break;
-            }
+            // If a request failed, the hash may have changed so try again
+            sent = sendRequests(true, identifier, status, missingRemoteSegments, hash);
          } else {
             if (log.isTraceEnabled()) {
                log.tracef("Cannot send remote request as there are no longer any remote segments missing for %s", identifier);
             }
-            break;
+            return;
          }
       }
+   }
+
+   /**
+    * Sends a request to each owner of the given segments that doesn't have a pending request for this iteration yet,
+    * owners with the most segments first, as long as less than {@link #MAX_CONCURRENT_REQUESTS} are pending.
+    * @return false if a request could not be sent
+    */
+   private boolean sendRequests(boolean sync, UUID identifier, IterationStatus<?> status, Set<Integer> segments,
+                                ConsistentHash hash) {
+      List<Map.Entry<Address, Set<Integer>>> routes = new ArrayList<>();
+      synchronized (status) {
+         for (Map.Entry<Address, Set<Integer>> route : findRoutes(segments, hash)) {
+            if (status.awaitingResponseFrom.size() >= MAX_CONCURRENT_REQUESTS) {
+               break;
+            }
+            if (status.awaitingResponseFrom.add(route.getKey())) {
+               routes.add(route);
+            }
+         }
+      }
+      boolean sent = true;
+      for (Map.Entry<Address, Set<Integer>> route : routes) {
+         sent &= sendRequest(sync, route, identifier, status);
+      }
       return sent;
    }
 
@@ -660,7 +668,6 @@ private <C> boolean sendRequest(boolean sync, Map.Entry<Address, Set<Integer>> r
          log.tracef("Sending request to %s for identifier %s", route, identifier);
       }
       Address address = route.getKey();
-      status.awaitingResponseFrom.set(address);
       Set<Integer> segments = route.getValue();
       Set<K> keysToFilter = new HashSet<K>();
 
@@ -698,7 +705,7 @@ private <C> boolean sendRequest(boolean sync, Map.Entry<Address, Set<Integer>> r
                   log.tracef(cause, "Unsuccessful response received from node %s for %s, must resend to a new node!",
                              route.getKey(), identifier);
                }
-               atomicRemove(status.awaitingResponseFrom, address);
+               status.awaitingResponseFrom.remove(address);
                return false;
             }
          }
@@ -707,7 +714,7 @@ private <C> boolean sendRequest(boolean sync, Map.Entry<Address, Set<Integer>> r
          if (log.isTraceEnabled()) {
             log.tracef("Request to %s for %s was suspect, must resend to a new node!", route, identifier);
          }
-         atomicRemove(status.awaitingResponseFrom, address);
+         status.awaitingResponseFrom.remove(address);
          return false;
       }
    }
@@ -815,13 +822,12 @@ private Set<Integer> findMissingRemoteSegments(AtomicReferenceArray<Set<K>> proc
    }
 
    /**
-    * Finds the address with the most amount of segments to request and returns it - note this will never return
-    * the local address
+    * Finds the addresses owning the segments to request, sorted by decreasing amount of segments - note this will
+    * never return the local address
     * @param segmentsToFind The segments to find or null if all segments are desired
     * @return
     */
-   private Map.Entry<Address, Set<Integer>> findOptimalRoute(Set<Integer> segmentsToFind, ConsistentHash hash) {
-      Map.Entry<Address, Set<Integer>> route = null;
+   private List<Map.Entry<Address, Set<Integer>>> findRoutes(Set<Integer> segmentsToFind, ConsistentHash hash) {
       Map<Address, Set<Integer>> routes;
       int segmentCount = hash.getNumSegments();
       routes = new HashMap<>();
@@ -836,31 +842,31 @@ private Map.Entry<Address, Set<Integer>> findOptimalRoute(Set<Integer> segmentsT
             segments.add(i);
          }
       }
-      for (Map.Entry<Address, Set<Integer>> mappedRoute : routes.entrySet()) {
-         if (mappedRoute.getKey().equals(localAddress)) {
-            continue;
-         }
-         if (route == null) {
-            route = mappedRoute;
-         } else if (route.getValue().size() > mappedRoute.getValue().size()) {
-            route = mappedRoute;
+      routes.remove(localAddress);
+      List<Map.Entry<Address, Set<Integer>>> sortedRoutes = new ArrayList<>(routes.entrySet());
+      Collections.sort(sortedRoutes, new Comparator<Map.Entry<Address, Set<Integer>>>() {
+         @Override
+         public int compare(Map.Entry<Address, Set<Integer>> o1, Map.Entry<Address, Set<Integer>> o2) {
+            return o2.getValue().size() - o1.getValue().size();
          }
-      }
-      return route;
+      });
+      return sortedRoutes;
    }
 
 
    @Override
-   public <C> void receiveResponse(UUID identifier, Address origin, Set<Integer> completedSegments,
-                                   Set<Integer> inDoubtSegments, Collection<CacheEntry<K, C>> entries, CacheException e) {
+   public <C> int receiveResponse(UUID identifier, Address origin, Set<Integer> completedSegments,
+                                  Set<Integer> inDoubtSegments, Collection<CacheEntry<K, C>> entries, CacheException e) {
       if (log.isTraceEnabled()) {
          log.tracef("Processing response for identifier %s", identifier);
       }
       
+      int nextBatchSize = 0;
       if (e != null) {
          log.tracef("Response for identifier %s contained exception", identifier, e);
       } else {
          try {
+            nextBatchSize = nextRemoteBatchSize(identifier);
             processData(identifier, origin, completedSegments, inDoubtSegments, entries);
          } catch (Throwable t) {
             e = log.exceptionProcessingIteratorResponse(identifier, e);
@@ -872,6 +878,34 @@ public <C> void receiveResponse(UUID identifier, Address origin, Set<Integer> co
             status.ongoingIterator.close(e);
          }
       }
+      return nextBatchSize;
+   }
+
+   /**
+    * Computes the size of the next batch a remote node should send, depending on the entries left in the iterator
+    * when a batch is received.
+    * @return the batch size, or 0 if the iteration is complete
+    */
+   private int nextRemoteBatchSize(UUID identifier) {
+      IterationStatus<?> status = iteratorDetails.get(identifier);
+      if (status == null) {
+         return 0;
+      }
+      int queued = status.ongoingIterator.queuedEntries();
+      int current = status.remoteBatchSize.get();
+      int next = current;
+      if (queued == 0) {
+         // The consumer is waiting for entries, so bigger batches reduce the number of round trips
+         next = Math.min(current * 2, MAX_BATCH_SIZE_FACTOR * batchSize);
+      } else if (queued >= current) {
+         // The consumer is not keeping up, no need to retrieve more entries ahead
+         next = Math.max(current / 2, batchSize);
+      }
+      if (next != current && status.remoteBatchSize.compareAndSet(current, next) && log.isTraceEnabled()) {
+         log.tracef("Remote batch size for identifier %s is now %s, iterator had %s entries left", identifier, next,
+                    queued);
+      }
+      return next;
    }
 
    /**
@@ -968,43 +1002,19 @@ private <C> void processData(final UUID identifier, Address origin, Set<Integer>
                              findMissingRemoteSegments(processedKeys, hash));
                }
                complete = false;
-               if (origin != localAddress) {
-                  // Only perform if the awaitingResponse is still not null, which is our current response.  If it
-                  // is null that means the iterator was closed, if it was non null means this node went down while
-                  // processing response
-                  if (atomicRemove(status.awaitingResponseFrom, origin)) {
-                     if (log.isTraceEnabled()) {
-                        log.tracef("Sending request for %s via remote transport thread", identifier);
-                     }
-                     remoteExecutorService.submit(new Runnable() {
-                        @Override
-                        public void run() {
-                           eventuallySendRequest(identifier, status);
-                        }
-                     });
-                  } else if (log.isTraceEnabled()) {
-                     log.tracef("Not sending new remote request as %s was either stopped or %s went down", identifier,
-                                origin);
-                  }
+            }
+            if (origin != localAddress) {
+               // The origin has completed its request so it can be sent a new one.  We also check for missing
+               // segments when there are none right now, as a rehash could have made some remote again while the
+               // origin was still marked as awaiting a response
+               status.awaitingResponseFrom.remove(origin);
+               if (log.isTraceEnabled()) {
+                  log.tracef("Sending requests for %s via remote transport thread", identifier);
                }
-            } else if (origin != localAddress) {
-               // If we don't have another node to send to mark the response as no longer required
-               status.awaitingResponseFrom.set(null);
-
                remoteExecutorService.submit(new Runnable() {
                   @Override
                   public void run() {
-                     // We have to keep trying until either there are no more missing segments or we have sent a request
-                     while (missingRemoteSegment(processedKeys, getCurrentHash()) && iteratorDetails.containsKey(identifier)) {
-                        if (!eventuallySendRequest(identifier, status)) {
-                           // We couldn't send a remote request, so remove the awaitingResponse and make sure there
-                           // are no more missing remote segments
-                           status.awaitingResponseFrom.set(null);
-                        } else {
-                           // This means we successfully sent the request so our job is done!
-                           break;
-                        }
-                     }
+                     eventuallySendRequests(identifier, status);
                   }
                });
             }
@@ -1026,6 +1036,11 @@ public void handleBatch(UUID identifier, boolean complete, Set<Integer> complete
                   public void handleException(CacheException e) {
                      itr.close(e);
                   }
+
+                  @Override
+                  public int getBatchSize() {
+                     return batchSize;
+                  }
                });
             }
 
@@ -1038,15 +1053,6 @@ public void handleException(CacheException e) {
       }
    }
 
-   private static <V> boolean atomicRemove(AtomicReference<V> ref, V object) {
-      V refObject = ref.get();
-      if (object.equals(refObject)) {
-         return ref.compareAndSet(refObject, null);
-      } else {
-         return false;
-      }
-   }
-
    private void completeIteration(UUID identifier) {
       if (log.isTraceEnabled()) {
          log.tracef("Processing complete for identifier %s", identifier);
@@ -1141,7 +1147,6 @@ protected void finalize() throws Throwable {
    private class MapAction<K, V, C> implements ParallelIterableMap.KeyValueAction<K, CacheEntry<K, V>> {
       final UUID identifier;
       final Set<Integer> segments;
-      final int batchSize;
       final Converter<? super K, ? super V, C> converter;
       final SegmentBatchHandler<K, C> handler;
       final Queue<CacheEntry<K, C>> queue;
@@ -1149,11 +1154,10 @@ protected void finalize() throws Throwable {
       final AtomicInteger insertionCount = new AtomicInteger();
 
       public MapAction(UUID identifier, Set<Integer> segments, Set<Integer> inDoubtSegments,
-                       int batchSize, Converter<? super K, ? super V, C> converter, SegmentBatchHandler<K, C> handler,
+                       Converter<? super K, ? super V, C> converter, SegmentBatchHandler<K, C> handler,
                        Queue<CacheEntry<K, C>> queue)  {
          this.identifier = identifier;
          this.segments = segments;
-         this.batchSize = batchSize;
          this.converter = converter;
          this.handler = handler;
          this.queue = queue;
@@ -1172,10 +1176,21 @@ public void apply(K k, CacheEntry<K, V> kvInternalCacheEntry) {
                clone.setValue(value);
             }
             queue.add(clone);
-            if (insertionCount.incrementAndGet() % batchSize == 0) {
-               Collection<CacheEntry<K, C>> entriesToSend = new ArrayList<>(batchSize);
-               while (entriesToSend.size() != batchSize) {
-                  entriesToSend.add(queue.poll());
+            // Remote batches are resized while iterating, as requested by the originator
+            int currentBatchSize = handler.getBatchSize();
+            if (insertionCount.incrementAndGet() >= currentBatchSize) {
+               Collection<CacheEntry<K, C>> entriesToSend;
+               synchronized (this) {
+                  // Another thread may have sent the batch already
+                  if (insertionCount.get() < currentBatchSize) {
+                     return;
+                  }
+                  entriesToSend = new ArrayList<>(currentBatchSize);
+                  CacheEntry<K, C> entry;
+                  while (entriesToSend.size() != currentBatchSize && (entry = queue.poll()) != null) {
+                     entriesToSend.add(entry);
+                  }
+                  insertionCount.addAndGet(-entriesToSend.size());
                }
 
                Set<Integer> emptySet = Collections.emptySet();
@@ -1186,11 +1201,128 @@ public void apply(K k, CacheEntry<K, V> kvInternalCacheEntry) {
       }
    }
 
+   /**
+    * Sends the batches of a remote request back to the originator.  A batch is sent without waiting for the response
+    * to the previous one, which is only awaited when the next batch is ready, so at most one batch is in flight at
+    * a time.  The response to each batch contains the batch size the originator wants next.
+    */
+   private class RemoteBatchSender<C> implements SegmentBatchHandler<K, C> {
+      private final UUID identifier;
+      private final Address origin;
+      private final RpcOptions rpcOptions;
+      private NotifyingNotifiableFuture<Map<Address, Response>> pendingBatch;
+      private volatile int requestedBatchSize = batchSize;
+      private volatile int maxEntriesPerBatch = Integer.MAX_VALUE;
+
+      RemoteBatchSender(UUID identifier, Address origin) {
+         this.identifier = identifier;
+         this.origin = origin;
+         this.rpcOptions = rpcManager.getRpcOptionsBuilder(ResponseMode.SYNCHRONOUS)
+               .timeout(Long.MAX_VALUE, TimeUnit.SECONDS).build();
+      }
+
+      @Override
+      public int getBatchSize() {
+         return Math.max(1, Math.min(requestedBatchSize, maxEntriesPerBatch));
+      }
+
+      @Override
+      public synchronized void handleBatch(UUID identifier, boolean complete, Set<Integer> completedSegments,
+                                           Set<Integer> inDoubtSegments, Collection<CacheEntry<K, C>> entries) {
+         if (cache.getStatus() != ComponentStatus.RUNNING) {
+            if (log.isTraceEnabled()) {
+               log.tracef("Cache status is no longer running, all segments are now suspect");
+            }
+            inDoubtSegments.addAll(completedSegments);
+            completedSegments.clear();
+         }
+         if (log.isTraceEnabled()) {
+            log.tracef("Sending batch response for %s to origin %s with %s completed segments, %s in doubt segments and %s values",
+                       identifier, origin, completedSegments, inDoubtSegments, entries.size());
+         }
+
+         awaitPendingBatch();
+         sampleEntrySize(entries);
+         EntryResponseCommand<K, C> command = commandsFactory.buildEntryResponseCommand(identifier, completedSegments,
+                                                                                  inDoubtSegments, entries, null);
+         if (complete) {
+            updateBatchSize(rpcManager.invokeRemotely(Collections.singleton(origin), command, rpcOptions));
+         } else {
+            pendingBatch = new NotifyingFutureImpl<>();
+            rpcManager.invokeRemotelyInFuture(pendingBatch, Collections.singleton(origin), command, rpcOptions);
+         }
+      }
+
+      @Override
+      public synchronized void handleException(CacheException e) {
+         try {
+            awaitPendingBatch();
+         } catch (CacheException pendingException) {
+            log.tracef(pendingException, "Previous batch could not be sent to %s", origin);
+         }
+         EntryResponseCommand<K, C> command = commandsFactory.buildEntryResponseCommand(identifier, null, null, null, e);
+         rpcManager.invokeRemotely(Collections.singleton(origin), command, rpcOptions);
+      }
+
+      private void awaitPendingBatch() {
+         if (pendingBatch == null) {
+            return;
+         }
+         try {
+            updateBatchSize(pendingBatch.get());
+         } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CacheException("Interrupted while sending entries to " + origin, e);
+         } catch (ExecutionException e) {
+            throw new CacheException("Could not send entries to " + origin, e.getCause());
+         } finally {
+            pendingBatch = null;
+         }
+      }
+
+      private void updateBatchSize(Map<Address, Response> responses) {
+         Response response = responses == null ? null : responses.get(origin);
+         if (response instanceof SuccessfulResponse) {
+            Object value = ((SuccessfulResponse) response).getResponseValue();
+            if (value instanceof Integer && (Integer) value > 0) {
+               requestedBatchSize = (Integer) value;
+            }
+         }
+      }
+
+      /**
+       * Estimates the marshalled size of an entry from the first one of the batch, to bound the amount of bytes
+       * sent in a single batch.
+       */
+      private void sampleEntrySize(Collection<CacheEntry<K, C>> entries) {
+         if (entries.isEmpty()) {
+            return;
+         }
+         CacheEntry<K, C> entry = entries.iterator().next();
+         try {
+            int size = marshaller.objectToByteBuffer(entry.getKey()).length +
+                  marshaller.objectToByteBuffer(entry.getValue()).length;
+            maxEntriesPerBatch = Math.max(1, MAX_BATCH_BYTES / Math.max(1, size));
+         } catch (Exception e) {
+            if (e instanceof InterruptedException) {
+               Thread.currentThread().interrupt();
+            }
+            log.tracef(e, "Could not estimate the size of entry %s", entry.getKey());
+         }
+      }
+   }
+
    interface SegmentBatchHandler<K, C> {
       public void handleBatch(UUID identifier, boolean complete, Set<Integer> completedSegments,
                               Set<Integer> inDoubtSegments, Collection<CacheEntry<K, C>> entries);
       
       public void handleException(CacheException e);
+
+      /**
+       * @return how many entries should be collected before a batch is handed to this handler, which may change
+       *         while iterating.
+       */
+      public int getBatchSize();
    }
 
    private static class SegmentFilter<K> implements KeyFilter<K> {
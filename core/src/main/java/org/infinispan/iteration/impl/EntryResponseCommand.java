@@ -59,8 +59,7 @@ public void init(EntryRetriever<K, ?> entryRetrieverManager) {
 
    @Override
    public Object perform(InvocationContext ctx) throws Throwable {
-      entryRetrieverManager.receiveResponse(identifier, origin, completedSegments, inDoubtSegments, values, e);
-      return null;
+      return entryRetrieverManager.receiveResponse(identifier, origin, completedSegments, inDoubtSegments, values, e);
    }
 
    @Override
@@ -87,7 +86,7 @@ public void setParameters(int commandId, Object[] parameters) {
 
    @Override
    public boolean isReturnValueExpected() {
-      return false;
+      return true;
    }
 
    @Override
@@ -45,9 +45,11 @@ public <C> void startRetrievingValues(UUID identifier, Address origin, Set<Integ
     * @param entries The entries retrieved
     * @param e If an exception handled while processing the data on the remote node
     * @param <C> The type of entries values sent back
+    * @return The number of entries the remote node should send in its next batch, or 0 if it should keep its
+    *         current batch size
     */
-   public <C> void receiveResponse(UUID identifier, Address origin, Set<Integer> completedSegments,
-                                   Set<Integer> inDoubtSegments, Collection<CacheEntry<K, C>> entries, CacheException e);
+   public <C> int receiveResponse(UUID identifier, Address origin, Set<Integer> completedSegments,
+                                  Set<Integer> inDoubtSegments, Collection<CacheEntry<K, C>> entries, CacheException e);
 
    /**
     * This is invoked locally on the node that requested the iteration process.  This method will return immediately
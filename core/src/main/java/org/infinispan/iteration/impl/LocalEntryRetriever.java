@@ -168,8 +168,8 @@ protected <C> void wireFilterAndConverterDependencies(KeyValueFilter<? super K,
    }
 
    @Override
-   public <C> void receiveResponse(UUID identifier, Address origin, Set<Integer> completedSegments, Set<Integer> inDoubtSegments,
-                                   Collection<CacheEntry<K, C>> entries, CacheException e) {
+   public <C> int receiveResponse(UUID identifier, Address origin, Set<Integer> completedSegments, Set<Integer> inDoubtSegments,
+                                  Collection<CacheEntry<K, C>> entries, CacheException e) {
       throw new UnsupportedOperationException();
    }
 
@@ -560,6 +560,13 @@ public Itr(int batchSize) {
          this.queue = new ArrayBlockingQueue<>(batchSize);
       }
 
+      /**
+       * @return the number of entries received but not yet returned by {@link #next()}
+       */
+      int queuedEntries() {
+         return queue.size();
+      }
+
       @Override
       public boolean hasNext() {
          boolean hasNext = !queue.isEmpty();
@@ -0,0 +1,54 @@
+package org.infinispan.marshall.core;
+
+import org.infinispan.configuration.global.GlobalConfiguration;
+import org.infinispan.factories.annotations.Inject;
+import org.infinispan.factories.scopes.Scope;
+import org.infinispan.factories.scopes.Scopes;
+
+/**
+ * Decides whether the {@link VersionAwareMarshaller}s of the cache manager write the {@link BinaryMarshaller} format.
+ * <p/>
+ * The format must be enabled with {@link org.infinispan.configuration.global.SerializationConfiguration#binaryFormat()}.
+ * A clustered cache manager only writes it while every member of the cluster has enabled it too, as told by the
+ * transport on each view change, so that nodes running earlier versions can still read everything sent to them.
+ * Both formats are always read.
+ *
+ * @since 7.2
+ */
+@Scope(Scopes.GLOBAL)
+public class BinaryFormatNegotiator {
+
+   private volatile boolean enabled;
+   private volatile boolean binaryFormat;
+
+   @Inject
+   public void init(GlobalConfiguration globalConfiguration) {
+      enabled = globalConfiguration.serialization().binaryFormat();
+      // Without a transport only the local stores read the data
+      binaryFormat = enabled && !globalConfiguration.isClustered();
+   }
+
+   /**
+    * @return {@code true} if the binary format was enabled in the configuration, so it should be advertised to the
+    *         other members.
+    */
+   public boolean isEnabled() {
+      return enabled;
+   }
+
+   /**
+    * Called by the transport when the cluster view changes.
+    *
+    * @param allMembersEnabled whether every member of the new view has advertised the binary format.
+    */
+   public void membersChanged(boolean allMembersEnabled) {
+      binaryFormat = enabled && allMembersEnabled;
+   }
+
+   /**
+    * @return {@code true} if the objects should be written in the binary format.
+    */
+   public boolean useBinaryFormat() {
+      return binaryFormat;
+   }
+}
@@ -0,0 +1,167 @@
+package org.infinispan.marshall.core;
+
+import org.infinispan.commons.marshall.StreamingMarshaller;
+import org.infinispan.commons.marshall.jboss.ExtendedRiverUnmarshaller;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+import java.io.OutputStream;
+
+/**
+ * Marshaller of the internal format used by the {@link VersionAwareMarshaller} since 7.2.
+ * <p/>
+ * The types known by the {@link ExternalizerTable} are written directly by their externalizers into a plain byte
+ * buffer, without the class table of JBoss Marshalling, and any other type is delegated to the {@link JBossMarshaller}
+ * (see {@link BinaryObjectOutput} for the format). The stream starts with the version {@link #VERSION}, which can't be
+ * mistaken for the JBoss Marshalling stream header, so the streams written by earlier versions can still be read.
+ * It is only written when the {@link BinaryFormatNegotiator} allows it.
+ * <p/>
+ * Each thread keeps a buffer to marshall objects into, so that marshalling an object only allocates the resulting
+ * byte array.
+ *
+ * @since 7.2
+ */
+final class BinaryMarshaller {
+
+   static final int VERSION = 720;
+
+   /**
+    * Buffers grown over this size by a big object are not kept by the thread.
+    */
+   private static final int MAX_POOLED_CAPACITY = 1024 * 1024;
+   private static final int DEFAULT_CAPACITY = 512;
+
+   private final ExternalizerTable externalizerTable;
+   private final JBossMarshaller fallback;
+   private final ThreadLocal<PooledOutput> pool = new ThreadLocal<PooledOutput>() {
+      @Override
+      protected PooledOutput initialValue() {
+         return new PooledOutput(new BinaryObjectOutput(BinaryMarshaller.this, DEFAULT_CAPACITY));
+      }
+   };
+
+   BinaryMarshaller(ExternalizerTable externalizerTable, JBossMarshaller fallback) {
+      this.externalizerTable = externalizerTable;
+      this.fallback = fallback;
+   }
+
+   /**
+    * @return {@code true} if the bytes start with the version of this format.
+    */
+   static boolean isBinary(byte[] bytes, int offset, int length) {
+      return length >= 2 && bytes[offset] == (byte) (VERSION >> 8) && bytes[offset + 1] == (byte) VERSION;
+   }
+
+   byte[] objectToBytes(Object obj, int estimatedSize) throws IOException {
+      BinaryObjectOutput out = acquireOutput(null, estimatedSize);
+      try {
+         out.writeShort(VERSION);
+         out.writeObject(obj);
+         return out.toByteArray();
+      } finally {
+         releaseOutput(out);
+      }
+   }
+
+   Object objectFromBytes(byte[] bytes, int offset, int length) throws IOException, ClassNotFoundException {
+      BinaryObjectInput in = new BinaryObjectInput(this, bytes, offset + 2, length - 2);
+      try {
+         return in.readObject();
+      } finally {
+         in.finishJBossMarshalling();
+      }
+   }
+
+   BinaryObjectOutput startObjectOutput(OutputStream os, int estimatedSize) throws IOException {
+      BinaryObjectOutput out = acquireOutput(os, estimatedSize);
+      out.writeShort(VERSION);
+      return out;
+   }
+
+   void finishObjectOutput(BinaryObjectOutput out) throws IOException {
+      try {
+         out.flush();
+      } finally {
+         releaseOutput(out);
+      }
+   }
+
+   /**
+    * Starts reading a stream whose version has already been read.
+    */
+   BinaryObjectInput startObjectInput(InputStream is) {
+      return new BinaryObjectInput(this, is);
+   }
+
+   void finishObjectInput(BinaryObjectInput in) {
+      in.finishJBossMarshalling();
+   }
+
+   ExternalizerTable.ExternalizerAdapter getExternalizer(Class<?> clazz) {
+      return externalizerTable.getExternalizer(clazz);
+   }
+
+   Object readExternalizedObject(ObjectInput input) throws IOException, ClassNotFoundException {
+      return externalizerTable.readObject(input);
+   }
+
+   /**
+    * Starts the JBoss Marshalling stream shared by all the objects without an externalizer in one binary stream.
+    */
+   ObjectOutput startJBossMarshalling(OutputStream os) throws IOException {
+      return fallback.startObjectOutput(os, true, DEFAULT_CAPACITY);
+   }
+
+   void finishJBossMarshalling(ObjectOutput out) {
+      fallback.finishObjectOutput(out);
+   }
+
+   ObjectInput startJBossUnmarshalling(InputStream is, StreamingMarshaller infinispanMarshaller) throws IOException {
+      ObjectInput in = fallback.startObjectInput(is, true);
+      setInfinispanMarshaller(in, infinispanMarshaller);
+      return in;
+   }
+
+   static void setInfinispanMarshaller(ObjectInput in, StreamingMarshaller infinispanMarshaller) {
+      if (infinispanMarshaller != null && in instanceof ExtendedRiverUnmarshaller)
+         ((ExtendedRiverUnmarshaller) in).setInfinispanMarshaller(infinispanMarshaller);
+   }
+
+   void finishJBossUnmarshalling(ObjectInput in) {
+      fallback.finishObjectInput(in);
+   }
+
+   private BinaryObjectOutput acquireOutput(OutputStream os, int estimatedSize) {
+      PooledOutput pooled = pool.get();
+      if (pooled.inUse) {
+         // Reentrant call, e.g. from an externalizer marshalling a nested payload
+         return new BinaryObjectOutput(this, estimatedSize).reset(os, 0);
+      }
+      pooled.inUse = true;
+      return pooled.output.reset(os, Math.min(estimatedSize, MAX_POOLED_CAPACITY));
+   }
+
+   private void releaseOutput(BinaryObjectOutput out) {
+      out.finishJBossMarshalling();
+      PooledOutput pooled = pool.get();
+      if (pooled.output != out)
+         return;
+      if (out.capacity() > MAX_POOLED_CAPACITY) {
+         pooled.output = new BinaryObjectOutput(this, DEFAULT_CAPACITY);
+      } else {
+         out.reset(null, 0);
+      }
+      pooled.inUse = false;
+   }
+
+   private static final class PooledOutput {
+      BinaryObjectOutput output;
+      boolean inUse;
+
+      PooledOutput(BinaryObjectOutput output) {
+         this.output = output;
+      }
+   }
+}
@@ -0,0 +1,397 @@
+package org.infinispan.marshall.core;
+
+import org.infinispan.commons.io.UnsignedNumeric;
+import org.infinispan.commons.marshall.StreamingMarshaller;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInput;
+import java.io.StreamCorruptedException;
+import java.io.UTFDataFormatException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * {@link ObjectInput} of the {@link BinaryMarshaller}, reading the format written by {@link BinaryObjectOutput} from a
+ * byte array, or from a buffer filled from an {@link InputStream}.
+ *
+ * @since 7.2
+ */
+public final class BinaryObjectInput implements ObjectInput {
+
+   // Handle of an object whose externalizer is still reading it
+   private static final Object UNRESOLVED = new Object();
+
+   private final BinaryMarshaller marshaller;
+   private final InputStream is;
+   private byte[] buf;
+   private int pos;
+   private int limit;
+   private StreamingMarshaller infinispanMarshaller;
+   private List<Object> references;
+   // The JBoss Marshalling stream, reading the current blob through riverInput
+   private ObjectInput river;
+   private BlobInputStream riverInput;
+
+   BinaryObjectInput(BinaryMarshaller marshaller, byte[] bytes, int offset, int length) {
+      this.marshaller = marshaller;
+      this.is = null;
+      this.buf = bytes;
+      this.pos = offset;
+      this.limit = offset + length;
+   }
+
+   BinaryObjectInput(BinaryMarshaller marshaller, InputStream is) {
+      this.marshaller = marshaller;
+      this.is = is;
+      this.buf = new byte[512];
+   }
+
+   /**
+    * The cache marshaller to use for the nested payloads, like
+    * {@link org.infinispan.commons.marshall.jboss.ExtendedRiverUnmarshaller#getInfinispanMarshaller()}.
+    */
+   public StreamingMarshaller getInfinispanMarshaller() {
+      return infinispanMarshaller;
+   }
+
+   public void setInfinispanMarshaller(StreamingMarshaller infinispanMarshaller) {
+      this.infinispanMarshaller = infinispanMarshaller;
+      if (river != null)
+         BinaryMarshaller.setInfinispanMarshaller(river, infinispanMarshaller);
+   }
+
+   /**
+    * Ends the JBoss Marshalling stream, if any object needed it.
+    */
+   void finishJBossMarshalling() {
+      if (river != null) {
+         marshaller.finishJBossUnmarshalling(river);
+         river = null;
+      }
+   }
+
+   /**
+    * Makes sure that the next {@code len} bytes are in the buffer, reading them from the stream if necessary.
+    */
+   private void require(int len) throws IOException {
+      if (limit - pos >= len)
+         return;
+      if (is == null)
+         throw new EOFException();
+      int available = limit - pos;
+      if (len > buf.length) {
+         byte[] newBuf = new byte[Math.max(len, buf.length << 1)];
+         System.arraycopy(buf, pos, newBuf, 0, available);
+         buf = newBuf;
+      } else {
+         System.arraycopy(buf, pos, buf, 0, available);
+      }
+      pos = 0;
+      limit = available;
+      while (limit < len) {
+         int read = is.read(buf, limit, buf.length - limit);
+         if (read < 0)
+            throw new EOFException();
+         limit += read;
+      }
+   }
+
+   @Override
+   public Object readObject() throws ClassNotFoundException, IOException {
+      byte tag = readByte();
+      switch (tag) {
+         case BinaryObjectOutput.NULL:
+            return null;
+         case BinaryObjectOutput.EXTERNALIZER:
+            int handle = addReference(UNRESOLVED);
+            Object externalized = marshaller.readExternalizedObject(this);
+            references.set(handle, externalized);
+            return externalized;
+         case BinaryObjectOutput.STRING:
+            return readString(UnsignedNumeric.readUnsignedInt(this));
+         case BinaryObjectOutput.BYTE_ARRAY:
+            byte[] bytes = new byte[UnsignedNumeric.readUnsignedInt(this)];
+            readFully(bytes);
+            addReference(bytes);
+            return bytes;
+         case BinaryObjectOutput.BOOLEAN:
+            return readBoolean();
+         case BinaryObjectOutput.BYTE:
+            return readByte();
+         case BinaryObjectOutput.SHORT:
+            return readShort();
+         case BinaryObjectOutput.CHAR:
+            return readChar();
+         case BinaryObjectOutput.INT:
+            return readInt();
+         case BinaryObjectOutput.LONG:
+            return readLong();
+         case BinaryObjectOutput.FLOAT:
+            return readFloat();
+         case BinaryObjectOutput.DOUBLE:
+            return readDouble();
+         case BinaryObjectOutput.JBOSS_MARSHALLING:
+            Object o = readJBossMarshalling(UnsignedNumeric.readUnsignedInt(this));
+            addReference(o);
+            return o;
+         case BinaryObjectOutput.REFERENCE:
+            return readReference(UnsignedNumeric.readUnsignedInt(this));
+         default:
+            throw new StreamCorruptedException("Unknown object tag " + tag);
+      }
+   }
+
+   private int addReference(Object o) {
+      if (references == null)
+         references = new ArrayList<Object>();
+      references.add(o);
+      return references.size() - 1;
+   }
+
+   private Object readReference(int handle) throws IOException {
+      if (references == null || handle >= references.size())
+         throw new StreamCorruptedException("Unknown object reference " + handle);
+      Object o = references.get(handle);
+      if (o == UNRESOLVED)
+         throw new StreamCorruptedException("Reference " + handle + " to an object that is still being read");
+      return o;
+   }
+
+   private Object readJBossMarshalling(int length) throws IOException, ClassNotFoundException {
+      if (riverInput == null)
+         riverInput = new BlobInputStream();
+      riverInput.remaining = length;
+      if (river == null)
+         river = marshaller.startJBossUnmarshalling(riverInput, infinispanMarshaller);
+      Object o = river.readObject();
+      if (riverInput.remaining > 0)
+         skip(riverInput.remaining);
+      return o;
+   }
+
+   private String readString(int utfLength) throws IOException {
+      require(utfLength);
+      byte[] b = buf;
+      int p = pos;
+      int end = p + utfLength;
+      char[] chars = new char[utfLength];
+      int count = 0;
+      while (p < end) {
+         int c = b[p] & 0xFF;
+         if (c < 0x80) {
+            p++;
+            chars[count++] = (char) c;
+         } else if ((c & 0xE0) == 0xC0) {
+            if (p + 2 > end)
+               throw new UTFDataFormatException("malformed input: partial character at end");
+            chars[count++] = (char) (((c & 0x1F) << 6) | (b[p + 1] & 0x3F));
+            p += 2;
+         } else if ((c & 0xF0) == 0xE0) {
+            if (p + 3 > end)
+               throw new UTFDataFormatException("malformed input: partial character at end");
+            chars[count++] = (char) (((c & 0x0F) << 12) | ((b[p + 1] & 0x3F) << 6) | (b[p + 2] & 0x3F));
+            p += 3;
+         } else {
+            throw new UTFDataFormatException("malformed input around byte " + (p - pos));
+         }
+      }
+      pos = end;
+      return new String(chars, 0, count);
+   }
+
+   @Override
+   public int read() throws IOException {
+      if (limit == pos) {
+         if (is == null)
+            return -1;
+         try {
+            require(1);
+         } catch (EOFException e) {
+            return -1;
+         }
+      }
+      return buf[pos++] & 0xFF;
+   }
+
+   @Override
+   public int read(byte[] b) throws IOException {
+      return read(b, 0, b.length);
+   }
+
+   @Override
+   public int read(byte[] b, int off, int len) throws IOException {
+      if (len == 0)
+         return 0;
+      int available = limit - pos;
+      if (available == 0) {
+         if (is == null)
+            return -1;
+         return is.read(b, off, len);
+      }
+      int n = Math.min(available, len);
+      System.arraycopy(buf, pos, b, off, n);
+      pos += n;
+      return n;
+   }
+
+   @Override
+   public long skip(long n) throws IOException {
+      long available = limit - pos;
+      if (n <= available) {
+         pos += n;
+         return n;
+      }
+      pos = limit;
+      return available + (is == null ? 0 : is.skip(n - available));
+   }
+
+   @Override
+   public int available() throws IOException {
+      return limit - pos + (is == null ? 0 : is.available());
+   }
+
+   @Override
+   public void close() throws IOException {
+      if (is != null)
+         is.close();
+   }
+
+   @Override
+   public void readFully(byte[] b) throws IOException {
+      readFully(b, 0, b.length);
+   }
+
+   @Override
+   public void readFully(byte[] b, int off, int len) throws IOException {
+      int available = limit - pos;
+      if (len <= available) {
+         System.arraycopy(buf, pos, b, off, len);
+         pos += len;
+         return;
+      }
+      if (is == null)
+         throw new EOFException();
+      System.arraycopy(buf, pos, b, off, available);
+      pos = limit;
+      int done = available;
+      while (done < len) {
+         int read = is.read(b, off + done, len - done);
+         if (read < 0)
+            throw new EOFException();
+         done += read;
+      }
+   }
+
+   @Override
+   public int skipBytes(int n) throws IOException {
+      return (int) skip(n);
+   }
+
+   @Override
+   public boolean readBoolean() throws IOException {
+      return readByte() != 0;
+   }
+
+   @Override
+   public byte readByte() throws IOException {
+      require(1);
+      return buf[pos++];
+   }
+
+   @Override
+   public int readUnsignedByte() throws IOException {
+      return readByte() & 0xFF;
+   }
+
+   @Override
+   public short readShort() throws IOException {
+      require(2);
+      short v = (short) ((buf[pos] << 8) | (buf[pos + 1] & 0xFF));
+      pos += 2;
+      return v;
+   }
+
+   @Override
+   public int readUnsignedShort() throws IOException {
+      return readShort() & 0xFFFF;
+   }
+
+   @Override
+   public char readChar() throws IOException {
+      return (char) readShort();
+   }
+
+   @Override
+   public int readInt() throws IOException {
+      require(4);
+      byte[] b = buf;
+      int p = pos;
+      pos = p + 4;
+      return (b[p] << 24) | ((b[p + 1] & 0xFF) << 16) | ((b[p + 2] & 0xFF) << 8) | (b[p + 3] & 0xFF);
+   }
+
+   @Override
+   public long readLong() throws IOException {
+      require(8);
+      byte[] b = buf;
+      int p = pos;
+      pos = p + 8;
+      return ((long) b[p] << 56) | ((long) (b[p + 1] & 0xFF) << 48) | ((long) (b[p + 2] & 0xFF) << 40)
+            | ((long) (b[p + 3] & 0xFF) << 32) | ((long) (b[p + 4] & 0xFF) << 24) | ((b[p + 5] & 0xFF) << 16)
+            | ((b[p + 6] & 0xFF) << 8) | (b[p + 7] & 0xFF);
+   }
+
+   @Override
+   public float readFloat() throws IOException {
+      return Float.intBitsToFloat(readInt());
+   }
+
+   @Override
+   public double readDouble() throws IOException {
+      return Double.longBitsToDouble(readLong());
+   }
+
+   @Override
+   public String readLine() throws IOException {
+      throw new UnsupportedOperationException("readLine is deprecated");
+   }
+
+   @Override
+   public String readUTF() throws IOException {
+      return readString(readUnsignedShort());
+   }
+
+   /**
+    * Gives the JBoss Marshalling stream the bytes of the current blob only, so that it can't read ahead.
+    */
+   private final class BlobInputStream extends InputStream {
+      int remaining;
+
+      @Override
+      public int read() throws IOException {
+         if (remaining == 0)
+            return -1;
+         int b = BinaryObjectInput.this.read();
+         if (b >= 0)
+            remaining--;
+         return b;
+      }
+
+      @Override
+      public int read(byte[] b, int off, int len) throws IOException {
+         if (remaining == 0)
+            return -1;
+         int n = BinaryObjectInput.this.read(b, off, Math.min(len, remaining));
+         if (n > 0)
+            remaining -= n;
+         return n;
+      }
+
+      @Override
+      public int available() throws IOException {
+         return Math.min(remaining, BinaryObjectInput.this.available());
+      }
+   }
+}
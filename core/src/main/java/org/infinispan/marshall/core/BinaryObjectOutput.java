@@ -0,0 +1,397 @@
+package org.infinispan.marshall.core;
+
+import org.infinispan.commons.io.ExposedByteArrayOutputStream;
+import org.infinispan.commons.io.UnsignedNumeric;
+import org.jboss.marshalling.TraceInformation;
+
+import java.io.IOException;
+import java.io.NotSerializableException;
+import java.io.ObjectOutput;
+import java.io.OutputStream;
+import java.io.UTFDataFormatException;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+
+/**
+ * {@link ObjectOutput} of the {@link BinaryMarshaller}, writing straight into a growable byte array.
+ * <p/>
+ * The objects are written as a one byte tag followed by their content: the types with an
+ * {@link org.infinispan.commons.marshall.AdvancedExternalizer} in the {@link ExternalizerTable} are written by their
+ * externalizer, the strings, byte arrays, primitive wrappers are written inline, and any other object is marshalled
+ * with JBoss Marshalling into a length-prefixed blob. All the blobs of a stream are parts of a single JBoss
+ * Marshalling stream, so they share its class and instance tables.
+ * <p/>
+ * The objects written by an externalizer or JBoss Marshalling and the byte arrays get a handle in the order they are
+ * written, and the following occurrences of the same instance are written as a reference to the handle. Cycles through
+ * the objects written by an externalizer can't be read back, as the externalizer only returns the object after reading
+ * all of its content, so they are rejected.
+ * <p/>
+ * When created with an {@link OutputStream}, the buffer is flushed to it when it grows over
+ * {@link #FLUSH_THRESHOLD} and by {@link #flush()}.
+ *
+ * @since 7.2
+ */
+final class BinaryObjectOutput implements ObjectOutput {
+
+   static final byte NULL = 0;
+   static final byte EXTERNALIZER = 1;
+   static final byte STRING = 2;
+   static final byte BYTE_ARRAY = 3;
+   static final byte BOOLEAN = 4;
+   static final byte BYTE = 5;
+   static final byte SHORT = 6;
+   static final byte CHAR = 7;
+   static final byte INT = 8;
+   static final byte LONG = 9;
+   static final byte FLOAT = 10;
+   static final byte DOUBLE = 11;
+   static final byte JBOSS_MARSHALLING = 12;
+   static final byte REFERENCE = 13;
+
+   private static final int FLUSH_THRESHOLD = 8192;
+
+   private final BinaryMarshaller marshaller;
+   private byte[] buf;
+   private int pos;
+   private OutputStream os;
+   // Handles of the objects already written, created on the first object that needs one
+   private IdentityHashMap<Object, Integer> references;
+   // Objects whose externalizer is writing them
+   private IdentityHashMap<Object, Boolean> writing;
+   // The JBoss Marshalling stream of this stream, writing each object into riverBytes
+   private ObjectOutput river;
+   private ExposedByteArrayOutputStream riverBytes;
+
+   BinaryObjectOutput(BinaryMarshaller marshaller, int initialCapacity) {
+      this.marshaller = marshaller;
+      this.buf = new byte[Math.max(initialCapacity, 16)];
+   }
+
+   /**
+    * Prepares the output for a new object, reusing the buffer.
+    */
+   BinaryObjectOutput reset(OutputStream os, int estimatedSize) {
+      this.os = os;
+      this.pos = 0;
+      if (buf.length < estimatedSize && os == null) {
+         buf = new byte[estimatedSize];
+      }
+      if (references != null && !references.isEmpty()) {
+         references.clear();
+      }
+      return this;
+   }
+
+   /**
+    * Ends the JBoss Marshalling stream, if any object needed it.
+    */
+   void finishJBossMarshalling() {
+      if (river != null) {
+         marshaller.finishJBossMarshalling(river);
+         river = null;
+         if (riverBytes.getRawBuffer().length > FLUSH_THRESHOLD) {
+            riverBytes = null;
+         } else {
+            riverBytes.reset();
+         }
+      }
+   }
+
+   byte[] toByteArray() {
+      return Arrays.copyOf(buf, pos);
+   }
+
+   int capacity() {
+      return buf.length;
+   }
+
+   private void ensureCapacity(int len) throws IOException {
+      if (pos + len > buf.length) {
+         if (os != null && pos > 0) {
+            flushBuffer();
+            if (len <= buf.length)
+               return;
+         }
+         buf = Arrays.copyOf(buf, Math.max(buf.length << 1, pos + len));
+      }
+   }
+
+   private void flushBuffer() throws IOException {
+      os.write(buf, 0, pos);
+      pos = 0;
+   }
+
+   @Override
+   public void writeObject(Object obj) throws IOException {
+      if (obj == null) {
+         writeByte(NULL);
+         return;
+      }
+      Class<?> clazz = obj.getClass();
+      if (clazz == String.class) {
+         writeByte(STRING);
+         writeString((String) obj);
+      } else if (clazz == byte[].class) {
+         if (writeReference(obj))
+            return;
+         byte[] bytes = (byte[]) obj;
+         writeByte(BYTE_ARRAY);
+         UnsignedNumeric.writeUnsignedInt(this, bytes.length);
+         write(bytes);
+      } else if (clazz == Integer.class) {
+         writeByte(INT);
+         writeInt((Integer) obj);
+      } else if (clazz == Long.class) {
+         writeByte(LONG);
+         writeLong((Long) obj);
+      } else if (clazz == Boolean.class) {
+         writeByte(BOOLEAN);
+         writeBoolean((Boolean) obj);
+      } else if (clazz == Byte.class) {
+         writeByte(BYTE);
+         writeByte((Byte) obj);
+      } else if (clazz == Short.class) {
+         writeByte(SHORT);
+         writeShort((Short) obj);
+      } else if (clazz == Character.class) {
+         writeByte(CHAR);
+         writeChar((Character) obj);
+      } else if (clazz == Float.class) {
+         writeByte(FLOAT);
+         writeFloat((Float) obj);
+      } else if (clazz == Double.class) {
+         writeByte(DOUBLE);
+         writeDouble((Double) obj);
+      } else {
+         if (writeReference(obj))
+            return;
+         ExternalizerTable.ExternalizerAdapter adapter = marshaller.getExternalizer(clazz);
+         if (adapter != null) {
+            writeByte(EXTERNALIZER);
+            if (writing == null)
+               writing = new IdentityHashMap<Object, Boolean>();
+            writing.put(obj, Boolean.TRUE);
+            try {
+               adapter.writeObject(this, obj);
+            } catch (IOException e) {
+               TraceInformation.addObjectInformation(e, obj);
+               throw e;
+            } catch (RuntimeException e) {
+               TraceInformation.addObjectInformation(e, obj);
+               throw e;
+            } finally {
+               writing.remove(obj);
+            }
+         } else {
+            writeJBossMarshalling(obj);
+         }
+      }
+   }
+
+   /**
+    * Writes a reference if the object was already written to this stream, otherwise gives it the next handle.
+    *
+    * @return {@code true} if the reference was written.
+    */
+   private boolean writeReference(Object obj) throws IOException {
+      if (references == null) {
+         references = new IdentityHashMap<Object, Integer>();
+      } else {
+         Integer handle = references.get(obj);
+         if (handle != null) {
+            if (writing != null && writing.containsKey(obj))
+               throw new NotSerializableException("Cyclic reference to " + obj.getClass().getName()
+                     + ", which is written by an externalizer");
+            writeByte(REFERENCE);
+            UnsignedNumeric.writeUnsignedInt(this, handle);
+            return true;
+         }
+      }
+      references.put(obj, references.size());
+      return false;
+   }
+
+   private void writeJBossMarshalling(Object obj) throws IOException {
+      if (river == null) {
+         if (riverBytes == null)
+            riverBytes = new ExposedByteArrayOutputStream(256);
+         river = marshaller.startJBossMarshalling(riverBytes);
+      }
+      river.writeObject(obj);
+      // The stream header, if any, is part of the first blob
+      river.flush();
+      int length = riverBytes.size();
+      writeByte(JBOSS_MARSHALLING);
+      UnsignedNumeric.writeUnsignedInt(this, length);
+      write(riverBytes.getRawBuffer(), 0, length);
+      riverBytes.reset();
+   }
+
+   /**
+    * Writes the string in modified UTF-8, like {@link #writeUTF(String)}, but with a variable length prefix so that
+    * it is not limited to 64KB.
+    */
+   private void writeString(String s) throws IOException {
+      int length = s.length();
+      int utfLength = utfLength(s, length);
+      UnsignedNumeric.writeUnsignedInt(this, utfLength);
+      writeUTFBytes(s, length, utfLength);
+   }
+
+   private static int utfLength(String s, int length) {
+      int utfLength = length;
+      for (int i = 0; i < length; i++) {
+         char c = s.charAt(i);
+         if (c >= 0x80 || c == 0) {
+            utfLength += c >= 0x800 ? 2 : 1;
+         }
+      }
+      return utfLength;
+   }
+
+   private void writeUTFBytes(String s, int length, int utfLength) throws IOException {
+      ensureCapacity(utfLength);
+      byte[] b = buf;
+      int p = pos;
+      for (int i = 0; i < length; i++) {
+         char c = s.charAt(i);
+         if (c > 0 && c < 0x80) {
+            b[p++] = (byte) c;
+         } else if (c < 0x800) {
+            b[p++] = (byte) (0xC0 | (c >> 6) & 0x1F);
+            b[p++] = (byte) (0x80 | c & 0x3F);
+         } else {
+            b[p++] = (byte) (0xE0 | (c >> 12) & 0x0F);
+            b[p++] = (byte) (0x80 | (c >> 6) & 0x3F);
+            b[p++] = (byte) (0x80 | c & 0x3F);
+         }
+      }
+      pos = p;
+   }
+
+   @Override
+   public void write(int b) throws IOException {
+      ensureCapacity(1);
+      buf[pos++] = (byte) b;
+   }
+
+   @Override
+   public void write(byte[] b) throws IOException {
+      write(b, 0, b.length);
+   }
+
+   @Override
+   public void write(byte[] b, int off, int len) throws IOException {
+      if (os != null && len > FLUSH_THRESHOLD) {
+         // large arrays are written straight to the stream
+         if (pos > 0)
+            flushBuffer();
+         os.write(b, off, len);
+         return;
+      }
+      ensureCapacity(len);
+      System.arraycopy(b, off, buf, pos, len);
+      pos += len;
+   }
+
+   @Override
+   public void writeBoolean(boolean v) throws IOException {
+      write(v ? 1 : 0);
+   }
+
+   @Override
+   public void writeByte(int v) throws IOException {
+      write(v);
+   }
+
+   @Override
+   public void writeShort(int v) throws IOException {
+      ensureCapacity(2);
+      buf[pos++] = (byte) (v >> 8);
+      buf[pos++] = (byte) v;
+   }
+
+   @Override
+   public void writeChar(int v) throws IOException {
+      writeShort(v);
+   }
+
+   @Override
+   public void writeInt(int v) throws IOException {
+      ensureCapacity(4);
+      byte[] b = buf;
+      int p = pos;
+      b[p] = (byte) (v >> 24);
+      b[p + 1] = (byte) (v >> 16);
+      b[p + 2] = (byte) (v >> 8);
+      b[p + 3] = (byte) v;
+      pos = p + 4;
+   }
+
+   @Override
+   public void writeLong(long v) throws IOException {
+      ensureCapacity(8);
+      byte[] b = buf;
+      int p = pos;
+      b[p] = (byte) (v >> 56);
+      b[p + 1] = (byte) (v >> 48);
+      b[p + 2] = (byte) (v >> 40);
+      b[p + 3] = (byte) (v >> 32);
+      b[p + 4] = (byte) (v >> 24);
+      b[p + 5] = (byte) (v >> 16);
+      b[p + 6] = (byte) (v >> 8);
+      b[p + 7] = (byte) v;
+      pos = p + 8;
+   }
+
+   @Override
+   public void writeFloat(float v) throws IOException {
+      writeInt(Float.floatToIntBits(v));
+   }
+
+   @Override
+   public void writeDouble(double v) throws IOException {
+      writeLong(Double.doubleToLongBits(v));
+   }
+
+   @Override
+   public void writeBytes(String s) throws IOException {
+      int length = s.length();
+      ensureCapacity(length);
+      for (int i = 0; i < length; i++) {
+         buf[pos++] = (byte) s.charAt(i);
+      }
+   }
+
+   @Override
+   public void writeChars(String s) throws IOException {
+      int length = s.length();
+      for (int i = 0; i < length; i++) {
+         writeChar(s.charAt(i));
+      }
+   }
+
+   @Override
+   public void writeUTF(String s) throws IOException {
+      int length = s.length();
+      int utfLength = utfLength(s, length);
+      if (utfLength > 0xFFFF)
+         throw new UTFDataFormatException("encoded string too long: " + utfLength + " bytes");
+      writeShort(utfLength);
+      writeUTFBytes(s, length, utfLength);
+   }
+
+   @Override
+   public void flush() throws IOException {
+      if (os != null) {
+         if (pos > 0)
+            flushBuffer();
+         os.flush();
+      }
+   }
+
+   @Override
+   public void close() throws IOException {
+      flush();
+   }
+}
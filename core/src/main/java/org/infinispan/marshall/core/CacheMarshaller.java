@@ -26,9 +26,9 @@ public CacheMarshaller(VersionAwareMarshaller marshaller) {
 
    @Inject
    public void inject(Cache cache, Configuration cfg, InvocationContextContainer icc,
-            ExternalizerTable extTable, GlobalConfiguration globalCfg) {
+            ExternalizerTable extTable, GlobalConfiguration globalCfg, BinaryFormatNegotiator binaryFormatNegotiator) {
       ((VersionAwareMarshaller) this.marshaller)
-            .inject(cache, cfg, icc, extTable, globalCfg);
+            .inject(cache, cfg, icc, extTable, globalCfg, binaryFormatNegotiator);
    }
 
    @Override
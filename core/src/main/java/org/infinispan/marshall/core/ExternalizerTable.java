@@ -3,6 +3,8 @@
 import static org.infinispan.factories.KnownComponentNames.GLOBAL_MARSHALLER;
 
 import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Set;
@@ -190,8 +192,22 @@ public Writer getObjectWriter(Object o) throws IOException {
       return writer;
    }
 
+   /**
+    * @return the externalizer of the given type, or {@code null} if the type has no externalizer.
+    */
+   ExternalizerAdapter getExternalizer(Class<?> clazz) {
+      if (!started) {
+         throw log.externalizerTableStopped(clazz.getName());
+      }
+      return writers.get(clazz);
+   }
+
    @Override
    public Object readObject(Unmarshaller input) throws IOException, ClassNotFoundException {
+      return readObject((ObjectInput) input);
+   }
+
+   Object readObject(ObjectInput input) throws IOException, ClassNotFoundException {
       int readerIndex = input.readUnsignedByte();
       int foreignId = -1;
       if (readerIndex == Ids.MAX_ID) {
@@ -430,12 +446,16 @@ static class ExternalizerAdapter implements Writer {
          this.externalizer = (AdvancedExternalizer<Object>) externalizer;
       }
 
-      public Object readObject(Unmarshaller input) throws IOException, ClassNotFoundException {
+      public Object readObject(ObjectInput input) throws IOException, ClassNotFoundException {
          return externalizer.readObject(input);
       }
 
       @Override
       public void writeObject(Marshaller output, Object object) throws IOException {
+         writeObject((ObjectOutput) output, object);
+      }
+
+      void writeObject(ObjectOutput output, Object object) throws IOException {
          output.write(id);
          externalizer.writeObject(output, object);
       }
@@ -482,7 +502,7 @@ int getExternalizerId() {
       }
 
       @Override
-      public void writeObject(Marshaller output, Object object) throws IOException {
+      void writeObject(ObjectOutput output, Object object) throws IOException {
          output.write(id);
          // Write as an unsigned, variable length, integer to safe space
          UnsignedNumeric.writeUnsignedInt(output, foreignId);
@@ -25,9 +25,9 @@ public GlobalMarshaller(VersionAwareMarshaller marshaller) {
 
    @Inject
    public void inject(ExternalizerTable extTable,
-            GlobalConfiguration globalCfg) {
+            GlobalConfiguration globalCfg, BinaryFormatNegotiator binaryFormatNegotiator) {
       ((VersionAwareMarshaller) this.marshaller)
-            .inject(null, null, null, extTable, globalCfg);
+            .inject(null, null, null, extTable, globalCfg, binaryFormatNegotiator);
    }
 
    @Override
@@ -218,16 +218,15 @@ public MarshalledValue readObject(ObjectInput input) throws IOException {
 
          // A better way of sending down context information is needed in the future
          StreamingMarshaller marshaller;
-         if (input instanceof ExtendedRiverUnmarshaller) {
-            StreamingMarshaller ispnMarshaller =
-                  ((ExtendedRiverUnmarshaller) input).getInfinispanMarshaller();
-            if (ispnMarshaller != null)
-               marshaller = ispnMarshaller;
-            else
-               marshaller = globalMarshaller;
-         } else {
+         StreamingMarshaller ispnMarshaller = null;
+         if (input instanceof ExtendedRiverUnmarshaller)
+            ispnMarshaller = ((ExtendedRiverUnmarshaller) input).getInfinispanMarshaller();
+         else if (input instanceof BinaryObjectInput)
+            ispnMarshaller = ((BinaryObjectInput) input).getInfinispanMarshaller();
+         if (ispnMarshaller != null)
+            marshaller = ispnMarshaller;
+         else
             marshaller = globalMarshaller;
-         }
 
          return new MarshalledValue(raw, hc, marshaller);
       }
@@ -1,12 +1,13 @@
 package org.infinispan.marshall.core;
 
 import org.infinispan.Cache;
+import org.infinispan.commons.CacheException;
 import org.infinispan.commons.io.ByteBuffer;
 import org.infinispan.commons.io.ByteBufferImpl;
+import org.infinispan.commons.io.ExposedByteArrayOutputStream;
 import org.infinispan.configuration.cache.Configuration;
 import org.infinispan.configuration.global.GlobalConfiguration;
 import org.infinispan.context.InvocationContextContainer;
-import org.infinispan.commons.io.ExposedByteArrayOutputStream;
 import org.infinispan.commons.marshall.AbstractMarshaller;
 import org.infinispan.commons.marshall.NotSerializableException;
 import org.infinispan.commons.marshall.StreamingMarshaller;
@@ -20,11 +21,16 @@
 import java.io.ObjectInput;
 import java.io.ObjectOutput;
 import java.io.OutputStream;
+import java.io.PushbackInputStream;
 
 /**
  * A delegate to various other marshallers like {@link JBossMarshaller}. This delegating marshaller adds versioning
  * information to the stream when marshalling objects and is able to pick the appropriate marshaller to delegate to
  * based on the versioning information when unmarshalling objects.
+ * <p/>
+ * When the {@link BinaryFormatNegotiator} allows it, objects are written with the {@link BinaryMarshaller}, which falls
+ * back to JBoss Marshalling for the types without an externalizer. Otherwise they are written with JBoss Marshalling
+ * alone (version 510). Both formats are always read.
  *
  * @author Manik Surtani
  * @author Galder Zamarreño
@@ -37,15 +43,17 @@ public class VersionAwareMarshaller extends AbstractMarshaller implements Stream
    private static final int VERSION_510 = 510;
 
    private JBossMarshaller defaultMarshaller;
+   private BinaryMarshaller binaryMarshaller;
    private String cacheName;
 
    private ExternalizerTable extTable;
    private GlobalConfiguration globalCfg;
    private Configuration cfg;
    private InvocationContextContainer icc;
+   private BinaryFormatNegotiator binaryFormatNegotiator;
 
    public void inject(Cache cache, Configuration cfg, InvocationContextContainer icc,
-         ExternalizerTable extTable, GlobalConfiguration globalCfg) {
+         ExternalizerTable extTable, GlobalConfiguration globalCfg, BinaryFormatNegotiator binaryFormatNegotiator) {
       if (cfg == null) {
          this.cacheName = null;
       } else {
@@ -56,12 +64,14 @@ public void inject(Cache cache, Configuration cfg, InvocationContextContainer ic
       this.globalCfg = globalCfg;
       this.cfg = cfg;
       this.icc = icc;
+      this.binaryFormatNegotiator = binaryFormatNegotiator;
    }
 
    @Override
    public void start() {
       defaultMarshaller = new JBossMarshaller(extTable, cfg, icc, globalCfg);
       defaultMarshaller.start();
+      binaryMarshaller = new BinaryMarshaller(extTable, defaultMarshaller);
    }
 
    @Override
@@ -69,8 +79,17 @@ public void stop() {
       defaultMarshaller.stop();
    }
 
+   private boolean useBinaryFormat() {
+      return binaryFormatNegotiator != null && binaryFormatNegotiator.useBinaryFormat();
+   }
+
    @Override
    protected ByteBuffer objectToBuffer(Object obj, int estimatedSize) throws IOException, InterruptedException {
+      if (useBinaryFormat()) {
+         byte[] bytes = objectToByteBuffer(obj, estimatedSize);
+         return new ByteBufferImpl(bytes, 0, bytes.length);
+      }
+
       ExposedByteArrayOutputStream baos = new ExposedByteArrayOutputStream(estimatedSize);
       ObjectOutput out = startObjectOutput(baos, false, estimatedSize);
       try {
@@ -92,8 +111,33 @@ protected ByteBuffer objectToBuffer(Object obj, int estimatedSize) throws IOExce
       return new ByteBufferImpl(baos.getRawBuffer(), 0, baos.size());
    }
 
+   @Override
+   public byte[] objectToByteBuffer(Object obj, int estimatedSize) throws IOException, InterruptedException {
+      if (!useBinaryFormat())
+         return super.objectToByteBuffer(obj, estimatedSize);
+
+      // The binary marshaller already returns an array of the exact size, so there's nothing to trim
+      try {
+         return binaryMarshaller.objectToBytes(obj, estimatedSize);
+      } catch (java.io.NotSerializableException nse) {
+         if (log.isDebugEnabled()) log.debug("Object is not serializable", nse);
+         throw new NotSerializableException(nse.getMessage(), nse.getCause());
+      } catch (IOException ioe) {
+         if (ioe.getCause() instanceof InterruptedException) {
+            if (log.isTraceEnabled()) log.trace("Interrupted exception while marshalling", ioe.getCause());
+            throw (InterruptedException) ioe.getCause();
+         } else {
+            log.errorMarshallingObject(ioe, obj);
+            throw ioe;
+         }
+      }
+   }
+
    @Override
    public Object objectFromByteBuffer(byte[] bytes, int offset, int len) throws IOException, ClassNotFoundException {
+      if (BinaryMarshaller.isBinary(bytes, offset, len))
+         return binaryMarshaller.objectFromBytes(bytes, offset, len);
+
       ByteArrayInputStream is = new ByteArrayInputStream(bytes, offset, len);
       ObjectInput in = startObjectInput(is, false);
       Object o = null;
@@ -107,6 +151,12 @@ public Object objectFromByteBuffer(byte[] bytes, int offset, int len) throws IOE
 
    @Override
    public ObjectOutput startObjectOutput(OutputStream os, boolean isReentrant, final int estimatedSize) throws IOException {
+      if (useBinaryFormat()) {
+         ObjectOutput out = binaryMarshaller.startObjectOutput(os, estimatedSize);
+         if (trace) log.tracef("Wrote version %s", BinaryMarshaller.VERSION);
+         return out;
+      }
+
       ObjectOutput out = defaultMarshaller.startObjectOutput(os, isReentrant, estimatedSize);
       try {
          final int version = VERSION_510;
@@ -122,7 +172,16 @@ public ObjectOutput startObjectOutput(OutputStream os, boolean isReentrant, fina
 
    @Override
    public void finishObjectOutput(ObjectOutput oo) {
-      defaultMarshaller.finishObjectOutput(oo);
+      if (oo instanceof BinaryObjectOutput) {
+         try {
+            binaryMarshaller.finishObjectOutput((BinaryObjectOutput) oo);
+         } catch (IOException e) {
+            // The buffered objects were not written, so the stream is incomplete
+            throw new CacheException("Unable to flush the object output", e);
+         }
+      } else {
+         defaultMarshaller.finishObjectOutput(oo);
+      }
    }
 
    @Override
@@ -139,6 +198,28 @@ public void objectToObjectStream(Object obj, ObjectOutput out) throws IOExceptio
 
    @Override
    public ObjectInput startObjectInput(InputStream is, boolean isReentrant) throws IOException {
+      // Peek at the first two bytes to find out whether the stream was written by JBoss Marshalling
+      if (!is.markSupported())
+         is = new PushbackInputStream(is, 2);
+      else
+         is.mark(2);
+      byte[] header = new byte[2];
+      int read = 0;
+      while (read < 2) {
+         int n = is.read(header, read, 2 - read);
+         if (n < 0)
+            break;
+         read += n;
+      }
+      if (BinaryMarshaller.isBinary(header, 0, read)) {
+         if (trace) log.tracef("Read version %s", BinaryMarshaller.VERSION);
+         return binaryMarshaller.startObjectInput(is);
+      }
+      if (is instanceof PushbackInputStream)
+         ((PushbackInputStream) is).unread(header, 0, read);
+      else
+         is.reset();
+
       ObjectInput in = defaultMarshaller.startObjectInput(is, isReentrant);
       int versionId;
       try {
@@ -155,7 +236,10 @@ public ObjectInput startObjectInput(InputStream is, boolean isReentrant) throws
 
    @Override
    public void finishObjectInput(ObjectInput oi) {
-      defaultMarshaller.finishObjectInput(oi);
+      if (oi instanceof BinaryObjectInput)
+         binaryMarshaller.finishObjectInput((BinaryObjectInput) oi);
+      else
+         defaultMarshaller.finishObjectInput(oi);
    }
 
    @Override
@@ -8,6 +8,7 @@
 import org.infinispan.commands.read.DistributedExecuteCommand;
 import org.infinispan.commands.read.MapCombineCommand;
 import org.infinispan.commands.read.ReduceCommand;
+import org.infinispan.commands.read.ShuffleCommand;
 import org.infinispan.commands.remote.CacheRpcCommand;
 import org.infinispan.commands.remote.ClusteredGetCommand;
 import org.infinispan.commands.remote.MultipleRpcCommand;
@@ -37,11 +38,14 @@
 import org.infinispan.commons.marshall.AbstractExternalizer;
 import org.infinispan.commons.marshall.BufferSizePredictor;
 import org.infinispan.commons.marshall.StreamingMarshaller;
+import org.infinispan.marshall.core.BinaryObjectInput;
 import org.infinispan.marshall.core.Ids;
 import org.infinispan.commons.marshall.jboss.ExtendedRiverUnmarshaller;
 import org.infinispan.commons.util.Util;
 import org.infinispan.statetransfer.StateRequestCommand;
 import org.infinispan.statetransfer.StateResponseCommand;
+import org.infinispan.stream.impl.StreamSegmentCommand;
+import org.infinispan.xsite.BatchXSiteRpcCommand;
 import org.infinispan.xsite.SingleXSiteRpcCommand;
 import org.infinispan.xsite.XSiteAdminCommand;
 import org.infinispan.xsite.statetransfer.XSiteStatePushCommand;
@@ -76,7 +80,7 @@ public CacheRpcCommandExternalizer(GlobalComponentRegistry gcr, ReplicableComman
    @Override
    public Set<Class<? extends CacheRpcCommand>> getTypeClasses() {
       Set<Class<? extends CacheRpcCommand>> coreCommands = Util.asSet(MapCombineCommand.class,
-               ReduceCommand.class, DistributedExecuteCommand.class, LockControlCommand.class,
+               ReduceCommand.class, ShuffleCommand.class, DistributedExecuteCommand.class, LockControlCommand.class,
                StateRequestCommand.class, StateResponseCommand.class, ClusteredGetCommand.class,
                MultipleRpcCommand.class, SingleRpcCommand.class, CommitCommand.class,
                PrepareCommand.class, RollbackCommand.class, RemoveCacheCommand.class,
@@ -87,7 +91,7 @@ public Set<Class<? extends CacheRpcCommand>> getTypeClasses() {
                TotalOrderVersionedPrepareCommand.class, TotalOrderCommitCommand.class,
                TotalOrderVersionedCommitCommand.class, TotalOrderRollbackCommand.class,
                XSiteStateTransferControlCommand.class, XSiteStatePushCommand.class, SingleXSiteRpcCommand.class,
-               EntryRequestCommand.class, EntryResponseCommand.class);
+               BatchXSiteRpcCommand.class, EntryRequestCommand.class, EntryResponseCommand.class, StreamSegmentCommand.class);
       // Only interested in cache specific replicable commands
       coreCommands.addAll(gcr.getModuleProperties().moduleCacheRpcCommands());
       return coreCommands;
@@ -148,6 +152,8 @@ public CacheRpcCommand readObject(ObjectInput input) throws IOException, ClassNo
       // Remember that the aim with externalizers is for them to be stateless.
       if (paramsInput instanceof ExtendedRiverUnmarshaller)
          ((ExtendedRiverUnmarshaller) paramsInput).setInfinispanMarshaller(marshaller);
+      else if (paramsInput instanceof BinaryObjectInput)
+         ((BinaryObjectInput) paramsInput).setInfinispanMarshaller(marshaller);
 
       try {
          Object[] args = cmdExt.readParameters(paramsInput);
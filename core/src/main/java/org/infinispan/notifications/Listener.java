@@ -240,4 +240,23 @@
     * @since 7.0
     **/
    boolean includeCurrentState() default false;
+
+   /**
+    * Only used by asynchronous listeners. If positive, the events are kept in a queue of this size and delivered in the
+    * order they happened for each key, while the events of different keys are delivered in parallel. A listener method
+    * can then accept a {@link java.util.List} of events, to receive several consecutive events with a single call.
+    * <p>
+    * If 0, each event is delivered by the asynchronous notification executor independently, without any ordering
+    * guarantee.
+    * @return the maximum number of events waiting for delivery to this listener
+    * @since 7.2
+    */
+   int queueSize() default 0;
+
+   /**
+    * Defines what happens when the queue of the listener is full, see {@link #queueSize()}.
+    * @return true if the new events are dropped, false if the notifying thread waits until the listener catches up
+    * @since 7.2
+    */
+   boolean dropWhenFull() default false;
 }
@@ -25,6 +25,7 @@
 import org.infinispan.filter.KeyValueFilter;
 import org.infinispan.interceptors.locking.ClusteringDependentLogic;
 import org.infinispan.iteration.impl.EntryRetriever;
+import org.infinispan.jmx.annotations.MBean;
 import org.infinispan.manager.EmbeddedCacheManager;
 import org.infinispan.metadata.Metadata;
 import org.infinispan.notifications.Listener;
@@ -84,6 +85,7 @@
  * @author William Burns
  * @since 4.0
  */
+@MBean(objectName = "CacheNotifier", description = "Component that notifies the cache listeners")
 public final class CacheNotifierImpl<K, V> extends AbstractListenerImpl<Event<K, V>, CacheEntryListenerInvocation<K, V>>
       implements ClusterCacheNotifier<K, V> {
 
@@ -217,6 +219,14 @@ protected Map<Class<? extends Annotation>, Class<?>> getAllowedMethodAnnotations
       return allowedListeners;
    }
 
+   @Override
+   protected int getEventHashCode(Object event) {
+      if (event instanceof CacheEntryEvent) {
+         return config.dataContainer().keyEquivalence().hashCode(((CacheEntryEvent) event).getKey());
+      }
+      return 0;
+   }
+
    @Override
    protected final Transaction suspendIfNeeded() {
       if (transactionManager == null) {
@@ -871,7 +881,7 @@ public CacheInvocationBuilder setIncludeCurrentState(boolean includeCurrentState
       @Override
       public CacheEntryListenerInvocation<K, V> build() {
          ListenerInvocation<Event<K, V>> invocation = new ListenerInvocationImpl(target, method, sync, classLoader,
-                                                                                 subject);
+                                                                                 subject, queue);
 
          wireFilterAndConverterDependencies(filter, converter);
 
@@ -1,36 +1,108 @@
 package org.infinispan.notifications.cachelistener.cluster.impl;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
 
 import org.infinispan.Cache;
 import org.infinispan.commons.CacheException;
+import org.infinispan.configuration.cache.Configuration;
 import org.infinispan.distexec.DistributedExecutionCompletionService;
 import org.infinispan.distexec.DistributedExecutorService;
+import org.infinispan.factories.annotations.Inject;
 import org.infinispan.factories.annotations.Start;
+import org.infinispan.factories.annotations.Stop;
+import org.infinispan.jmx.annotations.MBean;
+import org.infinispan.jmx.annotations.ManagedAttribute;
+import org.infinispan.jmx.annotations.ManagedOperation;
 import org.infinispan.notifications.cachelistener.cluster.ClusterEvent;
 import org.infinispan.notifications.cachelistener.cluster.ClusterEventCallable;
 import org.infinispan.notifications.cachelistener.cluster.ClusterEventManager;
 import org.infinispan.notifications.cachelistener.cluster.MultiClusterEventCallable;
 import org.infinispan.remoting.transport.Address;
+import org.infinispan.util.Histogram;
+import org.infinispan.util.TimeService;
 
+/**
+ * Sends the events of an operation or transaction for the cluster listeners registered on other nodes with one RPC per
+ * node.
+ * <p/>
+ * If {@link org.infinispan.configuration.cache.ClusterListenerConfiguration#maxBatchDelay()} is positive, the events
+ * for the asynchronous listeners of a node are also batched across operations: they are sent when the batch reaches
+ * {@link org.infinispan.configuration.cache.ClusterListenerConfiguration#batchSize()} events, or when its oldest event
+ * waited for the maximum batch delay. The events for the synchronous listeners are always sent at the end of the
+ * operation. The filters and converters of the listeners were already applied when the events are added.
+ */
+@MBean(objectName = "ClusterEventManager", description = "Sends the events of the cluster listeners registered on other nodes")
 public class BatchingClusterEventManagerImpl<K, V> implements ClusterEventManager<K, V>{
    private final Cache<K, V> cache;
    
    private DistributedExecutorService distExecService;
+   private Configuration configuration;
+   private TimeService timeService;
+   // Flushes the batches which waited for the maximum batch delay, so a slow flush doesn't delay other tasks
+   private ScheduledExecutorService flushExecutor;
+   private int batchSize;
+   private long maxBatchDelay;
    
    private final ThreadLocal<EventContext<K, V>> localContext = new ThreadLocal<>();
+
+   // The batches of asynchronous events waiting to be sent, guarded by itself
+   private final Map<Address, TargetBatch<K, V>> asyncBatches = new HashMap<>();
+   private final Histogram batchSizes = new Histogram();
+   // in microseconds
+   private final Histogram batchDelays = new Histogram();
    
    public BatchingClusterEventManagerImpl(Cache<K, V> cache) {
       this.cache = cache;
    }
+
+   @Inject
+   public void injectDependencies(Configuration configuration, TimeService timeService) {
+      this.configuration = configuration;
+      this.timeService = timeService;
+   }
    
    @Start
    public void start() {
       distExecService = SecurityActions.getDefaultExecutorService(cache);
+      batchSize = configuration.clustering().clusterListeners().batchSize();
+      maxBatchDelay = configuration.clustering().clusterListeners().maxBatchDelay();
+      if (maxBatchDelay > 0) {
+         flushExecutor = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable r) {
+               Thread th = new Thread(r, "ClusterEventBatchFlush," + cache.getName());
+               th.setDaemon(true);
+               return th;
+            }
+         });
+      }
+   }
+
+   @Stop
+   public void stop() {
+      // Send the pending batches while the cache can still do it
+      Map<Address, TargetBatch<K, V>> pending;
+      synchronized (asyncBatches) {
+         pending = new HashMap<>(asyncBatches);
+         asyncBatches.clear();
+      }
+      for (Entry<Address, TargetBatch<K, V>> entry : pending.entrySet()) {
+         entry.getValue().flushTask.cancel(false);
+         send(entry.getKey(), entry.getValue());
+      }
+      if (flushExecutor != null) {
+         flushExecutor.shutdownNow();
+      }
    }
    
    @Override
@@ -47,7 +119,7 @@ public void addEvents(Address target, UUID identifier, Collection<ClusterEvent<K
    public void sendEvents() {
       EventContext<K, V> ctx = localContext.get();
       if (ctx != null) {
-         ctx.sendToTargets(distExecService);
+         ctx.sendToTargets(distExecService, maxBatchDelay > 0 ? this : null);
          localContext.remove();
       }
    }
@@ -57,10 +129,102 @@ public void dropEvents() {
       localContext.remove();
    }
    
+   /**
+    * Adds the events of an operation for the asynchronous listeners of a node to the batch of the node.
+    */
+   void addToBatch(Address target, Map<UUID, Collection<ClusterEvent<K, V>>> events) {
+      TargetBatch<K, V> toSend = null;
+      synchronized (asyncBatches) {
+         TargetBatch<K, V> batch = asyncBatches.get(target);
+         if (batch == null) {
+            final TargetBatch<K, V> newBatch = new TargetBatch<>(target, timeService.time());
+            newBatch.flushTask = flushExecutor.schedule(new Runnable() {
+               @Override
+               public void run() {
+                  flush(newBatch);
+               }
+            }, maxBatchDelay, TimeUnit.MILLISECONDS);
+            asyncBatches.put(target, newBatch);
+            batch = newBatch;
+         }
+         for (Entry<UUID, Collection<ClusterEvent<K, V>>> entry : events.entrySet()) {
+            Collection<ClusterEvent<K, V>> listenerEvents = batch.events.get(entry.getKey());
+            if (listenerEvents == null) {
+               listenerEvents = new ArrayList<>(entry.getValue().size());
+               batch.events.put(entry.getKey(), listenerEvents);
+            }
+            listenerEvents.addAll(entry.getValue());
+            batch.size += entry.getValue().size();
+         }
+         if (batch.size >= batchSize) {
+            asyncBatches.remove(target);
+            batch.flushTask.cancel(false);
+            toSend = batch;
+         }
+      }
+      if (toSend != null) {
+         send(target, toSend);
+      }
+   }
+
+   private void flush(TargetBatch<K, V> batch) {
+      synchronized (asyncBatches) {
+         if (asyncBatches.get(batch.target) != batch) {
+            // Already sent because it was full
+            return;
+         }
+         asyncBatches.remove(batch.target);
+      }
+      send(batch.target, batch);
+   }
+
+   private void send(Address target, TargetBatch<K, V> batch) {
+      batchSizes.add(batch.size);
+      batchDelays.add(timeService.timeDuration(batch.created, TimeUnit.MICROSECONDS));
+      distExecService.submit(target, new MultiClusterEventCallable<>(batch.events));
+   }
+
+   @ManagedAttribute(description = "The average number of events sent to a node with a single RPC for the asynchronous cluster listeners", displayName = "Average cluster event batch size")
+   public long getAverageBatchSize() {
+      return batchSizes.average();
+   }
+
+   @ManagedAttribute(description = "The number of cluster event batches by size, in the [min-max]=count format", displayName = "Cluster event batch size histogram")
+   public String getBatchSizeHistogram() {
+      return batchSizes.toString();
+   }
+
+   @ManagedAttribute(description = "The average time the oldest event of a batch waited before being sent, in microseconds", displayName = "Average cluster event delivery lag")
+   public long getAverageDeliveryLag() {
+      return batchDelays.average();
+   }
+
+   @ManagedAttribute(description = "The number of cluster event batches by the time their oldest event waited before being sent, in microseconds", displayName = "Cluster event delivery lag histogram")
+   public String getDeliveryLagHistogram() {
+      return batchDelays.toString();
+   }
+
+   @ManagedAttribute(description = "The number of events for the asynchronous cluster listeners waiting to be sent", displayName = "Pending cluster events")
+   public int getPendingEvents() {
+      int pending = 0;
+      synchronized (asyncBatches) {
+         for (TargetBatch<K, V> batch : asyncBatches.values()) {
+            pending += batch.size;
+         }
+      }
+      return pending;
+   }
+
+   @ManagedOperation(description = "Resets statistics gathered by this component", displayName = "Reset statistics")
+   public void resetStatistics() {
+      batchSizes.reset();
+      batchDelays.reset();
+   }
+   
    private static interface EventContext<K, V> {
       public void addTargets(Address address, UUID identifier, Collection<ClusterEvent<K, V>> events, boolean sync);
       
-      public void sendToTargets(DistributedExecutorService service);
+      public void sendToTargets(DistributedExecutorService service, BatchingClusterEventManagerImpl<K, V> batcher);
    }
    
    protected static class UnicastEventContext<K, V> implements EventContext<K, V> {
@@ -87,12 +251,14 @@ public void addTargets(Address address, UUID identifier, Collection<ClusterEvent
       }
       
       @Override
-      public void sendToTargets(DistributedExecutorService service) {
+      public void sendToTargets(DistributedExecutorService service, BatchingClusterEventManagerImpl<K, V> batcher) {
          DistributedExecutionCompletionService<Void> completion = new DistributedExecutionCompletionService<Void>(service);
          int syncCount = 0;
          for (Entry<Address, TargetEvents<K, V>> entry : targets.entrySet()) {
             TargetEvents<K, V> value = entry.getValue();
-            if (value.events.size() > 1) {
+            if (!value.sync && batcher != null) {
+               batcher.addToBatch(entry.getKey(), value.events);
+            } else if (value.events.size() > 1) {
                if (value.sync) {
                   completion.submit(entry.getKey(), new MultiClusterEventCallable<>(value.events));
                   syncCount++;
@@ -125,4 +291,17 @@ public void sendToTargets(DistributedExecutorService service) {
       final Map<UUID, Collection<ClusterEvent<K, V>>> events = new HashMap<>();
       boolean sync = false;
    }
+
+   private static class TargetBatch<K, V> {
+      final Map<UUID, Collection<ClusterEvent<K, V>>> events = new HashMap<>();
+      final Address target;
+      final long created;
+      int size;
+      ScheduledFuture<?> flushTask;
+
+      TargetBatch(Address target, long created) {
+         this.target = target;
+         this.created = created;
+      }
+   }
 }
@@ -65,7 +65,7 @@ protected class DefaultBuilder extends AbstractInvocationBuilder {
 
       @Override
       public ListenerInvocation<Event> build() {
-         return new ListenerInvocationImpl(target, method, sync, classLoader, subject);
+         return new ListenerInvocationImpl(target, method, sync, classLoader, subject, queue);
       }
    }
 
@@ -7,6 +7,8 @@
 import org.infinispan.factories.annotations.Inject;
 import org.infinispan.factories.annotations.Start;
 import org.infinispan.factories.annotations.Stop;
+import org.infinispan.jmx.annotations.ManagedAttribute;
+import org.infinispan.jmx.annotations.MeasurementType;
 import org.infinispan.notifications.IncorrectListenerException;
 import org.infinispan.notifications.Listener;
 import org.infinispan.security.Security;
@@ -28,6 +30,7 @@
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.ExecutorService;
 
 /**
@@ -42,12 +45,16 @@
 
    protected final Map<Class<? extends Annotation>, List<L>> listenersMap = new HashMap<>(16, 0.99f);
 
+   // The event queues of the asynchronous listeners with a queue size
+   private final List<ListenerEventQueue> eventQueues = new CopyOnWriteArrayList<ListenerEventQueue>();
+
    protected abstract class AbstractInvocationBuilder {
       protected Object target;
       protected Method method;
       protected boolean sync;
       protected ClassLoader classLoader;
       protected Subject subject;
+      protected ListenerEventQueue queue;
 
       public Object getTarget() {
          return target;
@@ -69,6 +76,10 @@ public Subject getSubject() {
          return subject;
       }
 
+      public ListenerEventQueue getQueue() {
+         return queue;
+      }
+
       public AbstractInvocationBuilder setTarget(Object target) {
          this.target = target;
          return this;
@@ -94,6 +105,11 @@ public AbstractInvocationBuilder setSubject(Subject subject) {
          return this;
       }
 
+      public AbstractInvocationBuilder setQueue(ListenerEventQueue queue) {
+         this.queue = queue;
+         return this;
+      }
+
       public abstract L build();
 
    }
@@ -120,6 +136,7 @@ void stop() {
       for (List<L> list : listenersMap.values()) {
          if (list != null) list.clear();
       }
+      eventQueues.clear();
 
       if (syncProcessor != null) syncProcessor.shutdownNow();
    }
@@ -128,6 +145,14 @@ void stop() {
 
    protected abstract Map<Class<? extends Annotation>, Class<?>> getAllowedMethodAnnotations(Listener l);
 
+   /**
+    * The hash code used to order the events of asynchronous listeners with a queue: the events with the same hash code
+    * are delivered in order. By default all the events of a listener are delivered in order.
+    */
+   protected int getEventHashCode(Object event) {
+      return 0;
+   }
+
    protected List<L> getListenerCollectionForAnnotation(Class<? extends Annotation> annotation) {
       List<L> list = listenersMap.get(annotation);
       if (list == null) throw new CacheException("Unknown listener annotation: " + annotation);
@@ -138,6 +163,9 @@ public void removeListener(Object listener) {
       for (Class<? extends Annotation> annotation :
             getAllowedMethodAnnotations(testListenerClassValidity(listener.getClass())).keySet())
          removeListenerInvocation(annotation, listener);
+      for (ListenerEventQueue queue : eventQueues) {
+         if (listener.equals(queue.getListener())) eventQueues.remove(queue);
+      }
    }
 
    private void removeListenerInvocation(Class<? extends Annotation> annotation, Object listener) {
@@ -173,6 +201,11 @@ protected boolean validateAndAddListenerInvocation(Object listener, AbstractInvo
       builder.setTarget(listener);
       builder.setSubject(Security.getSubject());
       builder.setSync(l.sync());
+      ListenerEventQueue queue = null;
+      if (!l.sync() && l.queueSize() > 0) {
+         queue = new ListenerEventQueue(listener, l.queueSize(), l.dropWhenFull(), asyncProcessor);
+      }
+      builder.setQueue(queue);
       Map<Class<? extends Annotation>, Class<?>> allowedListeners = getAllowedMethodAnnotations(l);
       // now try all methods on the listener for anything that we like.  Note that only PUBLIC methods are scanned.
       for (Method m : listener.getClass().getMethods()) {
@@ -183,7 +216,12 @@ protected boolean validateAndAddListenerInvocation(Object listener, AbstractInvo
                Class<? extends Annotation> key = annotationEntry.getKey();
                Class<?> value = annotationEntry.getValue();
                if (m.isAnnotationPresent(key)) {
-                  testListenerMethodValidity(m, value, key.getName());
+                  if (acceptsEventList(m)) {
+                     if (queue == null)
+                        throw new IncorrectListenerException("Methods annotated with " + key.getName() + " can only accept a list of events in asynchronous listeners with a queue size");
+                  } else {
+                     testListenerMethodValidity(m, value, key.getName());
+                  }
                   m.setAccessible(true);
                   builder.setMethod(m);
                   addListenerInvocation(key, builder.build());
@@ -195,9 +233,54 @@ protected boolean validateAndAddListenerInvocation(Object listener, AbstractInvo
 
       if (!foundMethods)
          getLog().noAnnotateMethodsFoundInListener(listener.getClass());
+      else if (queue != null)
+         eventQueues.add(queue);
       return foundMethods;
    }
 
+   private static boolean acceptsEventList(Method m) {
+      return m.getParameterTypes().length == 1 && m.getParameterTypes()[0] == List.class
+            && m.getReturnType().equals(void.class);
+   }
+
+   @ManagedAttribute(description = "The number of events waiting in the queues of the asynchronous listeners", displayName = "Queued listener events")
+   public int getQueuedListenerEvents() {
+      int depth = 0;
+      for (ListenerEventQueue queue : eventQueues) {
+         depth += queue.getDepth();
+      }
+      return depth;
+   }
+
+   @ManagedAttribute(description = "The number of events and capacity of the queue of each asynchronous listener, in the listener=queued/capacity format", displayName = "Listener queue depths")
+   public String getListenerQueueDepths() {
+      StringBuilder sb = new StringBuilder();
+      for (ListenerEventQueue queue : eventQueues) {
+         if (sb.length() > 0)
+            sb.append(", ");
+         sb.append(queue.getListener()).append('=').append(queue.getDepth()).append('/').append(queue.getCapacity());
+      }
+      return sb.toString();
+   }
+
+   @ManagedAttribute(description = "The number of events dropped because the queue of their listener was full", displayName = "Dropped listener events", measurementType = MeasurementType.TRENDSUP)
+   public long getDroppedListenerEvents() {
+      long dropped = 0;
+      for (ListenerEventQueue queue : eventQueues) {
+         dropped += queue.getDroppedEvents();
+      }
+      return dropped;
+   }
+
+   @ManagedAttribute(description = "The number of notifications that waited for space in the queue of a listener", displayName = "Blocked listener notifications", measurementType = MeasurementType.TRENDSUP)
+   public long getBlockedListenerNotifications() {
+      long blocked = 0;
+      for (ListenerEventQueue queue : eventQueues) {
+         blocked += queue.getBlockedNotifications();
+      }
+      return blocked;
+   }
+
    private void addListenerInvocation(Class<? extends Annotation> annotation, L li) {
       List<L> result = getListenerCollectionForAnnotation(annotation);
       result.add(li);
@@ -231,24 +314,53 @@ protected static void testListenerMethodValidity(Method m, Class<?> allowedParam
     * Class that encapsulates a valid invocation for a given registered listener - containing a reference to the method
     * to be invoked as well as the target object.
     */
-   protected class ListenerInvocationImpl<A> implements ListenerInvocation<A> {
+   protected class ListenerInvocationImpl<A> implements ListenerInvocation<A>, ListenerEventQueue.Invocation {
       public final Object target;
       public final Method method;
       public final boolean sync;
       public final WeakReference<ClassLoader> classLoader;
       public final Subject subject;
+      private final ListenerEventQueue queue;
+      private final boolean batch;
 
       public ListenerInvocationImpl(Object target, Method method, boolean sync, ClassLoader classLoader, Subject subject) {
+         this(target, method, sync, classLoader, subject, null);
+      }
+
+      public ListenerInvocationImpl(Object target, Method method, boolean sync, ClassLoader classLoader, Subject subject,
+                                    ListenerEventQueue queue) {
          this.target = target;
          this.method = method;
          this.sync = sync;
          this.classLoader = new WeakReference<ClassLoader>(classLoader);
          this.subject = subject;
+         this.queue = queue;
+         this.batch = acceptsEventList(method);
       }
 
       @Override
       public void invoke(final A event) {
-         Runnable r = new Runnable() {
+         if (queue != null) {
+            queue.add(getEventHashCode(event), this, event);
+         } else if (sync) {
+            syncProcessor.execute(invocationTask(event));
+         } else {
+            asyncProcessor.execute(invocationTask(event));
+         }
+      }
+
+      @Override
+      public boolean acceptsBatch() {
+         return batch;
+      }
+
+      @Override
+      public void invokeWith(Object argument) {
+         invocationTask(argument).run();
+      }
+
+      private Runnable invocationTask(final Object event) {
+         return new Runnable() {
 
             @Override
             public void run() {
@@ -299,11 +411,6 @@ public Void run() throws Exception {
                }
             }
          };
-
-         if (sync)
-            syncProcessor.execute(r);
-         else
-            asyncProcessor.execute(r);
       }
 
       @Override
@@ -0,0 +1,205 @@
+package org.infinispan.notifications.impl;
+
+import org.infinispan.util.logging.Log;
+import org.infinispan.util.logging.LogFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The bounded queue of events of an asynchronous listener, see {@link org.infinispan.notifications.Listener#queueSize()}.
+ * <p/>
+ * The events are spread over a fixed number of lanes by the hash code of their key. The events of a lane are delivered
+ * one at a time, in the order they were queued, while the lanes are delivered in parallel by the async notification
+ * executor. So the events of a key are always delivered in order, but a slow callback only delays the events of the
+ * keys that share its lane.
+ * <p/>
+ * Consecutive events of a lane for a listener method that accepts a {@link List} are delivered with a single call.
+ * <p/>
+ * When the queue is full the notifying thread waits for space, unless the listener drops events when full. A callback
+ * that triggers events for its own listener never waits, since it would wait for itself.
+ *
+ * @since 7.2
+ */
+public class ListenerEventQueue {
+
+   private static final Log log = LogFactory.getLog(ListenerEventQueue.class);
+   private static final boolean trace = log.isTraceEnabled();
+
+   private static final int MAX_LANES = 16;
+   // Events delivered by a lane before giving back its thread to the executor, also the maximum batch size
+   private static final int MAX_EVENTS_PER_RUN = 64;
+
+   private static final ThreadLocal<ListenerEventQueue> draining = new ThreadLocal<ListenerEventQueue>();
+
+   /**
+    * A listener method invocation.
+    */
+   interface Invocation {
+      /**
+       * @return true if the method accepts a list of events
+       */
+      boolean acceptsBatch();
+
+      /**
+       * Invokes the method with an event, or a list of events if it {@link #acceptsBatch()}.
+       */
+      void invokeWith(Object argument);
+   }
+
+   private final Object listener;
+   private final int capacity;
+   private final boolean dropWhenFull;
+   private final Executor executor;
+   private final Lane[] lanes;
+   private final Semaphore permits;
+   private final AtomicLong droppedEvents = new AtomicLong();
+   private final AtomicLong blockedNotifications = new AtomicLong();
+
+   ListenerEventQueue(Object listener, int capacity, boolean dropWhenFull, Executor executor) {
+      this.listener = listener;
+      this.capacity = capacity;
+      this.dropWhenFull = dropWhenFull;
+      this.executor = executor;
+      this.permits = new Semaphore(capacity);
+      int numLanes = capacity >= MAX_LANES ? MAX_LANES : Integer.highestOneBit(capacity);
+      lanes = new Lane[numLanes];
+      for (int i = 0; i < numLanes; i++) {
+         lanes[i] = new Lane();
+      }
+   }
+
+   void add(int hashCode, Invocation invocation, Object event) {
+      boolean permit = draining.get() != this;
+      if (permit && !permits.tryAcquire()) {
+         if (dropWhenFull) {
+            droppedEvents.incrementAndGet();
+            if (trace) log.tracef("Dropping event %s, the queue of listener %s is full", event, listener);
+            return;
+         }
+         blockedNotifications.incrementAndGet();
+         try {
+            permits.acquire();
+         } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            droppedEvents.incrementAndGet();
+            return;
+         }
+      }
+      int h = hashCode;
+      h ^= (h >>> 20) ^ (h >>> 12);
+      h ^= (h >>> 7) ^ (h >>> 4);
+      lanes[h & (lanes.length - 1)].add(new QueuedEvent(invocation, event, permit));
+   }
+
+   Object getListener() {
+      return listener;
+   }
+
+   int getCapacity() {
+      return capacity;
+   }
+
+   int getDepth() {
+      return capacity - permits.availablePermits();
+   }
+
+   long getDroppedEvents() {
+      return droppedEvents.get();
+   }
+
+   long getBlockedNotifications() {
+      return blockedNotifications.get();
+   }
+
+   private static class QueuedEvent {
+      final Invocation invocation;
+      final Object event;
+      final boolean permit;
+
+      QueuedEvent(Invocation invocation, Object event, boolean permit) {
+         this.invocation = invocation;
+         this.event = event;
+         this.permit = permit;
+      }
+   }
+
+   private class Lane implements Runnable {
+      private final Queue<QueuedEvent> events = new ConcurrentLinkedQueue<QueuedEvent>();
+      private final AtomicBoolean scheduled = new AtomicBoolean();
+
+      void add(QueuedEvent event) {
+         events.add(event);
+         schedule();
+      }
+
+      private void schedule() {
+         if (scheduled.compareAndSet(false, true)) {
+            executor.execute(this);
+         }
+      }
+
+      @Override
+      public void run() {
+         ListenerEventQueue previous = draining.get();
+         draining.set(ListenerEventQueue.this);
+         try {
+            int delivered = 0;
+            QueuedEvent first;
+            while (delivered < MAX_EVENTS_PER_RUN && (first = events.poll()) != null) {
+               delivered += deliver(first);
+            }
+         } finally {
+            draining.set(previous);
+            scheduled.set(false);
+            // Events added after the last poll would not be delivered otherwise
+            if (!events.isEmpty()) {
+               schedule();
+            }
+         }
+      }
+
+      private int deliver(QueuedEvent first) {
+         if (!first.invocation.acceptsBatch()) {
+            try {
+               first.invocation.invokeWith(first.event);
+            } finally {
+               release(first);
+            }
+            return 1;
+         }
+         List<Object> batch = new ArrayList<Object>();
+         List<QueuedEvent> queued = new ArrayList<QueuedEvent>();
+         batch.add(first.event);
+         queued.add(first);
+         QueuedEvent next;
+         // Only this thread removes events from the lane
+         while (batch.size() < MAX_EVENTS_PER_RUN && (next = events.peek()) != null
+               && next.invocation == first.invocation) {
+            events.poll();
+            batch.add(next.event);
+            queued.add(next);
+         }
+         try {
+            first.invocation.invokeWith(batch);
+         } finally {
+            for (QueuedEvent e : queued) {
+               release(e);
+            }
+         }
+         return batch.size();
+      }
+
+      private void release(QueuedEvent event) {
+         if (event.permit) {
+            permits.release();
+         }
+      }
+   }
+}
@@ -18,12 +18,14 @@
 import org.infinispan.distribution.DistributionManager;
 import org.infinispan.factories.annotations.Inject;
 import org.infinispan.interceptors.base.CommandInterceptor;
+import org.infinispan.interceptors.base.InvocationStage;
+import org.infinispan.interceptors.base.InvocationStageAware;
 import org.infinispan.remoting.RpcException;
 import org.infinispan.remoting.transport.Transport;
 
 import java.util.Set;
 
-public class PartitionHandlingInterceptor extends CommandInterceptor {
+public class PartitionHandlingInterceptor extends CommandInterceptor implements InvocationStageAware {
    PartitionHandlingManager partitionHandlingManager;
    private Transport transport;
    private DistributionManager distributionManager;
@@ -98,42 +100,50 @@ public Object visitEntryRetrievalCommand(InvocationContext ctx, EntryRetrievalCo
 
    @Override
    public final Object visitGetKeyValueCommand(InvocationContext ctx, GetKeyValueCommand command) throws Throwable {
-      Object key = command.getKey();
-      Object result;
-      try {
-         result = super.visitGetKeyValueCommand(ctx, command);
-      } catch (RpcException e) {
-         if (performPartitionCheck(ctx, command)) {
-            // We must have received an AvailabilityException from one of the owners.
-            // There is no way to verify the cause here, but there isn't any other way to get an invalid get response.
-            throw getLog().degradedModeKeyUnavailable(key);
-         } else {
-            throw e;
-         }
-      }
-      postOperationPartitionCheck(ctx, command, key, result);
-      return result;
+      return visitDataReadCommand(ctx, command);
    }
 
    @Override
    public final Object visitGetCacheEntryCommand(InvocationContext ctx, GetCacheEntryCommand command) throws Throwable {
-      Object key = command.getKey();
+      return visitDataReadCommand(ctx, command);
+   }
+
+   private Object visitDataReadCommand(final InvocationContext ctx, final AbstractDataCommand command) throws Throwable {
+      final Object key = command.getKey();
       Object result;
       try {
-         result = super.visitGetCacheEntryCommand(ctx, command);
+         result = handleDefault(ctx, command);
       } catch (RpcException e) {
-         if (performPartitionCheck(ctx, command)) {
-            // We must have received an AvailabilityException from one of the owners.
-            // There is no way to verify the cause here, but there isn't any other way to get an invalid get response.
-            throw getLog().degradedModeKeyUnavailable(key);
-         } else {
-            throw e;
-         }
+         throw handleReadFailure(ctx, command, key, e);
+      }
+      if (result instanceof InvocationStage) {
+         return ((InvocationStage) result).handle(new InvocationStage.ReturnHandler() {
+            @Override
+            public Object handle(Object returnValue, Throwable throwable) throws Throwable {
+               if (throwable instanceof RpcException) {
+                  throw handleReadFailure(ctx, command, key, (RpcException) throwable);
+               } else if (throwable != null) {
+                  throw throwable;
+               }
+               return postOperationPartitionCheck(ctx, command, key, returnValue);
+            }
+         });
       }
       postOperationPartitionCheck(ctx, command, key, result);
       return result;
    }
 
+   private RuntimeException handleReadFailure(InvocationContext ctx, AbstractDataCommand command, Object key,
+                                              RpcException e) {
+      if (performPartitionCheck(ctx, command)) {
+         // We must have received an AvailabilityException from one of the owners.
+         // There is no way to verify the cause here, but there isn't any other way to get an invalid get response.
+         return getLog().degradedModeKeyUnavailable(key);
+      } else {
+         return e;
+      }
+   }
+
    private Object postOperationPartitionCheck(InvocationContext ctx, AbstractDataCommand command, Object key, Object result) throws Throwable {
       if (performPartitionCheck(ctx, command)) {
          // We do the availability check after the read, because the cache may have entered degraded mode
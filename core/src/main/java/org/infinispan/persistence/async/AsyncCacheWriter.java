@@ -10,10 +10,12 @@
 import org.infinispan.persistence.modifications.Remove;
 import org.infinispan.persistence.modifications.Store;
 import org.infinispan.commons.util.CollectionFactory;
+import org.infinispan.persistence.spi.BatchCacheWriter;
 import org.infinispan.persistence.spi.CacheWriter;
 import org.infinispan.persistence.spi.InitializationContext;
 import org.infinispan.marshall.core.MarshalledEntry;
 import org.infinispan.persistence.support.DelegatingCacheWriter;
+import org.infinispan.util.TimeService;
 import org.infinispan.util.logging.Log;
 import org.infinispan.util.logging.LogFactory;
 
@@ -29,6 +31,7 @@
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
 
 /**
  * The AsyncCacheWriter is a delegating CacheStore that buffers changes and writes them asynchronously to
@@ -48,6 +51,11 @@
  * <p/>
  * Write operations affecting same key are now coalesced so that only the final state is actually stored.
  * <p/>
+ * The modifications are written in batches of at most {@link AsyncStoreConfiguration#batchSize()} modifications,
+ * spread across the worker threads. If the underlying store is a {@link BatchCacheWriter}, each batch is written
+ * with a single call. With a {@link AsyncStoreConfiguration#maxBatchDelay()}, the coordinator waits up to that delay
+ * for a full batch to be buffered before flushing.
+ * <p/>
  *
  * @author Manik Surtani
  * @author Galder Zamarreño
@@ -66,6 +74,8 @@ public class AsyncCacheWriter extends DelegatingCacheWriter {
    private int concurrencyLevel;
    private long shutdownTimeout;
    private String cacheName;
+   private TimeService timeService;
+   private final AsyncStoreStatistics statistics = new AsyncStoreStatistics();
 
    protected BufferLock stateLock;
    @GuardedBy("stateLock")
@@ -81,6 +91,7 @@ public AsyncCacheWriter(CacheWriter delegate) {
    public void init(InitializationContext ctx) {
       super.init(ctx);
       this.asyncConfiguration = ctx.getConfiguration().async();
+      this.timeService = ctx.getTimeService();
 
       Cache cache = ctx.getCache();
       Configuration cacheCfg = cache != null ? cache.getCacheConfiguration() : null;
@@ -126,6 +137,8 @@ public void stop() {
       stateLock.writeLock(1);
       state.get().stopped = true;
       stateLock.writeUnlock();
+      // Don't wait for a full batch
+      LockSupport.unpark(coordinator);
       try {
          coordinator.join(shutdownTimeout);
          if (coordinator.isAlive())
@@ -147,7 +160,15 @@ public boolean delete(Object key) {
       return true;
    }
 
+   /**
+    * Writes a batch of modifications to the underlying store. A batch never contains two modifications of the same
+    * key.
+    */
    protected void applyModificationsSync(List<Modification> mods) throws PersistenceException {
+      if (actual instanceof BatchCacheWriter) {
+         applyBatch((BatchCacheWriter<?, ?>) actual, mods);
+         return;
+      }
       for (Modification m : mods) {
          switch (m.getType()) {
             case STORE:
@@ -163,6 +184,35 @@ protected void applyModificationsSync(List<Modification> mods) throws Persistenc
    }
 
 
+   private static <K, V> void applyBatch(BatchCacheWriter<K, V> batchWriter, List<Modification> mods) {
+      List<MarshalledEntry<? extends K, ? extends V>> entries = new ArrayList<MarshalledEntry<? extends K, ? extends V>>(mods.size());
+      List<Object> keys = new ArrayList<Object>();
+      for (Modification m : mods) {
+         switch (m.getType()) {
+            case STORE:
+               entries.add(AsyncCacheWriter.<K, V>storedEntry((Store) m));
+               break;
+            case REMOVE:
+               keys.add(((Remove) m).getKey());
+               break;
+            default:
+               throw new IllegalArgumentException("Unknown modification type " + m.getType());
+         }
+      }
+      if (!entries.isEmpty())
+         batchWriter.writeBatch(entries);
+      if (!keys.isEmpty())
+         batchWriter.deleteBatch(keys);
+   }
+
+   /**
+    * Modifications don't keep the key and value types, but they were created by the cache the store belongs to.
+    */
+   @SuppressWarnings("unchecked")
+   private static <K, V> MarshalledEntry<K, V> storedEntry(Store store) {
+      return store.getStoredValue();
+   }
+
    State newState(boolean clear, State next) {
       ConcurrentMap<Object, Modification> map = CollectionFactory.makeConcurrentMap(64, concurrencyLevel);
       return new State(clear, map, next);
@@ -174,7 +224,12 @@ private void put(Modification mod, int count) {
          if (log.isTraceEnabled())
             log.tracef("Queue modification: %s", mod);
 
-         state.get().put(mod);
+         State s = state.get();
+         if (s.modifications.isEmpty())
+            s.firstModificationTime = timeService.time();
+         s.put(mod);
+         if (asyncConfiguration.maxBatchDelay() > 0 && s.modifications.size() >= asyncConfiguration.batchSize())
+            LockSupport.unpark(coordinator);
       } finally {
          stateLock.writeUnlock();
       }
@@ -184,6 +239,14 @@ public AtomicReference<State> getState() {
       return state;
    }
 
+   /**
+    * @return the statistics of the batches written to the underlying store.
+    * @since 7.2
+    */
+   public AsyncStoreStatistics getStatistics() {
+      return statistics;
+   }
+
    private class AsyncStoreCoordinator implements Runnable {
 
       @Override
@@ -197,6 +260,9 @@ public void run() {
                   return;
                }
 
+               if (asyncConfiguration.maxBatchDelay() > 0)
+                  awaitBatch();
+
                stateLock.readLock();
                try {
                   s = state.get();
@@ -224,6 +290,8 @@ public void run() {
                         if (!tail.modifications.containsKey(e.getKey()))
                            mods.add(e.getValue());
                         else {
+                           if (!head.clear && head.modifications.isEmpty())
+                              head.firstModificationTime = s.firstModificationTime;
                            if (!head.clear && head.modifications.putIfAbsent(e.getKey(), e.getValue()) == null)
                               stateLock.add(1);
                            s.modifications.remove(e.getKey());
@@ -233,8 +301,10 @@ public void run() {
                      mods = new ArrayList<Modification>(s.modifications.values());
                   }
 
-                  // distribute modifications evenly across worker threads
-                  int threads = Math.min(mods.size(), asyncConfiguration.threadPoolSize());
+                  // distribute modifications evenly across worker threads, each of them writes them in batches
+                  int batchSize = asyncConfiguration.batchSize();
+                  int batches = (mods.size() + batchSize - 1) / batchSize;
+                  int threads = Math.min(batches, asyncConfiguration.threadPoolSize());
                   s.workerThreads = new CountDownLatch(threads);
                   if (threads > 0) {
                      // schedule background threads
@@ -291,6 +361,23 @@ private boolean shouldStop(State s) {
          return s.stopped && s.modifications.isEmpty();
       }
 
+      /**
+       * Waits until a full batch of modifications is buffered, or until the first buffered modification waited for
+       * the maximum batch delay.
+       */
+      private void awaitBatch() {
+         stateLock.awaitAvailable();
+         State s = state.get();
+         long endTime = timeService.expectedEndTime(asyncConfiguration.maxBatchDelay(), TimeUnit.MILLISECONDS);
+         while (!s.stopped && !s.clear && s.modifications.size() < asyncConfiguration.batchSize()) {
+            long remaining = timeService.remainingTime(endTime, TimeUnit.NANOSECONDS);
+            if (remaining <= 0 || Thread.currentThread().isInterrupted())
+               return;
+            LockSupport.parkNanos(this, remaining);
+            s = state.get();
+         }
+      }
+
       private void workerThreadsAwait(CountDownLatch latch) throws InterruptedException {
          boolean await = latch.await(shutdownTimeout, TimeUnit.MILLISECONDS);
          if (!await)
@@ -309,8 +396,16 @@ private class AsyncStoreProcessor implements Runnable {
 
       @Override
       public void run() {
-         // try 3 times to store the modifications
-         retryWork(3);
+         int batchSize = asyncConfiguration.batchSize();
+         for (int start = 0; start < modifications.size(); start += batchSize) {
+            List<Modification> batch = modifications.subList(start, Math.min(start + batchSize, modifications.size()));
+            // try 3 times to store the modifications
+            if (retryWork(batch, 3)) {
+               statistics.batchWritten(batch.size(), timeService.timeDuration(myState.firstModificationTime, TimeUnit.MILLISECONDS));
+            } else {
+               statistics.batchFailed();
+            }
+         }
 
          // decrement active worker threads and disconnect myState if this was the last one
          myState.workerThreads.countDown();
@@ -320,20 +415,21 @@ public void run() {
                   s.next = null;
       }
 
-      private void retryWork(int maxRetries) {
+      private boolean retryWork(List<Modification> batch, int maxRetries) {
          for (int attempt = 0; attempt < maxRetries; attempt++) {
             if (attempt > 0 && log.isDebugEnabled())
                log.debugf("Retrying due to previous failure. %s attempts left.", maxRetries - attempt);
 
             try {
-               AsyncCacheWriter.this.applyModificationsSync(modifications);
-               return;
+               AsyncCacheWriter.this.applyModificationsSync(batch);
+               return true;
             } catch (Exception e) {
                if (log.isDebugEnabled())
                   log.debug("Failed to process async modifications", e);
             }
          }
          log.unableToProcessAsyncModifications(maxRetries);
+         return false;
       }
    }
 }
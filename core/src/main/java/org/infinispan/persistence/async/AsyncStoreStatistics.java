@@ -0,0 +1,103 @@
+package org.infinispan.persistence.async;
+
+import org.infinispan.util.Histogram;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Statistics of the batches written by an {@link AsyncCacheWriter} to the underlying store: how many modifications
+ * each batch contained, and how long the oldest modification of the batch waited before being written (the lag of
+ * the store behind the cache).
+ * <p/>
+ * The distributions are kept in {@link Histogram}s with power of 2 buckets.
+ *
+ * @since 7.2
+ */
+public class AsyncStoreStatistics {
+
+   private final Histogram batchSizes = new Histogram();
+   private final Histogram lags = new Histogram();
+   private final AtomicLong failedBatches = new AtomicLong();
+
+   void batchWritten(int size, long lagMillis) {
+      batchSizes.add(size);
+      lags.add(Math.max(0, lagMillis));
+   }
+
+   void batchFailed() {
+      failedBatches.incrementAndGet();
+   }
+
+   /**
+    * @return the number of batches written to the store.
+    */
+   public long getBatches() {
+      return batchSizes.count();
+   }
+
+   /**
+    * @return the number of batches that could not be written to the store, even after retrying.
+    */
+   public long getFailedBatches() {
+      return failedBatches.get();
+   }
+
+   /**
+    * @return the number of modifications written to the store.
+    */
+   public long getModifications() {
+      return batchSizes.sum();
+   }
+
+   public long getAverageBatchSize() {
+      return batchSizes.average();
+   }
+
+   public long getMaxBatchSize() {
+      return batchSizes.max();
+   }
+
+   /**
+    * @return the number of batches by size, in the <tt>[min-max]=count</tt> format.
+    */
+   public String getBatchSizeHistogram() {
+      return batchSizes.toString();
+   }
+
+   /**
+    * @return the average lag of the store, in milliseconds.
+    */
+   public long getAverageLag() {
+      return lags.average();
+   }
+
+   /**
+    * @return the maximum lag of the store, in milliseconds.
+    */
+   public long getMaxLag() {
+      return lags.max();
+   }
+
+   /**
+    * @return the number of batches by lag in milliseconds, in the <tt>[min-max]=count</tt> format.
+    */
+   public String getLagHistogram() {
+      return lags.toString();
+   }
+
+   public void reset() {
+      batchSizes.reset();
+      lags.reset();
+      failedBatches.set(0);
+   }
+
+   /**
+    * Merges the statistics of several stores into this one.
+    */
+   public AsyncStoreStatistics merge(AsyncStoreStatistics other) {
+      batchSizes.merge(other.batchSizes);
+      lags.merge(other.lags);
+      failedBatches.addAndGet(other.failedBatches.get());
+      return this;
+   }
+}
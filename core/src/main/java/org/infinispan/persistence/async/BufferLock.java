@@ -163,6 +163,13 @@ void readLock() {
       sync.acquire(1);
    }
 
+   /**
+    * Blocks until the buffer is not empty, without acquiring the read lock.
+    */
+   void awaitAvailable() {
+      available.acquireShared(1);
+   }
+
    /**
     * Releases the read lock.
     */
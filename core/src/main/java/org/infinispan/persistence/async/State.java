@@ -46,6 +46,11 @@ public class State {
     */
    CountDownLatch workerThreads;
 
+   /**
+    * Time of the first modification added to this state, to compute how long the modifications waited.
+    */
+   volatile long firstModificationTime;
+
    State(boolean clear, ConcurrentMap<Object, Modification> modMap, State next) {
       this.clear = clear;
       this.modifications = modMap;
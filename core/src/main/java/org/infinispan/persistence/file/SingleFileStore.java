@@ -13,6 +13,7 @@
 import org.infinispan.persistence.PersistenceUtil;
 import org.infinispan.persistence.TaskContextImpl;
 import org.infinispan.persistence.spi.AdvancedLoadWriteStore;
+import org.infinispan.persistence.spi.BatchCacheWriter;
 import org.infinispan.persistence.spi.InitializationContext;
 import org.infinispan.persistence.spi.PersistenceException;
 import org.infinispan.util.KeyValuePair;
@@ -36,7 +37,12 @@
 import java.util.TreeSet;
 import java.util.concurrent.Callable;
 import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 /**
@@ -62,13 +68,21 @@
  * <p/>
  * This class is fully thread safe, yet allows for concurrent load / store
  * of individual cache entries.
+ * <p/>
+ * Free space is tracked in buckets of similar sizes, each with its own lock,
+ * so writers of differently sized entries don't contend when allocating.
+ * When free space takes more than the configured
+ * {@link SingleFileStoreConfiguration#compactionThreshold() compaction threshold}
+ * of the file after a purge, the entries at the end of the file are moved
+ * into free space closer to its start and the file is truncated, while
+ * the store keeps serving loads and writes.
  *
  * @author Karsten Blees
  * @author Mircea Markus
  * @since 6.0
  */
 @ConfiguredBy(SingleFileStoreConfiguration.class)
-public class SingleFileStore<K, V> implements AdvancedLoadWriteStore<K, V> {
+public class SingleFileStore<K, V> implements AdvancedLoadWriteStore<K, V>, BatchCacheWriter<K, V> {
    private static final Log log = LogFactory.getLog(SingleFileStore.class);
    private static final boolean trace = log.isTraceEnabled();
 
@@ -77,6 +91,8 @@
    private static final int KEYLEN_POS = 4;
    private static final int KEY_POS = 4 + 4 + 4 + 4 + 8;
    private static final int SMALLEST_ENTRY_SIZE = 128;
+   // One size class per possible position of the highest bit of the entry size
+   private static final int SIZE_CLASSES = 32;
 
    private SingleFileStoreConfiguration configuration;
 
@@ -84,14 +100,22 @@
 
    private FileChannel channel;
    private Map<K, FileEntry> entries;
-   private SortedSet<FileEntry> freeList;
-   private long filePos = MAGIC.length;
+   private FreeList freeList;
+   private final AtomicLong filePos = new AtomicLong(MAGIC.length);
    private File file;
    private float fragmentationFactor = .75f;
-   // Prevent clear() from truncating the file after a write() allocated the entry but before it wrote the data
+   // Prevent clear() and truncation from shrinking the file after a write() allocated the entry but before it wrote the data
    private ReadWriteLock resizeLock = new ReentrantReadWriteLock();
    private TimeService timeService;
 
+   // Only one compaction runs at a time
+   private final AtomicBoolean compacting = new AtomicBoolean();
+   private final AtomicLong compactions = new AtomicLong();
+   private final AtomicLong relocatedEntries = new AtomicLong();
+   private final AtomicLong relocatedBytes = new AtomicLong();
+   private final AtomicLong reclaimedBytes = new AtomicLong();
+   private final AtomicLong compactionTimeNanos = new AtomicLong();
+
    @Override
    public void init(InitializationContext ctx) {
       this.ctx = ctx;
@@ -118,7 +142,7 @@ public void start() {
 
          // initialize data structures
          entries = newEntryMap();
-         freeList = Collections.synchronizedSortedSet(new TreeSet<FileEntry>());
+         freeList = new FreeList();
 
          // check file format and read persistent state if enabled for the cache
          byte[] header = new byte[MAGIC.length];
@@ -161,7 +185,7 @@ public void stop() {
             channel = null;
             entries = null;
             freeList = null;
-            filePos = MAGIC.length;
+            filePos.set(MAGIC.length);
          }
       } catch (Exception e) {
          throw new PersistenceException(e);
@@ -173,13 +197,16 @@ public void stop() {
     */
    private void rebuildIndex() throws Exception {
       ByteBuffer buf = ByteBuffer.allocate(KEY_POS);
+      long filePos = MAGIC.length;
       for (; ; ) {
          // read FileEntry fields from file (size, keyLen etc.)
          buf.clear().limit(KEY_POS);
          channel.read(buf, filePos);
          // return if end of file is reached
-         if (buf.remaining() > 0)
+         if (buf.remaining() > 0) {
+            this.filePos.set(filePos);
             return;
+         }
          buf.flip();
 
          // initialize FileEntry from buffer
@@ -234,34 +261,15 @@ public boolean contains(Object key) {
     * @return allocated file position and length as FileEntry object
     */
    private FileEntry allocate(int len) {
-      synchronized (freeList) {
-         // lookup a free entry of sufficient size
-         SortedSet<FileEntry> candidates = freeList.tailSet(new FileEntry(0, len));
-         for (Iterator<FileEntry> it = candidates.iterator(); it.hasNext(); ) {
-            FileEntry free = it.next();
-            // ignore entries that are still in use by concurrent readers
-            if (free.isLocked())
-               continue;
-
-            // There's no race condition risk between locking the entry on
-            // loading and checking whether it's locked (or store allocation),
-            // because for the entry to be lockable, it needs to be in the
-            // entries collection, in which case it's not in the free list.
-            // The only way an entry can be found in the free list is if it's
-            // been removed, and to remove it, lock on "entries" needs to be
-            // acquired, which is also a pre-requisite for loading data.
-
-            // found one, remove from freeList
-            it.remove();
-            return allocateExistingEntry(free, len);
-         }
-
-         // no appropriate free section available, append at end of file
-         FileEntry fe = new FileEntry(filePos, len);
-         filePos += len;
-         if (trace) log.tracef("New entry allocated at %d:%d, %d free entries, file size is %d", fe.offset, fe.size, freeList.size(), filePos);
-         return fe;
-      }
+      // lookup a free entry of sufficient size
+      FileEntry free = freeList.take(len, Long.MAX_VALUE);
+      if (free != null)
+         return allocateExistingEntry(free, len);
+
+      // no appropriate free section available, append at end of file
+      FileEntry fe = new FileEntry(filePos.getAndAdd(len), len);
+      if (trace) log.tracef("New entry allocated at %d:%d, %d free entries, file size is %d", fe.offset, fe.size, freeList.size(), filePos.get());
+      return fe;
    }
 
    private FileEntry allocateExistingEntry(FileEntry free, int len) {
@@ -339,15 +347,7 @@ public void write(MarshalledEntry<? extends K, ? extends V> marshalledEntry) {
             newEntry = new FileEntry(newEntry, key.getLength(), data.getLength(), metadataLength, expiryTime);
 
             ByteBuffer buf = ByteBuffer.allocate(len);
-            buf.putInt(newEntry.size);
-            buf.putInt(newEntry.keyLen);
-            buf.putInt(newEntry.dataLen);
-            buf.putInt(newEntry.metadataLen);
-            buf.putLong(newEntry.expiryTime);
-            buf.put(key.getBuf(), key.getOffset(), key.getLength());
-            buf.put(data.getBuf(), data.getOffset(), data.getLength());
-            if (metadata != null)
-               buf.put(metadata.getBuf(), metadata.getOffset(), metadata.getLength());
+            putEntry(buf, newEntry, marshalledEntry);
             buf.flip();
             channel.write(buf, newEntry.offset);
             if (trace) log.tracef("Wrote entry %s:%d at %d:%d", marshalledEntry.getKey(), len, newEntry.offset, newEntry.size);
@@ -371,6 +371,112 @@ public void write(MarshalledEntry<? extends K, ? extends V> marshalledEntry) {
       }
    }
 
+   /**
+    * Writes the entries that fit in a free section of the file one by one, like {@link #write(MarshalledEntry)}, and
+    * appends all the others at the end of the file with a single write.
+    */
+   @Override
+   public void writeBatch(Iterable<MarshalledEntry<? extends K, ? extends V>> marshalledEntries) {
+      try {
+         resizeLock.readLock().lock();
+         try {
+            List<MarshalledEntry<? extends K, ? extends V>> appended = new ArrayList<MarshalledEntry<? extends K, ? extends V>>();
+            int appendedLength = 0;
+            for (MarshalledEntry<? extends K, ? extends V> marshalledEntry : marshalledEntries) {
+               int len = entryLength(marshalledEntry);
+               FileEntry free = freeList.take(len, Long.MAX_VALUE);
+               if (free == null) {
+                  appended.add(marshalledEntry);
+                  appendedLength += len;
+                  continue;
+               }
+               FileEntry newEntry = newFileEntry(allocateExistingEntry(free, len), marshalledEntry);
+               ByteBuffer buf = ByteBuffer.allocate(len);
+               putEntry(buf, newEntry, marshalledEntry);
+               buf.flip();
+               channel.write(buf, newEntry.offset);
+               if (trace) log.tracef("Wrote entry %s:%d at %d:%d", marshalledEntry.getKey(), len, newEntry.offset, newEntry.size);
+               index(marshalledEntry.getKey(), newEntry);
+            }
+            if (appended.isEmpty())
+               return;
+
+            // no appropriate free section available, append all the remaining entries at end of file
+            long offset = filePos.getAndAdd(appendedLength);
+            if (trace) log.tracef("New entries allocated at %d:%d, file size is %d", offset, appendedLength, filePos.get());
+            FileEntry[] newEntries = new FileEntry[appended.size()];
+            ByteBuffer buf = ByteBuffer.allocate(appendedLength);
+            for (int i = 0; i < newEntries.length; i++) {
+               MarshalledEntry<? extends K, ? extends V> marshalledEntry = appended.get(i);
+               FileEntry allocated = new FileEntry(offset + buf.position(), entryLength(marshalledEntry));
+               newEntries[i] = newFileEntry(allocated, marshalledEntry);
+               putEntry(buf, newEntries[i], marshalledEntry);
+            }
+            buf.flip();
+            while (buf.hasRemaining()) {
+               channel.write(buf, offset + buf.position());
+            }
+            if (trace) log.tracef("Wrote %d entries at %d:%d", newEntries.length, offset, appendedLength);
+
+            for (int i = 0; i < newEntries.length; i++) {
+               index(appended.get(i).getKey(), newEntries[i]);
+            }
+         } finally {
+            resizeLock.readLock().unlock();
+         }
+      } catch (Exception e) {
+         throw new PersistenceException(e);
+      }
+   }
+
+   /**
+    * Adds the entry to the in-memory index and frees the space of the entry it replaced or evicted.
+    * <p/>
+    * Note: Caller must hold the {@code resizeLock} in shared mode.
+    */
+   private void index(K key, FileEntry newEntry) throws IOException {
+      FileEntry oldEntry = entries.put(key, newEntry);
+      // if we added an entry, check if we need to evict something
+      if (oldEntry == null)
+         oldEntry = evict();
+      free(oldEntry);
+   }
+
+   @Override
+   public void deleteBatch(Iterable<Object> keys) {
+      for (Object key : keys) {
+         delete(key);
+      }
+   }
+
+   private static int entryLength(MarshalledEntry<?, ?> marshalledEntry) {
+      org.infinispan.commons.io.ByteBuffer metadata = marshalledEntry.getMetadataBytes();
+      int metadataLength = metadata == null ? 0 : metadata.getLength();
+      return KEY_POS + marshalledEntry.getKeyBytes().getLength() + marshalledEntry.getValueBytes().getLength() + metadataLength;
+   }
+
+   private static FileEntry newFileEntry(FileEntry allocated, MarshalledEntry<?, ?> marshalledEntry) {
+      org.infinispan.commons.io.ByteBuffer metadata = marshalledEntry.getMetadataBytes();
+      long expiryTime = metadata != null ? marshalledEntry.getMetadata().expiryTime() : -1;
+      return new FileEntry(allocated, marshalledEntry.getKeyBytes().getLength(),
+            marshalledEntry.getValueBytes().getLength(), metadata == null ? 0 : metadata.getLength(), expiryTime);
+   }
+
+   private static void putEntry(ByteBuffer buf, FileEntry fe, MarshalledEntry<?, ?> marshalledEntry) {
+      org.infinispan.commons.io.ByteBuffer key = marshalledEntry.getKeyBytes();
+      org.infinispan.commons.io.ByteBuffer data = marshalledEntry.getValueBytes();
+      org.infinispan.commons.io.ByteBuffer metadata = marshalledEntry.getMetadataBytes();
+      buf.putInt(fe.size);
+      buf.putInt(fe.keyLen);
+      buf.putInt(fe.dataLen);
+      buf.putInt(fe.metadataLen);
+      buf.putLong(fe.expiryTime);
+      buf.put(key.getBuf(), key.getOffset(), key.getLength());
+      buf.put(data.getBuf(), data.getOffset(), data.getLength());
+      if (metadata != null)
+         buf.put(metadata.getBuf(), metadata.getOffset(), metadata.getLength());
+   }
+
    /**
     * Try to evict an entry if the capacity of the cache store is reached.
     *
@@ -395,11 +501,12 @@ public void clear() {
       resizeLock.writeLock().lock();
       try {
          synchronized (entries) {
-            synchronized (freeList) {
+            freeList.lockAll();
+            try {
                // wait until all readers are done reading file entries
                for (FileEntry fe : entries.values())
                   fe.waitUnlocked();
-               for (FileEntry fe : freeList)
+               for (FileEntry fe : freeList.snapshot())
                   fe.waitUnlocked();
 
                // clear in-memory state
@@ -407,10 +514,12 @@ public void clear() {
                freeList.clear();
 
                // reset file
-               if (trace) log.tracef("Truncating file, current size is %d", filePos);
+               if (trace) log.tracef("Truncating file, current size is %d", filePos.get());
                channel.truncate(0);
                channel.write(ByteBuffer.wrap(MAGIC), 0);
-               filePos = MAGIC.length;
+               filePos.set(MAGIC.length);
+            } finally {
+               freeList.unlockAll();
             }
          }
       } catch (Exception e) {
@@ -555,13 +664,43 @@ public Void call() throws Exception {
     * Manipulates the free entries for optimizing disk space.
     */
    private void processFreeEntries() {
-      // Get a reverse sorted list of free entries based on file offset
-      // This helps to work backwards with free entries at end of the file
-      List<FileEntry> l  = new ArrayList<FileEntry>(freeList);
-      Collections.sort(l, new FileEntryByOffsetComparator());
+      // Appending writers must not extend the file while it is truncated
+      resizeLock.writeLock().lock();
+      try {
+         freeList.lockAll();
+         try {
+            truncateFile(freeEntriesByOffset());
+         } finally {
+            freeList.unlockAll();
+         }
+      } finally {
+         resizeLock.writeLock().unlock();
+      }
 
-      truncateFile(l);
-      mergeFreeEntries(l);
+      // Writers only have to wait for the free list while merging
+      resizeLock.readLock().lock();
+      try {
+         freeList.lockAll();
+         try {
+            mergeFreeEntries(freeEntriesByOffset());
+         } finally {
+            freeList.unlockAll();
+         }
+      } finally {
+         resizeLock.readLock().unlock();
+      }
+   }
+
+   /**
+    * Get a reverse sorted list of free entries based on file offset.
+    * This helps to work backwards with free entries at end of the file.
+    * <p/>
+    * Note: Caller must hold all the free list locks.
+    */
+   private List<FileEntry> freeEntriesByOffset() {
+      List<FileEntry> l = freeList.snapshot();
+      Collections.sort(l, FILE_ENTRY_BY_OFFSET);
+      return l;
    }
 
    /**
@@ -579,9 +718,9 @@ private void truncateFile(List<FileEntry> entries) {
          // Till we have free entries at the end of the file,
          // we can remove them and contract the file to release disk
          // space.
-         if (!fe.isLocked() && ((fe.offset + fe.size) == filePos)) {
+         if (!fe.isLocked() && ((fe.offset + fe.size) == filePos.get())) {
             truncateOffset = fe.offset;
-            filePos = fe.offset;
+            filePos.set(fe.offset);
             freeList.remove(fe);
             it.remove();
             reclaimedSpace += fe.size;
@@ -692,18 +831,122 @@ public void run() {
                      if (task != null) task.entryPurged(next.getKey());
                   }
                }
-               
-               // Disk space optimizations
-               synchronized (freeList) {
-            	  processFreeEntries();
-               }
             } finally {
                resizeLock.readLock().unlock();
             }
+
+            // Disk space optimizations
+            processFreeEntries();
+            if (getFragmentationRatio() > configuration.compactionThreshold())
+               compact();
          }
       });
    }
 
+   /**
+    * Moves the entries at the end of the file into free space closer to its start, then truncates the file.
+    * Loads and writes may run concurrently, only the final truncation blocks writers.
+    */
+   public void compact() {
+      if (channel == null || !compacting.compareAndSet(false, true))
+         return;
+      try {
+         long startTime = timeService.time();
+         // Merge adjacent free blocks first, so that bigger entries find room
+         processFreeEntries();
+         long sizeBefore = filePos.get();
+         // Once the live entries fit below this offset, there is nothing left to move
+         long targetSize = sizeBefore - freeList.freeBytes();
+
+         List<KeyValuePair<K, FileEntry>> live = new ArrayList<KeyValuePair<K, FileEntry>>(entries.size());
+         synchronized (entries) {
+            for (Map.Entry<K, FileEntry> e : entries.entrySet()) {
+               if (e.getValue().offset >= targetSize)
+                  live.add(new KeyValuePair<K, FileEntry>(e.getKey(), e.getValue()));
+            }
+         }
+         Collections.sort(live, new Comparator<KeyValuePair<K, FileEntry>>() {
+            @Override
+            public int compare(KeyValuePair<K, FileEntry> o1, KeyValuePair<K, FileEntry> o2) {
+               return FILE_ENTRY_BY_OFFSET.compare(o1.getValue(), o2.getValue());
+            }
+         });
+
+         int moved = 0;
+         for (KeyValuePair<K, FileEntry> kvp : live) {
+            if (channel == null || freeList.freeBytes() == 0)
+               break;
+            // Entries without a big enough free block before them stay where they are
+            if (relocate(kvp.getKey(), kvp.getValue()))
+               moved++;
+         }
+
+         processFreeEntries();
+
+         long duration = timeService.timeDuration(startTime, TimeUnit.NANOSECONDS);
+         long reclaimed = Math.max(0, sizeBefore - filePos.get());
+         compactions.incrementAndGet();
+         reclaimedBytes.addAndGet(reclaimed);
+         compactionTimeNanos.addAndGet(duration);
+         if (trace) log.tracef("Compaction moved %d entries and reclaimed %d bytes in %d ms", moved, reclaimed,
+                               TimeUnit.NANOSECONDS.toMillis(duration));
+      } catch (IOException e) {
+         throw new PersistenceException("Error while compacting file", e);
+      } finally {
+         compacting.set(false);
+      }
+   }
+
+   /**
+    * Copies an entry into free space located before it in the file.
+    *
+    * @return {@code true} if the entry was moved
+    */
+   private boolean relocate(K key, FileEntry fe) throws IOException {
+      resizeLock.readLock().lock();
+      try {
+         synchronized (entries) {
+            // The entry was removed or replaced since the compaction started
+            if (entries.get(key) != fe)
+               return false;
+            // Keep the block from being reused while it is copied, even if the entry is removed meanwhile
+            fe.lock();
+         }
+
+         FileEntry moved;
+         try {
+            FileEntry free = freeList.take(fe.actualSize(), fe.offset);
+            if (free == null)
+               return false;
+            FileEntry target = allocateExistingEntry(free, fe.actualSize());
+
+            ByteBuffer buf = ByteBuffer.allocate(fe.actualSize());
+            channel.read(buf, fe.offset);
+            buf.putInt(0, target.size);
+            buf.rewind();
+            channel.write(buf, target.offset);
+            moved = new FileEntry(target, fe.keyLen, fe.dataLen, fe.metadataLen, fe.expiryTime);
+         } finally {
+            fe.unlock();
+         }
+
+         boolean replaced;
+         synchronized (entries) {
+            replaced = entries.get(key) == fe;
+            if (replaced)
+               entries.put(key, moved);
+         }
+         // Whoever removed the entry in the meantime already freed the original
+         free(replaced ? fe : moved);
+         if (trace) log.tracef("Moved entry %s from %d:%d to %d:%d", key, fe.offset, fe.size, moved.offset, moved.size);
+         relocatedEntries.incrementAndGet();
+         relocatedBytes.addAndGet(fe.actualSize());
+         return true;
+      } finally {
+         resizeLock.readLock().unlock();
+      }
+   }
+
    @Override
    public int size() {
       return entries.size();
@@ -714,11 +957,102 @@ Map<K, FileEntry> getEntries() {
    }
 
    SortedSet<FileEntry> getFreeList() {
-      return freeList;
+      freeList.lockAll();
+      try {
+         return new TreeSet<FileEntry>(freeList.snapshot());
+      } finally {
+         freeList.unlockAll();
+      }
+   }
+
+   /**
+    * @return the size of the data file in bytes.
+    */
+   public long getFileSize() {
+      return filePos.get();
    }
 
-   long getFileSize() {
-      return filePos;
+   /**
+    * @return the number of bytes of the data file which are not used by any entry.
+    */
+   public long getFreeSpace() {
+      return freeList.freeBytes();
+   }
+
+   /**
+    * @return the number of free blocks in the data file.
+    */
+   public int getFreeEntries() {
+      return freeList.size();
+   }
+
+   /**
+    * @return the size of the entries area of the data file in bytes, i.e. without the file header.
+    */
+   public long getDataSize() {
+      return Math.max(0, filePos.get() - MAGIC.length);
+   }
+
+   /**
+    * @return the fraction of the data file which is not used by any entry.
+    */
+   public double getFragmentationRatio() {
+      long dataSize = getDataSize();
+      return dataSize == 0 ? 0 : (double) freeList.freeBytes() / dataSize;
+   }
+
+   /**
+    * @return the number of compactions of the data file.
+    */
+   public long getCompactions() {
+      return compactions.get();
+   }
+
+   /**
+    * @return the number of entries moved by compactions.
+    */
+   public long getCompactionRelocatedEntries() {
+      return relocatedEntries.get();
+   }
+
+   /**
+    * @return the number of bytes by which compactions shrank the data file.
+    */
+   public long getCompactionReclaimedBytes() {
+      return reclaimedBytes.get();
+   }
+
+   /**
+    * @return the number of bytes moved by compactions.
+    */
+   public long getCompactionRelocatedBytes() {
+      return relocatedBytes.get();
+   }
+
+   /**
+    * @return the time spent compacting, in nanoseconds.
+    */
+   public long getCompactionTimeNanos() {
+      return compactionTimeNanos.get();
+   }
+
+   /**
+    * @return the number of bytes moved per second while compacting.
+    */
+   public long getCompactionThroughput() {
+      long nanos = compactionTimeNanos.get();
+      return nanos == 0 ? 0 : relocatedBytes.get() * TimeUnit.SECONDS.toNanos(1) / nanos;
+   }
+
+   /**
+    * Resets the compaction statistics.
+    */
+   public void resetStatistics() {
+      compactions.set(0);
+      relocatedEntries.set(0);
+      relocatedBytes.set(0);
+      reclaimedBytes.set(0);
+      compactionTimeNanos.set(0);
    }
 
    public SingleFileStoreConfiguration getConfiguration() {
@@ -863,6 +1197,8 @@ public String toString() {
       }
    }
 
+   private static final Comparator<FileEntry> FILE_ENTRY_BY_OFFSET = new FileEntryByOffsetComparator();
+
    /**
     * Compares two file entries based on their offset in the file
     * in the reverse order (bigger entries will be ahead of smaller entries)
@@ -874,4 +1210,137 @@ public int compare(FileEntry o1, FileEntry o2) {
          return (diff == 0) ? 0 : ((diff > 0) ? -1 : 1);
       }
    }
+
+   /**
+    * The free blocks of the file, grouped by size class (the position of the highest bit of their size).
+    * <p/>
+    * Each size class has its own lock, so that writers allocating entries of different sizes don't contend.
+    * Operations on the whole list (truncation, merging, clear) take all the locks, in ascending order.
+    */
+   private static class FreeList {
+      private final TreeSet<FileEntry>[] buckets;
+      private final ReentrantLock[] locks;
+      private final AtomicInteger size = new AtomicInteger();
+      private final AtomicLong freeBytes = new AtomicLong();
+
+      @SuppressWarnings("unchecked")
+      FreeList() {
+         buckets = new TreeSet[SIZE_CLASSES];
+         locks = new ReentrantLock[SIZE_CLASSES];
+         for (int i = 0; i < SIZE_CLASSES; i++) {
+            buckets[i] = new TreeSet<FileEntry>();
+            locks[i] = new ReentrantLock();
+         }
+      }
+
+      private static int sizeClass(int size) {
+         return 31 - Integer.numberOfLeadingZeros(Math.max(size, 1));
+      }
+
+      boolean add(FileEntry fe) {
+         int sizeClass = sizeClass(fe.size);
+         locks[sizeClass].lock();
+         try {
+            if (!buckets[sizeClass].add(fe))
+               return false;
+         } finally {
+            locks[sizeClass].unlock();
+         }
+         size.incrementAndGet();
+         freeBytes.addAndGet(fe.size);
+         return true;
+      }
+
+      boolean remove(FileEntry fe) {
+         int sizeClass = sizeClass(fe.size);
+         locks[sizeClass].lock();
+         try {
+            if (!buckets[sizeClass].remove(fe))
+               return false;
+         } finally {
+            locks[sizeClass].unlock();
+         }
+         size.decrementAndGet();
+         freeBytes.addAndGet(-fe.size);
+         return true;
+      }
+
+      /**
+       * Removes and returns the smallest free entry of at least {@code len} bytes located before {@code maxOffset},
+       * or {@code null} if there is none.
+       */
+      FileEntry take(int len, long maxOffset) {
+         FileEntry key = new FileEntry(0, len);
+         for (int sizeClass = sizeClass(len); sizeClass < SIZE_CLASSES; sizeClass++) {
+            locks[sizeClass].lock();
+            try {
+               if (buckets[sizeClass].isEmpty())
+                  continue;
+               for (Iterator<FileEntry> it = buckets[sizeClass].tailSet(key).iterator(); it.hasNext(); ) {
+                  FileEntry free = it.next();
+                  // We're within the bucket lock, so nobody else can allocate this entry.
+                  // Readers may still hold a lock on a freed entry, so it can't be reused until they are done.
+                  // A new reader can't acquire the lock on a free entry, because it's not in the entries map.
+                  if (free.isLocked() || free.offset >= maxOffset)
+                     continue;
+                  it.remove();
+                  size.decrementAndGet();
+                  freeBytes.addAndGet(-free.size);
+                  return free;
+               }
+            } finally {
+               locks[sizeClass].unlock();
+            }
+         }
+         return null;
+      }
+
+      void lockAll() {
+         for (ReentrantLock lock : locks)
+            lock.lock();
+      }
+
+      void unlockAll() {
+         for (int i = locks.length - 1; i >= 0; i--)
+            locks[i].unlock();
+      }
+
+      /**
+       * Note: Caller must hold all the locks.
+       */
+      List<FileEntry> snapshot() {
+         List<FileEntry> l = new ArrayList<FileEntry>(size.get());
+         for (TreeSet<FileEntry> bucket : buckets)
+            l.addAll(bucket);
+         return l;
+      }
+
+      /**
+       * Note: Caller must hold all the locks.
+       */
+      void clear() {
+         for (TreeSet<FileEntry> bucket : buckets)
+            bucket.clear();
+         size.set(0);
+         freeBytes.set(0);
+      }
+
+      int size() {
+         return size.get();
+      }
+
+      long freeBytes() {
+         return freeBytes.get();
+      }
+
+      @Override
+      public String toString() {
+         lockAll();
+         try {
+            return snapshot().toString();
+         } finally {
+            unlockAll();
+         }
+      }
+   }
 }
@@ -1,6 +1,7 @@
 package org.infinispan.persistence.manager;
 
 import java.util.Collection;
+import java.util.List;
 import java.util.Set;
 import java.util.concurrent.Executor;
 
@@ -9,6 +10,7 @@
 import org.infinispan.filter.KeyFilter;
 import org.infinispan.lifecycle.Lifecycle;
 import org.infinispan.persistence.spi.AdvancedCacheLoader;
+import org.infinispan.persistence.spi.CacheWriter;
 import org.infinispan.marshall.core.MarshalledEntry;
 
 /**
@@ -34,6 +36,12 @@ public interface PersistenceManager extends Lifecycle {
 
    Collection<String> getStoresAsString();
 
+   /**
+    * @return all the configured writers, including the decorators, e.g. the
+    * {@link org.infinispan.persistence.async.AsyncCacheWriter}s of the write-behind stores.
+    */
+   List<CacheWriter> getAllWriters();
+
    /**
     * Removes the expired entries from all the existing storage.
     */
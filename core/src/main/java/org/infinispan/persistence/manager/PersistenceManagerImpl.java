@@ -14,6 +14,7 @@
 import org.infinispan.container.entries.InternalCacheEntry;
 import org.infinispan.context.Flag;
 import org.infinispan.context.InvocationContext;
+import org.infinispan.eviction.EvictionType;
 import org.infinispan.factories.annotations.ComponentName;
 import org.infinispan.factories.annotations.Inject;
 import org.infinispan.factories.annotations.Start;
@@ -503,6 +504,7 @@ public List<CacheLoader> getAllLoaders() {
       return Collections.unmodifiableList(loaders);
    }
 
+   @Override
    public List<CacheWriter> getAllWriters() {
       return Collections.unmodifiableList(writers);
    }
@@ -617,7 +619,8 @@ private boolean indexShareable() {
 
    private int getMaxEntries() {
       int ne = Integer.MAX_VALUE;
-      if (configuration.eviction().strategy().isEnabled()) ne = configuration.eviction().maxEntries();
+      if (configuration.eviction().strategy().isEnabled() && configuration.eviction().type() == EvictionType.COUNT)
+         ne = configuration.eviction().maxEntries();
       return ne;
    }
 
@@ -0,0 +1,32 @@
+package org.infinispan.persistence.spi;
+
+import net.jcip.annotations.ThreadSafe;
+import org.infinispan.marshall.core.MarshalledEntry;
+
+/**
+ * Optional interface for the {@link CacheWriter}s that can persist several modifications more efficiently than one
+ * at a time, e.g. with a JDBC batch or a single disk write.
+ * <p/>
+ * The {@link org.infinispan.persistence.async.AsyncCacheWriter} flushes the modifications buffered by a write-behind
+ * store through these methods when the store implements this interface, and with {@link #write(MarshalledEntry)} and
+ * {@link #delete(Object)} otherwise. A batch never contains the same key twice.
+ *
+ * @since 7.2
+ */
+@ThreadSafe
+public interface BatchCacheWriter<K, V> extends CacheWriter<K, V> {
+
+   /**
+    * Persists all the entries to the storage.
+    *
+    * @throws PersistenceException in case of an error, e.g. communicating with the external storage
+    */
+   void writeBatch(Iterable<MarshalledEntry<? extends K, ? extends V>> entries);
+
+   /**
+    * Removes all the keys from the storage, ignoring the keys that are not there.
+    *
+    * @throws PersistenceException in case of an error, e.g. communicating with the external storage
+    */
+   void deleteBatch(Iterable<Object> keys);
+}
@@ -6,6 +6,7 @@
 import org.infinispan.remoting.responses.Response;
 import org.infinispan.remoting.transport.Address;
 import org.infinispan.remoting.transport.Transport;
+import org.infinispan.commons.util.concurrent.NotifyingFuture;
 import org.infinispan.commons.util.concurrent.NotifyingNotifiableFuture;
 
 import java.util.Collection;
@@ -239,6 +240,24 @@ void invokeRemotelyInFuture(Collection<Address> recipients, ReplicableCommand rp
    void invokeRemotelyInFuture(NotifyingNotifiableFuture<Map<Address, Response>> future, Collection<Address> recipients,
                                ReplicableCommand rpc, RpcOptions options);
 
+   /**
+    * The same as {@link #invokeRemotely(java.util.Collection, org.infinispan.commands.ReplicableCommand, RpcOptions)}
+    * except that it doesn't wait for the responses. Unlike {@link #invokeRemotelyInFuture(java.util.Collection,
+    * org.infinispan.commands.ReplicableCommand, RpcOptions, org.infinispan.commons.util.concurrent.NotifyingNotifiableFuture)},
+    * no transport executor thread is blocked while waiting: the returned future is completed by the transport when the
+    * responses are received, in the thread receiving them, so its listeners must not block.
+    *
+    * @param recipients recipients to invoke remote call on. If this is {@code null}, the call is broadcast to the
+    *                   entire cluster.
+    * @param rpc        command to execute remotely.
+    * @param options    it configures the invocation. The same instance can be re-used since {@link RpcManager} does
+    *                   not change it. Any change in {@link RpcOptions} during a remote invocation can lead to
+    *                   unpredictable behavior.
+    * @return a future completed with the map of responses from each member contacted.
+    */
+   NotifyingFuture<Map<Address, Response>> invokeRemotelyAsync(Collection<Address> recipients, ReplicableCommand rpc,
+                                                              RpcOptions options);
+
    /**
     * @return a reference to the underlying transport.
     */
@@ -5,6 +5,10 @@
 import org.infinispan.commands.TopologyAffectedCommand;
 import org.infinispan.commands.remote.CacheRpcCommand;
 import org.infinispan.commons.CacheException;
+import org.infinispan.commons.util.concurrent.CompletableNotifyingFuture;
+import org.infinispan.commons.util.concurrent.FutureListener;
+import org.infinispan.commons.util.concurrent.NoOpFuture;
+import org.infinispan.commons.util.concurrent.NotifyingFuture;
 import org.infinispan.commons.util.concurrent.NotifyingNotifiableFuture;
 import org.infinispan.configuration.cache.Configuration;
 import org.infinispan.distribution.ch.ConsistentHash;
@@ -37,7 +41,9 @@
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
 
@@ -242,22 +248,7 @@ public Map<Address, Response> invokeRemotely(Collection<Address> recipients, Rep
          replicationQueue.add(rpc);
          return null;
       }
-      if (!configuration.clustering().cacheMode().isClustered())
-         throw new IllegalStateException("Trying to invoke a remote command but the cache is not clustered");
-
-      // Set the topology id of the command, in case we don't have it yet
-      if (rpc instanceof TopologyAffectedCommand) {
-         TopologyAffectedCommand topologyAffectedCommand = (TopologyAffectedCommand) rpc;
-         if (topologyAffectedCommand.getTopologyId() == -1) {
-            int currentTopologyId = stateTransferManager.getCacheTopology().getTopologyId();
-            if (trace) log.tracef("Topology id missing on command %s, setting it to %d", rpc, currentTopologyId);
-            topologyAffectedCommand.setTopologyId(currentTopologyId);
-         }
-      }
-
-      if (!(rpc instanceof CacheRpcCommand)) {
-         rpc = cf.buildSingleRpcCommand(rpc);
-      }
+      rpc = prepareRpcCommand(rpc);
 
       long startTimeNanos = 0;
       if (statisticsEnabled) startTimeNanos = timeService.time();
@@ -304,6 +295,82 @@ public Map<Address, Response> invokeRemotely(Collection<Address> recipients, Rep
       }
    }
 
+   private ReplicableCommand prepareRpcCommand(ReplicableCommand rpc) {
+      if (!configuration.clustering().cacheMode().isClustered())
+         throw new IllegalStateException("Trying to invoke a remote command but the cache is not clustered");
+
+      // Set the topology id of the command, in case we don't have it yet
+      if (rpc instanceof TopologyAffectedCommand) {
+         TopologyAffectedCommand topologyAffectedCommand = (TopologyAffectedCommand) rpc;
+         if (topologyAffectedCommand.getTopologyId() == -1) {
+            int currentTopologyId = stateTransferManager.getCacheTopology().getTopologyId();
+            if (trace) log.tracef("Topology id missing on command %s, setting it to %d", rpc, currentTopologyId);
+            topologyAffectedCommand.setTopologyId(currentTopologyId);
+         }
+      }
+
+      if (!(rpc instanceof CacheRpcCommand)) {
+         rpc = cf.buildSingleRpcCommand(rpc);
+      }
+      return rpc;
+   }
+
+   @Override
+   public NotifyingFuture<Map<Address, Response>> invokeRemotelyAsync(Collection<Address> recipients,
+                                                                     ReplicableCommand rpc, RpcOptions options) {
+      if (!options.responseMode().isSynchronous()) {
+         // There are no responses to wait for
+         return new NoOpFuture<>(invokeRemotely(recipients, rpc, options));
+      }
+      if (trace) log.tracef("%s invoking %s to recipient list %s with options %s without waiting", t.getAddress(),
+                            rpc, recipients, options);
+      final ReplicableCommand command = prepareRpcCommand(rpc);
+
+      final long startTimeNanos = statisticsEnabled ? timeService.time() : 0;
+      final CompletableNotifyingFuture<Map<Address, Response>> result = new CompletableNotifyingFuture<>();
+      NotifyingFuture<Map<Address, Response>> responses;
+      try {
+         responses = t.invokeRemotelyAsync(recipients, command, options.responseMode(),
+                                           options.timeUnit().toMillis(options.timeout()), options.responseFilter(),
+                                           options.deliverOrder(), configuration.clustering().cacheMode().isDistributed());
+      } catch (Throwable th) {
+         result.completeExceptionally(replicationFailed(th, startTimeNanos));
+         return result;
+      }
+      responses.attachListener(new FutureListener<Map<Address, Response>>() {
+         @Override
+         public void futureDone(Future<Map<Address, Response>> future) {
+            try {
+               Map<Address, Response> responseMap = future.get();
+               if (statisticsEnabled) {
+                  replicationCount.incrementAndGet();
+                  totalReplicationTime.getAndAdd(timeService.timeDuration(startTimeNanos, TimeUnit.MILLISECONDS));
+               }
+               if (trace) log.tracef("Response(s) to %s is %s", command, responseMap);
+               result.complete(responseMap);
+            } catch (ExecutionException e) {
+               result.completeExceptionally(replicationFailed(e.getCause(), startTimeNanos));
+            } catch (Throwable th) {
+               result.completeExceptionally(replicationFailed(th, startTimeNanos));
+            }
+         }
+      });
+      return result;
+   }
+
+   private CacheException replicationFailed(Throwable th, long startTimeNanos) {
+      if (statisticsEnabled) {
+         replicationFailures.incrementAndGet();
+         totalReplicationTime.getAndAdd(timeService.timeDuration(startTimeNanos, TimeUnit.MILLISECONDS));
+      }
+      if (th instanceof CacheException) {
+         log.trace("replication exception: ", th);
+         return (CacheException) th;
+      }
+      log.unexpectedErrorReplicating(th);
+      return new CacheException(th);
+   }
+
    @Override
    public void invokeRemotelyInFuture(final NotifyingNotifiableFuture<Map<Address, Response>> future,
                                       final Collection<Address> recipients, final ReplicableCommand rpc,
@@ -1,6 +1,7 @@
 package org.infinispan.remoting.transport;
 
 import org.infinispan.commands.ReplicableCommand;
+import org.infinispan.commons.util.concurrent.NotifyingFuture;
 import org.infinispan.factories.annotations.Start;
 import org.infinispan.factories.annotations.Stop;
 import org.infinispan.factories.scopes.Scope;
@@ -73,6 +74,23 @@ Map<Address, Response> invokeRemotely(Collection<Address> recipients, Replicable
    Map<Address, Response> invokeRemotely(Collection<Address> recipients, ReplicableCommand rpcCommand, ResponseMode mode, long timeout,
                                          ResponseFilter responseFilter, DeliverOrder deliverOrder, boolean anycast) throws Exception;
 
+   /**
+    * Same as {@link #invokeRemotely(java.util.Collection, org.infinispan.commands.ReplicableCommand, ResponseMode,
+    * long, org.infinispan.remoting.rpc.ResponseFilter, org.infinispan.remoting.inboundhandler.DeliverOrder, boolean)},
+    * except that it doesn't wait for the responses.
+    * <p/>
+    * The returned future is completed with the map of responses, or with the exception {@code invokeRemotely} would
+    * have thrown. Implementations should complete it directly from the callback receiving the responses instead of
+    * blocking a thread until they are received.
+    *
+    * @return a future completed with the responses from each member contacted.
+    * @throws Exception in the event of problems sending the command.
+    */
+   NotifyingFuture<Map<Address, Response>> invokeRemotelyAsync(Collection<Address> recipients,
+                                                              ReplicableCommand rpcCommand, ResponseMode mode,
+                                                              long timeout, ResponseFilter responseFilter,
+                                                              DeliverOrder deliverOrder, boolean anycast) throws Exception;
+
    BackupResponse backupRemotely(Collection<XSiteBackup> backups, XSiteReplicateCommand rpcCommand) throws Exception;
 
    /**
@@ -4,6 +4,7 @@
 import org.infinispan.commands.FlagAffectedCommand;
 import org.infinispan.commands.ReplicableCommand;
 import org.infinispan.commons.CacheException;
+import org.infinispan.commons.util.concurrent.CompletableNotifyingFuture;
 import org.infinispan.commons.util.Util;
 import org.infinispan.context.Flag;
 import org.infinispan.factories.GlobalComponentRegistry;
@@ -35,6 +36,7 @@
 import org.jgroups.util.NotifyingFuture;
 import org.jgroups.util.Rsp;
 import org.jgroups.util.RspList;
+import org.jgroups.util.TimeScheduler;
 
 import java.io.NotSerializableException;
 import java.util.Collections;
@@ -159,6 +161,40 @@ public RspList<Object> call() throws Exception {
       }
    }
 
+   /**
+    * Same as {@link #invokeRemoteCommands(java.util.List, org.infinispan.commands.ReplicableCommand,
+    * org.jgroups.blocks.ResponseMode, long, org.jgroups.blocks.RspFilter, org.infinispan.remoting.inboundhandler.DeliverOrder,
+    * boolean, boolean)} for synchronous calls, except that it doesn't wait for the responses. The command is sent with
+    * parallel unicasts, and the returned future is completed by the listeners of the JGroups requests, or by a timeout
+    * task scheduled with the JGroups timer.
+    *
+    * @param recipients Guaranteed not to be null.  Must <b>not</b> contain self.
+    */
+   public org.infinispan.commons.util.concurrent.NotifyingFuture<RspList<Object>> invokeRemoteCommandsAsync(
+         List<Address> recipients, ReplicableCommand command, ResponseMode mode, long timeout, RspFilter filter,
+         DeliverOrder deliverOrder, boolean ignoreLeavers) throws Exception {
+      if (mode == ResponseMode.GET_NONE) {
+         throw new IllegalArgumentException("Asynchronous invocations don't have responses to wait for");
+      }
+      if (trace) log.tracef("Replication task sending %s to addresses %s with response mode %s without waiting", command, recipients, mode);
+      ResponseCollector collector = new ResponseCollector(recipients, filter, ignoreLeavers);
+      if (recipients.isEmpty()) {
+         collector.result.complete(null);
+         return collector.result;
+      }
+
+      boolean rsvp = isRsvpCommand(command);
+      Buffer buf = marshallCall(req_marshaller, command);
+      RequestOptions opts = new RequestOptions(mode, timeout);
+      opts.setExclusionList(getChannel().getAddress());
+      for (Address a : recipients) {
+         NotifyingFuture<Object> f = sendMessageWithFuture(constructMessage(buf, a, mode, rsvp, deliverOrder), opts);
+         collector.watchFuture(f, a);
+      }
+      collector.scheduleTimeout(getChannel().getProtocolStack().getTransport().getTimer(), timeout);
+      return collector.result;
+   }
+
    /**
     * @deprecated use instead {@link #invokeRemoteCommand(org.jgroups.Address, org.infinispan.commands.ReplicableCommand,
     * org.jgroups.blocks.ResponseMode, long, org.infinispan.remoting.inboundhandler.DeliverOrder, boolean)}
@@ -227,7 +263,7 @@ public RspList<Object> broadcastRemoteCommands(ReplicableCommand command, Respon
                                   ignoreLeavers);
    }
 
-   private boolean containsOnlyNulls(RspList<Object> l) {
+   private static boolean containsOnlyNulls(RspList<Object> l) {
       for (Rsp<Object> r : l.values()) {
          if (r.getValue() != null || !r.wasReceived() || r.wasSuspected()) return false;
       }
@@ -605,5 +641,131 @@ else if (e.getCause() instanceof Exception)
          }
       }
    }
-}
 
+   /**
+    * Collects the responses of the parallel unicasts sent by {@link #invokeRemoteCommandsAsync(java.util.List,
+    * org.infinispan.commands.ReplicableCommand, org.jgroups.blocks.ResponseMode, long, org.jgroups.blocks.RspFilter,
+    * org.infinispan.remoting.inboundhandler.DeliverOrder, boolean)} and completes its future. With a filter, the first
+    * acceptable response is used, like in {@link FutureCollator}; without one, all the responses are collected.
+    */
+   final static class ResponseCollector implements FutureListener<Object> {
+      final CompletableNotifyingFuture<RspList<Object>> result = new CompletableNotifyingFuture<RspList<Object>>();
+      final List<Address> recipients;
+      final RspFilter filter;
+      final boolean ignoreLeavers;
+      @GuardedBy("this")
+      final Map<Future<Object>, SenderContainer> futures;
+      @GuardedBy("this")
+      private final RspList<Object> responses = new RspList<>();
+      @GuardedBy("this")
+      private Exception exception;
+      @GuardedBy("this")
+      private int expectedResponses;
+      private volatile Future<?> timeoutTask;
+
+      ResponseCollector(List<Address> recipients, RspFilter filter, boolean ignoreLeavers) {
+         this.recipients = recipients;
+         this.filter = filter;
+         this.ignoreLeavers = ignoreLeavers;
+         this.expectedResponses = recipients.size();
+         this.futures = new HashMap<>(recipients.size());
+      }
+
+      public synchronized void watchFuture(NotifyingFuture<Object> f, Address address) {
+         futures.put(f, new SenderContainer(address));
+         f.setListener(this);
+      }
+
+      public void scheduleTimeout(TimeScheduler timer, final long timeout) {
+         if (result.isDone()) return;
+         timeoutTask = timer.schedule(new Runnable() {
+            @Override
+            public void run() {
+               String message;
+               if (filter != null) {
+                  message = format("Timed out waiting for %s for valid responses from any of %s.", prettyPrintTime(timeout), recipients);
+               } else {
+                  message = formatString("Timed out after %s waiting for a response from %s", prettyPrintTime(timeout), recipients);
+               }
+               completeExceptionally(new TimeoutException(message));
+            }
+         }, timeout, MILLISECONDS);
+         // The responses may have been received before the task was scheduled
+         if (result.isDone()) timeoutTask.cancel(false);
+      }
+
+      @Override
+      public synchronized void futureDone(Future<Object> objectFuture) {
+         SenderContainer sc = futures.get(objectFuture);
+         if (sc == null || sc.processed || result.isDone()) {
+            // JGroups' NotifyingFuture.setListener() may notify a listener twice, see FutureCollator
+            return;
+         }
+         sc.processed = true;
+         expectedResponses--;
+         Address sender = sc.address;
+         try {
+            Object response = objectFuture.get();
+            if (trace) log.tracef("Received response: %s from %s", response, sender);
+            if (filter != null) {
+               filter.isAcceptable(response, sender);
+               if (!filter.needMoreResponses()) {
+                  complete(new RspList<Object>(Collections.singleton(new Rsp<Object>(sender, response))));
+                  return;
+               }
+            } else {
+               responses.addRsp(sender, response);
+            }
+         } catch (InterruptedException e) {
+            // The future is already done, so get() can't be interrupted
+            Thread.currentThread().interrupt();
+         } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (filter != null) {
+               // Skip this response, another target may still send a valid one
+               exception = wrapThrowableInException(cause);
+               if (trace) log.tracef(cause, "Caught exception from sender %s. Will skip this response.", sender);
+            } else if (ignoreLeavers && cause instanceof SuspectedException) {
+               if (trace) log.tracef("Ignoring node %s that left during the remote call", sender);
+            } else {
+               completeExceptionally(wrapThrowableInException(cause));
+               return;
+            }
+         }
+
+         if (expectedResponses == 0) {
+            if (filter == null) {
+               complete(responses);
+            } else if (exception != null) {
+               completeExceptionally(exception);
+            } else {
+               completeExceptionally(new RpcException(format("No more valid responses.  Received invalid responses from all of %s", futures.values())));
+            }
+         }
+      }
+
+      private void complete(RspList<Object> rsps) {
+         cancelTimeout();
+         // Same as invokeRemoteCommands(), which returns null in this case
+         result.complete(rsps.isEmpty() || containsOnlyNulls(rsps) ? null : rsps);
+      }
+
+      private void completeExceptionally(Exception e) {
+         cancelTimeout();
+         Exception converted;
+         if (e instanceof SuspectedException) {
+            converted = new SuspectException("One of the nodes " + recipients + " was suspected", e);
+         } else if (e instanceof org.jgroups.TimeoutException) {
+            converted = new TimeoutException("One of the nodes " + recipients + " timed out", e);
+         } else {
+            converted = rewrapAsCacheException(e);
+         }
+         result.completeExceptionally(converted);
+      }
+
+      private void cancelTimeout() {
+         Future<?> task = timeoutTask;
+         if (task != null) task.cancel(false);
+      }
+   }
+}
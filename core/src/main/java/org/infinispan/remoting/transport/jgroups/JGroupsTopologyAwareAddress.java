@@ -24,6 +24,8 @@ public class JGroupsTopologyAwareAddress extends JGroupsAddress implements Topol
    protected static final byte[] SITE_ID    = Util.stringToBytes("site-id");
    protected static final byte[] RACK_ID    = Util.stringToBytes("rack-id");
    protected static final byte[] MACHINE_ID = Util.stringToBytes("machine-id");
+   // Advertises that the node accepts the binary marshalling format, see BinaryFormatNegotiator
+   protected static final byte[] BINARY_FORMAT = Util.stringToBytes("binary-format");
 
    private final ExtendedUUID topologyAddress;
 
@@ -10,12 +10,17 @@
 import org.infinispan.commons.util.InfinispanCollections;
 import org.infinispan.commons.util.TypedProperties;
 import org.infinispan.commons.util.Util;
+import org.infinispan.commons.util.concurrent.CompletableNotifyingFuture;
+import org.infinispan.commons.util.concurrent.FutureListener;
+import org.infinispan.commons.util.concurrent.NoOpFuture;
+import org.infinispan.commons.util.concurrent.NotifyingFuture;
 import org.infinispan.configuration.global.TransportConfiguration;
 import org.infinispan.configuration.parsing.XmlConfigHelper;
 import org.infinispan.factories.GlobalComponentRegistry;
 import org.infinispan.factories.annotations.ComponentName;
 import org.infinispan.factories.annotations.Inject;
 import org.infinispan.jmx.JmxUtil;
+import org.infinispan.marshall.core.BinaryFormatNegotiator;
 import org.infinispan.notifications.cachemanagerlistener.CacheManagerNotifier;
 import org.infinispan.remoting.inboundhandler.DeliverOrder;
 import org.infinispan.remoting.inboundhandler.InboundInvocationHandler;
@@ -42,6 +47,7 @@
 import org.jgroups.blocks.RspFilter;
 import org.jgroups.blocks.mux.Muxer;
 import org.jgroups.jmx.JmxConfigurator;
+import org.jgroups.protocols.relay.RELAY2;
 import org.jgroups.protocols.relay.SiteMaster;
 import org.jgroups.protocols.tom.TOA;
 import org.jgroups.stack.AddressGenerator;
@@ -63,6 +69,7 @@
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
 import java.util.concurrent.locks.Condition;
@@ -109,6 +116,7 @@ public class JGroupsTransport extends AbstractTransport implements MembershipLis
    protected GlobalComponentRegistry gcr;
    private TimeService timeService;
    protected InboundInvocationHandler globalHandler;
+   private BinaryFormatNegotiator binaryFormatNegotiator;
 
    private boolean globalStatsEnabled;
    private MBeanServer mbeanServer;
@@ -175,6 +183,11 @@ public void initialize(@ComponentName(GLOBAL_MARSHALLER) StreamingMarshaller mar
       this.globalHandler = globalHandler;
    }
 
+   @Inject
+   public void injectBinaryFormatNegotiator(BinaryFormatNegotiator binaryFormatNegotiator) {
+      this.binaryFormatNegotiator = binaryFormatNegotiator;
+   }
+
    @Override
    public void start() {
       props = TypedProperties.toTypedProperties(configuration.transport().properties());
@@ -317,16 +330,31 @@ protected void initChannel() {
       //       that when it is false, it discard our own messages, maintaining the property needed
       channel.setDiscardOwnMessages(false);
 
+      // The binary format is advertised in the address, but the nodes of the other sites don't see it
+      final boolean advertiseBinaryFormat = binaryFormatNegotiator != null && binaryFormatNegotiator.isEnabled()
+            && connectChannel && channel.getProtocolStack().findProtocol(RELAY2.class) == null;
+      if (binaryFormatNegotiator != null && binaryFormatNegotiator.isEnabled() && !advertiseBinaryFormat)
+         log.debug("Not using the binary marshalling format with cross-site replication or an external channel");
+
       // if we have a TopologyAwareConsistentHash, we need to set our own address generator in JGroups
-      if (transportCfg.hasTopologyInfo()) {
+      if (transportCfg.hasTopologyInfo() || advertiseBinaryFormat) {
          // We can do this only if the channel hasn't been started already
          if (connectChannel) {
             ((JChannel) channel).setAddressGenerator(new AddressGenerator() {
                @Override
                public org.jgroups.Address generateAddress() {
-                  return TopologyUUID.randomUUID(channel.getName(),
-                        transportCfg.siteId(), transportCfg.rackId(),
-                        transportCfg.machineId());
+                  ExtendedUUID address;
+                  if (transportCfg.hasTopologyInfo()) {
+                     address = TopologyUUID.randomUUID(channel.getName(),
+                           transportCfg.siteId(), transportCfg.rackId(),
+                           transportCfg.machineId());
+                  } else {
+                     address = ExtendedUUID.randomUUID(channel.getName());
+                  }
+                  if (advertiseBinaryFormat) {
+                     address.put(JGroupsTopologyAwareAddress.BINARY_FORMAT, new byte[]{1});
+                  }
+                  return address;
                }
             });
          } else {
@@ -583,19 +611,92 @@ public Map<Address, Response> invokeRemotely(Collection<Address> recipients, Rep
             responses = Collections.singletonMap(fromJGroupsAddress(singleJGAddress), singleResponse);
          }
       } else {
-         Map<Address, Response> retval = new HashMap<>(rsps.size());
+         responses = toResponseMap(rsps, responseFilter != null, ignoreLeavers);
+      }
+      return responses;
+   }
 
-         boolean noValidResponses = true;
-         for (Rsp<Object> rsp : rsps.values()) {
-            noValidResponses &= parseResponseAndAddToResponseList(rsp.getValue(), rsp.getException(), retval, rsp.wasSuspected(), rsp.wasReceived(), fromJGroupsAddress(rsp.getSender()),
-                                                                  responseFilter != null, ignoreLeavers);
+   @Override
+   public NotifyingFuture<Map<Address, Response>> invokeRemotelyAsync(final Collection<Address> recipients,
+                                                                     final ReplicableCommand rpcCommand,
+                                                                     final ResponseMode mode, final long timeout,
+                                                                     final ResponseFilter responseFilter,
+                                                                     final DeliverOrder deliverOrder,
+                                                                     final boolean anycast) throws Exception {
+      if (mode.isAsynchronous()) {
+         // Nothing to wait for
+         return new NoOpFuture<>(invokeRemotely(recipients, rpcCommand, mode, timeout, responseFilter, deliverOrder,
+                                                anycast));
+      }
+      final CompletableNotifyingFuture<Map<Address, Response>> result = new CompletableNotifyingFuture<>();
+      if (recipients == null || deliverOrder == DeliverOrder.TOTAL) {
+         // Broadcasts and total order casts can only wait for the responses in the invoking thread
+         asyncExecutor.submit(new Runnable() {
+            @Override
+            public void run() {
+               try {
+                  result.complete(invokeRemotely(recipients, rpcCommand, mode, timeout, responseFilter, deliverOrder,
+                                                 anycast));
+               } catch (Throwable t) {
+                  result.completeExceptionally(t);
+               }
+            }
+         });
+         return result;
+      }
+
+      if (trace)
+         log.tracef("dests=%s, command=%s, mode=%s, timeout=%s, without waiting", recipients, rpcCommand, mode, timeout);
+      final boolean ignoreLeavers = mode == ResponseMode.SYNCHRONOUS_IGNORE_LEAVERS || mode == ResponseMode.WAIT_FOR_VALID_RESPONSE;
+      Collection<Address> targets = recipients;
+      if (!getMembers().containsAll(targets)) {
+         if (ignoreLeavers) {
+            targets = new HashSet<>(targets);
+            targets.retainAll(getMembers());
+         } else {
+            throw new SuspectException("One or more nodes have left the cluster while replicating command " + rpcCommand);
          }
+      }
+      List<org.jgroups.Address> jgAddressList = toJGroupsAddressListExcludingSelf(targets, false);
+      if (jgAddressList.isEmpty()) {
+         log.trace("Destination list is empty: no need to send message");
+         result.complete(InfinispanCollections.<Address, Response>emptyMap());
+         return result;
+      }
+
+      dispatcher.invokeRemoteCommandsAsync(jgAddressList, rpcCommand, toJGroupsMode(mode), timeout,
+                                           toJGroupsFilter(responseFilter), deliverOrder, ignoreLeavers)
+            .attachListener(new FutureListener<RspList<Object>>() {
+               @Override
+               public void futureDone(Future<RspList<Object>> future) {
+                  try {
+                     RspList<Object> rsps = future.get();
+                     if (trace) log.tracef("Responses to %s: %s", rpcCommand, rsps);
+                     result.complete(rsps == null ? InfinispanCollections.<Address, Response>emptyMap() :
+                                           toResponseMap(rsps, responseFilter != null, ignoreLeavers));
+                  } catch (ExecutionException e) {
+                     result.completeExceptionally(e.getCause());
+                  } catch (Throwable t) {
+                     result.completeExceptionally(t);
+                  }
+               }
+            });
+      return result;
+   }
+
+   private Map<Address, Response> toResponseMap(RspList<Object> rsps, boolean usedResponseFilter,
+                                                boolean ignoreLeavers) throws Exception {
+      Map<Address, Response> retval = new HashMap<>(rsps.size());
 
-         if (noValidResponses)
-            throw new TimeoutException("Timed out waiting for valid responses!");
-         responses = retval;
+      boolean noValidResponses = true;
+      for (Rsp<Object> rsp : rsps.values()) {
+         noValidResponses &= parseResponseAndAddToResponseList(rsp.getValue(), rsp.getException(), retval, rsp.wasSuspected(), rsp.wasReceived(), fromJGroupsAddress(rsp.getSender()),
+                                                               usedResponseFilter, ignoreLeavers);
       }
-      return responses;
+
+      if (noValidResponses)
+         throw new TimeoutException("Timed out waiting for valid responses!");
+      return retval;
    }
 
    @Override
@@ -685,6 +786,11 @@ public void viewAccepted(View newView) {
       try {
          viewId = (int) newView.getViewId().getId();
 
+         // Decide the format before the new members are visible, so they never receive a format they can't read
+         if (binaryFormatNegotiator != null) {
+            binaryFormatNegotiator.membersChanged(allMembersAdvertiseBinaryFormat(newMembers));
+         }
+
          // we need a defensive copy anyway
          members = fromJGroupsAddressList(newMembers);
 
@@ -725,6 +831,15 @@ public void viewAccepted(View newView) {
       }
    }
 
+   private static boolean allMembersAdvertiseBinaryFormat(List<org.jgroups.Address> members) {
+      for (org.jgroups.Address member : members) {
+         if (!(member instanceof ExtendedUUID)
+               || ((ExtendedUUID) member).get(JGroupsTopologyAwareAddress.BINARY_FORMAT) == null)
+            return false;
+      }
+      return true;
+   }
+
    @Override
    public void suspect(org.jgroups.Address suspected_mbr) {
       // no-op
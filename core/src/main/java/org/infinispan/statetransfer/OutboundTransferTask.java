@@ -2,16 +2,20 @@
 
 import org.infinispan.commands.CommandsFactory;
 import org.infinispan.commons.CacheException;
+import org.infinispan.commons.util.concurrent.FutureListener;
+import org.infinispan.commons.util.concurrent.NotifyingFuture;
 import org.infinispan.commons.util.CollectionFactory;
 import org.infinispan.commons.util.InfinispanCollections;
 import org.infinispan.container.DataContainer;
 import org.infinispan.container.InternalEntryFactory;
+import org.infinispan.container.SegmentedDataContainer;
 import org.infinispan.container.entries.InternalCacheEntry;
 import org.infinispan.distribution.ch.ConsistentHash;
 import org.infinispan.filter.CollectionKeyFilter;
 import org.infinispan.persistence.manager.PersistenceManager;
 import org.infinispan.persistence.spi.AdvancedCacheLoader;
 import org.infinispan.marshall.core.MarshalledEntry;
+import org.infinispan.remoting.responses.Response;
 import org.infinispan.remoting.rpc.ResponseMode;
 import org.infinispan.remoting.rpc.RpcManager;
 import org.infinispan.remoting.rpc.RpcOptions;
@@ -23,15 +27,24 @@
 import org.infinispan.util.logging.LogFactory;
 
 import java.util.*;
+import java.util.concurrent.CancellationException;
 import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 import java.util.concurrent.FutureTask;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
 
 /**
  * Outbound state transfer task. Pushes data segments to another cluster member on request. Instances of
  * OutboundTransferTask are created and managed by StateTransferManagerImpl. There should be at most
  * one such task per destination at any time.
+ * <p/>
+ * If {@code maxInFlightChunks} is greater than 1, the chunks are streamed: they are sent without waiting for the
+ * destination to apply the previous ones, as long as fewer than {@code maxInFlightChunks} of them are waiting to be
+ * acknowledged. The last chunks are only sent after all the others have been acknowledged, because the destination
+ * considers a segment complete as soon as it receives its last chunk.
  *
  * @author anistor@redhat.com
  * @since 5.2
@@ -52,6 +65,15 @@ public class OutboundTransferTask implements Runnable {
 
    private final int stateTransferChunkSize;
 
+   private final int maxInFlightChunks;
+
+   /**
+    * One permit for each chunk that can be sent before the destination acknowledges the previous ones.
+    */
+   private final Semaphore credits;
+
+   private final StateTransferProgress progress;
+
    private final ConsistentHash readCh;
 
    private final DataContainer<Object, Object> dataContainer;
@@ -82,10 +104,11 @@ public class OutboundTransferTask implements Runnable {
 
    private InternalEntryFactory entryFactory;
 
-   public OutboundTransferTask(Address destination, Set<Integer> segments, int stateTransferChunkSize,
+   public OutboundTransferTask(Address destination, Set<Integer> segments, int stateTransferChunkSize, int maxInFlightChunks,
                                int topologyId, ConsistentHash readCh, StateProviderImpl stateProvider, DataContainer dataContainer,
                                PersistenceManager persistenceManager, RpcManager rpcManager,
-                               CommandsFactory commandsFactory, InternalEntryFactory ef, long timeout, String cacheName) {
+                               CommandsFactory commandsFactory, InternalEntryFactory ef, long timeout, String cacheName,
+                               StateTransferProgress progress) {
       if (segments == null || segments.isEmpty()) {
          throw new IllegalArgumentException("Segments must not be null or empty");
       }
@@ -95,10 +118,16 @@ public OutboundTransferTask(Address destination, Set<Integer> segments, int stat
       if (stateTransferChunkSize <= 0) {
          throw new IllegalArgumentException("stateTransferChunkSize must be greater than 0");
       }
+      if (maxInFlightChunks <= 0) {
+         throw new IllegalArgumentException("maxInFlightChunks must be greater than 0");
+      }
       this.stateProvider = stateProvider;
       this.destination = destination;
       this.segments.addAll(segments);
       this.stateTransferChunkSize = stateTransferChunkSize;
+      this.maxInFlightChunks = maxInFlightChunks;
+      this.credits = new Semaphore(maxInFlightChunks);
+      this.progress = progress;
       this.topologyId = topologyId;
       this.readCh = readCh;
       this.dataContainer = dataContainer;
@@ -142,7 +171,7 @@ public int getTopologyId() {
    public void run() {
       try {
          // send data container entries
-         for (InternalCacheEntry ice : dataContainer) {
+         for (InternalCacheEntry ice : SegmentedDataContainer.entriesInSegments(dataContainer, readCh, segments)) {
             Object key = ice.getKey();  //todo [anistor] should we check for expired entries?
             int segmentId = readCh.getSegment(key);
             if (segments.contains(segmentId)) {
@@ -189,7 +218,7 @@ public void processEntry(MarshalledEntry me, AdvancedCacheLoader.TaskContext tas
       }
    }
 
-   private void sendEntry(InternalCacheEntry ice, int segmentId) {
+   private void sendEntry(InternalCacheEntry ice, int segmentId) throws InterruptedException {
       // send if we have a full chunk
       if (accumulatedEntries >= stateTransferChunkSize) {
          sendEntries(false);
@@ -205,7 +234,7 @@ private void sendEntry(InternalCacheEntry ice, int segmentId) {
       accumulatedEntries++;
    }
 
-   private void sendEntries(boolean isLast) {
+   private void sendEntries(boolean isLast) throws InterruptedException {
       List<StateChunk> chunks = new ArrayList<StateChunk>();
       for (Map.Entry<Integer, List<InternalCacheEntry>> e : entriesBySegment.entrySet()) {
          List<InternalCacheEntry> entries = e.getValue();
@@ -234,22 +263,70 @@ private void sendEntries(boolean isLast) {
          }
 
          StateResponseCommand cmd = commandsFactory.buildStateResponseCommand(rpcManager.getAddress(), topologyId, chunks);
-         // send synchronously, in order. it is important that the last chunk is received last in order to correctly detect completion of the stream of chunks
+         if (maxInFlightChunks > 1 && !isLast) {
+            sendEntriesAsync(cmd, chunks);
+            return;
+         }
+         // it is important that the last chunk is received last in order to correctly detect completion of the stream of chunks
+         credits.acquire(maxInFlightChunks);
          try {
             rpcManager.invokeRemotely(Collections.singleton(destination), cmd, rpcOptions);
-         } catch (SuspectException e) {
-            log.debugf(e, "Node %s left cache %s while we were sending state to it: %s", destination, cacheName, e.getMessage());
-            cancel();
+            chunksSent(chunks);
          } catch (Exception e) {
-            if (isCancelled()) {
-               log.debugf("Stopping cancelled transfer of segments %s of cache %s to node %s", segments, cacheName, destination);
-            } else {
-               log.errorf(e, "Failed to send entries to node %s : %s", destination, e.getMessage());
+            handleSendFailure(e);
+         } finally {
+            credits.release(maxInFlightChunks);
+         }
+      }
+   }
+
+   private void sendEntriesAsync(StateResponseCommand cmd, final List<StateChunk> chunks) throws InterruptedException {
+      credits.acquire();
+      boolean sent = false;
+      try {
+         NotifyingFuture<Map<Address, Response>> future = rpcManager.invokeRemotelyAsync(Collections.singleton(destination), cmd, rpcOptions);
+         future.attachListener(new FutureListener<Map<Address, Response>>() {
+            @Override
+            public void futureDone(Future<Map<Address, Response>> future) {
+               try {
+                  future.get();
+                  chunksSent(chunks);
+               } catch (InterruptedException e) {
+                  Thread.currentThread().interrupt();
+               } catch (ExecutionException e) {
+                  handleSendFailure(e.getCause());
+               } catch (CancellationException e) {
+                  handleSendFailure(e);
+               } finally {
+                  credits.release();
+               }
             }
+         });
+         sent = true;
+      } finally {
+         if (!sent) {
+            credits.release();
          }
       }
    }
 
+   private void chunksSent(List<StateChunk> chunks) {
+      for (StateChunk chunk : chunks) {
+         progress.chunkTransferred(chunk.getSegmentId(), chunk.getCacheEntries().size(), chunk.isLastChunk());
+      }
+   }
+
+   private void handleSendFailure(Throwable t) {
+      if (t instanceof SuspectException) {
+         log.debugf(t, "Node %s left cache %s while we were sending state to it: %s", destination, cacheName, t.getMessage());
+         cancel();
+      } else if (isCancelled()) {
+         log.debugf("Stopping cancelled transfer of segments %s of cache %s to node %s", segments, cacheName, destination);
+      } else {
+         log.errorf(t, "Failed to send entries to node %s : %s", destination, t.getMessage());
+      }
+   }
+
    /**
     * Cancel some of the segments. If all segments get cancelled then the whole task will be cancelled.
     *
@@ -289,6 +366,7 @@ public String toString() {
             ", destination=" + destination +
             ", segments=" + segments +
             ", stateTransferChunkSize=" + stateTransferChunkSize +
+            ", maxInFlightChunks=" + maxInFlightChunks +
             ", timeout=" + timeout +
             ", cacheName='" + cacheName + '\'' +
             '}';
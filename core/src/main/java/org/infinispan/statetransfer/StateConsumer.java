@@ -49,4 +49,9 @@ public interface StateConsumer {
     * @return  true if this node has already received the first rebalance command
     */
    boolean ownsData();
+
+   /**
+    * @return the cache entries received for each segment since the start of the last rebalance
+    */
+   StateTransferProgress getInboundProgress();
 }
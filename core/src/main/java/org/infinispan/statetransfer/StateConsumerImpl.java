@@ -10,8 +10,11 @@
 import org.infinispan.commons.util.InfinispanCollections;
 import org.infinispan.commons.util.concurrent.ParallelIterableMap;
 import org.infinispan.configuration.cache.Configuration;
+import org.infinispan.configuration.cache.StoreConfiguration;
 import org.infinispan.container.DataContainer;
+import org.infinispan.container.SegmentedDataContainer;
 import org.infinispan.container.entries.InternalCacheEntry;
+import org.infinispan.container.entries.ReadCommittedEntry;
 import org.infinispan.context.Flag;
 import org.infinispan.context.InvocationContext;
 import org.infinispan.context.InvocationContextFactory;
@@ -45,6 +48,7 @@
 import org.infinispan.transaction.totalorder.TotalOrderManager;
 import org.infinispan.transaction.xa.CacheTransaction;
 import org.infinispan.transaction.xa.GlobalTransaction;
+import org.infinispan.util.TimeService;
 import org.infinispan.util.concurrent.BlockingTaskAwareExecutorService;
 import org.infinispan.util.concurrent.ConcurrentHashSet;
 import org.infinispan.util.logging.Log;
@@ -103,6 +107,14 @@ public class StateConsumerImpl implements StateConsumer {
    private volatile KeyInvalidationListener keyInvalidationListener; //for test purpose only!
    private CommitManager commitManager;
    private ExecutorService executorService;
+   private StateTransferProgress inboundProgress;
+
+   /**
+    * Whether the received state can be committed directly to the data container when nobody listens to the cache
+    * events. Only enabled in streaming mode, and only if applying the state with a {@link PutKeyValueCommand} would not
+    * update anything else (stores, indexes, transactions or custom interceptors).
+    */
+   private boolean applyStateDirectly;
 
    private volatile CacheTopology cacheTopology;
 
@@ -179,7 +191,7 @@ public void init(Cache cache,
                     CacheNotifier cacheNotifier,
                     TotalOrderManager totalOrderManager,
                     @ComponentName(KnownComponentNames.REMOTE_COMMAND_EXECUTOR) BlockingTaskAwareExecutorService remoteCommandsExecutor,
-                    L1Manager l1Manager, CommitManager commitManager) {
+                    L1Manager l1Manager, CommitManager commitManager, TimeService timeService) {
       this.cache = cache;
       this.cacheName = cache.getName();
       this.executorService = executorService;
@@ -199,6 +211,7 @@ public void init(Cache cache,
       this.remoteCommandsExecutor = remoteCommandsExecutor;
       this.l1Manager = l1Manager;
       this.commitManager = commitManager;
+      this.inboundProgress = new StateTransferProgress(timeService);
 
       isInvalidationMode = configuration.clustering().cacheMode().isInvalidation();
 
@@ -243,6 +256,11 @@ public boolean ownsData() {
       return ownsData;
    }
 
+   @Override
+   public StateTransferProgress getInboundProgress() {
+      return inboundProgress;
+   }
+
    @Override
    public void onTopologyUpdate(final CacheTopology cacheTopology, final boolean isRebalance) {
       final boolean isMember = cacheTopology.getMembers().contains(rpcManager.getAddress());
@@ -258,7 +276,9 @@ public void onTopologyUpdate(final CacheTopology cacheTopology, final boolean is
       if (isRebalance) {
          // Only update the rebalance topology id when starting the rebalance, as we're going to ignore any state
          // response with a smaller topology id
-         stateTransferTopologyId.compareAndSet(NO_REBALANCE_IN_PROGRESS, cacheTopology.getTopologyId());
+         if (stateTransferTopologyId.compareAndSet(NO_REBALANCE_IN_PROGRESS, cacheTopology.getTopologyId())) {
+            inboundProgress.reset();
+         }
          cacheNotifier.notifyDataRehashed(cacheTopology.getCurrentCH(), cacheTopology.getPendingCH(),
                                           cacheTopology.getUnionCH(), cacheTopology.getTopologyId(), true);
       }
@@ -507,9 +527,12 @@ private void applyChunk(Address sender, Set<Integer> mySegments, StateChunk stat
          inboundTransfer = transfersBySegment.get(stateChunk.getSegmentId());
       }
       if (inboundTransfer != null) {
+         int chunkEntries = 0;
          if (stateChunk.getCacheEntries() != null) {
             doApplyState(sender, stateChunk.getSegmentId(), stateChunk.getCacheEntries());
+            chunkEntries = stateChunk.getCacheEntries().size();
          }
+         inboundProgress.chunkTransferred(stateChunk.getSegmentId(), chunkEntries, stateChunk.isLastChunk());
 
          inboundTransfer.onStateReceived(stateChunk.getSegmentId(), stateChunk.isLastChunk());
       } else {
@@ -527,6 +550,23 @@ private void doApplyState(Address sender, int segmentId, Collection<InternalCach
          log.tracef("Received chunk with keys %s for segment %d of cache %s from node %s", keys, segmentId, cacheName, sender);
       }
 
+      if (applyStateDirectly && cacheNotifier.getListeners().isEmpty()) {
+         for (InternalCacheEntry e : cacheEntries) {
+            try {
+               // the commit manager discards the entry if a command has already updated the key
+               ReadCommittedEntry entry = new ReadCommittedEntry(e.getKey(), e.getValue(), e.getMetadata());
+               entry.setChanged(true);
+               commitManager.commit(entry, e.getMetadata(), PUT_FOR_STATE_TRANSFER, false);
+            } catch (Exception ex) {
+               log.problemApplyingStateForKey(ex.getMessage(), e.getKey(), ex);
+            }
+         }
+         if (trace) {
+            log.tracef("Finished applying chunk of segment %d of cache %s directly to the data container", segmentId, cacheName);
+         }
+         return;
+      }
+
       // CACHE_MODE_LOCAL avoids handling by StateTransferInterceptor and any potential locks in StateTransferLock
       EnumSet<Flag> flags = EnumSet.of(PUT_FOR_STATE_TRANSFER, CACHE_MODE_LOCAL, IGNORE_RETURN_VALUES, SKIP_REMOTE_LOOKUP, SKIP_SHARED_CACHE_STORE, SKIP_OWNERSHIP_CHECK, SKIP_XSITE_BACKUP);
       for (InternalCacheEntry e : cacheEntries) {
@@ -603,6 +643,18 @@ public void start() {
       //rpc options does not changes in runtime. we can use always the same instance.
       rpcOptions = rpcManager.getRpcOptionsBuilder(ResponseMode.SYNCHRONOUS)
             .timeout(timeout, TimeUnit.MILLISECONDS).build();
+      applyStateDirectly = configuration.clustering().stateTransfer().maxInFlightChunks() > 1 && !isTransactional
+            && !configuration.indexing().index().isEnabled() && configuration.customInterceptors().interceptors().isEmpty()
+            && !hasPrivateStores();
+   }
+
+   private boolean hasPrivateStores() {
+      for (StoreConfiguration store : configuration.persistence().stores()) {
+         if (!store.shared()) {
+            return true;
+         }
+      }
+      return false;
    }
 
    @Stop(priority = 20)
@@ -912,16 +964,24 @@ private void removeStaleData(final Set<Integer> removedSegments) throws Interrup
       // Keys that we used to own, and need to be removed from the data container AND the cache stores
       final ConcurrentHashSet<Object> keysToRemove = new ConcurrentHashSet<Object>();
 
-      dataContainer.executeTask(KeyFilter.ACCEPT_ALL_FILTER, new ParallelIterableMap.KeyValueAction<Object, InternalCacheEntry<Object, Object>>() {
-         @Override
-         public void apply(Object o, InternalCacheEntry<Object, Object> ice) {
-            Object key = ice.getKey();
-            int keySegment = getSegment(key);
-            if (removedSegments.contains(keySegment)) {
-               keysToRemove.add(key);
-            }
+      final boolean segmentedContainer = isSegmentedDataContainer();
+      if (segmentedContainer) {
+         // only the entries of the removed segments need to be visited
+         for (Iterator<InternalCacheEntry<Object, Object>> it = ((SegmentedDataContainer<Object, Object>) dataContainer).iterator(removedSegments); it.hasNext(); ) {
+            keysToRemove.add(it.next().getKey());
          }
-      });
+      } else {
+         dataContainer.executeTask(KeyFilter.ACCEPT_ALL_FILTER, new ParallelIterableMap.KeyValueAction<Object, InternalCacheEntry<Object, Object>>() {
+            @Override
+            public void apply(Object o, InternalCacheEntry<Object, Object> ice) {
+               Object key = ice.getKey();
+               int keySegment = getSegment(key);
+               if (removedSegments.contains(keySegment)) {
+                  keysToRemove.add(key);
+               }
+            }
+         });
+      }
 
       // gather all keys from cache store that belong to the segments that are being removed/moved to L1
       if (!removedSegments.isEmpty()) {
@@ -957,8 +1017,18 @@ public void processEntry(MarshalledEntry marshalledEntry, AdvancedCacheLoader.Ta
             if (trace) log.tracef("Removed keys: %s", keysToRemove);
          } catch (CacheException e) {
             log.failedToInvalidateKeys(e);
+            return;
          }
       }
+      if (segmentedContainer) {
+         // drop the entries written to the removed segments since they were collected
+         ((SegmentedDataContainer) dataContainer).removeSegments(removedSegments);
+      }
+   }
+
+   private boolean isSegmentedDataContainer() {
+      return dataContainer instanceof SegmentedDataContainer
+            && ((SegmentedDataContainer) dataContainer).getNumSegments() == cacheTopology.getReadConsistentHash().getNumSegments();
    }
 
    /**
@@ -63,6 +63,11 @@ public interface StateProvider {
     */
    void cancelOutboundTransfer(Address destination, int topologyId, Set<Integer> segments);
 
+   /**
+    * @return the cache entries sent for each segment since the start of the last rebalance
+    */
+   StateTransferProgress getOutboundProgress();
+
    void start();
 
    /**
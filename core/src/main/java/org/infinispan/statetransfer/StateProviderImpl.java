@@ -21,6 +21,7 @@
 import org.infinispan.transaction.impl.LocalTransaction;
 import org.infinispan.transaction.impl.TransactionTable;
 import org.infinispan.transaction.xa.CacheTransaction;
+import org.infinispan.util.TimeService;
 import org.infinispan.util.logging.Log;
 import org.infinispan.util.logging.LogFactory;
 
@@ -55,6 +56,8 @@ public class StateProviderImpl implements StateProvider {
    private InternalEntryFactory entryFactory;
    private long timeout;
    private int chunkSize;
+   private int maxInFlightChunks;
+   private StateTransferProgress outboundProgress;
 
    private StateConsumer stateConsumer;
 
@@ -78,7 +81,7 @@ public void init(Cache cache,
                     DataContainer dataContainer,
                     TransactionTable transactionTable,
                     StateTransferLock stateTransferLock,
-                    StateConsumer stateConsumer, InternalEntryFactory entryFactory) {
+                    StateConsumer stateConsumer, InternalEntryFactory entryFactory, TimeService timeService) {
       this.cacheName = cache.getName();
       this.executorService = executorService;
       this.configuration = configuration;
@@ -95,6 +98,8 @@ public void init(Cache cache,
       timeout = configuration.clustering().stateTransfer().timeout();
 
       this.chunkSize = configuration.clustering().stateTransfer().chunkSize();
+      this.maxInFlightChunks = configuration.clustering().stateTransfer().maxInFlightChunks();
+      this.outboundProgress = new StateTransferProgress(timeService);
    }
 
    public boolean isStateTransferInProgress() {
@@ -108,6 +113,9 @@ public void onTopologyUpdate(CacheTopology cacheTopology, boolean isRebalance) {
       // If the rebalance was cancelled, stop every outbound transfer. This will prevent "leaking" transfers
       // from one rebalance to the next.
       boolean stateTransferInProgress = cacheTopology.getPendingCH() != null;
+      if (isRebalance) {
+         outboundProgress.reset();
+      }
       Set<Address> members = new HashSet<Address>(cacheTopology.getWriteConsistentHash().getMembers());
       synchronized (transfersByDestination) {
          for (Iterator<Address> it = transfersByDestination.keySet().iterator(); it.hasNext(); ) {
@@ -271,8 +279,9 @@ public void startOutboundTransfer(Address destination, int requestTopologyId, Se
       final CacheTopology cacheTopology = getCacheTopology(requestTopologyId, destination, false);
 
       // the destination node must already have an InboundTransferTask waiting for these segments
-      OutboundTransferTask outboundTransfer = new OutboundTransferTask(destination, segments, chunkSize, requestTopologyId,
-            cacheTopology.getReadConsistentHash(), this, dataContainer, persistenceManager, rpcManager, commandsFactory, entryFactory, timeout, cacheName);
+      OutboundTransferTask outboundTransfer = new OutboundTransferTask(destination, segments, chunkSize, maxInFlightChunks,
+            requestTopologyId, cacheTopology.getReadConsistentHash(), this, dataContainer, persistenceManager, rpcManager,
+            commandsFactory, entryFactory, timeout, cacheName, outboundProgress);
       addTransfer(outboundTransfer);
       outboundTransfer.execute(executorService);
    }
@@ -323,6 +332,11 @@ private void removeTransfer(OutboundTransferTask transferTask) {
       }
    }
 
+   @Override
+   public StateTransferProgress getOutboundProgress() {
+      return outboundProgress;
+   }
+
    void onTaskCompletion(OutboundTransferTask transferTask) {
       if (trace) {
          log.tracef("Removing %s outbound transfer of segments %s to %s for cache %s",
@@ -27,6 +27,7 @@
 import org.infinispan.context.impl.TxInvocationContext;
 import org.infinispan.factories.annotations.Inject;
 import org.infinispan.interceptors.base.BaseStateTransferInterceptor;
+import org.infinispan.interceptors.base.InvocationStageAware;
 import org.infinispan.remoting.RemoteException;
 import org.infinispan.remoting.responses.Response;
 import org.infinispan.remoting.responses.SuccessfulResponse;
@@ -62,7 +63,7 @@
  * @author anistor@redhat.com
  * @since 5.2
  */
-public class StateTransferInterceptor extends BaseStateTransferInterceptor {
+public class StateTransferInterceptor extends BaseStateTransferInterceptor implements InvocationStageAware {
 
    private static final Log log = LogFactory.getLog(StateTransferInterceptor.class);
    private static boolean trace = log.isTraceEnabled();
@@ -16,6 +16,10 @@
 import org.infinispan.factories.annotations.Inject;
 import org.infinispan.factories.annotations.Start;
 import org.infinispan.factories.annotations.Stop;
+import org.infinispan.jmx.annotations.DataType;
+import org.infinispan.jmx.annotations.MBean;
+import org.infinispan.jmx.annotations.ManagedAttribute;
+import org.infinispan.jmx.annotations.MeasurementType;
 import org.infinispan.notifications.cachelistener.CacheNotifier;
 import org.infinispan.partitionhandling.impl.PartitionHandlingManager;
 import org.infinispan.remoting.inboundhandler.DeliverOrder;
@@ -42,6 +46,7 @@
  * @author anistor@redhat.com
  * @since 5.2
  */
+@MBean(objectName = "StateTransferManager", description = "Component that handles state transfer")
 public class StateTransferManagerImpl implements StateTransferManager {
 
    private static final Log log = LogFactory.getLog(StateTransferManagerImpl.class);
@@ -240,11 +245,52 @@ public boolean isJoinComplete() {
       return stateConsumer.getCacheTopology() != null; // TODO [anistor] this does not mean we have received a topology update or a rebalance yet
    }
 
+   @ManagedAttribute(description = "Checks whether there is a pending inbound state transfer on this cluster member.", displayName = "Is state transfer in progress?", dataType = DataType.TRAIT)
    @Override
    public boolean isStateTransferInProgress() {
       return stateConsumer.isStateTransferInProgress();
    }
 
+   @ManagedAttribute(description = "Number of cache entries received since the start of the last rebalance, by segment. Completed segments are marked with *.", displayName = "Inbound segment progress")
+   public String getInboundSegmentProgress() {
+      return stateConsumer.getInboundProgress().getSegmentProgress();
+   }
+
+   @ManagedAttribute(description = "Number of cache entries received since the start of the last rebalance", displayName = "Inbound entries", measurementType = MeasurementType.TRENDSUP)
+   public long getInboundEntries() {
+      return stateConsumer.getInboundProgress().getEntries();
+   }
+
+   @ManagedAttribute(description = "Number of segments received since the start of the last rebalance", displayName = "Inbound completed segments", measurementType = MeasurementType.TRENDSUP)
+   public int getInboundCompletedSegments() {
+      return stateConsumer.getInboundProgress().getCompletedSegments();
+   }
+
+   @ManagedAttribute(description = "Average number of cache entries received per second since the start of the last rebalance", displayName = "Inbound throughput")
+   public long getInboundThroughput() {
+      return stateConsumer.getInboundProgress().getThroughput();
+   }
+
+   @ManagedAttribute(description = "Number of cache entries sent since the start of the last rebalance, by segment. Completed segments are marked with *.", displayName = "Outbound segment progress")
+   public String getOutboundSegmentProgress() {
+      return stateProvider.getOutboundProgress().getSegmentProgress();
+   }
+
+   @ManagedAttribute(description = "Number of cache entries sent since the start of the last rebalance", displayName = "Outbound entries", measurementType = MeasurementType.TRENDSUP)
+   public long getOutboundEntries() {
+      return stateProvider.getOutboundProgress().getEntries();
+   }
+
+   @ManagedAttribute(description = "Number of segments sent since the start of the last rebalance", displayName = "Outbound completed segments", measurementType = MeasurementType.TRENDSUP)
+   public int getOutboundCompletedSegments() {
+      return stateProvider.getOutboundProgress().getCompletedSegments();
+   }
+
+   @ManagedAttribute(description = "Average number of cache entries sent per second since the start of the last rebalance", displayName = "Outbound throughput")
+   public long getOutboundThroughput() {
+      return stateProvider.getOutboundProgress().getThroughput();
+   }
+
    @Override
    public boolean isStateTransferInProgressForKey(Object key) {
       return stateConsumer.isStateTransferInProgressForKey(key);
@@ -0,0 +1,126 @@
+package org.infinispan.statetransfer;
+
+import org.infinispan.commons.util.CollectionFactory;
+import org.infinispan.util.TimeService;
+
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps track of the cache entries transferred for each segment since the start of the current rebalance, in one
+ * direction (inbound or outbound).
+ *
+ * @since 7.2
+ */
+public class StateTransferProgress {
+
+   private final TimeService timeService;
+   private final ConcurrentMap<Integer, AtomicLong> entriesBySegment = CollectionFactory.makeConcurrentMap();
+   private final ConcurrentMap<Integer, Boolean> completedSegments = CollectionFactory.makeConcurrentMap();
+   private final AtomicLong entries = new AtomicLong();
+   private final AtomicLong chunks = new AtomicLong();
+   private volatile long startTime;
+
+   public StateTransferProgress(TimeService timeService) {
+      this.timeService = timeService;
+      this.startTime = timeService.time();
+   }
+
+   /**
+    * Forgets the progress of the previous rebalance.
+    */
+   public void reset() {
+      entriesBySegment.clear();
+      completedSegments.clear();
+      entries.set(0);
+      chunks.set(0);
+      startTime = timeService.time();
+   }
+
+   public void chunkTransferred(int segmentId, int chunkEntries, boolean isLastChunk) {
+      AtomicLong segmentEntries = entriesBySegment.get(segmentId);
+      if (segmentEntries == null) {
+         AtomicLong existing = entriesBySegment.putIfAbsent(segmentId, segmentEntries = new AtomicLong());
+         if (existing != null) {
+            segmentEntries = existing;
+         }
+      }
+      segmentEntries.addAndGet(chunkEntries);
+      entries.addAndGet(chunkEntries);
+      chunks.incrementAndGet();
+      if (isLastChunk) {
+         completedSegments.put(segmentId, Boolean.TRUE);
+      }
+   }
+
+   /**
+    * Marks the segment as completed, when it is not known which of its chunks is the last one.
+    */
+   public void segmentCompleted(int segmentId) {
+      completedSegments.put(segmentId, Boolean.TRUE);
+   }
+
+   public boolean isSegmentCompleted(int segmentId) {
+      return completedSegments.containsKey(segmentId);
+   }
+
+   public long getEntries() {
+      return entries.get();
+   }
+
+   public long getChunks() {
+      return chunks.get();
+   }
+
+   public int getCompletedSegments() {
+      return completedSegments.size();
+   }
+
+   /**
+    * @return the number of entries transferred per second since the start of the rebalance.
+    */
+   public long getThroughput() {
+      long elapsedMillis = timeService.timeDuration(startTime, TimeUnit.MILLISECONDS);
+      return elapsedMillis <= 0 ? 0 : entries.get() * 1000 / elapsedMillis;
+   }
+
+   /**
+    * @return the number of entries transferred by segment, with a {@code *} after the completed segments.
+    */
+   public String getSegmentProgress() {
+      SortedMap<Integer, Long> sorted = new TreeMap<Integer, Long>();
+      for (Map.Entry<Integer, AtomicLong> e : entriesBySegment.entrySet()) {
+         sorted.put(e.getKey(), e.getValue().get());
+      }
+      StringBuilder sb = new StringBuilder();
+      for (Map.Entry<Integer, Long> e : sorted.entrySet()) {
+         if (sb.length() > 0)
+            sb.append(", ");
+         sb.append(e.getKey()).append('=').append(e.getValue());
+         if (completedSegments.containsKey(e.getKey()))
+            sb.append('*');
+      }
+      return sb.toString();
+   }
+
+   /**
+    * @return the number of entries, chunks and completed segments transferred and the throughput.
+    */
+   public String getSummary() {
+      return String.format("entries=%d, chunks=%d, completedSegments=%d, throughput=%d entries/s", getEntries(),
+                           getChunks(), getCompletedSegments(), getThroughput());
+   }
+
+   @Override
+   public String toString() {
+      return "StateTransferProgress{" +
+            "entries=" + entries +
+            ", chunks=" + chunks +
+            ", completedSegments=" + completedSegments.size() +
+            '}';
+   }
+}
@@ -0,0 +1,61 @@
+package org.infinispan.stream;
+
+import org.infinispan.commons.util.CloseableIterator;
+
+/**
+ * A lazy sequence of elements computed from the entries of a cache, similar to a Java 8 stream.
+ * <p>
+ * Intermediate operations ({@link #filter(SerializablePredicate)} and {@link #map(SerializableFunction)}) only return
+ * a new stream, nothing is computed until a terminal operation is invoked. The intermediate operations and the
+ * {@link Collector} of a terminal operation are then sent to the primary owner of each segment of a distributed or
+ * replicated cache, which processes its segments in parallel and only sends back one partial result per segment. If
+ * a node leaves or a rebalance moves a segment while it is processed, the segment is processed again by its new
+ * owner, so every entry is counted exactly once.
+ * <p>
+ * As in a Java 8 stream, an element mapped to {@code null} stays in the stream, only a filter removes elements. The
+ * entries only present in a cache store are processed as well.
+ *
+ * @param <T> the type of the elements of the stream
+ * @see CacheStreams
+ * @since 7.2
+ */
+public interface CacheStream<T> {
+
+   /**
+    * @return a stream of the elements of this stream that match the predicate
+    */
+   CacheStream<T> filter(SerializablePredicate<? super T> predicate);
+
+   /**
+    * @return a stream of the results of applying the function to the elements of this stream
+    */
+   <R> CacheStream<R> map(SerializableFunction<? super T, ? extends R> function);
+
+   /**
+    * @return the number of elements of this stream
+    */
+   long count();
+
+   /**
+    * Reduces the elements of this stream, starting with the identity for each segment of the cache.
+    *
+    * @param identity the identity of the operator
+    * @param operator an associative operator
+    * @return the result of the reduction, or the identity if the stream is empty
+    */
+   T reduce(T identity, SerializableBinaryOperator<T> operator);
+
+   /**
+    * Reduces the elements of this stream with a collector.
+    *
+    * @see Collectors
+    */
+   <A, R> R collect(Collector<? super T, A, R> collector);
+
+   /**
+    * Returns an iterator over the elements of this stream. The intermediate operations are applied by the owners of
+    * the entries, as they are retrieved in batches. The iterator should be closed if it is not iterated until the end.
+    */
+   CloseableIterator<T> iterator();
+
+}
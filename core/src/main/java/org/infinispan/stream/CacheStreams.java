@@ -0,0 +1,54 @@
+package org.infinispan.stream;
+
+import org.infinispan.Cache;
+import org.infinispan.stream.impl.DistributedCacheStream;
+import org.infinispan.stream.impl.StreamManager;
+
+import java.util.Map;
+
+/**
+ * Creates {@link CacheStream}s over the contents of a cache.
+ *
+ * @since 7.2
+ */
+public final class CacheStreams {
+
+   private CacheStreams() {
+   }
+
+   /**
+    * @return a stream of the entries of the cache
+    */
+   public static <K, V> CacheStream<Map.Entry<K, V>> entries(Cache<K, V> cache) {
+      StreamManager streamManager = cache.getAdvancedCache().getComponentRegistry().getComponent(StreamManager.class);
+      return new DistributedCacheStream<Map.Entry<K, V>>(cache.getAdvancedCache(), streamManager);
+   }
+
+   /**
+    * @return a stream of the keys of the cache
+    */
+   public static <K, V> CacheStream<K> keys(Cache<K, V> cache) {
+      return CacheStreams.<K, V>entries(cache).map(new EntryKey<K, V>());
+   }
+
+   /**
+    * @return a stream of the values of the cache
+    */
+   public static <K, V> CacheStream<V> values(Cache<K, V> cache) {
+      return CacheStreams.<K, V>entries(cache).map(new EntryValue<K, V>());
+   }
+
+   private static class EntryKey<K, V> implements SerializableFunction<Map.Entry<K, V>, K> {
+      @Override
+      public K apply(Map.Entry<K, V> entry) {
+         return entry.getKey();
+      }
+   }
+
+   private static class EntryValue<K, V> implements SerializableFunction<Map.Entry<K, V>, V> {
+      @Override
+      public V apply(Map.Entry<K, V> entry) {
+         return entry.getValue();
+      }
+   }
+}
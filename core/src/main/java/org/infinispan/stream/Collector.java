@@ -0,0 +1,44 @@
+package org.infinispan.stream;
+
+import java.io.Serializable;
+
+/**
+ * A terminal operation of a {@link CacheStream}, reducing its elements to a single result.
+ * <p>
+ * Each node accumulates the elements of every segment it owns in a separate container, and only the containers are
+ * sent back to the invoking node, where they are combined and finished. The containers must therefore be
+ * serializable, and {@link #combine(Object, Object)} must be associative.
+ *
+ * @param <T> the type of the elements of the stream
+ * @param <A> the type of the mutable or immutable container holding a partial result
+ * @param <R> the type of the result
+ * @see Collectors
+ * @since 7.2
+ */
+public interface Collector<T, A, R> extends Serializable {
+
+   /**
+    * @return a new, empty container
+    */
+   A newContainer();
+
+   /**
+    * Adds an element to a container.
+    *
+    * @return the container with the element, either the given one or a new one
+    */
+   A accumulate(A container, T element);
+
+   /**
+    * Merges two containers.
+    *
+    * @return the merged container, either one of the given ones or a new one
+    */
+   A combine(A container1, A container2);
+
+   /**
+    * @return the result for the final container
+    */
+   R finish(A container);
+
+}
@@ -0,0 +1,145 @@
+package org.infinispan.stream;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Common {@link Collector} implementations.
+ *
+ * @since 7.2
+ */
+public final class Collectors {
+
+   private Collectors() {
+   }
+
+   /**
+    * @return a collector of the elements of the stream into a list, in no particular order
+    */
+   public static <T> Collector<T, ?, List<T>> toList() {
+      return new ToListCollector<T>();
+   }
+
+   /**
+    * @return a collector of the distinct elements of the stream into a set
+    */
+   public static <T> Collector<T, ?, Set<T>> toSet() {
+      return new ToSetCollector<T>();
+   }
+
+   /**
+    * @return a collector counting the elements of the stream
+    */
+   public static <T> Collector<T, ?, Long> counting() {
+      return new CountingCollector<T>();
+   }
+
+   /**
+    * @return a collector reducing the elements of the stream with the given operator, starting from the identity
+    */
+   public static <T> Collector<T, ?, T> reducing(T identity, SerializableBinaryOperator<T> operator) {
+      return new ReducingCollector<T>(identity, operator);
+   }
+
+   private static class ToListCollector<T> implements Collector<T, ArrayList<T>, List<T>> {
+      @Override
+      public ArrayList<T> newContainer() {
+         return new ArrayList<T>();
+      }
+
+      @Override
+      public ArrayList<T> accumulate(ArrayList<T> container, T element) {
+         container.add(element);
+         return container;
+      }
+
+      @Override
+      public ArrayList<T> combine(ArrayList<T> container1, ArrayList<T> container2) {
+         container1.addAll(container2);
+         return container1;
+      }
+
+      @Override
+      public List<T> finish(ArrayList<T> container) {
+         return container;
+      }
+   }
+
+   private static class ToSetCollector<T> implements Collector<T, HashSet<T>, Set<T>> {
+      @Override
+      public HashSet<T> newContainer() {
+         return new HashSet<T>();
+      }
+
+      @Override
+      public HashSet<T> accumulate(HashSet<T> container, T element) {
+         container.add(element);
+         return container;
+      }
+
+      @Override
+      public HashSet<T> combine(HashSet<T> container1, HashSet<T> container2) {
+         container1.addAll(container2);
+         return container1;
+      }
+
+      @Override
+      public Set<T> finish(HashSet<T> container) {
+         return container;
+      }
+   }
+
+   private static class CountingCollector<T> implements Collector<T, Long, Long> {
+      @Override
+      public Long newContainer() {
+         return 0L;
+      }
+
+      @Override
+      public Long accumulate(Long container, T element) {
+         return container + 1;
+      }
+
+      @Override
+      public Long combine(Long container1, Long container2) {
+         return container1 + container2;
+      }
+
+      @Override
+      public Long finish(Long container) {
+         return container;
+      }
+   }
+
+   private static class ReducingCollector<T> implements Collector<T, T, T> {
+      private final T identity;
+      private final SerializableBinaryOperator<T> operator;
+
+      ReducingCollector(T identity, SerializableBinaryOperator<T> operator) {
+         this.identity = identity;
+         this.operator = operator;
+      }
+
+      @Override
+      public T newContainer() {
+         return identity;
+      }
+
+      @Override
+      public T accumulate(T container, T element) {
+         return operator.apply(container, element);
+      }
+
+      @Override
+      public T combine(T container1, T container2) {
+         return operator.apply(container1, container2);
+      }
+
+      @Override
+      public T finish(T container) {
+         return container;
+      }
+   }
+}
@@ -0,0 +1,15 @@
+package org.infinispan.stream;
+
+import java.io.Serializable;
+
+/**
+ * An associative function combining two elements of a {@link CacheStream}. It is sent to the nodes that own the
+ * entries of the cache, so it must be serializable.
+ *
+ * @since 7.2
+ */
+public interface SerializableBinaryOperator<T> extends Serializable {
+
+   T apply(T t1, T t2);
+
+}
@@ -0,0 +1,15 @@
+package org.infinispan.stream;
+
+import java.io.Serializable;
+
+/**
+ * A function applied to the elements of a {@link CacheStream}. It is sent to the nodes that own the entries of the
+ * cache, so it must be serializable and must not reference state that is only available on the invoking node.
+ *
+ * @since 7.2
+ */
+public interface SerializableFunction<T, R> extends Serializable {
+
+   R apply(T t);
+
+}
@@ -0,0 +1,108 @@
+package org.infinispan.stream.impl;
+
+import org.infinispan.AdvancedCache;
+import org.infinispan.commons.util.CloseableIterable;
+import org.infinispan.commons.util.CloseableIterator;
+import org.infinispan.container.entries.CacheEntry;
+import org.infinispan.stream.CacheStream;
+import org.infinispan.stream.Collector;
+import org.infinispan.stream.Collectors;
+import org.infinispan.stream.SerializableBinaryOperator;
+import org.infinispan.stream.SerializableFunction;
+import org.infinispan.stream.SerializablePredicate;
+
+/**
+ * {@link CacheStream} implementation whose terminal operations are evaluated by the {@link StreamManager} of the
+ * cache.
+ *
+ * @since 7.2
+ */
+public class DistributedCacheStream<T> implements CacheStream<T> {
+
+   private final AdvancedCache<?, ?> cache;
+   private final StreamManager streamManager;
+   private final StreamPipeline pipeline;
+
+   public DistributedCacheStream(AdvancedCache<?, ?> cache, StreamManager streamManager) {
+      this(cache, streamManager, StreamPipeline.EMPTY);
+   }
+
+   private DistributedCacheStream(AdvancedCache<?, ?> cache, StreamManager streamManager, StreamPipeline pipeline) {
+      this.cache = cache;
+      this.streamManager = streamManager;
+      this.pipeline = pipeline;
+   }
+
+   @Override
+   public CacheStream<T> filter(SerializablePredicate<? super T> predicate) {
+      return new DistributedCacheStream<T>(cache, streamManager, pipeline.filter(predicate));
+   }
+
+   @Override
+   public <R> CacheStream<R> map(SerializableFunction<? super T, ? extends R> function) {
+      return new DistributedCacheStream<R>(cache, streamManager, pipeline.map(function));
+   }
+
+   @Override
+   public long count() {
+      return collect(Collectors.<T>counting());
+   }
+
+   @Override
+   public T reduce(T identity, SerializableBinaryOperator<T> operator) {
+      return collect(Collectors.reducing(identity, operator));
+   }
+
+   @Override
+   public <A, R> R collect(Collector<? super T, A, R> collector) {
+      return streamManager.collect(pipeline, collector);
+   }
+
+   @Override
+   @SuppressWarnings("unchecked")
+   public CloseableIterator<T> iterator() {
+      StreamPipelineFilterConverter filterConverter = new StreamPipelineFilterConverter(pipeline);
+      CloseableIterable<CacheEntry<Object, T>> iterable = ((AdvancedCache<Object, Object>) cache)
+            .filterEntries(filterConverter).converter(filterConverter);
+      return new ValueIterator<T>(iterable);
+   }
+
+   @Override
+   public String toString() {
+      return "DistributedCacheStream{" +
+            "cache=" + cache.getName() +
+            ", pipeline=" + pipeline +
+            '}';
+   }
+
+   private static class ValueIterator<T> implements CloseableIterator<T> {
+      private final CloseableIterable<CacheEntry<Object, T>> iterable;
+      private final CloseableIterator<CacheEntry<Object, T>> iterator;
+
+      ValueIterator(CloseableIterable<CacheEntry<Object, T>> iterable) {
+         this.iterable = iterable;
+         this.iterator = iterable.iterator();
+      }
+
+      @Override
+      public boolean hasNext() {
+         return iterator.hasNext();
+      }
+
+      @Override
+      public T next() {
+         T element = iterator.next().getValue();
+         return element == StreamPipelineFilterConverter.NullElement.INSTANCE ? null : element;
+      }
+
+      @Override
+      public void remove() {
+         throw new UnsupportedOperationException();
+      }
+
+      @Override
+      public void close() {
+         iterable.close();
+      }
+   }
+}
@@ -0,0 +1,489 @@
+package org.infinispan.stream.impl;
+
+import org.infinispan.AdvancedCache;
+import org.infinispan.Cache;
+import org.infinispan.commands.CommandsFactory;
+import org.infinispan.commons.CacheException;
+import org.infinispan.commons.equivalence.AnyEquivalence;
+import org.infinispan.commons.equivalence.Equivalence;
+import org.infinispan.commons.util.CollectionFactory;
+import org.infinispan.commons.util.concurrent.NotifyingFutureImpl;
+import org.infinispan.commons.util.concurrent.NotifyingNotifiableFuture;
+import org.infinispan.commons.util.concurrent.ParallelIterableMap.KeyValueAction;
+import org.infinispan.configuration.cache.CacheMode;
+import org.infinispan.configuration.cache.Configuration;
+import org.infinispan.container.DataContainer;
+import org.infinispan.container.SegmentedDataContainer;
+import org.infinispan.container.entries.CacheEntry;
+import org.infinispan.container.entries.InternalCacheEntry;
+import org.infinispan.context.Flag;
+import org.infinispan.distribution.ch.ConsistentHash;
+import org.infinispan.factories.annotations.ComponentName;
+import org.infinispan.factories.annotations.Inject;
+import org.infinispan.filter.AcceptAllKeyValueFilter;
+import org.infinispan.filter.KeyFilter;
+import org.infinispan.marshall.core.MarshalledEntry;
+import org.infinispan.marshall.core.MarshalledValue;
+import org.infinispan.metadata.InternalMetadata;
+import org.infinispan.notifications.Listener;
+import org.infinispan.notifications.cachelistener.annotation.CacheEntryActivated;
+import org.infinispan.notifications.cachelistener.event.CacheEntryActivatedEvent;
+import org.infinispan.persistence.manager.PersistenceManager;
+import org.infinispan.persistence.spi.AdvancedCacheLoader;
+import org.infinispan.remoting.responses.ExceptionResponse;
+import org.infinispan.remoting.responses.Response;
+import org.infinispan.remoting.responses.SuccessfulResponse;
+import org.infinispan.remoting.rpc.ResponseMode;
+import org.infinispan.remoting.rpc.RpcManager;
+import org.infinispan.remoting.transport.Address;
+import org.infinispan.statetransfer.StateTransferLock;
+import org.infinispan.statetransfer.StateTransferManager;
+import org.infinispan.stream.Collector;
+import org.infinispan.topology.CacheTopology;
+import org.infinispan.util.TimeService;
+import org.infinispan.util.concurrent.WithinThreadExecutor;
+import org.infinispan.util.logging.Log;
+import org.infinispan.util.logging.LogFactory;
+
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.infinispan.factories.KnownComponentNames.ASYNC_TRANSPORT_EXECUTOR;
+
+/**
+ * Evaluates the terminal operations of the {@link org.infinispan.stream.CacheStream}s of a cache.
+ * <p>
+ * In a distributed or replicated cache the invoking node sends a {@link StreamSegmentCommand} with the segments that
+ * are left to the primary owners of these segments, and processes its own segments at the same time. Each node
+ * processes its segments in parallel and returns one partial result per segment, for the segments it owned both
+ * before and after processing them. The segments lost by a node during a rebalance, or owned by a node that left, are
+ * then requested again from their new primary owners, until every segment has a partial result. As a segment is only
+ * ever accepted once, each entry is counted exactly once.
+ * <p>
+ * The entries of the cache stores whose keys were not found in the data container are processed along with the
+ * entries in memory, by the node processing their segment.
+ * <p>
+ * Local and invalidation caches only process the entries of the local node, in the invoking thread.
+ *
+ * @since 7.2
+ */
+public class StreamManager {
+
+   private static final Log log = LogFactory.getLog(StreamManager.class);
+   private static final boolean trace = log.isTraceEnabled();
+
+   private final Executor withinThreadExecutor = new WithinThreadExecutor();
+
+   private Cache<Object, Object> cache;
+   private DataContainer<Object, Object> dataContainer;
+   private PersistenceManager persistenceManager;
+   private StateTransferManager stateTransferManager;
+   private StateTransferLock stateTransferLock;
+   private RpcManager rpcManager;
+   private CommandsFactory commandsFactory;
+   private TimeService timeService;
+   private ExecutorService executorService;
+   private long timeout;
+   private boolean segmented;
+   private boolean usingStores;
+   private boolean passivation;
+   private Equivalence<Object> keyEquivalence;
+
+   @Inject
+   public void inject(DataContainer<Object, Object> dataContainer, StateTransferManager stateTransferManager,
+                      StateTransferLock stateTransferLock, RpcManager rpcManager, CommandsFactory commandsFactory,
+                      TimeService timeService, @ComponentName(ASYNC_TRANSPORT_EXECUTOR) ExecutorService executorService,
+                      Configuration configuration) {
+      this.dataContainer = dataContainer;
+      this.stateTransferManager = stateTransferManager;
+      this.stateTransferLock = stateTransferLock;
+      this.rpcManager = rpcManager;
+      this.commandsFactory = commandsFactory;
+      this.timeService = timeService;
+      this.executorService = executorService;
+      this.timeout = configuration.clustering().sync().replTimeout();
+      CacheMode cacheMode = configuration.clustering().cacheMode();
+      this.segmented = cacheMode.isDistributed() || cacheMode.isReplicated();
+      this.usingStores = configuration.persistence().usingStores();
+      this.passivation = configuration.persistence().passivation();
+      this.keyEquivalence = configuration.dataContainer().keyEquivalence();
+   }
+
+   @Inject
+   public void injectPersistence(Cache<Object, Object> cache, PersistenceManager persistenceManager) {
+      this.cache = cache;
+      this.persistenceManager = persistenceManager;
+   }
+
+   /**
+    * Applies the pipeline to every entry of the cache, and reduces the results with the collector.
+    */
+   public <T, A, R> R collect(StreamPipeline pipeline, Collector<? super T, A, R> collector) {
+      A result;
+      if (!segmented) {
+         result = processEntries(null, Collections.singleton(0), pipeline, collector).get(0);
+      } else {
+         try {
+            result = collectSegments(pipeline, collector);
+         } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CacheException(e);
+         }
+      }
+      return collector.finish(result);
+   }
+
+   private <T, A> A collectSegments(StreamPipeline pipeline, Collector<? super T, A, ?> collector)
+         throws InterruptedException {
+      A result = collector.newContainer();
+      CacheTopology topology = stateTransferManager.getCacheTopology();
+      Set<Integer> remainingSegments = new HashSet<Integer>();
+      for (int i = 0; i < topology.getReadConsistentHash().getNumSegments(); i++) {
+         remainingSegments.add(i);
+      }
+      Address localAddress = rpcManager.getAddress();
+      while (true) {
+         ConsistentHash ch = topology.getReadConsistentHash();
+         Set<Address> targets = new HashSet<Address>();
+         boolean processLocally = false;
+         for (Integer segment : remainingSegments) {
+            Address owner = ch.locatePrimaryOwnerForSegment(segment);
+            if (localAddress.equals(owner)) {
+               processLocally = true;
+            } else {
+               targets.add(owner);
+            }
+         }
+         if (trace) {
+            log.tracef("Requesting segments %s from %s, processing locally: %s", remainingSegments, targets,
+                       processLocally);
+         }
+
+         NotifyingNotifiableFuture<Map<Address, Response>> remoteFuture = null;
+         if (!targets.isEmpty()) {
+            // The owners only process the segments they own, and wait until they have at least our topology
+            StreamSegmentCommand command = commandsFactory.buildStreamSegmentCommand(
+                  new HashSet<Integer>(remainingSegments), pipeline, collector);
+            command.setTopologyId(topology.getTopologyId());
+            remoteFuture = new NotifyingFutureImpl<Map<Address, Response>>();
+            rpcManager.invokeRemotelyInFuture(remoteFuture, targets, command,
+                  rpcManager.getRpcOptionsBuilder(ResponseMode.SYNCHRONOUS_IGNORE_LEAVERS).build());
+         }
+         List<Map<Integer, A>> partials = new ArrayList<Map<Integer, A>>(targets.size() + 1);
+         if (processLocally) {
+            partials.add(processSegments(remainingSegments, pipeline, collector));
+         }
+         if (remoteFuture != null) {
+            partials.addAll(this.<A>getResponses(remoteFuture));
+         }
+
+         int remaining = remainingSegments.size();
+         for (Map<Integer, A> partial : partials) {
+            for (Map.Entry<Integer, A> e : partial.entrySet()) {
+               // Two nodes may return the same segment during a rebalance, only keep the first one
+               if (remainingSegments.remove(e.getKey())) {
+                  result = collector.combine(result, e.getValue());
+               }
+            }
+         }
+         if (remainingSegments.isEmpty()) {
+            return result;
+         }
+
+         if (trace) {
+            log.tracef("Segments %s were not processed, retrying them with the new owners", remainingSegments);
+         }
+         if (remainingSegments.size() == remaining) {
+            // Nothing completed: wait for the rebalance or the leave that moved the segments to update the topology
+            stateTransferLock.waitForTopology(topology.getTopologyId() + 1, timeout, TimeUnit.MILLISECONDS);
+         }
+         topology = stateTransferManager.getCacheTopology();
+      }
+   }
+
+   @SuppressWarnings("unchecked")
+   private <A> List<Map<Integer, A>> getResponses(Future<Map<Address, Response>> future)
+         throws InterruptedException {
+      Map<Address, Response> responses;
+      try {
+         responses = future.get();
+      } catch (ExecutionException e) {
+         throw new CacheException(e.getCause());
+      }
+      List<Map<Integer, A>> partials = new ArrayList<Map<Integer, A>>(responses.size());
+      for (Map.Entry<Address, Response> e : responses.entrySet()) {
+         Response response = e.getValue();
+         if (response instanceof SuccessfulResponse) {
+            partials.add((Map<Integer, A>) ((SuccessfulResponse) response).getResponseValue());
+         } else if (response instanceof ExceptionResponse) {
+            throw new CacheException(((ExceptionResponse) response).getException());
+         } else if (trace) {
+            // The node left or stopped the cache, its segments are retried
+            log.tracef("Ignoring response %s from %s", response, e.getKey());
+         }
+      }
+      return partials;
+   }
+
+   /**
+    * Processes the segments owned by the local node.
+    *
+    * @return the partial result of each segment that was owned by the local node while it was processed
+    */
+   public <T, A> Map<Integer, A> processSegments(Set<Integer> segments, StreamPipeline pipeline,
+                                                 Collector<? super T, A, ?> collector) {
+      Address localAddress = rpcManager.getAddress();
+      CacheTopology startTopology = stateTransferManager.getCacheTopology();
+      ConsistentHash ch = startTopology.getReadConsistentHash();
+      Set<Integer> ownedSegments = new HashSet<Integer>();
+      for (Integer segment : segments) {
+         if (localAddress.equals(ch.locatePrimaryOwnerForSegment(segment))) {
+            ownedSegments.add(segment);
+         }
+      }
+      if (ownedSegments.isEmpty()) {
+         return new HashMap<Integer, A>();
+      }
+
+      Map<Integer, A> partials = processEntries(ch, ownedSegments, pipeline, collector);
+
+      CacheTopology endTopology = stateTransferManager.getCacheTopology();
+      if (endTopology.getTopologyId() != startTopology.getTopologyId()) {
+         // A segment is complete if we still own it, we were not processing data that was being removed
+         ConsistentHash endCh = endTopology.getReadConsistentHash();
+         for (Integer segment : ownedSegments) {
+            if (!localAddress.equals(endCh.locatePrimaryOwnerForSegment(segment))) {
+               partials.remove(segment);
+            }
+         }
+      }
+      if (trace) {
+         log.tracef("Processed segments %s of %s", partials.keySet(), segments);
+      }
+      return partials;
+   }
+
+   /**
+    * Accumulates the entries of the given segments, or all the entries of the data container and of the stores if there
+    * is no consistent hash, in which case there must be a single segment.
+    */
+   private <T, A> Map<Integer, A> processEntries(final ConsistentHash ch, Set<Integer> segments,
+                                                 final StreamPipeline pipeline,
+                                                 final Collector<? super T, A, ?> collector) {
+      final Map<Integer, SegmentContainer<T, A>> containers = new HashMap<Integer, SegmentContainer<T, A>>();
+      for (Integer segment : segments) {
+         containers.put(segment, new SegmentContainer<T, A>(collector));
+      }
+      final long now = timeService.wallClockTime();
+      // The entries found in the data container are skipped in the stores
+      final Set<Object> processedKeys = usingStores ? Collections.newSetFromMap(
+            CollectionFactory.<Object, Boolean>makeConcurrentMap(keyEquivalence, AnyEquivalence.<Boolean>getInstance()))
+            : null;
+      ActivationListener activationListener = null;
+      if (usingStores && passivation) {
+         // An entry activated after the data container was processed would not be found in the stores either
+         activationListener = new ActivationListener();
+         cache.addListener(activationListener);
+      }
+      try {
+         processDataContainer(ch, segments, containers, processedKeys, now, pipeline);
+         if (usingStores) {
+            processStores(ch, containers, processedKeys, now, pipeline);
+         }
+         if (activationListener != null) {
+            AdvancedCache<Object, Object> localCache = cache.getAdvancedCache().withFlags(Flag.CACHE_MODE_LOCAL);
+            for (Object key : activationListener.activatedKeys) {
+               SegmentContainer<T, A> container = containers.get(getSegment(ch, key));
+               if (container != null && processedKeys.add(key)) {
+                  CacheEntry<Object, Object> entry = localCache.getCacheEntry(key);
+                  if (entry != null) {
+                     accumulate(container, key, entry.getValue(), pipeline);
+                  }
+               }
+            }
+         }
+      } finally {
+         if (activationListener != null) {
+            cache.removeListener(activationListener);
+         }
+      }
+
+      Map<Integer, A> partials = new HashMap<Integer, A>();
+      for (Map.Entry<Integer, SegmentContainer<T, A>> e : containers.entrySet()) {
+         partials.put(e.getKey(), e.getValue().container);
+      }
+      return partials;
+   }
+
+   private <T, A> void processDataContainer(final ConsistentHash ch, Set<Integer> segments,
+                                            final Map<Integer, SegmentContainer<T, A>> containers,
+                                            final Set<Object> processedKeys, final long now,
+                                            final StreamPipeline pipeline) {
+      if (ch != null && dataContainer instanceof SegmentedDataContainer
+            && ((SegmentedDataContainer) dataContainer).getNumSegments() == ch.getNumSegments()) {
+         // Each segment has its own map, process the segments in parallel
+         final Queue<Integer> queue = new ConcurrentLinkedQueue<Integer>(segments);
+         Runnable worker = new Runnable() {
+            @Override
+            public void run() {
+               Integer segment;
+               while ((segment = queue.poll()) != null) {
+                  SegmentContainer<T, A> container = containers.get(segment);
+                  for (InternalCacheEntry<Object, Object> entry : SegmentedDataContainer.entriesInSegments(
+                        dataContainer, ch, Collections.singleton(segment))) {
+                     processEntry(container, entry, processedKeys, now, pipeline);
+                  }
+               }
+            }
+         };
+         runInParallel(worker, segments.size());
+      } else {
+         // Process all the entries in parallel, but only keep the ones of the requested segments
+         try {
+            dataContainer.executeTask(AcceptAllKeyValueFilter.getInstance(),
+                                      new KeyValueAction<Object, InternalCacheEntry<Object, Object>>() {
+               @Override
+               public void apply(Object key, InternalCacheEntry<Object, Object> entry) {
+                  SegmentContainer<T, A> container = containers.get(getSegment(ch, unwrapMarshalledValue(key)));
+                  if (container != null) {
+                     processEntry(container, entry, processedKeys, now, pipeline);
+                  }
+               }
+            });
+         } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CacheException(e);
+         }
+      }
+   }
+
+   private <T, A> void processEntry(SegmentContainer<T, A> container, InternalCacheEntry<Object, Object> entry,
+                                    Set<Object> processedKeys, long now, StreamPipeline pipeline) {
+      Object key = unwrapMarshalledValue(entry.getKey());
+      if (processedKeys != null) {
+         processedKeys.add(key);
+      }
+      if (!entry.isExpired(now)) {
+         accumulate(container, key, unwrapMarshalledValue(entry.getValue()), pipeline);
+      }
+   }
+
+   private <T, A> void processStores(final ConsistentHash ch, final Map<Integer, SegmentContainer<T, A>> containers,
+                                     final Set<Object> processedKeys, final long now, final StreamPipeline pipeline) {
+      KeyFilter<Object> keyFilter = new KeyFilter<Object>() {
+         @Override
+         public boolean accept(Object key) {
+            key = unwrapMarshalledValue(key);
+            return !processedKeys.contains(key) && containers.containsKey(getSegment(ch, key));
+         }
+      };
+      AdvancedCacheLoader.CacheLoaderTask<Object, Object> task = new AdvancedCacheLoader.CacheLoaderTask<Object, Object>() {
+         @Override
+         public void processEntry(MarshalledEntry<Object, Object> marshalledEntry,
+                                  AdvancedCacheLoader.TaskContext taskContext) throws InterruptedException {
+            InternalMetadata metadata = marshalledEntry.getMetadata();
+            if (metadata != null && metadata.isExpired(now)) {
+               return;
+            }
+            Object key = unwrapMarshalledValue(marshalledEntry.getKey());
+            // Several stores may hold the same key
+            if (processedKeys.add(key)) {
+               accumulate(containers.get(getSegment(ch, key)), key,
+                          unwrapMarshalledValue(marshalledEntry.getValue()), pipeline);
+            }
+            if (Thread.interrupted()) {
+               throw new InterruptedException();
+            }
+         }
+      };
+      persistenceManager.processOnAllStores(withinThreadExecutor, keyFilter, task, true, true);
+   }
+
+   private static int getSegment(ConsistentHash ch, Object key) {
+      return ch == null ? 0 : ch.getSegment(key);
+   }
+
+   @SuppressWarnings("unchecked")
+   private <T, A> void accumulate(SegmentContainer<T, A> container, Object key, Object value,
+                                  StreamPipeline pipeline) {
+      Object element = pipeline.apply(new AbstractMap.SimpleImmutableEntry<Object, Object>(key, value));
+      if (element != StreamPipeline.FILTERED) {
+         container.accumulate((T) element);
+      }
+   }
+
+   /**
+    * Runs the worker in the current thread and in up to {@code tasks - 1} threads of the executor. The worker must
+    * stop once there is nothing left to do, so the current thread never waits for a task that did not start.
+    */
+   private void runInParallel(Runnable worker, int tasks) {
+      int helpers = Math.min(tasks, Runtime.getRuntime().availableProcessors()) - 1;
+      List<Future<?>> futures = new ArrayList<Future<?>>(Math.max(helpers, 0));
+      for (int i = 0; i < helpers; i++) {
+         futures.add(executorService.submit(worker));
+      }
+      worker.run();
+      try {
+         for (Future<?> future : futures) {
+            if (!future.cancel(false)) {
+               future.get();
+            }
+         }
+      } catch (InterruptedException e) {
+         Thread.currentThread().interrupt();
+         throw new CacheException(e);
+      } catch (ExecutionException e) {
+         throw new CacheException(e.getCause());
+      }
+   }
+
+   private static Object unwrapMarshalledValue(Object value) {
+      if (value instanceof MarshalledValue) {
+         return ((MarshalledValue) value).get();
+      }
+      return value;
+   }
+
+   @Listener
+   private static class ActivationListener {
+      final Queue<Object> activatedKeys = new ConcurrentLinkedQueue<Object>();
+
+      @CacheEntryActivated
+      public void onEntryActivated(CacheEntryActivatedEvent<Object, Object> event) {
+         if (!event.isPre()) {
+            activatedKeys.add(event.getKey());
+         }
+      }
+   }
+
+   /**
+    * The partial result of a segment. It is only accumulated by one thread at a time, and read after all the
+    * threads finished.
+    */
+   private static class SegmentContainer<T, A> {
+      private final Collector<? super T, A, ?> collector;
+      A container;
+
+      SegmentContainer(Collector<? super T, A, ?> collector) {
+         this.collector = collector;
+         this.container = collector.newContainer();
+      }
+
+      synchronized void accumulate(T element) {
+         container = collector.accumulate(container, element);
+      }
+   }
+}
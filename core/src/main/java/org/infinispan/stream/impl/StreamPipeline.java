@@ -0,0 +1,69 @@
+package org.infinispan.stream.impl;
+
+import org.infinispan.stream.SerializableFunction;
+import org.infinispan.stream.SerializablePredicate;
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+/**
+ * The intermediate operations of a {@link org.infinispan.stream.CacheStream}, applied in order to each entry of the
+ * cache by the node that owns it. It is immutable, so a stream can be reused after adding operations to it.
+ *
+ * @since 7.2
+ */
+public final class StreamPipeline implements Serializable {
+
+   static final StreamPipeline EMPTY = new StreamPipeline(new Object[0]);
+
+   /**
+    * Returned by {@link #apply(Object)} for the elements removed by a filter, as a function may return {@code null}.
+    */
+   static final Object FILTERED = new Object();
+
+   // Either SerializablePredicate or SerializableFunction instances
+   private final Object[] stages;
+
+   private StreamPipeline(Object[] stages) {
+      this.stages = stages;
+   }
+
+   StreamPipeline filter(SerializablePredicate<?> predicate) {
+      return append(predicate);
+   }
+
+   StreamPipeline map(SerializableFunction<?, ?> function) {
+      return append(function);
+   }
+
+   private StreamPipeline append(Object stage) {
+      if (stage == null) throw new NullPointerException();
+      Object[] newStages = Arrays.copyOf(stages, stages.length + 1);
+      newStages[stages.length] = stage;
+      return new StreamPipeline(newStages);
+   }
+
+   /**
+    * @return the element produced by the operations for the given cache entry, possibly {@code null}, or
+    *         {@link #FILTERED} if it was filtered out
+    */
+   @SuppressWarnings("unchecked")
+   Object apply(Object element) {
+      Object current = element;
+      for (Object stage : stages) {
+         if (stage instanceof SerializablePredicate) {
+            if (!((SerializablePredicate<Object>) stage).test(current)) {
+               return FILTERED;
+            }
+         } else {
+            current = ((SerializableFunction<Object, Object>) stage).apply(current);
+         }
+      }
+      return current;
+   }
+
+   @Override
+   public String toString() {
+      return "StreamPipeline" + Arrays.toString(stages);
+   }
+}
@@ -0,0 +1,40 @@
+package org.infinispan.stream.impl;
+
+import org.infinispan.filter.AbstractKeyValueFilterConverter;
+import org.infinispan.metadata.Metadata;
+
+import java.io.Serializable;
+import java.util.AbstractMap;
+
+/**
+ * Applies the operations of a stream to the entries retrieved by an {@link org.infinispan.iteration.impl.EntryRetriever},
+ * so that the entries are filtered and converted by the nodes that own them.
+ *
+ * @since 7.2
+ */
+class StreamPipelineFilterConverter<K, V, T> extends AbstractKeyValueFilterConverter<K, V, T> implements Serializable {
+
+   private final StreamPipeline pipeline;
+
+   StreamPipelineFilterConverter(StreamPipeline pipeline) {
+      this.pipeline = pipeline;
+   }
+
+   @Override
+   @SuppressWarnings("unchecked")
+   public T filterAndConvert(K key, V value, Metadata metadata) {
+      Object element = pipeline.apply(new AbstractMap.SimpleImmutableEntry<K, V>(key, value));
+      if (element == StreamPipeline.FILTERED) {
+         return null;
+      }
+      // The entry retriever drops the entries converted to null
+      return (T) (element == null ? NullElement.INSTANCE : element);
+   }
+
+   /**
+    * Stands for an element mapped to {@code null}, until it is returned by the iterator.
+    */
+   enum NullElement {
+      INSTANCE
+   }
+}
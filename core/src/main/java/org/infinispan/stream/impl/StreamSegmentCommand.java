@@ -0,0 +1,96 @@
+package org.infinispan.stream.impl;
+
+import org.infinispan.commands.TopologyAffectedCommand;
+import org.infinispan.commands.remote.BaseRpcCommand;
+import org.infinispan.context.InvocationContext;
+import org.infinispan.stream.Collector;
+
+import java.util.Set;
+
+/**
+ * Command sent to the primary owners of some segments, to apply the operations of a stream to the entries of these
+ * segments and return the partial result of each segment.
+ *
+ * @since 7.2
+ */
+public class StreamSegmentCommand extends BaseRpcCommand implements TopologyAffectedCommand {
+   public static final byte COMMAND_ID = 46;
+
+   private Set<Integer> segments;
+   private StreamPipeline pipeline;
+   private Collector<?, ?, ?> collector;
+   private int topologyId = -1;
+
+   private StreamManager streamManager;
+
+   // Only here for CommandIdUniquenessTest
+   private StreamSegmentCommand() {
+      super(null);
+   }
+
+   public StreamSegmentCommand(String cacheName) {
+      super(cacheName);
+   }
+
+   public StreamSegmentCommand(String cacheName, Set<Integer> segments, StreamPipeline pipeline,
+                               Collector<?, ?, ?> collector) {
+      super(cacheName);
+      this.segments = segments;
+      this.pipeline = pipeline;
+      this.collector = collector;
+   }
+
+   public void init(StreamManager streamManager) {
+      this.streamManager = streamManager;
+   }
+
+   @Override
+   public Object perform(InvocationContext ctx) throws Throwable {
+      return streamManager.processSegments(segments, pipeline, collector);
+   }
+
+   @Override
+   public byte getCommandId() {
+      return COMMAND_ID;
+   }
+
+   @Override
+   public Object[] getParameters() {
+      return new Object[]{segments, pipeline, collector, topologyId};
+   }
+
+   @Override
+   @SuppressWarnings("unchecked")
+   public void setParameters(int commandId, Object[] parameters) {
+      int i = 0;
+      segments = (Set<Integer>) parameters[i++];
+      pipeline = (StreamPipeline) parameters[i++];
+      collector = (Collector<?, ?, ?>) parameters[i++];
+      topologyId = (Integer) parameters[i++];
+   }
+
+   @Override
+   public boolean isReturnValueExpected() {
+      return true;
+   }
+
+   @Override
+   public int getTopologyId() {
+      return topologyId;
+   }
+
+   @Override
+   public void setTopologyId(int topologyId) {
+      this.topologyId = topologyId;
+   }
+
+   @Override
+   public String toString() {
+      return "StreamSegmentCommand{" +
+            "segments=" + segments +
+            ", pipeline=" + pipeline +
+            ", collector=" + collector +
+            ", topologyId=" + topologyId +
+            '}';
+   }
+}
@@ -0,0 +1,6 @@
+/**
+ * Provides the implementation of the distributed cache streams.
+ *
+ * @private
+ */
+package org.infinispan.stream.impl;
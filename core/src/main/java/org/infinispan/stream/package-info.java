@@ -0,0 +1,5 @@
+/**
+ * Provides lazy, distributed streams over the entries of a cache, whose operations are executed by the nodes owning
+ * the entries.
+ */
+package org.infinispan.stream;
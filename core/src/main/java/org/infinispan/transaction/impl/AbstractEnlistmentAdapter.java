@@ -71,7 +71,8 @@ protected final void releaseLocksForCompletedTransaction(LocalTransaction localT
       final GlobalTransaction gtx = localTransaction.getGlobalTransaction();
       txTable.removeLocalTransaction(localTransaction);
       log.tracef("Committed in onePhase? %s isOptimistic? %s", committedInOnePhase, isOptimisticCache());
-      if (committedInOnePhase && isOptimisticCache())
+      // The other owners committed the transaction in one phase too if its remote prepare was deferred
+      if ((committedInOnePhase || localTransaction.isRemotePrepareDeferred()) && isOptimisticCache())
          return;
       if (isClustered()) {
          removeTransactionInfoRemotely(localTransaction, gtx);
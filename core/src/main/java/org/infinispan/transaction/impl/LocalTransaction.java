@@ -44,6 +44,7 @@ public abstract class LocalTransaction extends AbstractCacheTransaction {
    private volatile boolean isFromRemoteSite;
 
    private boolean prepareSent;
+   private int remotePrepareDeferredTopologyId = -1;
    private boolean commitOrRollbackSent;
 
    public LocalTransaction(Transaction transaction, GlobalTransaction tx,
@@ -226,6 +227,39 @@ public final boolean isPrepareSent() {
       return prepareSent;
    }
 
+   /**
+    * Marks the transaction as prepared only on the local node, which is the primary owner of all its keys. The other
+    * owners receive the modifications in a one-phase prepare instead of the commit command.
+    *
+    * @param topologyId the topology in which the transaction was prepared
+    */
+   public final void markRemotePrepareDeferred(int topologyId) {
+      remotePrepareDeferredTopologyId = topologyId;
+   }
+
+   /**
+    * Marks the transaction as prepared on the other nodes after all, in two phases, because the topology changed since
+    * its local prepare.
+    */
+   public final void clearRemotePrepareDeferred() {
+      remotePrepareDeferredTopologyId = -1;
+   }
+
+   /**
+    * @return  true if the prepare was not sent to the other nodes
+    */
+   public final boolean isRemotePrepareDeferred() {
+      return remotePrepareDeferredTopologyId != -1;
+   }
+
+   /**
+    * @return  the topology in which the transaction was prepared locally, or -1 if the prepare was sent to the other
+    *          nodes
+    */
+   public final int getRemotePrepareDeferredTopologyId() {
+      return remotePrepareDeferredTopologyId;
+   }
+
    /**
     * Sets the commit or rollback sent for this transaction
     */
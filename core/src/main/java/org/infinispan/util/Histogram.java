@@ -0,0 +1,90 @@
+package org.infinispan.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A thread safe histogram of non-negative values, with power of 2 buckets: bucket <tt>i</tt> counts the values
+ * between <tt>2^(i-1)</tt> and <tt>2^i - 1</tt>, bucket 0 counts the zeros.
+ *
+ * @since 7.2
+ */
+public class Histogram {
+   private final AtomicLongArray buckets = new AtomicLongArray(Long.SIZE + 1);
+   private final AtomicLong count = new AtomicLong();
+   private final AtomicLong sum = new AtomicLong();
+   private final AtomicLong max = new AtomicLong();
+
+   public void add(long value) {
+      buckets.incrementAndGet(Long.SIZE - Long.numberOfLeadingZeros(value));
+      count.incrementAndGet();
+      sum.addAndGet(value);
+      updateMax(value);
+   }
+
+   /**
+    * Adds the values of another histogram to this one.
+    */
+   public Histogram merge(Histogram other) {
+      for (int i = 0; i < buckets.length(); i++) {
+         buckets.addAndGet(i, other.buckets.get(i));
+      }
+      count.addAndGet(other.count.get());
+      sum.addAndGet(other.sum.get());
+      updateMax(other.max.get());
+      return this;
+   }
+
+   private void updateMax(long value) {
+      long current;
+      while ((current = max.get()) < value) {
+         if (max.compareAndSet(current, value))
+            break;
+      }
+   }
+
+   public long count() {
+      return count.get();
+   }
+
+   public long sum() {
+      return sum.get();
+   }
+
+   public long max() {
+      return max.get();
+   }
+
+   public long average() {
+      long c = count.get();
+      return c == 0 ? 0 : sum.get() / c;
+   }
+
+   public void reset() {
+      for (int i = 0; i < buckets.length(); i++) {
+         buckets.set(i, 0);
+      }
+      count.set(0);
+      sum.set(0);
+      max.set(0);
+   }
+
+   /**
+    * @return the non-empty buckets, in the <tt>[min-max]=count</tt> format.
+    */
+   @Override
+   public String toString() {
+      StringBuilder sb = new StringBuilder();
+      for (int i = 0; i < buckets.length(); i++) {
+         long bucketCount = buckets.get(i);
+         if (bucketCount == 0)
+            continue;
+         if (sb.length() > 0)
+            sb.append(", ");
+         long min = i == 0 ? 0 : 1L << (i - 1);
+         long bucketMax = i == 0 ? 0 : (1L << (i - 1)) * 2 - 1;
+         sb.append('[').append(min).append('-').append(bucketMax).append("]=").append(bucketCount);
+      }
+      return sb.toString();
+   }
+}
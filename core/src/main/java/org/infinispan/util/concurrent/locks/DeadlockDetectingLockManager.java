@@ -1,14 +1,12 @@
 package org.infinispan.util.concurrent.locks;
 
 import org.infinispan.context.InvocationContext;
-import org.infinispan.factories.annotations.Inject;
 import org.infinispan.factories.annotations.Start;
 import org.infinispan.jmx.annotations.MBean;
 import org.infinispan.jmx.annotations.ManagedAttribute;
 import org.infinispan.jmx.annotations.ManagedOperation;
 import org.infinispan.jmx.annotations.MeasurementType;
 import org.infinispan.transaction.xa.DldGlobalTransaction;
-import org.infinispan.util.TimeService;
 import org.infinispan.util.logging.Log;
 import org.infinispan.util.logging.LogFactory;
 
@@ -46,19 +44,12 @@ public class DeadlockDetectingLockManager extends LockManagerImpl {
 
    private AtomicLong cannotRunDld = new AtomicLong(0);
 
-   private TimeService timeService;
-
    @Start
    public void init() {
       spinDuration = configuration.deadlockDetection().spinDuration();
       exposeJmxStats = configuration.jmxStatistics().enabled();
    }
 
-   @Inject
-   public void injectTimeService(TimeService timeService) {
-      this.timeService = timeService;
-   }
-
    @Override
    public boolean lockAndRecord(Object key, InvocationContext ctx, long lockTimeout) throws InterruptedException {
       if (trace) log.tracef("Attempting to lock %s with acquisition timeout of %s millis", key, lockTimeout);
@@ -69,28 +60,38 @@ public boolean lockAndRecord(Object key, InvocationContext ctx, long lockTimeout
          thisTx.setLockIntention(key);
          if (trace) log.tracef("Setting lock intention to %s for %s (%s)", key, thisTx, System.identityHashCode(thisTx));
 
-         while (!timeService.isTimeExpired(timeoutNanoTime)) {
-            if (lockContainer.acquireLock(ctx.getLockOwner(), key, spinDuration, MILLISECONDS) != null) {
-               thisTx.setLockIntention(null); //clear lock intention
-               if (trace) log.tracef("Successfully acquired lock on %s on behalf of %s.", key, ctx.getLockOwner());
-               return true;
-            } else {
-               Object owner = getOwner(key);
-               if (!(owner instanceof DldGlobalTransaction)) {
-                  if (trace) log.tracef("Not running deadlock detection as lock owner (%s) is not transactional", owner);
-                  cannotRunDld.incrementAndGet();
-                  continue;
-               }
-               DldGlobalTransaction lockOwnerTx = (DldGlobalTransaction) owner;
-               if (trace) log.tracef("Could not acquire lock as %s is locked by %s (%s)", key, owner, System.identityHashCode(owner));
-               if (isDeadlockAndIAmLoosing(lockOwnerTx, thisTx, key)) {
-                  updateStats(thisTx);
-                  String message = String.format("Deadlock found and we (%s) shall not continue. Other tx is %s",
-                                                 thisTx, lockOwnerTx);
-                  log.trace(message);
-                  throw new DeadlockDetectedException(message);
+         // All the spins count as a single attempt in the lock contention statistics, like in the base lock path
+         boolean recordStatistics = isStatisticsEnabled();
+         boolean contended = recordStatistics && isContended(key, thisTx);
+         long start = recordStatistics ? timeService.time() : 0;
+         boolean acquired = false;
+         try {
+            while (!timeService.isTimeExpired(timeoutNanoTime)) {
+               if (lockContainer.acquireLock(ctx.getLockOwner(), key, spinDuration, MILLISECONDS) != null) {
+                  thisTx.setLockIntention(null); //clear lock intention
+                  if (trace) log.tracef("Successfully acquired lock on %s on behalf of %s.", key, ctx.getLockOwner());
+                  acquired = true;
+                  return true;
+               } else {
+                  Object owner = getOwner(key);
+                  if (!(owner instanceof DldGlobalTransaction)) {
+                     if (trace) log.tracef("Not running deadlock detection as lock owner (%s) is not transactional", owner);
+                     cannotRunDld.incrementAndGet();
+                     continue;
+                  }
+                  DldGlobalTransaction lockOwnerTx = (DldGlobalTransaction) owner;
+                  if (trace) log.tracef("Could not acquire lock as %s is locked by %s (%s)", key, owner, System.identityHashCode(owner));
+                  if (isDeadlockAndIAmLoosing(lockOwnerTx, thisTx, key)) {
+                     updateStats(thisTx);
+                     String message = String.format("Deadlock found and we (%s) shall not continue. Other tx is %s",
+                                                    thisTx, lockOwnerTx);
+                     log.trace(message);
+                     throw new DeadlockDetectedException(message);
+                  }
                }
             }
+         } finally {
+            if (recordStatistics) recordLockAttempt(key, contended, acquired, start);
          }
       } else {
          return super.lockAndRecord(key, ctx, lockTimeout);
@@ -157,8 +158,10 @@ public long getTotalNumberOfDetectedDeadlocks() {
       return localTxStopped.get() + remoteTxStopped.get();
    }
 
+   @Override
    @ManagedOperation(description = "Resets statistics gathered by this component", displayName = "Reset statistics")
    public void resetStatistics() {
+      super.resetStatistics();
       localTxStopped.set(0);
       remoteTxStopped.set(0);
       cannotRunDld.set(0);
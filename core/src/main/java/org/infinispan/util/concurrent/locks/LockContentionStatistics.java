@@ -0,0 +1,119 @@
+package org.infinispan.util.concurrent.locks;
+
+import org.infinispan.commons.equivalence.Equivalence;
+import org.infinispan.util.Histogram;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock acquisition statistics of a {@link LockManagerImpl}: how many acquisitions found the lock held by another
+ * owner, and how long they waited for it.
+ * <p/>
+ * The statistics are kept separately for {@link #KEY_RANGES} ranges of key hash codes, so that a hot spot shows up
+ * even when the rest of the keys are not contended. Range <tt>i</tt> contains the keys whose (spread) hash code starts
+ * with the hexadecimal digit <tt>i</tt>. The wait times are in microseconds.
+ *
+ * @since 7.2
+ */
+class LockContentionStatistics {
+
+   static final int KEY_RANGES = 16;
+
+   private final Equivalence<Object> keyEquivalence;
+   private final AtomicLongArray acquisitions = new AtomicLongArray(KEY_RANGES);
+   private final AtomicLongArray contendedAcquisitions = new AtomicLongArray(KEY_RANGES);
+   private final AtomicLongArray failedAcquisitions = new AtomicLongArray(KEY_RANGES);
+   private final Histogram[] waitTimes = new Histogram[KEY_RANGES];
+
+   LockContentionStatistics(Equivalence<Object> keyEquivalence) {
+      this.keyEquivalence = keyEquivalence;
+      for (int i = 0; i < KEY_RANGES; i++) {
+         waitTimes[i] = new Histogram();
+      }
+   }
+
+   void lockAttempted(Object key, boolean contended, boolean acquired, long waitMicros) {
+      int range = keyRange(key);
+      acquisitions.incrementAndGet(range);
+      if (contended)
+         contendedAcquisitions.incrementAndGet(range);
+      if (!acquired)
+         failedAcquisitions.incrementAndGet(range);
+      waitTimes[range].add(waitMicros);
+   }
+
+   private int keyRange(Object key) {
+      int h = keyEquivalence.hashCode(key);
+      h ^= (h >>> 20) ^ (h >>> 12);
+      h ^= (h >>> 7) ^ (h >>> 4);
+      return h >>> (Integer.SIZE - 4);
+   }
+
+   long getAcquisitions() {
+      return sum(acquisitions);
+   }
+
+   long getContendedAcquisitions() {
+      return sum(contendedAcquisitions);
+   }
+
+   long getFailedAcquisitions() {
+      return sum(failedAcquisitions);
+   }
+
+   Histogram getWaitTimes() {
+      Histogram all = new Histogram();
+      for (Histogram h : waitTimes) {
+         all.merge(h);
+      }
+      return all;
+   }
+
+   /**
+    * @return the contended and total acquisitions by key range, in the <tt>range=contended/total</tt> format.
+    */
+   String getContentionByKeyRange() {
+      StringBuilder sb = new StringBuilder();
+      for (int i = 0; i < KEY_RANGES; i++) {
+         long total = acquisitions.get(i);
+         if (total == 0)
+            continue;
+         if (sb.length() > 0)
+            sb.append(", ");
+         sb.append(Integer.toHexString(i)).append('=').append(contendedAcquisitions.get(i)).append('/').append(total);
+      }
+      return sb.toString();
+   }
+
+   /**
+    * @return the wait time histogram of each key range, in the <tt>range: [min-max]=count, ...</tt> format.
+    */
+   String getWaitTimesByKeyRange() {
+      StringBuilder sb = new StringBuilder();
+      for (int i = 0; i < KEY_RANGES; i++) {
+         if (waitTimes[i].count() == 0)
+            continue;
+         if (sb.length() > 0)
+            sb.append("; ");
+         sb.append(Integer.toHexString(i)).append(": ").append(waitTimes[i]);
+      }
+      return sb.toString();
+   }
+
+   void reset() {
+      for (int i = 0; i < KEY_RANGES; i++) {
+         acquisitions.set(i, 0);
+         contendedAcquisitions.set(i, 0);
+         failedAcquisitions.set(i, 0);
+         waitTimes[i].reset();
+      }
+   }
+
+   private static long sum(AtomicLongArray array) {
+      long sum = 0;
+      for (int i = 0; i < array.length(); i++) {
+         sum += array.get(i);
+      }
+      return sum;
+   }
+}
@@ -128,4 +128,17 @@ public interface LockManager {
     */
    boolean acquireLockNoCheck(InvocationContext ctx, Object key, long timeoutMillis, boolean skipLocking) throws InterruptedException, TimeoutException;
 
+   /**
+    * Starts reading the data guarded by the lock of a key without acquiring the lock.
+    *
+    * @return a non-zero stamp to pass to {@link #validate(Object, long)} after the read, or 0 if the key is locked.
+    * @see org.infinispan.util.concurrent.locks.containers.LockContainer#tryOptimisticRead(Object)
+    */
+   long tryOptimisticRead(Object key);
+
+   /**
+    * @return {@code true} if the key was not locked since {@link #tryOptimisticRead(Object)} returned the stamp, so the
+    *         data read in the meantime is consistent.
+    */
+   boolean validate(Object key, long stamp);
 }
@@ -5,10 +5,15 @@
 import org.infinispan.container.entries.CacheEntry;
 import org.infinispan.context.InvocationContext;
 import org.infinispan.factories.annotations.Inject;
+import org.infinispan.factories.annotations.Start;
+import org.infinispan.jmx.JmxStatisticsExposer;
 import org.infinispan.jmx.annotations.DataType;
 import org.infinispan.jmx.annotations.MBean;
 import org.infinispan.jmx.annotations.ManagedAttribute;
+import org.infinispan.jmx.annotations.ManagedOperation;
+import org.infinispan.jmx.annotations.MeasurementType;
 import org.infinispan.marshall.core.MarshalledValue;
+import org.infinispan.util.TimeService;
 import org.infinispan.util.concurrent.TimeoutException;
 import org.infinispan.util.concurrent.locks.containers.*;
 import org.infinispan.util.logging.Log;
@@ -21,6 +26,7 @@
 import java.util.Set;
 import java.util.concurrent.locks.Lock;
 
+import static java.util.concurrent.TimeUnit.MICROSECONDS;
 import static java.util.concurrent.TimeUnit.MILLISECONDS;
 import static org.infinispan.commons.util.Util.toStr;
 
@@ -32,9 +38,12 @@
  * @since 4.0
  */
 @MBean(objectName = "LockManager", description = "Manager that handles MVCC locks for entries")
-public class LockManagerImpl implements LockManager {
+public class LockManagerImpl implements LockManager, JmxStatisticsExposer {
    protected Configuration configuration;
    protected volatile LockContainer<?> lockContainer;
+   protected TimeService timeService;
+   private volatile boolean statisticsEnabled;
+   private LockContentionStatistics contentionStatistics;
    private static final Log log = LogFactory.getLog(LockManagerImpl.class);
    protected static final boolean trace = log.isTraceEnabled();
    private static final String ANOTHER_THREAD = "(another thread)";
@@ -45,10 +54,23 @@ public void injectDependencies(Configuration configuration, LockContainer<?> loc
       this.lockContainer = lockContainer;
    }
 
+   @Inject
+   public void injectTimeService(TimeService timeService) {
+      this.timeService = timeService;
+   }
+
+   @Start
+   public void startStatistics() {
+      contentionStatistics = new LockContentionStatistics(configuration.dataContainer().keyEquivalence());
+      statisticsEnabled = configuration.jmxStatistics().enabled();
+   }
+
    @Override
    public boolean lockAndRecord(Object key, InvocationContext ctx, long timeoutMillis) throws InterruptedException {
       if (trace) log.tracef("Attempting to lock %s with acquisition timeout of %s millis", toStr(key), timeoutMillis);
-      if (lockContainer.acquireLock(ctx.getLockOwner(), key, timeoutMillis, MILLISECONDS) != null) {
+      boolean acquired = statisticsEnabled ? acquireLockAndRecordStatistics(key, ctx.getLockOwner(), timeoutMillis)
+            : lockContainer.acquireLock(ctx.getLockOwner(), key, timeoutMillis, MILLISECONDS) != null;
+      if (acquired) {
          if (trace) log.tracef("Successfully acquired lock %s!", toStr(key));
          return true;
       }
@@ -70,6 +92,33 @@ public boolean lockAndRecord(Object key, InvocationContext ctx, long timeoutMill
       return false;
    }
 
+   private boolean acquireLockAndRecordStatistics(Object key, Object lockOwner, long timeoutMillis) throws InterruptedException {
+      boolean contended = isContended(key, lockOwner);
+      long start = timeService.time();
+      boolean acquired = false;
+      try {
+         acquired = lockContainer.acquireLock(lockOwner, key, timeoutMillis, MILLISECONDS) != null;
+         return acquired;
+      } finally {
+         recordLockAttempt(key, contended, acquired, start);
+      }
+   }
+
+   /**
+    * @return {@code true} if the lock on the key is held by another owner.
+    */
+   protected final boolean isContended(Object key, Object lockOwner) {
+      Object holder = getOwner(key);
+      return holder != null && !holder.equals(lockOwner);
+   }
+
+   /**
+    * Adds an attempt to acquire a lock, started at {@code startTime}, to the lock contention statistics.
+    */
+   protected final void recordLockAttempt(Object key, boolean contended, boolean acquired, long startTime) {
+      contentionStatistics.lockAttempted(key, contended, acquired, timeService.timeDuration(startTime, MICROSECONDS));
+   }
+
    @Override
    public void unlock(Collection<Object> lockedKeys, Object lockOwner) {
       log.tracef("Attempting to unlock keys %s", lockedKeys);
@@ -150,11 +199,77 @@ public int getNumberOfLocksAvailable() {
       return lockContainer.size() - lockContainer.getNumLocksHeld();
    }
 
+   @ManagedAttribute(description = "The number of lock acquisitions that found the lock held by another owner.", displayName = "Number of contended lock acquisitions", measurementType = MeasurementType.TRENDSUP)
+   public long getContendedLockAcquisitions() {
+      return contentionStatistics.getContendedAcquisitions();
+   }
+
+   @ManagedAttribute(description = "The number of lock acquisitions that timed out.", displayName = "Number of failed lock acquisitions", measurementType = MeasurementType.TRENDSUP)
+   public long getFailedLockAcquisitions() {
+      return contentionStatistics.getFailedAcquisitions();
+   }
+
+   @ManagedAttribute(description = "The number of lock acquisitions since the statistics were reset.", displayName = "Number of lock acquisitions", measurementType = MeasurementType.TRENDSUP)
+   public long getLockAcquisitions() {
+      return contentionStatistics.getAcquisitions();
+   }
+
+   @ManagedAttribute(description = "The average time waited to acquire a lock, in microseconds.", displayName = "Average lock wait time")
+   public long getAverageLockWaitTime() {
+      return contentionStatistics.getWaitTimes().average();
+   }
+
+   @ManagedAttribute(description = "The number of lock acquisitions by wait time in microseconds, in the [min-max]=count format.", displayName = "Lock wait time histogram")
+   public String getLockWaitTimeHistogram() {
+      return contentionStatistics.getWaitTimes().toString();
+   }
+
+   @ManagedAttribute(description = "The number of contended and total lock acquisitions for each of the 16 key hash code ranges, in the range=contended/total format.", displayName = "Lock contention by key range")
+   public String getLockContentionByKeyRange() {
+      return contentionStatistics.getContentionByKeyRange();
+   }
+
+   @ManagedAttribute(description = "The lock wait time histogram (in microseconds) for each of the 16 key hash code ranges.", displayName = "Lock wait time histogram by key range")
+   public String getLockWaitTimeHistogramByKeyRange() {
+      return contentionStatistics.getWaitTimesByKeyRange();
+   }
+
+   @ManagedAttribute(description = "Enables or disables the gathering of statistics by this component", displayName = "Statistics enabled", dataType = DataType.TRAIT, writable = true)
+   public boolean isStatisticsEnabled() {
+      return statisticsEnabled;
+   }
+
+   @Override
+   public boolean getStatisticsEnabled() {
+      return isStatisticsEnabled();
+   }
+
+   @Override
+   public void setStatisticsEnabled(boolean statisticsEnabled) {
+      this.statisticsEnabled = statisticsEnabled;
+   }
+
+   @Override
+   @ManagedOperation(description = "Resets statistics gathered by this component", displayName = "Reset statistics")
+   public void resetStatistics() {
+      contentionStatistics.reset();
+   }
+
    @Override
    public int getLockId(Object key) {
       return lockContainer.getLockId(key);
    }
 
+   @Override
+   public long tryOptimisticRead(Object key) {
+      return lockContainer.tryOptimisticRead(key);
+   }
+
+   @Override
+   public boolean validate(Object key, long stamp) {
+      return lockContainer.validate(key, stamp);
+   }
+
 //   @Override
 //   public final boolean acquireLock(InvocationContext ctx, Object key, boolean skipLocking) throws InterruptedException, TimeoutException {
 //      return acquireLock(ctx, key, -1, skipLocking);
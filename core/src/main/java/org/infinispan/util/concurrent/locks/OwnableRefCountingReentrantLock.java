@@ -14,12 +14,23 @@
  */
 public class OwnableRefCountingReentrantLock extends OwnableReentrantLock implements RefCountingLock {
    private final AtomicInteger references = new AtomicInteger(1);
+   private transient Object key;
 
    @Override
    public AtomicInteger getReferenceCounter() {
       return references;
    }
 
+   @Override
+   public Object getKey() {
+      return key;
+   }
+
+   @Override
+   public void setKey(Object key) {
+      this.key = key;
+   }
+
    @Override
    public String toString() {
       return super.toString() + "[References: "+references.toString()+"]";
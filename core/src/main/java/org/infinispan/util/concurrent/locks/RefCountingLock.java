@@ -16,4 +16,12 @@ public interface RefCountingLock extends Lock {
     * @return a reference counter
     */
    AtomicInteger getReferenceCounter();
+
+   /**
+    * @return the key guarded by this lock. Lock instances are reused for other keys once released, so this is only
+    *         stable while holding a reference.
+    */
+   Object getKey();
+
+   void setKey(Object key);
 }
@@ -1,12 +1,30 @@
 package org.infinispan.util.concurrent.locks.containers;
 
+import org.infinispan.commons.equivalence.Equivalence;
 import org.infinispan.util.logging.Log;
 
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
 import java.util.concurrent.locks.Lock;
 
 public abstract class AbstractLockContainer<L extends Lock> implements LockContainer<L> {
 
+   private static final int VERSION_STRIPES = 64;
+   // Keep each stripe on its own cache line
+   private static final int VERSION_PADDING = 8;
+
+   protected final Equivalence<Object> keyEquivalence;
+
+   /**
+    * Version of each stripe of keys, incremented when a lock is acquired and before it is released, to validate the
+    * optimistic reads.
+    */
+   private final AtomicLongArray versions = new AtomicLongArray(VERSION_STRIPES * VERSION_PADDING);
+
+   protected AbstractLockContainer(Equivalence<Object> keyEquivalence) {
+      this.keyEquivalence = keyEquivalence;
+   }
+
    /**
     * Releases a lock and swallows any IllegalMonitorStateExceptions - so it is safe to call this method even if the
     * lock is not locked, or not locked by the current thread.
@@ -23,6 +41,40 @@ protected void safeRelease(L toRelease, Object lockOwner) {
       }
    }
 
+   @Override
+   public long tryOptimisticRead(Object key) {
+      int index = versionIndex(key);
+      // Read the version before checking the lock: a writer locks before incrementing the version
+      long version = versions.get(index);
+      return isLocked(key) ? 0 : version + 1;
+   }
+
+   @Override
+   public boolean validate(Object key, long stamp) {
+      return stamp != 0 && versions.get(versionIndex(key)) == stamp - 1 && !isLocked(key);
+   }
+
+   /**
+    * Must be called after acquiring the lock of a key, before modifying the data it guards.
+    */
+   protected final void lockAcquired(Object key) {
+      versions.incrementAndGet(versionIndex(key));
+   }
+
+   /**
+    * Must be called before releasing the lock of a key.
+    */
+   protected final void releasingLock(Object key) {
+      versions.incrementAndGet(versionIndex(key));
+   }
+
+   private int versionIndex(Object key) {
+      int h = keyEquivalence.hashCode(key);
+      h ^= (h >>> 20) ^ (h >>> 12);
+      h ^= (h >>> 7) ^ (h >>> 4);
+      return (h & (VERSION_STRIPES - 1)) * VERSION_PADDING;
+   }
+
    protected abstract void unlock(L toRelease, Object ctx);
 
    protected abstract boolean tryLock(L lock, long timeout, TimeUnit unit, Object lockOwner) throws InterruptedException;
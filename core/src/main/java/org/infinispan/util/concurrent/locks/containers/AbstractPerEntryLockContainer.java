@@ -2,30 +2,45 @@
 
 import org.infinispan.commons.equivalence.AnyEquivalence;
 import org.infinispan.commons.equivalence.Equivalence;
-import org.infinispan.commons.util.ByRef;
 import org.infinispan.commons.util.Util;
 import org.infinispan.commons.util.concurrent.jdk8backported.EquivalentConcurrentHashMapV8;
 import org.infinispan.util.concurrent.locks.RefCountingLock;
 import org.infinispan.util.logging.Log;
 
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
 import static org.infinispan.commons.util.Util.toStr;
 
 /**
  * An abstract lock container that creates and maintains a new lock per entry
+ * <p />
+ * The locks are reference counted: a lock is shared by all the owners waiting for the key, and it is removed from the
+ * map when the last one releases it. A lock acquisition only needs a map lookup and a CAS on the reference counter of
+ * an existing lock, or a {@code putIfAbsent} for a new one. Removed locks are kept in a small pool and reused for
+ * other keys, so locking keys doesn't allocate a lock every time.
  *
  * @author Manik Surtani
  * @since 4.0
  */
 public abstract class AbstractPerEntryLockContainer<L extends RefCountingLock> extends AbstractLockContainer<L> {
 
-   // We specifically need a CHMV8, to be able to use methods like computeIfAbsent, computeIfPresent and compute
+   private static final int MAX_POOL_SIZE = 1024;
+   private static final int POOL_PROBES = 4;
+
    protected final EquivalentConcurrentHashMapV8<Object, L> locks;
+   private final AtomicReferenceArray<L> pool;
 
    protected AbstractPerEntryLockContainer(int concurrencyLevel, Equivalence<Object> keyEquivalence) {
+      super(keyEquivalence);
       locks = new EquivalentConcurrentHashMapV8<Object, L>(
             16, concurrencyLevel, keyEquivalence, AnyEquivalence.getInstance());
+      int poolSize = POOL_PROBES;
+      while (poolSize < concurrencyLevel && poolSize < MAX_POOL_SIZE) {
+         poolSize <<= 1;
+      }
+      pool = new AtomicReferenceArray<L>(poolSize);
    }
 
    protected abstract L newLock();
@@ -47,82 +62,130 @@ public int size() {
 
    @Override
    public L acquireLock(final Object lockOwner, final Object key, final long timeout, final TimeUnit unit) throws InterruptedException {
-      final ByRef<Boolean> lockAcquired = ByRef.create(Boolean.FALSE);
-      L lock = locks.compute(key, new EquivalentConcurrentHashMapV8.BiFun<Object, L, L>() {
-         @Override
-         public L apply(Object key, L lock) {
-            // This happens atomically in the CHM
+      while (true) {
+         L lock = locks.get(key);
+         if (lock == null) {
+            Log log = getLog();
+            if (log.isTraceEnabled())
+               log.tracef("Creating and acquiring new lock instance for key %s", toStr(key));
+
+            L newLock = obtainLock(key);
+            // Nobody else can see the new lock yet, so it is certainly uncontended.
+            lock(newLock, lockOwner);
+            lock = locks.putIfAbsent(key, newLock);
             if (lock == null) {
-               Log log = getLog();
-               if (log.isTraceEnabled())
-                  log.tracef("Creating and acquiring new lock instance for key %s", toStr(key));
-
-               lock = newLock();
-               // Since this is a new lock, it is certainly uncontended.
-               lock(lock, lockOwner);
-               lockAcquired.set(Boolean.TRUE);
-               return lock;
+               lockAcquired(key);
+               return newLock;
             }
+            // Another owner created a lock first, use that one
+            unlock(newLock, lockOwner);
+            releaseReference(newLock);
+         }
+
+         if (!addReference(lock))
+            continue;
+         if (locks.get(key) != lock) {
+            // The lock was removed and reused for another key (or the same key) before we added our reference
+            releaseReference(lock);
+            continue;
+         }
 
-            // No need to worry about concurrent updates - there can't be a release in progress at the same time
-            int refCount = lock.getReferenceCounter().incrementAndGet();
-            if (refCount <= 1) {
-               throw new IllegalStateException("Lock " + key + " acquired although it should have been removed: " + lock);
+         boolean acquired = false;
+         try {
+            acquired = tryLock(lock, timeout, unit, lockOwner);
+         } finally {
+            if (!acquired) {
+               // We may need to remove the lock if the owner released it in the meantime
+               releaseReference(lock);
             }
+         }
+         if (acquired) {
+            lockAcquired(key);
             return lock;
          }
-      });
-
-      if (!lockAcquired.get()) {
-         // We retrieved a lock that was already present,
-         lockAcquired.set(tryLock(lock, timeout, unit, lockOwner));
-      }
-
-      if (lockAcquired.get())
-         return lock;
-      else {
          getLog().tracef("Timed out attempting to acquire lock for key %s after %s", key, Util.prettyPrintTime(timeout, unit));
-
-         // We didn't acquire the lock, but we still incremented the reference count.
-         // We may need to delete the entry if the owner thread released it just after we timed out.
-         // We use an atomic operation here as another thread might be trying to increment the ref count
-         // at the same time (otherwise it would make the acquire function at the beginning more complicated).
-         locks.computeIfPresent(key, new EquivalentConcurrentHashMapV8.BiFun<Object, L, L>() {
-            @Override
-            public L apply(Object key, L lock) {
-               // This will happen atomically in the CHM
-               // We have a reference, so value can't be null
-               boolean remove = lock.getReferenceCounter().decrementAndGet() == 0;
-               return remove ? null : lock;
-            }
-         });
          return null;
       }
    }
 
    @Override
    public void releaseLock(final Object lockOwner, Object key) {
-      locks.computeIfPresent(key, new EquivalentConcurrentHashMapV8.BiFun<Object, L, L>() {
-         @Override
-         public L apply(Object key, L lock) {
-            // This will happen atomically in the CHM
-            // We have a reference, so value can't be null
-            Log log = getLog();
-            if (log.isTraceEnabled())
-               log.tracef("Unlocking lock instance for key %s", toStr(key));
+      L lock = locks.get(key);
+      if (lock == null)
+         return;
+
+      Log log = getLog();
+      if (log.isTraceEnabled())
+         log.tracef("Unlocking lock instance for key %s", toStr(key));
+
+      releasingLock(key);
+      // If the unlock is not successful, an exception will propagate and the reference is kept.
+      unlock(lock, lockOwner);
+      releaseReference(lock);
+   }
 
-            unlock(lock, lockOwner);
+   /**
+    * Increments the reference counter of a lock, unless it already dropped to 0.
+    */
+   private boolean addReference(L lock) {
+      AtomicInteger references = lock.getReferenceCounter();
+      int refCount;
+      do {
+         refCount = references.get();
+         if (refCount <= 0) {
+            // Being removed
+            return false;
+         }
+      } while (!references.compareAndSet(refCount, refCount + 1));
+      return true;
+   }
 
-            int refCount = lock.getReferenceCounter().decrementAndGet();
-            boolean remove = refCount == 0;
-            if (refCount < 0) {
-               throw new IllegalStateException("Negative reference count for lock " + key + ": " + lock);
-            }
+   /**
+    * Decrements the reference counter of a lock, removing it from the map and returning it to the pool if this was
+    * the last reference.
+    */
+   private void releaseReference(L lock) {
+      int refCount = lock.getReferenceCounter().decrementAndGet();
+      if (refCount == 0) {
+         Object key = lock.getKey();
+         locks.remove(key, lock);
+         recycleLock(lock);
+      } else if (refCount < 0) {
+         throw new IllegalStateException("Negative reference count for lock " + lock.getKey() + ": " + lock);
+      }
+   }
 
-            // Ok, unlock was successful.  If the unlock was not successful, an exception will propagate and the entry will not be changed.
-            return remove ? null : lock;
+   private L obtainLock(Object key) {
+      int mask = pool.length() - 1;
+      int start = poolIndex();
+      for (int i = 0; i < POOL_PROBES; i++) {
+         int index = (start + i) & mask;
+         L lock = pool.get(index);
+         if (lock != null && pool.compareAndSet(index, lock, null)) {
+            lock.setKey(key);
+            // Publishes the key to the threads that still have a reference from a previous use of the lock
+            lock.getReferenceCounter().set(1);
+            return lock;
          }
-      });
+      }
+      L lock = newLock();
+      lock.setKey(key);
+      return lock;
+   }
+
+   private void recycleLock(L lock) {
+      lock.setKey(null);
+      int mask = pool.length() - 1;
+      int start = poolIndex();
+      for (int i = 0; i < POOL_PROBES; i++) {
+         if (pool.compareAndSet((start + i) & mask, null, lock))
+            return;
+      }
+   }
+
+   private int poolIndex() {
+      long id = Thread.currentThread().getId();
+      return (int) (id ^ (id >>> 16)) * POOL_PROBES;
    }
 
    @Override
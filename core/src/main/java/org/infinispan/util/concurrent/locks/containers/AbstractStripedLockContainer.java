@@ -16,10 +16,9 @@
 public abstract class AbstractStripedLockContainer<L extends Lock> extends AbstractLockContainer<L> {
    private int lockSegmentMask;
    private int lockSegmentShift;
-   private final Equivalence<Object> keyEquivalence;
 
    protected AbstractStripedLockContainer(Equivalence<Object> keyEquivalence) {
-      this.keyEquivalence = keyEquivalence;
+      super(keyEquivalence);
    }
 
    final int calculateNumberOfSegments(int concurrencyLevel) {
@@ -68,12 +67,17 @@ public L acquireLock(Object lockOwner, Object key, long timeout, TimeUnit unit)
          safeRelease(lock, lockOwner);
          locked = false;
       }
-      return locked ? lock : null;
+      if (locked) {
+         lockAcquired(key);
+         return lock;
+      }
+      return null;
    }
 
    @Override
    public void releaseLock(Object lockOwner, Object key) {
       final L lock = getLock(key);
+      releasingLock(key);
       safeRelease(lock, lockOwner);
    }
 
@@ -73,4 +73,22 @@
     * @return the ID of the lock.
     */
    int getLockId(Object key);
+
+   /**
+    * Starts an optimistic read of the data guarded by the lock of the given key, without acquiring the lock.
+    * <p />
+    * The read is valid only if {@link #validate(Object, long)} returns {@code true} afterwards, i.e. if no lock was
+    * acquired or released on the key in the meantime.
+    *
+    * @param key key to read
+    * @return a non-zero stamp, or 0 if the key is locked
+    */
+   long tryOptimisticRead(Object key);
+
+   /**
+    * @param key key that was read
+    * @param stamp stamp returned by {@link #tryOptimisticRead(Object)}
+    * @return {@code true} if the key was not locked since the stamp was obtained
+    */
+   boolean validate(Object key, long stamp);
 }
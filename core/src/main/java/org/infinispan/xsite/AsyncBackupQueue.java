@@ -0,0 +1,204 @@
+package org.infinispan.xsite;
+
+import org.infinispan.commands.write.ClearCommand;
+import org.infinispan.commands.write.WriteCommand;
+import org.infinispan.configuration.cache.XSiteAsyncBatchingConfiguration;
+import org.infinispan.util.TimeService;
+import org.infinispan.util.concurrent.TimeoutException;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Queue of the modifications backed up asynchronously to a site, when batching is enabled for it.
+ * <p>
+ * Only the last modification of each key is kept, so several writes to the same key between two flushes are sent as a
+ * single one. A clear discards the modifications queued before it. The modifications offered together (e.g. the ones
+ * of a transaction) are always drained together.
+ * <p>
+ * The queue is bounded by {@link XSiteAsyncBatchingConfiguration#maxQueueSize()}: the writers wait for the queue to be
+ * drained when it is full. The modifications drained but not applied by the remote site are queued again, before the
+ * ones queued meanwhile.
+ * <p>
+ * This is an internal class, not intended to be used by clients.
+ *
+ * @since 7.2
+ */
+final class AsyncBackupQueue {
+
+   private final XSiteBackup backup;
+   private final XSiteAsyncBatchingConfiguration configuration;
+   private final TimeService timeService;
+   private final AtomicBoolean flushing = new AtomicBoolean();
+   //guarded by this
+   private Map<Object, WriteCommand> pending = new LinkedHashMap<Object, WriteCommand>();
+   private ClearCommand pendingClear;
+   private long oldestPendingTime = -1;
+   private volatile long oldestInFlightTime = -1;
+
+   AsyncBackupQueue(XSiteBackup backup, XSiteAsyncBatchingConfiguration configuration, TimeService timeService) {
+      this.backup = backup;
+      this.configuration = configuration;
+      this.timeService = timeService;
+   }
+
+   /**
+    * @return the backup used to send the batches, synchronously so they're applied in order on the remote site
+    */
+   XSiteBackup getBackup() {
+      return backup;
+   }
+
+   XSiteAsyncBatchingConfiguration getConfiguration() {
+      return configuration;
+   }
+
+   /**
+    * Queues the modifications, waiting for the queue to have room for them if it is full.
+    *
+    * @param timeout the time (in milliseconds) to wait for the queue to have room
+    * @return the number of queued modifications
+    * @throws TimeoutException if the queue is still full after the timeout
+    */
+   synchronized int offer(Collection<WriteCommand> modifications, long timeout) throws InterruptedException {
+      if (modifications.isEmpty()) {
+         return size();
+      }
+      long waitNanos = TimeUnit.MILLISECONDS.toNanos(timeout);
+      long deadline = System.nanoTime() + waitNanos;
+      while (size() >= configuration.maxQueueSize()) {
+         if (waitNanos <= 0) {
+            throw new TimeoutException("Timed out waiting for the asynchronous backup queue of site " +
+                                             backup.getSiteName() + " to have room for more modifications");
+         }
+         TimeUnit.NANOSECONDS.timedWait(this, waitNanos);
+         waitNanos = deadline - System.nanoTime();
+      }
+      if (oldestPendingTime < 0) {
+         oldestPendingTime = timeService.wallClockTime();
+      }
+      for (WriteCommand modification : modifications) {
+         if (modification instanceof ClearCommand) {
+            pending.clear();
+            pendingClear = (ClearCommand) modification;
+            continue;
+         }
+         Object key = keyOf(modification);
+         //remove first, so the modification is moved after the ones queued meanwhile
+         pending.remove(key);
+         pending.put(key, modification);
+      }
+      return size();
+   }
+
+   /**
+    * Removes all the queued modifications, a clear being always the first one.
+    */
+   synchronized List<WriteCommand> drain() {
+      if (pending.isEmpty() && pendingClear == null) {
+         return Collections.emptyList();
+      }
+      List<WriteCommand> modifications = new ArrayList<WriteCommand>(size());
+      if (pendingClear != null) {
+         modifications.add(pendingClear);
+      }
+      modifications.addAll(pending.values());
+      pending = new LinkedHashMap<Object, WriteCommand>();
+      pendingClear = null;
+      oldestInFlightTime = oldestPendingTime;
+      oldestPendingTime = -1;
+      notifyAll();
+      return modifications;
+   }
+
+   /**
+    * Queues again the modifications drained that could not be applied by the remote site. They are queued before the
+    * ones queued meanwhile, unless those contain a clear or a modification of the same key.
+    */
+   synchronized void requeue(List<WriteCommand> modifications) {
+      if (pendingClear == null) {
+         Map<Object, WriteCommand> requeued = new LinkedHashMap<Object, WriteCommand>();
+         for (WriteCommand modification : modifications) {
+            if (modification instanceof ClearCommand) {
+               pendingClear = (ClearCommand) modification;
+               continue;
+            }
+            Object key = keyOf(modification);
+            if (!pending.containsKey(key)) {
+               requeued.put(key, modification);
+            }
+         }
+         requeued.putAll(pending);
+         pending = requeued;
+      }
+      long inFlightTime = oldestInFlightTime;
+      if (inFlightTime >= 0 && (oldestPendingTime < 0 || inFlightTime < oldestPendingTime)) {
+         oldestPendingTime = inFlightTime;
+      }
+   }
+
+   /**
+    * Invoked when the modifications drained were sent, successfully or not.
+    */
+   void sent() {
+      oldestInFlightTime = -1;
+   }
+
+   /**
+    * @return false if another thread is flushing this queue
+    */
+   boolean startFlush() {
+      return flushing.compareAndSet(false, true);
+   }
+
+   void endFlush() {
+      flushing.set(false);
+   }
+
+   boolean isFlushing() {
+      return flushing.get();
+   }
+
+   /**
+    * Removes all the queued modifications, when the site is offline.
+    *
+    * @return the number of modifications removed
+    */
+   synchronized int discard() {
+      int size = size();
+      pending = new LinkedHashMap<Object, WriteCommand>();
+      pendingClear = null;
+      oldestPendingTime = -1;
+      notifyAll();
+      return size;
+   }
+
+   synchronized int size() {
+      return pending.size() + (pendingClear == null ? 0 : 1);
+   }
+
+   /**
+    * @return the time (in milliseconds) since the oldest modification not yet applied on the remote site was queued,
+    *         or 0 if there is none
+    */
+   long lag() {
+      long oldest = oldestInFlightTime;
+      if (oldest < 0) {
+         synchronized (this) {
+            oldest = oldestPendingTime;
+         }
+      }
+      return oldest < 0 ? 0 : Math.max(0, timeService.wallClockTime() - oldest);
+   }
+
+   private static Object keyOf(WriteCommand modification) {
+      Collection<Object> keys = modification.getAffectedKeys();
+      return keys != null && keys.size() == 1 ? keys.iterator().next() : new Object();
+   }
+}
@@ -2,9 +2,12 @@
 
 import org.infinispan.Cache;
 import org.infinispan.commands.VisitableCommand;
+import org.infinispan.commands.write.WriteCommand;
 import org.infinispan.xsite.statetransfer.XSiteStatePushCommand;
 import org.infinispan.xsite.statetransfer.XSiteStateTransferControlCommand;
 
+import java.util.List;
+
 /**
  * Component present on a backup site that manages the backup information and logic.
  *
@@ -18,6 +21,12 @@ public interface BackupReceiver {
 
    Object handleRemoteCommand(VisitableCommand command) throws Throwable;
 
+   /**
+    * It handles a batch of modifications queued by an asynchronous backup. The modifications are applied in a single
+    * transaction if the cache is transactional.
+    */
+   Object handleRemoteBatch(List<WriteCommand> modifications) throws Throwable;
+
    /**
     * It handles the state transfer control from a remote site. The control command must be broadcast to the entire
     * cluster in which the cache exists.
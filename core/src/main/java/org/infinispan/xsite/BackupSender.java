@@ -47,6 +47,18 @@ public interface BackupSender {
     */
    Map<String, Boolean> status();
 
+   /**
+    * Returns the number of modifications queued for the given site, or -1 if batching is not enabled for its
+    * asynchronous backup.
+    */
+   int asyncQueueSize(String siteName);
+
+   /**
+    * Returns the time (in milliseconds) since the oldest modification queued for the given site and not yet applied on
+    * it was queued, or -1 if batching is not enabled for its asynchronous backup.
+    */
+   long asyncReplicationLag(String siteName);
+
    public enum BringSiteOnlineResponse {
       NO_SUCH_SITE,
       ALREADY_ONLINE,
@@ -13,6 +13,7 @@
 import org.infinispan.commands.write.RemoveCommand;
 import org.infinispan.commands.write.ReplaceCommand;
 import org.infinispan.commands.write.WriteCommand;
+import org.infinispan.commons.marshall.StreamingMarshaller;
 import org.infinispan.commons.util.CollectionFactory;
 import org.infinispan.commons.util.Util;
 import org.infinispan.configuration.cache.BackupConfiguration;
@@ -22,8 +23,10 @@
 import org.infinispan.configuration.global.GlobalConfiguration;
 import org.infinispan.context.InvocationContext;
 import org.infinispan.context.impl.TxInvocationContext;
+import org.infinispan.factories.annotations.ComponentName;
 import org.infinispan.factories.annotations.Inject;
 import org.infinispan.factories.annotations.Start;
+import org.infinispan.factories.annotations.Stop;
 import org.infinispan.remoting.transport.AggregateBackupResponse;
 import org.infinispan.remoting.transport.BackupResponse;
 import org.infinispan.remoting.transport.Transport;
@@ -40,12 +43,28 @@
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import static org.infinispan.factories.KnownComponentNames.CACHE_MARSHALLER;
 
 /**
+ * Sends the modifications to the backup sites.
+ * <p>
+ * The modifications backed up asynchronously to a site with batching enabled are queued in an {@link AsyncBackupQueue}
+ * and periodically sent in a single {@link BatchXSiteRpcCommand}. The batches are sent one at a time, synchronously,
+ * so the remote site applies them in order and the replication lag can be measured. They are sent by a thread pool
+ * dedicated to this cache, with a thread per site, and a batch the remote site failed to apply is sent again with the
+ * next one, until the site is taken offline.
+ *
  * @author Mircea Markus
  * @since 5.2
  */
@@ -62,6 +81,10 @@ public class BackupSenderImpl implements BackupSender {
    private CommandsFactory commandsFactory;
    private final Map<String, CustomFailurePolicy> siteFailurePolicy = new HashMap<String, CustomFailurePolicy>();
    private final ConcurrentMap<String, OfflineStatus> offlineStatus = CollectionFactory.makeConcurrentMap();
+   private final Map<String, AsyncBackupQueue> asyncBackupQueues = new HashMap<String, AsyncBackupQueue>();
+   private final List<ScheduledFuture<?>> asyncBackupFlushes = new ArrayList<ScheduledFuture<?>>();
+   private ScheduledExecutorService asyncBackupExecutor;
+   private StreamingMarshaller marshaller;
 
 
    private final String localSiteName;
@@ -76,8 +99,10 @@ public BackupSenderImpl(String localSiteName) {
 
    @Inject
    public void init(Cache cache, Transport transport, TransactionTable txTable, GlobalConfiguration gc,
-                    TimeService timeService, CommandsFactory commandsFactory) {
+                    TimeService timeService, CommandsFactory commandsFactory,
+                    @ComponentName(CACHE_MARSHALLER) StreamingMarshaller marshaller) {
       this.cache = cache;
+      this.marshaller = marshaller;
       this.transport = transport;
       this.txTable = txTable;
       this.globalConfig = gc;
@@ -101,6 +126,53 @@ public void start() {
          }
          OfflineStatus offline = new OfflineStatus(bc.takeOffline(), timeService);
          offlineStatus.put(bc.site(), offline);
+         if (bc.isAsyncBackup() && bc.asyncBatching().enabled() && !bc.site().equals(localSiteName)) {
+            asyncBackupQueues.put(bc.site(), new AsyncBackupQueue(new XSiteBackup(bc.site(), true, bc.replicationTimeout()),
+                                                                  bc.asyncBatching(), timeService));
+         }
+      }
+      if (!asyncBackupQueues.isEmpty()) {
+         startAsyncBackupQueues();
+      }
+   }
+
+   @Stop
+   public void stop() {
+      for (ScheduledFuture<?> flush : asyncBackupFlushes) {
+         flush.cancel(false);
+      }
+      asyncBackupFlushes.clear();
+      for (AsyncBackupQueue queue : asyncBackupQueues.values()) {
+         try {
+            flush(queue);
+         } catch (Exception e) {
+            log.debug("Unable to perform final flush of the asynchronous backups before shutting down", e);
+         }
+      }
+      if (asyncBackupExecutor != null) {
+         asyncBackupExecutor.shutdownNow();
+      }
+   }
+
+   private void startAsyncBackupQueues() {
+      ThreadFactory tf = new ThreadFactory() {
+         @Override
+         public Thread newThread(Runnable r) {
+            Thread th = new Thread(r, "XSiteAsyncBackup," + cacheName + "," + localSiteName);
+            th.setDaemon(true);
+            return th;
+         }
+      };
+      //a thread per site, so a slow site doesn't delay the others
+      asyncBackupExecutor = Executors.newScheduledThreadPool(asyncBackupQueues.size(), tf);
+      for (final AsyncBackupQueue queue : asyncBackupQueues.values()) {
+         long flushInterval = queue.getConfiguration().flushInterval();
+         asyncBackupFlushes.add(asyncBackupExecutor.scheduleWithFixedDelay(new Runnable() {
+            @Override
+            public void run() {
+               flush(queue);
+            }
+         }, flushInterval, flushInterval, TimeUnit.MILLISECONDS));
       }
    }
 
@@ -114,7 +186,7 @@ public BackupResponse backupPrepare(PrepareCommand command) throws Exception {
                                                                    command.isOnePhaseCommit());
       //if we run a 2PC then filter out 1PC prepare backup calls as they will happen during the local commit phase.
       BackupFilter filter = !prepare.isOnePhaseCommit() ? BackupFilter.KEEP_2PC_ONLY : BackupFilter.KEEP_ALL;
-      List<XSiteBackup> backups = calculateBackupInfo(filter);
+      List<XSiteBackup> backups = queueAsyncBackups(calculateBackupInfo(filter), modifications);
       return backupCommand(prepare, backups);
    }
 
@@ -151,6 +223,9 @@ private void updateOfflineSites(BackupResponse backupResponse) {
    @Override
    public BackupResponse backupWrite(WriteCommand command) throws Exception {
       List<XSiteBackup> xSiteBackups = calculateBackupInfo(BackupFilter.KEEP_ALL);
+      if (!asyncBackupQueues.isEmpty()) {
+         xSiteBackups = queueAsyncBackups(xSiteBackups, filterModifications(Collections.singletonList(command)));
+      }
       return backupCommand(command, xSiteBackups);
    }
 
@@ -194,16 +269,141 @@ public TakeSiteOfflineResponse takeSiteOffline(String siteName) {
    }
 
    private BackupResponse backupCommand(VisitableCommand command, List<XSiteBackup> xSiteBackups) throws Exception {
+      if (xSiteBackups.isEmpty()) {
+         return EMPTY_RESPONSE;
+      }
       return transport.backupRemotely(xSiteBackups, commandsFactory.buildSingleXSiteRpcCommand(command));
    }
 
+   /**
+    * Queues the modifications for the backups with batching enabled.
+    *
+    * @return the backups the modifications must still be sent to
+    */
+   private List<XSiteBackup> queueAsyncBackups(List<XSiteBackup> xSiteBackups, List<WriteCommand> modifications)
+         throws InterruptedException {
+      if (asyncBackupQueues.isEmpty() || xSiteBackups.isEmpty()) {
+         return xSiteBackups;
+      }
+      List<WriteCommand> toQueue = null;
+      List<XSiteBackup> remaining = new ArrayList<XSiteBackup>(xSiteBackups);
+      for (Iterator<XSiteBackup> iterator = remaining.iterator(); iterator.hasNext(); ) {
+         XSiteBackup backup = iterator.next();
+         final AsyncBackupQueue queue = backup.isSync() ? null : asyncBackupQueues.get(backup.getSiteName());
+         if (queue == null) {
+            continue;
+         }
+         iterator.remove();
+         if (toQueue == null) {
+            toQueue = splitPutMapCommands(modifications);
+         }
+         int size = queue.offer(toQueue, backup.getTimeout());
+         if (size >= queue.getConfiguration().maxModifications() && !queue.isFlushing()) {
+            asyncBackupExecutor.execute(new Runnable() {
+               @Override
+               public void run() {
+                  flush(queue);
+               }
+            });
+         }
+      }
+      return remaining;
+   }
+
+   /**
+    * Replaces the put all commands by a put command per entry, so they can be coalesced with the other writes to the
+    * same keys.
+    */
+   private List<WriteCommand> splitPutMapCommands(List<WriteCommand> modifications) {
+      List<WriteCommand> split = new ArrayList<WriteCommand>(modifications.size());
+      for (WriteCommand modification : modifications) {
+         if (modification instanceof PutMapCommand) {
+            for (Map.Entry<Object, Object> entry : ((PutMapCommand) modification).getMap().entrySet()) {
+               split.add(commandsFactory.buildPutKeyValueCommand(entry.getKey(), entry.getValue(),
+                                                                 modification.getMetadata(), modification.getFlags()));
+            }
+         } else {
+            split.add(modification);
+         }
+      }
+      return split;
+   }
+
+   private void flush(AsyncBackupQueue queue) {
+      if (!queue.startFlush()) {
+         //the running flush checks the queue size before ending
+         return;
+      }
+      try {
+         String site = queue.getBackup().getSiteName();
+         int maxModifications = queue.getConfiguration().maxModifications();
+         do {
+            OfflineStatus status = offlineStatus.get(site);
+            if (status != null && status.isOffline()) {
+               int discarded = queue.discard();
+               if (discarded > 0) {
+                  log.debugf("Discarding %s modifications queued for site %s as it is offline", discarded, site);
+               }
+               return;
+            }
+            List<WriteCommand> modifications = queue.drain();
+            if (modifications.isEmpty()) {
+               return;
+            }
+            log.tracef("Flushing %s modifications to site %s", modifications.size(), site);
+            boolean applied = false;
+            try {
+               BackupResponse response = transport.backupRemotely(Collections.singletonList(queue.getBackup()),
+                                                                  buildBatchCommand(queue, modifications));
+               response.waitForBackupToFinish();
+               updateOfflineSites(response);
+               Throwable failure = response.getFailedBackups().get(site);
+               if (failure == null) {
+                  applied = true;
+               } else {
+                  log.warnXsiteBackupFailed(cacheName, site, failure);
+               }
+            } catch (InterruptedException e) {
+               Thread.currentThread().interrupt();
+               return;
+            } catch (Exception e) {
+               log.warnXsiteBackupFailed(cacheName, site, e);
+            } finally {
+               if (!applied) {
+                  //sent again with the next batch
+                  queue.requeue(modifications);
+               }
+               queue.sent();
+            }
+            if (!applied) {
+               return;
+            }
+         } while (queue.size() >= maxModifications);
+      } finally {
+         queue.endFlush();
+      }
+   }
+
+   private BatchXSiteRpcCommand buildBatchCommand(AsyncBackupQueue queue, List<WriteCommand> modifications) {
+      if (queue.getConfiguration().compression()) {
+         try {
+            return commandsFactory.buildBatchXSiteRpcCommand(null, BatchXSiteRpcCommand.compress(marshaller, modifications));
+         } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+         } catch (Exception e) {
+            log.debug("Unable to compress the modifications, sending them uncompressed", e);
+         }
+      }
+      return commandsFactory.buildBatchXSiteRpcCommand(modifications, null);
+   }
+
    private BackupResponse sendTo1PCBackups(CommitCommand command) throws Exception {
       final LocalTransaction localTx = txTable.getLocalTransaction(command.getGlobalTransaction());
       List<WriteCommand> modifications = filterModifications(localTx.getModifications());
       if (modifications.isEmpty()) {
          return EMPTY_RESPONSE;
       }
-      List<XSiteBackup> backups = calculateBackupInfo(BackupFilter.KEEP_1PC_ONLY);
+      List<XSiteBackup> backups = queueAsyncBackups(calculateBackupInfo(BackupFilter.KEEP_1PC_ONLY), modifications);
       PrepareCommand prepare = commandsFactory.buildPrepareCommand(command.getGlobalTransaction(),
                                                                    modifications, true);
       return backupCommand(prepare, backups);
@@ -372,6 +572,18 @@ public OfflineStatus getOfflineStatus(String site) {
       return offlineStatus.get(site);
    }
 
+   @Override
+   public int asyncQueueSize(String siteName) {
+      AsyncBackupQueue queue = asyncBackupQueues.get(siteName);
+      return queue == null ? -1 : queue.size();
+   }
+
+   @Override
+   public long asyncReplicationLag(String siteName) {
+      AsyncBackupQueue queue = asyncBackupQueues.get(siteName);
+      return queue == null ? -1 : queue.lag();
+   }
+
    @Override
    public Map<String, Boolean> status() {
       Map<String, Boolean> result = new HashMap<String, Boolean>(offlineStatus.size());
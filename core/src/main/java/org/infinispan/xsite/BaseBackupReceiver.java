@@ -30,6 +30,7 @@
 import org.infinispan.xsite.statetransfer.XSiteStatePushCommand;
 
 import javax.transaction.TransactionManager;
+import java.util.Arrays;
 import java.util.List;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
@@ -69,6 +70,12 @@ public final Object handleRemoteCommand(VisitableCommand command) throws Throwab
       return command.acceptVisitor(null, siteUpdater);
    }
 
+   @Override
+   public final Object handleRemoteBatch(List<WriteCommand> modifications) throws Throwable {
+      siteUpdater.replayBatch(modifications);
+      return null;
+   }
+
    public static final class BackupCacheUpdater extends AbstractVisitor {
 
       private static Log log = LogFactory.getLog(BackupCacheUpdater.class);
@@ -221,12 +228,42 @@ private void replayModificationsInTransaction(PrepareCommand command, boolean on
          }
       }
 
+      private void replayBatch(List<WriteCommand> modifications) throws Throwable {
+         if (!isTransactional()) {
+            replayModifications(modifications);
+            return;
+         }
+         TransactionManager tm = txManager();
+         boolean replaySuccessful = false;
+         tm.begin();
+         try {
+            replayModifications(modifications);
+            replaySuccessful = true;
+         } finally {
+            LocalTransaction localTx = txTable().getLocalTransaction(tm.getTransaction());
+            if (localTx != null) {
+               localTx.setFromRemoteSite(true);
+            }
+            if (replaySuccessful) {
+               log.tracef("Committing batch of %s remote modifications", modifications.size());
+               tm.commit();
+            } else {
+               log.tracef("Rolling back batch of %s remote modifications", modifications.size());
+               tm.rollback();
+            }
+         }
+      }
+
       private TransactionManager txManager() {
          return backupCache.getAdvancedCache().getTransactionManager();
       }
 
       private void replayModifications(PrepareCommand command) throws Throwable {
-         for (WriteCommand c : command.getModifications()) {
+         replayModifications(Arrays.asList(command.getModifications()));
+      }
+
+      private void replayModifications(List<WriteCommand> modifications) throws Throwable {
+         for (WriteCommand c : modifications) {
             c.acceptVisitor(null, this);
          }
       }
@@ -0,0 +1,128 @@
+package org.infinispan.xsite;
+
+import org.infinispan.commands.write.WriteCommand;
+import org.infinispan.commons.CacheException;
+import org.infinispan.commons.marshall.StreamingMarshaller;
+import org.infinispan.context.InvocationContext;
+
+import java.io.ByteArrayOutputStream;
+import java.util.List;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * RPC command to replicate a batch of modifications, queued by the asynchronous backup of a site, to the backup site.
+ * The modifications are either sent as is or marshalled and compressed.
+ *
+ * @since 7.2
+ */
+public class BatchXSiteRpcCommand extends XSiteReplicateCommand {
+
+   public static final byte COMMAND_ID = 47;
+   private List<WriteCommand> modifications;
+   private byte[] compressedModifications;
+
+   public BatchXSiteRpcCommand(String cacheName, List<WriteCommand> modifications, byte[] compressedModifications) {
+      super(cacheName);
+      this.modifications = modifications;
+      this.compressedModifications = compressedModifications;
+   }
+
+   public BatchXSiteRpcCommand(String cacheName) {
+      super(cacheName);
+   }
+
+   public BatchXSiteRpcCommand() {
+      super(null);
+   }
+
+   /**
+    * Marshalls and compresses the modifications, to be sent with {@link #BatchXSiteRpcCommand(String, List, byte[])}.
+    */
+   public static byte[] compress(StreamingMarshaller marshaller, List<WriteCommand> modifications) throws Exception {
+      byte[] bytes = marshaller.objectToByteBuffer(modifications);
+      Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+      try {
+         deflater.setInput(bytes);
+         deflater.finish();
+         ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length / 2 + 16);
+         byte[] buffer = new byte[4096];
+         while (!deflater.finished()) {
+            out.write(buffer, 0, deflater.deflate(buffer));
+         }
+         return out.toByteArray();
+      } finally {
+         deflater.end();
+      }
+   }
+
+   @SuppressWarnings("unchecked")
+   private static List<WriteCommand> decompress(StreamingMarshaller marshaller, byte[] compressed) throws Exception {
+      Inflater inflater = new Inflater();
+      try {
+         inflater.setInput(compressed);
+         ByteArrayOutputStream out = new ByteArrayOutputStream(compressed.length * 4);
+         byte[] buffer = new byte[4096];
+         while (!inflater.finished()) {
+            int length = inflater.inflate(buffer);
+            if (length == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+               throw new DataFormatException("Truncated batch of modifications");
+            }
+            out.write(buffer, 0, length);
+         }
+         return (List<WriteCommand>) marshaller.objectFromByteBuffer(out.toByteArray());
+      } finally {
+         inflater.end();
+      }
+   }
+
+   @Override
+   public Object performInLocalSite(BackupReceiver receiver) throws Throwable {
+      List<WriteCommand> toApply = modifications;
+      if (toApply == null) {
+         StreamingMarshaller marshaller = receiver.getCache().getAdvancedCache().getComponentRegistry()
+               .getCacheMarshaller();
+         toApply = decompress(marshaller, compressedModifications);
+      }
+      return receiver.handleRemoteBatch(toApply);
+   }
+
+   @Override
+   public Object perform(InvocationContext ctx) throws Throwable {
+      throw new CacheException("BatchXSiteRpcCommand can only be performed in the backup site");
+   }
+
+   @Override
+   public byte getCommandId() {
+      return COMMAND_ID;
+   }
+
+   @Override
+   public Object[] getParameters() {
+      return new Object[]{modifications, compressedModifications};
+   }
+
+   @SuppressWarnings("unchecked")
+   @Override
+   public void setParameters(int commandId, Object[] parameters) {
+      if (commandId != COMMAND_ID) {
+         throw new IllegalArgumentException("Unusupported command id:" + commandId);
+      }
+      modifications = (List<WriteCommand>) parameters[0];
+      compressedModifications = (byte[]) parameters[1];
+   }
+
+   @Override
+   public boolean isReturnValueExpected() {
+      return false;
+   }
+
+   @Override
+   public String toString() {
+      return "BatchXSiteRpcCommand{" +
+            "modifications=" + (modifications == null ? "<compressed>" : modifications.size()) +
+            ", compressedSize=" + (compressedModifications == null ? 0 : compressedModifications.length) +
+            '}';
+   }
+}
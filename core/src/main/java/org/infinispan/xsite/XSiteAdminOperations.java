@@ -210,6 +210,20 @@ public String getTakeOfflineAfterFailures(@Parameter(name = "site", description
       return String.valueOf(offlineStatus.getTakeOffline().afterFailures());
    }
 
+   @ManagedOperation(description = "Returns the number of modifications queued on this node for the batched asynchronous backup to the given site.", displayName = "Returns the number of modifications queued for the batched asynchronous backup.")
+   public String getAsyncQueueSize(@Parameter(name = "site", description = "The name of the backup site") String site) {
+      if (backupSender.getOfflineStatus(site) == null) return incorrectSiteName(site);
+      int size = backupSender.asyncQueueSize(site);
+      return size < 0 ? "Batching is not enabled for site " + site : String.valueOf(size);
+   }
+
+   @ManagedOperation(description = "Returns the time (in milliseconds) since the oldest modification not yet applied on the given site was queued on this node by the batched asynchronous backup.", displayName = "Returns the replication lag of the batched asynchronous backup.")
+   public String getAsyncReplicationLag(@Parameter(name = "site", description = "The name of the backup site") String site) {
+      if (backupSender.getOfflineStatus(site) == null) return incorrectSiteName(site);
+      long lag = backupSender.asyncReplicationLag(site);
+      return lag < 0 ? "Batching is not enabled for site " + site : String.valueOf(lag);
+   }
+
    @ManagedOperation(description = "Brings the given site back online on all the cluster.", displayName = "Brings the given site back online on all the cluster.")
    public String bringSiteOnline(@Parameter(name = "site", description = "The name of the backup site") String site) {
       OfflineStatus offlineStatus = backupSender.getOfflineStatus(site);
@@ -243,6 +257,36 @@ public final String pushState(@Parameter(description = "The destination site nam
       return SUCCESS;
    }
 
+   @ManagedOperation(displayName = "Resume push state to site",
+                     description = "Resumes a failed or canceled push state to the remote site. The segments " +
+                           "already pushed are not sent again. The remote site will be bring back online",
+                     name = "resumePushState")
+   public final String resumePushState(@Parameter(description = "The destination site name", name = "SiteName") String siteName) {
+      String status = bringSiteOnline(siteName);
+      if (!SUCCESS.equals(status)) {
+         return String.format("Unable to resume pushState to '%s'. %s", siteName, status);
+      }
+      try {
+         stateTransferManager.resumePushState(siteName);
+      } catch (Throwable throwable) {
+         log.debugf(throwable, "Unable to resume pushState to '%s'.", siteName);
+         return String.format("Unable to resume pushState to '%s'. %s", siteName, throwable.getLocalizedMessage());
+      }
+      return SUCCESS;
+   }
+
+   @ManagedOperation(displayName = "Push State Progress",
+                     description = "Shows a map with the node address and the progress of the state pushed by it " +
+                           "to the remote site: entries and chunks sent, completed segments and throughput.",
+                     name = "PushStateProgress")
+   public final Map<String, String> getPushStateProgress(@Parameter(description = "The destination site name", name = "SiteName") String siteName) {
+      try {
+         return stateTransferManager.getClusterPushProgress(siteName);
+      } catch (Exception e) {
+         return Collections.singletonMap(XSiteStateTransferManager.STATUS_ERROR, e.getLocalizedMessage());
+      }
+   }
+
    /**
     * for debug only!
     */
@@ -1,6 +1,7 @@
 package org.infinispan.xsite.statetransfer;
 
 import org.infinispan.remoting.transport.Address;
+import org.infinispan.statetransfer.StateTransferProgress;
 
 import java.util.Collection;
 
@@ -21,6 +22,17 @@ public interface XSiteStateProvider {
     */
    public void startStateTransfer(String siteName, Address requestor, int minTopologyId);
 
+   /**
+    * It notifies this node to resume sending state to the remote site. The segments completed by the previous state
+    * transfer to the remote site are not sent again. If there was no previous state transfer, it is the same as {@link
+    * #startStateTransfer(String, Address, int)}.
+    *
+    * @param siteName      the remote site name.
+    * @param requestor     the requestor.
+    * @param minTopologyId the minimum topology id to wait for before sending state.
+    */
+   public void resumeStateTransfer(String siteName, Address requestor, int minTopologyId);
+
    /**
     * It cancels the state transfer for the remote site. If no state transfer is available, it should do nothing.
     *
@@ -37,4 +49,17 @@ public interface XSiteStateProvider {
     * @return a site name collection with sites in which the coordinator is not in the {@code currentMembers}.
     */
    public Collection<String> getSitesMissingCoordinator(Collection<Address> currentMembers);
+
+   /**
+    * @return the progress of the last state transfer from this node to the remote site, or {@code null} if none
+    *         was started.
+    */
+   public StateTransferProgress getStatePushProgress(String siteName);
+
+   /**
+    * Discards the progress of the last state transfer to the remote site, so the next one starts from the beginning.
+    *
+    * @param siteName the remote site name.
+    */
+   public void clearStatePushProgress(String siteName);
 }
@@ -7,7 +7,9 @@
 import org.infinispan.configuration.cache.Configuration;
 import org.infinispan.configuration.cache.XSiteStateTransferConfiguration;
 import org.infinispan.container.DataContainer;
+import org.infinispan.container.SegmentedDataContainer;
 import org.infinispan.container.entries.InternalCacheEntry;
+import org.infinispan.distribution.ch.ConsistentHash;
 import org.infinispan.factories.annotations.ComponentName;
 import org.infinispan.factories.annotations.Inject;
 import org.infinispan.filter.CollectionKeyFilter;
@@ -20,7 +22,11 @@
 import org.infinispan.remoting.transport.Address;
 import org.infinispan.remoting.transport.RetryOnFailureXSiteCommand;
 import org.infinispan.statetransfer.StateTransferLock;
+import org.infinispan.statetransfer.StateTransferManager;
+import org.infinispan.statetransfer.StateTransferProgress;
+import org.infinispan.topology.CacheTopology;
 import org.infinispan.util.ReadOnlyDataContainerBackedKeySet;
+import org.infinispan.util.TimeService;
 import org.infinispan.util.concurrent.WithinThreadExecutor;
 import org.infinispan.util.logging.Log;
 import org.infinispan.util.logging.LogFactory;
@@ -30,12 +36,19 @@
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.infinispan.factories.KnownComponentNames.ASYNC_TRANSPORT_EXECUTOR;
 import static org.infinispan.persistence.spi.AdvancedCacheLoader.CacheLoaderTask;
@@ -46,6 +59,10 @@
 
 /**
  * It contains the logic to send state to another site.
+ * <p/>
+ * The state is pushed by segment and the completed segments are kept after the push is interrupted (by a topology
+ * change or a failure), so it can be resumed without sending them again. See {@link #resumeStateTransfer(String,
+ * Address, int)}.
  *
  * @author Pedro Ruivo
  * @since 7.0
@@ -53,12 +70,17 @@
 public class XSiteStateProviderImpl implements XSiteStateProvider {
 
    private static final int DEFAULT_CHUNK_SIZE = 1024;
+   /**
+    * The number of segments pushed by each pass over the data container and the cache store.
+    */
+   private static final int SEGMENTS_PER_PASS = 16;
    private static final ExecutorService EXECUTOR_SERVICE = new WithinThreadExecutor();
    private static final Log log = LogFactory.getLog(XSiteStateProviderImpl.class);
    private static final boolean trace = log.isTraceEnabled();
    private static final boolean debug = log.isDebugEnabled();
 
    private final ConcurrentMap<String, StatePushTask> runningStateTransfer;
+   private final ConcurrentMap<String, StateTransferProgress> pushProgress;
 
    private DataContainer<?, ?> dataContainer;
    private PersistenceManager persistenceManager;
@@ -69,9 +91,12 @@ public class XSiteStateProviderImpl implements XSiteStateProvider {
    private Configuration configuration;
    private XSiteStateTransferManager stateTransferManager;
    private StateTransferLock stateTransferLock;
+   private StateTransferManager localStateTransferManager;
+   private TimeService timeService;
 
    public XSiteStateProviderImpl() {
       runningStateTransfer = CollectionFactory.makeConcurrentMap();
+      pushProgress = CollectionFactory.makeConcurrentMap();
    }
 
    @Inject
@@ -79,7 +104,8 @@ public void inject(DataContainer dataContainer, PersistenceManager persistenceMa
                       ClusteringDependentLogic clusteringDependentLogic, CommandsFactory commandsFactory,
                       @ComponentName(value = ASYNC_TRANSPORT_EXECUTOR) ExecutorService executorService,
                       Configuration configuration, XSiteStateTransferManager xSiteStateTransferManager,
-                      StateTransferLock stateTransferLock) {
+                      StateTransferLock stateTransferLock, StateTransferManager localStateTransferManager,
+                      TimeService timeService) {
       this.dataContainer = dataContainer;
       this.persistenceManager = persistenceManager;
       this.clusteringDependentLogic = clusteringDependentLogic;
@@ -89,10 +115,31 @@ public void inject(DataContainer dataContainer, PersistenceManager persistenceMa
       this.configuration = configuration;
       this.stateTransferManager = xSiteStateTransferManager;
       this.stateTransferLock = stateTransferLock;
+      this.localStateTransferManager = localStateTransferManager;
+      this.timeService = timeService;
    }
 
    @Override
    public void startStateTransfer(String siteName, Address origin, int minTopologyId) {
+      startStateTransfer(siteName, origin, minTopologyId, false);
+   }
+
+   @Override
+   public void resumeStateTransfer(String siteName, Address origin, int minTopologyId) {
+      startStateTransfer(siteName, origin, minTopologyId, true);
+   }
+
+   @Override
+   public StateTransferProgress getStatePushProgress(String siteName) {
+      return pushProgress.get(siteName);
+   }
+
+   @Override
+   public void clearStatePushProgress(String siteName) {
+      pushProgress.remove(siteName);
+   }
+
+   private void startStateTransfer(String siteName, Address origin, int minTopologyId, boolean resume) {
       XSiteStateTransferConfiguration stateTransferConfiguration = null;
       for (BackupConfiguration backupConfiguration : configuration.sites().allBackups()) {
          if (backupConfiguration.site().equals(siteName)) {
@@ -105,11 +152,16 @@ public void startStateTransfer(String siteName, Address origin, int minTopologyI
          throw new CacheException("Unable to start X-Site State Transfer! Backup configuration not found for " +
                                         siteName + "!");
       }
-      StatePushTask task = new StatePushTask(siteName, origin, stateTransferConfiguration, minTopologyId);
+      StateTransferProgress progress = resume ? pushProgress.get(siteName) : null;
+      if (progress == null) {
+         progress = new StateTransferProgress(timeService);
+      }
+      StatePushTask task = new StatePushTask(siteName, origin, stateTransferConfiguration, minTopologyId, progress);
       if (runningStateTransfer.putIfAbsent(siteName, task) == null) {
          if (debug) {
-            log.debugf("Starting state transfer to site '%s'", siteName);
+            log.debugf("%s state transfer to site '%s'", resume ? "Resuming" : "Starting", siteName);
          }
+         pushProgress.put(siteName, progress);
          executorService.execute(task);
       } else if (debug) {
          log.debugf("Do not start state transfer to site '%s'. It has already started!", siteName);
@@ -175,28 +227,45 @@ private boolean shouldSendKey(Object key) {
       return clusteringDependentLogic.localNodeIsPrimaryOwner(key);
    }
 
-   private void sendFromSharedBuffer(XSiteBackup xSiteBackup, List<XSiteState> sharedBuffer, StatePushTask task) throws Throwable {
-      if (sharedBuffer.size() == 0) {
-         return;
-      }
-      XSiteState[] privateBuffer = sharedBuffer.toArray(new XSiteState[sharedBuffer.size()]);
-
+   private void sendChunk(XSiteBackup xSiteBackup, XSiteState[] chunk, StatePushTask task) throws Throwable {
       if (trace) {
          log.debugf("Sending chunk to site '%s'. Chunk contains %s", xSiteBackup.getSiteName(),
-                    Arrays.toString(privateBuffer));
+                    Arrays.toString(chunk));
       } else if (debug) {
-         log.debugf("Sending chunk to site '%s'. Chunk has %s keys.", xSiteBackup.getSiteName(), privateBuffer.length);
+         log.debugf("Sending chunk to site '%s'. Chunk has %s keys.", xSiteBackup.getSiteName(), chunk.length);
       }
 
-      XSiteStatePushCommand command = commandsFactory.buildXSiteStatePushCommand(privateBuffer, xSiteBackup.getTimeout());
+      XSiteStatePushCommand command = commandsFactory.buildXSiteStatePushCommand(chunk, xSiteBackup.getTimeout());
       RetryOnFailureXSiteCommand remoteSite = RetryOnFailureXSiteCommand.newInstance(xSiteBackup, command, task.retryPolicy);
       remoteSite.execute(rpcManager.getTransport(), task.waitTime, TimeUnit.MILLISECONDS);
    }
 
+   private Iterable<? extends InternalCacheEntry<?, ?>> entriesInSegments(ConsistentHash ch, Set<Integer> segments) {
+      return ch == null ? dataContainer : SegmentedDataContainer.entriesInSegments(dataContainer, ch, segments);
+   }
+
+   private boolean isSegmentedDataContainer(ConsistentHash ch) {
+      return ch != null && dataContainer instanceof SegmentedDataContainer
+            && ((SegmentedDataContainer) dataContainer).getNumSegments() == ch.getNumSegments();
+   }
+
+   private static int getSegment(ConsistentHash ch, Object key) {
+      return ch == null ? 0 : ch.getSegment(key);
+   }
+
    private void waitForTopology(int topologyId) throws InterruptedException {
       stateTransferLock.waitForTopology(topologyId, 1, TimeUnit.DAYS);
    }
 
+   /**
+    * Pushes the segments for which this node is the primary owner, skipping the segments already completed by a
+    * previous (interrupted) push. The segments are pushed in groups of {@link #SEGMENTS_PER_PASS}, or one by one with a
+    * segmented data container and no cache store: the data container and the cache store are iterated once per group
+    * and each entry is added to the chunks of its segment. The segments of a group are completed before the next group
+    * is iterated, and at most one partial chunk per segment of the group is kept in memory. Up to
+    * {@code maxInFlightChunks} chunks are sent without waiting for the remote site to apply the previous ones, so the
+    * iteration goes on while the chunks are in flight.
+    */
    private class StatePushTask implements Runnable {
 
       private final XSiteBackup xSiteBackup;
@@ -205,15 +274,25 @@ private class StatePushTask implements Runnable {
       private final RetryPolicy retryPolicy;
       private final long waitTime;
       private final int minTopologyId;
+      private final int maxInFlightChunks;
+      /**
+       * One permit for each chunk that can be sent before the remote site acknowledges the previous ones.
+       */
+      private final Semaphore credits;
+      private final StateTransferProgress progress;
       private volatile boolean finished;
       private volatile boolean canceled;
-      private boolean error;
+      private volatile boolean error;
 
-      public StatePushTask(String siteName, Address origin, XSiteStateTransferConfiguration configuration, int minTopologyId) {
+      public StatePushTask(String siteName, Address origin, XSiteStateTransferConfiguration configuration,
+                           int minTopologyId, StateTransferProgress progress) {
          this.minTopologyId = minTopologyId;
          this.chunkSize = configuration.chunkSize();
          this.waitTime = configuration.waitTime();
          this.retryPolicy = new MaxRetriesPolicy(configuration.maxRetries());
+         this.maxInFlightChunks = configuration.maxInFlightChunks();
+         this.credits = new Semaphore(maxInFlightChunks);
+         this.progress = progress;
          this.origin = origin;
          this.xSiteBackup = new XSiteBackup(siteName, true, configuration.timeout());
          this.canceled = false;
@@ -230,86 +309,39 @@ public void run() {
 
             waitForTopology(minTopologyId);
 
-            final List<XSiteState> chunk = new ArrayList<>(chunkSize <= 0 ? DEFAULT_CHUNK_SIZE : chunkSize);
-
-            if (debug) {
-               log.debugf("[X-Site State Transfer - %s] start DataContainer iteration", xSiteBackup.getSiteName());
+            CacheTopology cacheTopology = localStateTransferManager == null ? null :
+                  localStateTransferManager.getCacheTopology();
+            //without topology (i.e. local cache) all the data is pushed as a single segment
+            ConsistentHash ch = cacheTopology == null ? null : cacheTopology.getWriteConsistentHash();
+            Set<Integer> segments = new TreeSet<>(ch == null ? Collections.singleton(0) :
+                                                        ch.getPrimarySegmentsForOwner(rpcManager.getAddress()));
+            int primarySegments = segments.size();
+            for (Iterator<Integer> iterator = segments.iterator(); iterator.hasNext(); ) {
+               if (progress.isSegmentCompleted(iterator.next())) {
+                  iterator.remove();
+               }
             }
 
-            for (InternalCacheEntry ice : dataContainer) {
-               if (canceled) {
-                  log.debugf("[X-Site State Transfer - %s] State transfer canceled!", xSiteBackup.getSiteName());
-                  return;
-               }
-               if (chunkSize > 0 && chunk.size() == chunkSize) {
-                  try {
-                     sendFromSharedBuffer(xSiteBackup, chunk, this);
-                  } catch (Throwable t) {
-                     error = true;
-                     log.unableToSendXSiteState(xSiteBackup.getSiteName(), t);
-                     return;
-                  }
-                  chunk.clear();
-               }
-               if (shouldSendKey(ice.getKey())) {
-                  if (trace) {
-                     log.tracef("Added key '%s' to current chunk", ice.getKey());
-                  }
-                  chunk.add(XSiteState.fromDataContainer(ice));
-               }
+            @SuppressWarnings("unchecked")
+            AdvancedCacheLoader<Object, Object> stProvider = persistenceManager.getStateTransferProvider();
+            if (debug) {
+               log.debugf("[X-Site State Transfer - %s] start pushing %s segments (%s already pushed). Persistence iteration %s",
+                          xSiteBackup.getSiteName(), segments.size(), primarySegments - segments.size(),
+                          stProvider == null ? "skipped" : "enabled");
             }
 
-            if (canceled) {
+            if (!pushSegments(segments, ch, stProvider)) {
                return;
             }
-            if (chunk.size() > 0) {
-               try {
-                  sendFromSharedBuffer(xSiteBackup, chunk, this);
-               } catch (Throwable t) {
-                  error = true;
-                  log.unableToSendXSiteState(xSiteBackup.getSiteName(), t);
-                  return;
-               }
-            }
 
             if (debug) {
-               log.debugf("[X-Site State Transfer - %s] finish DataContainer iteration", xSiteBackup.getSiteName());
-            }
-
-            @SuppressWarnings("unchecked")
-            AdvancedCacheLoader<Object, Object> stProvider = persistenceManager.getStateTransferProvider();
-            if (stProvider != null) {
-               if (debug) {
-                  log.debugf("[X-Site State Transfer - %s] start Persistence iteration", xSiteBackup.getSiteName());
-               }
-               KeyFilter<Object> filter = new CacheLoaderFilter<>(new ReadOnlyDataContainerBackedKeySet(dataContainer));
-               StateTransferCacheLoaderTask task = new StateTransferCacheLoaderTask(xSiteBackup, chunk, this);
-               try {
-                  stProvider.process(filter, task, EXECUTOR_SERVICE, true, true);
-                  if (canceled) {
-                     log.debugf("[X-Site State Transfer - %s] State transfer canceled!", xSiteBackup.getSiteName());
-                     return;
-                  }
-                  task.sendRemainingState();
-               } catch (CacheException e) {
-                  error = true;
-                  log.failedLoadingKeysFromCacheStore(e);
-                  return;
-               } catch (Throwable t) {
-                  error = true;
-                  log.unableToSendXSiteState(xSiteBackup.getSiteName(), t);
-                  return;
-               }
-               if (debug) {
-                  log.debugf("[X-Site State Transfer - %s] finish Persistence iteration", xSiteBackup.getSiteName());
-               }
-            } else if (debug) {
-               log.debugf("[X-Site State Transfer - %s] skip Persistence iteration", xSiteBackup.getSiteName());
+               log.debugf("[X-Site State Transfer - %s] finish segments iteration", xSiteBackup.getSiteName());
             }
          } catch (InterruptedException e) {
             error = true;
             log.unableToSendXSiteState(xSiteBackup.getSiteName(), e);
          } finally {
+            awaitInFlightChunks();
             finished = true;
             log.debugf("[X-Site State Transfer - %s] State transfer finished!", xSiteBackup.getSiteName());
             if (!canceled) {
@@ -318,64 +350,214 @@ public void run() {
          }
       }
 
+      /**
+       * @return {@code false} if the state transfer was canceled or failed while pushing the segments.
+       */
+      private boolean pushSegments(Set<Integer> segments, ConsistentHash ch,
+                                   AdvancedCacheLoader<Object, Object> stProvider) throws InterruptedException {
+         //only the segmented data container without a cache store can iterate a segment without visiting the others
+         int segmentsPerPass = stProvider == null && isSegmentedDataContainer(ch) ? 1 : SEGMENTS_PER_PASS;
+         Iterator<Integer> iterator = segments.iterator();
+         while (iterator.hasNext()) {
+            Set<Integer> group = new TreeSet<>();
+            while (iterator.hasNext() && group.size() < segmentsPerPass) {
+               group.add(iterator.next());
+            }
+            if (!pushSegmentGroup(group, ch, stProvider)) {
+               return false;
+            }
+         }
+         return true;
+      }
+
+      private boolean pushSegmentGroup(Set<Integer> segments, ConsistentHash ch,
+                                       AdvancedCacheLoader<Object, Object> stProvider) throws InterruptedException {
+         Map<Integer, SegmentPush> segmentPushes = new LinkedHashMap<>();
+         for (int segment : segments) {
+            segmentPushes.put(segment, new SegmentPush(segment));
+         }
+         for (InternalCacheEntry ice : entriesInSegments(ch, segments)) {
+            if (canceled || error) {
+               log.debugf("[X-Site State Transfer - %s] State transfer canceled!", xSiteBackup.getSiteName());
+               return false;
+            }
+            Object key = ice.getKey();
+            SegmentPush segmentPush = segmentPushes.get(getSegment(ch, key));
+            if (segmentPush == null || !shouldSendKey(key)) {
+               continue;
+            }
+            if (trace) {
+               log.tracef("Added key '%s' to current chunk", key);
+            }
+            segmentPush.add(XSiteState.fromDataContainer(ice));
+         }
+
+         if (stProvider != null) {
+            KeyFilter<Object> filter = new CacheLoaderFilter<>(new ReadOnlyDataContainerBackedKeySet(dataContainer),
+                                                               ch, segmentPushes.keySet());
+            try {
+               stProvider.process(filter, new StateTransferCacheLoaderTask(this, ch, segmentPushes), EXECUTOR_SERVICE,
+                                  true, true);
+            } catch (CacheException e) {
+               error = true;
+               log.failedLoadingKeysFromCacheStore(e);
+               return false;
+            }
+         }
+
+         if (canceled || error) {
+            log.debugf("[X-Site State Transfer - %s] State transfer canceled!", xSiteBackup.getSiteName());
+            return false;
+         }
+         for (SegmentPush segmentPush : segmentPushes.values()) {
+            segmentPush.iterationFinished();
+         }
+         return true;
+      }
+
+      private void sendChunkAsync(final SegmentPush segmentPush, final XSiteState[] chunk) throws InterruptedException {
+         credits.acquire();
+         Runnable sender = new Runnable() {
+            @Override
+            public void run() {
+               try {
+                  sendChunk(xSiteBackup, chunk, StatePushTask.this);
+                  segmentPush.chunkSent(chunk.length);
+               } catch (Throwable t) {
+                  chunkFailed(t);
+               } finally {
+                  credits.release();
+               }
+            }
+         };
+         if (maxInFlightChunks == 1) {
+            sender.run();
+            return;
+         }
+         try {
+            executorService.execute(sender);
+         } catch (RejectedExecutionException e) {
+            credits.release();
+            chunkFailed(e);
+         }
+      }
+
+      private void chunkFailed(Throwable t) {
+         if (!error) {
+            error = true;
+            log.unableToSendXSiteState(xSiteBackup.getSiteName(), t);
+         }
+      }
+
+      private void awaitInFlightChunks() {
+         try {
+            credits.acquire(maxInFlightChunks);
+            credits.release(maxInFlightChunks);
+         } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            error = true;
+         }
+      }
+
       @Override
       public String toString() {
          return "StatePushTask{" +
                "origin=" + origin +
                ", canceled=" + canceled +
+               ", progress=" + progress +
                '}';
       }
+
+      /**
+       * The chunks of a segment. The segment is checkpointed as completed when it was fully iterated and all its chunks
+       * were applied by the remote site.
+       */
+      private class SegmentPush {
+
+         private final int segment;
+         private final List<XSiteState> chunk;
+         //starts with 1, released when the iteration finishes
+         private final AtomicInteger pendingChunks = new AtomicInteger(1);
+
+         private SegmentPush(int segment) {
+            this.segment = segment;
+            this.chunk = new ArrayList<>(chunkSize <= 0 ? DEFAULT_CHUNK_SIZE : chunkSize);
+         }
+
+         private void add(XSiteState state) throws InterruptedException {
+            chunk.add(state);
+            if (chunkSize > 0 && chunk.size() == chunkSize) {
+               flush();
+            }
+         }
+
+         private void iterationFinished() throws InterruptedException {
+            flush();
+            release();
+         }
+
+         private void chunkSent(int entries) {
+            progress.chunkTransferred(segment, entries, false);
+            release();
+         }
+
+         private void flush() throws InterruptedException {
+            if (chunk.isEmpty()) {
+               return;
+            }
+            XSiteState[] privateBuffer = chunk.toArray(new XSiteState[chunk.size()]);
+            chunk.clear();
+            pendingChunks.incrementAndGet();
+            sendChunkAsync(this, privateBuffer);
+         }
+
+         private void release() {
+            if (pendingChunks.decrementAndGet() == 0) {
+               progress.segmentCompleted(segment);
+            }
+         }
+      }
    }
 
    private class CacheLoaderFilter<K> extends CollectionKeyFilter<K> {
 
-      public CacheLoaderFilter(Collection<? extends K> rejectedKeys) {
+      private final ConsistentHash ch;
+      private final Set<Integer> segments;
+
+      public CacheLoaderFilter(Collection<? extends K> rejectedKeys, ConsistentHash ch, Set<Integer> segments) {
          super(rejectedKeys);
+         this.ch = ch;
+         this.segments = segments;
       }
 
       @Override
       public boolean accept(K key) {
-         return shouldSendKey(key) && super.accept(key);
+         return segments.contains(getSegment(ch, key)) && shouldSendKey(key) && super.accept(key);
       }
    }
 
    private class StateTransferCacheLoaderTask implements CacheLoaderTask<Object, Object> {
 
-      private final List<XSiteState> chunk;
-      private final XSiteBackup xSiteBackup;
       private final StatePushTask task;
+      private final ConsistentHash ch;
+      private final Map<Integer, StatePushTask.SegmentPush> segmentPushes;
 
-      private StateTransferCacheLoaderTask(XSiteBackup xSiteBackup, List<XSiteState> chunk, StatePushTask task) {
-         this.xSiteBackup = xSiteBackup;
-         this.chunk = chunk;
+      private StateTransferCacheLoaderTask(StatePushTask task, ConsistentHash ch,
+                                           Map<Integer, StatePushTask.SegmentPush> segmentPushes) {
          this.task = task;
+         this.ch = ch;
+         this.segmentPushes = segmentPushes;
       }
 
       @Override
       public void processEntry(MarshalledEntry<Object, Object> marshalledEntry, TaskContext taskContext)
             throws InterruptedException {
-         if (task.canceled) {
+         if (task.canceled || task.error) {
             taskContext.stop();
-            log.debugf("[X-Site State Transfer - %s] State transfer canceled!", xSiteBackup.getSiteName());
+            log.debugf("[X-Site State Transfer - %s] State transfer canceled!", task.xSiteBackup.getSiteName());
             return;
          }
-         if (task.chunkSize > 0 && chunk.size() == task.chunkSize) {
-            try {
-               sendFromSharedBuffer(xSiteBackup, chunk, task);
-            } catch (Throwable t) {
-               log.unableToSendXSiteState(xSiteBackup.getSiteName(), t);
-               taskContext.stop();
-            }
-            chunk.clear();
-         }
-
-         chunk.add(XSiteState.fromCacheLoader(marshalledEntry));
-      }
-
-      public void sendRemainingState() throws Throwable {
-         if (chunk.size() > 0) {
-            sendFromSharedBuffer(xSiteBackup, chunk, task);
-         }
+         segmentPushes.get(getSegment(ch, marshalledEntry.getKey())).add(XSiteState.fromCacheLoader(marshalledEntry));
       }
    }
 }
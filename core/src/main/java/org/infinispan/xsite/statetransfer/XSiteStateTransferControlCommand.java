@@ -1,6 +1,7 @@
 package org.infinispan.xsite.statetransfer;
 
 import org.infinispan.context.InvocationContext;
+import org.infinispan.statetransfer.StateTransferProgress;
 import org.infinispan.xsite.BackupReceiver;
 import org.infinispan.xsite.XSiteReplicateCommand;
 
@@ -69,13 +70,19 @@ public Object perform(InvocationContext ctx) throws Throwable {
             break;
          case RESTART_SEND:
             provider.cancelStateTransfer(siteName);
-            provider.startStateTransfer(siteName, getOrigin(), topologyId);
+            provider.resumeStateTransfer(siteName, getOrigin(), topologyId);
             break;
          case STATUS_REQUEST:
             return stateTransferManager.getStatus();
          case CLEAR_STATUS:
             stateTransferManager.clearStatus();
             break;
+         case CLEAR_PROGRESS:
+            provider.clearStatePushProgress(siteName);
+            break;
+         case PROGRESS_REQUEST:
+            StateTransferProgress progress = provider.getStatePushProgress(siteName);
+            return progress == null ? null : progress.getSummary();
          default:
             throw new IllegalStateException("Unknown control command: " + consumer);
       }
@@ -105,7 +112,8 @@ public void setParameters(int commandId, Object[] parameters) {
 
    @Override
    public boolean isReturnValueExpected() {
-      return this.control == StateTransferControl.STATUS_REQUEST;
+      return this.control == StateTransferControl.STATUS_REQUEST ||
+            this.control == StateTransferControl.PROGRESS_REQUEST;
    }
 
    public void setStatusOk(boolean statusOk) {
@@ -147,7 +155,9 @@ public static enum StateTransferControl {
       CANCEL_SEND,
       RESTART_SEND,
       STATUS_REQUEST,
-      CLEAR_STATUS
+      CLEAR_STATUS,
+      CLEAR_PROGRESS,
+      PROGRESS_REQUEST
    }
 
    @Override
@@ -1,6 +1,7 @@
 package org.infinispan.xsite.statetransfer;
 
 import org.infinispan.remoting.transport.Address;
+import org.infinispan.statetransfer.StateTransferProgress;
 
 import java.util.List;
 import java.util.Map;
@@ -36,6 +37,18 @@ public interface XSiteStateTransferManager {
     */
    public void startPushState(String siteName) throws Throwable;
 
+   /**
+    * It notifies all nodes from local site to resume the state transfer to the remote site. The segments pushed
+    * successfully by the previous state transfer are not sent again.
+    * <p/>
+    * The writes to those segments are only guaranteed to be in the remote site if it was online since the previous
+    * state transfer was interrupted.
+    *
+    * @param siteName the remote site name
+    * @throws Throwable If some unexpected behavior occurs.
+    */
+   public void resumePushState(String siteName) throws Throwable;
+
    /**
     * It cancels a running state transfer.
     *
@@ -72,6 +85,21 @@ public interface XSiteStateTransferManager {
     */
    void clearClusterStatus() throws Exception;
 
+   /**
+    * @param siteName the remote site name.
+    * @return the progress of the state pushed by this node to the remote site, or {@code null} if this node has not
+    *         pushed state to it.
+    */
+   StateTransferProgress getPushProgress(String siteName);
+
+   /**
+    * @param siteName the remote site name.
+    * @return the progress of the state pushed to the remote site (entries and chunks sent, completed segments and
+    *         throughput) by each node in the cluster.
+    * @throws Exception if some exception during the remote invocation occurs.
+    */
+   Map<String, String> getClusterPushProgress(String siteName) throws Exception;
+
    /**
     * @return {@code null} if this node is not receiving state or the site name which is sending the state.
     */
@@ -26,6 +26,7 @@
 import org.infinispan.remoting.transport.Address;
 import org.infinispan.remoting.transport.RetryOnFailureXSiteCommand;
 import org.infinispan.statetransfer.StateTransferManager;
+import org.infinispan.statetransfer.StateTransferProgress;
 import org.infinispan.util.logging.Log;
 import org.infinispan.util.logging.LogFactory;
 import org.infinispan.xsite.XSiteBackup;
@@ -119,6 +120,30 @@ public void notifyStatePushFinished(String siteName, Address node, boolean statu
 
    @Override
    public final void startPushState(String siteName) throws Throwable {
+      pushState(siteName, false);
+   }
+
+   @Override
+   public final void resumePushState(String siteName) throws Throwable {
+      pushState(siteName, true);
+   }
+
+   @Override
+   public List<String> getRunningStateTransfers() {
+      return siteCollector.isEmpty() ? Collections.<String>emptyList() : new ArrayList<>(siteCollector.keySet());
+   }
+
+   @Override
+   public Map<String, String> getStatus() {
+      return status.isEmpty() ? Collections.<String, String>emptyMap() : new HashMap<>(status);
+   }
+
+   @Override
+   public void clearStatus() {
+      status.clear();
+   }
+
+   private void pushState(String siteName, boolean resume) throws Throwable {
       //check site name first
       if (siteName == null) {
          throw new NullPointerException("Site name cannot be null!");
@@ -139,12 +164,16 @@ public final void startPushState(String siteName) throws Throwable {
          controlStateTransferOnRemoteSite(xSiteBackup, StateTransferControl.START_RECEIVE, null);
          if (!stateTransferManager.isStateTransferInProgress()) {
             //only if we are in balanced cluster, we start to send the data!
-            controlStateTransferOnLocalSite(StateTransferControl.START_SEND, siteName);
+            controlStateTransferOnLocalSite(resume ? RESTART_SEND : START_SEND, siteName);
          } else {
             if (debug) {
                log.debugf("Not start sending keys to site '%s' while rebalance in progress. Wait until it is finished!",
                           siteName);
             }
+            if (!resume) {
+               //the state transfer is restarted after the rebalance. it must not resume the previous one
+               controlStateTransferOnLocalSite(CLEAR_PROGRESS, siteName);
+            }
          }
       } catch (Throwable throwable) {
          handleFailure(xSiteBackup);
@@ -152,21 +181,6 @@ public final void startPushState(String siteName) throws Throwable {
       }
    }
 
-   @Override
-   public List<String> getRunningStateTransfers() {
-      return siteCollector.isEmpty() ? Collections.<String>emptyList() : new ArrayList<>(siteCollector.keySet());
-   }
-
-   @Override
-   public Map<String, String> getStatus() {
-      return status.isEmpty() ? Collections.<String, String>emptyMap() : new HashMap<>(status);
-   }
-
-   @Override
-   public void clearStatus() {
-      status.clear();
-   }
-
    @Override
    public void cancelPushState(String siteName) throws Throwable {
       if (!siteCollector.containsKey(siteName)) {
@@ -204,6 +218,27 @@ public void clearClusterStatus() throws Exception {
       controlStateTransferOnLocalSite(CLEAR_STATUS, null);
    }
 
+   @Override
+   public StateTransferProgress getPushProgress(String siteName) {
+      return provider.getStatePushProgress(siteName);
+   }
+
+   @Override
+   public Map<String, String> getClusterPushProgress(String siteName) throws Exception {
+      CacheRpcCommand command = commandsFactory.buildXSiteStateTransferControlCommand(PROGRESS_REQUEST, siteName);
+      Map<String, String> result = new HashMap<>();
+
+      for (Map.Entry<Address, Response> entry : invokeRemotelyInLocalSite(command).entrySet()) {
+         if (entry.getValue() instanceof SuccessfulResponse) {
+            Object progress = ((SuccessfulResponse) entry.getValue()).getResponseValue();
+            if (progress != null) {
+               result.put(String.valueOf(entry.getKey()), (String) progress);
+            }
+         }
+      }
+      return result;
+   }
+
    @Override
    public String getSendingSiteName() {
       return consumer.getSendingSiteName();
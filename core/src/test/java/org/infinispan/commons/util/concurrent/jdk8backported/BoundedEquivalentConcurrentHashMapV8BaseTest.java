@@ -22,10 +22,12 @@
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
 
 import org.infinispan.commons.equivalence.AnyEquivalence;
 import org.infinispan.commons.util.concurrent.jdk8backported.BoundedEquivalentConcurrentHashMapV8.BiAction;
 import org.infinispan.commons.util.concurrent.jdk8backported.BoundedEquivalentConcurrentHashMapV8.BiFun;
+import org.infinispan.commons.util.concurrent.jdk8backported.BoundedEquivalentConcurrentHashMapV8.EntrySizeCalculator;
 import org.infinispan.commons.util.concurrent.jdk8backported.BoundedEquivalentConcurrentHashMapV8.Eviction;
 import org.infinispan.commons.util.concurrent.jdk8backported.BoundedEquivalentConcurrentHashMapV8.EvictionListener;
 import org.infinispan.commons.util.concurrent.jdk8backported.BoundedEquivalentConcurrentHashMapV8.NullEvictionListener;
@@ -725,6 +727,47 @@ public void apply(HashCodeControlled a, HashCodeControlled b) {
       }
    }
 
+   /**
+    * The size calculator may be expensive, so it must not run holding the lock on the bin of the entry: a concurrent
+    * write to the same key must not wait for it. The size of the value replaced meanwhile is then discarded.
+    */
+   public void testEntrySizeComputedOutsideBinLock() throws Exception {
+      final ExecutorService executor = Executors.newSingleThreadExecutor();
+      final AtomicReference<Map<String, String>> mapRef = new AtomicReference<Map<String, String>>();
+      EntrySizeCalculator<String, String> sizeCalculator = new EntrySizeCalculator<String, String>() {
+         @Override
+         public long calculateSize(String key, String value) {
+            if ("big".equals(value)) {
+               Future<String> future = executor.submit(new Callable<String>() {
+                  @Override
+                  public String call() throws Exception {
+                     return mapRef.get().put("key", "small");
+                  }
+               });
+               try {
+                  future.get(10, TimeUnit.SECONDS);
+               } catch (Exception e) {
+                  throw new AssertionError(e);
+               }
+            }
+            return value.length();
+         }
+      };
+      try {
+         BoundedEquivalentConcurrentHashMapV8<String, String> bchm = new BoundedEquivalentConcurrentHashMapV8<String, String>(
+               100, evictionPolicy(), BoundedEquivalentConcurrentHashMapV8.<String, String>getNullEvictionListener(),
+               AnyEquivalence.<String>getInstance(), AnyEquivalence.<String>getInstance(), sizeCalculator);
+         mapRef.set(bchm);
+
+         bchm.put("key", "big");
+
+         assertEquals("small", bchm.get("key"));
+         assertEquals("small".length(), bchm.evictionSize());
+      } finally {
+         executor.shutdownNow();
+      }
+   }
+
    protected <K, V> BoundedEquivalentConcurrentHashMapV8<K, V> createMap(int maxSize,
          Eviction eviction) {
       return createMap(maxSize, eviction, 
@@ -39,6 +39,11 @@ public Eviction evictionPolicy() {
       return Eviction.LIRS;
    }
 
+   @Override
+   public void testEntrySizeComputedOutsideBinLock() {
+      // LIRS doesn't support entry sizes
+   }
+
    /**
     * Tests to make sure that if a bunch of cache writes happen that the LIRS entry
     * is not evicted
@@ -0,0 +1,85 @@
+package org.infinispan.commons.util.concurrent.jdk8backported;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertNotNull;
+
+import java.util.Map;
+
+import org.infinispan.commons.util.concurrent.jdk8backported.BoundedEquivalentConcurrentHashMapV8.Eviction;
+import org.testng.annotations.Test;
+
+/**
+ * Tests the window TinyLFU eviction of the bounded concurrent hash map V8.
+ *
+ * @since 7.2
+ */
+@Test(groups = "functional", testName = "util.concurrent.jdk8backported.BoundedEquivalentConcurrentHashMapV8TinyLFUTest")
+public class BoundedEquivalentConcurrentHashMapV8TinyLFUTest extends BoundedEquivalentConcurrentHashMapV8BaseTest {
+
+   @Override
+   protected Eviction evictionPolicy() {
+      return Eviction.TINY_LFU;
+   }
+
+   /**
+    * Concurrent reads may be dropped, so which entry is evicted can't be predicted: only checks the size.
+    */
+   @Override
+   public void testCacheGetHits() throws InterruptedException {
+      final int COUNT_PER_THREAD = 10000;
+      final int THREADS = 10;
+      final int COUNT = COUNT_PER_THREAD * THREADS;
+
+      final Map<Integer, Integer> bchm = createMap(COUNT + 1, evictionPolicy());
+      for (int i = 0; i <= COUNT; i++)
+         bchm.put(i, i);
+
+      Thread threads[] = new Thread[THREADS];
+      for (int i = 0; i < THREADS; i++) {
+         final int start = COUNT_PER_THREAD * i;
+         final int end = start + COUNT_PER_THREAD;
+         threads[i] = new Thread() {
+            public void run() {
+               for (int i = start; i < end; i++)
+                  assertNotNull(bchm.get(i));
+            };
+         };
+      }
+      for (int i = 0; i < THREADS; i++)
+         threads[i].start();
+      for (int i = 0; i < THREADS; i++)
+         threads[i].join();
+
+      bchm.put(COUNT + 1, COUNT + 1);
+      assertEquals(COUNT + 1, bchm.size());
+   }
+
+   /**
+    * Entries read now and then must survive a scan of entries read only once, even if the scan is
+    * bigger than the map.
+    */
+   public void testFrequentlyReadEntriesSurviveScan() {
+      final int COUNT = 1000;
+      final int HOT = 100;
+      final int SCAN_PER_READ = 10;
+      final Map<Integer, Integer> bchm = createMap(COUNT, evictionPolicy());
+
+      for (int i = 0; i < HOT; i++) {
+         bchm.put(i, i);
+      }
+      for (int i = 0; i < HOT; i++) {
+         assertNotNull(bchm.get(i));
+      }
+
+      int scanKey = HOT;
+      for (int round = 0; round < 50 * HOT; round++) {
+         for (int j = 0; j < SCAN_PER_READ; j++, scanKey++) {
+            bchm.put(scanKey, scanKey);
+         }
+         int hotKey = round % HOT;
+         assertNotNull("Hot key " + hotKey + " evicted in round " + round, bchm.get(hotKey));
+      }
+
+      assertEquals(COUNT, bchm.size());
+   }
+}
@@ -15,6 +15,7 @@
 import org.infinispan.Cache;
 import org.infinispan.Version;
 import org.infinispan.commons.CacheConfigurationException;
+import org.infinispan.commons.equivalence.ByteArrayEquivalence;
 import org.infinispan.commons.util.FileLookup;
 import org.infinispan.commons.util.FileLookupFactory;
 import org.infinispan.configuration.cache.CacheMode;
@@ -346,6 +347,30 @@ public void testIndexingRequiresOptionalModule() {
       }
    }
 
+   @Test(expectedExceptions = CacheConfigurationException.class)
+   public void testOffHeapWithKeyEquivalence() {
+      ConfigurationBuilder builder = new ConfigurationBuilder();
+      builder.dataContainer().offHeap(true).keyEquivalence(ByteArrayEquivalence.INSTANCE);
+      builder.build();
+   }
+
+   @Test(expectedExceptions = CacheConfigurationException.class)
+   public void testIndexedExpirationWithOffHeap() {
+      ConfigurationBuilder builder = new ConfigurationBuilder();
+      builder.dataContainer().offHeap(true).expiration().indexed(true);
+      builder.build();
+   }
+
+   @Test(expectedExceptions = CacheConfigurationException.class,
+         expectedExceptionsMessageRegExp = "The expiration index is not supported by .*")
+   public void testIndexedExpirationWithSegmentedDataContainer() {
+      ConfigurationBuilder builder = new ConfigurationBuilder();
+      builder.clustering().cacheMode(CacheMode.DIST_SYNC)
+            .dataContainer().segmented(true)
+            .expiration().indexed(true);
+      builder.build();
+   }
+
    @Test(expectedExceptions = CacheConfigurationException.class,
          expectedExceptionsMessageRegExp = "ISPN(\\d)*: A cache configured with invocation batching can't have recovery enabled")
    public void testInvalidBatchingAndTransactionConfiguration() {
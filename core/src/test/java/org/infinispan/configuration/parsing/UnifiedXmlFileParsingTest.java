@@ -59,16 +59,25 @@ public Object[][] configurationFiles() {
    }
 
    @Test(dataProvider="configurationFiles")
-   public void testParseAndConstructUnifiedXmlFile(String config) throws IOException {
+   public void testParseAndConstructUnifiedXmlFile(final String config) throws IOException {
       withCacheManager(new CacheManagerCallable(
             TestCacheManagerFactory.fromXml("configs/unified/" + config, true, false)) {
          @Override
          public void call() {
             configurationCheck70(cm);
+            if ("7.2.xml".equals(config)) {
+               configurationCheck72(cm);
+            }
          }
       });
    }
 
+   private static void configurationCheck72(EmbeddedCacheManager cm) {
+      Configuration c = cm.getCache("local").getCacheConfiguration();
+      SingleFileStoreConfiguration fileStore = (SingleFileStoreConfiguration) c.persistence().stores().get(0);
+      assertEquals(0.6f, fileStore.compactionThreshold(), 0f);
+   }
+
    private static void configurationCheck70(EmbeddedCacheManager cm) {
       GlobalConfiguration g = cm.getCacheManagerConfiguration();
       assertEquals("maximal", g.globalJmxStatistics().cacheManagerName());
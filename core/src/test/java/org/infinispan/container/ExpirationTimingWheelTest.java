@@ -0,0 +1,168 @@
+package org.infinispan.container;
+
+import org.infinispan.commons.equivalence.AnyEquivalence;
+import org.infinispan.test.AbstractInfinispanTest;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertFalse;
+import static org.testng.AssertJUnit.assertTrue;
+
+/**
+ * Tests the expiration index of the data container.
+ *
+ * @since 7.2
+ */
+@Test(groups = "unit", testName = "container.ExpirationTimingWheelTest")
+public class ExpirationTimingWheelTest extends AbstractInfinispanTest {
+
+   private static final long TICK = 1000;
+
+   private ExpirationTimingWheel<String> wheel;
+   private TestExpirer expirer;
+
+   @BeforeMethod
+   public void setUp() {
+      wheel = new ExpirationTimingWheel<String>(TICK, 0, AnyEquivalence.STRING);
+      expirer = new TestExpirer();
+   }
+
+   public void testOnlyDueKeysAreVisited() {
+      for (int i = 0; i < 100; i++) {
+         put("k" + i, 10 * TICK + i * TICK - 1);
+      }
+      put("immortal", -1);
+
+      wheel.advance(10 * TICK, expirer);
+      assertEquals(1, expirer.visited.size());
+      assertEquals("k0", expirer.visited.get(0));
+      assertFalse(expirer.expiryTimes.containsKey("k0"));
+
+      expirer.visited.clear();
+      wheel.advance(20 * TICK, expirer);
+      assertEquals(10, expirer.visited.size());
+      assertEquals(89, wheel.size());
+   }
+
+   public void testKeysAreNotExpiredEarly() {
+      put("k", 5 * TICK + 1);
+
+      wheel.advance(5 * TICK, expirer);
+      assertTrue(expirer.visited.isEmpty());
+      assertTrue(expirer.expiryTimes.containsKey("k"));
+
+      wheel.advance(6 * TICK, expirer);
+      assertEquals(1, expirer.visited.size());
+      assertFalse(expirer.expiryTimes.containsKey("k"));
+   }
+
+   public void testDistantExpirations() {
+      // One bucket of each level of the wheel
+      long[] expiryTimes = {30 * TICK, 1000 * TICK, 100000 * TICK, 1000000 * TICK};
+      for (int i = 0; i < expiryTimes.length; i++) {
+         put("k" + i, expiryTimes[i]);
+      }
+
+      for (long now = TICK; now <= 1000100 * TICK; now += 50 * TICK) {
+         wheel.advance(now, expirer);
+         for (int i = 0; i < expiryTimes.length; i++) {
+            assertEquals(expiryTimes[i] >= now, expirer.expiryTimes.containsKey("k" + i));
+         }
+      }
+      assertEquals(4, expirer.visited.size());
+      assertEquals(0, wheel.size());
+   }
+
+   public void testRescheduledKeys() {
+      put("written", 5 * TICK);
+      put("written", 20 * TICK - 1);
+      put("read", 5 * TICK);
+      // Reading the entry moves its expiration time without updating the index
+      expirer.expiryTimes.put("read", 30 * TICK - 1);
+      put("removed", 5 * TICK);
+      expirer.expiryTimes.remove("removed");
+      wheel.remove("removed");
+
+      wheel.advance(10 * TICK, expirer);
+      // The entry that was read is visited once and rescheduled
+      assertEquals(1, expirer.visited.size());
+      assertEquals("read", expirer.visited.get(0));
+      assertEquals(2, wheel.size());
+
+      wheel.advance(20 * TICK, expirer);
+      assertFalse(expirer.expiryTimes.containsKey("written"));
+      assertTrue(expirer.expiryTimes.containsKey("read"));
+
+      wheel.advance(30 * TICK, expirer);
+      assertTrue(expirer.expiryTimes.isEmpty());
+      assertEquals(0, wheel.size());
+   }
+
+   public void testAdvanceAfterLongPause() {
+      put("k1", 10 * TICK);
+      put("k2", 5000 * TICK);
+      put("k3", 100000 * TICK);
+
+      wheel.advance(6000 * TICK, expirer);
+      assertFalse(expirer.expiryTimes.containsKey("k1"));
+      assertFalse(expirer.expiryTimes.containsKey("k2"));
+      assertTrue(expirer.expiryTimes.containsKey("k3"));
+
+      wheel.advance(100001 * TICK, expirer);
+      assertTrue(expirer.expiryTimes.isEmpty());
+   }
+
+   public void testLongWakeUpInterval() {
+      long wakeUpInterval = TimeUnit.MINUTES.toMillis(5);
+      wheel = new ExpirationTimingWheel<String>(ExpirationTimingWheel.tickMillis(wakeUpInterval), 0,
+            AnyEquivalence.STRING);
+      for (int i = 0; i < 1000; i++) {
+         put("later" + i, TimeUnit.HOURS.toMillis(1) + i);
+      }
+      for (int i = 0; i < 10; i++) {
+         put("due" + i, TimeUnit.MINUTES.toMillis(1) + i);
+      }
+
+      wheel.advance(wakeUpInterval, expirer);
+      assertEquals(10, expirer.visited.size());
+      assertEquals(10, wheel.visitedRecords());
+      assertEquals(1000, wheel.size());
+
+      wheel.advance(2 * wakeUpInterval, expirer);
+      assertEquals(10, wheel.visitedRecords());
+   }
+
+   private void put(String key, long expiryTime) {
+      if (expiryTime >= 0) {
+         expirer.expiryTimes.put(key, expiryTime);
+      }
+      wheel.schedule(key, expiryTime);
+   }
+
+   private static class TestExpirer implements ExpirationTimingWheel.Expirer<String> {
+      final Map<String, Long> expiryTimes = new HashMap<String, Long>();
+      final List<String> visited = new ArrayList<String>();
+
+      @Override
+      public long expire(String key, long now) {
+         // Like the cache entries, expired only after their expiration time
+         visited.add(key);
+         Long expiryTime = expiryTimes.get(key);
+         if (expiryTime == null) {
+            return -1;
+         }
+         if (expiryTime < now) {
+            expiryTimes.remove(key);
+            return -1;
+         }
+         return expiryTime;
+      }
+   }
+}
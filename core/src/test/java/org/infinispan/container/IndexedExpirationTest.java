@@ -0,0 +1,105 @@
+package org.infinispan.container;
+
+import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.eviction.EvictionStrategy;
+import org.infinispan.manager.EmbeddedCacheManager;
+import org.infinispan.persistence.BaseStoreTest.ControlledTimeService;
+import org.infinispan.test.SingleCacheManagerTest;
+import org.infinispan.test.TestingUtil;
+import org.infinispan.test.fwk.TestCacheManagerFactory;
+import org.infinispan.util.TimeService;
+import org.testng.annotations.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertNotNull;
+import static org.testng.AssertJUnit.assertNull;
+
+/**
+ * Tests that the expired entries of a cache are purged through the expiration index of its data container.
+ *
+ * @since 7.2
+ */
+@Test(groups = "functional", testName = "container.IndexedExpirationTest")
+public class IndexedExpirationTest extends SingleCacheManagerTest {
+
+   private static final int MAX_ENTRIES = 10;
+   private static final long LIFESPAN = TimeUnit.MINUTES.toMillis(10);
+
+   private ControlledTimeService timeService;
+
+   @Override
+   protected EmbeddedCacheManager createCacheManager() throws Exception {
+      ConfigurationBuilder builder = getDefaultStandaloneCacheConfig(false);
+      // The test purges the expired entries itself
+      builder.expiration().indexed(true).disableReaper()
+            .eviction().strategy(EvictionStrategy.LRU).maxEntries(MAX_ENTRIES);
+      EmbeddedCacheManager cm = TestCacheManagerFactory.createCacheManager(builder);
+      timeService = new ControlledTimeService(0);
+      TestingUtil.replaceComponent(cm, TimeService.class, timeService, true);
+      return cm;
+   }
+
+   public void testExpiredEntriesArePurged() {
+      for (int i = 0; i < 3; i++) {
+         cache.put("expiring" + i, "v", LIFESPAN, TimeUnit.MILLISECONDS);
+      }
+      cache.put("immortal", "v");
+      assertEquals(3, expirationIndex().size());
+
+      timeService.advance(LIFESPAN + 1);
+      dataContainer().purgeExpired();
+      assertEquals(1, dataContainer().size());
+      assertNotNull(dataContainer().peek("immortal"));
+      assertEquals(0, expirationIndex().size());
+   }
+
+   public void testOverwrittenEntries() {
+      cache.put("madeImmortal", "v", LIFESPAN, TimeUnit.MILLISECONDS);
+      cache.put("madeImmortal", "v2");
+      cache.put("madeExpiring", "v");
+      cache.put("madeExpiring", "v2", LIFESPAN, TimeUnit.MILLISECONDS);
+      cache.put("extended", "v", LIFESPAN, TimeUnit.MILLISECONDS);
+      cache.put("extended", "v2", 2 * LIFESPAN, TimeUnit.MILLISECONDS);
+      cache.put("removed", "v", LIFESPAN, TimeUnit.MILLISECONDS);
+      cache.remove("removed");
+      assertEquals(2, expirationIndex().size());
+
+      timeService.advance(LIFESPAN + 1);
+      dataContainer().purgeExpired();
+      assertNotNull(dataContainer().peek("madeImmortal"));
+      assertNull(dataContainer().peek("madeExpiring"));
+      assertNotNull(dataContainer().peek("extended"));
+      assertEquals(1, expirationIndex().size());
+
+      timeService.advance(LIFESPAN);
+      dataContainer().purgeExpired();
+      assertNull(dataContainer().peek("extended"));
+      assertEquals(1, dataContainer().size());
+      assertEquals(0, expirationIndex().size());
+   }
+
+   public void testEvictedEntriesLeaveTheIndex() {
+      for (int i = 0; i < 3 * MAX_ENTRIES; i++) {
+         cache.put("k" + i, "v", LIFESPAN, TimeUnit.MILLISECONDS);
+      }
+      assertEquals(dataContainer().size(), expirationIndex().size());
+
+      cache.evict("k" + (3 * MAX_ENTRIES - 1));
+      assertEquals(dataContainer().size(), expirationIndex().size());
+
+      timeService.advance(LIFESPAN + 1);
+      dataContainer().purgeExpired();
+      assertEquals(0, dataContainer().size());
+      assertEquals(0, expirationIndex().size());
+   }
+
+   private DataContainer<Object, Object> dataContainer() {
+      return cache.getAdvancedCache().getDataContainer();
+   }
+
+   private ExpirationTimingWheel<Object> expirationIndex() {
+      return TestingUtil.extractField(dataContainer(), "expirationIndex");
+   }
+}
@@ -0,0 +1,170 @@
+package org.infinispan.container;
+
+import org.infinispan.container.entries.InternalCacheEntry;
+import org.infinispan.eviction.ActivationManager;
+import org.infinispan.eviction.EvictionManager;
+import org.infinispan.eviction.PassivationManager;
+import org.infinispan.marshall.TestObjectStreamMarshaller;
+import org.infinispan.metadata.EmbeddedMetadata;
+import org.mockito.Mockito;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertFalse;
+import static org.testng.AssertJUnit.assertNotNull;
+import static org.testng.AssertJUnit.assertNull;
+import static org.testng.AssertJUnit.assertTrue;
+
+@Test(groups = "unit", testName = "container.OffHeapDataContainerTest")
+public class OffHeapDataContainerTest extends SimpleDataContainerTest {
+
+   private TestObjectStreamMarshaller marshaller;
+
+   @BeforeClass
+   public void createMarshaller() {
+      marshaller = new TestObjectStreamMarshaller();
+   }
+
+   @AfterClass(alwaysRun = true)
+   public void stopMarshaller() {
+      marshaller.stop();
+   }
+
+   @Override
+   public void tearDown() {
+      // release the native memory
+      ((OffHeapDataContainer) dc).stop();
+      super.tearDown();
+   }
+
+   @Override
+   protected DataContainer createContainer() {
+      return createContainer(16, -1, mock(EvictionManager.class), mock(PassivationManager.class));
+   }
+
+   private OffHeapDataContainer<Object, String> createContainer(int concurrencyLevel, int maxEntries,
+                                                                EvictionManager evictionManager,
+                                                                PassivationManager passivationManager) {
+      OffHeapDataContainer<Object, String> dc = new OffHeapDataContainer<Object, String>(concurrencyLevel, maxEntries);
+      InternalEntryFactoryImpl internalEntryFactory = new InternalEntryFactoryImpl();
+      internalEntryFactory.injectTimeService(TIME_SERVICE);
+      ActivationManager activationManager = mock(ActivationManager.class);
+      dc.initialize(evictionManager, passivationManager, internalEntryFactory, activationManager, TIME_SERVICE,
+                    marshaller);
+      return dc;
+   }
+
+   @Override
+   public void testUpdatingLastUsed() throws Exception {
+      dc.put("k", "v", new EmbeddedMetadata.Builder().maxIdle(600000, TimeUnit.MILLISECONDS).build());
+      long lastUsed = dc.get("k").getLastUsed();
+      Thread.sleep(100); // for time calc granularity
+      // entries are copies, the last used stamp is updated in the stored entry only
+      assert dc.get("k").getLastUsed() > lastUsed;
+   }
+
+   public void testManyEntries() {
+      int count = 10000;
+      for (int i = 0; i < count; i++) {
+         dc.put(i, "v" + i, new EmbeddedMetadata.Builder().build());
+      }
+      assertEquals(count, dc.size());
+
+      Set<Object> keys = new HashSet<Object>();
+      for (InternalCacheEntry<Object, String> ice : dc) {
+         assertEquals("v" + ice.getKey(), ice.getValue());
+         assertTrue(keys.add(ice.getKey()));
+      }
+      assertEquals(count, keys.size());
+
+      for (int i = 0; i < count; i += 2) {
+         assertEquals("v" + i, dc.remove(i).getValue());
+      }
+      assertEquals(count / 2, dc.size());
+      for (int i = 0; i < count; i++) {
+         assertEquals(i % 2 != 0, dc.containsKey(i));
+      }
+
+      OffHeapDataContainer offHeap = (OffHeapDataContainer) dc;
+      assertTrue(offHeap.memoryUsed() > 0);
+      dc.clear();
+      assertEquals(0, dc.size());
+      assertEquals(0, offHeap.memoryUsed());
+   }
+
+   public void testStopReleasesMemory() {
+      OffHeapDataContainer offHeap = (OffHeapDataContainer) dc;
+      for (int i = 0; i < 1000; i++) {
+         dc.put(i, "v" + i, new EmbeddedMetadata.Builder().build());
+      }
+      assertTrue(offHeap.memoryUsed() > 0);
+      offHeap.stop();
+      assertEquals(0, offHeap.memoryUsed());
+      assertEquals(0, dc.size());
+
+      // restarted, the container allocates its memory again
+      dc.put("k", "v", new EmbeddedMetadata.Builder().build());
+      assertEquals("v", dc.get("k").getValue());
+   }
+
+   public void testUpdateKeepsSingleEntry() {
+      dc.put("k", "v1", new EmbeddedMetadata.Builder().build());
+      dc.put("k", "v2", new EmbeddedMetadata.Builder().build());
+      assertEquals(1, dc.size());
+      assertEquals("v2", dc.get("k").getValue());
+   }
+
+   public void testCompute() {
+      dc.put("k", "v", new EmbeddedMetadata.Builder().build());
+      InternalCacheEntry<Object, String> entry = dc.compute("k", new DataContainer.ComputeAction<Object, String>() {
+         @Override
+         public InternalCacheEntry<Object, String> compute(Object key, InternalCacheEntry<Object, String> oldEntry,
+                                                          InternalEntryFactory factory) {
+            return factory.create(key, oldEntry.getValue() + "2", oldEntry.getMetadata());
+         }
+      });
+      assertEquals("v2", entry.getValue());
+      assertEquals("v2", dc.get("k").getValue());
+
+      dc.compute("k", new DataContainer.ComputeAction<Object, String>() {
+         @Override
+         public InternalCacheEntry<Object, String> compute(Object key, InternalCacheEntry<Object, String> oldEntry,
+                                                          InternalEntryFactory factory) {
+            return null;
+         }
+      });
+      assertNull(dc.get("k"));
+      assertEquals(0, dc.size());
+   }
+
+   public void testEvictionOfLeastRecentlyUsed() {
+      EvictionManager evictionManager = mock(EvictionManager.class);
+      PassivationManager passivationManager = mock(PassivationManager.class);
+      // a single segment, so that the bound applies to the whole container
+      OffHeapDataContainer<Object, String> bounded = createContainer(1, 2, evictionManager, passivationManager);
+      try {
+         bounded.put("k1", "v1", new EmbeddedMetadata.Builder().build());
+         bounded.put("k2", "v2", new EmbeddedMetadata.Builder().build());
+         assertNotNull(bounded.get("k1"));
+         bounded.put("k3", "v3", new EmbeddedMetadata.Builder().build());
+
+         assertEquals(2, bounded.size());
+         assertTrue(bounded.containsKey("k1"));
+         assertFalse(bounded.containsKey("k2"));
+         assertTrue(bounded.containsKey("k3"));
+         verify(passivationManager).passivate(Mockito.<InternalCacheEntry>any());
+         verify(evictionManager).onEntryEviction(Mockito.<Map>any());
+      } finally {
+         bounded.clear();
+      }
+   }
+}
@@ -0,0 +1,32 @@
+package org.infinispan.distexec.mapreduce;
+
+import org.infinispan.Cache;
+import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.testng.annotations.Test;
+
+
+/**
+ * DistributedStreamingShuffleFourNodesMapReduceTest tests Map/Reduce functionality using four Infinispan
+ * nodes, distributed reduce and intermediate key/values streamed to the reducing nodes. The small
+ * shuffle buffer makes the reducing nodes spill intermediate values to disk.
+ *
+ * @since 7.2
+ */
+@Test(groups = "functional", testName = "distexec.mapreduce.DistributedStreamingShuffleFourNodesMapReduceTest")
+public class DistributedStreamingShuffleFourNodesMapReduceTest extends BaseWordCountMapReduceTest {
+
+   @Override
+   protected void createCacheManagers() throws Throwable {
+      ConfigurationBuilder builder = getDefaultClusteredCacheConfig(getCacheMode(), true);
+      builder.clustering().stateTransfer().chunkSize(2);
+      createClusteredCaches(4, cacheName(), builder);
+   }
+
+   @SuppressWarnings({ "rawtypes", "unchecked" })
+   @Override
+   protected MapReduceTask<String, String, String, Integer> createMapReduceTask(Cache c) {
+      MapReduceTask<String, String, String, Integer> t = new MapReduceTask<String, String, String, Integer>(c, true,
+            false);
+      return t.usingStreamingShuffle(4);
+   }
+}
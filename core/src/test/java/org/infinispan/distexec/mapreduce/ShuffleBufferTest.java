@@ -0,0 +1,99 @@
+package org.infinispan.distexec.mapreduce;
+
+import org.infinispan.marshall.TestObjectStreamMarshaller;
+import org.infinispan.test.AbstractInfinispanTest;
+import org.infinispan.test.TestingUtil;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertFalse;
+import static org.testng.AssertJUnit.assertNull;
+import static org.testng.AssertJUnit.assertTrue;
+
+/**
+ * Tests the spilling of the intermediate values of a streaming shuffle to disk.
+ *
+ * @since 7.2
+ */
+@Test(groups = "unit", testName = "distexec.mapreduce.ShuffleBufferTest")
+public class ShuffleBufferTest extends AbstractInfinispanTest {
+
+   private static final int NUM_KEYS = 20;
+   private static final int VALUES_PER_KEY = 25;
+   private static final int MAX_BUFFERED_VALUES = 50;
+
+   private TestObjectStreamMarshaller marshaller;
+   private ShuffleBuffer<String, Integer> buffer;
+
+   @BeforeMethod
+   public void setUp() {
+      marshaller = new TestObjectStreamMarshaller();
+      buffer = new ShuffleBuffer<String, Integer>("ShuffleBufferTest", marshaller, MAX_BUFFERED_VALUES);
+   }
+
+   @AfterMethod(alwaysRun = true)
+   public void tearDown() {
+      buffer.release();
+      marshaller.stop();
+   }
+
+   public void testSpilledValuesAreMerged() {
+      // One value per key and per batch, so each key has values in every spill and in memory
+      for (int value = 1; value <= VALUES_PER_KEY; value++) {
+         Map<String, List<Integer>> batch = new HashMap<String, List<Integer>>();
+         for (int key = 0; key < NUM_KEYS; key++) {
+            batch.put("key" + key, Collections.singletonList(value));
+         }
+         buffer.add(batch);
+      }
+      int spillCount = TestingUtil.extractField(buffer, "spillCount");
+      int bufferedValues = TestingUtil.extractField(buffer, "bufferedValues");
+      assertTrue("Spill count " + spillCount, spillCount > 2);
+      assertTrue(bufferedValues > 0);
+      File spillDir = TestingUtil.extractField(buffer, "spillDir");
+      assertTrue(spillDir.isDirectory());
+
+      Map<String, Integer> result = new HashMap<String, Integer>();
+      buffer.reduce(new SumReducer(), result);
+      assertEquals(NUM_KEYS, result.size());
+      for (int key = 0; key < NUM_KEYS; key++) {
+         assertEquals(VALUES_PER_KEY * (VALUES_PER_KEY + 1) / 2, (int) result.get("key" + key));
+      }
+
+      buffer.release();
+      assertFalse(spillDir.exists());
+      assertNull(TestingUtil.extractField(buffer, "spillDir"));
+   }
+
+   public void testNoSpillBelowLimit() {
+      Map<String, List<Integer>> batch = new HashMap<String, List<Integer>>();
+      batch.put("key", new ArrayList<Integer>(Collections.nCopies(MAX_BUFFERED_VALUES, 1)));
+      buffer.add(batch);
+      assertNull(TestingUtil.extractField(buffer, "spillDir"));
+
+      Map<String, Integer> result = new HashMap<String, Integer>();
+      buffer.reduce(new SumReducer(), result);
+      assertEquals(MAX_BUFFERED_VALUES, (int) result.get("key"));
+   }
+
+   private static class SumReducer implements Reducer<String, Integer> {
+      @Override
+      public Integer reduce(String reducedKey, Iterator<Integer> iter) {
+         int sum = 0;
+         while (iter.hasNext()) {
+            sum += iter.next();
+         }
+         return sum;
+      }
+   }
+}
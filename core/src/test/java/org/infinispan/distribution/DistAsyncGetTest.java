@@ -0,0 +1,86 @@
+package org.infinispan.distribution;
+
+import org.infinispan.Cache;
+import org.infinispan.commons.util.concurrent.FutureListener;
+import org.infinispan.commons.util.concurrent.NotifyingFuture;
+import org.infinispan.context.Flag;
+import org.infinispan.interceptors.FooInterceptor;
+import org.infinispan.interceptors.InterceptorChain;
+import org.infinispan.test.TestingUtil;
+import org.testng.annotations.Test;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.infinispan.test.TestingUtil.k;
+import static org.infinispan.test.TestingUtil.v;
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertFalse;
+import static org.testng.AssertJUnit.assertNull;
+import static org.testng.AssertJUnit.assertTrue;
+
+/**
+ * Tests the asynchronous remote gets, which complete the future from the thread receiving the response.
+ *
+ * @since 7.2
+ */
+@Test(groups = "functional", testName = "distribution.DistAsyncGetTest")
+public class DistAsyncGetTest extends BaseDistFunctionalTest<Object, String> {
+
+   public DistAsyncGetTest() {
+      sync = true;
+      tx = false;
+      l1CacheEnabled = false;
+   }
+
+   public void testChainSupportsAsyncInvocation() {
+      for (Cache<Object, String> c : caches) {
+         assertTrue(TestingUtil.extractComponent(c, InterceptorChain.class).supportsAsyncInvocation());
+      }
+   }
+
+   public void testChainModificationUpdatesAsyncInvocationSupport() {
+      InterceptorChain chain = TestingUtil.extractComponent(c1, InterceptorChain.class);
+      chain.addInterceptor(new FooInterceptor(), 1);
+      try {
+         assertFalse(chain.supportsAsyncInvocation());
+      } finally {
+         chain.removeInterceptor(FooInterceptor.class);
+      }
+      assertTrue(chain.supportsAsyncInvocation());
+   }
+
+   public void testGetAsyncFromNonOwner(Method m) throws Exception {
+      String k = k(m);
+      getOwners(k)[0].put(k, v(m));
+
+      Cache<Object, String> nonOwner = getFirstNonOwner(k);
+      assertEquals(v(m), nonOwner.getAsync(k).get(10, TimeUnit.SECONDS));
+      assertEquals(v(m), nonOwner.getAdvancedCache().withFlags(Flag.SKIP_CACHE_LOAD).getAsync(k).get(10, TimeUnit.SECONDS));
+      assertNull(nonOwner.getAsync(k(m, 1)).get(10, TimeUnit.SECONDS));
+   }
+
+   public void testGetAsyncNotifiesListener(Method m) throws Exception {
+      String k = k(m);
+      getOwners(k)[0].put(k, v(m));
+
+      final CountDownLatch latch = new CountDownLatch(1);
+      final Object[] result = new Object[1];
+      NotifyingFuture<String> future = getFirstNonOwner(k).getAsync(k);
+      future.attachListener(new FutureListener<String>() {
+         @Override
+         public void futureDone(Future<String> future) {
+            try {
+               result[0] = future.get();
+            } catch (Exception e) {
+               result[0] = e;
+            }
+            latch.countDown();
+         }
+      });
+      assertTrue(latch.await(10, TimeUnit.SECONDS));
+      assertEquals(v(m), result[0]);
+   }
+}
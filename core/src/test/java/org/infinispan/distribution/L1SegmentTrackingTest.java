@@ -0,0 +1,87 @@
+package org.infinispan.distribution;
+
+import org.infinispan.configuration.cache.CacheMode;
+import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.distribution.impl.L1ManagerImpl;
+import org.infinispan.test.MultipleCacheManagersTest;
+import org.infinispan.test.TestingUtil;
+import org.infinispan.test.fwk.CleanupAfterMethod;
+import org.testng.annotations.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+/**
+ * Tests the L1 invalidations with the requestors tracked per segment and sent in batches.
+ *
+ * @since 7.2
+ */
+@Test(groups = "functional", testName = "distribution.L1SegmentTrackingTest")
+@CleanupAfterMethod
+public class L1SegmentTrackingTest extends MultipleCacheManagersTest {
+
+   @Override
+   protected void createCacheManagers() throws Throwable {
+      ConfigurationBuilder builder = getDefaultClusteredCacheConfig(CacheMode.DIST_SYNC, false);
+      builder.clustering().hash().numOwners(1).numSegments(4)
+            .l1().enable().invalidationThreshold(-1).segmentTracking(true).invalidationBatchWindow(20);
+      createCluster(builder, 3);
+      waitForClusterToForm();
+   }
+
+   public void testInvalidationOfCachedKeys() {
+      MagicKey k1 = new MagicKey("k1", cache(0));
+      MagicKey k2 = new MagicKey("k2", cache(0));
+      cache(0).put(k1, "v1");
+      cache(0).put(k2, "v2");
+
+      // Both non-owners cache the keys in L1
+      for (int i = 1; i < 3; i++) {
+         assertEquals(cache(i).get(k1), "v1");
+         assertEquals(cache(i).get(k2), "v2");
+         assertTrue(advancedCache(i).getDataContainer().containsKey(k1));
+      }
+
+      L1ManagerImpl l1Manager = l1Manager(0);
+      l1Manager.setStatisticsEnabled(true);
+      l1Manager.resetStatistics();
+
+      Map<Object, Object> values = new HashMap<Object, Object>();
+      values.put(k1, "v1'");
+      values.put(k2, "v2'");
+      cache(0).putAll(values);
+
+      for (int i = 1; i < 3; i++) {
+         assertFalse(advancedCache(i).getDataContainer().containsKey(k1));
+         assertFalse(advancedCache(i).getDataContainer().containsKey(k2));
+         assertEquals(cache(i).get(k1), "v1'");
+      }
+      // Each command invalidates both keys on one node
+      assertTrue(l1Manager.getInvalidationCommands() >= 2);
+      assertEquals(l1Manager.getInvalidatedEntries(), 2 * l1Manager.getInvalidationCommands());
+      assertEquals(l1Manager.getAvoidedInvalidations(), 0);
+      // The requestors are kept for the segment, not per key
+      assertTrue(l1Manager.getTrackedRequestorEntries() <= 4);
+   }
+
+   public void testNoInvalidationWithoutRequestors() {
+      L1ManagerImpl l1Manager = l1Manager(0);
+      l1Manager.setStatisticsEnabled(true);
+      l1Manager.resetStatistics();
+
+      MagicKey k = new MagicKey("k", cache(0));
+      cache(0).put(k, "v1");
+      cache(0).put(k, "v2");
+
+      assertEquals(l1Manager.getInvalidationCommands(), 0);
+      assertTrue(l1Manager.getAvoidedInvalidations() >= 2);
+   }
+
+   private L1ManagerImpl l1Manager(int index) {
+      return (L1ManagerImpl) TestingUtil.extractComponent(cache(index), L1Manager.class);
+   }
+}
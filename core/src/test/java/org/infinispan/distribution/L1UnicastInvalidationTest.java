@@ -0,0 +1,61 @@
+package org.infinispan.distribution;
+
+import org.infinispan.configuration.cache.CacheMode;
+import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.distribution.impl.L1ManagerImpl;
+import org.infinispan.test.MultipleCacheManagersTest;
+import org.infinispan.test.TestingUtil;
+import org.testng.annotations.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+/**
+ * Tests that the unicast L1 invalidations only send each requestor the keys it requested.
+ *
+ * @since 7.2
+ */
+@Test(groups = "functional", testName = "distribution.L1UnicastInvalidationTest")
+public class L1UnicastInvalidationTest extends MultipleCacheManagersTest {
+
+   @Override
+   protected void createCacheManagers() throws Throwable {
+      ConfigurationBuilder builder = getDefaultClusteredCacheConfig(CacheMode.DIST_SYNC, false);
+      builder.clustering().hash().numOwners(1)
+            .l1().enable().invalidationThreshold(-1);
+      createCluster(builder, 3);
+      waitForClusterToForm();
+   }
+
+   public void testKeysGroupedByRequestor() {
+      MagicKey k1 = new MagicKey("k1", cache(0));
+      MagicKey k2 = new MagicKey("k2", cache(0));
+      cache(0).put(k1, "v1");
+      cache(0).put(k2, "v2");
+
+      // Each non-owner caches a different key in L1
+      assertEquals(cache(1).get(k1), "v1");
+      assertEquals(cache(2).get(k2), "v2");
+      assertTrue(advancedCache(1).getDataContainer().containsKey(k1));
+      assertTrue(advancedCache(2).getDataContainer().containsKey(k2));
+
+      L1ManagerImpl l1Manager = (L1ManagerImpl) TestingUtil.extractComponent(cache(0), L1Manager.class);
+      l1Manager.setStatisticsEnabled(true);
+      l1Manager.resetStatistics();
+
+      Map<Object, Object> values = new HashMap<Object, Object>();
+      values.put(k1, "v1'");
+      values.put(k2, "v2'");
+      cache(0).putAll(values);
+
+      assertFalse(advancedCache(1).getDataContainer().containsKey(k1));
+      assertFalse(advancedCache(2).getDataContainer().containsKey(k2));
+      // One command per requestor, each with a single key
+      assertEquals(l1Manager.getInvalidationCommands(), 2);
+      assertEquals(l1Manager.getInvalidatedEntries(), 2);
+   }
+}
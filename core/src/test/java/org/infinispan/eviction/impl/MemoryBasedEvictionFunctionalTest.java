@@ -0,0 +1,96 @@
+package org.infinispan.eviction.impl;
+
+import org.infinispan.commons.CacheConfigurationException;
+import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.eviction.EvictionStrategy;
+import org.infinispan.eviction.EvictionType;
+import org.infinispan.interceptors.CacheMgmtInterceptor;
+import org.infinispan.manager.EmbeddedCacheManager;
+import org.infinispan.test.SingleCacheManagerTest;
+import org.infinispan.test.TestingUtil;
+import org.infinispan.test.fwk.TestCacheManagerFactory;
+import org.testng.annotations.Test;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertNotNull;
+import static org.testng.AssertJUnit.assertNull;
+import static org.testng.AssertJUnit.assertTrue;
+
+/**
+ * Tests the eviction of entries based on their estimated memory usage.
+ *
+ * @since 7.2
+ */
+@Test(groups = "functional", testName = "eviction.MemoryBasedEvictionFunctionalTest")
+public class MemoryBasedEvictionFunctionalTest extends SingleCacheManagerTest {
+
+   private static final long MAX_SIZE = 100 * 1024;
+   private static final int VALUE_SIZE = 1024;
+
+   public MemoryBasedEvictionFunctionalTest() {
+      cleanup = CleanupPhase.AFTER_METHOD;
+   }
+
+   @Override
+   protected EmbeddedCacheManager createCacheManager() throws Exception {
+      ConfigurationBuilder builder = TestCacheManagerFactory.getDefaultCacheConfiguration(false);
+      builder.eviction().type(EvictionType.MEMORY).size(MAX_SIZE).strategy(EvictionStrategy.LRU)
+            .jmxStatistics().enable();
+      return TestCacheManagerFactory.createCacheManager(builder);
+   }
+
+   public void testEvictionKeepsMemoryUnderLimit() {
+      for (int i = 0; i < 1000; i++) {
+         cache.put(i, new byte[VALUE_SIZE]);
+         assertTrue(memoryUsed() <= MAX_SIZE);
+      }
+      // Fewer entries than the size, given that each of them takes more than a byte
+      int size = cache.getAdvancedCache().getDataContainer().size();
+      assertTrue("Too many entries: " + size, size < MAX_SIZE / VALUE_SIZE);
+      assertTrue("Too few entries: " + size, size > MAX_SIZE / (VALUE_SIZE * 2));
+   }
+
+   public void testReplaceUpdatesMemoryUsed() {
+      cache.put("small", new byte[16]);
+      cache.put("other", new byte[16]);
+      long before = memoryUsed();
+
+      cache.put("small", new byte[VALUE_SIZE + 16]);
+      assertEquals(before + VALUE_SIZE, memoryUsed());
+
+      cache.put("small", new byte[16]);
+      assertEquals(before, memoryUsed());
+
+      cache.remove("small");
+      cache.remove("other");
+      assertEquals(0, memoryUsed());
+   }
+
+   public void testBigValueEvictsLeastRecentlyUsedEntries() {
+      for (int i = 0; i < 10; i++) {
+         cache.put(i, new byte[VALUE_SIZE]);
+      }
+      // Replacing a value with a bigger one must evict the other entries, not only count them
+      cache.put(9, new byte[(int) MAX_SIZE - 4 * VALUE_SIZE]);
+      assertTrue(memoryUsed() <= MAX_SIZE);
+      assertNull(cache.get(0));
+      assertNotNull(cache.get(9));
+   }
+
+   @Test(expectedExceptions = CacheConfigurationException.class)
+   public void testLIRSNotAllowed() {
+      ConfigurationBuilder builder = new ConfigurationBuilder();
+      builder.eviction().type(EvictionType.MEMORY).size(MAX_SIZE).strategy(EvictionStrategy.LIRS);
+      builder.build();
+   }
+
+   public void testDefaultStrategy() {
+      ConfigurationBuilder builder = new ConfigurationBuilder();
+      builder.eviction().type(EvictionType.MEMORY).size(MAX_SIZE);
+      assertEquals(EvictionStrategy.LRU, builder.build().eviction().strategy());
+   }
+
+   private long memoryUsed() {
+      return TestingUtil.findInterceptor(cache, CacheMgmtInterceptor.class).getDataMemoryUsed();
+   }
+}
@@ -0,0 +1,256 @@
+package org.infinispan.iteration;
+
+import org.infinispan.Cache;
+import org.infinispan.commons.CacheException;
+import org.infinispan.commons.util.CloseableIterator;
+import org.infinispan.configuration.cache.CacheMode;
+import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.container.DataContainer;
+import org.infinispan.container.entries.CacheEntry;
+import org.infinispan.distribution.MagicKey;
+import org.infinispan.iteration.impl.EntryRetriever;
+import org.infinispan.remoting.transport.Address;
+import org.infinispan.test.TestingUtil;
+import org.infinispan.test.fwk.CheckPoint;
+import org.infinispan.test.fwk.CleanupAfterMethod;
+import org.mockito.AdditionalAnswers;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyCollection;
+import static org.mockito.Matchers.anySetOf;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.withSettings;
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertTrue;
+
+/**
+ * Tests the distributed entry iteration while several owners send their batches at the same time, with at most one
+ * batch in flight per owner, and while the originator resizes those batches.
+ *
+ * @since 7.2
+ */
+@Test(groups = "functional", testName = "iteration.DistributedEntryRetrieverPipeliningTest")
+@CleanupAfterMethod
+public class DistributedEntryRetrieverPipeliningTest extends BaseSetupEntryRetrieverTest {
+   private static final int CHUNK_SIZE = 10;
+   // The capacity of the originator iterator, see DistributedEntryRetriever.MAX_BATCH_SIZE_FACTOR
+   private static final int ITERATOR_CAPACITY = 2 * 8 * CHUNK_SIZE;
+
+   public DistributedEntryRetrieverPipeliningTest() {
+      super(false, CacheMode.DIST_SYNC);
+   }
+
+   @Override
+   protected void enhanceConfiguration(ConfigurationBuilder builder) {
+      builder.clustering().stateTransfer().chunkSize(CHUNK_SIZE);
+   }
+
+   public void testOwnersIteratedConcurrently() throws Exception {
+      Map<Object, String> values = putValues(cache(1, CACHE_NAME), 50);
+      values.putAll(putValues(cache(2, CACHE_NAME), 50));
+
+      CheckPoint checkPoint = new CheckPoint();
+      blockIteration(cache(1, CACHE_NAME), checkPoint);
+      blockIteration(cache(2, CACHE_NAME), checkPoint);
+
+      Future<List<CacheEntry<Object, String>>> future = forkIteration(cache(0, CACHE_NAME));
+
+      // Both owners must be iterating before any of them has sent its entries
+      checkPoint.awaitStrict("iteration_started", 2, 10, TimeUnit.SECONDS);
+      checkPoint.triggerForever("iteration_released");
+
+      assertIteratedOnce(values, future.get(10, TimeUnit.SECONDS));
+   }
+
+   public void testBatchSizeGrowsAndShrinks() throws Exception {
+      Cache<Object, String> cache0 = cache(0, CACHE_NAME);
+      Map<Object, String> values = putValues(cache(1, CACHE_NAME), 1000);
+
+      final List<Integer> batchSizes = Collections.synchronizedList(new ArrayList<Integer>());
+      final AtomicInteger receivedEntries = new AtomicInteger();
+      final Address owner = address(1);
+      EntryRetriever<Object, String> retriever = TestingUtil.extractComponent(cache0, EntryRetriever.class);
+      final Answer<Object> forwardedAnswer = AdditionalAnswers.delegatesTo(retriever);
+      EntryRetriever mockRetriever = mock(EntryRetriever.class, withSettings().defaultAnswer(forwardedAnswer));
+      doAnswer(new Answer() {
+         @Override
+         public Object answer(InvocationOnMock invocation) throws Throwable {
+            Object[] args = invocation.getArguments();
+            Collection<?> entries = (Collection<?>) args[4];
+            if (owner.equals(args[1]) && entries != null) {
+               receivedEntries.addAndGet(entries.size());
+               // The last batch only contains the entries left
+               if (((Set<?>) args[2]).isEmpty() && ((Set<?>) args[3]).isEmpty()) {
+                  batchSizes.add(entries.size());
+               }
+            }
+            return forwardedAnswer.answer(invocation);
+         }
+      }).when(mockRetriever).receiveResponse(any(UUID.class), any(Address.class), anySetOf(Integer.class),
+                                             anySetOf(Integer.class), anyCollection(), any(CacheException.class));
+      TestingUtil.replaceComponent(cache0, EntryRetriever.class, mockRetriever, true);
+
+      List<CacheEntry<Object, String>> entries = new ArrayList<>();
+      try (CloseableIterator<CacheEntry<Object, String>> iterator = mockRetriever.retrieveEntries(null, null, null, null)) {
+         // Nothing is consumed until the iterator is full, so the owner is asked for smaller batches again
+         eventually(new Condition() {
+            @Override
+            public boolean isSatisfied() throws Exception {
+               return receivedEntries.get() > ITERATOR_CAPACITY;
+            }
+         });
+         while (iterator.hasNext()) {
+            entries.add(iterator.next());
+         }
+      }
+      assertIteratedOnce(values, entries);
+
+      int maxBatchSize = CHUNK_SIZE;
+      boolean shrunk = false;
+      synchronized (batchSizes) {
+         for (int batchSize : batchSizes) {
+            if (batchSize < maxBatchSize) {
+               shrunk = true;
+            }
+            maxBatchSize = Math.max(maxBatchSize, batchSize);
+         }
+      }
+      assertTrue("Batch size never grew: " + batchSizes, maxBatchSize > CHUNK_SIZE);
+      assertTrue("Batch size never shrunk: " + batchSizes, shrunk);
+   }
+
+   public void testNodeLeavesWithBatchInFlight() throws Exception {
+      Cache<Object, String> cache0 = cache(0, CACHE_NAME);
+      Map<Object, String> values = putValues(cache(1, CACHE_NAME), 100);
+      values.putAll(putValues(cache(2, CACHE_NAME), 100));
+
+      CheckPoint checkPoint = new CheckPoint();
+      blockFirstBatch(cache0, address(1), checkPoint);
+
+      Future<List<CacheEntry<Object, String>>> future = forkIteration(cache0);
+
+      // The owner has sent its first batch and already collects the next one
+      checkPoint.awaitStrict("pre_receive_response_invoked", 10, TimeUnit.SECONDS);
+      killMember(1, CACHE_NAME);
+      checkPoint.triggerForever("pre_receive_response_released");
+
+      assertIteratedOnce(values, future.get(10, TimeUnit.SECONDS));
+   }
+
+   public void testRehashWithBatchInFlight() throws Exception {
+      Cache<Object, String> cache0 = cache(0, CACHE_NAME);
+      Map<Object, String> values = new HashMap<>();
+      for (int i = 0; i < 300; ++i) {
+         String key = "key" + i;
+         cache0.put(key, key);
+         values.put(key, key);
+      }
+
+      CheckPoint checkPoint = new CheckPoint();
+      blockFirstBatch(cache0, address(1), checkPoint);
+
+      Future<List<CacheEntry<Object, String>>> future = forkIteration(cache0);
+
+      checkPoint.awaitStrict("pre_receive_response_invoked", 10, TimeUnit.SECONDS);
+      addClusterEnabledCacheManager(builderUsed).getCache(CACHE_NAME);
+      waitForClusterToForm(CACHE_NAME);
+      checkPoint.triggerForever("pre_receive_response_released");
+
+      assertIteratedOnce(values, future.get(10, TimeUnit.SECONDS));
+   }
+
+   private Map<Object, String> putValues(Cache<Object, Object> owner, int count) {
+      Map<Object, String> values = new HashMap<>();
+      for (int i = 0; i < count; ++i) {
+         MagicKey key = new MagicKey(owner);
+         owner.put(key, key.toString());
+         values.put(key, key.toString());
+      }
+      return values;
+   }
+
+   private Future<List<CacheEntry<Object, String>>> forkIteration(Cache<?, ?> cache) {
+      final EntryRetriever<Object, String> retriever = TestingUtil.extractComponent(cache, EntryRetriever.class);
+      return fork(new Callable<List<CacheEntry<Object, String>>>() {
+         @Override
+         public List<CacheEntry<Object, String>> call() throws Exception {
+            List<CacheEntry<Object, String>> entries = new ArrayList<>();
+            try (CloseableIterator<CacheEntry<Object, String>> iterator = retriever.retrieveEntries(null, null, null,
+                                                                                                   null)) {
+               while (iterator.hasNext()) {
+                  entries.add(iterator.next());
+               }
+            }
+            return entries;
+         }
+      });
+   }
+
+   private void assertIteratedOnce(Map<Object, String> expected, List<CacheEntry<Object, String>> entries) {
+      Map<Object, String> results = new HashMap<>();
+      for (CacheEntry<Object, String> entry : entries) {
+         results.put(entry.getKey(), entry.getValue());
+      }
+      assertEquals("Duplicate entries were returned", results.size(), entries.size());
+      assertEquals(expected, results);
+   }
+
+   /**
+    * Blocks the iteration of the data container of the given owner until the main thread releases it.
+    */
+   private void blockIteration(Cache<?, ?> cache, final CheckPoint checkPoint) {
+      DataContainer container = TestingUtil.extractComponent(cache, DataContainer.class);
+      final Answer<Object> forwardedAnswer = AdditionalAnswers.delegatesTo(container);
+      DataContainer mockContainer = mock(DataContainer.class, withSettings().defaultAnswer(forwardedAnswer));
+      doAnswer(new Answer() {
+         @Override
+         public Object answer(InvocationOnMock invocation) throws Throwable {
+            checkPoint.trigger("iteration_started");
+            checkPoint.awaitStrict("iteration_released", 10, TimeUnit.SECONDS);
+            return forwardedAnswer.answer(invocation);
+         }
+      }).when(mockContainer).iterator();
+      TestingUtil.replaceComponent(cache, DataContainer.class, mockContainer, true);
+   }
+
+   /**
+    * Blocks the processing of the first batch the given owner sends to the originator, so the owner has a batch in
+    * flight until the main thread releases it.
+    */
+   private void blockFirstBatch(Cache<?, ?> cache, final Address owner, final CheckPoint checkPoint) {
+      EntryRetriever retriever = TestingUtil.extractComponent(cache, EntryRetriever.class);
+      final Answer<Object> forwardedAnswer = AdditionalAnswers.delegatesTo(retriever);
+      EntryRetriever mockRetriever = mock(EntryRetriever.class, withSettings().defaultAnswer(forwardedAnswer));
+      final AtomicBoolean blocked = new AtomicBoolean();
+      doAnswer(new Answer() {
+         @Override
+         public Object answer(InvocationOnMock invocation) throws Throwable {
+            if (owner.equals(invocation.getArguments()[1]) && blocked.compareAndSet(false, true)) {
+               checkPoint.trigger("pre_receive_response_invoked");
+               checkPoint.awaitStrict("pre_receive_response_released", 10, TimeUnit.SECONDS);
+            }
+            return forwardedAnswer.answer(invocation);
+         }
+      }).when(mockRetriever).receiveResponse(any(UUID.class), any(Address.class), anySetOf(Integer.class),
+                                             anySetOf(Integer.class), anyCollection(), any(CacheException.class));
+      TestingUtil.replaceComponent(cache, EntryRetriever.class, mockRetriever, true);
+   }
+}
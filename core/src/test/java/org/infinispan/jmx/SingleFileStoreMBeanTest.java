@@ -0,0 +1,87 @@
+package org.infinispan.jmx;
+
+import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.configuration.cache.SingleFileStoreConfigurationBuilder;
+import org.infinispan.manager.EmbeddedCacheManager;
+import org.infinispan.test.SingleCacheManagerTest;
+import org.infinispan.test.TestingUtil;
+import org.infinispan.test.fwk.TestCacheManagerFactory;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.Test;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import static org.infinispan.test.TestingUtil.getCacheObjectName;
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertTrue;
+
+/**
+ * Tests the single file store statistics and compaction exposed by the CacheStore MBean.
+ *
+ * @since 7.2
+ */
+@Test(groups = "functional", testName = "jmx.SingleFileStoreMBeanTest")
+public class SingleFileStoreMBeanTest extends SingleCacheManagerTest {
+   private static final String JMX_DOMAIN = SingleFileStoreMBeanTest.class.getName();
+   private static final int NUM_ENTRIES = 200;
+
+   private ObjectName storeInterceptorObjName;
+   private MBeanServer threadMBeanServer;
+   private String tmpDirectory;
+
+   @Override
+   protected EmbeddedCacheManager createCacheManager() throws Exception {
+      tmpDirectory = TestingUtil.tmpDirectory(getClass());
+      cacheManager = TestCacheManagerFactory.createCacheManagerEnforceJmxDomain(JMX_DOMAIN);
+      ConfigurationBuilder configuration = getDefaultStandaloneCacheConfig(false);
+      // No purge, so only the compaction invoked through JMX runs
+      configuration.expiration().disableReaper();
+      configuration
+         .jmxStatistics().enable()
+         .persistence()
+            .passivation(false)
+            .addStore(SingleFileStoreConfigurationBuilder.class)
+               .location(tmpDirectory)
+               .compactionThreshold(2f);
+
+      cacheManager.defineConfiguration("test", configuration.build());
+      cache = cacheManager.getCache("test");
+      storeInterceptorObjName = getCacheObjectName(JMX_DOMAIN, "test(local)", "CacheStore");
+      threadMBeanServer = PerThreadMBeanServerLookup.getThreadMBeanServer();
+      return cacheManager;
+   }
+
+   @AfterClass(alwaysRun = true)
+   protected void clearTempDir() {
+      TestingUtil.recursiveFileRemove(tmpDirectory);
+   }
+
+   public void testFragmentationAndCompaction() throws Exception {
+      for (int i = 0; i < NUM_ENTRIES; i++) {
+         cache.put(i, "value-" + i);
+      }
+      // Leave holes at the start of the file, and the last entries at its end
+      for (int i = 0; i < NUM_ENTRIES / 2; i++) {
+         cache.remove(i);
+      }
+      double fragmentationBefore = (Double) attribute("SingleFileStoreFragmentationRatio");
+      assertTrue("Fragmentation ratio " + fragmentationBefore, fragmentationBefore > 0.4);
+      assertEquals(0L, attribute("SingleFileStoreCompactionThroughput"));
+
+      threadMBeanServer.invoke(storeInterceptorObjName, "compactSingleFileStores", new Object[0], new String[0]);
+
+      double fragmentationAfter = (Double) attribute("SingleFileStoreFragmentationRatio");
+      assertTrue("Fragmentation ratio " + fragmentationAfter, fragmentationAfter < 0.1);
+      assertEquals(1L, attribute("SingleFileStoreCompactions"));
+      assertTrue((Long) attribute("SingleFileStoreCompactionThroughput") > 0);
+
+      threadMBeanServer.invoke(storeInterceptorObjName, "resetStatistics", new Object[0], new String[0]);
+      assertEquals(0L, attribute("SingleFileStoreCompactions"));
+      assertEquals(0L, attribute("SingleFileStoreCompactionThroughput"));
+   }
+
+   private Object attribute(String name) throws Exception {
+      return threadMBeanServer.getAttribute(storeInterceptorObjName, name);
+   }
+}
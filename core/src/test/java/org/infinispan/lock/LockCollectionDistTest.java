@@ -0,0 +1,77 @@
+package org.infinispan.lock;
+
+import org.infinispan.configuration.cache.CacheMode;
+import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.distribution.MagicKey;
+import org.infinispan.test.MultipleCacheManagersTest;
+import org.infinispan.test.fwk.CleanupAfterMethod;
+import org.infinispan.transaction.LockingMode;
+import org.testng.annotations.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Tests locking keys with different primary owners with a single {@link org.infinispan.AdvancedCache#lock} call.
+ *
+ * @since 7.2
+ */
+@Test(groups = "functional", testName = "lock.LockCollectionDistTest")
+@CleanupAfterMethod
+public class LockCollectionDistTest extends MultipleCacheManagersTest {
+
+   @Override
+   protected void createCacheManagers() throws Throwable {
+      ConfigurationBuilder cfg = getDefaultClusteredCacheConfig(CacheMode.DIST_SYNC, true);
+      cfg.transaction().lockingMode(LockingMode.PESSIMISTIC).syncCommitPhase(true).syncRollbackPhase(true)
+            .clustering().l1().disable().hash().numOwners(1)
+            .locking().lockAcquisitionTimeout(100);
+      createCluster(cfg, 3);
+      waitForClusterToForm();
+   }
+
+   public void testLockKeysOfSeveralOwners() throws Exception {
+      MagicKey k0 = new MagicKey("k0", cache(0));
+      MagicKey k1a = new MagicKey("k1a", cache(1));
+      MagicKey k1b = new MagicKey("k1b", cache(1));
+      MagicKey k2a = new MagicKey("k2a", cache(2));
+      MagicKey k2b = new MagicKey("k2b", cache(2));
+      List<MagicKey> keys = Arrays.asList(k2a, k1a, k0, k2b, k1b);
+
+      tm(0).begin();
+      assert advancedCache(0).lock(keys);
+
+      assertLocked(0, k0);
+      assertLocked(1, k1a);
+      assertLocked(1, k1b);
+      assertLocked(2, k2a);
+      assertLocked(2, k2b);
+      // Each owner only locks its own keys
+      assertNotLocked(1, k2a);
+      assertNotLocked(2, k1a);
+
+      for (MagicKey key : keys) {
+         cache(0).put(key, "v");
+      }
+      tm(0).commit();
+
+      for (MagicKey key : keys) {
+         assertNotLocked(key);
+         assert "v".equals(cache(1).get(key));
+      }
+   }
+
+   public void testRollbackReleasesRemoteLocks() throws Exception {
+      MagicKey k1 = new MagicKey("k1", cache(1));
+      MagicKey k2 = new MagicKey("k2", cache(2));
+
+      tm(0).begin();
+      assert advancedCache(0).lock(Arrays.asList(k1, k2));
+      assertLocked(1, k1);
+      assertLocked(2, k2);
+      tm(0).rollback();
+
+      assertNotLocked(k1);
+      assertNotLocked(k2);
+   }
+}
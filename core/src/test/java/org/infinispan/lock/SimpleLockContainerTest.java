@@ -45,6 +45,64 @@ public Void call() throws InterruptedException, TimeoutException {
       f.get(10, TimeUnit.SECONDS);
    }
 
+   public void testLockReuse() throws Exception {
+      final OwnableReentrantPerEntryLockContainer lc = newLockContainer();
+      Object owner = new Object();
+      OwnableReentrantLock lock1 = lc.acquireLock(owner, "k1", 0, TimeUnit.MILLISECONDS);
+      assert lock1 != null;
+      lc.releaseLock(owner, "k1");
+      assert lc.size() == 0;
+      assert !lc.isLocked("k1");
+
+      // The released lock is reused for the next key
+      OwnableReentrantLock lock2 = lc.acquireLock(owner, "k2", 0, TimeUnit.MILLISECONDS);
+      assert lock2 == lock1;
+      assert lc.isLocked("k2");
+      assert !lc.isLocked("k1");
+      lc.releaseLock(owner, "k2");
+      assert lc.size() == 0;
+   }
+
+   public void testTimeoutReleasesReference() throws Exception {
+      final OwnableReentrantPerEntryLockContainer lc = newLockContainer();
+      final Object owner = new Object();
+      lc.acquireLock(owner, "k", 0, TimeUnit.MILLISECONDS);
+
+      Future<OwnableReentrantLock> f = fork(new Callable<OwnableReentrantLock>() {
+         @Override
+         public OwnableReentrantLock call() throws InterruptedException {
+            return lc.acquireLock(new Object(), "k", 10, TimeUnit.MILLISECONDS);
+         }
+      });
+      assert f.get(10, TimeUnit.SECONDS) == null;
+      assert lc.size() == 1;
+
+      lc.releaseLock(owner, "k");
+      assert lc.size() == 0;
+   }
+
+   public void testOptimisticRead() throws Exception {
+      final OwnableReentrantPerEntryLockContainer lc = newLockContainer();
+      Object owner = new Object();
+      long stamp = lc.tryOptimisticRead("k");
+      assert stamp != 0;
+      assert lc.validate("k", stamp);
+
+      lc.acquireLock(owner, "k", 0, TimeUnit.MILLISECONDS);
+      assert !lc.validate("k", stamp);
+      assert lc.tryOptimisticRead("k") == 0;
+
+      lc.releaseLock(owner, "k");
+      assert !lc.validate("k", stamp);
+      stamp = lc.tryOptimisticRead("k");
+      assert stamp != 0;
+      assert lc.validate("k", stamp);
+   }
+
+   private OwnableReentrantPerEntryLockContainer newLockContainer() {
+      return new OwnableReentrantPerEntryLockContainer(16, AnyEquivalence.getInstance());
+   }
+
    private String ab2() {
       return "ab";
    }
@@ -0,0 +1,64 @@
+package org.infinispan.marshall.core;
+
+import org.infinispan.configuration.cache.CacheMode;
+import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.configuration.global.GlobalConfigurationBuilder;
+import org.infinispan.manager.EmbeddedCacheManager;
+import org.infinispan.test.MultipleCacheManagersTest;
+import org.infinispan.test.TestingUtil;
+import org.infinispan.test.fwk.CleanupAfterMethod;
+import org.testng.annotations.Test;
+
+import static org.testng.AssertJUnit.assertEquals;
+
+/**
+ * Tests that the binary format is only written while every member of the cluster has enabled it.
+ *
+ * @since 7.2
+ */
+@Test(groups = "functional", testName = "marshall.core.BinaryFormatNegotiationTest")
+@CleanupAfterMethod
+public class BinaryFormatNegotiationTest extends MultipleCacheManagersTest {
+
+   private ConfigurationBuilder builder;
+
+   @Override
+   protected void createCacheManagers() throws Throwable {
+      builder = getDefaultClusteredCacheConfig(CacheMode.REPL_SYNC, false);
+      addClusterEnabledCacheManager(binaryFormatBuilder(true), builder);
+      addClusterEnabledCacheManager(binaryFormatBuilder(true), builder);
+      waitForClusterToForm();
+   }
+
+   public void testMemberWithoutBinaryFormat() {
+      assertBinaryFormat(true);
+      cache(0).put("k1", "v1");
+
+      EmbeddedCacheManager old = addClusterEnabledCacheManager(binaryFormatBuilder(false), builder);
+      waitForClusterToForm();
+      assertBinaryFormat(false);
+      cache(0).put("k2", "v2");
+      assertEquals("v1", cache(2).get("k1"));
+      assertEquals("v2", cache(2).get("k2"));
+
+      TestingUtil.killCacheManagers(old);
+      cacheManagers.remove(old);
+      TestingUtil.blockUntilViewsReceived(10000, cache(0), cache(1));
+      assertBinaryFormat(true);
+      cache(1).put("k3", "v3");
+      assertEquals("v3", cache(0).get("k3"));
+   }
+
+   private GlobalConfigurationBuilder binaryFormatBuilder(boolean binaryFormat) {
+      GlobalConfigurationBuilder global = GlobalConfigurationBuilder.defaultClusteredBuilder();
+      global.serialization().binaryFormat(binaryFormat);
+      return global;
+   }
+
+   private void assertBinaryFormat(boolean expected) {
+      for (EmbeddedCacheManager cm : cacheManagers) {
+         BinaryFormatNegotiator negotiator = TestingUtil.extractGlobalComponent(cm, BinaryFormatNegotiator.class);
+         assertEquals(expected, negotiator.useBinaryFormat());
+      }
+   }
+}
@@ -0,0 +1,291 @@
+package org.infinispan.marshall.core;
+
+import org.infinispan.commands.write.PutKeyValueCommand;
+import org.infinispan.commons.equivalence.AnyEquivalence;
+import org.infinispan.commons.io.ExposedByteArrayOutputStream;
+import org.infinispan.commons.marshall.NotSerializableException;
+import org.infinispan.commons.marshall.StreamingMarshaller;
+import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.configuration.global.GlobalConfigurationBuilder;
+import org.infinispan.container.entries.ImmortalCacheEntry;
+import org.infinispan.context.Flag;
+import org.infinispan.manager.EmbeddedCacheManager;
+import org.infinispan.metadata.EmbeddedMetadata;
+import org.infinispan.test.AbstractInfinispanTest;
+import org.infinispan.test.TestingUtil;
+import org.infinispan.test.fwk.TestCacheManagerFactory;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertFalse;
+import static org.testng.AssertJUnit.assertNull;
+import static org.testng.AssertJUnit.assertSame;
+import static org.testng.AssertJUnit.assertTrue;
+import static org.testng.internal.junit.ArrayAsserts.assertArrayEquals;
+
+/**
+ * Tests the format written by the {@link BinaryMarshaller}, and the reading of the JBoss Marshalling streams written
+ * by the previous versions.
+ *
+ * @since 7.2
+ */
+@Test(groups = "functional", testName = "marshall.core.BinaryMarshallerTest")
+public class BinaryMarshallerTest extends AbstractInfinispanTest {
+
+   private EmbeddedCacheManager cm;
+   private EmbeddedCacheManager defaultCm;
+   private StreamingMarshaller marshaller;
+
+   @BeforeClass
+   public void setUp() {
+      GlobalConfigurationBuilder global = new GlobalConfigurationBuilder().nonClusteredDefault();
+      global.serialization().binaryFormat(true);
+      cm = TestCacheManagerFactory.createCacheManager(global, new ConfigurationBuilder());
+      cm.getCache();
+      marshaller = TestingUtil.extractGlobalMarshaller(cm);
+      defaultCm = TestCacheManagerFactory.createCacheManager();
+      defaultCm.getCache();
+   }
+
+   @AfterClass
+   public void tearDown() {
+      TestingUtil.killCacheManagers(cm, defaultCm);
+   }
+
+   public void testDisabledByDefault() throws Exception {
+      StreamingMarshaller defaultMarshaller = TestingUtil.extractGlobalMarshaller(defaultCm);
+      ImmortalCacheEntry entry = new ImmortalCacheEntry("k", new SerializablePojo(3, "three"));
+      byte[] bytes = defaultMarshaller.objectToByteBuffer(entry);
+      assertFalse(BinaryMarshaller.isBinary(bytes, 0, bytes.length));
+      assertEquals(entry, marshaller.objectFromByteBuffer(bytes));
+
+      // Both formats are read whether the binary format is enabled or not
+      assertEquals(entry, defaultMarshaller.objectFromByteBuffer(marshaller.objectToByteBuffer(entry)));
+   }
+
+   public void testSharedReferences() throws Exception {
+      ImmortalCacheEntry entry = new ImmortalCacheEntry("k", "v");
+      byte[] bytes = {1, 2, 3};
+      SerializablePojo pojo = new SerializablePojo(4, "four");
+      List<Object> list = new ArrayList<Object>();
+      Collections.addAll(list, entry, bytes, pojo, entry, bytes, pojo);
+
+      List<?> list2 = (List<?>) roundTrip(list);
+      assertEquals(6, list2.size());
+      assertEquals(entry, list2.get(0));
+      assertArrayEquals(bytes, (byte[]) list2.get(1));
+      assertEquals(pojo, list2.get(2));
+      for (int i = 0; i < 3; i++) {
+         assertSame(list2.get(i), list2.get(i + 3));
+      }
+   }
+
+   public void testCyclesThroughJBossMarshalling() throws Exception {
+      Node a = new Node("a");
+      Node b = new Node("b");
+      a.next = b;
+      b.next = a;
+      // b is also referenced from another JBoss Marshalling blob, which shares the instance table of the stream
+      List<Object> list = new ArrayList<Object>();
+      Collections.addAll(list, a, new ImmortalCacheEntry("k", b));
+
+      List<?> list2 = (List<?>) roundTrip(list);
+      Node a2 = (Node) list2.get(0);
+      Node b2 = (Node) ((ImmortalCacheEntry) list2.get(1)).getValue();
+      assertEquals("a", a2.name);
+      assertSame(b2, a2.next);
+      assertSame(a2, b2.next);
+   }
+
+   @Test(expectedExceptions = NotSerializableException.class)
+   public void testCycleThroughExternalizerRejected() throws Exception {
+      List<Object> list = new ArrayList<Object>();
+      list.add(list);
+      marshaller.objectToByteBuffer(list);
+   }
+
+   public void testPrimitives() throws Exception {
+      assertRoundTrip(null);
+      assertRoundTrip(true);
+      assertRoundTrip((byte) -3);
+      assertRoundTrip((short) -300);
+      assertRoundTrip('x');
+      assertRoundTrip(Integer.MIN_VALUE);
+      assertRoundTrip(Long.MAX_VALUE);
+      assertRoundTrip(1.5f);
+      assertRoundTrip(-2.25d);
+   }
+
+   public void testStrings() throws Exception {
+      assertRoundTrip("");
+      assertRoundTrip("ascii");
+      assertRoundTrip("\u0000 éè 中文 😀");
+      char[] chars = new char[100000];
+      Arrays.fill(chars, 'é');
+      assertRoundTrip(new String(chars));
+   }
+
+   public void testByteArray() throws Exception {
+      byte[] bytes = new byte[70000];
+      for (int i = 0; i < bytes.length; i++) {
+         bytes[i] = (byte) i;
+      }
+      byte[] bytes2 = marshaller.objectToByteBuffer(bytes);
+      assertTrue(BinaryMarshaller.isBinary(bytes2, 0, bytes2.length));
+      assertArrayEquals(bytes, (byte[]) marshaller.objectFromByteBuffer(bytes2));
+   }
+
+   public void testExternalizedTypes() throws Exception {
+      assertRoundTrip(new ImmortalCacheEntry("k", "v"));
+      assertRoundTrip(Arrays.asList("a", 1, null));
+
+      PutKeyValueCommand cmd = new PutKeyValueCommand("k", "v", false, null, new EmbeddedMetadata.Builder().build(),
+            Collections.<Flag>emptySet(), AnyEquivalence.getInstance());
+      PutKeyValueCommand cmd2 = (PutKeyValueCommand) roundTrip(cmd);
+      assertEquals(cmd.getKey(), cmd2.getKey());
+      assertEquals(cmd.getValue(), cmd2.getValue());
+   }
+
+   public void testJBossMarshallingFallback() throws Exception {
+      SerializablePojo pojo = new SerializablePojo(7, "seven");
+      assertRoundTrip(pojo);
+      // Nested in an externalized type
+      assertRoundTrip(new ImmortalCacheEntry("k", pojo));
+   }
+
+   public void testStreaming() throws Exception {
+      byte[] big = new byte[20000];
+      Arrays.fill(big, (byte) 1);
+      ExposedByteArrayOutputStream baos = new ExposedByteArrayOutputStream();
+      ObjectOutput out = marshaller.startObjectOutput(baos, false, 16);
+      try {
+         marshaller.objectToObjectStream("first", out);
+         marshaller.objectToObjectStream(big, out);
+         marshaller.objectToObjectStream(new SerializablePojo(1, "one"), out);
+         out.writeInt(42);
+      } finally {
+         marshaller.finishObjectOutput(out);
+      }
+
+      ObjectInput in = marshaller.startObjectInput(new NoMarkInputStream(baos.getRawBuffer(), baos.size()), false);
+      try {
+         assertEquals("first", marshaller.objectFromObjectStream(in));
+         assertArrayEquals(big, (byte[]) marshaller.objectFromObjectStream(in));
+         assertEquals(new SerializablePojo(1, "one"), marshaller.objectFromObjectStream(in));
+         assertEquals(42, in.readInt());
+      } finally {
+         marshaller.finishObjectInput(in);
+      }
+   }
+
+   public void testReadJBossMarshallingStream() throws Exception {
+      JBossMarshaller jbossMarshaller = new JBossMarshaller(
+            cm.getGlobalComponentRegistry().getComponent(ExternalizerTable.class), null, null,
+            cm.getCacheManagerConfiguration());
+      jbossMarshaller.start();
+      try {
+         ImmortalCacheEntry entry = new ImmortalCacheEntry("k", new SerializablePojo(2, "two"));
+         ExposedByteArrayOutputStream baos = new ExposedByteArrayOutputStream();
+         ObjectOutput out = jbossMarshaller.startObjectOutput(baos, false, 128);
+         try {
+            // The version written by the previous versions
+            out.writeShort(510);
+            out.writeObject(entry);
+         } finally {
+            jbossMarshaller.finishObjectOutput(out);
+         }
+         assertFalse(BinaryMarshaller.isBinary(baos.getRawBuffer(), 0, baos.size()));
+
+         assertEquals(entry, marshaller.objectFromByteBuffer(baos.getRawBuffer(), 0, baos.size()));
+
+         ObjectInput in = marshaller.startObjectInput(new NoMarkInputStream(baos.getRawBuffer(), baos.size()), false);
+         try {
+            assertEquals(entry, marshaller.objectFromObjectStream(in));
+         } finally {
+            marshaller.finishObjectInput(in);
+         }
+      } finally {
+         jbossMarshaller.stop();
+      }
+   }
+
+   private Object roundTrip(Object o) throws Exception {
+      byte[] bytes = marshaller.objectToByteBuffer(o);
+      assertTrue(BinaryMarshaller.isBinary(bytes, 0, bytes.length));
+      return marshaller.objectFromByteBuffer(bytes);
+   }
+
+   private void assertRoundTrip(Object o) throws Exception {
+      Object o2 = roundTrip(o);
+      if (o == null)
+         assertNull(o2);
+      else
+         assertEquals(o, o2);
+   }
+
+   static class NoMarkInputStream extends InputStream {
+      private final ByteArrayInputStream delegate;
+
+      NoMarkInputStream(byte[] bytes, int length) {
+         delegate = new ByteArrayInputStream(bytes, 0, length);
+      }
+
+      @Override
+      public int read() throws IOException {
+         return delegate.read();
+      }
+
+      @Override
+      public int read(byte[] b, int off, int len) throws IOException {
+         // Return less than asked for, like a socket would
+         return delegate.read(b, off, Math.min(len, 100));
+      }
+   }
+
+   public static class Node implements Serializable {
+      private static final long serialVersionUID = 5380612306433960389L;
+      final String name;
+      Node next;
+
+      Node(String name) {
+         this.name = name;
+      }
+   }
+
+   public static class SerializablePojo implements Serializable {
+      private static final long serialVersionUID = -4231578393402957283L;
+      final int i;
+      final String s;
+
+      SerializablePojo(int i, String s) {
+         this.i = i;
+         this.s = s;
+      }
+
+      @Override
+      public boolean equals(Object o) {
+         if (this == o) return true;
+         if (o == null || getClass() != o.getClass()) return false;
+         SerializablePojo that = (SerializablePojo) o;
+         return i == that.i && s.equals(that.s);
+      }
+
+      @Override
+      public int hashCode() {
+         return 31 * i + s.hashCode();
+      }
+   }
+}
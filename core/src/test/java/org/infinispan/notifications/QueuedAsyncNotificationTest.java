@@ -0,0 +1,159 @@
+package org.infinispan.notifications;
+
+import org.infinispan.Cache;
+import org.infinispan.manager.EmbeddedCacheManager;
+import org.infinispan.notifications.cachelistener.CacheNotifier;
+import org.infinispan.notifications.cachelistener.CacheNotifierImpl;
+import org.infinispan.notifications.cachelistener.annotation.CacheEntryModified;
+import org.infinispan.notifications.cachelistener.event.CacheEntryModifiedEvent;
+import org.infinispan.test.AbstractInfinispanTest;
+import org.infinispan.test.TestingUtil;
+import org.infinispan.test.fwk.TestCacheManagerFactory;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertTrue;
+
+/**
+ * Tests the asynchronous listeners with an event queue.
+ *
+ * @since 7.2
+ */
+@Test(groups = "functional", testName = "notifications.QueuedAsyncNotificationTest")
+public class QueuedAsyncNotificationTest extends AbstractInfinispanTest {
+   Cache<String, String> c;
+   EmbeddedCacheManager cm;
+
+   @BeforeMethod
+   public void setUp() {
+      cm = TestCacheManagerFactory.createCacheManager(false);
+      c = cm.getCache();
+   }
+
+   @AfterMethod
+   public void tearDown() {
+      TestingUtil.killCacheManagers(cm);
+      cm = null;
+      c = null;
+   }
+
+   public void testEventsOfAKeyAreOrdered() throws InterruptedException {
+      OrderListener listener = new OrderListener(200);
+      c.addListener(listener);
+      for (int i = 0; i < 100; i++) {
+         c.put("k1", "v" + i);
+         c.put("k2", "v" + i);
+      }
+      assertTrue(listener.latch.await(10, TimeUnit.SECONDS));
+      for (String key : new String[]{"k1", "k2"}) {
+         List<String> values = listener.values.get(key);
+         assertEquals(100, values.size());
+         for (int i = 0; i < 100; i++) {
+            assertEquals("v" + i, values.get(i));
+         }
+      }
+   }
+
+   public void testBatchedEvents() throws InterruptedException {
+      c.put("k", "v");
+      BatchListener listener = new BatchListener(20);
+      c.addListener(listener);
+      for (int i = 0; i < 10; i++) {
+         c.put("k", "v" + i);
+      }
+      listener.release.countDown();
+      assertTrue(listener.latch.await(10, TimeUnit.SECONDS));
+      // The first call is blocked until all the events are queued, the rest are delivered together
+      assertEquals(20, listener.events.size());
+      assertTrue(listener.batches < 20);
+   }
+
+   public void testDropWhenFull() throws InterruptedException {
+      c.put("k", "v");
+      DroppingListener listener = new DroppingListener();
+      c.addListener(listener);
+      c.put("k", "v1");
+      c.put("k", "v2");
+      CacheNotifierImpl notifier = (CacheNotifierImpl) TestingUtil.extractComponent(c, CacheNotifier.class);
+      assertTrue(notifier.getDroppedListenerEvents() > 0);
+      listener.release.countDown();
+   }
+
+   @Test(expectedExceptions = IncorrectListenerException.class)
+   public void testEventListRequiresQueue() {
+      c.addListener(new UnqueuedBatchListener());
+   }
+
+   @Listener(sync = false, queueSize = 16)
+   public static class OrderListener {
+      final ConcurrentMap<String, List<String>> values = new ConcurrentHashMap<String, List<String>>();
+      final CountDownLatch latch;
+
+      OrderListener(int events) {
+         latch = new CountDownLatch(events);
+      }
+
+      @CacheEntryModified
+      public void modified(CacheEntryModifiedEvent<String, String> e) {
+         if (e.isPre())
+            return;
+         List<String> keyValues = values.get(e.getKey());
+         if (keyValues == null) {
+            keyValues = Collections.synchronizedList(new ArrayList<String>());
+            List<String> existing = values.putIfAbsent(e.getKey(), keyValues);
+            if (existing != null) keyValues = existing;
+         }
+         keyValues.add(e.getValue());
+         latch.countDown();
+      }
+   }
+
+   @Listener(sync = false, queueSize = 64)
+   public static class BatchListener {
+      final List<CacheEntryModifiedEvent> events = Collections.synchronizedList(new ArrayList<CacheEntryModifiedEvent>());
+      final CountDownLatch release = new CountDownLatch(1);
+      final CountDownLatch latch;
+      volatile int batches;
+
+      BatchListener(int events) {
+         latch = new CountDownLatch(events);
+      }
+
+      @CacheEntryModified
+      public void modified(List<CacheEntryModifiedEvent> batch) throws InterruptedException {
+         release.await(10, TimeUnit.SECONDS);
+         batches++;
+         events.addAll(batch);
+         for (int i = 0; i < batch.size(); i++) {
+            latch.countDown();
+         }
+      }
+   }
+
+   @Listener(sync = false, queueSize = 1, dropWhenFull = true)
+   public static class DroppingListener {
+      final CountDownLatch release = new CountDownLatch(1);
+
+      @CacheEntryModified
+      public void modified(CacheEntryModifiedEvent e) throws InterruptedException {
+         release.await(10, TimeUnit.SECONDS);
+      }
+   }
+
+   @Listener(sync = false)
+   public static class UnqueuedBatchListener {
+      @CacheEntryModified
+      public void modified(List<CacheEntryModifiedEvent> batch) {
+      }
+   }
+}
@@ -0,0 +1,84 @@
+package org.infinispan.notifications.cachelistener.cluster;
+
+import org.infinispan.configuration.cache.CacheMode;
+import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.distribution.MagicKey;
+import org.infinispan.notifications.Listener;
+import org.infinispan.notifications.cachelistener.annotation.CacheEntryCreated;
+import org.infinispan.notifications.cachelistener.event.CacheEntryCreatedEvent;
+import org.infinispan.notifications.cachelistener.cluster.impl.BatchingClusterEventManagerImpl;
+import org.infinispan.test.MultipleCacheManagersTest;
+import org.infinispan.test.TestingUtil;
+import org.infinispan.test.fwk.CleanupAfterMethod;
+import org.testng.annotations.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.testng.AssertJUnit.assertEquals;
+
+/**
+ * Tests that the events for asynchronous cluster listeners are sent in batches.
+ *
+ * @since 7.2
+ */
+@Test(groups = "functional", testName = "notifications.cachelistener.cluster.ClusterListenerBatchingTest")
+@CleanupAfterMethod
+public class ClusterListenerBatchingTest extends MultipleCacheManagersTest {
+
+   @Override
+   protected void createCacheManagers() throws Throwable {
+      ConfigurationBuilder builder = getDefaultClusteredCacheConfig(CacheMode.DIST_SYNC, false);
+      builder.clustering().hash().numOwners(1)
+            .clusterListeners().batchSize(5).maxBatchDelay(500);
+      createCluster(builder, 2);
+      waitForClusterToForm();
+   }
+
+   public void testFullBatches() {
+      final AsyncClusterListener listener = new AsyncClusterListener();
+      cache(0).addListener(listener);
+
+      for (int i = 0; i < 10; i++) {
+         cache(1).put(new MagicKey("k" + i, cache(1)), "v");
+      }
+
+      eventually(new Condition() {
+         @Override
+         public boolean isSatisfied() throws Exception {
+            return listener.created.get() == 10;
+         }
+      });
+      BatchingClusterEventManagerImpl eventManager = eventManager(1);
+      assertEquals(5, eventManager.getAverageBatchSize());
+      assertEquals(0, eventManager.getPendingEvents());
+   }
+
+   public void testBatchSentAfterDelay() {
+      final AsyncClusterListener listener = new AsyncClusterListener();
+      cache(0).addListener(listener);
+
+      cache(1).put(new MagicKey("k", cache(1)), "v");
+
+      eventually(new Condition() {
+         @Override
+         public boolean isSatisfied() throws Exception {
+            return listener.created.get() == 1;
+         }
+      });
+      assertEquals(1, eventManager(1).getAverageBatchSize());
+   }
+
+   private BatchingClusterEventManagerImpl eventManager(int index) {
+      return (BatchingClusterEventManagerImpl) TestingUtil.extractComponent(cache(index), ClusterEventManager.class);
+   }
+
+   @Listener(clustered = true, sync = false)
+   public static class AsyncClusterListener {
+      final AtomicInteger created = new AtomicInteger();
+
+      @CacheEntryCreated
+      public void created(CacheEntryCreatedEvent event) {
+         created.incrementAndGet();
+      }
+   }
+}
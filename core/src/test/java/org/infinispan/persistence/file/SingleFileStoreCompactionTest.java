@@ -0,0 +1,183 @@
+package org.infinispan.persistence.file;
+
+import org.infinispan.Cache;
+import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.configuration.cache.SingleFileStoreConfigurationBuilder;
+import org.infinispan.interceptors.CacheWriterInterceptor;
+import org.infinispan.manager.EmbeddedCacheManager;
+import org.infinispan.marshall.TestObjectStreamMarshaller;
+import org.infinispan.marshall.core.MarshalledEntryImpl;
+import org.infinispan.persistence.manager.PersistenceManager;
+import org.infinispan.persistence.spi.PersistenceException;
+import org.infinispan.test.AbstractInfinispanTest;
+import org.infinispan.test.TestingUtil;
+import org.infinispan.test.fwk.TestCacheManagerFactory;
+import org.infinispan.util.PersistenceMockUtil;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.File;
+
+import static org.infinispan.test.TestingUtil.recursiveFileRemove;
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertNull;
+import static org.testng.AssertJUnit.assertTrue;
+
+/**
+ * Tests the compaction of the single-file cache store.
+ *
+ * @since 7.2
+ */
+@Test(groups = "unit", testName = "persistence.file.SingleFileStoreCompactionTest")
+public class SingleFileStoreCompactionTest extends AbstractInfinispanTest {
+
+   private static final int NUM_ENTRIES = 200;
+
+   SingleFileStore<Integer, String> store;
+   String tmpDirectory;
+   private TestObjectStreamMarshaller marshaller;
+
+   @BeforeClass
+   protected void setUpTempDir() {
+      tmpDirectory = TestingUtil.tmpDirectory(this.getClass());
+   }
+
+   @AfterClass
+   protected void clearTempDir() {
+      recursiveFileRemove(tmpDirectory);
+   }
+
+   @BeforeMethod
+   public void setUp() throws Exception {
+      clearTempDir();
+      marshaller = new TestObjectStreamMarshaller();
+      store = startStore();
+   }
+
+   @AfterMethod
+   public void tearDown() throws PersistenceException {
+      try {
+         if (store != null) {
+            store.clear();
+            store.stop();
+         }
+         marshaller.stop();
+      } finally {
+         store = null;
+      }
+   }
+
+   private SingleFileStore<Integer, String> startStore() {
+      SingleFileStore<Integer, String> store = new SingleFileStore<Integer, String>();
+      ConfigurationBuilder builder = TestCacheManagerFactory.getDefaultCacheConfiguration(false);
+      builder
+            .persistence()
+               .addStore(SingleFileStoreConfigurationBuilder.class)
+                  .location(this.tmpDirectory)
+                  .compactionThreshold(2f);
+      store.init(PersistenceMockUtil.createContext(getClass().getSimpleName(), builder.build(), marshaller));
+      store.start();
+      return store;
+   }
+
+   public void testCompactMovesEntriesAndShrinksFile() throws Exception {
+      for (int i = 0; i < NUM_ENTRIES; i++) {
+         store.write(new MarshalledEntryImpl<Integer, String>(i, value(i), null, marshaller));
+      }
+      // Leave holes at the start of the file, and the last entries at its end
+      for (int i = 0; i < NUM_ENTRIES / 2; i++) {
+         store.delete(i);
+      }
+      long sizeBefore = store.getFileSize();
+      assertTrue(store.getFragmentationRatio() > 0.4);
+
+      store.compact();
+
+      assertTrue("File size " + store.getFileSize() + " not smaller than " + sizeBefore,
+            store.getFileSize() < sizeBefore);
+      assertTrue(store.getFragmentationRatio() < 0.1);
+      assertEquals(1, store.getCompactions());
+      assertTrue(store.getCompactionRelocatedEntries() > 0);
+      assertEquals(sizeBefore - store.getFileSize(), store.getCompactionReclaimedBytes());
+      File file = TestingUtil.extractField(store, "file");
+      assertEquals(file.length(), store.getFileSize());
+      assertEntries(store);
+
+      // The index rebuilt from the compacted file has the same entries
+      store.stop();
+      store = startStore();
+      assertEntries(store);
+   }
+
+   public void testWritesAfterCompaction() throws Exception {
+      for (int i = 0; i < NUM_ENTRIES; i++) {
+         store.write(new MarshalledEntryImpl<Integer, String>(i, value(i), null, marshaller));
+      }
+      for (int i = 0; i < NUM_ENTRIES; i += 2) {
+         store.delete(i);
+      }
+      store.compact();
+      for (int i = 0; i < NUM_ENTRIES; i += 2) {
+         store.write(new MarshalledEntryImpl<Integer, String>(i, value(i), null, marshaller));
+      }
+      for (int i = 0; i < NUM_ENTRIES; i++) {
+         assertEquals(value(i), store.load(i).getValue());
+      }
+   }
+
+   public void testSeveralStoresInOneCache() throws Exception {
+      ConfigurationBuilder builder = TestCacheManagerFactory.getDefaultCacheConfiguration(false);
+      // No purge, so only the explicit compaction runs
+      builder.expiration().disableReaper();
+      builder
+            .persistence()
+               .addStore(SingleFileStoreConfigurationBuilder.class)
+                  .location(tmpDirectory + File.separator + "first");
+      builder
+            .persistence()
+               .addStore(SingleFileStoreConfigurationBuilder.class)
+                  .location(tmpDirectory + File.separator + "second");
+      EmbeddedCacheManager cacheManager = TestCacheManagerFactory.createCacheManager(builder);
+      try {
+         Cache<Integer, String> cache = cacheManager.getCache();
+         for (int i = 0; i < NUM_ENTRIES; i++) {
+            cache.put(i, value(i));
+         }
+         for (int i = 0; i < NUM_ENTRIES / 2; i++) {
+            cache.remove(i);
+         }
+         PersistenceManager persistenceManager = TestingUtil.extractComponent(cache, PersistenceManager.class);
+         assertEquals(2, persistenceManager.getStores(SingleFileStore.class).size());
+
+         CacheWriterInterceptor interceptor = TestingUtil.findInterceptor(cache, CacheWriterInterceptor.class);
+         long sizeBefore = interceptor.getSingleFileStoreFileSize();
+         interceptor.compactSingleFileStores();
+         assertEquals(2, interceptor.getSingleFileStoreCompactions());
+         assertEquals(sizeBefore - interceptor.getSingleFileStoreFileSize(),
+               interceptor.getSingleFileStoreReclaimedBytes());
+         for (SingleFileStore<Integer, String> fileStore : persistenceManager.getStores(SingleFileStore.class)) {
+            assertEntries(fileStore);
+         }
+      } finally {
+         TestingUtil.killCacheManagers(cacheManager);
+      }
+   }
+
+   private void assertEntries(SingleFileStore<Integer, String> store) {
+      assertEquals(NUM_ENTRIES / 2, store.size());
+      for (int i = 0; i < NUM_ENTRIES; i++) {
+         if (i < NUM_ENTRIES / 2) {
+            assertNull(store.load(i));
+         } else {
+            assertEquals(value(i), store.load(i).getValue());
+         }
+      }
+   }
+
+   private static String value(int i) {
+      return "value-" + i;
+   }
+}
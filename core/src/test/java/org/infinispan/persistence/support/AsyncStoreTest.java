@@ -14,9 +14,11 @@
 import org.infinispan.persistence.spi.PersistenceException;
 import org.infinispan.persistence.async.AdvancedAsyncCacheLoader;
 import org.infinispan.persistence.async.AdvancedAsyncCacheWriter;
+import org.infinispan.persistence.async.AsyncStoreStatistics;
 import org.infinispan.persistence.dummy.DummyInMemoryStore;
 import org.infinispan.persistence.dummy.DummyInMemoryStoreConfiguration;
 import org.infinispan.persistence.dummy.DummyInMemoryStoreConfigurationBuilder;
+import org.infinispan.persistence.spi.BatchCacheWriter;
 import org.infinispan.persistence.spi.CacheWriter;
 import org.infinispan.marshall.core.MarshalledEntry;
 import org.infinispan.marshall.TestObjectStreamMarshaller;
@@ -42,6 +44,7 @@
 import java.util.Properties;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.locks.ReentrantLock;
 
 import static org.infinispan.test.TestingUtil.k;
@@ -422,6 +425,73 @@ public void run() {
       }
    }
 
+   public void testBatchedWrites(final Method m) throws Exception {
+      ConfigurationBuilder builder = TestCacheManagerFactory.getDefaultCacheConfiguration(false);
+      builder.persistence()
+            .addStore(DummyInMemoryStoreConfigurationBuilder.class)
+               .storeName(m.getName())
+               .async()
+                  .enable()
+                  .batchSize(10)
+                  .maxBatchDelay(50);
+      BatchingStore underlying = new BatchingStore();
+      writer = new AdvancedAsyncCacheWriter(underlying);
+      InitializationContext ctx = PersistenceMockUtil.createContext(getClass().getSimpleName(), builder.build(), marshaller);
+      writer.init(ctx);
+      writer.start();
+      underlying.init(ctx);
+      underlying.start();
+      try {
+         for (int i = 0; i < 100; i++)
+            writer.write(new MarshalledEntryImpl(k(m, i), v(m, i), null, marshaller()));
+         for (int i = 0; i < 20; i++)
+            writer.delete(k(m, i));
+      } finally {
+         writer.stop();
+      }
+
+      assertEquals(80, underlying.size());
+      assertTrue(underlying.batches.get() > 0);
+      assertTrue(underlying.maxBatchSize.get() <= 10);
+      AsyncStoreStatistics statistics = writer.getStatistics();
+      assertEquals(0, statistics.getFailedBatches());
+      assertTrue(statistics.getMaxBatchSize() <= 10);
+      assertTrue(statistics.getModifications() >= 80);
+      assertFalse(statistics.getBatchSizeHistogram().isEmpty());
+   }
+
+   public static class BatchingStore extends DummyInMemoryStore implements BatchCacheWriter {
+      final AtomicInteger batches = new AtomicInteger();
+      final AtomicInteger maxBatchSize = new AtomicInteger();
+
+      @Override
+      public void writeBatch(Iterable entries) {
+         int size = 0;
+         for (Object entry : entries) {
+            write((MarshalledEntry) entry);
+            size++;
+         }
+         batchWritten(size);
+      }
+
+      @Override
+      public void deleteBatch(Iterable keys) {
+         int size = 0;
+         for (Object key : keys) {
+            delete(key);
+            size++;
+         }
+         batchWritten(size);
+      }
+
+      private void batchWritten(int size) {
+         batches.incrementAndGet();
+         int max;
+         while ((max = maxBatchSize.get()) < size && !maxBatchSize.compareAndSet(max, size)) {
+         }
+      }
+   }
+
    private static abstract class OneEntryCacheManagerCallable extends CacheManagerCallable {
       protected final Cache<String, String> cache;
       protected final LockableStore store;
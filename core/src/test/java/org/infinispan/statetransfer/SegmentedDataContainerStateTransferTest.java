@@ -0,0 +1,105 @@
+package org.infinispan.statetransfer;
+
+import org.infinispan.Cache;
+import org.infinispan.configuration.cache.CacheMode;
+import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.container.DataContainer;
+import org.infinispan.container.SegmentedDataContainer;
+import org.infinispan.container.entries.InternalCacheEntry;
+import org.infinispan.distribution.ch.ConsistentHash;
+import org.infinispan.remoting.transport.Address;
+import org.infinispan.test.MultipleCacheManagersTest;
+import org.infinispan.test.TestingUtil;
+import org.infinispan.test.fwk.CleanupAfterMethod;
+import org.testng.annotations.Test;
+
+import java.util.Collections;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertTrue;
+
+/**
+ * Tests state transfer and the removal of no longer owned segments with a {@link SegmentedDataContainer}.
+ *
+ * @since 7.2
+ */
+@Test(groups = "functional", testName = "statetransfer.SegmentedDataContainerStateTransferTest")
+@CleanupAfterMethod
+public class SegmentedDataContainerStateTransferTest extends MultipleCacheManagersTest {
+
+   private static final int NUM_KEYS = 200;
+
+   private ConfigurationBuilder builder;
+
+   @Override
+   protected void createCacheManagers() throws Throwable {
+      builder = getDefaultClusteredCacheConfig(CacheMode.DIST_SYNC, false);
+      builder.clustering().l1().disable()
+            .hash().numOwners(1).numSegments(20)
+            .dataContainer().segmented(true);
+      createCluster(builder, 2);
+      waitForClusterToForm();
+   }
+
+   public void testJoinAndLeave() {
+      for (int i = 0; i < NUM_KEYS; i++) {
+         cache(0).put("k" + i, "v" + i);
+      }
+      assertOwnedEntries();
+
+      addClusterEnabledCacheManager(builder);
+      waitForClusterToForm();
+      assertOwnedEntries();
+
+      killMember(0);
+      assertOwnedEntries();
+   }
+
+   public void testSegmentIteration() {
+      for (int i = 0; i < NUM_KEYS; i++) {
+         cache(0).put("k" + i, "v" + i);
+      }
+      for (Cache<Object, Object> cache : this.<Object, Object>caches()) {
+         SegmentedDataContainer<Object, Object> dc = dataContainer(cache);
+         ConsistentHash ch = cache.getAdvancedCache().getDistributionManager().getReadConsistentHash();
+         int total = 0;
+         for (int segment = 0; segment < dc.getNumSegments(); segment++) {
+            Integer segmentId = segment;
+            int count = 0;
+            for (InternalCacheEntry<Object, Object> entry : SegmentedDataContainer.entriesInSegments(dc, ch, Collections.singleton(segmentId))) {
+               assertEquals(segment, ch.getSegment(entry.getKey()));
+               count++;
+            }
+            assertEquals(count, dc.size(Collections.singleton(segmentId)));
+            total += count;
+         }
+         assertEquals(dc.size(), total);
+      }
+   }
+
+   private void assertOwnedEntries() {
+      int total = 0;
+      for (Cache<Object, Object> cache : this.<Object, Object>caches()) {
+         Address address = cache.getCacheManager().getAddress();
+         ConsistentHash ch = cache.getAdvancedCache().getDistributionManager().getReadConsistentHash();
+         SegmentedDataContainer<Object, Object> dc = dataContainer(cache);
+         for (Object key : dc.keySet()) {
+            assertEquals(ch.getSegment(key), dc.getSegment(key));
+            assertTrue("Key " + key + " is not owned by " + address, ch.isKeyLocalToNode(address, key));
+         }
+         total += dc.size();
+      }
+      assertEquals(NUM_KEYS, total);
+      for (int i = 0; i < NUM_KEYS; i++) {
+         for (Cache<Object, Object> cache : this.<Object, Object>caches()) {
+            assertEquals("v" + i, cache.get("k" + i));
+         }
+      }
+   }
+
+   private SegmentedDataContainer<Object, Object> dataContainer(Cache<Object, Object> cache) {
+      DataContainer dc = TestingUtil.extractComponent(cache, DataContainer.class);
+      assertTrue(dc instanceof SegmentedDataContainer);
+      return (SegmentedDataContainer<Object, Object>) dc;
+   }
+}
@@ -0,0 +1,90 @@
+package org.infinispan.statetransfer;
+
+import org.infinispan.Cache;
+import org.infinispan.configuration.cache.CacheMode;
+import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.container.DataContainer;
+import org.infinispan.container.entries.InternalCacheEntry;
+import org.infinispan.distribution.ch.ConsistentHash;
+import org.infinispan.remoting.transport.Address;
+import org.infinispan.test.MultipleCacheManagersTest;
+import org.infinispan.test.TestingUtil;
+import org.infinispan.test.fwk.CleanupAfterMethod;
+import org.testng.annotations.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertNotNull;
+import static org.testng.AssertJUnit.assertTrue;
+
+/**
+ * Tests the state transfer with several chunks in flight, applying the received entries directly to the data
+ * container.
+ *
+ * @since 7.2
+ */
+@Test(groups = "functional", testName = "statetransfer.StreamingStateTransferTest")
+@CleanupAfterMethod
+public class StreamingStateTransferTest extends MultipleCacheManagersTest {
+
+   private static final int NUM_KEYS = 500;
+   private static final int CHUNK_SIZE = 10;
+   private static final long LIFESPAN = TimeUnit.HOURS.toMillis(1);
+
+   protected boolean transactional;
+   private ConfigurationBuilder builder;
+
+   @Override
+   protected void createCacheManagers() throws Throwable {
+      builder = getDefaultClusteredCacheConfig(CacheMode.DIST_SYNC, transactional);
+      builder.clustering().l1().disable()
+            .hash().numOwners(2).numSegments(20)
+            .stateTransfer().chunkSize(CHUNK_SIZE).maxInFlightChunks(4);
+      createCluster(builder, 2);
+      waitForClusterToForm();
+   }
+
+   public void testJoin() {
+      for (int i = 0; i < NUM_KEYS; i++) {
+         if (i % 2 == 0) {
+            cache(0).put("k" + i, "v" + i);
+         } else {
+            cache(0).put("k" + i, "v" + i, LIFESPAN, TimeUnit.MILLISECONDS);
+         }
+      }
+
+      addClusterEnabledCacheManager(builder);
+      waitForClusterToForm();
+
+      Cache<Object, Object> joiner = cache(2);
+      StateConsumer stateConsumer = TestingUtil.extractComponent(joiner, StateConsumer.class);
+      assertEquals(!transactional, (boolean) TestingUtil.<Boolean>extractField(stateConsumer, "applyStateDirectly"));
+      assertOwnedEntries(joiner);
+
+      StateTransferProgress progress = stateConsumer.getInboundProgress();
+      DataContainer dataContainer = joiner.getAdvancedCache().getDataContainer();
+      assertEquals(dataContainer.size(), progress.getEntries());
+      // Several chunks were sent for each segment
+      assertTrue(progress.getSummary(), progress.getChunks() > progress.getCompletedSegments());
+   }
+
+   private void assertOwnedEntries(Cache<Object, Object> cache) {
+      Address address = cache.getCacheManager().getAddress();
+      ConsistentHash ch = cache.getAdvancedCache().getDistributionManager().getReadConsistentHash();
+      DataContainer dataContainer = cache.getAdvancedCache().getDataContainer();
+      int owned = 0;
+      for (int i = 0; i < NUM_KEYS; i++) {
+         String key = "k" + i;
+         if (!ch.isKeyLocalToNode(address, key))
+            continue;
+         owned++;
+         InternalCacheEntry entry = dataContainer.get(key);
+         assertNotNull("Key " + key + " missing on " + address, entry);
+         assertEquals("v" + i, entry.getValue());
+         // the metadata is transferred along with the value
+         assertEquals(i % 2 == 0 ? -1 : LIFESPAN, entry.getLifespan());
+      }
+      assertEquals(owned, dataContainer.size());
+   }
+}
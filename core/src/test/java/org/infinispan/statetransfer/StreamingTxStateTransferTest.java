@@ -0,0 +1,17 @@
+package org.infinispan.statetransfer;
+
+import org.testng.annotations.Test;
+
+/**
+ * Tests the state transfer with several chunks in flight in a transactional cache, which applies the received
+ * entries with commands.
+ *
+ * @since 7.2
+ */
+@Test(groups = "functional", testName = "statetransfer.StreamingTxStateTransferTest")
+public class StreamingTxStateTransferTest extends StreamingStateTransferTest {
+
+   public StreamingTxStateTransferTest() {
+      transactional = true;
+   }
+}
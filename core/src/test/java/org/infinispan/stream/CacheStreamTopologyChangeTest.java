@@ -0,0 +1,85 @@
+package org.infinispan.stream;
+
+import org.infinispan.Cache;
+import org.infinispan.configuration.cache.CacheMode;
+import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.test.MultipleCacheManagersTest;
+import org.infinispan.test.fwk.CleanupAfterMethod;
+import org.testng.annotations.Test;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertTrue;
+
+/**
+ * Tests that every entry is counted exactly once when the topology changes during a terminal operation.
+ *
+ * @since 7.2
+ */
+@Test(groups = "functional", testName = "stream.CacheStreamTopologyChangeTest")
+@CleanupAfterMethod
+public class CacheStreamTopologyChangeTest extends MultipleCacheManagersTest {
+
+   private static final int NUM_ENTRIES = 200;
+
+   // The predicate is deserialized on each node, so it blocks through static fields
+   private static final AtomicBoolean block = new AtomicBoolean();
+   private static volatile CountDownLatch blocked;
+   private static volatile CountDownLatch release;
+
+   private ConfigurationBuilder builder;
+
+   @Override
+   protected void createCacheManagers() throws Throwable {
+      builder = getDefaultClusteredCacheConfig(CacheMode.DIST_SYNC, false);
+      builder.clustering().hash().numOwners(1).numSegments(20);
+      createCluster(builder, 2);
+      waitForClusterToForm();
+   }
+
+   public void testJoinDuringCount() throws Exception {
+      Cache<Integer, String> cache = cache(0);
+      for (int i = 0; i < NUM_ENTRIES; i++) {
+         cache.put(i, "v" + i);
+      }
+
+      blocked = new CountDownLatch(1);
+      release = new CountDownLatch(1);
+      block.set(true);
+      Future<Long> count = fork(new Callable<Long>() {
+         @Override
+         public Long call() throws Exception {
+            return CacheStreams.entries(cache(0)).filter(new BlockOnce()).count();
+         }
+      });
+      assertTrue(blocked.await(10, TimeUnit.SECONDS));
+
+      // The joiner takes over segments while they are processed
+      addClusterEnabledCacheManager(builder);
+      waitForClusterToForm();
+      release.countDown();
+
+      assertEquals(NUM_ENTRIES, (long) count.get(30, TimeUnit.SECONDS));
+      assertEquals(NUM_ENTRIES, CacheStreams.entries(cache(2)).count());
+   }
+
+   private static class BlockOnce implements SerializablePredicate<Object> {
+      @Override
+      public boolean test(Object entry) {
+         if (block.compareAndSet(true, false)) {
+            blocked.countDown();
+            try {
+               release.await(30, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+               Thread.currentThread().interrupt();
+            }
+         }
+         return true;
+      }
+   }
+}
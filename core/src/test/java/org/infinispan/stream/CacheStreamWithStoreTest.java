@@ -0,0 +1,53 @@
+package org.infinispan.stream;
+
+import org.infinispan.Cache;
+import org.infinispan.configuration.cache.CacheMode;
+import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.persistence.dummy.DummyInMemoryStoreConfigurationBuilder;
+import org.infinispan.test.MultipleCacheManagersTest;
+import org.testng.annotations.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.testng.AssertJUnit.assertEquals;
+
+/**
+ * Tests that the terminal operations of the cache streams process the entries only present in the cache stores.
+ *
+ * @since 7.2
+ */
+@Test(groups = "functional", testName = "stream.CacheStreamWithStoreTest")
+public class CacheStreamWithStoreTest extends MultipleCacheManagersTest {
+
+   private static final int NUM_ENTRIES = 100;
+
+   @Override
+   protected void createCacheManagers() throws Throwable {
+      ConfigurationBuilder builder = getDefaultClusteredCacheConfig(CacheMode.DIST_SYNC, false);
+      builder.clustering().hash().numOwners(2);
+      builder.persistence().addStore(DummyInMemoryStoreConfigurationBuilder.class);
+      createCluster(builder, 3);
+      waitForClusterToForm();
+   }
+
+   public void testEntriesOnlyInStores() {
+      Cache<Integer, String> cache = cache(0);
+      for (int i = 0; i < NUM_ENTRIES; i++) {
+         cache.put(i, "v" + i);
+      }
+      // Keep half of the entries in the stores only
+      for (Cache<Integer, String> c : this.<Integer, String>caches()) {
+         for (int i = 0; i < NUM_ENTRIES; i += 2) {
+            c.evict(i);
+         }
+      }
+
+      assertEquals(NUM_ENTRIES, CacheStreams.entries(this.<Integer, String>cache(1)).count());
+      Set<Integer> expected = new HashSet<Integer>();
+      for (int i = 0; i < NUM_ENTRIES; i++) {
+         expected.add(i);
+      }
+      assertEquals(expected, CacheStreams.keys(this.<Integer, String>cache(2)).collect(Collectors.<Integer>toSet()));
+   }
+}
@@ -0,0 +1,150 @@
+package org.infinispan.stream;
+
+import org.infinispan.Cache;
+import org.infinispan.commons.util.CloseableIterator;
+import org.infinispan.configuration.cache.CacheMode;
+import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.test.MultipleCacheManagersTest;
+import org.testng.annotations.Test;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.testng.AssertJUnit.assertEquals;
+
+/**
+ * Tests the terminal operations of the cache streams of a distributed cache.
+ *
+ * @since 7.2
+ */
+@Test(groups = "functional", testName = "stream.DistributedCacheStreamTest")
+public class DistributedCacheStreamTest extends MultipleCacheManagersTest {
+
+   private static final int NUM_ENTRIES = 100;
+
+   protected final CacheMode cacheMode;
+
+   public DistributedCacheStreamTest() {
+      this(CacheMode.DIST_SYNC);
+   }
+
+   protected DistributedCacheStreamTest(CacheMode cacheMode) {
+      this.cacheMode = cacheMode;
+   }
+
+   @Override
+   protected void createCacheManagers() throws Throwable {
+      ConfigurationBuilder builder = getDefaultClusteredCacheConfig(cacheMode, false);
+      builder.clustering().hash().numOwners(2);
+      createCluster(builder, 3);
+      waitForClusterToForm();
+
+      Cache<Integer, String> cache = cache(0);
+      for (int i = 0; i < NUM_ENTRIES; i++) {
+         cache.put(i, "v" + i);
+      }
+   }
+
+   public void testCount() {
+      assertEquals(NUM_ENTRIES, CacheStreams.entries(this.<Integer, String>cache(1)).count());
+   }
+
+   public void testFilterAndMap() {
+      CacheStream<Integer> evenKeys = CacheStreams.keys(this.<Integer, String>cache(2)).filter(new IsEven());
+      assertEquals(NUM_ENTRIES / 2, evenKeys.count());
+
+      Set<Integer> expected = new HashSet<Integer>();
+      for (int i = 0; i < NUM_ENTRIES; i += 2) {
+         expected.add(i);
+      }
+      assertEquals(expected, evenKeys.collect(Collectors.<Integer>toSet()));
+   }
+
+   public void testReduce() {
+      int sum = CacheStreams.values(this.<Integer, String>cache(0)).map(new Length()).reduce(0, new Sum());
+      int expected = 0;
+      for (int i = 0; i < NUM_ENTRIES; i++) {
+         expected += ("v" + i).length();
+      }
+      assertEquals(expected, sum);
+   }
+
+   public void testCollectEntries() {
+      List<Map.Entry<Integer, String>> entries = CacheStreams.entries(this.<Integer, String>cache(1))
+            .collect(Collectors.<Map.Entry<Integer, String>>toList());
+      assertEquals(NUM_ENTRIES, entries.size());
+      for (Map.Entry<Integer, String> entry : entries) {
+         assertEquals("v" + entry.getKey(), entry.getValue());
+      }
+   }
+
+   public void testIterator() {
+      Set<Integer> keys = new HashSet<Integer>();
+      CloseableIterator<Integer> iterator = CacheStreams.keys(this.<Integer, String>cache(1))
+            .filter(new IsEven()).iterator();
+      try {
+         while (iterator.hasNext()) {
+            keys.add(iterator.next());
+         }
+      } finally {
+         iterator.close();
+      }
+      assertEquals(NUM_ENTRIES / 2, keys.size());
+   }
+
+   public void testMapToNull() {
+      // Unlike a filter, a function returning null keeps the element
+      CacheStream<Integer> stream = CacheStreams.keys(this.<Integer, String>cache(1)).map(new NullIfOdd());
+      assertEquals(NUM_ENTRIES, stream.count());
+      List<Integer> elements = stream.collect(Collectors.<Integer>toList());
+      assertEquals(NUM_ENTRIES, elements.size());
+      assertEquals(NUM_ENTRIES / 2, Collections.frequency(elements, null));
+
+      int nulls = 0;
+      int count = 0;
+      CloseableIterator<Integer> iterator = stream.iterator();
+      try {
+         while (iterator.hasNext()) {
+            count++;
+            if (iterator.next() == null) {
+               nulls++;
+            }
+         }
+      } finally {
+         iterator.close();
+      }
+      assertEquals(NUM_ENTRIES, count);
+      assertEquals(NUM_ENTRIES / 2, nulls);
+   }
+
+   private static class IsEven implements SerializablePredicate<Integer> {
+      @Override
+      public boolean test(Integer i) {
+         return i % 2 == 0;
+      }
+   }
+
+   private static class NullIfOdd implements SerializableFunction<Integer, Integer> {
+      @Override
+      public Integer apply(Integer i) {
+         return i % 2 == 0 ? i : null;
+      }
+   }
+
+   private static class Length implements SerializableFunction<String, Integer> {
+      @Override
+      public Integer apply(String s) {
+         return s.length();
+      }
+   }
+
+   private static class Sum implements SerializableBinaryOperator<Integer> {
+      @Override
+      public Integer apply(Integer i1, Integer i2) {
+         return i1 + i2;
+      }
+   }
+}
@@ -0,0 +1,17 @@
+package org.infinispan.stream;
+
+import org.infinispan.configuration.cache.CacheMode;
+import org.testng.annotations.Test;
+
+/**
+ * Tests the terminal operations of the cache streams of a replicated cache.
+ *
+ * @since 7.2
+ */
+@Test(groups = "functional", testName = "stream.ReplicatedCacheStreamTest")
+public class ReplicatedCacheStreamTest extends DistributedCacheStreamTest {
+
+   public ReplicatedCacheStreamTest() {
+      super(CacheMode.REPL_SYNC);
+   }
+}
@@ -0,0 +1,180 @@
+package org.infinispan.tx;
+
+import org.infinispan.configuration.cache.CacheMode;
+import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.configuration.cache.VersioningScheme;
+import org.infinispan.container.DataContainer;
+import org.infinispan.container.entries.InternalCacheEntry;
+import org.infinispan.distribution.MagicKey;
+import org.infinispan.lock.singlelock.SinglePhaseCommitForPessimisticCachesTest.TxCountInterceptor;
+import org.infinispan.test.MultipleCacheManagersTest;
+import org.infinispan.test.TestingUtil;
+import org.infinispan.test.fwk.CleanupAfterMethod;
+import org.infinispan.transaction.LockingMode;
+import org.infinispan.transaction.impl.TransactionTable;
+import org.infinispan.transaction.tm.DummyTransaction;
+import org.infinispan.util.concurrent.IsolationLevel;
+import org.testng.annotations.Test;
+
+import javax.transaction.RollbackException;
+import javax.transaction.Transaction;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+/**
+ * Tests that optimistic transactions started on the primary owner of all their keys are committed on the other owners
+ * with a single one-phase prepare, and still detect write skews.
+ *
+ * @since 7.2
+ */
+@Test(groups = "functional", testName = "tx.PrimaryOwnerOnePhaseCommitTest")
+@CleanupAfterMethod
+public class PrimaryOwnerOnePhaseCommitTest extends MultipleCacheManagersTest {
+
+   private TxCountInterceptor[] interceptors;
+   private ConfigurationBuilder builder;
+
+   @Override
+   protected void createCacheManagers() throws Throwable {
+      builder = getDefaultClusteredCacheConfig(CacheMode.DIST_SYNC, true);
+      builder.clustering().hash().numOwners(2).l1().disable()
+            .transaction().lockingMode(LockingMode.OPTIMISTIC).use1PcForPrimaryOwnerTransactions(true)
+            .locking().isolationLevel(IsolationLevel.REPEATABLE_READ).writeSkewCheck(true)
+            .versioning().enable().scheme(VersioningScheme.SIMPLE);
+      createCluster(builder, 3);
+      waitForClusterToForm();
+      interceptors = new TxCountInterceptor[3];
+      for (int i = 0; i < 3; i++) {
+         interceptors[i] = new TxCountInterceptor();
+         advancedCache(i).addInterceptor(interceptors[i], 1);
+      }
+   }
+
+   public void testOnePhaseCommitOnBackupOwner() throws Exception {
+      MagicKey k1 = new MagicKey("k1", cache(0), cache(1));
+      MagicKey k2 = new MagicKey("k2", cache(0), cache(1));
+
+      tm(0).begin();
+      cache(0).put(k1, "v1");
+      cache(0).put(k2, "v2");
+      tm(0).commit();
+
+      // The backup owner received a single one-phase prepare
+      assertEquals(interceptors[1].prepareCount, 1);
+      assertEquals(interceptors[1].commitCount, 0);
+      assertEquals(interceptors[2].prepareCount, 0);
+
+      for (int i = 0; i < 3; i++) {
+         assertEquals(cache(i).get(k1), "v1");
+         assertEquals(cache(i).get(k2), "v2");
+      }
+      assertNotLocked(k1);
+      assertNotLocked(k2);
+      assertSameVersion(k1);
+      assertSameVersion(k2);
+   }
+
+   public void testTwoPhaseCommitWhenNotPrimaryOwner() throws Exception {
+      MagicKey k1 = new MagicKey("k1", cache(0), cache(1));
+      MagicKey k2 = new MagicKey("k2", cache(1), cache(2));
+
+      tm(0).begin();
+      cache(0).put(k1, "v1");
+      cache(0).put(k2, "v2");
+      tm(0).commit();
+
+      assertEquals(interceptors[1].prepareCount, 1);
+      assertEquals(interceptors[1].commitCount, 1);
+      assertEquals(cache(2).get(k2), "v2");
+      assertSameVersion(k1);
+      assertSameVersion(k2);
+   }
+
+   public void testWriteSkew() throws Exception {
+      MagicKey k = new MagicKey("k", cache(0), cache(1));
+      cache(0).put(k, "v0");
+
+      tm(0).begin();
+      assertEquals(cache(0).get(k), "v0");
+      Transaction tx = tm(0).suspend();
+
+      cache(1).put(k, "v1");
+
+      tm(0).resume(tx);
+      cache(0).put(k, "v2");
+      try {
+         tm(0).commit();
+         fail("Transaction should roll back");
+      } catch (RollbackException e) {
+         // expected
+      }
+
+      for (int i = 0; i < 3; i++) {
+         assertEquals(cache(i).get(k), "v1");
+      }
+      assertNotLocked(k);
+      assertSameVersion(k);
+
+      // The versions generated by the one-phase commit are checked by the next transactions
+      tm(0).begin();
+      assertEquals(cache(0).get(k), "v1");
+      cache(0).put(k, "v3");
+      tm(0).commit();
+      assertEquals(cache(1).get(k), "v3");
+      assertSameVersion(k);
+   }
+
+   public void testTopologyChangeBetweenPrepareAndCommit() throws Exception {
+      MagicKey k = new MagicKey("k", cache(0), cache(1));
+
+      tm(0).begin();
+      cache(0).put(k, "v");
+      DummyTransaction tx = (DummyTransaction) tm(0).getTransaction();
+      tx.runPrepare();
+      tm(0).suspend();
+      // Only prepared locally
+      assertEquals(interceptors[1].prepareCount, 0);
+
+      addClusterEnabledCacheManager(builder);
+      waitForClusterToForm();
+      TxCountInterceptor joinerInterceptor = new TxCountInterceptor();
+      advancedCache(3).addInterceptor(joinerInterceptor, 1);
+
+      tm(0).resume(tx);
+      tx.runCommitTx();
+      tm(0).suspend();
+
+      // The transaction fell back to a two-phase prepare and commit on the owners in the new topology
+      int prepares = interceptors[1].prepareCount + interceptors[2].prepareCount + joinerInterceptor.prepareCount;
+      int commits = interceptors[1].commitCount + interceptors[2].commitCount + joinerInterceptor.commitCount;
+      assertTrue(prepares > 0);
+      assertEquals(commits, prepares);
+      for (int i = 0; i < 4; i++) {
+         assertEquals(cache(i).get(k), "v");
+      }
+      assertNotLocked(k);
+      // The completion notification removed the remote transactions
+      eventually(new Condition() {
+         @Override
+         public boolean isSatisfied() throws Exception {
+            for (int i = 0; i < 4; i++) {
+               if (TestingUtil.extractComponent(cache(i), TransactionTable.class).getRemoteTxCount() != 0)
+                  return false;
+            }
+            return true;
+         }
+      });
+   }
+
+   private void assertSameVersion(MagicKey key) {
+      InternalCacheEntry primary = TestingUtil.extractComponent(cache(0), DataContainer.class).peek(key);
+      for (int i = 1; i < 3; i++) {
+         InternalCacheEntry entry = TestingUtil.extractComponent(cache(i), DataContainer.class).peek(key);
+         if (entry != null && primary != null) {
+            assertEquals(entry.getMetadata().version(), primary.getMetadata().version());
+         }
+      }
+   }
+}
@@ -193,6 +193,11 @@ private void testLocalVsLocalTxDeadlock(PerCacheExecutorThread.Operations firstO
       }
       assert lockManager.getNumberOfLocksHeld() == 0;
       assertEquals(lockManager.getDetectedLocalDeadlocks(), 1);
+
+      // The transactional lock attempts are in the lock contention statistics too
+      assert lockManager.getLockAcquisitions() >= 4 : "acquisitions: " + lockManager.getLockAcquisitions();
+      assert lockManager.getContendedLockAcquisitions() >= 2 : "contended: " + lockManager.getContendedLockAcquisitions();
+      assertEquals(lockManager.getFailedLockAcquisitions(), 1);
    }
 
 }
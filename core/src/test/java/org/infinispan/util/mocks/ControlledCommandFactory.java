@@ -21,6 +21,7 @@
 import org.infinispan.commands.read.KeySetCommand;
 import org.infinispan.commands.read.MapCombineCommand;
 import org.infinispan.commands.read.ReduceCommand;
+import org.infinispan.commands.read.ShuffleCommand;
 import org.infinispan.commands.read.SizeCommand;
 import org.infinispan.commands.read.ValuesCommand;
 import org.infinispan.commands.remote.ClusteredGetCommand;
@@ -48,11 +49,15 @@
 import org.infinispan.statetransfer.StateChunk;
 import org.infinispan.statetransfer.StateRequestCommand;
 import org.infinispan.statetransfer.StateResponseCommand;
+import org.infinispan.stream.Collector;
+import org.infinispan.stream.impl.StreamPipeline;
+import org.infinispan.stream.impl.StreamSegmentCommand;
 import org.infinispan.test.TestingUtil;
 import org.infinispan.transaction.xa.GlobalTransaction;
 import org.infinispan.util.concurrent.ReclosableLatch;
 import org.infinispan.util.logging.Log;
 import org.infinispan.util.logging.LogFactory;
+import org.infinispan.xsite.BatchXSiteRpcCommand;
 import org.infinispan.xsite.SingleXSiteRpcCommand;
 import org.infinispan.xsite.XSiteAdminCommand;
 import org.infinispan.xsite.statetransfer.XSiteState;
@@ -304,6 +309,11 @@ public <KOut, VOut> ReduceCommand<KOut, VOut> buildReduceCommand(String taskId,
       return actual.buildReduceCommand(taskId, destinationCache, r, keys);
    }
 
+   @Override
+   public <KOut, VOut> ShuffleCommand<KOut, VOut> buildShuffleCommand(String taskId, Map<KOut, List<VOut>> values, int maxBufferedValues) {
+      return actual.buildShuffleCommand(taskId, values, maxBufferedValues);
+   }
+
    @Override
    public GetInDoubtTxInfoCommand buildGetInDoubtTxInfoCommand() {
       return actual.buildGetInDoubtTxInfoCommand();
@@ -361,6 +371,11 @@ public SingleXSiteRpcCommand buildSingleXSiteRpcCommand(VisitableCommand command
       return actual.buildSingleXSiteRpcCommand(command);
    }
 
+   @Override
+   public BatchXSiteRpcCommand buildBatchXSiteRpcCommand(List<WriteCommand> modifications, byte[] compressedModifications) {
+      return actual.buildBatchXSiteRpcCommand(modifications, compressedModifications);
+   }
+
    @Override
    public <K, V, C> EntryRequestCommand<K, V, C> buildEntryRequestCommand(UUID identifier, Set<Integer> segments, Set<K> keysToFilter, KeyValueFilter<? super K, ? super V> filter, Converter<? super K, ? super V, C> converter, Set<Flag> flags) {
       return actual.buildEntryRequestCommand(identifier, segments, keysToFilter, filter, converter, flags);
@@ -378,6 +393,12 @@ public GetKeysInGroupCommand buildGetKeysInGroupCommand(Set<Flag> flags, String
       return actual.buildGetKeysInGroupCommand(flags, groupName);
    }
 
+   @Override
+   public StreamSegmentCommand buildStreamSegmentCommand(Set<Integer> segments, StreamPipeline pipeline,
+                                                         Collector<?, ?, ?> collector) {
+      return actual.buildStreamSegmentCommand(segments, pipeline, collector);
+   }
+
    @Override
    public GetCacheEntryCommand buildGetCacheEntryCommand(Object key, Set<Flag> explicitFlags) {
       return actual.buildGetCacheEntryCommand(key, explicitFlags);
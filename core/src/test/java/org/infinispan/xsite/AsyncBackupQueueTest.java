@@ -0,0 +1,104 @@
+package org.infinispan.xsite;
+
+import org.infinispan.commands.write.ClearCommand;
+import org.infinispan.commands.write.WriteCommand;
+import org.infinispan.configuration.cache.XSiteAsyncBatchingConfiguration;
+import org.infinispan.test.AbstractInfinispanTest;
+import org.infinispan.util.DefaultTimeService;
+import org.infinispan.util.concurrent.TimeoutException;
+import org.testng.annotations.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertFalse;
+import static org.testng.AssertJUnit.fail;
+
+/**
+ * Tests the bound of the {@link AsyncBackupQueue} and the modifications queued again after a failed batch.
+ *
+ * @since 7.2
+ */
+@Test(groups = "unit", testName = "xsite.AsyncBackupQueueTest")
+public class AsyncBackupQueueTest extends AbstractInfinispanTest {
+
+   public void testRequeuedBeforeLaterWrites() throws Exception {
+      AsyncBackupQueue queue = newQueue(10);
+      WriteCommand a1 = write("a");
+      WriteCommand b1 = write("b");
+      queue.offer(Arrays.asList(a1, b1), 0);
+      List<WriteCommand> failed = queue.drain();
+
+      WriteCommand b2 = write("b");
+      WriteCommand c1 = write("c");
+      queue.offer(Arrays.asList(b2, c1), 0);
+      queue.requeue(failed);
+      queue.sent();
+
+      // The write of b queued meanwhile replaces the failed one
+      assertEquals(Arrays.asList(a1, b2, c1), queue.drain());
+   }
+
+   public void testClearSupersedesRequeued() throws Exception {
+      AsyncBackupQueue queue = newQueue(10);
+      ClearCommand clear1 = mock(ClearCommand.class);
+      WriteCommand a1 = write("a");
+      queue.offer(Arrays.asList(clear1, a1), 0);
+      List<WriteCommand> failed = queue.drain();
+
+      // The failed clear is sent again first
+      WriteCommand b1 = write("b");
+      queue.offer(Collections.singletonList(b1), 0);
+      queue.requeue(failed);
+      assertEquals(Arrays.asList(clear1, a1, b1), queue.drain());
+
+      // A clear queued meanwhile discards the failed modifications
+      queue.offer(Collections.singletonList(a1), 0);
+      failed = queue.drain();
+      ClearCommand clear2 = mock(ClearCommand.class);
+      queue.offer(Arrays.asList(clear2, b1), 0);
+      queue.requeue(failed);
+      assertEquals(Arrays.asList(clear2, b1), queue.drain());
+   }
+
+   public void testWritersWaitWhenFull() throws Exception {
+      final AsyncBackupQueue queue = newQueue(2);
+      queue.offer(Arrays.asList(write("a"), write("b")), 0);
+      try {
+         queue.offer(Collections.singletonList(write("c")), 10);
+         fail("The queue should be full");
+      } catch (TimeoutException e) {
+         // expected
+      }
+
+      Future<Integer> future = fork(new Callable<Integer>() {
+         @Override
+         public Integer call() throws Exception {
+            return queue.offer(Collections.singletonList(write("c")), 10000);
+         }
+      });
+      Thread.sleep(100);
+      assertFalse(future.isDone());
+      assertEquals(2, queue.drain().size());
+      assertEquals(1, (int) future.get(10, TimeUnit.SECONDS));
+   }
+
+   private AsyncBackupQueue newQueue(int maxQueueSize) {
+      return new AsyncBackupQueue(new XSiteBackup("NYC", true, 10000),
+                                  new XSiteAsyncBatchingConfiguration(true, 100, maxQueueSize, maxQueueSize, true),
+                                  new DefaultTimeService());
+   }
+
+   private static WriteCommand write(Object key) {
+      WriteCommand command = mock(WriteCommand.class);
+      when(command.getAffectedKeys()).thenReturn(Collections.<Object>singleton(key));
+      return command;
+   }
+}
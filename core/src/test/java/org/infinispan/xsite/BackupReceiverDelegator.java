@@ -2,9 +2,12 @@
 
 import org.infinispan.Cache;
 import org.infinispan.commands.VisitableCommand;
+import org.infinispan.commands.write.WriteCommand;
 import org.infinispan.xsite.statetransfer.XSiteStatePushCommand;
 import org.infinispan.xsite.statetransfer.XSiteStateTransferControlCommand;
 
+import java.util.List;
+
 /**
  * {@link org.infinispan.xsite.BackupReceiver} delegator. Mean to be overridden. For test purpose only!
  *
@@ -32,6 +35,11 @@ public Object handleRemoteCommand(VisitableCommand command) throws Throwable {
       return delegate.handleRemoteCommand(command);
    }
 
+   @Override
+   public Object handleRemoteBatch(List<WriteCommand> modifications) throws Throwable {
+      return delegate.handleRemoteBatch(modifications);
+   }
+
    @Override
    public void handleStateTransferControl(XSiteStateTransferControlCommand command) throws Exception {
       delegate.handleStateTransferControl(command);
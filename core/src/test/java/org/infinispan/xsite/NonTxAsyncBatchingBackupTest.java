@@ -0,0 +1,131 @@
+package org.infinispan.xsite;
+
+import org.infinispan.Cache;
+import org.infinispan.configuration.cache.BackupConfiguration;
+import org.infinispan.configuration.cache.BackupConfigurationBuilder;
+import org.infinispan.configuration.cache.CacheMode;
+import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.distribution.MagicKey;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertNull;
+import static org.testng.AssertJUnit.assertTrue;
+
+/**
+ * Tests the batched asynchronous backup: writes are coalesced per key and flushed when the queue is full.
+ *
+ * @since 7.2
+ */
+@Test(groups = "xsite", testName = "xsite.NonTxAsyncBatchingBackupTest")
+public class NonTxAsyncBatchingBackupTest extends AbstractTwoSitesTest {
+
+   protected static final int MAX_MODIFICATIONS = 5;
+   protected boolean compression = true;
+
+   public NonTxAsyncBatchingBackupTest() {
+      super.lonBackupStrategy = BackupConfiguration.BackupStrategy.ASYNC;
+   }
+
+   @Override
+   protected ConfigurationBuilder getNycActiveConfig() {
+      return getDefaultClusteredCacheConfig(CacheMode.DIST_SYNC, false);
+   }
+
+   @Override
+   protected ConfigurationBuilder getLonActiveConfig() {
+      return getDefaultClusteredCacheConfig(CacheMode.DIST_SYNC, false);
+   }
+
+   @Override
+   protected void adaptLONConfiguration(BackupConfigurationBuilder builder) {
+      //only flushed when the queue is full
+      builder.asyncBatching().enable().flushInterval(60000).maxModifications(MAX_MODIFICATIONS)
+            .compression(compression);
+   }
+
+   public void testCoalescedWritesAndFlush() throws Exception {
+      for (int i = 0; i < 10; i++) {
+         cache(LON, 0).put("k", "v" + i);
+      }
+      assertEquals(1, queueSize());
+      assertTrue(lag() >= 0);
+      assertNull(backup(LON).get("k"));
+
+      //the put all is queued by its originator, the primary owner of "k" queued the put
+      int primaryOwner = backupSender(0).asyncQueueSize(NYC) == 1 ? 0 : 1;
+      Map<Object, Object> entries = new HashMap<Object, Object>();
+      for (int i = 0; i < MAX_MODIFICATIONS; i++) {
+         entries.put("k" + i, "v" + i);
+      }
+      cache(LON, primaryOwner).putAll(entries);
+
+      eventually(new Condition() {
+         @Override
+         public boolean isSatisfied() throws Exception {
+            return "v9".equals(backup(LON).get("k"));
+         }
+      });
+      for (Map.Entry<Object, Object> entry : entries.entrySet()) {
+         assertEquals(entry.getValue(), backup(LON).get(entry.getKey()));
+      }
+      assertEquals(0, queueSize());
+   }
+
+   public void testClearAndLaterWrites() throws Exception {
+      backup(LON).put("old", "old");
+      //all the writes are queued by the same node
+      Cache<Object, Object> cache = cache(LON, 0);
+      MagicKey cleared1 = new MagicKey("cleared1", cache);
+      MagicKey cleared2 = new MagicKey("cleared2", cache);
+      cache.put(cleared1, "v1");
+      cache.put(cleared2, "v2");
+      cache.clear();
+      final List<MagicKey> keys = new ArrayList<MagicKey>();
+      //the clear and the writes after it fill the queue
+      for (int i = 1; i < MAX_MODIFICATIONS; i++) {
+         MagicKey key = new MagicKey("k" + i, cache);
+         keys.add(key);
+         cache.put(key, "v" + i);
+      }
+
+      eventually(new Condition() {
+         @Override
+         public boolean isSatisfied() throws Exception {
+            return backup(LON).get(keys.get(keys.size() - 1)) != null;
+         }
+      });
+      assertNull(backup(LON).get("old"));
+      assertNull(backup(LON).get(cleared1));
+      assertNull(backup(LON).get(cleared2));
+      for (int i = 0; i < keys.size(); i++) {
+         assertEquals("v" + (i + 1), backup(LON).get(keys.get(i)));
+      }
+      assertEquals(0, queueSize());
+   }
+
+   private int queueSize() {
+      int size = 0;
+      for (int i = 0; i < initialClusterSize; i++) {
+         size += backupSender(i).asyncQueueSize(NYC);
+      }
+      return size;
+   }
+
+   private long lag() {
+      long lag = 0;
+      for (int i = 0; i < initialClusterSize; i++) {
+         lag = Math.max(lag, backupSender(i).asyncReplicationLag(NYC));
+      }
+      return lag;
+   }
+
+   private BackupSender backupSender(int index) {
+      return cache(LON, index).getAdvancedCache().getComponentRegistry().getComponent(BackupSender.class);
+   }
+}
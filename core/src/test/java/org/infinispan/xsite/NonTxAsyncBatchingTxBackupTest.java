@@ -0,0 +1,83 @@
+package org.infinispan.xsite;
+
+import org.infinispan.Cache;
+import org.infinispan.distribution.MagicKey;
+import org.infinispan.notifications.Listener;
+import org.infinispan.notifications.cachelistener.annotation.TransactionCompleted;
+import org.infinispan.notifications.cachelistener.event.TransactionCompletedEvent;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.testng.AssertJUnit.assertEquals;
+
+/**
+ * Tests the batched asynchronous backup to a transactional backup cache, which applies each batch in a single
+ * transaction.
+ *
+ * @since 7.2
+ */
+@Test(groups = "xsite", testName = "xsite.NonTxAsyncBatchingTxBackupTest")
+public class NonTxAsyncBatchingTxBackupTest extends NonTxAsyncBatchingBackupTest {
+
+   public NonTxAsyncBatchingTxBackupTest() {
+      isLonBackupTransactional = true;
+   }
+
+   public void testBatchReplayedInOneTransaction() throws Exception {
+      final TransactionCounter counter = new TransactionCounter();
+      for (int i = 0; i < initialClusterSize; i++) {
+         cache(NYC, "lonBackup", i).addListener(counter);
+      }
+      try {
+         //all the writes are queued by the same node, so they're sent in a single batch
+         Cache<Object, Object> cache = cache(LON, 0);
+         final List<MagicKey> keys = new ArrayList<MagicKey>();
+         for (int i = 0; i < MAX_MODIFICATIONS; i++) {
+            MagicKey key = new MagicKey("tx" + i, cache);
+            keys.add(key);
+            cache.put(key, "v" + i);
+         }
+
+         eventually(new Condition() {
+            @Override
+            public boolean isSatisfied() throws Exception {
+               for (MagicKey key : keys) {
+                  if (backup(LON).get(key) == null) {
+                     return false;
+                  }
+               }
+               return true;
+            }
+         });
+         for (int i = 0; i < keys.size(); i++) {
+            assertEquals("v" + i, backup(LON).get(keys.get(i)));
+         }
+         eventually(new Condition() {
+            @Override
+            public boolean isSatisfied() throws Exception {
+               return counter.committed.get() > 0;
+            }
+         });
+         assertEquals(1, counter.committed.get());
+      } finally {
+         for (int i = 0; i < initialClusterSize; i++) {
+            cache(NYC, "lonBackup", i).removeListener(counter);
+         }
+      }
+   }
+
+   @Listener
+   public static class TransactionCounter {
+      final AtomicInteger committed = new AtomicInteger();
+
+      @TransactionCompleted
+      public void transactionCompleted(TransactionCompletedEvent<?, ?> event) {
+         if (event.isOriginLocal() && event.isTransactionSuccessful()) {
+            committed.incrementAndGet();
+         }
+      }
+   }
+}
@@ -0,0 +1,16 @@
+package org.infinispan.xsite;
+
+import org.testng.annotations.Test;
+
+/**
+ * Tests the batched asynchronous backup when the batches are sent uncompressed.
+ *
+ * @since 7.2
+ */
+@Test(groups = "xsite", testName = "xsite.NonTxAsyncBatchingUncompressedBackupTest")
+public class NonTxAsyncBatchingUncompressedBackupTest extends NonTxAsyncBatchingBackupTest {
+
+   public NonTxAsyncBatchingUncompressedBackupTest() {
+      compression = false;
+   }
+}
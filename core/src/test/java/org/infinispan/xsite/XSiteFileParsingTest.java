@@ -5,6 +5,7 @@
 import org.infinispan.configuration.cache.BackupForConfiguration;
 import org.infinispan.configuration.cache.Configuration;
 import org.infinispan.configuration.cache.TakeOfflineConfiguration;
+import org.infinispan.configuration.cache.XSiteAsyncBatchingConfiguration;
 import org.infinispan.configuration.cache.XSiteStateTransferConfiguration;
 import org.infinispan.configuration.global.GlobalConfiguration;
 import org.infinispan.manager.EmbeddedCacheManager;
@@ -12,8 +13,12 @@
 import org.infinispan.test.fwk.TestCacheManagerFactory;
 import org.testng.annotations.Test;
 
+import static org.infinispan.configuration.cache.XSiteAsyncBatchingConfigurationBuilder.DEFAULT_FLUSH_INTERVAL;
+import static org.infinispan.configuration.cache.XSiteAsyncBatchingConfigurationBuilder.DEFAULT_MAX_MODIFICATIONS;
+import static org.infinispan.configuration.cache.XSiteAsyncBatchingConfigurationBuilder.DEFAULT_MAX_QUEUE_SIZE;
 import static org.infinispan.configuration.cache.XSiteStateTransferConfigurationBuilder.*;
 import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertFalse;
 import static org.testng.AssertJUnit.assertTrue;
 
 /**
@@ -75,6 +80,23 @@ public void testCustomBackupPolicy() {
       assertEquals(dcc.sites().backupFor().remoteCache(), null);
    }
 
+   public void testAsyncBatching() {
+      Configuration dcc = cacheManager.getCacheConfiguration("asyncBatching");
+      assertEquals(dcc.sites().allBackups().size(), 2);
+      for (BackupConfiguration backup : dcc.sites().allBackups()) {
+         XSiteAsyncBatchingConfiguration batching = backup.asyncBatching();
+         if (backup.site().equals("NYC")) {
+            assertEquals(new XSiteAsyncBatchingConfiguration(true, 200, 50, 500, false), batching);
+         } else {
+            assertFalse(batching.enabled());
+            assertEquals(DEFAULT_FLUSH_INTERVAL, batching.flushInterval());
+            assertEquals(DEFAULT_MAX_MODIFICATIONS, batching.maxModifications());
+            assertEquals(DEFAULT_MAX_QUEUE_SIZE, batching.maxQueueSize());
+            assertTrue(batching.compression());
+         }
+      }
+   }
+
    private void testDefault(Configuration dcc) {
       assertEquals(dcc.sites().allBackups().size(), 2);
       assertTrue(dcc.sites().allBackups().contains(new BackupConfiguration("NYC", BackupConfiguration.BackupStrategy.SYNC,
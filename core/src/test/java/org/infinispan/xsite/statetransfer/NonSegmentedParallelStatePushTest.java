@@ -0,0 +1,20 @@
+package org.infinispan.xsite.statetransfer;
+
+import org.testng.annotations.Test;
+
+/**
+ * Tests the state transfer between sites with several chunks in flight and its resume when the segments are pushed
+ * by several passes over a non-segmented data container.
+ *
+ * @since 7.2
+ */
+@Test(groups = "xsite", testName = "xsite.statetransfer.NonSegmentedParallelStatePushTest")
+public class NonSegmentedParallelStatePushTest extends ParallelStatePushTest {
+
+   public NonSegmentedParallelStatePushTest() {
+      super();
+      //more primary segments per node than pushed by a single pass
+      numSegments = 80;
+      segmentedDataContainer = false;
+   }
+}
@@ -0,0 +1,275 @@
+package org.infinispan.xsite.statetransfer;
+
+import org.infinispan.Cache;
+import org.infinispan.configuration.cache.BackupConfigurationBuilder;
+import org.infinispan.configuration.cache.CacheMode;
+import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.distribution.ch.ConsistentHash;
+import org.infinispan.manager.CacheContainer;
+import org.infinispan.statetransfer.StateTransferProgress;
+import org.infinispan.test.fwk.CheckPoint;
+import org.infinispan.xsite.AbstractTwoSitesTest;
+import org.infinispan.xsite.BackupReceiver;
+import org.infinispan.xsite.BackupReceiverDelegator;
+import org.infinispan.xsite.BackupReceiverRepository;
+import org.infinispan.xsite.BackupReceiverRepositoryDelegator;
+import org.infinispan.xsite.XSiteAdminOperations;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.infinispan.test.TestingUtil.extractComponent;
+import static org.infinispan.test.TestingUtil.extractGlobalComponent;
+import static org.infinispan.test.TestingUtil.replaceComponent;
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertFalse;
+import static org.testng.AssertJUnit.assertTrue;
+
+/**
+ * Tests the state transfer between sites with several chunks in flight and its resume from the segments already
+ * pushed.
+ *
+ * @since 7.2
+ */
+@Test(groups = "xsite", testName = "xsite.statetransfer.ParallelStatePushTest")
+public class ParallelStatePushTest extends AbstractTwoSitesTest {
+
+   private static final int CHUNK_SIZE = 5;
+
+   protected int numSegments = 10;
+   protected boolean segmentedDataContainer = true;
+
+   @Override
+   protected ConfigurationBuilder getNycActiveConfig() {
+      return getDefaultClusteredCacheConfig(CacheMode.DIST_SYNC, false);
+   }
+
+   @Override
+   protected ConfigurationBuilder getLonActiveConfig() {
+      ConfigurationBuilder builder = getDefaultClusteredCacheConfig(CacheMode.DIST_SYNC, false);
+      //the segments are iterated by groups, so they are completed while the push is running
+      builder.clustering().hash().numSegments(numSegments)
+            .dataContainer().segmented(segmentedDataContainer);
+      return builder;
+   }
+
+   @Override
+   protected void adaptLONConfiguration(BackupConfigurationBuilder builder) {
+      builder.stateTransfer().chunkSize(CHUNK_SIZE).maxInFlightChunks(4);
+   }
+
+   public void testPushAndResume() throws Exception {
+      XSiteAdminOperations operations = extractComponent(cache(LON, 0), XSiteAdminOperations.class);
+      assertEquals(XSiteAdminOperations.SUCCESS, operations.takeSiteOffline(NYC));
+      for (int i = 0; i < amountOfData(); ++i) {
+         cache(LON, 0).put("key-" + i, "value-" + i);
+      }
+
+      assertEquals(XSiteAdminOperations.SUCCESS, operations.pushState(NYC));
+      awaitStatePush();
+      assertDataInNyc();
+      assertProgress();
+      Map<String, String> clusterProgress = operations.getPushStateProgress(NYC);
+      assertEquals(String.valueOf(clusterProgress), initialClusterSize, clusterProgress.size());
+
+      //all the segments were pushed, nothing is sent again
+      assertEquals(XSiteAdminOperations.SUCCESS, operations.resumePushState(NYC));
+      awaitStatePush();
+      assertProgress();
+
+      //a new push starts from the beginning
+      assertEquals(XSiteAdminOperations.SUCCESS, operations.pushState(NYC));
+      awaitStatePush();
+      assertDataInNyc();
+      assertProgress();
+   }
+
+   public void testCompletedSegmentsNotSentAfterCancel() throws Exception {
+      XSiteAdminOperations operations = extractComponent(cache(LON, 0), XSiteAdminOperations.class);
+      assertEquals(XSiteAdminOperations.SUCCESS, operations.takeSiteOffline(NYC));
+      for (int i = 0; i < amountOfData(); ++i) {
+         cache(LON, 0).put("key-" + i, "value-" + i);
+      }
+
+      CheckPoint checkPoint = new CheckPoint();
+      List<ChunkRecorder> recorders = new ArrayList<>();
+      for (CacheContainer cacheContainer : site(NYC).cacheManagers()) {
+         recorders.add(replaceBackupReceiverRepository(cacheContainer, checkPoint));
+      }
+      try {
+         assertEquals(XSiteAdminOperations.SUCCESS, operations.pushState(NYC));
+
+         //more chunks blocked than pushing nodes: at least one node has several chunks in flight
+         checkPoint.awaitStrict("chunk_blocked", initialClusterSize + 1, 30, TimeUnit.SECONDS);
+         Set<Integer> completedSegments = completedSegments();
+         assertFalse(completedSegments.isEmpty());
+         assertTrue(completedSegments.toString(), completedSegments.size() < numSegments);
+
+         Future<String> cancel = fork(new Callable<String>() {
+            @Override
+            public String call() throws Exception {
+               return extractComponent(cache(LON, 0), XSiteAdminOperations.class).cancelPushState(NYC);
+            }
+         });
+         eventually(new Condition() {
+            @Override
+            public boolean isSatisfied() throws Exception {
+               for (Cache<?, ?> cache : caches(LON)) {
+                  if (!extractComponent(cache, XSiteStateProvider.class).getCurrentStateSending().isEmpty()) {
+                     return false;
+                  }
+               }
+               return true;
+            }
+         });
+         for (ChunkRecorder recorder : recorders) {
+            recorder.stopBlocking();
+         }
+         checkPoint.triggerForever("chunk_released");
+         assertEquals(XSiteAdminOperations.SUCCESS, cancel.get(30, TimeUnit.SECONDS));
+
+         assertEquals(XSiteAdminOperations.SUCCESS, operations.resumePushState(NYC));
+         awaitStatePush();
+         assertDataInNyc();
+
+         //the segments completed before the cancel are not sent again
+         ConsistentHash ch = cache(LON, 0).getAdvancedCache().getDistributionManager().getWriteConsistentHash();
+         int resentKeys = 0;
+         for (ChunkRecorder recorder : recorders) {
+            for (Object key : recorder.keysAfterBlocking()) {
+               assertFalse("Key " + key + " was sent again", completedSegments.contains(ch.getSegment(key)));
+               resentKeys++;
+            }
+         }
+         assertTrue(resentKeys > 0);
+         assertEquals(numSegments, completedSegments().size());
+      } finally {
+         for (ChunkRecorder recorder : recorders) {
+            recorder.restore();
+         }
+      }
+   }
+
+   //several chunks per segment, so more than one chunk of the same segment is in flight
+   private int amountOfData() {
+      return CHUNK_SIZE * 8 * numSegments;
+   }
+
+   private ChunkRecorder replaceBackupReceiverRepository(CacheContainer cacheContainer, CheckPoint checkPoint) {
+      BackupReceiverRepository delegate = extractGlobalComponent(cacheContainer, BackupReceiverRepository.class);
+      ChunkRecorder recorder = new ChunkRecorder(cacheContainer, delegate, checkPoint);
+      replaceComponent(cacheContainer, BackupReceiverRepository.class, recorder, true);
+      return recorder;
+   }
+
+   private Set<Integer> completedSegments() {
+      Set<Integer> completedSegments = new HashSet<>();
+      for (Cache<?, ?> cache : caches(LON)) {
+         StateTransferProgress progress = extractComponent(cache, XSiteStateTransferManager.class).getPushProgress(NYC);
+         for (int segment = 0; progress != null && segment < numSegments; ++segment) {
+            if (progress.isSegmentCompleted(segment)) {
+               completedSegments.add(segment);
+            }
+         }
+      }
+      return completedSegments;
+   }
+
+   private void awaitStatePush() {
+      eventually(new Condition() {
+         @Override
+         public boolean isSatisfied() throws Exception {
+            return extractComponent(cache(LON, 0), XSiteAdminOperations.class).getRunningStateTransfer().isEmpty();
+         }
+      }, TimeUnit.SECONDS.toMillis(30));
+      assertEquals(XSiteStateTransferManager.STATUS_OK,
+                   extractComponent(cache(LON, 0), XSiteAdminOperations.class).getPushStateStatus().get(NYC));
+   }
+
+   private void assertDataInNyc() {
+      assertInSite(NYC, new AssertCondition<Object, Object>() {
+         @Override
+         public void assertInCache(Cache<Object, Object> cache) {
+            for (int i = 0; i < amountOfData(); ++i) {
+               assertEquals("value-" + i, cache.get("key-" + i));
+            }
+         }
+      });
+   }
+
+   private void assertProgress() {
+      long entries = 0;
+      long chunks = 0;
+      int completedSegments = 0;
+      for (Cache<?, ?> cache : caches(LON)) {
+         StateTransferProgress progress = extractComponent(cache, XSiteStateTransferManager.class).getPushProgress(NYC);
+         entries += progress.getEntries();
+         chunks += progress.getChunks();
+         completedSegments += progress.getCompletedSegments();
+      }
+      //each key is pushed once, by its primary owner
+      assertEquals(amountOfData(), entries);
+      assertTrue("Expected several chunks per segment: " + chunks, chunks > 2 * numSegments);
+      assertEquals(numSegments, completedSegments);
+   }
+
+   /**
+    * Records the keys received by the backup site and, while blocking, holds the chunks received after the first
+    * segment was completed until the main thread releases them.
+    */
+   private class ChunkRecorder extends BackupReceiverRepositoryDelegator {
+
+      private final CacheContainer cacheContainer;
+      private final CheckPoint checkPoint;
+      private final List<Object> keysAfterBlocking = Collections.synchronizedList(new ArrayList<>());
+      private volatile boolean blocking = true;
+      private volatile boolean blocked;
+
+      private ChunkRecorder(CacheContainer cacheContainer, BackupReceiverRepository delegate, CheckPoint checkPoint) {
+         super(delegate);
+         this.cacheContainer = cacheContainer;
+         this.checkPoint = checkPoint;
+      }
+
+      @Override
+      public BackupReceiver getBackupReceiver(String originSiteName, String cacheName) {
+         return new BackupReceiverDelegator(super.getBackupReceiver(originSiteName, cacheName)) {
+            @Override
+            public void handleStateTransferState(XSiteStatePushCommand cmd) throws Exception {
+               if (blocking && (blocked || !completedSegments().isEmpty())) {
+                  blocked = true;
+                  checkPoint.trigger("chunk_blocked");
+                  checkPoint.awaitStrict("chunk_released", 30, TimeUnit.SECONDS);
+               } else if (!blocking) {
+                  for (XSiteState state : cmd.getChunk()) {
+                     keysAfterBlocking.add(state.key());
+                  }
+               }
+               super.handleStateTransferState(cmd);
+            }
+         };
+      }
+
+      private void stopBlocking() {
+         blocking = false;
+      }
+
+      private List<Object> keysAfterBlocking() {
+         synchronized (keysAfterBlocking) {
+            return new ArrayList<>(keysAfterBlocking);
+         }
+      }
+
+      private void restore() {
+         replaceComponent(cacheContainer, BackupReceiverRepository.class, delegate, true);
+      }
+   }
+}
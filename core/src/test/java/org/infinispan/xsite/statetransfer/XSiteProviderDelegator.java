@@ -1,6 +1,7 @@
 package org.infinispan.xsite.statetransfer;
 
 import org.infinispan.remoting.transport.Address;
+import org.infinispan.statetransfer.StateTransferProgress;
 
 import java.util.Collection;
 
@@ -24,6 +25,11 @@ public void startStateTransfer(String siteName, Address requestor, int minTopolo
       xSiteStateProvider.startStateTransfer(siteName, requestor, minTopologyId);
    }
 
+   @Override
+   public void resumeStateTransfer(String siteName, Address requestor, int minTopologyId) {
+      xSiteStateProvider.resumeStateTransfer(siteName, requestor, minTopologyId);
+   }
+
    @Override
    public void cancelStateTransfer(String siteName) {
       xSiteStateProvider.cancelStateTransfer(siteName);
@@ -38,4 +44,14 @@ public Collection<String> getCurrentStateSending() {
    public Collection<String> getSitesMissingCoordinator(Collection<Address> currentMembers) {
       return xSiteStateProvider.getSitesMissingCoordinator(currentMembers);
    }
+
+   @Override
+   public StateTransferProgress getStatePushProgress(String siteName) {
+      return xSiteStateProvider.getStatePushProgress(siteName);
+   }
+
+   @Override
+   public void clearStatePushProgress(String siteName) {
+      xSiteStateProvider.clearStatePushProgress(siteName);
+   }
 }
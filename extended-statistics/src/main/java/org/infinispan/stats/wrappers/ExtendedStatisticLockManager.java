@@ -114,6 +114,16 @@ public int getLockId(Object key) {
       return actual.getLockId(key);
    }
 
+   @Override
+   public long tryOptimisticRead(Object key) {
+      return actual.tryOptimisticRead(key);
+   }
+
+   @Override
+   public boolean validate(Object key, long stamp) {
+      return actual.validate(key, stamp);
+   }
+
    @Override
    public boolean acquireLock(InvocationContext ctx, Object key, long timeoutMillis, boolean skipLocking) throws InterruptedException, TimeoutException {
       LockInfo lockInfo = new LockInfo(ctx);
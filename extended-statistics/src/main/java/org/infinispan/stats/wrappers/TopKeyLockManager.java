@@ -86,6 +86,16 @@ public int getLockId(Object key) {
       return current.getLockId(key);
    }
 
+   @Override
+   public long tryOptimisticRead(Object key) {
+      return current.tryOptimisticRead(key);
+   }
+
+   @Override
+   public boolean validate(Object key, long stamp) {
+      return current.validate(key, stamp);
+   }
+
    @Override
    public boolean acquireLock(InvocationContext ctx, Object key, long timeoutMillis, boolean skipLocking)
          throws InterruptedException, TimeoutException {
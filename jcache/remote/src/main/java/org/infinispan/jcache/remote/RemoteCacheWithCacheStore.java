@@ -1,5 +1,9 @@
 package org.infinispan.jcache.remote;
 
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
 import javax.cache.configuration.MutableConfiguration;
 import javax.cache.integration.CacheLoader;
 import javax.cache.integration.CacheWriter;
@@ -36,6 +40,24 @@ public V get(Object key) {
       return value;
    }
 
+   @Override
+   public Map<K, V> getAll(Set<? extends K> keys) {
+      Map<K, V> values = super.getAll(keys);
+      if (values.size() == keys.size()) {
+         return values;
+      }
+      Map<K, V> result = new HashMap<K, V>(values);
+      for (K key : keys) {
+         if (!values.containsKey(key)) {
+            V value = loadFromCacheLoader(key);
+            if (value != null) {
+               result.put(key, value);
+            }
+         }
+      }
+      return result;
+   }
+
    private V loadFromCacheLoader(K key) {
       if (jcacheLoader == null || !configuration.isReadThrough()) {
          return null;
@@ -7,6 +7,7 @@
 
 import org.infinispan.client.hotrod.Flag;
 import org.infinispan.client.hotrod.MetadataValue;
+import org.infinispan.client.hotrod.NearCacheStatistics;
 import org.infinispan.client.hotrod.RemoteCache;
 import org.infinispan.client.hotrod.RemoteCacheManager;
 import org.infinispan.client.hotrod.ServerStatistics;
@@ -78,6 +79,11 @@ public Map<K, V> getBulk(int size) {
       return delegate.getBulk(size);
    }
 
+   @Override
+   public Map<K, V> getAll(Set<? extends K> keys) {
+      return delegate.getAll(keys);
+   }
+
    @Override
    public Set<Object> getListeners() {
       return delegate.getListeners();
@@ -361,6 +367,11 @@ public ServerStatistics stats() {
       return delegate.stats();
    }
 
+   @Override
+   public NearCacheStatistics nearCacheStats() {
+      return delegate.nearCacheStats();
+   }
+
    @Override
    public void stop() {
       delegate.stop();
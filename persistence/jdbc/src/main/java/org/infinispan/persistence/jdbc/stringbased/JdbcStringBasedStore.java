@@ -8,6 +8,8 @@
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Executor;
@@ -31,6 +33,7 @@
 import org.infinispan.persistence.keymappers.TwoWayKey2StringMapper;
 import org.infinispan.persistence.keymappers.UnsupportedKeyTypeException;
 import org.infinispan.persistence.spi.AdvancedLoadWriteStore;
+import org.infinispan.persistence.spi.BatchCacheWriter;
 import org.infinispan.persistence.spi.InitializationContext;
 import org.infinispan.persistence.spi.PersistenceException;
 import org.infinispan.util.KeyValuePair;
@@ -71,7 +74,7 @@
  * @see org.infinispan.persistence.keymappers.DefaultTwoWayKey2StringMapper
  */
 @ConfiguredBy(JdbcStringBasedStoreConfiguration.class)
-public class JdbcStringBasedStore implements AdvancedLoadWriteStore {
+public class JdbcStringBasedStore implements AdvancedLoadWriteStore, BatchCacheWriter {
 
    private static final Log log = LogFactory.getLog(JdbcStringBasedStore.class, Log.class);
 
@@ -186,6 +189,78 @@ public void write(MarshalledEntry entry) {
       }
    }
 
+   /**
+    * Updates all the rows with a single JDBC batch, then inserts the rows that did not exist with a second one. The
+    * entries for which the driver does not report the update count are written one by one.
+    */
+   @Override
+   public void writeBatch(Iterable entries) {
+      List<MarshalledEntry<?, ?>> batch = new ArrayList<MarshalledEntry<?, ?>>();
+      List<String> keys = new ArrayList<String>();
+      for (Object o : entries) {
+         MarshalledEntry<?, ?> entry = (MarshalledEntry<?, ?>) o;
+         batch.add(entry);
+         keys.add(key2Str(entry.getKey()));
+      }
+      if (batch.isEmpty())
+         return;
+
+      Connection connection = null;
+      PreparedStatement ps = null;
+      List<MarshalledEntry<?, ?>> unknown = new ArrayList<MarshalledEntry<?, ?>>();
+      try {
+         connection = connectionFactory.getConnection();
+         String sql = tableManipulation.getUpdateRowSql();
+         if (log.isTraceEnabled()) {
+            log.tracef("Running sql '%s' in a batch of %d keys", sql, batch.size());
+         }
+         ps = connection.prepareStatement(sql);
+         for (int i = 0; i < batch.size(); i++) {
+            updateStatement(batch.get(i), keys.get(i), ps);
+            ps.addBatch();
+         }
+         int[] updateCounts = ps.executeBatch();
+         JdbcUtil.safeClose(ps);
+         ps = null;
+
+         sql = tableManipulation.getInsertRowSql();
+         int inserts = 0;
+         for (int i = 0; i < batch.size(); i++) {
+            if (updateCounts[i] == 0) {
+               if (ps == null) {
+                  ps = connection.prepareStatement(sql);
+               }
+               updateStatement(batch.get(i), keys.get(i), ps);
+               ps.addBatch();
+               inserts++;
+            } else if (updateCounts[i] < 0) {
+               unknown.add(batch.get(i));
+            }
+         }
+         if (ps != null) {
+            if (log.isTraceEnabled()) {
+               log.tracef("Running sql '%s' in a batch of %d keys", sql, inserts);
+            }
+            ps.executeBatch();
+         }
+      } catch (SQLException ex) {
+         log.sqlFailureStoringKeys(ex);
+         throw new PersistenceException("Error while storing a batch of string keys to database", ex);
+      } catch (InterruptedException e) {
+         if (log.isTraceEnabled()) {
+            log.trace("Interrupted while marshalling to store");
+         }
+         Thread.currentThread().interrupt();
+         return;
+      } finally {
+         JdbcUtil.safeClose(ps);
+         connectionFactory.releaseConnection(connection);
+      }
+      for (MarshalledEntry<?, ?> entry : unknown) {
+         write(entry);
+      }
+   }
+
    @Override
    public MarshalledEntry load(Object key) {
       String lockingKey = key2Str(key);
@@ -244,6 +319,35 @@ public boolean delete(Object key) {
       }
    }
 
+   @Override
+   public void deleteBatch(Iterable keys) {
+      Connection connection = null;
+      PreparedStatement ps = null;
+      try {
+         String sql = tableManipulation.getDeleteRowSql();
+         connection = connectionFactory.getConnection();
+         ps = connection.prepareStatement(sql);
+         int count = 0;
+         for (Object key : keys) {
+            ps.setString(1, key2Str(key));
+            ps.addBatch();
+            count++;
+         }
+         if (count > 0) {
+            if (log.isTraceEnabled()) {
+               log.tracef("Running sql '%s' in a batch of %d keys", sql, count);
+            }
+            ps.executeBatch();
+         }
+      } catch (SQLException ex) {
+         log.sqlFailureRemovingKeys(ex);
+         throw new PersistenceException("Error while removing string keys from database", ex);
+      } finally {
+         JdbcUtil.safeClose(ps);
+         connectionFactory.releaseConnection(connection);
+      }
+   }
+
    @Override
    public void clear() throws PersistenceException {
       Connection conn = null;
@@ -19,5 +19,6 @@ object ExternalizerIds {
    val BINARY_FILTER = 1106
    val BINARY_CONVERTER = 1107
    val KEY_VALUE_VERSION_CONVERTER = 1108
+   val KEY_BLOOM_FILTER = 1109
 
 }
\ No newline at end of file
@@ -71,7 +71,7 @@ class ClientListenerRegistry(configuration: HotRodServerConfiguration) extends L
          for {
             namedFactory <- filterFactory
          } yield {
-            findFactory(namedFactory._1, compatEnabled, cacheEventFilterFactories, "key/value filter", useRawData)
+            findFilterFactory(namedFactory._1, compatEnabled, cacheEventFilterFactories, "key/value filter", useRawData)
                .getFilter[Bytes, Bytes](filterParams.toArray)
          }
 
@@ -87,6 +87,11 @@ class ClientListenerRegistry(configuration: HotRodServerConfiguration) extends L
       cache.addListener(clientEventSender, filter.orNull, converter.orNull)
    }
 
+   def findFilterFactory(name: String, compatEnabled: Boolean, factories: ConcurrentMap[String, CacheEventFilterFactory], factoryType: String, useRawData: Boolean): CacheEventFilterFactory = {
+      if (name == "___near-cache-key-bloom-filter") KeyBloomFilterFactorySingleton
+      else findFactory(name, compatEnabled, factories, factoryType, useRawData)
+   }
+
    def findConverterFactory(name: String, compatEnabled: Boolean, factories: ConcurrentMap[String, CacheEventConverterFactory], factoryType: String, useRawData: Boolean): CacheEventConverterFactory = {
       if (name == "___eager-key-value-version-converter") KeyValueVersionConverterFactorySingleton
       else findFactory(name, compatEnabled, factories, factoryType, useRawData)
@@ -292,6 +297,7 @@ class ClientListenerRegistry(configuration: HotRodServerConfiguration) extends L
 object ClientListenerRegistry extends Constants {
 
    lazy val KeyValueVersionConverterFactorySingleton = new KeyValueVersionConverterFactory()
+   lazy val KeyBloomFilterFactorySingleton = new KeyBloomFilterFactory()
 
    sealed trait ClientEventType
    case object Plain extends ClientEventType
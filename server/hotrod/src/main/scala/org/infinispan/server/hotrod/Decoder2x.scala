@@ -80,6 +80,7 @@ object Decoder2x extends AbstractVersionedDecoder with ServerConstants with Log
          case 0x27 => (RemoveClientListenerRequest, false)
          case 0x29 => (SizeRequest, true)
          case 0x2B => (ExecRequest, true)
+         case 0x2D => (GetAllRequest, false)
          case _ => throw new HotRodUnknownOperationException(
             "Unknown operation: " + streamOp, version, messageId)
       }
@@ -331,6 +332,25 @@ object Decoder2x extends AbstractVersionedDecoder with ServerConstants with Log
          case GetWithMetadataRequest =>
             val k = readKey(buffer)
             getKeyMetadata(h, k, cache)
+         case GetAllRequest =>
+            val count = readUnsignedInt(buffer)
+            if (isTrace) trace("About to create get all response, count = %d", count)
+            // The count comes from the client, check it before allocating anything for it
+            val maxKeys = server.getConfiguration.maxGetAllKeys
+            if (count < 0 || count > maxKeys)
+               throw new RequestParsingException(
+                  "Invalid number of keys in getAll request: %d, the maximum is %d".format(count, maxKeys),
+                  h.version, h.messageId)
+            // Read all the keys before looking them up, the request might not be complete yet
+            val keys = new Array[Bytes](count)
+            for (i <- 0 until count) keys(i) = readKey(buffer)
+            val entries = ListBuffer[(Bytes, Bytes)]()
+            for (k <- keys) {
+               val v = cache.get(k)
+               if (v != null) entries += ((k, v))
+            }
+            new GetAllResponse(h.version, h.messageId, h.cacheName, h.clientIntel,
+               h.topologyId, entries.toList)
          case QueryRequest =>
             val query = readRangedBytes(buffer)
             val result = server.getQueryFacades.head.query(cache, query)
@@ -473,7 +493,8 @@ object Decoder2x extends AbstractVersionedDecoder with ServerConstants with Log
                  | ContainsKeyRequest
                  | BulkGetRequest
                  | GetWithMetadataRequest
-                 | BulkGetKeysRequest =>
+                 | BulkGetKeysRequest
+                 | GetAllRequest =>
                optCache = optCache.withFlags(SKIP_CACHE_LOAD)
             case _ =>
          }
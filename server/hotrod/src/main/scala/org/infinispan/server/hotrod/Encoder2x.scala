@@ -285,6 +285,12 @@ object Encoder2x extends AbstractVersionedEncoder with Constants with Log {
          case s: SizeResponse => writeUnsignedLong(s.size, buf)
          case e: ExecResponse =>
             writeRangedBytes(e.result, buf)
+         case g: GetAllResponse =>
+            writeUnsignedInt(g.entries.size, buf)
+            for ((key, value) <- g.entries) {
+               writeRangedBytes(key, buf)
+               writeRangedBytes(value, buf)
+            }
          case e: ErrorResponse => writeString(e.msg, buf)
          case _ => if (buf == null)
             throw new IllegalArgumentException("Response received is unknown: " + r)
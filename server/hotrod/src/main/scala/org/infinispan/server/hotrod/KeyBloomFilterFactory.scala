@@ -0,0 +1,50 @@
+package org.infinispan.server.hotrod
+
+import java.io.{ObjectOutput, ObjectInput}
+
+import org.infinispan.commons.marshall.AbstractExternalizer
+import org.infinispan.commons.util.BloomFilter
+import org.infinispan.metadata.Metadata
+import org.infinispan.notifications.cachelistener.filter.{CacheEventFilter, CacheEventFilterFactory, EventType}
+import org.infinispan.server.hotrod.KeyBloomFilterFactory.KeyBloomFilter
+
+import scala.collection.JavaConversions
+
+/**
+ * Creates the filters of the near caches that only want the events of the keys they hold. The only parameter is the
+ * raw bloom filter of the marshalled keys held by the near cache.
+ *
+ * @since 7.2
+ */
+class KeyBloomFilterFactory extends CacheEventFilterFactory {
+   override def getFilter[K, V](params: Array[AnyRef]): CacheEventFilter[K, V] =
+      new KeyBloomFilter(params(0).asInstanceOf[Bytes]).asInstanceOf[CacheEventFilter[K, V]]
+}
+
+object KeyBloomFilterFactory {
+   class KeyBloomFilter(val filterBytes: Bytes) extends CacheEventFilter[AnyRef, AnyRef] {
+      // Only read once created, so it can be shared by concurrent events
+      private val bloomFilter = BloomFilter.fromBytes(filterBytes)
+
+      override def accept(key: AnyRef, oldValue: AnyRef, oldMetadata: Metadata, newValue: AnyRef, newMetadata: Metadata, eventType: EventType): Boolean =
+         key match {
+            case k: Bytes => bloomFilter.mightContain(k)
+            case _ => true // keys stored unmarshalled in compatibility mode can't be checked
+         }
+   }
+
+   object KeyBloomFilter {
+      class Externalizer extends AbstractExternalizer[KeyBloomFilter] {
+         override def getTypeClasses = JavaConversions.setAsJavaSet(Set[java.lang.Class[_ <: KeyBloomFilter]](classOf[KeyBloomFilter]))
+         override def readObject(input: ObjectInput): KeyBloomFilter = {
+            val filterBytes = new Array[Byte](input.readInt())
+            input.readFully(filterBytes)
+            new KeyBloomFilter(filterBytes)
+         }
+         override def writeObject(output: ObjectOutput, filter: KeyBloomFilter): Unit = {
+            output.writeInt(filter.filterBytes.length)
+            output.write(filter.filterBytes)
+         }
+      }
+   }
+}
@@ -5,6 +5,7 @@ import org.infinispan.factories.GlobalComponentRegistry
 import org.infinispan.server.core.ExternalizerIds._
 import org.infinispan.configuration.global.GlobalConfiguration
 import org.infinispan.server.hotrod.ClientListenerRegistry.{UnmarshallConverterExternalizer, UnmarshallFilterExternalizer}
+import org.infinispan.server.hotrod.KeyBloomFilterFactory.KeyBloomFilter
 import org.infinispan.server.hotrod.KeyValueVersionConverterFactory.KeyValueVersionConverter
 
 /**
@@ -22,6 +23,7 @@ class LifecycleCallbacks extends AbstractModuleLifecycle {
       externalizers.put(BINARY_FILTER, new UnmarshallFilterExternalizer())
       externalizers.put(BINARY_CONVERTER, new UnmarshallConverterExternalizer())
       externalizers.put(KEY_VALUE_VERSION_CONVERTER, new KeyValueVersionConverter.Externalizer())
+      externalizers.put(KEY_BLOOM_FILTER, new KeyBloomFilter.Externalizer())
    }
 
 }
@@ -43,6 +43,7 @@ object OperationResponse extends Enumeration {
    
    // 2.1
    val ExecResponse = Value(0x2C)
+   val GetAllResponse = Value(0x2E)
 
    def toResponse(request: Enumeration#Value): OperationResponse = {
       request match {
@@ -67,6 +68,7 @@ object OperationResponse extends Enumeration {
          case AddClientListenerRequest => AddClientListenerResponse
          case RemoveClientListenerRequest => RemoveClientListenerResponse
          case ExecRequest => ExecResponse
+         case GetAllRequest => GetAllResponse
       }
    }
 
@@ -219,6 +219,18 @@ class ExecResponse(override val version: Byte, override val messageId: Long, ove
    }
 }
 
+class GetAllResponse(override val version: Byte, override val messageId: Long, override val cacheName: String,
+        override val clientIntel: Short, override val topologyId: Int, val entries: List[(Bytes, Bytes)])
+      extends Response(version, messageId, cacheName, clientIntel, GetAllResponse, Success, topologyId) {
+   override def toString: String = {
+      new StringBuilder().append("GetAllResponse").append("{")
+              .append("version=").append(version)
+              .append(", messageId=").append(messageId)
+              .append(", entries=").append(entries.size)
+              .append("}").toString
+   }
+}
+
 
 abstract class AbstractTopologyResponse(val topologyId: Int, val serverEndpointsMap : Map[Address, ServerAddress])
 
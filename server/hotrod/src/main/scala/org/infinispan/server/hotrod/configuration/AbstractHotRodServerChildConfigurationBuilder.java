@@ -48,4 +48,9 @@ public HotRodServerChildConfigurationBuilder topologyStateTransfer(boolean topol
       return builder.topologyStateTransfer(topologyStateTransfer);
    }
 
+   @Override
+   public HotRodServerChildConfigurationBuilder maxGetAllKeys(int maxGetAllKeys) {
+      return builder.maxGetAllKeys(maxGetAllKeys);
+   }
+
 }
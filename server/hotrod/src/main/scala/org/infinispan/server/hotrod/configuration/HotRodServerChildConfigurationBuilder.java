@@ -45,4 +45,10 @@ public interface HotRodServerChildConfigurationBuilder {
     */
    HotRodServerChildConfigurationBuilder topologyStateTransfer(boolean topologyStateTransfer);
 
+   /**
+    * Configures the maximum number of keys a single getAll request can ask for. Larger requests are rejected with a
+    * parse error before any key is read. Defaults to 100000.
+    */
+   HotRodServerChildConfigurationBuilder maxGetAllKeys(int maxGetAllKeys);
+
 }
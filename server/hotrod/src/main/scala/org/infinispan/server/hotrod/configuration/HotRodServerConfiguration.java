@@ -7,6 +7,7 @@
 @BuiltBy(HotRodServerConfigurationBuilder.class)
 public class HotRodServerConfiguration extends ProtocolServerConfiguration {
    public static final String TOPOLOGY_CACHE_NAME_PREFIX = "___hotRodTopologyCache";
+   public static final int DEFAULT_MAX_GET_ALL_KEYS = 100000;
    private final String proxyHost;
    private final int proxyPort;
    private final String topologyCacheName;
@@ -14,9 +15,10 @@ public class HotRodServerConfiguration extends ProtocolServerConfiguration {
    private final long topologyReplTimeout;
    private final boolean topologyAwaitInitialTransfer;
    private final boolean topologyStateTransfer;
+   private final int maxGetAllKeys;
    private final AuthenticationConfiguration authentication;
 
-   HotRodServerConfiguration(String defaultCacheName, String proxyHost, int proxyPort, long topologyLockTimeout, long topologyReplTimeout, boolean topologyAwaitInitialTransfer, boolean topologyStateTransfer,
+   HotRodServerConfiguration(String defaultCacheName, String proxyHost, int proxyPort, long topologyLockTimeout, long topologyReplTimeout, boolean topologyAwaitInitialTransfer, boolean topologyStateTransfer, int maxGetAllKeys,
          String name, String host, int port, int idleTimeout, int recvBufSize, int sendBufSize, SslConfiguration ssl, boolean tcpNoDelay, int workerThreads, AuthenticationConfiguration authentication) {
       super(defaultCacheName, name, host, port, idleTimeout, recvBufSize, sendBufSize, ssl, tcpNoDelay, workerThreads);
       this.proxyHost = proxyHost;
@@ -26,6 +28,7 @@ public class HotRodServerConfiguration extends ProtocolServerConfiguration {
       this.topologyReplTimeout = topologyReplTimeout;
       this.topologyStateTransfer = topologyStateTransfer;
       this.topologyAwaitInitialTransfer = topologyAwaitInitialTransfer;
+      this.maxGetAllKeys = maxGetAllKeys;
       this.authentication = authentication;
    }
 
@@ -57,6 +60,10 @@ public boolean topologyStateTransfer() {
       return topologyStateTransfer;
    }
 
+   public int maxGetAllKeys() {
+      return maxGetAllKeys;
+   }
+
    public AuthenticationConfiguration authentication() {
       return authentication;
    }
@@ -66,7 +73,8 @@ public String toString() {
       return "HotRodServerConfiguration [proxyHost=" + proxyHost + ", proxyPort=" + proxyPort + ", topologyCacheName="
             + topologyCacheName + ", topologyLockTimeout=" + topologyLockTimeout + ", topologyReplTimeout="
             + topologyReplTimeout + ", topologyAwaitInitialTransfer=" + topologyAwaitInitialTransfer
-            + ", topologyStateTransfer=" + topologyStateTransfer + ", authentication=" + authentication
+            + ", topologyStateTransfer=" + topologyStateTransfer + ", maxGetAllKeys=" + maxGetAllKeys
+            + ", authentication=" + authentication
             + ", " + super.toString() + "]";
    }
 }
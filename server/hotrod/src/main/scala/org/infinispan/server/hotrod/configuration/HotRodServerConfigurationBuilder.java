@@ -4,7 +4,9 @@
 import org.infinispan.configuration.cache.LockingConfigurationBuilder;
 import org.infinispan.configuration.cache.StateTransferConfigurationBuilder;
 import org.infinispan.configuration.cache.SyncConfigurationBuilder;
+import org.infinispan.commons.logging.LogFactory;
 import org.infinispan.server.core.configuration.ProtocolServerConfigurationBuilder;
+import org.infinispan.server.hotrod.logging.JavaLog;
 
 /**
  * HotRodServerConfigurationBuilder.
@@ -14,6 +16,7 @@
  */
 public class HotRodServerConfigurationBuilder extends ProtocolServerConfigurationBuilder<HotRodServerConfiguration, HotRodServerConfigurationBuilder> implements
       Builder<HotRodServerConfiguration>, HotRodServerChildConfigurationBuilder {
+   private static final JavaLog log = LogFactory.getLog(HotRodServerConfigurationBuilder.class, JavaLog.class);
    private final AuthenticationConfigurationBuilder authentication = new AuthenticationConfigurationBuilder(this);
    private String proxyHost;
    private int proxyPort = -1;
@@ -21,6 +24,7 @@ public class HotRodServerConfigurationBuilder extends ProtocolServerConfiguratio
    private long topologyReplTimeout = 10000L;
    private boolean topologyAwaitInitialTransfer = true;
    private boolean topologyStateTransfer = true;
+   private int maxGetAllKeys = HotRodServerConfiguration.DEFAULT_MAX_GET_ALL_KEYS;
 
    public HotRodServerConfigurationBuilder() {
       super(11222);
@@ -91,9 +95,19 @@ public HotRodServerConfigurationBuilder topologyStateTransfer(boolean topologySt
       return this;
    }
 
+   /**
+    * Configures the maximum number of keys a single getAll request can ask for. Larger requests are rejected with a
+    * parse error before any key is read. Defaults to 100000.
+    */
+   @Override
+   public HotRodServerConfigurationBuilder maxGetAllKeys(int maxGetAllKeys) {
+      this.maxGetAllKeys = maxGetAllKeys;
+      return this;
+   }
+
    @Override
    public HotRodServerConfiguration create() {
-      return new HotRodServerConfiguration(defaultCacheName, proxyHost, proxyPort, topologyLockTimeout, topologyReplTimeout, topologyAwaitInitialTransfer, topologyStateTransfer, name, host, port, idleTimeout,
+      return new HotRodServerConfiguration(defaultCacheName, proxyHost, proxyPort, topologyLockTimeout, topologyReplTimeout, topologyAwaitInitialTransfer, topologyStateTransfer, maxGetAllKeys, name, host, port, idleTimeout,
             recvBufSize, sendBufSize, ssl.create(), tcpNoDelay, workerThreads, authentication.create());
    }
 
@@ -106,6 +120,7 @@ public HotRodServerConfigurationBuilder read(HotRodServerConfiguration template)
       this.topologyReplTimeout = template.topologyReplTimeout();
       this.topologyAwaitInitialTransfer = template.topologyAwaitInitialTransfer();
       this.topologyStateTransfer = template.topologyStateTransfer();
+      this.maxGetAllKeys = template.maxGetAllKeys();
       return this;
    }
 
@@ -118,6 +133,9 @@ public void validate() {
       if (proxyPort < 0) {
          proxyPort = port;
       }
+      if (maxGetAllKeys <= 0) {
+         throw log.invalidMaxGetAllKeys(maxGetAllKeys);
+      }
       authentication.validate();
    }
 
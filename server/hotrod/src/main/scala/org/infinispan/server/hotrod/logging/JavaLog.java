@@ -68,4 +68,7 @@ public interface JavaLog extends org.infinispan.util.logging.Log {
    @Message(value = "Marshaller already set to '%s', ignoring passed '%s'", id = 6012)
    void warnMarshallerAlreadySet(Marshaller existingMarshaller, Marshaller newMarshaller);
 
+   @Message(value = "The maximum number of keys of a getAll request must be positive, but it was %d", id = 6013)
+   CacheConfigurationException invalidMaxGetAllKeys(int maxGetAllKeys);
+
 }
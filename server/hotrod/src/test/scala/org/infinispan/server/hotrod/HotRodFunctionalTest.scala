@@ -14,6 +14,7 @@ import org.infinispan.server.hotrod.configuration.HotRodServerConfiguration
 import org.infinispan.test.fwk.TestCacheManagerFactory
 import org.infinispan.server.core.QueryFacade
 import org.infinispan.AdvancedCache
+import org.infinispan.commons.util.Util
 
 /**
  * Hot Rod server functional test.
@@ -490,6 +491,31 @@ class HotRodFunctionalTest extends HotRodSingleNodeTest {
       assertEquals(20, sizeEnd.size)
    }
 
+   def testGetAll(m: Method) {
+      for (i <- 0 until 10) client.assertPut(m, s"k-$i-", s"v-$i-")
+      // Half of the requested keys do not exist
+      val keys = for (i <- 0 until 20) yield k(m, s"k-$i-")
+      val resp = client.getAll(keys)
+      assertStatus(resp, Success)
+      assertEquals(10, resp.entries.size)
+      for ((key, value) <- resp.entries) {
+         val i = keys.indexWhere(Arrays.equals(_, key))
+         assertTrue(i >= 0 && i < 10, "Unexpected key " + Util.printArray(key, false))
+         assertTrue(Arrays.equals(v(m, s"v-$i-"), value))
+      }
+
+      assertEquals(0, client.getAll(Seq.empty).entries.size)
+   }
+
+   def testGetAllWithTooManyKeys(m: Method) {
+      // The request announces more keys than the server accepts, it is rejected before reading them
+      val resp = client.getAll(HotRodServerConfiguration.DEFAULT_MAX_GET_ALL_KEYS + 1, Seq.empty)
+            .asInstanceOf[TestErrorResponse]
+      assertEquals(resp.status, ParseError, "Status should have been 'ParseError' but instead was: " + resp.status)
+      assertTrue(resp.msg.contains("Invalid number of keys"), resp.msg)
+      client.assertPut(m)
+   }
+
    protected def assertSuccessPrevious(resp: TestResponseWithPrevious, expected: Array[Byte]): Boolean = {
       if (expected == null) assertEquals(None, resp.previous)
       else assertTrue(java.util.Arrays.equals(expected, resp.previous.get))
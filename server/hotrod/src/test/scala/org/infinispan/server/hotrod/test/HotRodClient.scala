@@ -291,6 +291,19 @@ class HotRodClient(host: String, port: Int, val defaultCacheName: String, rspTim
       handler.getResponse(op.id).asInstanceOf[TestSizeResponse]
    }
 
+   def getAll(keys: Seq[Bytes]): TestGetAllResponse =
+      getAll(keys.size, keys).asInstanceOf[TestGetAllResponse]
+
+   /**
+    * Sends a getAll request announcing `count` keys, which might not match the keys actually sent.
+    */
+   def getAll(count: Int, keys: Seq[Bytes]): TestResponse = {
+      val op = new GetAllOp(0xA0, protocolVersion, defaultCacheName, 1, 0, count, keys)
+      val writeFuture = writeOp(op)
+      val handler = ch.pipeline.last.asInstanceOf[ClientHandler]
+      handler.getResponse(op.id)
+   }
+
 }
 
 private class ClientChannelInitializer(client: HotRodClient, rspTimeoutSeconds: Int, sslEngine: SSLEngine, protocolVersion: Byte) extends ChannelInitializer[Channel] {
@@ -327,6 +340,10 @@ private class Encoder(protocolVersion: Byte) extends MessageToByteEncoder[Object
          case op: RemoveClientListenerOp =>
             writeHeader(op, buffer)
             writeRangedBytes(op.listenerId, buffer)
+         case op: GetAllOp =>
+            writeHeader(op, buffer)
+            writeUnsignedInt(op.count, buffer)
+            op.keys.foreach(writeRangedBytes(_, buffer))
          case op: Op => {
             writeHeader(op, buffer)
             if (protocolVersion < 20)
@@ -582,6 +599,14 @@ private class Decoder(client: HotRodClient) extends ReplayingDecoder[Void] with
             val size = readUnsignedLong(buf)
             new TestSizeResponse(op.version, id, op.cacheName, op.clientIntel,
                size, op.topologyId, topologyChangeResponse)
+         case GetAllResponse =>
+            val size = readUnsignedInt(buf)
+            val entries = mutable.Map.empty[Array[Byte], Array[Byte]]
+            for (i <- 1 to size) {
+               entries += (readRangedBytes(buf) -> readRangedBytes(buf))
+            }
+            new TestGetAllResponse(op.version, id, op.cacheName, op.clientIntel,
+               immutable.Map[Array[Byte], Array[Byte]]() ++ entries, op.topologyId, topologyChangeResponse)
          case ErrorResponse => {
             if (op == null)
                new TestErrorResponse(10, id, "", 0, status, 0,
@@ -875,6 +900,16 @@ class SizeOp(override val magic: Int,
       extends Op(magic, version, 0x29, cacheName, null, 0, 0, null, 0, 0,
          clientIntel, topologyId)
 
+class GetAllOp(override val magic: Int,
+      override val version: Byte,
+      override val cacheName: String,
+      override val clientIntel: Byte,
+      override val topologyId: Int,
+      val count: Int,
+      val keys: Seq[Bytes])
+      extends Op(magic, version, 0x2D, cacheName, null, 0, 0, null, 0, 0,
+         clientIntel, topologyId)
+
 class TestResponse(override val version: Byte, override val messageId: Long,
                    override val cacheName: String, override val clientIntel: Short,
                    override val operation: OperationResponse,
@@ -955,6 +990,12 @@ class TestBulkGetResponse(override val version: Byte, override val messageId: Lo
                           override val topologyId: Int, override val topologyResponse: Option[AbstractTestTopologyAwareResponse])
       extends TestResponse(version, messageId, cacheName, clientIntel, BulkGetResponse, Success, topologyId, topologyResponse)
 
+class TestGetAllResponse(override val version: Byte, override val messageId: Long,
+                         override val cacheName: String, override val clientIntel: Short,
+                         val entries: Map[Array[Byte], Array[Byte]],
+                         override val topologyId: Int, override val topologyResponse: Option[AbstractTestTopologyAwareResponse])
+      extends TestResponse(version, messageId, cacheName, clientIntel, GetAllResponse, Success, topologyId, topologyResponse)
+
 class TestBulkGetKeysResponse(override val version: Byte, override val messageId: Long,
                           override val cacheName: String, override val clientIntel: Short,
                           val bulkData: Set[Array[Byte]],